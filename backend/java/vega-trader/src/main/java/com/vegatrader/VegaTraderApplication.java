@@ -24,11 +24,6 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableAsync
 public class VegaTraderApplication {
 
-    @org.springframework.context.annotation.Bean
-    public okhttp3.OkHttpClient okHttpClient() {
-        return new okhttp3.OkHttpClient();
-    }
-
     public static void main(String[] args) {
         SpringApplication.run(VegaTraderApplication.class, args);
     }
@@ -0,0 +1,456 @@
+package com.vegatrader.ai;
+
+import com.vegatrader.ai.model.Model;
+import com.vegatrader.ai.model.ModelArtifact;
+import com.vegatrader.ai.model.ModelLoader;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.upstox.api.http.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process CPU inference for small models: linear and logistic models,
+ * tree ensembles and MLPs read by {@link ModelLoader}.
+ *
+ * <p>
+ * Scoring runs on the caller's thread over flat {@code double[]} batches.
+ * Each model has a latency histogram of its batches. Loading a model under
+ * an existing name swaps it in atomically: batches already running finish
+ * on the old model and every later batch uses the new one. A shadow model
+ * can run alongside a live one on the same rows; its scores are never
+ * returned, only compared with the live scores, and it can then be promoted
+ * or dropped.
+ *
+ * <p>
+ * With {@code ai.models.dir} set, every {@code <name>.json} in that
+ * directory is loaded at startup, and {@code <name>.shadow.json} as the
+ * shadow of {@code <name>}.
+ *
+ * @since 5.0.0
+ */
+@Service
+public class CpuInferenceEngine implements InferenceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuInferenceEngine.class);
+
+    private static final String EXTENSION = ".json";
+    private static final String SHADOW_EXTENSION = ".shadow.json";
+
+    private final MarketCacheService marketCache;
+    private final IndicatorEngine indicatorEngine;
+    private final String modelDir;
+    private final Map<String, Deployment> models = new ConcurrentHashMap<>();
+    /** Per thread: live features, shadow features, shadow scores */
+    private final ThreadLocal<double[][]> buffers = ThreadLocal.withInitial(() -> new double[3][0]);
+
+    /**
+     * Engine without a model directory; models are loaded explicitly.
+     *
+     * @param indicatorEngine may be {@code null} if no model uses indicator
+     *                        features
+     */
+    public CpuInferenceEngine(MarketCacheService marketCache, IndicatorEngine indicatorEngine) {
+        this(marketCache, indicatorEngine, "");
+    }
+
+    @Autowired
+    public CpuInferenceEngine(MarketCacheService marketCache, IndicatorEngine indicatorEngine,
+            @Value("${ai.models.dir:}") String modelDir) {
+        this.marketCache = marketCache;
+        this.indicatorEngine = indicatorEngine;
+        this.modelDir = modelDir;
+    }
+
+    /**
+     * Loads the models in {@code ai.models.dir}. A file that fails to load
+     * is logged and skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadModelDirectory() {
+        if (modelDir == null || modelDir.isBlank() || !Files.isDirectory(Path.of(modelDir))) {
+            return;
+        }
+        List<Path> shadows = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(modelDir), "*" + EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(SHADOW_EXTENSION)) {
+                    shadows.add(file);
+                    continue;
+                }
+                tryLoad(file, fileName.substring(0, fileName.length() - EXTENSION.length()), false);
+            }
+        } catch (IOException e) {
+            logger.error("Cannot list model directory {}: {}", modelDir, e.getMessage());
+            return;
+        }
+        for (Path file : shadows) {
+            String fileName = file.getFileName().toString();
+            tryLoad(file, fileName.substring(0, fileName.length() - SHADOW_EXTENSION.length()), true);
+        }
+    }
+
+    private void tryLoad(Path file, String name, boolean shadow) {
+        try {
+            if (shadow) {
+                loadShadow(name, file.toString());
+            } else {
+                loadModel(name, file.toString());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Skipping model file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves a model file named relative to {@code ai.models.dir}.
+     *
+     * @throws IllegalArgumentException if no model directory is set, for
+     *                                  absolute paths, {@code ..} segments or
+     *                                  anything that normalizes outside the
+     *                                  model directory
+     */
+    public Path modelFile(String relativePath) {
+        if (modelDir == null || modelDir.isBlank()) {
+            throw new IllegalArgumentException("No model directory configured (ai.models.dir)");
+        }
+        Path relative = Path.of(relativePath);
+        if (relative.isAbsolute()) {
+            throw new IllegalArgumentException("Model path must be relative: " + relativePath);
+        }
+        for (Path segment : relative) {
+            if ("..".equals(segment.toString())) {
+                throw new IllegalArgumentException("Model path must not contain '..': " + relativePath);
+            }
+        }
+        Path base = Path.of(modelDir).toAbsolutePath().normalize();
+        Path file = base.resolve(relative).normalize();
+        if (!file.startsWith(base) || file.equals(base)) {
+            throw new IllegalArgumentException("Model path outside the model directory: " + relativePath);
+        }
+        return file;
+    }
+
+    // ----- models -----
+
+    /**
+     * @throws IllegalArgumentException if the file is not a valid model or
+     *                                  names an unknown feature; the
+     *                                  current model stays live
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    @Override
+    public synchronized void loadModel(String modelName, String modelPath) {
+        ModelArtifact artifact = read(modelPath);
+        FeatureAssembler assembler = new FeatureAssembler(artifact.features(), marketCache, indicatorEngine);
+        Deployment previous = models.get(modelName);
+        Deployment next = new Deployment(artifact, assembler);
+        if (previous != null && previous.shadow != null
+                && previous.shadow.artifact.model().outputs() == artifact.model().outputs()) {
+            next.shadow = previous.shadow;
+        }
+        models.put(modelName, next);
+        if (previous != null) {
+            previous.assembler.close();
+            if (previous.shadow != null && next.shadow == null) {
+                previous.shadow.assembler.close();
+            }
+        }
+        logger.info("Loaded {} model {} version {} ({} features, {} outputs){}", artifact.model().kind(), modelName,
+                artifact.version(), artifact.model().inputs(), artifact.model().outputs(),
+                previous != null ? ", replacing version " + previous.artifact.version() : "");
+    }
+
+    /**
+     * Runs a model in the shadow of live model {@code modelName}.
+     *
+     * @throws IllegalArgumentException if there is no such live model or
+     *                                  the outputs differ
+     */
+    public synchronized void loadShadow(String modelName, String modelPath) {
+        Deployment live = require(modelName);
+        ModelArtifact artifact = read(modelPath);
+        if (artifact.model().outputs() != live.artifact.model().outputs()) {
+            throw new IllegalArgumentException("Shadow of " + modelName + " has " + artifact.model().outputs()
+                    + " outputs, live model has " + live.artifact.model().outputs());
+        }
+        Shadow previous = live.shadow;
+        live.shadow = new Shadow(artifact, new FeatureAssembler(artifact.features(), marketCache, indicatorEngine));
+        if (previous != null) {
+            previous.assembler.close();
+        }
+        logger.info("Shadowing {} version {} with version {}", modelName, live.artifact.version(),
+                artifact.version());
+    }
+
+    /**
+     * Makes the shadow of {@code modelName} the live model.
+     */
+    public synchronized void promoteShadow(String modelName) {
+        Deployment live = require(modelName);
+        Shadow shadow = live.shadow;
+        if (shadow == null) {
+            throw new IllegalArgumentException("Model " + modelName + " has no shadow");
+        }
+        models.put(modelName, new Deployment(shadow.artifact, shadow.assembler));
+        live.assembler.close();
+        logger.info("Promoted {} version {} over version {}", modelName, shadow.artifact.version(),
+                live.artifact.version());
+    }
+
+    public synchronized void removeShadow(String modelName) {
+        Deployment live = require(modelName);
+        Shadow shadow = live.shadow;
+        live.shadow = null;
+        if (shadow != null) {
+            shadow.assembler.close();
+        }
+    }
+
+    public synchronized void unloadModel(String modelName) {
+        Deployment removed = models.remove(modelName);
+        if (removed != null) {
+            removed.assembler.close();
+            if (removed.shadow != null) {
+                removed.shadow.assembler.close();
+            }
+        }
+    }
+
+    private static ModelArtifact read(String modelPath) {
+        try {
+            return ModelLoader.load(Path.of(modelPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read model file " + modelPath, e);
+        }
+    }
+
+    // ----- scoring -----
+
+    @Override
+    public void score(String modelName, double[] features, int rows, double[] out) {
+        Deployment live = require(modelName);
+        Model model = live.artifact.model();
+        checkBatch(modelName, model, features.length, rows, out.length);
+        long start = System.nanoTime();
+        model.predict(features, rows, out);
+        live.record(System.nanoTime() - start, rows);
+
+        Shadow shadow = live.shadow;
+        if (shadow != null && shadow.artifact.features().equals(live.artifact.features())) {
+            shadow(shadow, features, rows, out);
+        }
+    }
+
+    @Override
+    public void scoreInstruments(String modelName, String[] instrumentKeys, int rows, double[] out) {
+        Deployment live = require(modelName);
+        Model model = live.artifact.model();
+        if (instrumentKeys.length < rows) {
+            throw new IllegalArgumentException(rows + " rows but " + instrumentKeys.length + " instruments");
+        }
+        double[] features = buffer(0, rows * model.inputs());
+        checkBatch(modelName, model, features.length, rows, out.length);
+        live.assembler.assemble(instrumentKeys, rows, features);
+        long start = System.nanoTime();
+        model.predict(features, rows, out);
+        live.record(System.nanoTime() - start, rows);
+
+        Shadow shadow = live.shadow;
+        if (shadow != null) {
+            double[] shadowFeatures = features;
+            if (!shadow.artifact.features().equals(live.artifact.features())) {
+                shadowFeatures = buffer(1, rows * shadow.artifact.model().inputs());
+                shadow.assembler.assemble(instrumentKeys, rows, shadowFeatures);
+            }
+            shadow(shadow, shadowFeatures, rows, out);
+        }
+    }
+
+    /**
+     * Scores the same rows with the shadow and compares with the live
+     * scores. Shadow failures are counted, never thrown.
+     */
+    private void shadow(Shadow shadow, double[] features, int rows, double[] live) {
+        try {
+            Model model = shadow.artifact.model();
+            double[] scores = buffer(2, rows * model.outputs());
+            long start = System.nanoTime();
+            model.predict(features, rows, scores);
+            shadow.latency.record(System.nanoTime() - start);
+            double sum = 0;
+            double max = 0;
+            int compared = 0;
+            for (int i = 0, n = rows * model.outputs(); i < n; i++) {
+                double diff = Math.abs(scores[i] - live[i]);
+                if (diff == diff) { // both scores defined
+                    sum += diff;
+                    max = Math.max(max, diff);
+                    compared++;
+                }
+            }
+            shadow.rows.add(rows);
+            shadow.compared.add(compared);
+            shadow.absDiff.add(sum);
+            shadow.maxAbsDiff.accumulate(max);
+        } catch (RuntimeException e) {
+            shadow.errors.increment();
+            logger.debug("Shadow model {} failed: {}", shadow.artifact.version(), e.getMessage());
+        }
+    }
+
+    private static void checkBatch(String modelName, Model model, int features, int rows, int out) {
+        if (rows < 0 || features < rows * model.inputs() || out < rows * model.outputs()) {
+            throw new IllegalArgumentException("Model " + modelName + " needs " + model.inputs() + " features and "
+                    + model.outputs() + " outputs per row; got " + features + " and " + out + " for " + rows
+                    + " rows");
+        }
+    }
+
+    /**
+     * @return this thread's scratch array {@code slot}, at least
+     *         {@code size} long
+     */
+    private double[] buffer(int slot, int size) {
+        double[][] arrays = buffers.get();
+        if (arrays[slot].length < size) {
+            arrays[slot] = new double[Math.max(size, arrays[slot].length * 2)];
+        }
+        return arrays[slot];
+    }
+
+    @Override
+    public int inputSize(String modelName) {
+        return require(modelName).artifact.model().inputs();
+    }
+
+    @Override
+    public int outputSize(String modelName) {
+        return require(modelName).artifact.model().outputs();
+    }
+
+    /**
+     * @return the features the live model takes, in input order
+     */
+    public List<String> getFeatures(String modelName) {
+        return require(modelName).artifact.features();
+    }
+
+    public boolean hasModel(String modelName) {
+        return models.containsKey(modelName);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    private Deployment require(String modelName) {
+        Deployment deployment = models.get(modelName);
+        if (deployment == null) {
+            throw new IllegalArgumentException("No model loaded as " + modelName);
+        }
+        return deployment;
+    }
+
+    // ----- stats -----
+
+    public ModelStats getStats(String modelName) {
+        return require(modelName).stats(modelName);
+    }
+
+    /**
+     * Stats of every live model, by name.
+     */
+    public Map<String, ModelStats> getStats() {
+        Map<String, ModelStats> stats = new TreeMap<>();
+        models.forEach((name, deployment) -> stats.put(name, deployment.stats(name)));
+        return stats;
+    }
+
+    /**
+     * A live model and its counters, replaced whole on swap.
+     */
+    private static final class Deployment {
+        final ModelArtifact artifact;
+        final FeatureAssembler assembler;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        volatile Shadow shadow;
+
+        Deployment(ModelArtifact artifact, FeatureAssembler assembler) {
+            this.artifact = artifact;
+            this.assembler = assembler;
+        }
+
+        void record(long nanos, int batchRows) {
+            latency.record(nanos);
+            rows.add(batchRows);
+        }
+
+        ModelStats stats(String name) {
+            Shadow s = shadow;
+            ShadowStats shadowStats = null;
+            if (s != null) {
+                long compared = s.compared.sum();
+                shadowStats = new ShadowStats(s.artifact.version(), s.rows.sum(), s.errors.sum(),
+                        compared == 0 ? 0 : s.absDiff.sum() / compared, s.maxAbsDiff.get(),
+                        s.latency.percentileMicros(99));
+            }
+            Model model = artifact.model();
+            return new ModelStats(name, model.kind(), artifact.version(), model.inputs(), model.outputs(),
+                    latency.count(), rows.sum(), latency.meanMicros(), latency.percentileMicros(50),
+                    latency.percentileMicros(99), latency.maxMicros(), shadowStats);
+        }
+    }
+
+    private static final class Shadow {
+        final ModelArtifact artifact;
+        final FeatureAssembler assembler;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder compared = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final DoubleAdder absDiff = new DoubleAdder();
+        final DoubleAccumulator maxAbsDiff = new DoubleAccumulator(Math::max, 0);
+
+        Shadow(ModelArtifact artifact, FeatureAssembler assembler) {
+            this.artifact = artifact;
+            this.assembler = assembler;
+        }
+    }
+
+    /**
+     * @param batches number of scored batches (latencies are per batch)
+     */
+    public record ModelStats(String name, String kind, String version, int inputs, int outputs, long batches,
+            long rows, double meanMicros, long p50Micros, long p99Micros, long maxMicros, ShadowStats shadow) {
+    }
+
+    /**
+     * @param meanAbsDiff mean absolute difference from the live scores
+     */
+    public record ShadowStats(String version, long rows, long errors, double meanAbsDiff, double maxAbsDiff,
+            long p99Micros) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.vegatrader.ai;
+
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.indicator.IndicatorSpec;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds model input rows for instruments straight from the live market
+ * cache and the {@link IndicatorEngine}.
+ *
+ * <p>
+ * Feature names are compiled once into an array of opcodes, so assembling a
+ * row is one cache lookup per instrument and a switch per feature. Names
+ * are either market fields ({@code ltp}, {@code open}, {@code high},
+ * {@code low}, {@code close}, {@code volume}, {@code oi},
+ * {@code change_pct}, {@code range_pct}, {@code bid}, {@code ask},
+ * {@code spread_pct}, {@code imbalance}) or {@link IndicatorSpec}s such as
+ * {@code RSI(14,5m)}. Indicators are subscribed per instrument on first use
+ * and held until {@link #close()}. A value that is not available yet (no
+ * tick, empty book, indicator warming up) is {@code NaN}.
+ *
+ * @since 5.0.0
+ */
+public final class FeatureAssembler implements AutoCloseable {
+
+    private static final int LTP = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int VOLUME = 5;
+    private static final int OI = 6;
+    private static final int CHANGE_PCT = 7;
+    private static final int RANGE_PCT = 8;
+    private static final int BID = 9;
+    private static final int ASK = 10;
+    private static final int SPREAD_PCT = 11;
+    private static final int IMBALANCE = 12;
+    /** Opcodes from here on index {@link #indicators}. */
+    private static final int INDICATOR = 100;
+
+    private static final Map<String, Integer> FIELDS = Map.ofEntries(
+            Map.entry("ltp", LTP), Map.entry("open", OPEN), Map.entry("high", HIGH), Map.entry("low", LOW),
+            Map.entry("close", CLOSE), Map.entry("volume", VOLUME), Map.entry("oi", OI),
+            Map.entry("change_pct", CHANGE_PCT), Map.entry("range_pct", RANGE_PCT), Map.entry("bid", BID),
+            Map.entry("ask", ASK), Map.entry("spread_pct", SPREAD_PCT), Map.entry("imbalance", IMBALANCE));
+
+    private static final IndicatorEngine.Subscription[] NO_SUBSCRIPTIONS = new IndicatorEngine.Subscription[0];
+
+    private final MarketCacheService marketCache;
+    private final IndicatorEngine indicatorEngine;
+    private final int[] ops;
+    private final IndicatorSpec[] indicators;
+    private final boolean needsDepth;
+    private final Map<String, IndicatorEngine.Subscription[]> subscriptions = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param indicatorEngine may be {@code null} if no feature is an
+     *                        indicator
+     * @throws IllegalArgumentException for an unknown feature name
+     */
+    public FeatureAssembler(List<String> features, MarketCacheService marketCache, IndicatorEngine indicatorEngine) {
+        this.marketCache = marketCache;
+        this.indicatorEngine = indicatorEngine;
+        this.ops = new int[features.size()];
+        IndicatorSpec[] specs = new IndicatorSpec[features.size()];
+        int indicatorCount = 0;
+        boolean depth = false;
+        for (int f = 0; f < ops.length; f++) {
+            String name = features.get(f);
+            Integer field = FIELDS.get(name.toLowerCase(Locale.ROOT));
+            if (field != null) {
+                ops[f] = field;
+                depth |= field >= BID;
+                continue;
+            }
+            IndicatorSpec spec;
+            try {
+                spec = IndicatorSpec.parse(name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown feature '" + name + "'");
+            }
+            if (indicatorEngine == null) {
+                throw new IllegalArgumentException("Feature " + name + " needs the indicator engine");
+            }
+            specs[indicatorCount] = spec;
+            ops[f] = INDICATOR + indicatorCount++;
+        }
+        this.indicators = Arrays.copyOf(specs, indicatorCount);
+        this.needsDepth = depth;
+    }
+
+    public int features() {
+        return ops.length;
+    }
+
+    /**
+     * Fills one row of {@link #features()} values per instrument.
+     *
+     * @param instrumentKeys at least {@code rows} instruments
+     * @param out            receives {@code rows * features()} values,
+     *                       row-major
+     */
+    public void assemble(String[] instrumentKeys, int rows, double[] out) {
+        int width = ops.length;
+        for (int r = 0; r < rows; r++) {
+            String key = instrumentKeys[r];
+            LiveMarketSnapshot tick = marketCache.getTick(key);
+            OrderBookSnapshot book = needsDepth ? marketCache.getDepth(key) : null;
+            IndicatorEngine.Subscription[] subs = indicators.length > 0 ? subscriptions(key) : NO_SUBSCRIPTIONS;
+            int o = r * width;
+            for (int f = 0; f < width; f++) {
+                int op = ops[f];
+                out[o + f] = op < INDICATOR ? market(op, tick, book)
+                        : subs != null ? subs[op - INDICATOR].value() : Double.NaN;
+            }
+        }
+    }
+
+    private static double market(int op, LiveMarketSnapshot tick, OrderBookSnapshot book) {
+        if (op >= BID) {
+            DepthLevel bid = book != null && !book.getBids().isEmpty() ? book.getBids().get(0) : null;
+            DepthLevel ask = book != null && !book.getAsks().isEmpty() ? book.getAsks().get(0) : null;
+            return switch (op) {
+                case BID -> bid != null ? bid.getPrice() : Double.NaN;
+                case ASK -> ask != null ? ask.getPrice() : Double.NaN;
+                case SPREAD_PCT -> bid != null && ask != null && bid.getPrice() + ask.getPrice() > 0
+                        ? (ask.getPrice() - bid.getPrice()) / ((ask.getPrice() + bid.getPrice()) / 2) * 100
+                        : Double.NaN;
+                default -> bid != null && ask != null && bid.getQuantity() + ask.getQuantity() > 0
+                        ? (double) (bid.getQuantity() - ask.getQuantity()) / (bid.getQuantity() + ask.getQuantity())
+                        : Double.NaN;
+            };
+        }
+        if (tick == null) {
+            return Double.NaN;
+        }
+        return switch (op) {
+            case LTP -> tick.getLtp();
+            case OPEN -> tick.getOpen();
+            case HIGH -> tick.getHigh();
+            case LOW -> tick.getLow();
+            case CLOSE -> tick.getClose();
+            case VOLUME -> tick.getVolume();
+            case OI -> tick.getOi();
+            case CHANGE_PCT -> tick.getClose() > 0 ? tick.getChangePercent() : Double.NaN;
+            default -> tick.getLtp() > 0 ? (tick.getHigh() - tick.getLow()) / tick.getLtp() * 100 : Double.NaN;
+        };
+    }
+
+    private IndicatorEngine.Subscription[] subscriptions(String instrumentKey) {
+        IndicatorEngine.Subscription[] subs = subscriptions.get(instrumentKey);
+        if (subs != null) {
+            return subs;
+        }
+        if (closed) {
+            return null; // swapped out mid-batch
+        }
+        subs = subscriptions.computeIfAbsent(instrumentKey, key -> {
+            if (closed) {
+                return null;
+            }
+            IndicatorEngine.Subscription[] created = new IndicatorEngine.Subscription[indicators.length];
+            for (int i = 0; i < indicators.length; i++) {
+                created[i] = indicatorEngine.subscribe(key, indicators[i], (k, spec, barTime, value) -> {
+                });
+            }
+            return created;
+        });
+        // close() may have swept the map before this entry went in
+        if (subs != null && closed) {
+            if (subscriptions.remove(instrumentKey, subs)) {
+                release(subs);
+            }
+            return null;
+        }
+        return subs;
+    }
+
+    /**
+     * Releases the indicator subscriptions. Each entry is removed before it
+     * is released, so an entry racing in from {@link #assemble} is released
+     * exactly once, here or there.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (String key : subscriptions.keySet()) {
+            IndicatorEngine.Subscription[] subs = subscriptions.remove(key);
+            if (subs != null) {
+                release(subs);
+            }
+        }
+    }
+
+    private static void release(IndicatorEngine.Subscription[] subs) {
+        for (IndicatorEngine.Subscription sub : subs) {
+            sub.close();
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.vegatrader.ai;
 
-import java.util.List;
-import java.util.Map;
-
 /**
  * Interface for AI Inference Engine.
- * Abstraction for ONNX/TensorRT execution.
+ * Runs loaded models on batches of feature rows held in flat primitive
+ * arrays, row-major, with no per-value boxing.
  */
 public interface InferenceEngine {
 
     /**
-     * Run inference on a named model.
-     * 
+     * Score rows of features already assembled by the caller.
+     *
      * @param modelName Name of the loaded model
-     * @param inputs    Map of input tensor names to data
-     * @return Map of output tensor names to data
+     * @param features  {@code rows * inputSize(modelName)} features
+     * @param rows      Number of rows to score
+     * @param out       Receives {@code rows * outputSize(modelName)} scores
+     */
+    void score(String modelName, double[] features, int rows, double[] out);
+
+    /**
+     * Score instruments on their live features (market cache and
+     * indicators), one row per instrument.
+     *
+     * @param out Receives {@code rows * outputSize(modelName)} scores
      */
-    Map<String, Object> runInference(String modelName, Map<String, Object> inputs);
+    void scoreInstruments(String modelName, String[] instrumentKeys, int rows, double[] out);
+
+    int inputSize(String modelName);
+
+    int outputSize(String modelName);
 
     /**
-     * Load a model from path.
+     * Load a model from path, replacing any model of that name.
      */
     void loadModel(String modelName, String modelPath);
 
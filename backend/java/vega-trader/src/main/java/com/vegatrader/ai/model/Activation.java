@@ -0,0 +1,72 @@
+package com.vegatrader.ai.model;
+
+import java.util.Locale;
+
+/**
+ * Element-wise (or, for softmax, per-row) output transforms.
+ *
+ * @since 5.0.0
+ */
+public enum Activation {
+
+    IDENTITY,
+    RELU,
+    TANH,
+    SIGMOID,
+    SOFTMAX;
+
+    /**
+     * Applies the activation to {@code v[from .. to)} in place.
+     */
+    public void apply(double[] v, int from, int to) {
+        switch (this) {
+            case IDENTITY -> {
+            }
+            case RELU -> {
+                for (int i = from; i < to; i++) {
+                    v[i] = v[i] > 0 ? v[i] : 0;
+                }
+            }
+            case TANH -> {
+                for (int i = from; i < to; i++) {
+                    v[i] = Math.tanh(v[i]);
+                }
+            }
+            case SIGMOID -> {
+                for (int i = from; i < to; i++) {
+                    v[i] = 1 / (1 + Math.exp(-v[i]));
+                }
+            }
+            case SOFTMAX -> {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    max = Math.max(max, v[i]);
+                }
+                double sum = 0;
+                for (int i = from; i < to; i++) {
+                    v[i] = Math.exp(v[i] - max);
+                    sum += v[i];
+                }
+                for (int i = from; i < to; i++) {
+                    v[i] /= sum;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param name case-insensitive name; {@code null} or {@code "linear"}
+     *             for {@link #IDENTITY}
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public static Activation parse(String name) {
+        if (name == null || name.equalsIgnoreCase("linear") || name.equalsIgnoreCase("none")) {
+            return IDENTITY;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown activation: " + name);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.vegatrader.ai.model;
+
+/**
+ * Linear or logistic model: {@code y = link(W x + b)}.
+ *
+ * @since 5.0.0
+ */
+public final class LinearModel implements Model {
+
+    private final int inputs;
+    private final int outputs;
+    /** outputs × inputs, row-major */
+    private final double[] weights;
+    private final double[] bias;
+    private final Activation link;
+
+    /**
+     * @param weights {@code outputs * inputs} weights, one row per output
+     * @param bias    one per output
+     */
+    public LinearModel(int inputs, double[] weights, double[] bias, Activation link) {
+        if (inputs <= 0 || bias.length == 0 || weights.length != inputs * bias.length) {
+            throw new IllegalArgumentException("Linear model needs " + inputs + " weights per output, got "
+                    + weights.length + " for " + bias.length + " outputs");
+        }
+        this.inputs = inputs;
+        this.outputs = bias.length;
+        this.weights = weights.clone();
+        this.bias = bias.clone();
+        this.link = link;
+    }
+
+    @Override
+    public int inputs() {
+        return inputs;
+    }
+
+    @Override
+    public int outputs() {
+        return outputs;
+    }
+
+    @Override
+    public void predict(double[] x, int rows, double[] y) {
+        for (int r = 0; r < rows; r++) {
+            int xo = r * inputs;
+            int yo = r * outputs;
+            for (int o = 0; o < outputs; o++) {
+                int wo = o * inputs;
+                double sum = bias[o];
+                for (int i = 0; i < inputs; i++) {
+                    sum += weights[wo + i] * x[xo + i];
+                }
+                y[yo + o] = sum;
+            }
+            link.apply(y, yo, yo + outputs);
+        }
+    }
+
+    @Override
+    public String kind() {
+        return "linear";
+    }
+}
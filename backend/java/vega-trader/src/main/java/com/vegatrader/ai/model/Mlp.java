@@ -0,0 +1,99 @@
+package com.vegatrader.ai.model;
+
+import java.util.List;
+
+/**
+ * Multi-layer perceptron of fully connected layers.
+ *
+ * @since 5.0.0
+ */
+public final class Mlp implements Model {
+
+    private final Dense[] layers;
+    private final int width;
+
+    public Mlp(List<Dense> layers) {
+        if (layers.isEmpty()) {
+            throw new IllegalArgumentException("MLP needs at least one layer");
+        }
+        int widest = 0;
+        for (int l = 0; l < layers.size(); l++) {
+            Dense layer = layers.get(l);
+            if (l > 0 && layer.inputs() != layers.get(l - 1).outputs()) {
+                throw new IllegalArgumentException("Layer " + l + " takes " + layer.inputs() + " inputs but layer "
+                        + (l - 1) + " has " + layers.get(l - 1).outputs() + " outputs");
+            }
+            widest = Math.max(widest, layer.outputs());
+        }
+        this.layers = layers.toArray(new Dense[0]);
+        this.width = widest;
+    }
+
+    @Override
+    public int inputs() {
+        return layers[0].inputs();
+    }
+
+    @Override
+    public int outputs() {
+        return layers[layers.length - 1].outputs();
+    }
+
+    @Override
+    public void predict(double[] x, int rows, double[] y) {
+        double[] even = new double[width];
+        double[] odd = new double[width];
+        int inputs = inputs();
+        int outputs = outputs();
+        int last = layers.length - 1;
+        for (int r = 0; r < rows; r++) {
+            double[] src = x;
+            int srcOffset = r * inputs;
+            for (int l = 0; l <= last; l++) {
+                double[] dst = l == last ? y : (l & 1) == 0 ? even : odd;
+                int dstOffset = l == last ? r * outputs : 0;
+                layers[l].forward(src, srcOffset, dst, dstOffset);
+                src = dst;
+                srcOffset = dstOffset;
+            }
+        }
+    }
+
+    @Override
+    public String kind() {
+        return "mlp";
+    }
+
+    /**
+     * One fully connected layer: {@code activation(W x + b)}.
+     *
+     * @param weights {@code outputs * inputs} weights, one row per output
+     */
+    public record Dense(int inputs, double[] weights, double[] bias, Activation activation) {
+
+        public Dense {
+            if (inputs <= 0 || bias.length == 0 || weights.length != inputs * bias.length) {
+                throw new IllegalArgumentException("Dense layer needs " + inputs + " weights per output, got "
+                        + weights.length + " for " + bias.length + " outputs");
+            }
+            weights = weights.clone();
+            bias = bias.clone();
+        }
+
+        public int outputs() {
+            return bias.length;
+        }
+
+        void forward(double[] x, int xo, double[] y, int yo) {
+            for (int o = 0; o < bias.length; o++) {
+                int wo = o * inputs;
+                double sum = bias[o];
+                for (int i = 0; i < inputs; i++) {
+                    sum += weights[wo + i] * x[xo + i];
+                }
+                y[yo + o] = sum;
+            }
+            activation.apply(y, yo, yo + bias.length);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.vegatrader.ai.model;
+
+/**
+ * A loaded model scoring batches of feature rows on the calling thread.
+ *
+ * <p>
+ * Inputs and outputs are flat row-major arrays: row {@code r} of the input
+ * occupies {@code x[r * inputs() .. (r + 1) * inputs())} and its outputs
+ * {@code y[r * outputs() .. (r + 1) * outputs())}. Implementations are
+ * immutable and safe to call from any number of threads.
+ *
+ * @since 5.0.0
+ */
+public interface Model {
+
+    int inputs();
+
+    int outputs();
+
+    /**
+     * Scores {@code rows} feature rows.
+     *
+     * @param x    at least {@code rows * inputs()} features
+     * @param rows number of rows to score
+     * @param y    receives {@code rows * outputs()} scores
+     */
+    void predict(double[] x, int rows, double[] y);
+
+    /**
+     * @return model family, as named in the model file
+     */
+    String kind();
+}
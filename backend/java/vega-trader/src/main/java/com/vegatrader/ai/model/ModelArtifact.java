@@ -0,0 +1,22 @@
+package com.vegatrader.ai.model;
+
+import java.util.List;
+
+/**
+ * A model file as loaded: the model and the named features it expects, in
+ * input order.
+ *
+ * @param version version string from the file, for stats and shadow
+ *                comparisons
+ * @since 5.0.0
+ */
+public record ModelArtifact(String version, List<String> features, Model model) {
+
+    public ModelArtifact {
+        features = List.copyOf(features);
+        if (features.size() != model.inputs()) {
+            throw new IllegalArgumentException(
+                    "Model takes " + model.inputs() + " inputs but names " + features.size() + " features");
+        }
+    }
+}
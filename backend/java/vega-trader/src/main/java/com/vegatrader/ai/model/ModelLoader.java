@@ -0,0 +1,202 @@
+package com.vegatrader.ai.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads model files: JSON documents exported by the research tooling.
+ *
+ * <pre>
+ * { "type": "linear", "version": "v3", "features": ["change_pct", "RSI(14,5m)"],
+ *   "link": "sigmoid", "weights": [[0.8, -0.02]], "bias": [0.1] }
+ *
+ * { "type": "trees", "version": "v7", "features": [...], "link": "sigmoid", "base": [0.0],
+ *   "trees": [ { "output": 0, "feature": [0, -1, -1], "threshold": [1.5, 0, 0],
+ *                "left": [1, -1, -1], "right": [2, -1, -1], "default_left": [true, false, false],
+ *                "value": [0, -0.4, 0.6] } ] }
+ *
+ * { "type": "mlp", "version": "v2", "features": [...],
+ *   "layers": [ { "weights": [[...], ...], "bias": [...], "activation": "relu" }, ... ] }
+ * </pre>
+ *
+ * <p>
+ * {@code weights} hold one row per output. Tree node indices are local to
+ * their tree, children follow their parents and leaves have feature
+ * {@code -1}; {@code output} and {@code default_left} are optional. Any
+ * inconsistency is rejected with {@link IllegalArgumentException} before a
+ * model is built.
+ *
+ * @since 5.0.0
+ */
+public final class ModelLoader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ModelLoader() {
+    }
+
+    /**
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if it is not a valid model
+     */
+    public static ModelArtifact load(Path path) throws IOException {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(path.toFile());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Model file " + path + " is not valid JSON: " + e.getOriginalMessage());
+        }
+        return parse(root);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code json} is not a valid model
+     */
+    public static ModelArtifact parse(String json) {
+        try {
+            return parse(MAPPER.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Model is not valid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static ModelArtifact parse(JsonNode root) {
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Model file must hold a JSON object");
+        }
+        List<String> features = new ArrayList<>();
+        for (JsonNode feature : required(root, "features")) {
+            features.add(feature.asText());
+        }
+        String type = required(root, "type").asText();
+        Model model = switch (type) {
+            case "linear" -> linear(root, features.size());
+            case "trees" -> trees(root, features.size());
+            case "mlp" -> mlp(root, features.size());
+            default -> throw new IllegalArgumentException("Unknown model type: " + type);
+        };
+        return new ModelArtifact(root.path("version").asText("unversioned"), features, model);
+    }
+
+    private static LinearModel linear(JsonNode root, int inputs) {
+        return new LinearModel(inputs, matrix(required(root, "weights"), inputs), doubles(required(root, "bias")),
+                Activation.parse(root.path("link").textValue()));
+    }
+
+    private static Mlp mlp(JsonNode root, int inputs) {
+        List<Mlp.Dense> layers = new ArrayList<>();
+        int width = inputs;
+        for (JsonNode layer : required(root, "layers")) {
+            Mlp.Dense dense = new Mlp.Dense(width, matrix(required(layer, "weights"), width),
+                    doubles(required(layer, "bias")), Activation.parse(layer.path("activation").textValue()));
+            layers.add(dense);
+            width = dense.outputs();
+        }
+        return new Mlp(layers);
+    }
+
+    private static TreeEnsemble trees(JsonNode root, int inputs) {
+        double[] base = root.has("base") ? doubles(root.get("base")) : new double[] { 0 };
+        JsonNode trees = required(root, "trees");
+        int nodes = 0;
+        for (JsonNode tree : trees) {
+            nodes += required(tree, "feature").size();
+        }
+        int[] feature = new int[nodes];
+        double[] threshold = new double[nodes];
+        int[] left = new int[nodes];
+        int[] right = new int[nodes];
+        boolean[] defaultLeft = new boolean[nodes];
+        double[] value = new double[nodes];
+        int[] roots = new int[trees.size()];
+        int[] output = new int[trees.size()];
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            JsonNode tree = trees.get(t);
+            int size = tree.get("feature").size();
+            int[] f = ints(tree.get("feature"), size, "feature");
+            double[] th = doubles(required(tree, "threshold"), size, "threshold");
+            int[] l = ints(required(tree, "left"), size, "left");
+            int[] r = ints(required(tree, "right"), size, "right");
+            double[] v = doubles(required(tree, "value"), size, "value");
+            JsonNode missing = tree.get("default_left");
+            if (missing != null && missing.size() != size) {
+                throw new IllegalArgumentException("Tree " + t + ": default_left has " + missing.size()
+                        + " entries for " + size + " nodes");
+            }
+            for (int n = 0; n < size; n++) {
+                feature[offset + n] = f[n];
+                threshold[offset + n] = th[n];
+                left[offset + n] = f[n] >= 0 ? offset + l[n] : -1;
+                right[offset + n] = f[n] >= 0 ? offset + r[n] : -1;
+                defaultLeft[offset + n] = missing != null && missing.get(n).asBoolean();
+                value[offset + n] = v[n];
+            }
+            roots[t] = offset;
+            output[t] = tree.path("output").asInt(0);
+            offset += size;
+        }
+        return new TreeEnsemble(inputs, feature, threshold, left, right, defaultLeft, value, roots, output, base,
+                Activation.parse(root.path("link").textValue()));
+    }
+
+    // ----- JSON helpers -----
+
+    private static JsonNode required(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Model is missing '" + field + "'");
+        }
+        return value;
+    }
+
+    /**
+     * @return rows of {@code columns} values, flattened row-major
+     */
+    private static double[] matrix(JsonNode rows, int columns) {
+        double[] out = new double[rows.size() * columns];
+        for (int r = 0; r < rows.size(); r++) {
+            JsonNode row = rows.get(r);
+            if (row.size() != columns) {
+                throw new IllegalArgumentException("Weight row " + r + " has " + row.size() + " values, expected "
+                        + columns);
+            }
+            for (int c = 0; c < columns; c++) {
+                out[r * columns + c] = row.get(c).asDouble();
+            }
+        }
+        return out;
+    }
+
+    private static double[] doubles(JsonNode array) {
+        return doubles(array, array.size(), null);
+    }
+
+    private static double[] doubles(JsonNode array, int size, String field) {
+        if (array.size() != size) {
+            throw new IllegalArgumentException("'" + field + "' has " + array.size() + " entries, expected " + size);
+        }
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = array.get(i).asDouble();
+        }
+        return out;
+    }
+
+    private static int[] ints(JsonNode array, int size, String field) {
+        if (array.size() != size) {
+            throw new IllegalArgumentException("'" + field + "' has " + array.size() + " entries, expected " + size);
+        }
+        int[] out = new int[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = array.get(i).asInt();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,118 @@
+package com.vegatrader.ai.model;
+
+/**
+ * Additive ensemble of binary decision trees (gradient-boosted trees or,
+ * with averaged leaf values, a random forest).
+ *
+ * <p>
+ * All trees share flat node arrays. An internal node sends a row left when
+ * {@code x[feature] < threshold}, right when it is not, and a missing
+ * ({@code NaN}) feature the node's default way. Leaves have feature
+ * {@code -1}. Each tree adds its leaf value to one output; the outputs
+ * start from a base score and pass through the link.
+ *
+ * @since 5.0.0
+ */
+public final class TreeEnsemble implements Model {
+
+    private final int inputs;
+    private final int outputs;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final boolean[] defaultLeft;
+    private final double[] value;
+    private final int[] roots;
+    private final int[] treeOutput;
+    private final double[] base;
+    private final Activation link;
+
+    /**
+     * @param feature     per node, the feature index tested, {@code -1} for
+     *                    a leaf
+     * @param left        per internal node, the absolute index of its left
+     *                    child
+     * @param defaultLeft per node, whether a missing feature goes left
+     * @param value       per leaf, its contribution
+     * @param roots       per tree, its root node
+     * @param treeOutput  per tree, the output it adds to
+     * @param base        per output, the starting score
+     */
+    public TreeEnsemble(int inputs, int[] feature, double[] threshold, int[] left, int[] right,
+            boolean[] defaultLeft, double[] value, int[] roots, int[] treeOutput, double[] base,
+            Activation link) {
+        int nodes = feature.length;
+        if (threshold.length != nodes || left.length != nodes || right.length != nodes
+                || defaultLeft.length != nodes || value.length != nodes || roots.length != treeOutput.length
+                || base.length == 0) {
+            throw new IllegalArgumentException("Tree ensemble arrays disagree in length");
+        }
+        for (int n = 0; n < nodes; n++) {
+            if (feature[n] >= inputs) {
+                throw new IllegalArgumentException("Node " + n + " tests feature " + feature[n] + " of " + inputs);
+            }
+            if (feature[n] >= 0 && (left[n] <= n || right[n] <= n || left[n] >= nodes || right[n] >= nodes)) {
+                // children after parents rules out cycles
+                throw new IllegalArgumentException("Node " + n + " has invalid children");
+            }
+        }
+        for (int t = 0; t < roots.length; t++) {
+            if (roots[t] < 0 || roots[t] >= nodes || treeOutput[t] < 0 || treeOutput[t] >= base.length) {
+                throw new IllegalArgumentException("Tree " + t + " has an invalid root or output");
+            }
+        }
+        this.inputs = inputs;
+        this.outputs = base.length;
+        this.feature = feature.clone();
+        this.threshold = threshold.clone();
+        this.left = left.clone();
+        this.right = right.clone();
+        this.defaultLeft = defaultLeft.clone();
+        this.value = value.clone();
+        this.roots = roots.clone();
+        this.treeOutput = treeOutput.clone();
+        this.base = base.clone();
+        this.link = link;
+    }
+
+    @Override
+    public int inputs() {
+        return inputs;
+    }
+
+    @Override
+    public int outputs() {
+        return outputs;
+    }
+
+    public int trees() {
+        return roots.length;
+    }
+
+    @Override
+    public void predict(double[] x, int rows, double[] y) {
+        for (int r = 0; r < rows; r++) {
+            int xo = r * inputs;
+            int yo = r * outputs;
+            System.arraycopy(base, 0, y, yo, outputs);
+            for (int t = 0; t < roots.length; t++) {
+                int n = roots[t];
+                int f;
+                while ((f = feature[n]) >= 0) {
+                    double v = x[xo + f];
+                    n = v < threshold[n] ? left[n]
+                            : v >= threshold[n] ? right[n]
+                                    : defaultLeft[n] ? left[n] : right[n];
+                }
+                y[yo + treeOutput[t]] += value[n];
+            }
+            link.apply(y, yo, yo + outputs);
+        }
+    }
+
+    @Override
+    public String kind() {
+        return "trees";
+    }
+}
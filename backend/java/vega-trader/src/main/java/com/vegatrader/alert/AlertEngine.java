@@ -2,52 +2,129 @@ package com.vegatrader.alert;
 
 import com.vegatrader.alert.dto.AlertEvent;
 import com.vegatrader.alert.entity.AlertRule;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.indicator.IndicatorSpec;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.feed.MarketFeedListener;
 import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.websocket.MarketBroadcaster;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * Alert evaluation engine.
  * Listens to market ticks and evaluates registered rules.
+ *
+ * <p>
+ * Rules live in an {@link AlertIndex}, so a tick only touches the rules whose
+ * thresholds it crossed. Triggered alerts go to registered listeners; the
+ * {@link MarketBroadcaster} is wired as one and pushes them to the rule
+ * client's WebSocket sessions.
+ *
+ * <p>
+ * Indicator rules ({@code INDICATOR_ABOVE}/{@code _BELOW}) share one
+ * {@link IndicatorEngine} subscription per instrument and indicator, held
+ * while any rule on it is live; each new indicator value is evaluated
+ * against that book's ladder like a price.
  */
 @Service
 public class AlertEngine implements MarketFeedListener {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
 
-    private final Map<String, Set<AlertRule>> instrumentRules = new ConcurrentHashMap<>();
+    private final AlertIndex index = new AlertIndex();
+    private final List<Consumer<AlertEvent>> listeners = new CopyOnWriteArrayList<>();
+    /** Indicator subscriptions by book key */
+    private final Map<String, IndicatorEngine.Subscription> indicatorFeeds = new ConcurrentHashMap<>();
 
-    // Map ruleId -> Rule? For management.
+    private IndicatorEngine indicatorEngine;
 
+    private final LongAdder ticksEvaluated = new LongAdder();
+    private final LongAdder alertsTriggered = new LongAdder();
+    private final LongAdder deliveryErrors = new LongAdder();
+
+    @Autowired(required = false)
+    public void setBroadcaster(MarketBroadcaster broadcaster) {
+        if (broadcaster != null) {
+            addListener(broadcaster::pushAlert);
+        }
+    }
+
+    @Autowired(required = false)
+    public void setIndicatorEngine(IndicatorEngine indicatorEngine) {
+        this.indicatorEngine = indicatorEngine;
+    }
+
+    /**
+     * Registers a consumer for triggered alerts. Called on the tick thread.
+     */
+    public void addListener(Consumer<AlertEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @throws IllegalArgumentException if an indicator rule has an invalid
+     *                                  indicator spec
+     * @throws IllegalStateException    if an indicator rule is added without
+     *                                  an indicator engine
+     */
     public void addRule(AlertRule rule) {
-        instrumentRules.computeIfAbsent(rule.getInstrumentKey(), k -> new CopyOnWriteArraySet<>())
-                .add(rule);
+        IndicatorSpec spec = null;
+        if (AlertIndex.isIndicatorRule(rule)) {
+            if (indicatorEngine == null) {
+                throw new IllegalStateException("Indicator alerts need an indicator engine");
+            }
+            spec = IndicatorSpec.parse(rule.getIndicator());
+            rule.setIndicator(spec.toString()); // canonical, so equal specs share a book
+        }
+        AlertRule replaced = index.get(rule.getId());
+        index.add(rule);
+        if (replaced != null) {
+            releaseIndicator(replaced);
+        }
+        if (spec != null) {
+            ensureIndicatorFeed(rule);
+        }
         logger.info("Added alert rule: {} for {}", rule.getId(), rule.getInstrumentKey());
     }
 
     public void removeRule(String ruleId) {
-        // Linear search removal (inefficient but simple for now)
-        instrumentRules.values().forEach(set -> set.removeIf(r -> r.getId().equals(ruleId)));
+        AlertRule removed = index.remove(ruleId);
+        if (removed != null) {
+            releaseIndicator(removed);
+            logger.info("Removed alert rule: {}", ruleId);
+        }
+    }
+
+    public AlertRule getRule(String ruleId) {
+        return index.get(ruleId);
+    }
+
+    public int getRuleCount() {
+        return index.size();
     }
 
     @Override
     public void onTick(LiveMarketSnapshot tick) {
-        if (tick == null)
+        if (tick == null || tick.getInstrumentKey() == null)
             return;
 
-        Set<AlertRule> rules = instrumentRules.get(tick.getInstrumentKey());
-        if (rules == null || rules.isEmpty())
-            return;
+        List<AlertIndex.Trigger> triggered = index.onTick(tick.getInstrumentKey(), tick.getLtp(),
+                tick.getPreviousClose(), tick.getVolume() > 0 ? tick.getVolume() : -1);
+        ticksEvaluated.increment();
 
-        rules.forEach(rule -> evaluate(rule, tick));
+        for (AlertIndex.Trigger trigger : triggered) {
+            triggerAlert(trigger.rule(), trigger.value());
+        }
     }
 
     @Override
@@ -55,48 +132,51 @@ public class AlertEngine implements MarketFeedListener {
         // No depth alerts yet
     }
 
-    private void evaluate(AlertRule rule, LiveMarketSnapshot tick) {
-        if (!rule.isActive())
-            return;
+    /** New value of a subscribed indicator, on the feed thread */
+    private void onIndicator(String bookKey, double value) {
+        List<AlertIndex.Trigger> triggered = index.onTick(bookKey, value, 0, -1);
+        for (AlertIndex.Trigger trigger : triggered) {
+            triggerAlert(trigger.rule(), trigger.value());
+            if (trigger.rule().isOneShot()) {
+                releaseIndicator(trigger.rule());
+            }
+        }
+    }
+
+    // Subscriptions are made and closed outside map locks: indicator values
+    // arrive under the indicator engine's lock and may release their feed.
 
-        boolean triggered = false;
-        double value = 0;
-
-        switch (rule.getType()) {
-            case PRICE_ABOVE:
-                value = tick.getLtp();
-                if (value > rule.getThreshold())
-                    triggered = true;
-                break;
-            case PRICE_BELOW:
-                value = tick.getLtp();
-                if (value < rule.getThreshold())
-                    triggered = true;
-                break;
-            case CHANGE_PERCENT_GREATER:
-                value = tick.getChangePercent();
-                if (value > rule.getThreshold())
-                    triggered = true;
-                break;
-            case CHANGE_PERCENT_LESS:
-                value = tick.getChangePercent();
-                if (value < rule.getThreshold())
-                    triggered = true;
-                break;
-            case VOLUME_GREATER:
-                value = tick.getVolume();
-                if (value > rule.getThreshold())
-                    triggered = true;
-                break;
+    private void ensureIndicatorFeed(AlertRule rule) {
+        String bookKey = AlertIndex.bookKey(rule);
+        if (indicatorFeeds.containsKey(bookKey)) {
+            return;
+        }
+        IndicatorEngine.Subscription subscription = indicatorEngine.subscribe(rule.getInstrumentKey(),
+                IndicatorSpec.parse(rule.getIndicator()),
+                (key, spec, barTime, value) -> onIndicator(bookKey, value));
+        if (indicatorFeeds.putIfAbsent(bookKey, subscription) != null) {
+            subscription.close();
         }
+    }
 
-        if (triggered) {
-            triggerAlert(rule, value);
+    /** Drops the indicator subscription once no live rule uses it */
+    private void releaseIndicator(AlertRule rule) {
+        if (!AlertIndex.isIndicatorRule(rule)) {
+            return;
+        }
+        String bookKey = AlertIndex.bookKey(rule);
+        IndicatorEngine.Subscription subscription = indicatorFeeds.get(bookKey);
+        if (subscription != null && index.size(bookKey) == 0 && indicatorFeeds.remove(bookKey, subscription)) {
+            subscription.close();
+            if (index.size(bookKey) > 0) {
+                ensureIndicatorFeed(rule); // a rule was added meanwhile
+            }
         }
     }
 
     private void triggerAlert(AlertRule rule, double value) {
         logger.info("ALERT TRIGGERED: {} val={}", rule.getMessage(), value);
+        alertsTriggered.increment();
 
         AlertEvent event = AlertEvent.builder()
                 .ruleId(rule.getId())
@@ -107,11 +187,26 @@ public class AlertEngine implements MarketFeedListener {
                 .timestamp(System.currentTimeMillis())
                 .build();
 
-        // TODO: Push to frontend via WebSocket (MarketBroadcaster)
-        // For one-shot, disable or remove
-        if (rule.isOneShot()) {
-            rule.setActive(false);
-            removeRule(rule.getId());
+        for (Consumer<AlertEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                deliveryErrors.increment();
+                logger.error("Alert delivery failed for {}: {}", rule.getId(), e.getMessage());
+            }
         }
     }
+
+    /**
+     * Get alert statistics.
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "rules", (long) index.size(),
+                "indicatorFeeds", (long) indicatorFeeds.size(),
+                "instruments", (long) index.instruments(),
+                "ticksEvaluated", ticksEvaluated.sum(),
+                "alertsTriggered", alertsTriggered.sum(),
+                "deliveryErrors", deliveryErrors.sum());
+    }
 }
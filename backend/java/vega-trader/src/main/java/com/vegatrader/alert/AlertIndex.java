@@ -0,0 +1,430 @@
+package com.vegatrader.alert;
+
+import com.vegatrader.alert.entity.AlertRule;
+import com.vegatrader.alert.entity.AlertRule.AlertType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price-indexed alert rule book.
+ *
+ * <p>
+ * Each instrument keeps two ladders of thresholds: {@code up} (fires when the
+ * price rises strictly above the key) and {@code down} (fires when it falls
+ * strictly below). A tick only looks at the key range between the previous
+ * and the current price, so evaluation is O(log n + crossed) however many
+ * rules sit on the instrument. Because it is range-based, a threshold jumped
+ * over between two (possibly conflated) ticks still fires.
+ *
+ * <p>
+ * Rule types compile to ladder keys:
+ * <ul>
+ * <li>{@code PRICE_ABOVE}/{@code PRICE_BELOW}: the threshold itself</li>
+ * <li>{@code CHANGE_PERCENT_GREATER}/{@code _LESS}: the absolute price
+ * {@code close * (1 + pct/100)} against the previous session's close,
+ * recompiled whenever it changes (session open); parked until a close is
+ * known</li>
+ * <li>{@code VOLUME_GREATER}: a separate volume ladder, volume only rises
+ * within a session</li>
+ * <li>{@code INDICATOR_ABOVE}/{@code _BELOW}: the threshold, in a book of
+ * their own keyed by {@link #bookKey}; the indicator value is fed in as the
+ * price</li>
+ * </ul>
+ *
+ * <p>
+ * One-shot rules are dropped after firing. Rearming rules move to the
+ * opposite ladder at {@code threshold ∓ rearmDistance} and return once the
+ * price has traded back through it, so a price hovering at the threshold
+ * does not fire on every tick. Volume rules rearm at the next session. A rule
+ * added while its condition already holds fires on the next tick.
+ *
+ * <p>
+ * Removal by ID is O(1): the entry is flagged and skipped; ladders are
+ * compacted once flagged entries outnumber live ones.
+ *
+ * <p>
+ * Thread-safe: each instrument's book is guarded by its own monitor.
+ *
+ * @since 5.0.0
+ */
+public final class AlertIndex {
+
+    private static final int COMPACT_MIN_DEAD = 64;
+
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+
+    /**
+     * A rule that fired, with the value that crossed its threshold.
+     */
+    public record Trigger(AlertRule rule, double value) {
+    }
+
+    /**
+     * Adds a rule, replacing any rule with the same ID.
+     */
+    public void add(AlertRule rule) {
+        if (rule.getId() == null || rule.getInstrumentKey() == null || rule.getType() == null) {
+            throw new IllegalArgumentException("Alert rule needs id, instrumentKey and type");
+        }
+        if (isIndicatorRule(rule) && rule.getIndicator() == null) {
+            throw new IllegalArgumentException("Indicator alert rule needs an indicator");
+        }
+        remove(rule.getId());
+        Book book = books.computeIfAbsent(bookKey(rule), k -> new Book());
+        Entry entry = new Entry(rule, book);
+        synchronized (book) {
+            book.live++;
+            book.place(entry);
+        }
+        byId.put(rule.getId(), entry);
+    }
+
+    /**
+     * Removes a rule in O(1).
+     *
+     * @return the removed rule, or null if unknown
+     */
+    public AlertRule remove(String ruleId) {
+        Entry entry = byId.remove(ruleId);
+        if (entry == null) {
+            return null;
+        }
+        Book book = entry.book;
+        synchronized (book) {
+            if (!entry.removed) {
+                entry.removed = true;
+                book.live--;
+                book.dead++;
+                book.compactIfNeeded();
+            }
+        }
+        return entry.rule;
+    }
+
+    /**
+     * @return key to pass to {@link #onTick} for the rule: the instrument,
+     *         or instrument and indicator for indicator rules
+     */
+    public static String bookKey(AlertRule rule) {
+        return isIndicatorRule(rule) ? rule.getInstrumentKey() + "@" + rule.getIndicator()
+                : rule.getInstrumentKey();
+    }
+
+    public static boolean isIndicatorRule(AlertRule rule) {
+        return rule.getType() == AlertType.INDICATOR_ABOVE || rule.getType() == AlertType.INDICATOR_BELOW;
+    }
+
+    public AlertRule get(String ruleId) {
+        Entry entry = byId.get(ruleId);
+        return entry != null ? entry.rule : null;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public int instruments() {
+        return books.size();
+    }
+
+    public int size(String instrumentKey) {
+        Book book = books.get(instrumentKey);
+        if (book == null) {
+            return 0;
+        }
+        synchronized (book) {
+            return book.live;
+        }
+    }
+
+    /**
+     * Evaluates one tick and returns the rules it fired (one-shot rules are
+     * already removed when this returns).
+     *
+     * @param close  previous session close for percent rules (&lt;= 0 if
+     *               unknown). It must stay fixed for the session, e.g. LTPC
+     *               {@code cp}: any change is a new session and rearms the
+     *               book, so the running day close would reset it on every
+     *               tick
+     * @param volume session volume (&lt; 0 if unknown)
+     */
+    public List<Trigger> onTick(String instrumentKey, double ltp, double close, long volume) {
+        Book book = books.get(instrumentKey);
+        if (book == null) {
+            return List.of();
+        }
+        List<Trigger> fired = new ArrayList<>(0);
+        synchronized (book) {
+            if (book.live == 0) {
+                return List.of();
+            }
+            if (close > 0 && close != book.close) {
+                book.rebase(close);
+            }
+            book.onPrice(ltp, fired);
+            if (volume >= 0) {
+                book.onVolume(volume, fired);
+            }
+        }
+        for (Trigger trigger : fired) {
+            AlertRule rule = trigger.rule();
+            if (rule.isOneShot()) {
+                // Only if not replaced by a newer rule with the same ID
+                byId.computeIfPresent(rule.getId(), (id, e) -> e.rule == rule ? null : e);
+            }
+        }
+        return fired;
+    }
+
+    private enum Kind {
+        PRICE, PERCENT, VOLUME
+    }
+
+    private static final class Entry {
+        final AlertRule rule;
+        final Book book;
+        final Kind kind;
+        /** Fires on a rise above its key (else on a fall below) */
+        final boolean fireUp;
+        /** Waiting to rearm rather than to fire */
+        boolean rearming;
+        /** Current ladder key */
+        double key;
+        volatile boolean removed;
+
+        Entry(AlertRule rule, Book book) {
+            this.rule = rule;
+            this.book = book;
+            AlertType type = rule.getType();
+            this.kind = switch (type) {
+                case PRICE_ABOVE, PRICE_BELOW, INDICATOR_ABOVE, INDICATOR_BELOW -> Kind.PRICE;
+                case CHANGE_PERCENT_GREATER, CHANGE_PERCENT_LESS -> Kind.PERCENT;
+                case VOLUME_GREATER -> Kind.VOLUME;
+            };
+            this.fireUp = type != AlertType.PRICE_BELOW && type != AlertType.CHANGE_PERCENT_LESS
+                    && type != AlertType.INDICATOR_BELOW;
+        }
+    }
+
+    private static final class Book {
+        final TreeMap<Double, List<Entry>> up = new TreeMap<>();
+        final TreeMap<Double, List<Entry>> down = new TreeMap<>();
+        final TreeMap<Double, List<Entry>> volume = new TreeMap<>();
+        /** Added while already satisfied: fire on the next tick */
+        final List<Entry> due = new ArrayList<>();
+        /** Percent rules without a reference close, volume rules fired this session */
+        final List<Entry> parked = new ArrayList<>();
+
+        double lastPrice = Double.NaN;
+        long lastVolume = -1;
+        double close = Double.NaN;
+        int live;
+        int dead;
+
+        // ----- placement -----
+
+        double fireKey(Entry e) {
+            double threshold = e.rule.getThreshold();
+            return e.kind == Kind.PERCENT ? close * (1 + threshold / 100.0) : threshold;
+        }
+
+        double rearmKey(Entry e) {
+            double distance = Math.abs(e.rule.getRearmDistance());
+            if (e.kind == Kind.PERCENT) {
+                distance = close * distance / 100.0;
+            }
+            double key = fireKey(e);
+            return e.fireUp ? key - distance : key + distance;
+        }
+
+        /** Arms a new or reset entry */
+        void place(Entry e) {
+            e.rearming = false;
+            if (e.kind == Kind.PERCENT && Double.isNaN(close)) {
+                parked.add(e);
+                return;
+            }
+            double key = fireKey(e);
+            double current = e.kind == Kind.VOLUME ? lastVolume : lastPrice;
+            boolean known = e.kind == Kind.VOLUME ? lastVolume >= 0 : !Double.isNaN(lastPrice);
+            if (known && (e.fireUp ? current > key : current < key)) {
+                due.add(e);
+                return;
+            }
+            put(ladderFor(e, false), key, e);
+        }
+
+        TreeMap<Double, List<Entry>> ladderFor(Entry e, boolean rearming) {
+            if (e.kind == Kind.VOLUME) {
+                return volume;
+            }
+            return e.fireUp != rearming ? up : down;
+        }
+
+        static void put(TreeMap<Double, List<Entry>> ladder, double key, Entry e) {
+            e.key = key;
+            ladder.computeIfAbsent(key, k -> new ArrayList<>(1)).add(e);
+        }
+
+        // ----- evaluation -----
+
+        void onPrice(double price, List<Trigger> fired) {
+            drainDue(false, price, fired);
+            double prev = lastPrice;
+            lastPrice = price;
+            if (Double.isNaN(prev)) {
+                // First price: everything already satisfied is crossed
+                process(up.headMap(price, false), price, fired);
+                process(down.tailMap(price, false), price, fired);
+            } else if (price > prev) {
+                process(up.subMap(prev, true, price, false), price, fired);
+            } else if (price < prev) {
+                process(down.subMap(price, false, prev, true), price, fired);
+            }
+        }
+
+        void onVolume(long vol, List<Trigger> fired) {
+            drainDue(true, vol, fired);
+            long prev = lastVolume;
+            lastVolume = vol;
+            if (prev < 0) {
+                process(volume.headMap((double) vol, false), vol, fired);
+            } else if (vol > prev) {
+                process(volume.subMap((double) prev, true, (double) vol, false), vol, fired);
+            }
+        }
+
+        /** Fires due entries still satisfied at this value; arms the rest */
+        void drainDue(boolean volumeRules, double value, List<Trigger> fired) {
+            if (due.isEmpty()) {
+                return;
+            }
+            List<Entry> ready = new ArrayList<>(due);
+            due.clear();
+            for (Entry e : ready) {
+                if ((e.kind == Kind.VOLUME) != volumeRules) {
+                    due.add(e);
+                } else if (e.removed) {
+                    dead--;
+                } else if (e.fireUp ? value > fireKey(e) : value < fireKey(e)) {
+                    fire(e, value, fired);
+                } else {
+                    put(ladderFor(e, false), fireKey(e), e);
+                }
+            }
+        }
+
+        void process(NavigableMap<Double, List<Entry>> crossed, double value, List<Trigger> fired) {
+            if (crossed.isEmpty()) {
+                return;
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (List<Entry> level : crossed.values()) {
+                entries.addAll(level);
+            }
+            crossed.clear();
+            for (Entry e : entries) {
+                if (e.rearming) {
+                    if (e.removed) {
+                        dead--;
+                        continue;
+                    }
+                    e.rearming = false;
+                    put(ladderFor(e, false), fireKey(e), e);
+                } else {
+                    fire(e, value, fired);
+                }
+            }
+        }
+
+        void fire(Entry e, double value, List<Trigger> fired) {
+            if (e.removed) {
+                dead--;
+                return;
+            }
+            if (!e.rule.isActive()) {
+                put(ladderFor(e, false), fireKey(e), e); // paused: stays armed
+                return;
+            }
+            fired.add(new Trigger(e.rule, value));
+            if (e.rule.isOneShot()) {
+                e.removed = true;
+                e.rule.setActive(false);
+                live--;
+            } else if (e.kind == Kind.VOLUME) {
+                parked.add(e); // rearms at the next session
+            } else {
+                e.rearming = true;
+                put(ladderFor(e, true), rearmKey(e), e);
+            }
+        }
+
+        // ----- maintenance -----
+
+        /**
+         * New reference close: percent rules recompile, percent and volume
+         * rules rearm, and the next tick is evaluated as a first tick.
+         */
+        void rebase(double newClose) {
+            close = newClose;
+            lastPrice = Double.NaN;
+            lastVolume = -1;
+
+            List<Entry> all = new ArrayList<>(live + dead);
+            drain(up.values(), all);
+            drain(down.values(), all);
+            drain(volume.values(), all);
+            all.addAll(due);
+            all.addAll(parked);
+            up.clear();
+            down.clear();
+            volume.clear();
+            due.clear();
+            parked.clear();
+            dead = 0;
+
+            for (Entry e : all) {
+                if (e.removed) {
+                    continue;
+                }
+                if (e.kind == Kind.PRICE && e.rearming) {
+                    put(ladderFor(e, true), e.key, e);
+                } else {
+                    place(e);
+                }
+            }
+        }
+
+        void compactIfNeeded() {
+            if (dead < COMPACT_MIN_DEAD || dead <= live) {
+                return;
+            }
+            compact(up);
+            compact(down);
+            compact(volume);
+            due.removeIf(e -> e.removed);
+            parked.removeIf(e -> e.removed);
+            dead = 0;
+        }
+
+        private static void compact(TreeMap<Double, List<Entry>> ladder) {
+            ladder.values().removeIf(level -> {
+                level.removeIf(e -> e.removed);
+                return level.isEmpty();
+            });
+        }
+
+        private static void drain(Collection<List<Entry>> levels, List<Entry> into) {
+            for (List<Entry> level : levels) {
+                into.addAll(level);
+            }
+        }
+    }
+}
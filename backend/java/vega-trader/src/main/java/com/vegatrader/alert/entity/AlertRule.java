@@ -28,6 +28,8 @@ public class AlertRule {
     private String message;
     private boolean active = true;
     private boolean oneShot = true; // Delete after firing?
+    private double rearmDistance; // Repeating rules: distance price must retreat before firing again
+    private String indicator; // INDICATOR_* rules: IndicatorSpec, e.g. "RSI(14,5m)"
 
     // Manual Getters
     public String getId() {
@@ -66,6 +68,14 @@ public class AlertRule {
         return oneShot;
     }
 
+    public double getRearmDistance() {
+        return rearmDistance;
+    }
+
+    public String getIndicator() {
+        return indicator;
+    }
+
     // Manual Setters
     public void setId(String id) {
         this.id = id;
@@ -103,6 +113,14 @@ public class AlertRule {
         this.oneShot = oneShot;
     }
 
+    public void setRearmDistance(double rearmDistance) {
+        this.rearmDistance = rearmDistance;
+    }
+
+    public void setIndicator(String indicator) {
+        this.indicator = indicator;
+    }
+
     // Manual Builder
     public static AlertRuleBuilder builder() {
         return new AlertRuleBuilder();
@@ -156,13 +174,27 @@ public class AlertRule {
             return this;
         }
 
+        public AlertRuleBuilder rearmDistance(double rearmDistance) {
+            rule.setRearmDistance(rearmDistance);
+            return this;
+        }
+
+        public AlertRuleBuilder indicator(String indicator) {
+            rule.setIndicator(indicator);
+            return this;
+        }
+
         public AlertRule build() {
             return rule;
         }
     }
 
     public enum AlertType {
-        PRICE_ABOVE, PRICE_BELOW, CHANGE_PERCENT_GREATER, CHANGE_PERCENT_LESS, VOLUME_GREATER
+        PRICE_ABOVE, PRICE_BELOW, CHANGE_PERCENT_GREATER, CHANGE_PERCENT_LESS, VOLUME_GREATER,
+        /** Indicator value rises above the threshold */
+        INDICATOR_ABOVE,
+        /** Indicator value falls below the threshold */
+        INDICATOR_BELOW
     }
 
     public enum ComparisonOperator {
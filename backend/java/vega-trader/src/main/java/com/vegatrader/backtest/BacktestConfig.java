@@ -0,0 +1,190 @@
+package com.vegatrader.backtest;
+
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.strategy.Strategy;
+import com.vegatrader.upstox.api.websocket.replay.JournalReplayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Configuration of one backtest run.
+ *
+ * <p>
+ * The strategy is created from a factory so every run, including each run
+ * of a parallel sweep, gets a fresh instance.
+ *
+ * @since 5.0.0
+ */
+public final class BacktestConfig {
+
+    private final String label;
+    private final Supplier<? extends Strategy> strategy;
+    private final List<BacktestSession> sessions;
+    private final LatencyModel latency;
+    private final QueueModel queueModel;
+    private final long seed;
+    private final double initialCapital;
+    private final boolean squareOffAtSessionEnd;
+    private final ProductType squareOffProduct;
+    private final JournalReplayer.FrameDecoder decoder;
+
+    private BacktestConfig(Builder builder) {
+        if (builder.strategy == null) {
+            throw new IllegalArgumentException("Backtest needs a strategy factory");
+        }
+        if (builder.sessions.isEmpty()) {
+            throw new IllegalArgumentException("Backtest needs at least one session");
+        }
+        this.label = builder.label;
+        this.strategy = builder.strategy;
+        this.sessions = List.copyOf(builder.sessions);
+        this.latency = builder.latency;
+        this.queueModel = builder.queueModel;
+        this.seed = builder.seed;
+        this.initialCapital = builder.initialCapital;
+        this.squareOffAtSessionEnd = builder.squareOffAtSessionEnd;
+        this.squareOffProduct = builder.squareOffProduct;
+        this.decoder = builder.decoder;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Supplier<? extends Strategy> getStrategy() {
+        return strategy;
+    }
+
+    public List<BacktestSession> getSessions() {
+        return sessions;
+    }
+
+    public LatencyModel getLatency() {
+        return latency;
+    }
+
+    public QueueModel getQueueModel() {
+        return queueModel;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getInitialCapital() {
+        return initialCapital;
+    }
+
+    public boolean isSquareOffAtSessionEnd() {
+        return squareOffAtSessionEnd;
+    }
+
+    public ProductType getSquareOffProduct() {
+        return squareOffProduct;
+    }
+
+    public JournalReplayer.FrameDecoder getDecoder() {
+        return decoder;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pre-filled with this configuration.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder()
+                .label(label)
+                .strategy(strategy)
+                .latency(latency)
+                .queueModel(queueModel)
+                .seed(seed)
+                .initialCapital(initialCapital)
+                .squareOffAtSessionEnd(squareOffAtSessionEnd)
+                .squareOffProduct(squareOffProduct)
+                .decoder(decoder);
+        builder.sessions.addAll(sessions);
+        return builder;
+    }
+
+    public static class Builder {
+        private String label = "backtest";
+        private Supplier<? extends Strategy> strategy;
+        private final List<BacktestSession> sessions = new ArrayList<>();
+        private LatencyModel latency = LatencyModel.none();
+        private QueueModel queueModel = QueueModel.PESSIMISTIC;
+        private long seed = 42;
+        private double initialCapital;
+        private boolean squareOffAtSessionEnd = true;
+        private ProductType squareOffProduct = ProductType.INTRA;
+        private JournalReplayer.FrameDecoder decoder = JournalReplayer.PROTOBUF;
+
+        public Builder label(String label) {
+            this.label = label;
+            return this;
+        }
+
+        public Builder strategy(Supplier<? extends Strategy> strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        public Builder session(BacktestSession session) {
+            this.sessions.add(session);
+            return this;
+        }
+
+        public Builder sessions(List<BacktestSession> sessions) {
+            this.sessions.addAll(sessions);
+            return this;
+        }
+
+        public Builder latency(LatencyModel latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder queueModel(QueueModel queueModel) {
+            this.queueModel = queueModel;
+            return this;
+        }
+
+        /** Seed of the run's random generator (latency jitter) */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Capital for return figures; PnL is absolute either way */
+        public Builder initialCapital(double initialCapital) {
+            this.initialCapital = initialCapital;
+            return this;
+        }
+
+        /** Close open positions at the last price when a session ends (default true) */
+        public Builder squareOffAtSessionEnd(boolean squareOffAtSessionEnd) {
+            this.squareOffAtSessionEnd = squareOffAtSessionEnd;
+            return this;
+        }
+
+        /** Product used to charge square-off fills (default intraday) */
+        public Builder squareOffProduct(ProductType squareOffProduct) {
+            this.squareOffProduct = squareOffProduct;
+            return this;
+        }
+
+        /** Wire payload decoder (default Upstox V3 protobuf) */
+        public Builder decoder(JournalReplayer.FrameDecoder decoder) {
+            this.decoder = decoder;
+            return this;
+        }
+
+        public BacktestConfig build() {
+            return new BacktestConfig(this);
+        }
+    }
+}
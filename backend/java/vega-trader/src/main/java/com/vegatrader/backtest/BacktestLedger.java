@@ -0,0 +1,126 @@
+package com.vegatrader.backtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Positions, PnL, costs and drawdown of one backtest run.
+ *
+ * <p>
+ * Average-cost accounting per instrument. Unrealized PnL is kept as a
+ * running total updated by each mark or fill, so equity (and drawdown) is
+ * tracked on every event without re-summing positions.
+ *
+ * @since 5.0.0
+ */
+final class BacktestLedger {
+
+    static final class Position {
+        long quantity;
+        double avgPrice;
+        double lastPrice = Double.NaN;
+
+        double unrealized() {
+            return quantity == 0 || Double.isNaN(lastPrice) ? 0 : quantity * (lastPrice - avgPrice);
+        }
+    }
+
+    /** Sorted, so iteration (square-off, reports) is reproducible */
+    private final Map<String, Position> positions = new TreeMap<>();
+
+    private double realized;
+    private double unrealized;
+    private double charges;
+    private double turnover;
+    private long fills;
+    private double peakEquity;
+    private double maxDrawdown;
+
+    void onFill(Fill fill) {
+        Position position = positions.computeIfAbsent(fill.instrumentKey(), k -> new Position());
+        unrealized -= position.unrealized();
+
+        long qty = position.quantity;
+        long delta = fill.signedQuantity();
+        if (qty == 0 || Long.signum(qty) == Long.signum(delta)) {
+            position.avgPrice = (position.avgPrice * Math.abs(qty) + fill.price() * Math.abs(delta))
+                    / (Math.abs(qty) + Math.abs(delta));
+        } else {
+            long closing = Math.min(Math.abs(qty), Math.abs(delta));
+            realized += closing * (fill.price() - position.avgPrice) * Long.signum(qty);
+            if (Math.abs(delta) > Math.abs(qty)) {
+                position.avgPrice = fill.price(); // flipped
+            } else if (qty + delta == 0) {
+                position.avgPrice = 0;
+            }
+        }
+        position.quantity = qty + delta;
+        if (Double.isNaN(position.lastPrice)) {
+            position.lastPrice = fill.price();
+        }
+
+        unrealized += position.unrealized();
+        charges += fill.charges();
+        turnover += fill.notional();
+        fills++;
+        track();
+    }
+
+    void mark(String instrumentKey, double price) {
+        Position position = positions.get(instrumentKey);
+        if (position == null) {
+            position = new Position();
+            positions.put(instrumentKey, position);
+        }
+        if (position.quantity == 0) {
+            position.lastPrice = price;
+            return;
+        }
+        unrealized -= position.unrealized();
+        position.lastPrice = price;
+        unrealized += position.unrealized();
+        track();
+    }
+
+    private void track() {
+        double equity = netPnl();
+        if (equity > peakEquity) {
+            peakEquity = equity;
+        }
+        if (peakEquity - equity > maxDrawdown) {
+            maxDrawdown = peakEquity - equity;
+        }
+    }
+
+    Map<String, Position> positions() {
+        return positions;
+    }
+
+    double realized() {
+        return realized;
+    }
+
+    double unrealized() {
+        return unrealized;
+    }
+
+    double charges() {
+        return charges;
+    }
+
+    double turnover() {
+        return turnover;
+    }
+
+    long fills() {
+        return fills;
+    }
+
+    double netPnl() {
+        return realized + unrealized - charges;
+    }
+
+    double maxDrawdown() {
+        return maxDrawdown;
+    }
+}
@@ -0,0 +1,49 @@
+package com.vegatrader.backtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one backtest run. Every field is reproducible: two runs of the
+ * same configuration over the same files produce equal reports.
+ *
+ * @param label          configuration label (e.g. sweep parameters)
+ * @param sessions       per-session results
+ * @param events         ticks and depth updates replayed
+ * @param orders         orders placed, including rejected and square-offs
+ * @param rejected       orders rejected
+ * @param fills          executions
+ * @param turnover       traded notional
+ * @param charges        total charges
+ * @param realizedPnl    closed PnL before charges
+ * @param unrealizedPnl  open PnL at the end, marked at the last price
+ * @param netPnl         realized + unrealized - charges
+ * @param maxDrawdown    largest peak-to-trough fall of net PnL
+ * @param returnPercent  net PnL over initial capital (0 without capital)
+ * @param positions      open quantity per instrument at the end
+ * @param strategyErrors exceptions thrown by strategy callbacks
+ * @param fingerprint    hash of every fill and the final PnL, for
+ *                       regression checks
+ * @since 5.0.0
+ */
+public record BacktestReport(String label, List<SessionResult> sessions, long events, long orders, long rejected,
+        long fills, double turnover, double charges, double realizedPnl, double unrealizedPnl, double netPnl,
+        double maxDrawdown, double returnPercent, Map<String, Long> positions, long strategyErrors,
+        long fingerprint) {
+
+    /**
+     * Result of one session.
+     *
+     * @param name   session name
+     * @param events ticks and depth updates replayed
+     * @param fills  executions in the session
+     * @param netPnl net PnL earned in the session
+     */
+    public record SessionResult(String name, long events, long fills, double netPnl) {
+    }
+
+    /** Net PnL per unit of traded notional (0 without trades) */
+    public double pnlPerTurnover() {
+        return turnover == 0 ? 0 : netPnl / turnover;
+    }
+}
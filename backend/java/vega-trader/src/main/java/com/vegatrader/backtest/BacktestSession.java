@@ -0,0 +1,47 @@
+package com.vegatrader.backtest;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * One session (usually a trading day) of recorded data to replay.
+ *
+ * @param name          label in the report, e.g. the date
+ * @param source        journal format
+ * @param files         journal files, in order
+ * @param instrumentKey instrument of canonical snapshot files (null for wire
+ *                      journals, which carry their own keys)
+ * @param fromMillis    first event time to replay
+ * @param toMillis      last event time to replay
+ * @since 5.0.0
+ */
+public record BacktestSession(String name, Source source, List<Path> files, String instrumentKey, long fromMillis,
+        long toMillis) {
+
+    /** Journal format */
+    public enum Source {
+        /** Raw feed frames written by {@code JournalWriter} */
+        WIRE,
+        /** L30 snapshots written by {@code JournalManager}, depth only */
+        CANONICAL
+    }
+
+    public BacktestSession {
+        files = List.copyOf(files);
+        if (source == Source.CANONICAL && instrumentKey == null) {
+            throw new IllegalArgumentException("Canonical sessions need an instrument key");
+        }
+    }
+
+    public static BacktestSession wire(String name, List<Path> files) {
+        return new BacktestSession(name, Source.WIRE, files, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public static BacktestSession wire(String name, List<Path> files, long fromMillis, long toMillis) {
+        return new BacktestSession(name, Source.WIRE, files, null, fromMillis, toMillis);
+    }
+
+    public static BacktestSession canonical(String name, String instrumentKey, List<Path> files) {
+        return new BacktestSession(name, Source.CANONICAL, files, instrumentKey, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
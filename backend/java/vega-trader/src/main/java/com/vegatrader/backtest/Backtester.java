@@ -0,0 +1,385 @@
+package com.vegatrader.backtest;
+
+import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.market.depth.model.DepthSide;
+import com.vegatrader.market.depth.model.L30OrderBook;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.market.journal.CanonicalSnapshotReader;
+import com.vegatrader.strategy.Strategy;
+import com.vegatrader.strategy.StrategyContext;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator;
+import com.vegatrader.upstox.api.websocket.replay.JournalReplayer;
+import com.vegatrader.upstox.api.websocket.replay.ReplaySpeed;
+import com.vegatrader.util.time.ReplayTimeProvider;
+import com.vegatrader.util.time.TimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Offline backtests of {@link Strategy} implementations over recorded
+ * journals.
+ *
+ * <p>
+ * A run replays its sessions at full speed on one thread: each journal
+ * update advances a {@link ReplayTimeProvider} to the update's event time,
+ * goes to the {@link SimulatedExchange} (order arrivals first, then matching
+ * against the new data) and then to the strategy, through the same
+ * {@link StrategyContext} API it uses live. Orders the strategy sends are
+ * stamped with event time, so nothing depends on the wall clock or thread
+ * scheduling and a run is reproducible bit for bit; the report's
+ * {@code fingerprint} makes that checkable in regression tests.
+ *
+ * <p>
+ * Only the unconflated feed callbacks are used: the strategy sees every
+ * recorded update regardless of {@link Strategy#requiresEveryTick()}.
+ *
+ * <p>
+ * {@link #sweep} runs independent configurations in parallel, one run per
+ * thread, and returns reports in input order. Strategies must not share
+ * mutable static state for sweeps to stay reproducible.
+ *
+ * @since 5.0.0
+ */
+public final class Backtester {
+
+    private static final Logger logger = LoggerFactory.getLogger(Backtester.class);
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ChargeCalculator charges;
+    private final InstrumentIndex instruments;
+
+    /**
+     * Backtester charging fills at the built-in default rates.
+     */
+    public Backtester() {
+        this(new ChargeCalculator());
+    }
+
+    /**
+     * @param charges charge calculator, or null for no charges
+     */
+    public Backtester(ChargeCalculator charges) {
+        this(charges, null);
+    }
+
+    /**
+     * @param charges     charge calculator, or null for no charges
+     * @param instruments instrument types, so option fills are charged at
+     *                    option rates; null charges F&amp;O at futures rates
+     */
+    public Backtester(ChargeCalculator charges, InstrumentIndex instruments) {
+        this.charges = charges;
+        this.instruments = instruments;
+    }
+
+    /**
+     * Runs one backtest on the calling thread.
+     *
+     * @throws UncheckedIOException if a canonical journal cannot be read
+     */
+    public BacktestReport run(BacktestConfig config) {
+        return new Run(config).execute();
+    }
+
+    /**
+     * Runs configurations in parallel on all cores.
+     */
+    public List<BacktestReport> sweep(List<BacktestConfig> configs) {
+        return sweep(configs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Runs one configuration per parameter value, labelled with the value.
+     */
+    public <P> List<BacktestReport> sweep(BacktestConfig base, List<P> parameters,
+            Function<P, ? extends Strategy> factory) {
+        List<BacktestConfig> configs = new ArrayList<>(parameters.size());
+        for (P parameter : parameters) {
+            configs.add(base.toBuilder()
+                    .label(String.valueOf(parameter))
+                    .strategy(() -> factory.apply(parameter))
+                    .build());
+        }
+        return sweep(configs);
+    }
+
+    /**
+     * Runs configurations on up to {@code parallelism} threads.
+     *
+     * @return reports in the order of {@code configs}
+     */
+    public List<BacktestReport> sweep(List<BacktestConfig> configs, int parallelism) {
+        if (configs.isEmpty()) {
+            return List.of();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, configs.size())),
+                r -> {
+                    Thread t = new Thread(r, "backtest-" + threadIndex.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            List<Future<BacktestReport>> futures = new ArrayList<>(configs.size());
+            for (BacktestConfig config : configs) {
+                futures.add(pool.submit(() -> run(config)));
+            }
+            List<BacktestReport> reports = new ArrayList<>(configs.size());
+            for (Future<BacktestReport> future : futures) {
+                reports.add(future.get());
+            }
+            return reports;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backtest sweep interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Backtest failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * State of one run. Single-threaded.
+     */
+    private final class Run implements MarketFeedListener, StrategyContext {
+        private final BacktestConfig config;
+        private final ReplayTimeProvider clock = new ReplayTimeProvider(List.of());
+        private final BacktestLedger ledger = new BacktestLedger();
+        private final SimulatedExchange exchange;
+        private final Strategy strategy;
+        private final Logger strategyLogger;
+        private final Set<String> subscribed = new HashSet<>();
+
+        private long events;
+        private long strategyErrors;
+        private long fingerprint = FNV_OFFSET;
+
+        Run(BacktestConfig config) {
+            this.config = config;
+            this.exchange = new SimulatedExchange(config.getLatency(), config.getQueueModel(), charges, instruments,
+                    new SplittableRandom(config.getSeed()), clock, this::onFill);
+            this.strategy = config.getStrategy().get();
+            this.strategyLogger = LoggerFactory.getLogger("BACKTEST." + strategy.getName());
+        }
+
+        BacktestReport execute() {
+            strategy.onInit(this);
+            List<BacktestReport.SessionResult> sessions = new ArrayList<>();
+            for (BacktestSession session : config.getSessions()) {
+                long eventsBefore = events;
+                long fillsBefore = ledger.fills();
+                double pnlBefore = ledger.netPnl();
+                replay(session);
+                endSession();
+                sessions.add(new BacktestReport.SessionResult(session.name(), events - eventsBefore,
+                        ledger.fills() - fillsBefore, ledger.netPnl() - pnlBefore));
+            }
+            try {
+                strategy.onDestroy();
+            } catch (Exception e) {
+                strategyErrors++;
+                strategyLogger.warn("onDestroy failed: {}", e.getMessage());
+            }
+
+            Map<String, Long> positions = new LinkedHashMap<>();
+            ledger.positions().forEach((key, position) -> {
+                if (position.quantity != 0) {
+                    positions.put(key, position.quantity);
+                }
+            });
+            double net = ledger.netPnl();
+            mix(Double.doubleToLongBits(net));
+            return new BacktestReport(config.getLabel(), List.copyOf(sessions), events,
+                    exchange.getOrderCount(), exchange.getRejectedCount(), ledger.fills(), ledger.turnover(),
+                    ledger.charges(), ledger.realized(), ledger.unrealized(), net, ledger.maxDrawdown(),
+                    config.getInitialCapital() > 0 ? net * 100.0 / config.getInitialCapital() : 0,
+                    positions, strategyErrors, fingerprint);
+        }
+
+        private void replay(BacktestSession session) {
+            switch (session.source()) {
+                case WIRE -> {
+                    JournalReplayer replayer = new JournalReplayer(ReplaySpeed.AS_FAST_AS_POSSIBLE, clock, this,
+                            null, config.getDecoder());
+                    JournalReplayer.Result result = replayer.replay(session.files(), session.fromMillis(),
+                            session.toMillis());
+                    if (result.failedFiles() > 0 || result.decodeErrors() > 0) {
+                        logger.warn("Session {}: {} unreadable file(s), {} undecodable frame(s)", session.name(),
+                                result.failedFiles(), result.decodeErrors());
+                    }
+                }
+                case CANONICAL -> {
+                    for (Path file : session.files()) {
+                        try {
+                            CanonicalSnapshotReader.forEach(file, session.instrumentKey(), book -> {
+                                if (book.getExchangeTs() >= session.fromMillis()
+                                        && book.getExchangeTs() <= session.toMillis()) {
+                                    clock.setTime(Instant.ofEpochMilli(book.getExchangeTs()));
+                                    onRawDepth(toSnapshot(book));
+                                }
+                            });
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Cannot read " + file, e);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void endSession() {
+            exchange.cancelAll();
+            if (!config.isSquareOffAtSessionEnd()) {
+                return;
+            }
+            for (Map.Entry<String, BacktestLedger.Position> entry : new ArrayList<>(
+                    ledger.positions().entrySet())) {
+                BacktestLedger.Position position = entry.getValue();
+                if (position.quantity != 0 && !Double.isNaN(position.lastPrice)) {
+                    exchange.squareOff(entry.getKey(), position.quantity, position.lastPrice,
+                            config.getSquareOffProduct());
+                }
+            }
+        }
+
+        private void onFill(Fill fill) {
+            ledger.onFill(fill);
+            mix(fill.orderId().hashCode());
+            mix(fill.timeMillis());
+            mix(fill.signedQuantity());
+            mix(Double.doubleToLongBits(fill.price()));
+            mix(Double.doubleToLongBits(fill.charges()));
+        }
+
+        private void mix(long value) {
+            for (int i = 0; i < 8; i++) {
+                fingerprint ^= (value >>> (i * 8)) & 0xFF;
+                fingerprint *= FNV_PRIME;
+            }
+        }
+
+        // ----- MarketFeedListener: every recorded update -----
+
+        @Override
+        public void onRawTick(LiveMarketSnapshot tick) {
+            long now = clock.millis();
+            exchange.advance(now);
+            exchange.onTick(tick);
+            if (tick.getLtp() > 0) {
+                ledger.mark(tick.getInstrumentKey(), tick.getLtp());
+            }
+            events++;
+            if (subscribed.contains(tick.getInstrumentKey())) {
+                try {
+                    strategy.onTick(tick);
+                } catch (Exception e) {
+                    onStrategyError(e);
+                }
+                exchange.advance(now); // zero-latency actions act on the same update
+            }
+        }
+
+        @Override
+        public void onRawDepth(OrderBookSnapshot depth) {
+            long now = clock.millis();
+            exchange.advance(now);
+            exchange.onDepth(depth);
+            events++;
+            if (subscribed.contains(depth.getInstrumentKey())) {
+                try {
+                    strategy.onDepth(depth);
+                } catch (Exception e) {
+                    onStrategyError(e);
+                }
+                exchange.advance(now);
+            }
+        }
+
+        @Override
+        public void onTick(LiveMarketSnapshot tick) {
+            // Conflated copy of onRawTick
+        }
+
+        @Override
+        public void onDepth(OrderBookSnapshot depth) {
+            // Conflated copy of onRawDepth
+        }
+
+        private void onStrategyError(Exception e) {
+            if (strategyErrors++ < 10) {
+                strategyLogger.warn("Strategy error at {}: {}", clock.now(), e.toString());
+            }
+        }
+
+        // ----- StrategyContext -----
+
+        @Override
+        public ExecutionGateway getExecutionGateway() {
+            return exchange;
+        }
+
+        @Override
+        public Logger getLogger() {
+            return strategyLogger;
+        }
+
+        @Override
+        public TimeProvider getTimeProvider() {
+            return clock;
+        }
+
+        @Override
+        public void subscribe(String instrumentKey) {
+            subscribed.add(instrumentKey);
+        }
+
+        @Override
+        public void emitSignal(String type, Object payload) {
+            strategyLogger.debug("Signal {} at {}: {}", type, clock.now(), payload);
+        }
+    }
+
+    private static OrderBookSnapshot toSnapshot(L30OrderBook book) {
+        return OrderBookSnapshot.builder()
+                .instrumentKey(book.getInstrumentKey())
+                .timestamp(book.getExchangeTs())
+                .bids(toLevels(book.bids()))
+                .asks(toLevels(book.asks()))
+                .build();
+    }
+
+    private static List<DepthLevel> toLevels(DepthSide side) {
+        List<DepthLevel> out = new ArrayList<>(side.size());
+        for (int i = 0; i < side.size(); i++) {
+            out.add(new DepthLevel(side.priceAsDouble(i), side.qty(i), side.orders(i)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,29 @@
+package com.vegatrader.backtest;
+
+import com.vegatrader.domain.enums.TransactionType;
+
+/**
+ * One simulated execution.
+ *
+ * @param orderId       simulated order ID
+ * @param instrumentKey instrument
+ * @param side          BUY or SELL
+ * @param quantity      filled quantity
+ * @param price         fill price
+ * @param timeMillis    event time of the fill
+ * @param charges       brokerage and statutory charges for this fill
+ * @param passive       whether the fill came from a resting order
+ * @since 5.0.0
+ */
+public record Fill(String orderId, String instrumentKey, TransactionType side, int quantity, double price,
+        long timeMillis, double charges, boolean passive) {
+
+    /** Signed quantity: positive for buys */
+    public int signedQuantity() {
+        return side == TransactionType.BUY ? quantity : -quantity;
+    }
+
+    public double notional() {
+        return quantity * price;
+    }
+}
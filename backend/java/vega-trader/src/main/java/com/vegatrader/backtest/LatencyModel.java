@@ -0,0 +1,47 @@
+package com.vegatrader.backtest;
+
+import com.vegatrader.execution.dto.OrderRequest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Delay between a strategy sending an order action (place, modify, cancel)
+ * and the simulated exchange acting on it.
+ *
+ * <p>
+ * Randomness must come from the supplied generator, which is seeded per run,
+ * so that runs stay reproducible.
+ *
+ * @since 5.0.0
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    /**
+     * @param request order being sent (null for a cancel)
+     * @param random  the run's seeded generator
+     * @return delay in milliseconds of event time
+     */
+    long latencyMillis(OrderRequest request, SplittableRandom random);
+
+    static LatencyModel none() {
+        return (request, random) -> 0;
+    }
+
+    static LatencyModel fixed(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("latency must not be negative");
+        }
+        return (request, random) -> millis;
+    }
+
+    /**
+     * Uniform in {@code [minMillis, maxMillis]}.
+     */
+    static LatencyModel uniform(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("invalid latency range");
+        }
+        return (request, random) -> minMillis + random.nextLong(maxMillis - minMillis + 1);
+    }
+}
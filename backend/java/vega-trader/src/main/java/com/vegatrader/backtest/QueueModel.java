@@ -0,0 +1,33 @@
+package com.vegatrader.backtest;
+
+/**
+ * Queue-position model for resting limit orders.
+ *
+ * <p>
+ * An order joining a price level is placed behind the quantity displayed at
+ * that level. Trades at the order's price (volume printed at that LTP) always
+ * consume the queue ahead first. When the displayed quantity shrinks without
+ * a trade, the orders that left may have been ahead of ours or behind it;
+ * {@code cancelAheadShare} is the share of such a decrease credited as
+ * queue progress: 0 assumes every cancel was behind us (pessimistic), 1 that
+ * every cancel was ahead (optimistic).
+ *
+ * <p>
+ * A price trading through the order fills it regardless of queue position.
+ *
+ * @param cancelAheadShare share of non-trade level decreases that advance the
+ *                         queue, in [0, 1]
+ * @since 5.0.0
+ */
+public record QueueModel(double cancelAheadShare) {
+
+    public static final QueueModel PESSIMISTIC = new QueueModel(0.0);
+    public static final QueueModel PROPORTIONAL = new QueueModel(0.5);
+    public static final QueueModel OPTIMISTIC = new QueueModel(1.0);
+
+    public QueueModel {
+        if (cancelAheadShare < 0 || cancelAheadShare > 1) {
+            throw new IllegalArgumentException("cancelAheadShare must be in [0, 1]");
+        }
+    }
+}
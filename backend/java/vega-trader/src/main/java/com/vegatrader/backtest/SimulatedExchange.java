@@ -0,0 +1,595 @@
+package com.vegatrader.backtest;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.upstox.api.instrument.index.IndexedInstrument;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator;
+import com.vegatrader.util.time.TimeProvider;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Order matching against recorded market data for backtests.
+ *
+ * <p>
+ * Order actions reach the exchange after the {@link LatencyModel} delay,
+ * measured in event time. On arrival, market orders and the marketable part
+ * of limit orders sweep the latest recorded depth level by level; liquidity
+ * taken from a level is not available again until the next depth update.
+ * Limit remainders rest behind the quantity displayed at their price and
+ * advance as the {@link QueueModel} describes; a depth update or trade
+ * through the price fills them at their own price.
+ *
+ * <p>
+ * Market orders that cannot be filled in full cancel their remainder; IOC
+ * limit orders likewise. Stop orders are rejected. Charges are computed per
+ * fill with {@link ChargeCalculator}, classified by the instrument type from
+ * the {@link InstrumentIndex}; without an index, or for an unindexed key,
+ * F&amp;O fills are charged at futures rates.
+ *
+ * <p>
+ * Not thread-safe: one instance belongs to one single-threaded run, and all
+ * ordering is by event time and sequence number, so results are
+ * reproducible.
+ *
+ * @since 5.0.0
+ */
+public final class SimulatedExchange implements ExecutionGateway {
+
+    private static final double PRICE_EPSILON = 1e-6;
+
+    private final LatencyModel latency;
+    private final QueueModel queueModel;
+    private final ChargeCalculator charges;
+    private final InstrumentIndex instruments;
+    private final SplittableRandom random;
+    private final TimeProvider clock;
+    private final Consumer<Fill> fillListener;
+
+    private final Map<String, SimOrder> orders = new LinkedHashMap<>();
+    private final Map<String, List<SimOrder>> resting = new HashMap<>();
+    private final Map<String, Market> markets = new HashMap<>();
+    private final PriorityQueue<Action> pending = new PriorityQueue<>(
+            Comparator.comparingLong((Action a) -> a.at).thenComparingLong(a -> a.seq));
+
+    private long nextOrderId = 1;
+    private long nextActionSeq;
+    private int rejected;
+
+    /**
+     * @param latency      order action delay
+     * @param queueModel   resting order queue model
+     * @param charges      charge calculator, or null for no charges
+     * @param random       the run's seeded generator
+     * @param clock        event-time clock
+     * @param fillListener receives every fill
+     */
+    public SimulatedExchange(LatencyModel latency, QueueModel queueModel, ChargeCalculator charges,
+            SplittableRandom random, TimeProvider clock, Consumer<Fill> fillListener) {
+        this(latency, queueModel, charges, null, random, clock, fillListener);
+    }
+
+    /**
+     * @param latency      order action delay
+     * @param queueModel   resting order queue model
+     * @param charges      charge calculator, or null for no charges
+     * @param instruments  instrument types for charges, or null
+     * @param random       the run's seeded generator
+     * @param clock        event-time clock
+     * @param fillListener receives every fill
+     */
+    public SimulatedExchange(LatencyModel latency, QueueModel queueModel, ChargeCalculator charges,
+            InstrumentIndex instruments, SplittableRandom random, TimeProvider clock, Consumer<Fill> fillListener) {
+        this.latency = latency;
+        this.queueModel = queueModel;
+        this.charges = charges;
+        this.instruments = instruments;
+        this.random = random;
+        this.clock = clock;
+        this.fillListener = fillListener;
+    }
+
+    // ----- ExecutionGateway -----
+
+    @Override
+    public OrderResponse placeOrder(OrderRequest request) {
+        String orderId = "BT-" + nextOrderId++;
+        String error = validate(request);
+        if (error != null) {
+            rejected++;
+            SimOrder order = new SimOrder(orderId, request);
+            order.status = OrderStatus.REJECTED;
+            order.message = error;
+            orders.put(orderId, order);
+            return order.toResponse();
+        }
+        SimOrder order = new SimOrder(orderId, request);
+        orders.put(orderId, order);
+        schedule(ActionType.PLACE, order, request);
+        return order.toResponse();
+    }
+
+    @Override
+    public OrderResponse modifyOrder(String orderId, OrderRequest request) {
+        SimOrder order = orders.get(orderId);
+        if (order == null || !order.isOpen()) {
+            return rejection(orderId, "Order not open");
+        }
+        String error = validate(request);
+        if (error != null) {
+            return rejection(orderId, error);
+        }
+        schedule(ActionType.MODIFY, order, request);
+        return order.toResponse();
+    }
+
+    @Override
+    public OrderResponse cancelOrder(String orderId) {
+        SimOrder order = orders.get(orderId);
+        if (order == null || !order.isOpen()) {
+            return rejection(orderId, "Order not open");
+        }
+        schedule(ActionType.CANCEL, order, null);
+        return order.toResponse();
+    }
+
+    @Override
+    public OrderStatus getOrderStatus(String orderId) {
+        SimOrder order = orders.get(orderId);
+        return order != null ? order.status : OrderStatus.UNKNOWN;
+    }
+
+    @Override
+    public List<OrderResponse> getOpenOrders() {
+        List<OrderResponse> open = new ArrayList<>();
+        for (SimOrder order : orders.values()) {
+            if (order.isOpen()) {
+                open.add(order.toResponse());
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public OrderRequest getOpenOrder(String orderId) {
+        SimOrder order = orders.get(orderId);
+        if (order == null || !order.isOpen() || order.request == null) {
+            return null;
+        }
+        OrderRequest request = order.request;
+        return OrderRequest.builder()
+                .instrumentKey(order.instrumentKey)
+                .transactionType(order.side)
+                .orderType(request.getOrderType())
+                .productType(request.getProductType())
+                .validity(request.getValidity())
+                .quantity(order.quantity)
+                .price(order.price)
+                .triggerPrice(request.getTriggerPrice())
+                .tag(request.getTag())
+                .build();
+    }
+
+    @Override
+    public String getProviderName() {
+        return "BACKTEST";
+    }
+
+    private static String validate(OrderRequest request) {
+        if (request == null || request.getInstrumentKey() == null || request.getTransactionType() == null) {
+            return "Order needs instrumentKey and transactionType";
+        }
+        if (request.getQuantity() <= 0) {
+            return "Quantity must be positive";
+        }
+        OrderType type = typeOf(request);
+        if (type == OrderType.SL || type == OrderType.SLM) {
+            return "Stop orders are not simulated";
+        }
+        if (type == OrderType.LIMIT && !(request.getPrice() > 0)) {
+            return "Limit orders need a positive price";
+        }
+        return null;
+    }
+
+    private static OrderType typeOf(OrderRequest request) {
+        if (request.getOrderType() != null) {
+            return request.getOrderType();
+        }
+        return request.getPrice() > 0 ? OrderType.LIMIT : OrderType.MARKET;
+    }
+
+    private OrderResponse rejection(String orderId, String message) {
+        return OrderResponse.builder().orderId(orderId).status(OrderStatus.REJECTED).message(message).build();
+    }
+
+    private void schedule(ActionType type, SimOrder order, OrderRequest request) {
+        long delay = Math.max(0, latency.latencyMillis(request, random));
+        pending.add(new Action(type, order, request, clock.millis() + delay, nextActionSeq++));
+    }
+
+    // ----- market data -----
+
+    /**
+     * Applies order actions due at or before {@code nowMillis} against the
+     * current book.
+     */
+    public void advance(long nowMillis) {
+        while (!pending.isEmpty() && pending.peek().at <= nowMillis) {
+            Action action = pending.poll();
+            SimOrder order = action.order;
+            switch (action.type) {
+                case PLACE -> arrive(order);
+                case MODIFY -> modify(order, action.request);
+                case CANCEL -> {
+                    if (order.isOpen()) {
+                        cancel(order, "Cancelled");
+                    }
+                }
+            }
+        }
+    }
+
+    public void onDepth(OrderBookSnapshot depth) {
+        Market market = market(depth.getInstrumentKey());
+        market.depth = depth;
+        market.takenBids.clear();
+        market.takenAsks.clear();
+        List<SimOrder> book = resting.get(depth.getInstrumentKey());
+        if (book == null || book.isEmpty()) {
+            return;
+        }
+        for (SimOrder order : new ArrayList<>(book)) {
+            boolean buy = order.side == TransactionType.BUY;
+            // Opposite side trading at or through our price fills us at our price
+            long crossing = 0;
+            for (DepthLevel level : side(depth, !buy)) {
+                if (buy ? level.getPrice() > order.price + PRICE_EPSILON
+                        : level.getPrice() < order.price - PRICE_EPSILON) {
+                    break;
+                }
+                crossing += available(market, level, !buy);
+            }
+            if (crossing > 0) {
+                int qty = (int) Math.min(order.remaining(), crossing);
+                takeCrossing(market, order, qty);
+                fill(order, qty, order.price, true);
+                continue;
+            }
+            long displayed = displayedAt(side(depth, buy), order.price);
+            long decrease = order.lastLevelQty - displayed;
+            if (decrease > 0) {
+                order.queueAhead -= decrease * queueModel.cancelAheadShare();
+            }
+            order.queueAhead = Math.max(0, Math.min(order.queueAhead, displayed));
+            order.lastLevelQty = displayed;
+        }
+    }
+
+    public void onTick(LiveMarketSnapshot tick) {
+        Market market = market(tick.getInstrumentKey());
+        long traded = 0;
+        if (tick.getVolume() > 0) {
+            if (market.volume >= 0 && tick.getVolume() > market.volume) {
+                traded = tick.getVolume() - market.volume;
+            }
+            market.volume = tick.getVolume();
+        }
+        if (!(tick.getLtp() > 0)) {
+            return;
+        }
+        market.ltp = tick.getLtp();
+        List<SimOrder> book = resting.get(tick.getInstrumentKey());
+        if (book == null || book.isEmpty()) {
+            return;
+        }
+        double ltp = tick.getLtp();
+        for (SimOrder order : new ArrayList<>(book)) {
+            boolean buy = order.side == TransactionType.BUY;
+            if (buy ? ltp < order.price - PRICE_EPSILON : ltp > order.price + PRICE_EPSILON) {
+                fill(order, order.remaining(), order.price, true); // traded through
+            } else if (Math.abs(ltp - order.price) < PRICE_EPSILON && traded > 0) {
+                double reached = traded - order.queueAhead;
+                order.queueAhead = Math.max(0, order.queueAhead - traded);
+                if (reached >= 1) {
+                    fill(order, (int) Math.min(order.remaining(), (long) reached), order.price, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Last traded price seen for an instrument, NaN if none.
+     */
+    public double lastPrice(String instrumentKey) {
+        Market market = markets.get(instrumentKey);
+        return market != null ? market.ltp : Double.NaN;
+    }
+
+    /**
+     * Cancels every open and in-flight order, e.g. at the end of a session.
+     */
+    public void cancelAll() {
+        pending.clear();
+        for (SimOrder order : orders.values()) {
+            if (order.isOpen()) {
+                cancel(order, "Session end");
+            }
+        }
+    }
+
+    /**
+     * Closes a position at a given price without touching the book, with
+     * charges (end-of-session square-off).
+     */
+    public void squareOff(String instrumentKey, long quantity, double price, ProductType product) {
+        if (quantity == 0) {
+            return;
+        }
+        OrderRequest request = OrderRequest.builder()
+                .instrumentKey(instrumentKey)
+                .quantity((int) Math.abs(quantity))
+                .price(price)
+                .orderType(OrderType.MARKET)
+                .transactionType(quantity > 0 ? TransactionType.SELL : TransactionType.BUY)
+                .productType(product)
+                .validity(ValidityType.DAY)
+                .tag("SQUARE_OFF")
+                .build();
+        SimOrder order = new SimOrder("BT-" + nextOrderId++, request);
+        orders.put(order.id, order);
+        fill(order, order.remaining(), price, false);
+    }
+
+    public int getOrderCount() {
+        return orders.size();
+    }
+
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    // ----- matching -----
+
+    private void arrive(SimOrder order) {
+        if (!order.isOpen()) {
+            return;
+        }
+        Market market = market(order.instrumentKey);
+        boolean isMarket = typeOf(order.request) == OrderType.MARKET;
+        OrderBookSnapshot depth = market.depth;
+        if (depth == null) {
+            if (isMarket && market.ltp > 0) {
+                fill(order, order.remaining(), market.ltp, false);
+            } else if (isMarket) {
+                rejected++;
+                order.status = OrderStatus.REJECTED;
+                order.message = "No market data";
+            } else {
+                rest(order, 0);
+            }
+            return;
+        }
+        sweep(market, order, isMarket ? Double.NaN : order.price);
+        if (order.remaining() == 0) {
+            return;
+        }
+        if (isMarket || order.request.getValidity() == ValidityType.IOC) {
+            cancel(order, "Unfilled remainder cancelled");
+            return;
+        }
+        boolean buy = order.side == TransactionType.BUY;
+        rest(order, displayedAt(side(depth, buy), order.price));
+    }
+
+    private void modify(SimOrder order, OrderRequest request) {
+        if (!order.isOpen()) {
+            return;
+        }
+        boolean repriced = Math.abs(request.getPrice() - order.price) >= PRICE_EPSILON;
+        order.quantity = Math.max(request.getQuantity(), order.filled);
+        if (order.remaining() == 0) {
+            complete(order);
+            return;
+        }
+        if (!repriced) {
+            return; // size change keeps the queue position
+        }
+        order.price = request.getPrice();
+        unrest(order);
+        arrive(order);
+    }
+
+    private void sweep(Market market, SimOrder order, double limit) {
+        boolean buy = order.side == TransactionType.BUY;
+        for (DepthLevel level : side(market.depth, !buy)) {
+            if (order.remaining() == 0) {
+                break;
+            }
+            if (!Double.isNaN(limit) && (buy ? level.getPrice() > limit + PRICE_EPSILON
+                    : level.getPrice() < limit - PRICE_EPSILON)) {
+                break;
+            }
+            long available = available(market, level, !buy);
+            if (available <= 0) {
+                continue;
+            }
+            int qty = (int) Math.min(order.remaining(), available);
+            (buy ? market.takenAsks : market.takenBids).merge(level.getPrice(), (long) qty, Long::sum);
+            fill(order, qty, level.getPrice(), false);
+        }
+    }
+
+    private void takeCrossing(Market market, SimOrder order, int qty) {
+        boolean buy = order.side == TransactionType.BUY;
+        long left = qty;
+        for (DepthLevel level : side(market.depth, !buy)) {
+            if (left == 0) {
+                break;
+            }
+            long take = Math.min(left, available(market, level, !buy));
+            if (take > 0) {
+                (buy ? market.takenAsks : market.takenBids).merge(level.getPrice(), take, Long::sum);
+                left -= take;
+            }
+        }
+    }
+
+    private static long available(Market market, DepthLevel level, boolean bidSide) {
+        Long taken = (bidSide ? market.takenBids : market.takenAsks).get(level.getPrice());
+        return level.getQuantity() - (taken != null ? taken : 0);
+    }
+
+    private static List<DepthLevel> side(OrderBookSnapshot depth, boolean bids) {
+        List<DepthLevel> levels = bids ? depth.getBids() : depth.getAsks();
+        return levels != null ? levels : List.of();
+    }
+
+    private static long displayedAt(List<DepthLevel> levels, double price) {
+        for (DepthLevel level : levels) {
+            if (Math.abs(level.getPrice() - price) < PRICE_EPSILON) {
+                return level.getQuantity();
+            }
+        }
+        return 0;
+    }
+
+    private void rest(SimOrder order, long displayed) {
+        order.queueAhead = displayed;
+        order.lastLevelQty = displayed;
+        resting.computeIfAbsent(order.instrumentKey, k -> new ArrayList<>()).add(order);
+    }
+
+    private void unrest(SimOrder order) {
+        List<SimOrder> book = resting.get(order.instrumentKey);
+        if (book != null) {
+            book.remove(order);
+        }
+    }
+
+    private void fill(SimOrder order, int qty, double price, boolean passive) {
+        if (qty <= 0) {
+            return;
+        }
+        order.avgPrice = (order.avgPrice * order.filled + price * qty) / (order.filled + qty);
+        order.filled += qty;
+        if (order.remaining() == 0) {
+            complete(order);
+        } else {
+            order.status = OrderStatus.PARTIALLY_FILLED;
+        }
+        fillListener.accept(new Fill(order.id, order.instrumentKey, order.side, qty, price, clock.millis(),
+                chargesFor(order, qty, price), passive));
+    }
+
+    private void complete(SimOrder order) {
+        order.status = OrderStatus.COMPLETE;
+        unrest(order);
+    }
+
+    private void cancel(SimOrder order, String message) {
+        order.status = OrderStatus.CANCELLED;
+        order.message = message;
+        unrest(order);
+    }
+
+    private double chargesFor(SimOrder order, int qty, double price) {
+        if (charges == null) {
+            return 0;
+        }
+        String key = order.instrumentKey;
+        int bar = key.indexOf('|');
+        String segment = bar > 0 ? key.substring(0, bar) : key;
+        int underscore = segment.indexOf('_');
+        String exchange = underscore > 0 ? segment.substring(0, underscore) : segment;
+        String product = order.request.getProductType() == ProductType.INTRA ? "I" : "D";
+        // The key carries no instrument type: options are only told apart by CE/PE
+        IndexedInstrument instrument = instruments != null ? instruments.get(key) : null;
+        String type = instrument != null && instrument.instrumentType() != null ? instrument.instrumentType() : key;
+        return charges.calculate(new ChargeCalculator.ChargeRequest(type, exchange, segment, order.side.name(),
+                product, qty, BigDecimal.valueOf(price))).totalCharges().doubleValue();
+    }
+
+    private Market market(String instrumentKey) {
+        return markets.computeIfAbsent(instrumentKey, k -> new Market());
+    }
+
+    private enum ActionType {
+        PLACE, MODIFY, CANCEL
+    }
+
+    private record Action(ActionType type, SimOrder order, OrderRequest request, long at, long seq) {
+    }
+
+    /** Latest recorded state of one instrument */
+    private static final class Market {
+        OrderBookSnapshot depth;
+        double ltp = Double.NaN;
+        long volume = -1;
+        /** Liquidity consumed from the current depth snapshot, by price */
+        final Map<Double, Long> takenBids = new HashMap<>();
+        final Map<Double, Long> takenAsks = new HashMap<>();
+    }
+
+    private static final class SimOrder {
+        final String id;
+        final OrderRequest request;
+        final String instrumentKey;
+        final TransactionType side;
+        int quantity;
+        double price;
+        int filled;
+        double avgPrice;
+        OrderStatus status = OrderStatus.OPEN;
+        String message;
+        double queueAhead;
+        long lastLevelQty;
+
+        SimOrder(String id, OrderRequest request) {
+            this.id = id;
+            this.request = request;
+            this.instrumentKey = request != null ? request.getInstrumentKey() : null;
+            this.side = request != null ? request.getTransactionType() : null;
+            this.quantity = request != null ? request.getQuantity() : 0;
+            this.price = request != null ? request.getPrice() : 0;
+        }
+
+        int remaining() {
+            return quantity - filled;
+        }
+
+        boolean isOpen() {
+            return status == OrderStatus.OPEN || status == OrderStatus.PARTIALLY_FILLED;
+        }
+
+        OrderResponse toResponse() {
+            return OrderResponse.builder()
+                    .orderId(id)
+                    .instrumentKey(instrumentKey)
+                    .status(status)
+                    .message(message)
+                    .filledQuantity(filled)
+                    .avgPrice(avgPrice)
+                    .build();
+        }
+    }
+}
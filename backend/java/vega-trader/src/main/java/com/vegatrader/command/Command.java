@@ -0,0 +1,89 @@
+package com.vegatrader.command;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+
+import java.util.List;
+
+/**
+ * A parsed terminal command; see {@link CommandParser} for the grammar.
+ * Instruments are kept as typed and resolved by the {@link CommandRouter}.
+ *
+ * @since 5.0.0
+ */
+public sealed interface Command {
+
+    /**
+     * An instrument as typed.
+     *
+     * @param symbol   instrument key, trading symbol or underlying
+     * @param strike   option strike, {@code NaN} otherwise
+     * @param contract CE, PE or FUT for derivative shorthand, else
+     *                 {@code null}
+     * @param expiry   expiry code of the shorthand, {@code null} for the
+     *                 nearest expiry
+     */
+    record Instrument(String symbol, double strike, String contract, String expiry) {
+
+        public static Instrument of(String symbol) {
+            return new Instrument(symbol, Double.NaN, null, null);
+        }
+
+        public boolean isDerivative() {
+            return contract != null;
+        }
+
+        public boolean isOption() {
+            return "CE".equals(contract) || "PE".equals(contract);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(symbol);
+            if (isOption()) {
+                sb.append(' ').append(strike == Math.rint(strike) ? Long.toString((long) strike)
+                        : Double.toString(strike));
+            }
+            if (contract != null) {
+                sb.append(' ').append(contract);
+            }
+            if (expiry != null) {
+                sb.append(' ').append(expiry);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * @param quantity     units, or lots if {@code lots}
+     * @param price        limit price, 0 for market orders
+     * @param triggerPrice stop trigger, 0 if none
+     */
+    record Order(TransactionType side, Instrument instrument, int quantity, boolean lots, OrderType orderType,
+            double price, double triggerPrice, ProductType product, ValidityType validity) implements Command {
+    }
+
+    /**
+     * @param price        new limit price, 0 to keep it
+     * @param triggerPrice new trigger, 0 to keep it
+     */
+    record Modify(String orderId, int quantity, double price, double triggerPrice) implements Command {
+    }
+
+    /**
+     * @param orderId order to cancel, {@code null} for every open order
+     */
+    record Cancel(String orderId) implements Command {
+    }
+
+    record Basket(List<Order> orders) implements Command {
+    }
+
+    record Positions() implements Command {
+    }
+
+    record Quote(List<Instrument> instruments) implements Command {
+    }
+}
@@ -0,0 +1,358 @@
+package com.vegatrader.command;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass parser for terminal commands. Keywords are case-insensitive.
+ *
+ * <pre>
+ * order      := (BUY | B | SELL | S) instrument quantity [price] option*
+ * instrument := KEY | SYMBOL | UNDERLYING STRIKE (CE | PE) [EXPIRY] | UNDERLYING FUT [EXPIRY]
+ * quantity   := INT | INT L | INT LOTS
+ * price      := [@] NUMBER | MKT
+ * option     := SL NUMBER | MIS | CNC | NRML | DAY | IOC
+ * command    := order
+ *             | BASKET order (; order)*
+ *             | MODIFY ORDER_ID INT [[@] NUMBER] [SL NUMBER]
+ *             | CANCEL (ORDER_ID | ALL)
+ *             | POSITIONS
+ *             | QUOTE instrument ([,] instrument)*
+ * </pre>
+ *
+ * <p>
+ * For example {@code BUY RELIANCE 10 @2501.5 CNC},
+ * {@code SELL NIFTY 24500 CE W1 2L SL 120} or
+ * {@code BASKET BUY NIFTY FUT M1 1L; SELL NIFTY 25000 CE 1L}. An order with
+ * a price is a limit order, one with a stop trigger an SL (or, without a
+ * price, SL-M) order; product defaults to MIS and validity to DAY. Expiry
+ * codes are those of {@link InstrumentIndex}, e.g. {@code W1}, {@code M1},
+ * {@code 24DEC}. Syntax errors throw {@link IllegalArgumentException}.
+ *
+ * @since 5.0.0
+ */
+public final class CommandParser {
+
+    private final String[] tokens;
+    private final String[] upper;
+    private int pos;
+
+    private CommandParser(String text) {
+        List<String> out = new ArrayList<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (isPunctuation(c)) {
+                out.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < n && !Character.isWhitespace(text.charAt(i)) && !isPunctuation(text.charAt(i))) {
+                    i++;
+                }
+                out.add(text.substring(start, i));
+            }
+        }
+        this.tokens = out.toArray(new String[0]);
+        this.upper = new String[tokens.length];
+        for (int t = 0; t < tokens.length; t++) {
+            upper[t] = tokens[t].toUpperCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code text} is not a command
+     */
+    public static Command parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Command is empty");
+        }
+        CommandParser parser = new CommandParser(text);
+        Command command = parser.command();
+        if (parser.pos < parser.tokens.length) {
+            throw parser.unexpected();
+        }
+        return command;
+    }
+
+    private Command command() {
+        return switch (upper[pos]) {
+            case "BUY", "B", "SELL", "S" -> order();
+            case "BASKET" -> basket();
+            case "MODIFY", "MOD" -> modify();
+            case "CANCEL", "CXL" -> cancel();
+            case "POSITIONS", "POS" -> {
+                pos++;
+                yield new Command.Positions();
+            }
+            case "QUOTE", "Q" -> quote();
+            default -> throw new IllegalArgumentException("Unknown command: " + tokens[pos]);
+        };
+    }
+
+    private Command.Order order() {
+        if (pos >= tokens.length) {
+            throw new IllegalArgumentException("Expected BUY or SELL at end of command");
+        }
+        TransactionType side = switch (upper[pos]) {
+            case "BUY", "B" -> TransactionType.BUY;
+            case "SELL", "S" -> TransactionType.SELL;
+            default -> throw new IllegalArgumentException("Expected BUY or SELL at '" + tokens[pos] + "'");
+        };
+        pos++;
+        Command.Instrument instrument = instrument();
+
+        expect("quantity");
+        String quantity = upper[pos - 1];
+        int digits = quantity.endsWith("LOTS") ? quantity.length() - 4
+                : quantity.endsWith("LOT") ? quantity.length() - 3
+                        : quantity.endsWith("L") ? quantity.length() - 1 : quantity.length();
+        boolean lots = digits < quantity.length();
+        int qty = integer(quantity.substring(0, digits), "quantity");
+        if (!lots && pos < tokens.length && ("L".equals(upper[pos]) || "LOT".equals(upper[pos])
+                || "LOTS".equals(upper[pos]))) {
+            lots = true;
+            pos++;
+        }
+
+        double price = 0;
+        double trigger = 0;
+        ProductType product = ProductType.INTRA;
+        ValidityType validity = ValidityType.DAY;
+        if (pos < tokens.length && isNumber(upper[pos])) {
+            price = number("price");
+        }
+        while (pos < tokens.length && !";".equals(upper[pos])) {
+            switch (upper[pos]) {
+                case "@" -> {
+                    pos++;
+                    price = number("price");
+                }
+                case "MKT", "MARKET" -> {
+                    pos++;
+                    price = 0;
+                }
+                case "SL", "TRIGGER", "TRG" -> {
+                    pos++;
+                    trigger = number("trigger price");
+                }
+                case "MIS", "INTRA", "I" -> {
+                    pos++;
+                    product = ProductType.INTRA;
+                }
+                case "CNC", "DELIVERY", "D" -> {
+                    pos++;
+                    product = ProductType.CNC;
+                }
+                case "NRML", "MARGIN" -> {
+                    pos++;
+                    product = ProductType.MARGIN;
+                }
+                case "DAY" -> {
+                    pos++;
+                    validity = ValidityType.DAY;
+                }
+                case "IOC" -> {
+                    pos++;
+                    validity = ValidityType.IOC;
+                }
+                default -> throw unexpected();
+            }
+        }
+        OrderType type = trigger > 0 ? (price > 0 ? OrderType.SL : OrderType.SLM)
+                : price > 0 ? OrderType.LIMIT : OrderType.MARKET;
+        return new Command.Order(side, instrument, qty, lots, type, price, trigger, product, validity);
+    }
+
+    private Command.Modify modify() {
+        pos++;
+        String orderId = expect("order id");
+        expect("quantity");
+        int quantity = integer(upper[pos - 1], "quantity");
+        double price = 0;
+        double trigger = 0;
+        while (pos < tokens.length) {
+            if (accept("@") || isNumber(upper[pos])) {
+                price = number("price");
+            } else if (accept("SL") || accept("TRIGGER") || accept("TRG")) {
+                trigger = number("trigger price");
+            } else {
+                throw unexpected();
+            }
+        }
+        return new Command.Modify(orderId, quantity, price, trigger);
+    }
+
+    private Command.Basket basket() {
+        pos++;
+        List<Command.Order> orders = new ArrayList<>();
+        orders.add(order());
+        while (accept(";") && pos < tokens.length) {
+            orders.add(order());
+        }
+        return new Command.Basket(List.copyOf(orders));
+    }
+
+    private Command.Cancel cancel() {
+        pos++;
+        String orderId = expect("order id");
+        return new Command.Cancel("ALL".equals(upper[pos - 1]) ? null : orderId);
+    }
+
+    private Command.Quote quote() {
+        pos++;
+        List<Command.Instrument> instruments = new ArrayList<>();
+        instruments.add(instrument());
+        while (pos < tokens.length) {
+            if (accept(",") && pos == tokens.length) {
+                break;
+            }
+            instruments.add(instrument());
+        }
+        return new Command.Quote(List.copyOf(instruments));
+    }
+
+    private Command.Instrument instrument() {
+        String symbol = expect("instrument");
+        if (isPunctuation(symbol.charAt(0))) {
+            pos--;
+            throw unexpected();
+        }
+        if (symbol.indexOf('|') < 0) {
+            symbol = upper[pos - 1];
+        }
+        double strike = Double.NaN;
+        String contract = null;
+        if (pos < tokens.length) {
+            String next = upper[pos];
+            String glued = optionType(next, true);
+            if (isNumber(next) && pos + 1 < tokens.length && optionType(upper[pos + 1], false) != null) {
+                strike = Double.parseDouble(next);
+                contract = optionType(upper[pos + 1], false);
+                pos += 2;
+            } else if (glued != null && isNumber(next.substring(0, next.length() - suffixLength(next)))) {
+                strike = Double.parseDouble(next.substring(0, next.length() - suffixLength(next)));
+                contract = glued;
+                pos++;
+            } else if ("FUT".equals(next)) {
+                contract = "FUT";
+                pos++;
+            }
+        }
+        String expiry = null;
+        if (contract != null && pos < tokens.length && !isNumber(upper[pos])
+                && InstrumentIndex.isExpiryCode(upper[pos])) {
+            expiry = upper[pos++];
+        }
+        return new Command.Instrument(symbol, strike, contract, expiry);
+    }
+
+    // ----- tokens -----
+
+    private boolean accept(String token) {
+        if (pos < tokens.length && token.equals(upper[pos])) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private String expect(String what) {
+        if (pos >= tokens.length) {
+            throw new IllegalArgumentException("Expected " + what + " at end of command");
+        }
+        return tokens[pos++];
+    }
+
+    private double number(String what) {
+        String token = expect(what);
+        if (!isNumber(token)) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + token);
+        }
+        double value = Double.parseDouble(token);
+        if (!(value > 0)) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + token);
+        }
+        return value;
+    }
+
+    private static int integer(String token, String what) {
+        int value = 0;
+        if (token.isEmpty() || token.length() > 9) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + token);
+        }
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid " + what + ": " + token);
+            }
+            value = value * 10 + c - '0';
+        }
+        if (value == 0) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + token);
+        }
+        return value;
+    }
+
+    private IllegalArgumentException unexpected() {
+        return new IllegalArgumentException("Unexpected '" + tokens[pos] + "'");
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == ';' || c == ',' || c == '@';
+    }
+
+    private static boolean isNumber(String token) {
+        boolean digit = false;
+        boolean dot = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digit;
+    }
+
+    /**
+     * @param glued whether {@code token} may carry a strike before the type,
+     *              as in {@code 24500CE}
+     * @return CE or PE, else {@code null}
+     */
+    private static String optionType(String token, boolean glued) {
+        if (glued) {
+            int suffix = suffixLength(token);
+            return suffix > 0 && suffix < token.length() ? optionType(token.substring(token.length() - suffix), false)
+                    : null;
+        }
+        return switch (token) {
+            case "CE", "CALL" -> "CE";
+            case "PE", "PUT" -> "PE";
+            default -> null;
+        };
+    }
+
+    private static int suffixLength(String token) {
+        if (token.endsWith("CALL")) {
+            return 4;
+        }
+        if (token.endsWith("PUT")) {
+            return 3;
+        }
+        return token.endsWith("CE") || token.endsWith("PE") ? 2 : 0;
+    }
+}
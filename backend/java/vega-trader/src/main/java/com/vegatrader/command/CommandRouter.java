@@ -1,97 +1,296 @@
 package com.vegatrader.command;
 
-import com.vegatrader.domain.enums.OrderType;
-import com.vegatrader.domain.enums.ProductType;
-import com.vegatrader.domain.enums.TransactionType;
 import com.vegatrader.execution.ExecutionGateway;
 import com.vegatrader.execution.dto.OrderRequest;
 import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.execution.paper.PaperExchange;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.risk.RiskEngine;
+import com.vegatrader.risk.RiskException;
+import com.vegatrader.upstox.api.broker.engine.MultiBrokerEngine;
+import com.vegatrader.upstox.api.instrument.index.IndexedInstrument;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Command Router.
- * Parses text commands and routes them to appropriate services.
- * Syntax: BUY <SYMBOL> <QTY> [PRICE]
+ * Parses text commands ({@link CommandParser}) and routes them to the
+ * appropriate services.
+ *
+ * <p>
+ * Instruments are resolved against the in-memory {@link InstrumentIndex};
+ * an unknown symbol is rejected with the nearest matches rather than
+ * guessed. Every order passes {@link RiskEngine#validateOrder} before it
+ * reaches the {@link ExecutionGateway}; the legs of a basket are all
+ * resolved and validated before the first is placed, and a modification is
+ * validated merged with the terms of the open order it changes. Orders need
+ * an indexed instrument; quotes also accept raw instrument keys that are not
+ * indexed.
  */
 @Service
 public class CommandRouter {
 
     private static final Logger logger = LoggerFactory.getLogger(CommandRouter.class);
 
-    @Autowired
-    private ExecutionGateway executionGateway;
+    private static final String TAG = "CMD_LINE";
+    private static final int SUGGESTIONS = 3;
 
-    // BUY RELIANCE 100 2500.50
-    // SELL INFY 50
-    private static final Pattern ORDER_PATTERN = Pattern
-            .compile("^(BUY|SELL)\\s+([A-Z0-9_]+)\\s+(\\d+)(?:\\s+([\\d.]+))?$", Pattern.CASE_INSENSITIVE);
+    private final ExecutionGateway executionGateway;
+    private final InstrumentIndex instrumentIndex;
+    private final RiskEngine riskEngine;
+    private final MarketCacheService marketCache;
+
+    @Autowired(required = false)
+    private MultiBrokerEngine brokerEngine;
+
+    public CommandRouter(ExecutionGateway executionGateway, InstrumentIndex instrumentIndex, RiskEngine riskEngine,
+            MarketCacheService marketCache) {
+        this.executionGateway = executionGateway;
+        this.instrumentIndex = instrumentIndex;
+        this.riskEngine = riskEngine;
+        this.marketCache = marketCache;
+    }
 
     /**
      * Execute a text command.
      */
     public Map<String, Object> execute(String command) {
         logger.info("Processing command: {}", command);
+        try {
+            Command parsed = CommandParser.parse(command);
+            if (parsed instanceof Command.Order order) {
+                return placeOrder(order);
+            }
+            if (parsed instanceof Command.Basket basket) {
+                return placeBasket(basket);
+            }
+            if (parsed instanceof Command.Modify modify) {
+                return modifyOrder(modify);
+            }
+            if (parsed instanceof Command.Cancel cancel) {
+                return cancelOrder(cancel);
+            }
+            if (parsed instanceof Command.Positions) {
+                return positions();
+            }
+            return quote((Command.Quote) parsed);
+        } catch (IllegalArgumentException | RiskException e) {
+            return error(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Command execution failed", e);
+            return error(e.getMessage());
+        }
+    }
+
+    /**
+     * Symbols matching what has been typed so far, for autocompletion.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return instrumentIndex.suggest(prefix, limit);
+    }
+
+    // ----- orders -----
+
+    private Map<String, Object> placeOrder(Command.Order order) {
+        IndexedInstrument instrument = resolve(order.instrument(), false);
+        OrderRequest request = toRequest(order, instrument);
+        riskEngine.validateOrder(request);
+        return orderResult(executionGateway.placeOrder(request), instrument, request);
+    }
+
+    private Map<String, Object> placeBasket(Command.Basket basket) {
+        List<IndexedInstrument> instruments = new ArrayList<>();
+        List<OrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < basket.orders().size(); i++) {
+            Command.Order order = basket.orders().get(i);
+            try {
+                IndexedInstrument instrument = resolve(order.instrument(), false);
+                OrderRequest request = toRequest(order, instrument);
+                riskEngine.validateOrder(request);
+                instruments.add(instrument);
+                requests.add(request);
+            } catch (IllegalArgumentException | RiskException e) {
+                return error("Leg " + (i + 1) + ": " + e.getMessage() + "; no orders placed");
+            }
+        }
+        List<Map<String, Object>> legs = new ArrayList<>();
+        int rejected = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            OrderResponse response = executionGateway.placeOrder(requests.get(i));
+            if (response.getStatus() == OrderStatus.REJECTED) {
+                rejected++;
+            }
+            legs.add(orderResult(response, instruments.get(i), requests.get(i)));
+        }
         Map<String, Object> result = new HashMap<>();
+        result.put("status", rejected == 0 ? "OK" : rejected < legs.size() ? "PARTIAL" : "ERROR");
+        result.put("message", (legs.size() - rejected) + " of " + legs.size() + " orders placed");
+        result.put("orders", legs);
+        return result;
+    }
 
-        Matcher matcher = ORDER_PATTERN.matcher(command.trim());
-        if (matcher.matches()) {
-            return handleOrderCommand(matcher);
+    /**
+     * Prices left out of the command keep their current values, as the
+     * gateways apply them.
+     */
+    private Map<String, Object> modifyOrder(Command.Modify modify) {
+        OrderRequest open = executionGateway.getOpenOrder(modify.orderId());
+        if (open == null) {
+            return error("No open order " + modify.orderId());
         }
+        OrderRequest request = OrderRequest.builder()
+                .instrumentKey(open.getInstrumentKey())
+                .transactionType(open.getTransactionType())
+                .orderType(open.getOrderType())
+                .productType(open.getProductType())
+                .validity(open.getValidity())
+                .quantity(modify.quantity())
+                .price(modify.price() > 0 ? modify.price() : open.getPrice())
+                .triggerPrice(modify.triggerPrice() > 0 ? modify.triggerPrice() : open.getTriggerPrice())
+                .tag(TAG)
+                .build();
+        riskEngine.validateOrder(request);
+        OrderResponse response = executionGateway.modifyOrder(modify.orderId(), request);
+        return orderResult(response, null, null);
+    }
 
-        result.put("status", "ERROR");
-        result.put("message", "Unknown command syntax");
+    private Map<String, Object> cancelOrder(Command.Cancel cancel) {
+        if (cancel.orderId() != null) {
+            return orderResult(executionGateway.cancelOrder(cancel.orderId()), null, null);
+        }
+        int cancelled = 0;
+        List<OrderResponse> open = executionGateway.getOpenOrders();
+        for (OrderResponse order : open) {
+            if (executionGateway.cancelOrder(order.getOrderId()).getStatus() != OrderStatus.REJECTED) {
+                cancelled++;
+            }
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", cancelled == open.size() ? "OK" : "PARTIAL");
+        result.put("message", "Cancelled " + cancelled + " of " + open.size() + " open orders");
+        result.put("cancelled", cancelled);
         return result;
     }
 
-    private Map<String, Object> handleOrderCommand(Matcher matcher) {
-        try {
-            String side = matcher.group(1).toUpperCase();
-            String symbol = matcher.group(2).toUpperCase(); // This needs resolution to InstrumentKey!
-            int qty = Integer.parseInt(matcher.group(3));
-            Double price = matcher.group(4) != null ? Double.parseDouble(matcher.group(4)) : null;
-
-            // Resolve Symbol -> InstrumentKey (Mock for now, normally use
-            // InstrumentService)
-            // Assumption: User types "RELIANCE", we need "NSE_EQ|RELIANCE"
-            String instrumentKey = resolveInstrumentKey(symbol);
-
-            OrderRequest request = OrderRequest.builder()
-                    .instrumentKey(instrumentKey)
-                    .transactionType(TransactionType.valueOf(side))
-                    .orderType(price != null ? OrderType.LIMIT : OrderType.MARKET)
-                    .productType(ProductType.INTRA) // Default
-                    .quantity(qty)
-                    .price(price != null ? price : 0.0)
-                    .tag("CMD_LINE")
-                    .build();
-
-            OrderResponse response = executionGateway.placeOrder(request);
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("status", response.getStatus());
-            result.put("message", response.getMessage());
-            result.put("orderId", response.getOrderId());
-            return result;
+    private OrderRequest toRequest(Command.Order order, IndexedInstrument instrument) {
+        int quantity = order.lots() ? Math.multiplyExact(order.quantity(), instrument.lotSize()) : order.quantity();
+        return OrderRequest.builder()
+                .instrumentKey(instrument.instrumentKey())
+                .transactionType(order.side())
+                .orderType(order.orderType())
+                .productType(order.product())
+                .validity(order.validity())
+                .quantity(quantity)
+                .price(order.price())
+                .triggerPrice(order.triggerPrice())
+                .tag(TAG)
+                .build();
+    }
 
-        } catch (Exception e) {
-            logger.error("Command execution failed", e);
-            return Map.of("status", "ERROR", "message", e.getMessage());
+    private static Map<String, Object> orderResult(OrderResponse response, IndexedInstrument instrument,
+            OrderRequest request) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", response.getStatus());
+        result.put("message", response.getMessage());
+        result.put("orderId", response.getOrderId());
+        if (instrument != null) {
+            result.put("instrumentKey", instrument.instrumentKey());
+            result.put("tradingSymbol", instrument.tradingSymbol());
+            result.put("quantity", request.getQuantity());
+        }
+        return result;
+    }
+
+    // ----- queries -----
+
+    private Map<String, Object> positions() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "OK");
+        if (executionGateway instanceof PaperExchange paper) {
+            result.put("positions", paper.getPositions());
+        } else {
+            result.put("positions", brokerEngine != null ? brokerEngine.getAggregatedPositions() : List.of());
+        }
+        return result;
+    }
+
+    private Map<String, Object> quote(Command.Quote quote) {
+        List<Map<String, Object>> quotes = new ArrayList<>();
+        for (Command.Instrument typed : quote.instruments()) {
+            IndexedInstrument instrument = resolve(typed, true);
+            LiveMarketSnapshot tick = marketCache.getTick(instrument.instrumentKey());
+            Map<String, Object> row = new HashMap<>();
+            row.put("instrumentKey", instrument.instrumentKey());
+            row.put("tradingSymbol", instrument.tradingSymbol());
+            row.put("lotSize", instrument.lotSize());
+            row.put("ltp", tick != null ? tick.getLtp() : null);
+            row.put("tick", tick);
+            quotes.add(row);
         }
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "OK");
+        result.put("quotes", quotes);
+        return result;
     }
 
-    private String resolveInstrumentKey(String symbol) {
-        // TODO: Real lookup
-        if (!symbol.contains("|")) {
-            return "NSE_EQ|" + symbol;
+    // ----- resolution -----
+
+    /**
+     * @param rawKeys accept an instrument key that is not indexed, with lot
+     *                size 1; never for orders, whose lot, freeze and tick
+     *                checks need the listing
+     * @throws IllegalArgumentException naming the nearest matches if the
+     *                                  instrument is not listed
+     */
+    private IndexedInstrument resolve(Command.Instrument typed, boolean rawKeys) {
+        if (typed.isDerivative()) {
+            IndexedInstrument contract = typed.isOption()
+                    ? instrumentIndex.option(typed.symbol(), typed.strike(), "CE".equals(typed.contract()),
+                            typed.expiry())
+                    : instrumentIndex.future(typed.symbol(), typed.expiry());
+            if (contract != null) {
+                return contract;
+            }
+            LocalDate expiry = instrumentIndex.expiry(typed.symbol(), typed.expiry());
+            if (expiry == null) {
+                throw new IllegalArgumentException(typed.expiry() != null
+                        ? "No " + typed.symbol() + " expiry matches " + typed.expiry()
+                        : unknown("underlying", typed.symbol()));
+            }
+            throw new IllegalArgumentException("No contract " + typed + " (expiry " + expiry + ")");
+        }
+        IndexedInstrument instrument = instrumentIndex.resolve(typed.symbol());
+        if (instrument != null) {
+            return instrument;
+        }
+        if (rawKeys && typed.symbol().indexOf('|') >= 0) {
+            return new IndexedInstrument(typed.symbol(), typed.symbol().substring(0, typed.symbol().indexOf('|')),
+                    typed.symbol(), null, null, null, null, null, 0, 1, 0, 0);
         }
-        return symbol;
+        throw new IllegalArgumentException(unknown("symbol", typed.symbol()));
+    }
+
+    private String unknown(String what, String symbol) {
+        List<String> near = instrumentIndex.suggest(symbol, SUGGESTIONS);
+        return near.isEmpty() ? "Unknown " + what + " " + symbol
+                : "Unknown " + what + " " + symbol + "; did you mean " + String.join(", ", near) + "?";
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "ERROR");
+        result.put("message", message);
+        return result;
     }
 }
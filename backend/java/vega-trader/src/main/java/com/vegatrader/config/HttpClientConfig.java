@@ -0,0 +1,57 @@
+package com.vegatrader.config;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared OkHttp client for all Upstox REST traffic.
+ *
+ * <p>
+ * One connection pool and one dispatcher for the whole process: every
+ * service that injects {@link OkHttpClient} (directly or through
+ * {@code UpstoxHttpClient}) reuses the same warm TLS connections. HTTP/2 is
+ * preferred so concurrent calls to {@code api.upstox.com} multiplex over a
+ * single connection; HTTP/1.1 remains as fallback. Components that need
+ * different timeouts should derive a client with {@code newBuilder()}, which
+ * keeps the pool and dispatcher.
+ *
+ * @since 5.0.0
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public OkHttpClient okHttpClient(
+            @Value("${upstox.http.pool.max-idle:16}") int maxIdleConnections,
+            @Value("${upstox.http.pool.keep-alive-minutes:15}") long keepAliveMinutes,
+            @Value("${upstox.http.max-requests:128}") int maxRequests,
+            @Value("${upstox.http.max-requests-per-host:64}") int maxRequestsPerHost,
+            @Value("${upstox.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${upstox.http.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${upstox.http.write-timeout-ms:10000}") long writeTimeoutMs,
+            @Value("${upstox.http.ping-interval-seconds:20}") long pingIntervalSeconds) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        return new OkHttpClient.Builder()
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMinutes, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeoutMs, TimeUnit.MILLISECONDS)
+                // HTTP/2 PINGs detect dead connections before an order finds them
+                .pingInterval(pingIntervalSeconds, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.vegatrader.controller;
+
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for the shared Upstox HTTP layer.
+ *
+ * <p>
+ * Provides endpoints for:
+ * <ul>
+ * <li>GET /api/v1/http/stats - Per-endpoint latency and pool state</li>
+ * <li>POST /api/v1/http/warmup - Open connections now</li>
+ * </ul>
+ *
+ * @since 5.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/http")
+public class HttpClientController {
+
+    private final UpstoxHttpClient httpClient;
+
+    public HttpClientController(UpstoxHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Gets endpoint histograms and connection pool state.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("pool", httpClient.getPoolStatistics());
+        response.put("endpoints", httpClient.getEndpointStatistics());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Warms the connection pool.
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<Map<String, Object>> warmUp() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("succeeded", httpClient.warmUp());
+        response.put("pool", httpClient.getPoolStatistics());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.vegatrader.controller;
+
+import com.vegatrader.ai.CpuInferenceEngine;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for model deployment on the CPU inference engine.
+ *
+ * <p>
+ * Provides endpoints for:
+ * <ul>
+ * <li>GET /api/v1/inference/models - Loaded models with latency and shadow
+ * stats</li>
+ * <li>POST /api/v1/inference/models/{name} - Load or hot-swap a model</li>
+ * <li>POST /api/v1/inference/models/{name}/shadow - Shadow a model</li>
+ * <li>POST /api/v1/inference/models/{name}/promote - Promote the shadow</li>
+ * <li>DELETE /api/v1/inference/models/{name}/shadow - Drop the shadow</li>
+ * </ul>
+ *
+ * <p>
+ * Model files are named relative to {@code ai.models.dir}; nothing outside
+ * that directory can be loaded.
+ *
+ * @since 5.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/inference")
+public class InferenceController {
+
+    private final CpuInferenceEngine inferenceEngine;
+
+    public InferenceController(CpuInferenceEngine inferenceEngine) {
+        this.inferenceEngine = inferenceEngine;
+    }
+
+    /**
+     * Gets stats for every loaded model.
+     */
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> getModels() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("models", inferenceEngine.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Loads a model file, replacing any live model of that name.
+     *
+     * @param path file relative to the model directory
+     */
+    @PostMapping("/models/{name}")
+    public ResponseEntity<Map<String, Object>> loadModel(@PathVariable String name, @RequestParam String path) {
+        return apply(name, () -> inferenceEngine.loadModel(name, inferenceEngine.modelFile(path).toString()));
+    }
+
+    /**
+     * Loads a model file as the shadow of a live model.
+     *
+     * @param path file relative to the model directory
+     */
+    @PostMapping("/models/{name}/shadow")
+    public ResponseEntity<Map<String, Object>> loadShadow(@PathVariable String name, @RequestParam String path) {
+        return apply(name, () -> inferenceEngine.loadShadow(name, inferenceEngine.modelFile(path).toString()));
+    }
+
+    /**
+     * Makes the shadow the live model.
+     */
+    @PostMapping("/models/{name}/promote")
+    public ResponseEntity<Map<String, Object>> promoteShadow(@PathVariable String name) {
+        return apply(name, () -> inferenceEngine.promoteShadow(name));
+    }
+
+    /**
+     * Stops shadow scoring.
+     */
+    @DeleteMapping("/models/{name}/shadow")
+    public ResponseEntity<Map<String, Object>> removeShadow(@PathVariable String name) {
+        return apply(name, () -> inferenceEngine.removeShadow(name));
+    }
+
+    private ResponseEntity<Map<String, Object>> apply(String name, Runnable action) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("model", name);
+        try {
+            action.run();
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        response.put("stats", inferenceEngine.getStats(name));
+        return ResponseEntity.ok(response);
+    }
+}
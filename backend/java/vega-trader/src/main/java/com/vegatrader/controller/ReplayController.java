@@ -1,22 +1,56 @@
 package com.vegatrader.controller;
 
 import com.vegatrader.market.journal.MarketReplayEngine;
+import com.vegatrader.upstox.api.websocket.replay.JournalReplayer;
+import com.vegatrader.upstox.api.websocket.replay.ReplayPipeline;
+import com.vegatrader.upstox.api.websocket.replay.ReplayService;
+import com.vegatrader.upstox.api.websocket.replay.ReplaySpeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/replay")
 @CrossOrigin(origins = "*") // Allow frontend access
 public class ReplayController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReplayController.class);
+
     private final MarketReplayEngine replayEngine;
+    private final ReplayService replayService;
+    private final boolean journalReplayEnabled;
+    private final int barCapacity;
+
+    private volatile CompletableFuture<JournalReplayer.Result> lastJournalReplay;
+    private volatile ReplayPipeline lastJournalPipeline;
 
-    public ReplayController(MarketReplayEngine replayEngine) {
+    /**
+     * Journal replay is enabled by the {@code replay} profile or
+     * {@code replay.journal.enabled}.
+     */
+    @Autowired
+    public ReplayController(MarketReplayEngine replayEngine, ReplayService replayService, Environment environment,
+            @Value("${replay.journal.enabled:false}") boolean journalReplayEnabled,
+            @Value("${bars.capacity:512}") int barCapacity) {
         this.replayEngine = replayEngine;
+        this.replayService = replayService;
+        this.journalReplayEnabled = journalReplayEnabled || environment.acceptsProfiles(Profiles.of("replay"));
+        this.barCapacity = barCapacity;
     }
 
     @PostMapping("/load")
@@ -44,4 +78,80 @@ public class ReplayController {
         // Implementation TBD: Hook ReplayEngine to the main EventBus
         return ResponseEntity.ok(Map.of("message", "Replay stream started (Stub implementation)"));
     }
+
+    /**
+     * Replays raw wire journals into a private {@link ReplayPipeline} (own
+     * cache, bars and indicators). Live strategies, alerts, paper fills,
+     * client broadcast and the live feed's resync state are never touched.
+     *
+     * <p>
+     * Admin-only ({@code X-Admin-User}) and disabled unless journal replay is
+     * enabled. Body: {@code {"files": [...]}} (relative to the journal
+     * directory) or {@code {"from": "2026-01-05", "to": "2026-01-05"}}, plus
+     * optional {@code "speed"}: {@code max} (default), {@code realtime} or
+     * {@code <N>x}.
+     */
+    @PostMapping("/journal")
+    public ResponseEntity<?> replayJournal(@RequestBody Map<String, Object> payload,
+            @RequestHeader("X-Admin-User") String adminUser) {
+        if (!journalReplayEnabled) {
+            return disabled();
+        }
+        List<Path> files = new ArrayList<>();
+        ReplaySpeed speed;
+        try {
+            speed = ReplaySpeed.parse((String) payload.get("speed"));
+            if (payload.get("files") instanceof List<?> list) {
+                list.forEach(f -> files.add(replayService.journalFile(String.valueOf(f))));
+            } else if (payload.get("from") != null) {
+                LocalDate from = LocalDate.parse((String) payload.get("from"));
+                LocalDate to = payload.get("to") != null ? LocalDate.parse((String) payload.get("to")) : from;
+                replayService.journalDays(from, to).forEach(day -> files.addAll(replayService.journalFiles(day)));
+            }
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No journal files to replay"));
+        }
+        ReplayPipeline pipeline = new ReplayPipeline(barCapacity);
+        try {
+            lastJournalReplay = replayService.startIsolatedJournalReplay(files, speed, pipeline);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+        lastJournalPipeline = pipeline;
+        logger.info("Journal replay of {} file(s) at {} started by {}", files.size(), speed, adminUser);
+        return ResponseEntity.accepted().body(Map.of("message", "Journal replay started",
+                "files", files.size(), "speed", speed.toString()));
+    }
+
+    @GetMapping("/journal/status")
+    public ResponseEntity<?> journalStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", replayService.isJournalReplayRunning());
+        CompletableFuture<JournalReplayer.Result> last = lastJournalReplay;
+        if (last != null && last.isDone() && !last.isCompletedExceptionally()) {
+            status.put("lastResult", last.join());
+        }
+        ReplayPipeline pipeline = lastJournalPipeline;
+        if (pipeline != null) {
+            status.put("pipeline", pipeline.getStats());
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @PostMapping("/journal/cancel")
+    public ResponseEntity<?> cancelJournal(@RequestHeader("X-Admin-User") String adminUser) {
+        if (!journalReplayEnabled) {
+            return disabled();
+        }
+        logger.info("Journal replay cancel requested by {}", adminUser);
+        return ResponseEntity.ok(Map.of("cancelled", replayService.cancelJournalReplay()));
+    }
+
+    private static ResponseEntity<?> disabled() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error",
+                "Journal replay is disabled; enable the replay profile or replay.journal.enabled"));
+    }
 }
@@ -0,0 +1,73 @@
+package com.vegatrader.controller;
+
+import com.vegatrader.strategy.StrategyEngine;
+import com.vegatrader.strategy.StrategyHost;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST controller for the strategy runtime.
+ *
+ * <p>
+ * Provides endpoints for:
+ * <ul>
+ * <li>GET /api/v1/strategies - Per-strategy state, mailbox, lag, CPU and errors</li>
+ * <li>POST /api/v1/strategies/{id}/release - Lift a quarantine</li>
+ * <li>DELETE /api/v1/strategies/{id} - Undeploy a strategy, feed keeps running</li>
+ * </ul>
+ *
+ * @since 5.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/strategies")
+public class StrategyController {
+
+    private final StrategyEngine strategyEngine;
+
+    public StrategyController(StrategyEngine strategyEngine) {
+        this.strategyEngine = strategyEngine;
+    }
+
+    /**
+     * Gets runtime statistics of all deployed strategies.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStrategies() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("strategies", strategyEngine.getStatistics());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Releases a quarantined strategy.
+     */
+    @PostMapping("/{strategyId}/release")
+    public ResponseEntity<Map<String, Object>> release(@PathVariable String strategyId) {
+        if (!strategyEngine.releaseStrategy(strategyId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("strategyId", strategyId);
+        response.put("state", strategyEngine.getState(strategyId));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stops and removes a strategy.
+     */
+    @DeleteMapping("/{strategyId}")
+    public ResponseEntity<Map<String, Object>> undeploy(@PathVariable String strategyId) {
+        StrategyHost.State state = strategyEngine.getState(strategyId);
+        if (state == null) {
+            return ResponseEntity.notFound().build();
+        }
+        strategyEngine.unregisterStrategy(strategyId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("strategyId", strategyId);
+        response.put("undeployed", true);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -37,6 +37,17 @@ public interface ExecutionGateway {
      */
     List<OrderResponse> getOpenOrders();
 
+    /**
+     * Current terms of an open order: instrument, side, type, product,
+     * validity, quantity and prices.
+     *
+     * @return null if the order is unknown or no longer open, or the gateway
+     *         does not track orders
+     */
+    default OrderRequest getOpenOrder(String orderId) {
+        return null;
+    }
+
     /**
      * Get execution provider name.
      */
@@ -17,6 +17,7 @@ public class OrderRequest {
     private String instrumentKey;
     private int quantity;
     private double price;
+    private double triggerPrice; // SL, SLM
     private OrderType orderType; // MARKET, LIMIT...
     private TransactionType transactionType; // BUY, SELL
     private ProductType productType; // INTRA, CNC...
@@ -0,0 +1,292 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.market.dto.DepthLevel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Limit order book of one instrument on the paper exchange.
+ *
+ * <p>
+ * Each price level holds the market's displayed quantity ("external",
+ * replaced wholesale by every depth snapshot) ahead of a FIFO of paper
+ * orders. Incoming orders match price first, then time: external liquidity
+ * at a level, then paper orders in arrival order. Externally displayed
+ * liquidity taken by paper orders stays taken until the next snapshot.
+ *
+ * <p>
+ * Resting paper orders also fill when the market reaches them: when a
+ * snapshot shows the opposite side at or through their price, or when a
+ * trade prints through it. Such fills are at the order's own price.
+ *
+ * <p>
+ * Not thread-safe; owned by the exchange's matching thread.
+ */
+final class PaperBook {
+
+    /** Prices are keyed in 1/10000 units, finer than any exchange tick */
+    static final double PRICE_SCALE = 10_000;
+
+    /** Receives every fill, maker and taker side separately */
+    interface FillSink {
+        void fill(PaperOrder order, int quantity, double price, boolean maker);
+    }
+
+    static final class Level {
+        final long key;
+        final double price;
+        long external;
+        final ArrayDeque<PaperOrder> orders = new ArrayDeque<>(2);
+
+        Level(long key, double price) {
+            this.key = key;
+            this.price = price;
+        }
+
+        boolean isEmpty() {
+            return external <= 0 && orders.isEmpty();
+        }
+    }
+
+    final String instrumentKey;
+    private final TreeMap<Long, Level> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, Level> asks = new TreeMap<>();
+    private final List<PaperOrder> stops = new ArrayList<>();
+    private double ltp = Double.NaN;
+    private boolean seeded;
+
+    PaperBook(String instrumentKey) {
+        this.instrumentKey = instrumentKey;
+    }
+
+    static long key(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+
+    double lastPrice() {
+        return ltp;
+    }
+
+    /** Whether any depth snapshot has been seen */
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    // ----- market data -----
+
+    /**
+     * Replaces external liquidity with a depth snapshot, then fills resting
+     * paper orders the new book crosses.
+     */
+    void seed(List<DepthLevel> newBids, List<DepthLevel> newAsks, FillSink sink) {
+        seeded = true;
+        reseed(bids, newBids);
+        reseed(asks, newAsks);
+        crossExternal(bids, asks, true, sink);
+        crossExternal(asks, bids, false, sink);
+        bids.values().removeIf(Level::isEmpty);
+        asks.values().removeIf(Level::isEmpty);
+    }
+
+    private static void reseed(TreeMap<Long, Level> side, List<DepthLevel> levels) {
+        for (Level level : side.values()) {
+            level.external = 0;
+        }
+        if (levels != null) {
+            for (DepthLevel depth : levels) {
+                if (depth.getQuantity() > 0 && depth.getPrice() > 0) {
+                    level(side, depth.getPrice()).external = depth.getQuantity();
+                }
+            }
+        }
+        side.values().removeIf(Level::isEmpty);
+    }
+
+    private static void crossExternal(TreeMap<Long, Level> paperSide, TreeMap<Long, Level> externalSide,
+            boolean buy, FillSink sink) {
+        Iterator<Level> levels = paperSide.values().iterator();
+        while (levels.hasNext()) {
+            Level level = levels.next();
+            if (level.orders.isEmpty()) {
+                continue;
+            }
+            Iterator<PaperOrder> queue = level.orders.iterator();
+            while (queue.hasNext()) {
+                PaperOrder order = queue.next();
+                for (Level opposite : externalSide.values()) {
+                    if (order.remaining() == 0 || (buy ? opposite.key > level.key : opposite.key < level.key)) {
+                        break;
+                    }
+                    if (opposite.external > 0) {
+                        int qty = (int) Math.min(order.remaining(), opposite.external);
+                        opposite.external -= qty;
+                        sink.fill(order, qty, order.price, true);
+                    }
+                }
+                if (order.remaining() > 0) {
+                    return; // nothing left at or through this price for anyone behind
+                }
+                queue.remove();
+            }
+            if (level.isEmpty()) {
+                levels.remove();
+            }
+        }
+    }
+
+    /**
+     * Records a trade print: resting orders priced through it fill at their
+     * own price, then stop orders it reaches are returned for activation.
+     */
+    List<PaperOrder> onTrade(double price, FillSink sink) {
+        ltp = price;
+        long tradeKey = key(price);
+        tradeThrough(bids, tradeKey, true, sink);
+        tradeThrough(asks, tradeKey, false, sink);
+        if (stops.isEmpty()) {
+            return List.of();
+        }
+        List<PaperOrder> triggered = new ArrayList<>();
+        Iterator<PaperOrder> it = stops.iterator();
+        while (it.hasNext()) {
+            PaperOrder stop = it.next();
+            if (isTriggered(stop, price)) {
+                it.remove();
+                triggered.add(stop);
+            }
+        }
+        return triggered;
+    }
+
+    private static void tradeThrough(TreeMap<Long, Level> side, long tradeKey, boolean bidSide, FillSink sink) {
+        Iterator<Level> levels = side.values().iterator();
+        while (levels.hasNext()) {
+            Level level = levels.next();
+            if (bidSide ? level.key <= tradeKey : level.key >= tradeKey) {
+                return;
+            }
+            for (PaperOrder order : level.orders) {
+                sink.fill(order, order.remaining(), order.price, true);
+            }
+            level.orders.clear();
+            if (level.isEmpty()) {
+                levels.remove();
+            }
+        }
+    }
+
+    static boolean isTriggered(PaperOrder stop, double price) {
+        return stop.isBuy() ? price >= stop.triggerPrice : price <= stop.triggerPrice;
+    }
+
+    // ----- orders -----
+
+    /**
+     * Matches an incoming order against the opposite side, price first,
+     * external before paper within a level.
+     */
+    void match(PaperOrder taker, FillSink sink) {
+        boolean buy = taker.isBuy();
+        boolean market = taker.type == OrderType.MARKET;
+        long limit = market ? 0 : key(taker.price);
+        Iterator<Level> levels = (buy ? asks : bids).values().iterator();
+        while (taker.remaining() > 0 && levels.hasNext()) {
+            Level level = levels.next();
+            if (!market && (buy ? level.key > limit : level.key < limit)) {
+                break;
+            }
+            if (level.external > 0) {
+                int qty = (int) Math.min(taker.remaining(), level.external);
+                level.external -= qty;
+                sink.fill(taker, qty, level.price, false);
+            }
+            while (taker.remaining() > 0 && !level.orders.isEmpty()) {
+                PaperOrder maker = level.orders.peekFirst();
+                int qty = Math.min(taker.remaining(), maker.remaining());
+                sink.fill(maker, qty, level.price, true);
+                sink.fill(taker, qty, level.price, false);
+                if (maker.remaining() == 0) {
+                    level.orders.pollFirst();
+                }
+            }
+            if (level.isEmpty()) {
+                levels.remove();
+            }
+        }
+    }
+
+    /** Whether the opposite side of {@code order} shows any liquidity */
+    boolean hasLiquidityFor(PaperOrder order) {
+        for (Level level : (order.isBuy() ? asks : bids).values()) {
+            if (!level.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Queues a limit order at the back of its price level */
+    void rest(PaperOrder order) {
+        order.priceKey = key(order.price);
+        level(order.isBuy() ? bids : asks, order.price).orders.addLast(order);
+    }
+
+    void remove(PaperOrder order) {
+        TreeMap<Long, Level> side = order.isBuy() ? bids : asks;
+        Level level = side.get(order.priceKey);
+        if (level != null && level.orders.remove(order) && level.isEmpty()) {
+            side.remove(order.priceKey);
+        }
+    }
+
+    void addStop(PaperOrder order) {
+        stops.add(order);
+    }
+
+    boolean removeStop(PaperOrder order) {
+        return stops.remove(order);
+    }
+
+    private static Level level(TreeMap<Long, Level> side, double price) {
+        long key = key(price);
+        Level level = side.get(key);
+        if (level == null) {
+            level = new Level(key, key / PRICE_SCALE);
+            side.put(key, level);
+        }
+        return level;
+    }
+
+    // ----- inspection -----
+
+    double bestBid() {
+        return best(bids);
+    }
+
+    double bestAsk() {
+        return best(asks);
+    }
+
+    private static double best(TreeMap<Long, Level> side) {
+        return side.isEmpty() ? Double.NaN : side.firstEntry().getValue().price;
+    }
+
+    /** Total quantity at a price, external plus paper */
+    long quantityAt(boolean bidSide, double price) {
+        Level level = (bidSide ? bids : asks).get(key(price));
+        if (level == null) {
+            return 0;
+        }
+        long qty = Math.max(0, level.external);
+        for (PaperOrder order : level.orders) {
+            qty += order.remaining();
+        }
+        return qty;
+    }
+}
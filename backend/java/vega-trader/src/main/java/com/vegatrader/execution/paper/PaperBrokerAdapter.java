@@ -0,0 +1,258 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.upstox.api.order.broker.BrokerAdapter;
+import com.vegatrader.upstox.api.order.broker.BrokerCapability;
+import com.vegatrader.upstox.api.order.broker.BrokerRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link BrokerAdapter} over the {@link PaperExchange}, registered with the
+ * {@link BrokerRouter} as broker {@code PAPER}.
+ *
+ * <p>
+ * Order IDs are returned as both internal and broker IDs. The reported
+ * latency is the time to acknowledge, not to fill; fills arrive through the
+ * exchange's order update listeners.
+ *
+ * @since 5.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "paper.enabled", havingValue = "true")
+public class PaperBrokerAdapter implements BrokerAdapter {
+
+    private final PaperExchange exchange;
+
+    @Autowired(required = false)
+    private BrokerRouter brokerRouter;
+
+    public PaperBrokerAdapter(PaperExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (brokerRouter != null) {
+            brokerRouter.registerAdapter(this);
+        }
+    }
+
+    @Override
+    public String getBrokerName() {
+        return "PAPER";
+    }
+
+    @Override
+    public BrokerCapability getCapabilities() {
+        return BrokerCapability.PAPER;
+    }
+
+    @Override
+    public OrderResult placeOrder(OrderRequest request) {
+        long start = System.nanoTime();
+        com.vegatrader.execution.dto.OrderRequest order;
+        try {
+            order = com.vegatrader.execution.dto.OrderRequest.builder()
+                    .instrumentKey(request.instrumentToken())
+                    .quantity(request.quantity())
+                    .price(request.price() != null ? request.price().doubleValue() : 0)
+                    .triggerPrice(request.triggerPrice() != null ? request.triggerPrice().doubleValue() : 0)
+                    .orderType(orderType(request.orderType()))
+                    .transactionType(TransactionType.valueOf(request.side().toUpperCase(Locale.ROOT)))
+                    .productType(product(request.product()))
+                    .validity(validity(request.validity()))
+                    .tag(request.tag())
+                    .build();
+        } catch (RuntimeException e) {
+            return OrderResult.error(request.correlationId(), "INVALID_ORDER", e.getMessage());
+        }
+        return result(exchange.placeOrder(order), request.correlationId(), start);
+    }
+
+    @Override
+    public MultiOrderResult placeMultiOrder(List<OrderRequest> orders) {
+        long start = System.nanoTime();
+        if (orders.size() > BrokerCapability.PAPER.maxOrdersPerBatch()) {
+            return new MultiOrderResult("error", List.of(), orders.size(), 0, orders.size(), 0);
+        }
+        List<OrderResult> results = new ArrayList<>(orders.size());
+        // BUY before SELL, as the broker does
+        for (OrderRequest order : orders) {
+            if ("BUY".equalsIgnoreCase(order.side())) {
+                results.add(placeOrder(order));
+            }
+        }
+        for (OrderRequest order : orders) {
+            if (!"BUY".equalsIgnoreCase(order.side())) {
+                results.add(placeOrder(order));
+            }
+        }
+        return multiResult(results, start);
+    }
+
+    @Override
+    public OrderResult modifyOrder(ModifyRequest request) {
+        long start = System.nanoTime();
+        PaperOrder current = exchange.order(request.orderId());
+        if (current == null) {
+            return OrderResult.error(request.correlationId(), "ORDER_NOT_FOUND", "Order not found");
+        }
+        com.vegatrader.execution.dto.OrderRequest order = com.vegatrader.execution.dto.OrderRequest.builder()
+                .instrumentKey(current.instrumentKey)
+                .quantity(request.quantity() != null ? request.quantity() : current.quantity)
+                .price(request.price() != null ? request.price().doubleValue() : current.price)
+                .triggerPrice(request.triggerPrice() != null ? request.triggerPrice().doubleValue()
+                        : current.triggerPrice)
+                .transactionType(current.side)
+                .productType(current.product)
+                .validity(current.validity)
+                .build();
+        return result(exchange.modifyOrder(request.orderId(), order), request.correlationId(), start);
+    }
+
+    @Override
+    public OrderResult cancelOrder(String orderId) {
+        long start = System.nanoTime();
+        return result(exchange.cancelOrder(orderId), null, start);
+    }
+
+    @Override
+    public MultiOrderResult cancelMultiOrder(List<String> orderIds) {
+        long start = System.nanoTime();
+        List<OrderResult> results = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            results.add(cancelOrder(orderId));
+        }
+        return multiResult(results, start);
+    }
+
+    @Override
+    public OrderStatus getOrderStatus(String orderId) {
+        PaperOrder order = exchange.order(orderId);
+        if (order == null) {
+            return new OrderStatus(orderId, "UNKNOWN", 0, 0, BigDecimal.ZERO, "Order not found");
+        }
+        return new OrderStatus(orderId, order.status.name(), order.filled, order.isOpen() ? order.remaining() : 0,
+                BigDecimal.valueOf(order.avgPrice), order.message);
+    }
+
+    @Override
+    public List<BrokerOrder> getOrderBook() {
+        List<BrokerOrder> book = new ArrayList<>();
+        for (PaperOrder order : exchange.orders()) {
+            book.add(new BrokerOrder(order.id, order.id, order.instrumentKey,
+                    order.side != null ? order.side.name() : null,
+                    order.type == OrderType.SLM ? "SL-M" : order.type.name(), order.quantity, order.filled,
+                    BigDecimal.valueOf(order.price), BigDecimal.valueOf(order.avgPrice), order.status.name(),
+                    order.message));
+        }
+        return book;
+    }
+
+    @Override
+    public List<BrokerTrade> getTradesForDay() {
+        List<BrokerTrade> trades = new ArrayList<>();
+        for (PaperExchange.Trade trade : exchange.getTrades()) {
+            trades.add(toBrokerTrade(trade));
+        }
+        return trades;
+    }
+
+    @Override
+    public List<BrokerTrade> getOrderTrades(String orderId) {
+        List<BrokerTrade> trades = new ArrayList<>();
+        for (PaperExchange.Trade trade : exchange.getTrades()) {
+            if (trade.orderId().equals(orderId)) {
+                trades.add(toBrokerTrade(trade));
+            }
+        }
+        return trades;
+    }
+
+    /**
+     * Squares off positions by segment; paper positions carry no tag, so
+     * {@code tag} is not used.
+     */
+    @Override
+    public MultiOrderResult exitAllPositions(String segment, String tag) {
+        long start = System.nanoTime();
+        List<OrderResult> results = new ArrayList<>();
+        for (OrderResponse response : exchange.exitAllPositions(segment)) {
+            results.add(result(response, null, start));
+        }
+        return multiResult(results, start);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus() {
+        return new RateLimitStatus(Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    }
+
+    // ----- mapping -----
+
+    private static OrderResult result(OrderResponse response, String correlationId, long startNanos) {
+        long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+        if (response.getStatus() == com.vegatrader.execution.dto.OrderStatus.REJECTED) {
+            return OrderResult.error(correlationId, "REJECTED", response.getMessage());
+        }
+        return OrderResult.success(response.getOrderId(), response.getOrderId(), correlationId, latencyMs);
+    }
+
+    private static MultiOrderResult multiResult(List<OrderResult> results, long startNanos) {
+        int success = 0;
+        for (OrderResult result : results) {
+            if (result.success()) {
+                success++;
+            }
+        }
+        int errors = results.size() - success;
+        String status = errors == 0 ? "success" : (success == 0 ? "error" : "partial_success");
+        return new MultiOrderResult(status, results, results.size(), success, errors,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static BrokerTrade toBrokerTrade(PaperExchange.Trade trade) {
+        return new BrokerTrade(trade.tradeId(), trade.orderId(), trade.orderId(), trade.instrumentKey(),
+                trade.side().name(), trade.quantity(), BigDecimal.valueOf(trade.price()),
+                Instant.ofEpochMilli(trade.timeMillis()).toString());
+    }
+
+    private static OrderType orderType(String type) {
+        if (type == null) {
+            return null;
+        }
+        return switch (type.toUpperCase(Locale.ROOT)) {
+            case "SL-M", "SLM" -> OrderType.SLM;
+            default -> OrderType.valueOf(type.toUpperCase(Locale.ROOT));
+        };
+    }
+
+    private static ProductType product(String code) {
+        if (code == null || "I".equalsIgnoreCase(code)) {
+            return ProductType.INTRA;
+        }
+        return "MTF".equalsIgnoreCase(code) ? ProductType.MARGIN : ProductType.CNC;
+    }
+
+    private static ValidityType validity(String validity) {
+        return validity != null ? ValidityType.valueOf(validity.toUpperCase(Locale.ROOT)) : ValidityType.DAY;
+    }
+}
@@ -0,0 +1,804 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.backtest.LatencyModel;
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.market.depth.model.DepthSide;
+import com.vegatrader.market.depth.model.L30OrderBook;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.api.response.websocket.OrderUpdate;
+import com.vegatrader.upstox.api.response.websocket.PositionUpdate;
+import com.vegatrader.upstox.api.websocket.PortfolioUpdate;
+import com.vegatrader.upstox.api.websocket.listener.OnOrderUpdateListener;
+import com.vegatrader.upstox.api.websocket.listener.OnPositionUpdateListener;
+import com.vegatrader.util.time.SystemTimeProvider;
+import com.vegatrader.util.time.TimeProvider;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process paper-trading exchange.
+ *
+ * <p>
+ * Keeps a price-time priority {@link PaperBook} per instrument, seeded from
+ * live or replayed depth ({@link #onRawDepth}, {@link #seed(L30OrderBook)})
+ * and marked by trade prints ({@link #onRawTick}). Supports market, limit,
+ * SL and SL-M orders with partial fills, modify and cancel; paper orders
+ * match each other as well as the displayed market.
+ *
+ * <p>
+ * All matching runs on one thread, so order handling needs no locks and
+ * scales to many thousands of orders per second. Callers get an
+ * acknowledgement at once; each action reaches the book after the
+ * configured {@link LatencyModel} delay. Order and position changes are
+ * published as {@link PortfolioUpdate}s, the shape
+ * {@code PortfolioDataStreamerV2} delivers for the real account, on the
+ * matching thread; listeners must be quick.
+ *
+ * <p>
+ * Memory stays bounded over a long session: at most
+ * {@code paper.max-pending} actions wait for the matching thread (beyond
+ * that, market data is dropped and order actions are rejected), only open
+ * orders are kept for good, and the most recent {@code paper.retained-orders}
+ * closed orders and {@code paper.retained-trades} trades are kept for
+ * queries. Every trade is streamed to {@link #addTradeListener trade
+ * listeners}, which need the full history.
+ *
+ * <p>
+ * Enabled with {@code paper.enabled=true}, which also replaces the Upstox
+ * gateway as the {@link ExecutionGateway} for strategies and commands.
+ *
+ * @since 5.0.0
+ */
+@Service
+@ConditionalOnProperty(name = "paper.enabled", havingValue = "true")
+public class PaperExchange implements ExecutionGateway, MarketFeedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaperExchange.class);
+
+    public static final int DEFAULT_MAX_PENDING = 100_000;
+    public static final int DEFAULT_RETAINED = 10_000;
+
+    private final LatencyModel latency;
+    private final SplittableRandom random;
+    private final TimeProvider clock;
+    private final ScheduledThreadPoolExecutor matcher;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+    private final int maxPending;
+    private final int retainedTrades;
+
+    /** Open orders */
+    private final Map<String, PaperOrder> orders = new ConcurrentHashMap<>();
+    /** Most recently closed orders, oldest first; guarded by itself */
+    private final Map<String, PaperOrder> closedOrders;
+    private final Map<String, PositionUpdate> positionSnapshots = new ConcurrentHashMap<>();
+    /** Most recent trades, oldest first; guarded by itself */
+    private final ArrayDeque<Trade> trades = new ArrayDeque<>();
+    private final List<OnOrderUpdateListener> orderListeners = new CopyOnWriteArrayList<>();
+    private final List<OnPositionUpdateListener> positionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Trade>> tradeListeners = new CopyOnWriteArrayList<>();
+
+    // Matching thread only
+    private final Map<String, PaperBook> books = new HashMap<>();
+    private final Map<String, List<PaperPosition>> positions = new HashMap<>();
+    private long nextTradeId = 1;
+
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder fills = new LongAdder();
+    private final LongAdder listenerErrors = new LongAdder();
+    private final LongAdder droppedMarketData = new LongAdder();
+
+    @Autowired
+    public PaperExchange(
+            @Value("${paper.latency-ms:0}") long latencyMillis,
+            @Value("${paper.latency-jitter-ms:0}") long jitterMillis,
+            @Value("${paper.max-pending:" + DEFAULT_MAX_PENDING + "}") int maxPending,
+            @Value("${paper.retained-orders:" + DEFAULT_RETAINED + "}") int retainedOrders,
+            @Value("${paper.retained-trades:" + DEFAULT_RETAINED + "}") int retainedTrades) {
+        this(jitterMillis > 0 ? LatencyModel.uniform(latencyMillis, latencyMillis + jitterMillis)
+                : LatencyModel.fixed(latencyMillis), new SystemTimeProvider(), System.nanoTime(),
+                maxPending, retainedOrders, retainedTrades);
+    }
+
+    /**
+     * @param latency delay from an order action to the book
+     * @param clock   source of order and fill timestamps
+     * @param seed    seed for random latency
+     */
+    public PaperExchange(LatencyModel latency, TimeProvider clock, long seed) {
+        this(latency, clock, seed, DEFAULT_MAX_PENDING, DEFAULT_RETAINED, DEFAULT_RETAINED);
+    }
+
+    /**
+     * @param latency        delay from an order action to the book
+     * @param clock          source of order and fill timestamps
+     * @param seed           seed for random latency
+     * @param maxPending     actions allowed to wait for the matching thread
+     * @param retainedOrders closed orders kept for queries
+     * @param retainedTrades trades kept for queries
+     */
+    public PaperExchange(LatencyModel latency, TimeProvider clock, long seed, int maxPending, int retainedOrders,
+            int retainedTrades) {
+        if (maxPending <= 0 || retainedOrders < 0 || retainedTrades < 0) {
+            throw new IllegalArgumentException("maxPending must be positive and retention non-negative");
+        }
+        this.maxPending = maxPending;
+        this.retainedTrades = retainedTrades;
+        this.closedOrders = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaperOrder> eldest) {
+                return size() > retainedOrders;
+            }
+        };
+        this.latency = latency;
+        this.clock = clock;
+        this.random = new SplittableRandom(seed);
+        this.matcher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "paper-matching");
+            t.setDaemon(true);
+            return t;
+        });
+        this.matcher.setRemoveOnCancelPolicy(true);
+    }
+
+    public void addOrderUpdateListener(OnOrderUpdateListener listener) {
+        orderListeners.add(listener);
+    }
+
+    public void addPositionUpdateListener(OnPositionUpdateListener listener) {
+        positionListeners.add(listener);
+    }
+
+    /**
+     * Receives every trade on the matching thread; the exchange itself only
+     * keeps the most recent ones.
+     */
+    public void addTradeListener(Consumer<Trade> listener) {
+        tradeListeners.add(listener);
+    }
+
+    // ----- ExecutionGateway -----
+
+    @Override
+    public OrderResponse placeOrder(OrderRequest request) {
+        placed.increment();
+        String error = validate(request);
+        PaperOrder order = new PaperOrder("PAPER-" + nextOrderId.getAndIncrement(),
+                request != null ? request : new OrderRequest(), typeOf(request), clock.millis());
+        if (error != null) {
+            rejected.increment();
+            order.close(OrderStatus.REJECTED, error, order.placedAt);
+            retire(order);
+            submit(0, () -> publishOrder(order));
+            return order.toResponse();
+        }
+        orders.put(order.id, order);
+        if (!submit(delay(request), () -> arrive(order))) {
+            rejected.increment();
+            order.close(OrderStatus.REJECTED, "Paper exchange overloaded", order.placedAt);
+            retire(order);
+        }
+        return order.toResponse();
+    }
+
+    @Override
+    public OrderResponse modifyOrder(String orderId, OrderRequest request) {
+        PaperOrder order = orders.get(orderId);
+        if (order == null) {
+            return rejection(orderId, "Order not found");
+        }
+        if (!order.isOpen()) {
+            return rejection(orderId, "Order is " + order.status);
+        }
+        if (request == null || request.getQuantity() <= 0) {
+            return rejection(orderId, "Quantity must be positive");
+        }
+        if (!submit(delay(request), () -> modify(order, request))) {
+            return rejection(orderId, "Paper exchange overloaded");
+        }
+        return order.toResponse();
+    }
+
+    @Override
+    public OrderResponse cancelOrder(String orderId) {
+        PaperOrder order = orders.get(orderId);
+        if (order == null) {
+            return rejection(orderId, "Order not found");
+        }
+        if (!order.isOpen()) {
+            return rejection(orderId, "Order is " + order.status);
+        }
+        if (!submit(delay(null), () -> cancel(order, "Cancelled by user"))) {
+            return rejection(orderId, "Paper exchange overloaded");
+        }
+        return order.toResponse();
+    }
+
+    /**
+     * @return {@link OrderStatus#UNKNOWN} for unknown orders and for closed
+     *         orders no longer retained
+     */
+    @Override
+    public OrderStatus getOrderStatus(String orderId) {
+        PaperOrder order = order(orderId);
+        return order != null ? order.status : OrderStatus.UNKNOWN;
+    }
+
+    @Override
+    public List<OrderResponse> getOpenOrders() {
+        List<OrderResponse> open = new ArrayList<>();
+        for (PaperOrder order : orders.values()) {
+            if (order.isOpen()) {
+                open.add(order.toResponse());
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public OrderRequest getOpenOrder(String orderId) {
+        PaperOrder order = orders.get(orderId);
+        return order != null && order.isOpen() ? order.toRequest() : null;
+    }
+
+    @Override
+    public String getProviderName() {
+        return "PAPER";
+    }
+
+    /**
+     * Current state of an order, or null if unknown.
+     */
+    public OrderResponse getOrder(String orderId) {
+        PaperOrder order = order(orderId);
+        return order != null ? order.toResponse() : null;
+    }
+
+    PaperOrder order(String orderId) {
+        PaperOrder order = orders.get(orderId);
+        if (order != null) {
+            return order;
+        }
+        synchronized (closedOrders) {
+            return closedOrders.get(orderId);
+        }
+    }
+
+    /**
+     * Retained closed orders, then open orders.
+     */
+    Iterable<PaperOrder> orders() {
+        List<PaperOrder> all;
+        synchronized (closedOrders) {
+            all = new ArrayList<>(closedOrders.values());
+        }
+        for (PaperOrder order : orders.values()) {
+            if (order.isOpen()) {
+                all.add(order);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Latest position per instrument and product.
+     */
+    public List<PositionUpdate> getPositions() {
+        return new ArrayList<>(positionSnapshots.values());
+    }
+
+    /**
+     * The most recent trades, oldest first. Use a
+     * {@link #addTradeListener trade listener} for the full history.
+     */
+    public List<Trade> getTrades() {
+        synchronized (trades) {
+            return new ArrayList<>(trades);
+        }
+    }
+
+    /**
+     * Closes every open position with a market order.
+     *
+     * @param segment only instruments of this segment (e.g. NSE_FO), or null
+     * @return responses of the exit orders
+     */
+    public List<OrderResponse> exitAllPositions(String segment) {
+        List<OrderResponse> responses = new ArrayList<>();
+        for (PositionUpdate position : getPositions()) {
+            int net = position.getNetQuantity() != null ? position.getNetQuantity() : 0;
+            if (net == 0 || (segment != null && !segment.equals(segmentOf(position.getInstrumentKey())))) {
+                continue;
+            }
+            responses.add(placeOrder(OrderRequest.builder()
+                    .instrumentKey(position.getInstrumentKey())
+                    .quantity(Math.abs(net))
+                    .orderType(OrderType.MARKET)
+                    .transactionType(net > 0 ? TransactionType.SELL : TransactionType.BUY)
+                    .productType(productOf(position.getProduct()))
+                    .validity(ValidityType.DAY)
+                    .tag("EXIT_ALL")
+                    .build()));
+        }
+        return responses;
+    }
+
+    // ----- market data -----
+
+    @Override
+    public void onTick(LiveMarketSnapshot tick) {
+        // Conflated copy of onRawTick
+    }
+
+    @Override
+    public void onDepth(OrderBookSnapshot depth) {
+        // Conflated copy of onRawDepth
+    }
+
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        if (tick != null && tick.getInstrumentKey() != null && tick.getLtp() > 0
+                && !submit(0, () -> trade(tick.getInstrumentKey(), tick.getLtp()))) {
+            droppedMarketData.increment();
+        }
+    }
+
+    @Override
+    public void onRawDepth(OrderBookSnapshot depth) {
+        if (depth != null && depth.getInstrumentKey() != null && !submit(0,
+                () -> book(depth.getInstrumentKey()).seed(depth.getBids(), depth.getAsks(), this::onFill))) {
+            droppedMarketData.increment();
+        }
+    }
+
+    /**
+     * Seeds a book from a 30-level snapshot, e.g. read back from a canonical
+     * journal.
+     */
+    public void seed(L30OrderBook snapshot) {
+        List<DepthLevel> bids = toLevels(snapshot.bids());
+        List<DepthLevel> asks = toLevels(snapshot.asks());
+        String key = snapshot.getInstrumentKey();
+        double ltp = snapshot.getLtp();
+        boolean queued = submit(0, () -> {
+            book(key).seed(bids, asks, this::onFill);
+            if (ltp > 0) {
+                trade(key, ltp);
+            }
+        });
+        if (!queued) {
+            droppedMarketData.increment();
+        }
+    }
+
+    private static List<DepthLevel> toLevels(DepthSide side) {
+        List<DepthLevel> out = new ArrayList<>(side.size());
+        for (int i = 0; i < side.size(); i++) {
+            out.add(new DepthLevel(side.priceAsDouble(i), side.qty(i), side.orders(i)));
+        }
+        return out;
+    }
+
+    // ----- matching thread -----
+
+    private void arrive(PaperOrder order) {
+        if (!order.isOpen()) {
+            return; // cancelled in flight
+        }
+        PaperBook book = book(order.instrumentKey);
+        if (order.status == OrderStatus.TRIGGER_PENDING && !PaperBook.isTriggered(order, book.lastPrice())) {
+            book.addStop(order);
+            publishOrder(order);
+            return;
+        }
+        execute(book, order);
+    }
+
+    private void execute(PaperBook book, PaperOrder order) {
+        if (order.status == OrderStatus.TRIGGER_PENDING) {
+            order.type = order.type == OrderType.SLM ? OrderType.MARKET : OrderType.LIMIT;
+            order.status = OrderStatus.OPEN;
+        }
+        boolean market = order.type == OrderType.MARKET;
+        if (market && !book.hasLiquidityFor(order)) {
+            if (!(book.lastPrice() > 0)) {
+                rejected.increment();
+                order.close(OrderStatus.REJECTED, "No market data for " + order.instrumentKey, clock.millis());
+            } else if (book.isSeeded()) {
+                order.close(OrderStatus.CANCELLED, "No liquidity", clock.millis());
+            } else {
+                onFill(order, order.remaining(), book.lastPrice(), false); // no depth feed: fill at LTP
+            }
+            publishOrder(order);
+            return;
+        }
+        book.match(order, this::onFill);
+        if (order.remaining() > 0) {
+            if (market || order.validity == ValidityType.IOC) {
+                order.close(OrderStatus.CANCELLED, "Unfilled remainder cancelled", clock.millis());
+            } else {
+                book.rest(order);
+            }
+        }
+        publishOrder(order);
+    }
+
+    private void modify(PaperOrder order, OrderRequest request) {
+        if (!order.isOpen()) {
+            return;
+        }
+        PaperBook book = book(order.instrumentKey);
+        int quantity = Math.max(request.getQuantity(), order.filled);
+        double price = request.getPrice() > 0 ? request.getPrice() : order.price;
+        if (order.status == OrderStatus.TRIGGER_PENDING) {
+            order.quantity = quantity;
+            order.price = price;
+            if (request.getTriggerPrice() > 0) {
+                order.triggerPrice = request.getTriggerPrice();
+            }
+            order.updatedAt = clock.millis();
+            if (PaperBook.isTriggered(order, book.lastPrice())) {
+                book.removeStop(order);
+                execute(book, order);
+            } else {
+                publishOrder(order);
+            }
+            return;
+        }
+        if (quantity == order.filled) {
+            book.remove(order);
+            order.quantity = quantity;
+            order.close(OrderStatus.COMPLETE, "Modified to filled quantity", clock.millis());
+            publishOrder(order);
+            return;
+        }
+        boolean repriced = order.type == OrderType.LIMIT && PaperBook.key(price) != PaperBook.key(order.price);
+        boolean increased = quantity > order.quantity;
+        order.quantity = quantity;
+        order.updatedAt = clock.millis();
+        if (repriced || increased) {
+            // Loses time priority, and may now cross
+            book.remove(order);
+            order.price = price;
+            execute(book, order);
+        } else {
+            publishOrder(order); // size reduction keeps the queue position
+        }
+    }
+
+    private void cancel(PaperOrder order, String reason) {
+        if (!order.isOpen()) {
+            return;
+        }
+        PaperBook book = book(order.instrumentKey);
+        if (!book.removeStop(order)) {
+            book.remove(order);
+        }
+        order.close(OrderStatus.CANCELLED, reason, clock.millis());
+        publishOrder(order);
+    }
+
+    private void trade(String instrumentKey, double price) {
+        PaperBook book = book(instrumentKey);
+        for (PaperOrder stop : book.onTrade(price, this::onFill)) {
+            if (stop.isOpen()) {
+                execute(book, stop);
+            }
+        }
+        List<PaperPosition> marked = positions.get(instrumentKey);
+        if (marked != null) {
+            long now = clock.millis();
+            for (PaperPosition position : marked) {
+                position.lastPrice = price;
+                positionSnapshots.put(positionKey(position.instrumentKey, position.product), position.toUpdate(now));
+            }
+        }
+    }
+
+    private void onFill(PaperOrder order, int quantity, double price, boolean maker) {
+        long now = clock.millis();
+        order.fill(quantity, price, now);
+        fills.increment();
+        Trade trade = new Trade("PT-" + nextTradeId++, order.id, order.instrumentKey, order.side, quantity, price,
+                now);
+        synchronized (trades) {
+            if (retainedTrades > 0) {
+                if (trades.size() == retainedTrades) {
+                    trades.removeFirst();
+                }
+                trades.addLast(trade);
+            }
+        }
+        for (Consumer<Trade> listener : tradeListeners) {
+            try {
+                listener.accept(trade);
+            } catch (RuntimeException e) {
+                listenerErrors.increment();
+                logger.warn("Paper trade listener failed: {}", e.getMessage());
+            }
+        }
+        if (maker) {
+            publishOrder(order); // the taker publishes once matching is done
+        }
+
+        PaperPosition position = position(order.instrumentKey, order.product);
+        position.onFill(order.isBuy(), quantity, price);
+        PositionUpdate update = position.toUpdate(now);
+        positionSnapshots.put(positionKey(order.instrumentKey, order.product), update);
+        PortfolioUpdate event = new PortfolioUpdate(update);
+        for (OnPositionUpdateListener listener : positionListeners) {
+            try {
+                listener.onUpdate(event);
+            } catch (RuntimeException e) {
+                listenerErrors.increment();
+                logger.warn("Paper position listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Called after every order change, so a closed order is retired here */
+    private void publishOrder(PaperOrder order) {
+        if (!order.isOpen()) {
+            retire(order);
+        }
+        if (orderListeners.isEmpty()) {
+            return;
+        }
+        PortfolioUpdate event = new PortfolioUpdate(toUpdate(order));
+        for (OnOrderUpdateListener listener : orderListeners) {
+            try {
+                listener.onUpdate(event);
+            } catch (RuntimeException e) {
+                listenerErrors.increment();
+                logger.warn("Paper order listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Moves a closed order to the bounded retention */
+    private void retire(PaperOrder order) {
+        synchronized (closedOrders) {
+            closedOrders.put(order.id, order);
+        }
+        orders.remove(order.id);
+    }
+
+    private PaperBook book(String instrumentKey) {
+        return books.computeIfAbsent(instrumentKey, PaperBook::new);
+    }
+
+    private PaperPosition position(String instrumentKey, ProductType product) {
+        List<PaperPosition> list = positions.computeIfAbsent(instrumentKey, k -> new ArrayList<>(1));
+        for (PaperPosition position : list) {
+            if (position.product == product) {
+                return position;
+            }
+        }
+        PaperPosition position = new PaperPosition(instrumentKey, product);
+        list.add(position);
+        return position;
+    }
+
+    // ----- plumbing -----
+
+    private long delay(OrderRequest request) {
+        synchronized (random) {
+            return Math.max(0, latency.latencyMillis(request, random));
+        }
+    }
+
+    /**
+     * @return false if {@code maxPending} actions are already waiting or the
+     *         exchange is shut down
+     */
+    private boolean submit(long delayMillis, Runnable action) {
+        if (inFlight.incrementAndGet() > maxPending) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        Runnable task = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("Paper matching error", e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+        try {
+            if (delayMillis > 0) {
+                matcher.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                matcher.execute(task);
+            }
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Waits until every action submitted so far, including delayed ones,
+     * has been applied. Intended for tests and load drivers.
+     *
+     * @return false on timeout
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Drops all books, orders, positions and trades, e.g. between load-test
+     * runs. Market data arriving later re-seeds the books.
+     */
+    public void reset() {
+        submit(0, () -> {
+            books.clear();
+            positions.clear();
+            orders.clear();
+            synchronized (closedOrders) {
+                closedOrders.clear();
+            }
+            positionSnapshots.clear();
+            synchronized (trades) {
+                trades.clear();
+            }
+        });
+    }
+
+    private OrderResponse rejection(String orderId, String message) {
+        return OrderResponse.builder().orderId(orderId).status(OrderStatus.REJECTED).message(message).build();
+    }
+
+    private static String validate(OrderRequest request) {
+        if (request == null || request.getInstrumentKey() == null || request.getTransactionType() == null) {
+            return "Order needs instrumentKey and transactionType";
+        }
+        if (request.getQuantity() <= 0) {
+            return "Quantity must be positive";
+        }
+        OrderType type = typeOf(request);
+        if ((type == OrderType.LIMIT || type == OrderType.SL) && !(request.getPrice() > 0)) {
+            return type + " orders need a positive price";
+        }
+        if ((type == OrderType.SL || type == OrderType.SLM) && !(request.getTriggerPrice() > 0)) {
+            return type + " orders need a positive trigger price";
+        }
+        return null;
+    }
+
+    private static OrderType typeOf(OrderRequest request) {
+        if (request == null) {
+            return OrderType.MARKET;
+        }
+        if (request.getOrderType() != null) {
+            return request.getOrderType();
+        }
+        return request.getPrice() > 0 ? OrderType.LIMIT : OrderType.MARKET;
+    }
+
+    static String segmentOf(String instrumentKey) {
+        int bar = instrumentKey != null ? instrumentKey.indexOf('|') : -1;
+        return bar > 0 ? instrumentKey.substring(0, bar) : instrumentKey;
+    }
+
+    /** Upstox product code */
+    static String productCode(ProductType product) {
+        return product == ProductType.INTRA ? "I" : "D";
+    }
+
+    private static ProductType productOf(String code) {
+        return "I".equals(code) ? ProductType.INTRA : ProductType.MARGIN;
+    }
+
+    private static String positionKey(String instrumentKey, ProductType product) {
+        return instrumentKey + ":" + product;
+    }
+
+    private OrderUpdate toUpdate(PaperOrder order) {
+        OrderUpdate update = new OrderUpdate();
+        update.setOrderId(order.id);
+        update.setExchangeOrderId(order.id);
+        update.setInstrumentKey(order.instrumentKey);
+        update.setExchange(segmentOf(order.instrumentKey));
+        update.setStatus(statusText(order.status));
+        update.setOrderType(order.type == OrderType.SLM ? "SL-M" : order.type.name());
+        update.setTransactionType(order.side != null ? order.side.name() : null);
+        update.setProduct(productCode(order.product));
+        update.setValidity(order.validity.name());
+        update.setQuantity(order.quantity);
+        update.setFilledQuantity(order.filled);
+        update.setPendingQuantity(order.isOpen() ? order.remaining() : 0);
+        update.setPrice(order.price);
+        update.setTriggerPrice(order.triggerPrice);
+        update.setAveragePrice(order.avgPrice);
+        update.setDisclosedQuantity(0);
+        update.setTimestamp(order.updatedAt);
+        if (order.status == OrderStatus.REJECTED) {
+            update.setRejectionReason(order.message);
+        }
+        return update;
+    }
+
+    /** Status text as the portfolio stream reports it */
+    private static String statusText(OrderStatus status) {
+        return switch (status) {
+            case OPEN, PARTIALLY_FILLED -> "open";
+            case TRIGGER_PENDING -> "trigger pending";
+            case COMPLETE -> "complete";
+            case CANCELLED -> "cancelled";
+            case REJECTED -> "rejected";
+            case VALIDATION_PENDING -> "validation pending";
+            case UNKNOWN -> "unknown";
+        };
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(placed.sum(), rejected.sum(), fills.sum(), orders.size(), inFlight.get(),
+                listenerErrors.sum(), droppedMarketData.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdownNow();
+    }
+
+    /**
+     * One execution on the paper exchange.
+     */
+    public record Trade(String tradeId, String orderId, String instrumentKey, TransactionType side, int quantity,
+            double price, long timeMillis) {
+    }
+
+    /**
+     * @param orders            orders placed, rejected ones included
+     * @param fills             executions, each side of a paper-vs-paper match counted
+     * @param openOrders        orders resting or awaiting their trigger
+     * @param pendingActions    actions not yet applied to the books
+     * @param droppedMarketData ticks and depth updates dropped at
+     *                          {@code paper.max-pending}
+     */
+    public record Statistics(long orders, long rejected, long fills, int openOrders, long pendingActions,
+            long listenerErrors, long droppedMarketData) {
+    }
+}
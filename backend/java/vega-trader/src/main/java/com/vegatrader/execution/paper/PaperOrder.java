@@ -0,0 +1,105 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+
+/**
+ * A paper order. Mutated only on the matching thread; the volatile fields
+ * are read by callers polling status.
+ */
+final class PaperOrder {
+
+    final String id;
+    final String instrumentKey;
+    final TransactionType side;
+    final ProductType product;
+    final ValidityType validity;
+    final String tag;
+    final long placedAt;
+
+    OrderType type;
+    int quantity;
+    double price;
+    double triggerPrice;
+    /** Price in book units, valid while resting */
+    long priceKey;
+
+    volatile OrderStatus status;
+    volatile int filled;
+    volatile double avgPrice;
+    volatile String message;
+    volatile long updatedAt;
+
+    PaperOrder(String id, OrderRequest request, OrderType type, long now) {
+        this.id = id;
+        this.instrumentKey = request.getInstrumentKey();
+        this.side = request.getTransactionType();
+        this.product = request.getProductType() != null ? request.getProductType() : ProductType.INTRA;
+        this.validity = request.getValidity() != null ? request.getValidity() : ValidityType.DAY;
+        this.tag = request.getTag();
+        this.type = type;
+        this.quantity = request.getQuantity();
+        this.price = request.getPrice();
+        this.triggerPrice = request.getTriggerPrice();
+        this.placedAt = now;
+        this.updatedAt = now;
+        this.status = type == OrderType.SL || type == OrderType.SLM ? OrderStatus.TRIGGER_PENDING
+                : OrderStatus.OPEN;
+    }
+
+    boolean isBuy() {
+        return side == TransactionType.BUY;
+    }
+
+    int remaining() {
+        return quantity - filled;
+    }
+
+    boolean isOpen() {
+        return status == OrderStatus.OPEN || status == OrderStatus.PARTIALLY_FILLED
+                || status == OrderStatus.TRIGGER_PENDING;
+    }
+
+    void fill(int qty, double fillPrice, long now) {
+        avgPrice = (avgPrice * filled + fillPrice * qty) / (filled + qty);
+        filled += qty;
+        status = remaining() == 0 ? OrderStatus.COMPLETE : OrderStatus.PARTIALLY_FILLED;
+        updatedAt = now;
+    }
+
+    void close(OrderStatus terminal, String reason, long now) {
+        status = terminal;
+        message = reason;
+        updatedAt = now;
+    }
+
+    OrderRequest toRequest() {
+        return OrderRequest.builder()
+                .instrumentKey(instrumentKey)
+                .transactionType(side)
+                .orderType(type)
+                .productType(product)
+                .validity(validity)
+                .quantity(quantity)
+                .price(price)
+                .triggerPrice(triggerPrice)
+                .tag(tag)
+                .build();
+    }
+
+    OrderResponse toResponse() {
+        return OrderResponse.builder()
+                .orderId(id)
+                .instrumentKey(instrumentKey)
+                .status(status)
+                .message(message)
+                .filledQuantity(filled)
+                .avgPrice(avgPrice)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.upstox.api.response.websocket.PositionUpdate;
+
+/**
+ * Day position of one instrument and product on the paper exchange, with
+ * broker-style buy/sell averages. Matching thread only.
+ */
+final class PaperPosition {
+
+    final String instrumentKey;
+    final ProductType product;
+    long buyQuantity;
+    long sellQuantity;
+    double buyValue;
+    double sellValue;
+    double lastPrice = Double.NaN;
+
+    PaperPosition(String instrumentKey, ProductType product) {
+        this.instrumentKey = instrumentKey;
+        this.product = product;
+    }
+
+    void onFill(boolean buy, int quantity, double price) {
+        if (buy) {
+            buyQuantity += quantity;
+            buyValue += quantity * price;
+        } else {
+            sellQuantity += quantity;
+            sellValue += quantity * price;
+        }
+        lastPrice = price;
+    }
+
+    long net() {
+        return buyQuantity - sellQuantity;
+    }
+
+    double buyAverage() {
+        return buyQuantity == 0 ? 0 : buyValue / buyQuantity;
+    }
+
+    double sellAverage() {
+        return sellQuantity == 0 ? 0 : sellValue / sellQuantity;
+    }
+
+    /** PnL of the quantity bought and sold back */
+    double realized() {
+        return Math.min(buyQuantity, sellQuantity) * (sellAverage() - buyAverage());
+    }
+
+    /** PnL of the open quantity at the last price */
+    double unrealized() {
+        long net = net();
+        if (net == 0 || Double.isNaN(lastPrice)) {
+            return 0;
+        }
+        return net > 0 ? net * (lastPrice - buyAverage()) : -net * (sellAverage() - lastPrice);
+    }
+
+    PositionUpdate toUpdate(long now) {
+        PositionUpdate update = new PositionUpdate();
+        update.setInstrumentKey(instrumentKey);
+        update.setExchange(PaperExchange.segmentOf(instrumentKey));
+        update.setProduct(PaperExchange.productCode(product));
+        update.setBuyQuantity((int) buyQuantity);
+        update.setSellQuantity((int) sellQuantity);
+        update.setNetQuantity((int) net());
+        update.setDayBuyQuantity((int) buyQuantity);
+        update.setDaySellQuantity((int) sellQuantity);
+        update.setBuyAverage(buyAverage());
+        update.setSellAverage(sellAverage());
+        update.setRealizedPnl(realized());
+        update.setUnrealizedPnl(unrealized());
+        update.setLastPrice(Double.isNaN(lastPrice) ? 0 : lastPrice);
+        update.setTimestamp(now);
+        return update;
+    }
+}
@@ -0,0 +1,44 @@
+package com.vegatrader.indicator;
+
+/**
+ * Average true range with Wilder's smoothing, seeded with the simple
+ * average of the first {@code period} true ranges.
+ *
+ * @since 5.0.0
+ */
+public final class Atr implements Indicator {
+
+    private final int period;
+    private int count;
+    private double prevClose = Double.NaN;
+    private double atr;
+
+    public Atr(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        double tr = high - low;
+        if (!Double.isNaN(prevClose)) {
+            tr = Math.max(tr, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+        }
+        prevClose = close;
+        if (count < period) {
+            count++;
+            atr += (tr - atr) / count;
+        } else {
+            atr = (atr * (period - 1) + tr) / period;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count == period;
+    }
+
+    @Override
+    public double value() {
+        return count == period ? atr : Double.NaN;
+    }
+}
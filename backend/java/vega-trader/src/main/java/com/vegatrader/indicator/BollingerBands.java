@@ -0,0 +1,46 @@
+package com.vegatrader.indicator;
+
+/**
+ * Bollinger bands: the simple average of closes (middle) plus and minus
+ * {@code multiplier} population standard deviations.
+ *
+ * @since 5.0.0
+ */
+public final class BollingerBands implements Indicator {
+
+    private final RollingWindow window;
+    private final double multiplier;
+
+    public BollingerBands(int period, double multiplier) {
+        this.window = new RollingWindow(period);
+        this.multiplier = multiplier;
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        window.add(close);
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    /** Middle band */
+    @Override
+    public double value() {
+        return window.isFull() ? window.mean() : Double.NaN;
+    }
+
+    @Override
+    public double value(IndicatorSpec.Band band) {
+        if (!window.isFull()) {
+            return Double.NaN;
+        }
+        return switch (band) {
+            case VALUE -> window.mean();
+            case UPPER -> window.mean() + multiplier * window.stdDev();
+            case LOWER -> window.mean() - multiplier * window.stdDev();
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.vegatrader.indicator;
+
+/**
+ * Exponential moving average of closes, {@code alpha = 2 / (period + 1)},
+ * seeded with the simple average of the first {@code period} closes.
+ *
+ * @since 5.0.0
+ */
+public final class Ema implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double ema;
+
+    public Ema(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        if (count < period) {
+            count++;
+            ema += (close - ema) / count;
+        } else {
+            ema += alpha * (close - ema);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count == period;
+    }
+
+    @Override
+    public double value() {
+        return count == period ? ema : Double.NaN;
+    }
+}
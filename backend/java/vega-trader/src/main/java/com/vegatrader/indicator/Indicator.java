@@ -0,0 +1,44 @@
+package com.vegatrader.indicator;
+
+/**
+ * Streaming technical indicator.
+ *
+ * <p>
+ * Implementations hold primitive state only and update in O(1) per bar, so
+ * they never rescan history. Not thread-safe; the {@link IndicatorEngine}
+ * serialises updates per instrument.
+ *
+ * @since 5.0.0
+ */
+public interface Indicator {
+
+    /**
+     * Feeds one closed bar (or, in tick mode, one trade as a flat bar).
+     *
+     * @param time   bar start, epoch millis
+     * @param volume volume traded in the bar
+     */
+    void update(long time, double open, double high, double low, double close, long volume);
+
+    /**
+     * @return whether enough bars have been seen for {@link #value()} to be
+     *         meaningful
+     */
+    boolean isReady();
+
+    /**
+     * @return current value, {@code NaN} until ready
+     */
+    double value();
+
+    /**
+     * @return value of a band; only {@link IndicatorSpec.Band#VALUE} unless
+     *         the indicator has bands
+     */
+    default double value(IndicatorSpec.Band band) {
+        if (band != IndicatorSpec.Band.VALUE) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " has no " + band + " band");
+        }
+        return value();
+    }
+}
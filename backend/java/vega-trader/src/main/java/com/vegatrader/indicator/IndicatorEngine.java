@@ -0,0 +1,351 @@
+package com.vegatrader.indicator;
+
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.bar.BarListener;
+import com.vegatrader.market.bar.BarSeries;
+import com.vegatrader.market.bar.Timeframe;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared incremental indicators over the live bars of the {@link BarEngine}.
+ *
+ * <p>
+ * Strategies and alerts subscribe by {@link IndicatorSpec}; subscribers of
+ * the same instrument and spec share one {@link Indicator}, so each is
+ * updated once per bar close however many consumers it has. A new
+ * indicator is warmed up from the bars already held (live or backfilled)
+ * and then follows bar closes; tick-mode specs follow every trade.
+ *
+ * <p>
+ * Indicators of one instrument and timeframe are guarded by one monitor,
+ * taken on the feed thread for each bar close. Late-tick corrections of
+ * bars an indicator has already consumed are not replayed into it.
+ *
+ * @since 5.0.0
+ */
+@Service
+public class IndicatorEngine implements BarListener, MarketFeedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicatorEngine.class);
+
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final BarEngine barEngine;
+    /** Keyed by instrument and timeframe code ("tick" in tick mode) */
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder listenerErrors = new LongAdder();
+
+    public IndicatorEngine(BarEngine barEngine) {
+        this.barEngine = barEngine;
+        barEngine.addListener(this);
+    }
+
+    /**
+     * Subscribes to an indicator of an instrument. The listener first hears
+     * from it on the next bar close at which the indicator is ready.
+     *
+     * @return handle to cancel the subscription with
+     */
+    public Subscription subscribe(String instrumentKey, IndicatorSpec spec, IndicatorListener listener) {
+        if (instrumentKey == null || spec == null || listener == null) {
+            throw new IllegalArgumentException("instrumentKey, spec and listener are required");
+        }
+        IndicatorSpec shared = spec.withoutBand();
+        while (true) {
+            Group group = groups.computeIfAbsent(groupKey(instrumentKey, spec.timeframe()),
+                    k -> new Group(instrumentKey, spec.timeframe()));
+            synchronized (group) {
+                if (group.retired) {
+                    continue; // emptied and dropped meanwhile
+                }
+                return subscribe(group, shared, spec, listener);
+            }
+        }
+    }
+
+    private Subscription subscribe(Group group, IndicatorSpec shared, IndicatorSpec spec,
+            IndicatorListener listener) {
+        Node node = group.find(shared);
+        if (node == null) {
+            node = new Node(shared);
+            warmUp(group, node);
+            group.nodes = append(group.nodes, node);
+        }
+        Subscription subscription = new Subscription(group, node, spec, listener);
+        node.subscriptions = append(node.subscriptions, subscription);
+        return subscription;
+    }
+
+    /**
+     * Current value of a subscribed indicator.
+     *
+     * @return the value, or {@code NaN} if nobody subscribes to it or it is
+     *         not ready
+     */
+    public double getValue(String instrumentKey, IndicatorSpec spec) {
+        Group group = groups.get(groupKey(instrumentKey, spec.timeframe()));
+        if (group == null) {
+            return Double.NaN;
+        }
+        synchronized (group) {
+            Node node = group.find(spec.withoutBand());
+            return node != null ? node.indicator.value(spec.band()) : Double.NaN;
+        }
+    }
+
+    public Stats getStats() {
+        int indicators = 0;
+        int subscriptions = 0;
+        for (Group group : groups.values()) {
+            for (Node node : group.nodes) {
+                indicators++;
+                subscriptions += node.subscriptions.length;
+            }
+        }
+        return new Stats(indicators, subscriptions, updates.sum(), notifications.sum(), listenerErrors.sum());
+    }
+
+    // ----- bars -----
+
+    @Override
+    public void onBarClose(BarSeries series, int index) {
+        Group group = groups.get(groupKey(series.getInstrumentKey(), series.getTimeframe()));
+        if (group == null) {
+            return;
+        }
+        long time = series.time(index);
+        synchronized (group) {
+            for (Node node : group.nodes) {
+                if (time > node.lastTime) {
+                    node.lastTime = time;
+                    node.indicator.update(time, series.open(index), series.high(index), series.low(index),
+                            series.close(index), series.volume(index));
+                    updates.increment();
+                    notify(group, node, time);
+                }
+            }
+        }
+    }
+
+    // ----- tick mode -----
+
+    @Override
+    public void onTick(LiveMarketSnapshot tick) {
+        // tick-mode indicators need every trade; see onRawTick
+    }
+
+    @Override
+    public void onDepth(OrderBookSnapshot depth) {
+    }
+
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        if (tick == null || tick.isStale() || tick.getLtp() <= 0) {
+            return;
+        }
+        Group group = groups.get(groupKey(tick.getInstrumentKey(), null));
+        if (group == null) {
+            return;
+        }
+        long ts = tick.getExchangeTimestamp();
+        double ltp = tick.getLtp();
+        synchronized (group) {
+            if (ts < group.lastTime) {
+                return;
+            }
+            long cumulative = tick.getVolume();
+            long volume = group.dayVolume < 0 ? 0
+                    : cumulative >= group.dayVolume ? cumulative - group.dayVolume : cumulative;
+            group.dayVolume = cumulative;
+            group.lastTime = ts;
+            for (Node node : group.nodes) {
+                node.indicator.update(ts, ltp, ltp, ltp, ltp, volume);
+                updates.increment();
+                notify(group, node, ts);
+            }
+        }
+    }
+
+    // ----- internals -----
+
+    private void warmUp(Group group, Node node) {
+        if (group.timeframe == null) {
+            return;
+        }
+        BarSeries series = barEngine.subscribe(group.instrumentKey, group.timeframe);
+        while (true) {
+            long stamp = series.beginRead();
+            Indicator indicator = node.spec.create();
+            long last = Long.MIN_VALUE;
+            int closed = series.size() - 1; // the latest bar is still forming
+            for (int i = 0; i < closed; i++) {
+                last = series.time(i);
+                indicator.update(last, series.open(i), series.high(i), series.low(i), series.close(i),
+                        series.volume(i));
+            }
+            if (series.validate(stamp)) {
+                node.indicator = indicator;
+                node.lastTime = last;
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void notify(Group group, Node node, long time) {
+        if (!node.indicator.isReady()) {
+            return;
+        }
+        for (Subscription subscription : node.subscriptions) {
+            try {
+                subscription.listener.onUpdate(group.instrumentKey, subscription.spec, time,
+                        node.indicator.value(subscription.spec.band()));
+                notifications.increment();
+            } catch (RuntimeException e) {
+                listenerErrors.increment();
+                logger.warn("Indicator listener failed for {} {}: {}", group.instrumentKey, subscription.spec,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void cancel(Subscription subscription) {
+        Group group = subscription.group;
+        synchronized (group) {
+            Node node = subscription.node;
+            node.subscriptions = remove(node.subscriptions, subscription);
+            if (node.subscriptions.length == 0) {
+                group.nodes = remove(group.nodes, node);
+                if (group.nodes.length == 0) {
+                    group.retired = true;
+                    groups.remove(groupKey(group.instrumentKey, group.timeframe), group);
+                }
+            }
+        }
+    }
+
+    private static String groupKey(String instrumentKey, Timeframe timeframe) {
+        return instrumentKey + '|' + (timeframe != null ? timeframe.getCode() : "tick");
+    }
+
+    private static <T> T[] append(T[] array, T item) {
+        T[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = item;
+        return copy;
+    }
+
+    private static <T> T[] remove(T[] array, T item) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == item) {
+                T[] copy = Arrays.copyOf(array, array.length - 1);
+                System.arraycopy(array, i + 1, copy, i, array.length - i - 1);
+                return copy;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Indicators of one instrument and timeframe; guarded by its monitor.
+     */
+    private static final class Group {
+        final String instrumentKey;
+        final Timeframe timeframe;
+        volatile Node[] nodes = NO_NODES;
+        /** Dropped from the engine; subscribe to a new group instead */
+        boolean retired;
+        // tick mode
+        long lastTime = Long.MIN_VALUE;
+        long dayVolume = -1;
+
+        Group(String instrumentKey, Timeframe timeframe) {
+            this.instrumentKey = instrumentKey;
+            this.timeframe = timeframe;
+        }
+
+        Node find(IndicatorSpec spec) {
+            for (Node node : nodes) {
+                if (node.spec.equals(spec)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** One shared indicator and its subscribers */
+    private static final class Node {
+        final IndicatorSpec spec;
+        Indicator indicator;
+        /** Start of the last bar fed in */
+        long lastTime = Long.MIN_VALUE;
+        volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+        Node(IndicatorSpec spec) {
+            this.spec = spec;
+            this.indicator = spec.create();
+        }
+    }
+
+    /**
+     * A listener's interest in one indicator; closing it stops updates and
+     * frees the indicator once nobody else uses it.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Group group;
+        private final Node node;
+        private final IndicatorSpec spec;
+        private final IndicatorListener listener;
+        private volatile boolean closed;
+
+        private Subscription(Group group, Node node, IndicatorSpec spec, IndicatorListener listener) {
+            this.group = group;
+            this.node = node;
+            this.spec = spec;
+            this.listener = listener;
+        }
+
+        public String getInstrumentKey() {
+            return group.instrumentKey;
+        }
+
+        public IndicatorSpec getSpec() {
+            return spec;
+        }
+
+        /**
+         * @return current value, {@code NaN} until ready
+         */
+        public double value() {
+            synchronized (group) {
+                return node.indicator.value(spec.band());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                cancel(this);
+            }
+        }
+    }
+
+    public record Stats(int indicators, int subscriptions, long updates, long notifications,
+            long listenerErrors) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.vegatrader.indicator;
+
+/**
+ * Receives indicator values from the {@link IndicatorEngine}.
+ *
+ * <p>
+ * Called on the feed thread after each bar of the indicator's timeframe
+ * closes (each trade in tick mode), once the indicator is ready. Keep it
+ * cheap: it delays the feed.
+ *
+ * @since 5.0.0
+ */
+@FunctionalInterface
+public interface IndicatorListener {
+
+    /**
+     * @param spec    descriptor the listener subscribed with
+     * @param barTime start of the bar the value includes (trade time in
+     *                tick mode)
+     * @param value   indicator value, or the subscribed band
+     */
+    void onUpdate(String instrumentKey, IndicatorSpec spec, long barTime, double value);
+}
@@ -0,0 +1,155 @@
+package com.vegatrader.indicator;
+
+import com.vegatrader.market.bar.Timeframe;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Indicator descriptor: what to compute, over which bars.
+ *
+ * <p>
+ * Written as {@code KIND(args,timeframe)[.band]}, e.g. {@code EMA(20,1m)},
+ * {@code RSI(14,5m)}, {@code VWAP(1m)}, {@code BB(20,2,15m).upper} or
+ * {@code ZSCORE(50,tick)}. A {@code null} timeframe ({@code tick}) updates
+ * on every trade instead of on bar close. Specs that differ only in band
+ * share one computation.
+ *
+ * @param kind       indicator
+ * @param period     bars in the window; 0 for VWAP
+ * @param multiplier band width in standard deviations, BB only
+ * @param timeframe  bars to compute over, {@code null} for tick mode
+ * @param band       output to read
+ * @since 5.0.0
+ */
+public record IndicatorSpec(Kind kind, int period, double multiplier, Timeframe timeframe, Band band) {
+
+    private static final Pattern SYNTAX = Pattern
+            .compile("\\s*([A-Za-z_]+)\\s*\\(([^)]*)\\)\\s*(?:\\.\\s*([A-Za-z]+))?\\s*");
+
+    private static final String TICK = "tick";
+
+    public enum Kind {
+        SMA, EMA, RSI, VWAP, ATR, BB, ZSCORE
+    }
+
+    public enum Band {
+        VALUE, UPPER, LOWER
+    }
+
+    public IndicatorSpec {
+        if (kind == null) {
+            throw new IllegalArgumentException("Indicator kind must not be null");
+        }
+        if (band == null) {
+            band = Band.VALUE;
+        }
+        if (kind == Kind.VWAP) {
+            period = 0;
+        } else if (period < 1) {
+            throw new IllegalArgumentException(kind + " period must be positive");
+        }
+        if (kind == Kind.BB) {
+            if (!(multiplier > 0)) {
+                throw new IllegalArgumentException("BB multiplier must be positive");
+            }
+        } else {
+            multiplier = 0;
+            if (band != Band.VALUE) {
+                throw new IllegalArgumentException(kind + " has no " + band + " band");
+            }
+        }
+    }
+
+    public static IndicatorSpec of(Kind kind, int period, Timeframe timeframe) {
+        return new IndicatorSpec(kind, period, kind == Kind.BB ? 2 : 0, timeframe, Band.VALUE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code text} is not a valid spec
+     */
+    public static IndicatorSpec parse(String text) {
+        Matcher m = text != null ? SYNTAX.matcher(text) : null;
+        if (m == null || !m.matches()) {
+            throw new IllegalArgumentException("Invalid indicator spec: " + text);
+        }
+        String name = m.group(1).toUpperCase(Locale.ROOT);
+        Kind kind;
+        try {
+            kind = "BOLLINGER".equals(name) ? Kind.BB : Kind.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown indicator: " + m.group(1));
+        }
+        String[] args = m.group(2).split(",");
+        String last = args[args.length - 1].trim();
+        Timeframe timeframe = TICK.equalsIgnoreCase(last) ? null : Timeframe.fromCode(last);
+        int numbers = args.length - 1;
+        int expected = switch (kind) {
+            case VWAP -> 0;
+            case BB -> numbers == 2 ? 2 : 1;
+            default -> 1;
+        };
+        if (numbers != expected) {
+            throw new IllegalArgumentException("Invalid indicator spec: " + text);
+        }
+        try {
+            int period = numbers > 0 ? Integer.parseInt(args[0].trim()) : 0;
+            double multiplier = kind == Kind.BB ? (numbers == 2 ? Double.parseDouble(args[1].trim()) : 2) : 0;
+            Band band = m.group(3) != null ? Band.valueOf(m.group(3).toUpperCase(Locale.ROOT)) : Band.VALUE;
+            return new IndicatorSpec(kind, period, multiplier, timeframe, band);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid indicator spec: " + text);
+        }
+    }
+
+    public boolean isTick() {
+        return timeframe == null;
+    }
+
+    /**
+     * @return the spec of the shared computation
+     */
+    public IndicatorSpec withoutBand() {
+        return band == Band.VALUE ? this : new IndicatorSpec(kind, period, multiplier, timeframe, Band.VALUE);
+    }
+
+    /**
+     * @return fresh indicator state for this spec
+     */
+    public Indicator create() {
+        return switch (kind) {
+            case SMA -> new Sma(period);
+            case EMA -> new Ema(period);
+            case RSI -> new Rsi(period);
+            case VWAP -> new Vwap();
+            case ATR -> new Atr(period);
+            case BB -> new BollingerBands(period, multiplier);
+            case ZSCORE -> new ZScore(period);
+        };
+    }
+
+    /**
+     * @return canonical form, parseable by {@link #parse(String)}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(kind.name()).append('(');
+        if (kind != Kind.VWAP) {
+            sb.append(period).append(',');
+        }
+        if (kind == Kind.BB) {
+            if (multiplier == Math.rint(multiplier)) {
+                sb.append((long) multiplier);
+            } else {
+                sb.append(multiplier);
+            }
+            sb.append(',');
+        }
+        sb.append(timeframe != null ? timeframe.getCode() : TICK).append(')');
+        if (band != Band.VALUE) {
+            sb.append('.').append(band.name().toLowerCase(Locale.ROOT));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.vegatrader.indicator;
+
+/**
+ * Fixed-length window of values with O(1) mean and variance, using the
+ * sliding-window form of Welford's update rather than running sums, which
+ * lose precision on large prices.
+ */
+final class RollingWindow {
+
+    private final double[] values;
+    private int count;
+    private int next;
+    private double mean;
+    private double m2;
+
+    RollingWindow(int length) {
+        this.values = new double[length];
+    }
+
+    void add(double x) {
+        int n = values.length;
+        if (count < n) {
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        } else {
+            double y = values[next];
+            double oldMean = mean;
+            mean += (x - y) / n;
+            m2 += (x - y) * (x - mean + y - oldMean);
+        }
+        values[next] = x;
+        next = next + 1 == n ? 0 : next + 1;
+    }
+
+    boolean isFull() {
+        return count == values.length;
+    }
+
+    double mean() {
+        return mean;
+    }
+
+    /** Population standard deviation */
+    double stdDev() {
+        return count == 0 ? 0 : Math.sqrt(Math.max(m2, 0) / count);
+    }
+}
@@ -0,0 +1,57 @@
+package com.vegatrader.indicator;
+
+/**
+ * Relative strength index with Wilder's smoothing: the first average gain
+ * and loss are simple averages over {@code period} changes, later ones are
+ * {@code (prev * (period - 1) + current) / period}.
+ *
+ * @since 5.0.0
+ */
+public final class Rsi implements Indicator {
+
+    private final int period;
+    private int changes;
+    private double prevClose = Double.NaN;
+    private double avgGain;
+    private double avgLoss;
+
+    public Rsi(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        if (Double.isNaN(prevClose)) {
+            prevClose = close;
+            return;
+        }
+        double change = close - prevClose;
+        prevClose = close;
+        double gain = change > 0 ? change : 0;
+        double loss = change < 0 ? -change : 0;
+        if (changes < period) {
+            changes++;
+            avgGain += (gain - avgGain) / changes;
+            avgLoss += (loss - avgLoss) / changes;
+        } else {
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return changes == period;
+    }
+
+    @Override
+    public double value() {
+        if (changes < period) {
+            return Double.NaN;
+        }
+        if (avgLoss == 0) {
+            return avgGain == 0 ? 50 : 100;
+        }
+        return 100 - 100 / (1 + avgGain / avgLoss);
+    }
+}
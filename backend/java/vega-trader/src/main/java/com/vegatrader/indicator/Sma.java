@@ -0,0 +1,30 @@
+package com.vegatrader.indicator;
+
+/**
+ * Simple moving average of closes.
+ *
+ * @since 5.0.0
+ */
+public final class Sma implements Indicator {
+
+    private final RollingWindow window;
+
+    public Sma(int period) {
+        this.window = new RollingWindow(period);
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        window.add(close);
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    @Override
+    public double value() {
+        return window.isFull() ? window.mean() : Double.NaN;
+    }
+}
@@ -0,0 +1,41 @@
+package com.vegatrader.indicator;
+
+/**
+ * Session volume-weighted average of the typical price
+ * {@code (high + low + close) / 3}, restarting each IST trading day.
+ *
+ * @since 5.0.0
+ */
+public final class Vwap implements Indicator {
+
+    private static final long IST_OFFSET_MILLIS = 19_800_000L;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private long day = Long.MIN_VALUE;
+    private double priceVolume;
+    private long volume;
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long barVolume) {
+        long d = Math.floorDiv(time + IST_OFFSET_MILLIS, DAY_MILLIS);
+        if (d != day) {
+            day = d;
+            priceVolume = 0;
+            volume = 0;
+        }
+        if (barVolume > 0) {
+            priceVolume += (high + low + close) / 3 * barVolume;
+            volume += barVolume;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return volume > 0;
+    }
+
+    @Override
+    public double value() {
+        return volume > 0 ? priceVolume / volume : Double.NaN;
+    }
+}
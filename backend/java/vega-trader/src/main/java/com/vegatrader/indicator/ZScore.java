@@ -0,0 +1,37 @@
+package com.vegatrader.indicator;
+
+/**
+ * Rolling z-score of the close against the last {@code period} closes:
+ * {@code (close - mean) / stdDev}, 0 when the window is flat.
+ *
+ * @since 5.0.0
+ */
+public final class ZScore implements Indicator {
+
+    private final RollingWindow window;
+    private double last;
+
+    public ZScore(int period) {
+        this.window = new RollingWindow(period);
+    }
+
+    @Override
+    public void update(long time, double open, double high, double low, double close, long volume) {
+        window.add(close);
+        last = close;
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    @Override
+    public double value() {
+        if (!window.isFull()) {
+            return Double.NaN;
+        }
+        double sd = window.stdDev();
+        return sd == 0 ? 0 : (last - window.mean()) / sd;
+    }
+}
@@ -0,0 +1,167 @@
+package com.vegatrader.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zero-copy forward cursor over a raw wire journal written by
+ * {@link JournalWriter}.
+ *
+ * <p>
+ * The file is memory-mapped in windows (default 256 MB) so journals larger
+ * than 2 GB are supported; a frame that straddles a window boundary causes a
+ * remap starting at that frame. {@link #payload()} is a read-only slice of the
+ * mapping, valid until the next call to {@link #next()}; nothing is copied or
+ * decoded unless the caller asks for it.
+ *
+ * <p>
+ * Headers are big-endian (see {@link WireFrameHeader}). A torn or corrupt
+ * tail ends iteration and is reported by {@link #isTruncated()}.
+ *
+ * <p>
+ * Not thread-safe; use one cursor per thread.
+ */
+public final class MappedJournalCursor implements AutoCloseable {
+
+    /** Same sanity bound as {@link JournalReader} */
+    public static final int MAX_PAYLOAD = 10 * 1024 * 1024;
+
+    private static final long DEFAULT_WINDOW = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long window;
+
+    private MappedByteBuffer map;
+    private long mapStart;
+    private long position;
+
+    private long recvTsNanos;
+    private int connectionId;
+    private int payloadSize;
+    private int protocol;
+    private int compression;
+    private ByteBuffer payload;
+    private long frames;
+    private boolean truncated;
+
+    private MappedJournalCursor(Path file, long window) throws IOException {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = window;
+    }
+
+    public static MappedJournalCursor open(Path file) throws IOException {
+        return new MappedJournalCursor(file, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens with a custom mapping window; a frame larger than the window gets
+     * a mapping of its own.
+     */
+    public static MappedJournalCursor open(Path file, long window) throws IOException {
+        return new MappedJournalCursor(file, window);
+    }
+
+    /**
+     * Advances to the next complete frame.
+     *
+     * @return false at end of file or on a corrupt/incomplete frame
+     */
+    public boolean next() throws IOException {
+        payload = null;
+        if (position + WireFrameHeader.SIZE_BYTES > size) {
+            truncated = position != size;
+            return false;
+        }
+        ensureMapped(position, WireFrameHeader.SIZE_BYTES);
+        int at = (int) (position - mapStart);
+        int length = map.getInt(at + 12);
+        if (length <= 0 || length > MAX_PAYLOAD
+                || position + WireFrameHeader.SIZE_BYTES + length > size) {
+            truncated = true;
+            return false;
+        }
+        ensureMapped(position, WireFrameHeader.SIZE_BYTES + length);
+        at = (int) (position - mapStart);
+
+        recvTsNanos = map.getLong(at);
+        connectionId = map.getInt(at + 8);
+        payloadSize = length;
+        protocol = map.getShort(at + 16);
+        compression = map.getShort(at + 18);
+        payload = map.slice(at + WireFrameHeader.SIZE_BYTES, length).asReadOnlyBuffer();
+
+        position += WireFrameHeader.SIZE_BYTES + length;
+        frames++;
+        return true;
+    }
+
+    private void ensureMapped(long offset, int length) throws IOException {
+        if (map != null && offset >= mapStart && offset + length <= mapStart + map.capacity()) {
+            return;
+        }
+        mapStart = offset;
+        map = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(Math.max(window, length), size - offset));
+    }
+
+    /** Local receive time of the current frame ({@code System.nanoTime()} of the writer JVM) */
+    public long recvTsNanos() {
+        return recvTsNanos;
+    }
+
+    public int connectionId() {
+        return connectionId;
+    }
+
+    public int payloadSize() {
+        return payloadSize;
+    }
+
+    public int protocol() {
+        return protocol;
+    }
+
+    public int compression() {
+        return compression;
+    }
+
+    /**
+     * Read-only view of the current payload; valid until {@link #next()}.
+     */
+    public ByteBuffer payload() {
+        if (payload == null) {
+            throw new IllegalStateException("no current frame");
+        }
+        return payload.duplicate();
+    }
+
+    /** Byte offset of the next frame */
+    public long position() {
+        return position;
+    }
+
+    /** Frames read so far */
+    public long frames() {
+        return frames;
+    }
+
+    /** True if iteration stopped on a partial or corrupt frame */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        map = null;
+        payload = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,296 @@
+package com.vegatrader.market.bar;
+
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.api.expired.model.Candle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming tick-to-bar aggregation.
+ *
+ * <p>
+ * Fed every tick from the market pipeline ({@link #onRawTick}), it keeps a
+ * {@link BarSeries} per instrument for each {@link Timeframe} somebody asked
+ * for: a series is allocated on the first {@link #subscribe} (or
+ * {@link #backfill}) of its instrument and timeframe, and ticks of
+ * instruments without one are only counted. Bars roll on
+ * the exchange timestamp, never the wall clock, so replayed and live data
+ * build the same bars; a bar closes when the first tick of a later bar
+ * arrives. Bar volume is the change in the feed's cumulative day volume.
+ *
+ * <p>
+ * A tick older than the instrument's latest one is applied to the bar it
+ * belongs to, inserting the bar if it is missing, and the volume traded up
+ * to it is moved back from the following bar. Ticks too old for the ring,
+ * stale (cached) snapshots and ticks without an exchange timestamp are
+ * dropped.
+ *
+ * <p>
+ * {@link #backfill} merges historical candles so a series starts full
+ * instead of from the first live tick.
+ *
+ * @since 5.0.0
+ */
+@Service
+public class BarEngine implements MarketFeedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarEngine.class);
+
+    private static final Timeframe[] TIMEFRAMES = Timeframe.values();
+
+    private final int capacity;
+    private final Map<String, InstrumentBars> instruments = new ConcurrentHashMap<>();
+    private final List<BarListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder barsClosed = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder listenerErrors = new LongAdder();
+
+    /**
+     * @param capacity bars held per instrument and timeframe, rounded up to
+     *                 a power of two
+     */
+    @Autowired
+    public BarEngine(@Value("${bars.capacity:512}") int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("bars.capacity must be at least 2");
+        }
+        this.capacity = capacity;
+    }
+
+    public void addListener(BarListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BarListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts building bars of the instrument in {@code timeframe}, from the
+     * next tick on, unless they are already built.
+     *
+     * @return the series, possibly still empty
+     */
+    public BarSeries subscribe(String instrumentKey, Timeframe timeframe) {
+        InstrumentBars bars = instruments.computeIfAbsent(instrumentKey, InstrumentBars::new);
+        synchronized (bars) {
+            return bars.series(timeframe);
+        }
+    }
+
+    /**
+     * @return bars of the instrument, or {@code null} if nobody subscribed
+     *         to or backfilled the timeframe
+     */
+    public BarSeries getSeries(String instrumentKey, Timeframe timeframe) {
+        InstrumentBars bars = instruments.get(instrumentKey);
+        if (bars == null) {
+            return null;
+        }
+        synchronized (bars) {
+            return bars.series[timeframe.ordinal()];
+        }
+    }
+
+    public Set<String> getInstruments() {
+        return instruments.keySet();
+    }
+
+    /**
+     * Drops the instrument's bars, e.g. at the end of the session.
+     */
+    public void remove(String instrumentKey) {
+        instruments.remove(instrumentKey);
+    }
+
+    // ----- feed -----
+
+    @Override
+    public void onTick(LiveMarketSnapshot tick) {
+        // bars need every tick; see onRawTick
+    }
+
+    @Override
+    public void onDepth(OrderBookSnapshot depth) {
+    }
+
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        if (tick == null || tick.isStale() || tick.getExchangeTimestamp() <= 0 || tick.getLtp() <= 0) {
+            dropped.increment();
+            return;
+        }
+        ticks.increment();
+        InstrumentBars bars = instruments.get(tick.getInstrumentKey());
+        if (bars == null) {
+            return;
+        }
+        synchronized (bars) {
+            bars.apply(tick);
+        }
+    }
+
+    /**
+     * Merges historical candles into every timeframe that whole candles of
+     * {@code source} make up; e.g. 1m candles also fill the 5m, 15m and 1h
+     * series. Where a historical and a live bar overlap, the historical one
+     * is kept, except for the forming bar, which keeps its live close.
+     *
+     * @param source  timeframe of {@code candles}
+     * @param candles candles in any order; invalid ones are skipped
+     */
+    public void backfill(String instrumentKey, Timeframe source, List<Candle> candles) {
+        List<Candle> sorted = new ArrayList<>(candles.size());
+        for (Candle candle : candles) {
+            if (candle != null && candle.isValid()) {
+                sorted.add(candle);
+            }
+        }
+        sorted.sort(Comparator.comparing(Candle::timestamp));
+        InstrumentBars bars = instruments.computeIfAbsent(instrumentKey, InstrumentBars::new);
+        synchronized (bars) {
+            for (Timeframe tf : TIMEFRAMES) {
+                if (tf.isMultipleOf(source)) {
+                    bars.series(tf).merge(rollUp(sorted, tf));
+                }
+            }
+        }
+        logger.debug("Backfilled {} {} candles for {}", sorted.size(), source.getCode(), instrumentKey);
+    }
+
+    public Stats getStats() {
+        return new Stats(ticks.sum(), barsClosed.sum(), corrections.sum(), dropped.sum(),
+                listenerErrors.sum(), instruments.size());
+    }
+
+    private static List<Candle> rollUp(List<Candle> candles, Timeframe tf) {
+        List<Candle> out = new ArrayList<>();
+        Candle bar = null;
+        long barTime = Long.MIN_VALUE;
+        for (Candle c : candles) {
+            long t = tf.bucket(c.timestamp().toInstant().toEpochMilli());
+            if (bar != null && t == barTime) {
+                bar = new Candle(bar.timestamp(), bar.open(), Math.max(bar.high(), c.high()),
+                        Math.min(bar.low(), c.low()), c.close(), bar.volume() + c.volume(), c.openInterest());
+                continue;
+            }
+            if (bar != null) {
+                out.add(bar);
+            }
+            bar = new Candle(ZonedDateTime.ofInstant(Instant.ofEpochMilli(t), c.timestamp().getZone()),
+                    c.open(), c.high(), c.low(), c.close(), c.volume(), c.openInterest());
+            barTime = t;
+        }
+        if (bar != null) {
+            out.add(bar);
+        }
+        return out;
+    }
+
+    private void fire(BarSeries series, int index, boolean closed) {
+        for (BarListener listener : listeners) {
+            try {
+                if (closed) {
+                    listener.onBarClose(series, index);
+                } else {
+                    listener.onBarCorrected(series, index);
+                }
+            } catch (RuntimeException e) {
+                listenerErrors.increment();
+                logger.warn("Bar listener failed for {} {}: {}", series.getInstrumentKey(),
+                        series.getTimeframe().getCode(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Series and volume state of one instrument; guarded by its monitor.
+     */
+    private final class InstrumentBars {
+
+        final String instrumentKey;
+        /** Indexed by timeframe ordinal, null until subscribed */
+        final BarSeries[] series = new BarSeries[TIMEFRAMES.length];
+        long lastTime = Long.MIN_VALUE;
+        long dayVolume = -1;
+
+        InstrumentBars(String instrumentKey) {
+            this.instrumentKey = instrumentKey;
+        }
+
+        BarSeries series(Timeframe tf) {
+            BarSeries s = series[tf.ordinal()];
+            if (s == null) {
+                s = new BarSeries(instrumentKey, tf, capacity);
+                series[tf.ordinal()] = s;
+            }
+            return s;
+        }
+
+        void apply(LiveMarketSnapshot tick) {
+            long ts = tick.getExchangeTimestamp();
+            long cumulative = tick.getVolume();
+            long delta = 0;
+            if (ts >= lastTime) {
+                if (dayVolume >= 0) {
+                    // a drop in cumulative volume is a new day
+                    delta = cumulative >= dayVolume ? cumulative - dayVolume : cumulative;
+                }
+                dayVolume = cumulative;
+                lastTime = ts;
+            }
+            for (BarSeries s : series) {
+                if (s == null) {
+                    continue;
+                }
+                int result = s.apply(ts, tick.getLtp(), delta, cumulative, tick.getOi());
+                switch (result) {
+                    case BarSeries.OPENED -> {
+                        if (s.size() > 1) {
+                            barsClosed.increment();
+                            if (!listeners.isEmpty()) {
+                                fire(s, s.touched() - 1, true);
+                            }
+                        }
+                    }
+                    case BarSeries.CORRECTED -> {
+                        corrections.increment();
+                        if (!listeners.isEmpty()) {
+                            fire(s, s.touched(), false);
+                        }
+                    }
+                    case BarSeries.DROPPED -> dropped.increment();
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Engine counters. {@code corrections} and {@code barsClosed} count per
+     * timeframe, so one late tick may count up to five corrections.
+     */
+    public record Stats(long ticks, long barsClosed, long corrections, long dropped, long listenerErrors,
+            int instruments) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.vegatrader.market.bar;
+
+/**
+ * Receives bar events from the {@link BarEngine}.
+ *
+ * <p>
+ * Called on the feed thread while the instrument's bars are locked, so the
+ * series can be read directly, without {@link BarSeries#beginRead()}, for
+ * the duration of the call. Keep it cheap: it delays the feed and every
+ * other listener.
+ *
+ * @since 5.0.0
+ */
+public interface BarListener {
+
+    /**
+     * A bar closed because a tick for a later bar arrived.
+     *
+     * @param series series the bar belongs to
+     * @param index  index of the closed bar in {@code series}
+     */
+    void onBarClose(BarSeries series, int index);
+
+    /**
+     * A late tick changed a bar that had already closed, or added one that
+     * was missing.
+     *
+     * @param series series the bar belongs to
+     * @param index  index of the corrected bar in {@code series}
+     */
+    default void onBarCorrected(BarSeries series, int index) {
+    }
+}
@@ -0,0 +1,429 @@
+package com.vegatrader.market.bar;
+
+import com.vegatrader.upstox.api.expired.model.Candle;
+import com.vegatrader.util.locale.LocaleConstants;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OHLCV+OI bars of one instrument and timeframe in preallocated primitive
+ * ring buffers, oldest first.
+ *
+ * <p>
+ * Index {@code 0} is the oldest bar held and {@code size() - 1} the latest,
+ * which is still forming: it closes when a tick for a later bar arrives.
+ * Once the ring is full each new bar evicts the oldest, so indices shift by
+ * one per new bar. Indices outside {@code [0, size())} are not checked and
+ * return unspecified values.
+ *
+ * <p>
+ * Reads are zero-copy and lock-free. The feed thread may write at any time,
+ * so readers off the feed thread use an optimistic read:
+ *
+ * <pre>
+ * long stamp;
+ * do {
+ *     stamp = series.beginRead();
+ *     // read size() and bars
+ * } while (!series.validate(stamp));
+ * </pre>
+ *
+ * <p>
+ * {@link BarListener}s are called with the series locked and need no
+ * validation. {@link #toCandles(int)} takes a consistent copy.
+ *
+ * @since 5.0.0
+ */
+public final class BarSeries {
+
+    /** Tick updated the latest bar */
+    static final int UPDATED = 0;
+    /** Tick opened a new bar; the previous one, if any, closed */
+    static final int OPENED = 1;
+    /** Late tick changed or inserted an earlier bar */
+    static final int CORRECTED = 2;
+    /** Late tick older than anything the ring can hold */
+    static final int DROPPED = 3;
+
+    private final String instrumentKey;
+    private final Timeframe timeframe;
+    private final int capacity;
+    private final int mask;
+
+    private final long[] time;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+    private final long[] oi;
+    /** Exchange time of the bar's latest tick; bar end for backfilled bars */
+    private final long[] lastTick;
+    /** Day volume at that tick; MAX_VALUE where unknown */
+    private final long[] dayVolume;
+
+    private int head = -1;
+    private int size;
+    /** Odd while a write is in progress */
+    private volatile long version;
+    /** Index the last write touched */
+    private int touched = -1;
+
+    BarSeries(String instrumentKey, Timeframe timeframe, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        this.instrumentKey = instrumentKey;
+        this.timeframe = timeframe;
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.time = new long[this.capacity];
+        this.open = new double[this.capacity];
+        this.high = new double[this.capacity];
+        this.low = new double[this.capacity];
+        this.close = new double[this.capacity];
+        this.volume = new long[this.capacity];
+        this.oi = new long[this.capacity];
+        this.lastTick = new long[this.capacity];
+        this.dayVolume = new long[this.capacity];
+    }
+
+    public String getInstrumentKey() {
+        return instrumentKey;
+    }
+
+    public Timeframe getTimeframe() {
+        return timeframe;
+    }
+
+    // ----- reading -----
+
+    /**
+     * @return stamp to pass to {@link #validate(long)} after reading
+     */
+    public long beginRead() {
+        return version;
+    }
+
+    /**
+     * @return whether nothing was written since {@code stamp} was taken, so
+     *         the values read in between are consistent
+     */
+    public boolean validate(long stamp) {
+        VarHandle.loadLoadFence();
+        return (stamp & 1) == 0 && version == stamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Bar start, epoch millis */
+    public long time(int index) {
+        return time[slot(index)];
+    }
+
+    public double open(int index) {
+        return open[slot(index)];
+    }
+
+    public double high(int index) {
+        return high[slot(index)];
+    }
+
+    public double low(int index) {
+        return low[slot(index)];
+    }
+
+    public double close(int index) {
+        return close[slot(index)];
+    }
+
+    public long volume(int index) {
+        return volume[slot(index)];
+    }
+
+    public long openInterest(int index) {
+        return oi[slot(index)];
+    }
+
+    /**
+     * @return index of the bar containing {@code epochMillis}, or -1 if
+     *         there is none
+     */
+    public int indexAt(long epochMillis) {
+        long bucket = timeframe.bucket(epochMillis);
+        for (int i = size - 1; i >= 0; i--) {
+            long t = time[slot(i)];
+            if (t == bucket) {
+                return i;
+            }
+            if (t < bucket) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Consistent copy of the latest bars.
+     *
+     * @param max most bars to return
+     * @return bars oldest first, timestamped in IST
+     */
+    public List<Candle> toCandles(int max) {
+        while (true) {
+            long stamp = beginRead();
+            if ((stamp & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int n = Math.max(Math.min(size, max), 0);
+            int from = size - n;
+            List<Candle> candles = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int s = slot(from + i);
+                candles.add(new Candle(
+                        ZonedDateTime.ofInstant(Instant.ofEpochMilli(time[s]), LocaleConstants.IST_ZONE),
+                        open[s], high[s], low[s], close[s], volume[s], oi[s]));
+            }
+            if (validate(stamp)) {
+                return candles;
+            }
+        }
+    }
+
+    private int slot(int index) {
+        return (head - (size - 1 - index)) & mask;
+    }
+
+    // ----- writing, instrument lock held -----
+
+    int touched() {
+        return touched;
+    }
+
+    /**
+     * Applies one trade.
+     *
+     * @param ts        exchange time
+     * @param price     trade price
+     * @param delta     volume to add to the bar
+     * @param dayVol    cumulative day volume at this tick, used to move
+     *                  volume into bars corrected by late ticks
+     * @param openInt   open interest
+     * @return {@link #UPDATED}, {@link #OPENED}, {@link #CORRECTED} or
+     *         {@link #DROPPED}
+     */
+    int apply(long ts, double price, long delta, long dayVol, long openInt) {
+        long bucket = timeframe.bucket(ts);
+        if (size == 0 || bucket > time[head]) {
+            beginWrite();
+            head = (head + 1) & mask;
+            if (size < capacity) {
+                size++;
+            }
+            set(head, bucket, price, delta, openInt, ts, dayVol);
+            touched = size - 1;
+            endWrite();
+            return OPENED;
+        }
+        if (bucket == time[head]) {
+            beginWrite();
+            update(head, ts, price, delta, openInt);
+            if (ts >= lastTick[head]) {
+                dayVolume[head] = Math.max(dayVolume[head], dayVol);
+            }
+            touched = size - 1;
+            endWrite();
+            return UPDATED;
+        }
+        return correct(bucket, ts, price, delta, dayVol, openInt);
+    }
+
+    private int correct(long bucket, long ts, double price, long delta, long dayVol, long openInt) {
+        // first index after the bucket
+        int p = size;
+        while (p > 0 && time[slot(p - 1)] > bucket) {
+            p--;
+        }
+        boolean exists = p > 0 && time[slot(p - 1)] == bucket;
+        if (!exists && p == 0 && size == capacity) {
+            return DROPPED;
+        }
+        int index;
+        beginWrite();
+        try {
+            if (exists) {
+                index = p - 1;
+                update(slot(index), ts, price, delta, openInt);
+            } else {
+                long baseline = p > 0 ? dayVolume[slot(p - 1)] : dayVol;
+                for (int k = size - 1; k >= p; k--) {
+                    copy(slot(k), (slot(k) + 1) & mask);
+                }
+                int s = slot(p);
+                head = (head + 1) & mask;
+                if (size < capacity) {
+                    size++;
+                    index = p;
+                } else {
+                    index = p - 1;
+                }
+                set(s, bucket, price, delta, openInt, ts, baseline);
+            }
+            // volume traded up to this tick was credited to the next bar
+            int s = slot(index);
+            if (delta == 0 && index < size - 1 && dayVol > dayVolume[s]) {
+                int next = slot(index + 1);
+                long moved = Math.min(dayVol - dayVolume[s], volume[next]);
+                volume[s] += moved;
+                volume[next] -= moved;
+                dayVolume[s] = dayVol;
+            }
+            touched = index;
+            return CORRECTED;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Merges history into the series. Where both have a bar, the history
+     * replaces a closed bar, since live bars started mid-way are partial;
+     * the forming bar keeps its close and takes the wider range.
+     *
+     * @param bars bars of this timeframe, oldest first
+     */
+    void merge(List<Candle> bars) {
+        BarSeries merged = new BarSeries(instrumentKey, timeframe, capacity);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < bars.size()) {
+            long live = i < size ? time[slot(i)] : Long.MAX_VALUE;
+            Candle c = j < bars.size() ? bars.get(j) : null;
+            long hist = c != null ? c.timestamp().toInstant().toEpochMilli() : Long.MAX_VALUE;
+            if (live < hist) {
+                merged.append(this, slot(i++));
+            } else if (hist < live) {
+                merged.appendHistory(hist, c);
+                j++;
+            } else if (i == size - 1) {
+                int s = slot(i++);
+                merged.append(this, s);
+                int m = merged.head;
+                merged.open[m] = c.open();
+                merged.high[m] = Math.max(merged.high[m], c.high());
+                merged.low[m] = Math.min(merged.low[m], c.low());
+                merged.volume[m] = Math.max(merged.volume[m], c.volume());
+                j++;
+            } else {
+                merged.appendHistory(hist, c);
+                i++;
+                j++;
+            }
+        }
+        beginWrite();
+        System.arraycopy(merged.time, 0, time, 0, capacity);
+        System.arraycopy(merged.open, 0, open, 0, capacity);
+        System.arraycopy(merged.high, 0, high, 0, capacity);
+        System.arraycopy(merged.low, 0, low, 0, capacity);
+        System.arraycopy(merged.close, 0, close, 0, capacity);
+        System.arraycopy(merged.volume, 0, volume, 0, capacity);
+        System.arraycopy(merged.oi, 0, oi, 0, capacity);
+        System.arraycopy(merged.lastTick, 0, lastTick, 0, capacity);
+        System.arraycopy(merged.dayVolume, 0, dayVolume, 0, capacity);
+        head = merged.head;
+        size = merged.size;
+        touched = -1;
+        endWrite();
+    }
+
+    private void append(BarSeries from, int s) {
+        head = (head + 1) & mask;
+        if (size < capacity) {
+            size++;
+        }
+        time[head] = from.time[s];
+        open[head] = from.open[s];
+        high[head] = from.high[s];
+        low[head] = from.low[s];
+        close[head] = from.close[s];
+        volume[head] = from.volume[s];
+        oi[head] = from.oi[s];
+        lastTick[head] = from.lastTick[s];
+        dayVolume[head] = from.dayVolume[s];
+    }
+
+    private void appendHistory(long t, Candle c) {
+        head = (head + 1) & mask;
+        if (size < capacity) {
+            size++;
+        }
+        time[head] = t;
+        open[head] = c.open();
+        high[head] = c.high();
+        low[head] = c.low();
+        close[head] = c.close();
+        volume[head] = c.volume();
+        oi[head] = c.openInterest();
+        lastTick[head] = t + timeframe.getMillis() - 1;
+        dayVolume[head] = Long.MAX_VALUE;
+    }
+
+    private void set(int s, long bucket, double price, long delta, long openInt, long ts, long dayVol) {
+        time[s] = bucket;
+        open[s] = price;
+        high[s] = price;
+        low[s] = price;
+        close[s] = price;
+        volume[s] = delta;
+        oi[s] = openInt;
+        lastTick[s] = ts;
+        dayVolume[s] = dayVol;
+    }
+
+    private void update(int s, long ts, double price, long delta, long openInt) {
+        if (price > high[s]) {
+            high[s] = price;
+        }
+        if (price < low[s]) {
+            low[s] = price;
+        }
+        volume[s] += delta;
+        if (ts >= lastTick[s]) {
+            close[s] = price;
+            oi[s] = openInt;
+            lastTick[s] = ts;
+        }
+    }
+
+    private void copy(int from, int to) {
+        time[to] = time[from];
+        open[to] = open[from];
+        high[to] = high[from];
+        low[to] = low[from];
+        close[to] = close[from];
+        volume[to] = volume[from];
+        oi[to] = oi[from];
+        lastTick[to] = lastTick[from];
+        dayVolume[to] = dayVolume[from];
+    }
+
+    private void beginWrite() {
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        version++;
+    }
+}
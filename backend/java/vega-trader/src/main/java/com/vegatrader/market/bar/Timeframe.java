@@ -0,0 +1,83 @@
+package com.vegatrader.market.bar;
+
+import java.util.Locale;
+
+/**
+ * Bar timeframes maintained by the {@link BarEngine}.
+ *
+ * <p>
+ * Buckets are aligned to the 09:15 IST session open, so hourly bars run
+ * 09:15-10:15 and so on as on the exchange; the shorter timeframes divide
+ * that offset and line up with the wall clock as well.
+ *
+ * @since 5.0.0
+ */
+public enum Timeframe {
+
+    S1("1s", 1_000L),
+    M1("1m", 60_000L),
+    M5("5m", 300_000L),
+    M15("15m", 900_000L),
+    H1("1h", 3_600_000L);
+
+    /** 09:15 IST as an offset from the UTC epoch day */
+    static final long ORIGIN_MILLIS = (3 * 60 + 45) * 60_000L;
+
+    private static final Timeframe[] VALUES = values();
+
+    private final String code;
+    private final long millis;
+
+    Timeframe(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return start of the bar containing {@code epochMillis}
+     */
+    public long bucket(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis - ORIGIN_MILLIS, millis);
+    }
+
+    /**
+     * Whether bars of this timeframe can be built from whole bars of
+     * {@code source}.
+     */
+    public boolean isMultipleOf(Timeframe source) {
+        return millis >= source.millis && millis % source.millis == 0;
+    }
+
+    /**
+     * Parses a code ({@code 1m}), an enum name ({@code M1}) or an Upstox
+     * interval ({@code 1minute}).
+     *
+     * @throws IllegalArgumentException if not a supported timeframe
+     */
+    public static Timeframe fromCode(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Timeframe must not be null");
+        }
+        String c = code.trim().toLowerCase(Locale.ROOT);
+        for (Timeframe tf : VALUES) {
+            if (tf.code.equals(c) || tf.name().equalsIgnoreCase(c)) {
+                return tf;
+            }
+        }
+        return switch (c) {
+            case "1minute" -> M1;
+            case "5minute" -> M5;
+            case "15minute" -> M15;
+            case "60minute", "1hour" -> H1;
+            default -> throw new IllegalArgumentException("Unsupported timeframe: " + code);
+        };
+    }
+}
@@ -50,6 +50,25 @@ public class MarketCacheService {
         depthCache.put(snapshot.getInstrumentKey(), snapshot);
     }
 
+    /**
+     * Replace a cached tick only if it is still {@code expected}, so a newer
+     * feed update is never overwritten.
+     *
+     * @return true if the replacement was cached
+     */
+    public boolean replaceTick(LiveMarketSnapshot expected, LiveMarketSnapshot replacement) {
+        return tickCache.replace(expected.getInstrumentKey(), expected, replacement);
+    }
+
+    /**
+     * Replace a cached depth only if it is still {@code expected}.
+     *
+     * @return true if the replacement was cached
+     */
+    public boolean replaceDepth(OrderBookSnapshot expected, OrderBookSnapshot replacement) {
+        return depthCache.replace(expected.getInstrumentKey(), expected, replacement);
+    }
+
     /**
      * Get latest tick for instrument.
      * 
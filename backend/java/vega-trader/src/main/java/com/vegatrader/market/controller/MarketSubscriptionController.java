@@ -1,5 +1,8 @@
 package com.vegatrader.market.controller;
 
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.bar.BarSeries;
+import com.vegatrader.market.bar.Timeframe;
 import com.vegatrader.market.cache.MarketCacheService;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.dto.OrderBookSnapshot;
@@ -7,12 +10,14 @@ import com.vegatrader.market.dto.SubscriptionRequest;
 import com.vegatrader.market.feed.FeedMode;
 import com.vegatrader.market.subscription.SubscriptionRegistry;
 import com.vegatrader.market.service.MarketSubscriptionManager;
+import com.vegatrader.upstox.api.expired.model.Candle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,6 +41,9 @@ public class MarketSubscriptionController {
     @Autowired
     private MarketCacheService marketCache;
 
+    @Autowired
+    private BarEngine barEngine;
+
     /**
      * POST /api/market/subscribe
      * Subscribe to market data for instruments.
@@ -123,6 +131,33 @@ public class MarketSubscriptionController {
         return ResponseEntity.ok(depth);
     }
 
+    /**
+     * GET /api/market/bars
+     * Get live bars for instrument, oldest first; the last one is forming.
+     */
+    @GetMapping("/bars")
+    public ResponseEntity<List<Candle>> getBars(
+            @RequestParam String instrument,
+            @RequestParam(defaultValue = "1m") String timeframe,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        Timeframe tf;
+        try {
+            tf = Timeframe.fromCode(timeframe);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        BarSeries series = barEngine.getSeries(instrument, tf);
+        if (series == null) {
+            if (!subscriptionRegistry.hasSubscribers(instrument)) {
+                return ResponseEntity.notFound().build();
+            }
+            // Bars are built per timeframe on demand; the first request starts them
+            series = barEngine.subscribe(instrument, tf);
+        }
+        return ResponseEntity.ok(series.toCandles(limit));
+    }
+
     /**
      * GET /api/market/subscriptions
      * Get current subscription status.
@@ -1,17 +1,23 @@
 package com.vegatrader.market.depth;
 
+import com.vegatrader.market.depth.model.DepthSide;
 import com.vegatrader.market.depth.model.L30OrderBook;
-import com.vegatrader.market.depth.model.BookLevel;
 import com.vegatrader.market.dto.DepthLevel;
 import com.vegatrader.market.dto.OrderBookSnapshot;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Compresses full 30-level order book to smaller representations.
  * Used to reduce bandwidth for frontend WebSocket delivery.
+ *
+ * <p>
+ * The static operations work on the primitive {@link DepthSide} arrays in
+ * plain loops and allocate nothing: aggregation to a coarser tick size,
+ * imbalance, microprice and a per-level diff for sending or persisting only
+ * the levels that changed.
  */
 @Component
 public class OrderBookCompressor {
@@ -25,9 +31,12 @@ public class OrderBookCompressor {
     /** Full 30 levels (pro UI) */
     public static final int LEVELS_30 = 30;
 
+    /** Bit offset of the ask levels in a {@link #diff} mask */
+    public static final int ASK_SHIFT = 32;
+
     /**
      * Compress L30OrderBook to OrderBookSnapshot with specified depth.
-     * 
+     *
      * @param book   Full 30-level book
      * @param levels Number of levels to keep (5, 10, or 30)
      * @return Compressed snapshot
@@ -36,22 +45,10 @@ public class OrderBookCompressor {
         if (book == null)
             return null;
 
-        List<DepthLevel> bids = book.getBids() == null ? List.of()
-                : book.getBids().stream()
-                        .limit(levels)
-                        .map(this::toDepthLevel)
-                        .collect(Collectors.toList());
-
-        List<DepthLevel> asks = book.getAsks() == null ? List.of()
-                : book.getAsks().stream()
-                        .limit(levels)
-                        .map(this::toDepthLevel)
-                        .collect(Collectors.toList());
-
         return OrderBookSnapshot.builder()
                 .instrumentKey(book.getInstrumentKey())
-                .bids(bids)
-                .asks(asks)
+                .bids(toDepthLevels(book.bids(), levels))
+                .asks(toDepthLevels(book.asks(), levels))
                 .timestamp(System.currentTimeMillis())
                 .build();
     }
@@ -70,7 +67,130 @@ public class OrderBookCompressor {
         return compress(book, LEVELS_10);
     }
 
-    private DepthLevel toDepthLevel(BookLevel bl) {
-        return new DepthLevel(bl.getPrice(), bl.getQuantity(), bl.getOrders());
+    private static List<DepthLevel> toDepthLevels(DepthSide side, int levels) {
+        int n = Math.min(levels, side.size());
+        List<DepthLevel> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new DepthLevel(side.priceAsDouble(i), side.qty(i), side.orders(i)));
+        }
+        return out;
+    }
+
+    /**
+     * Aggregates both sides of {@code src} into {@code dst} at a coarser
+     * tick size. Bids round down and asks round up to the tick, so the
+     * aggregated book never looks tighter than the real one.
+     *
+     * @param tickSize Tick size in rupees, e.g. 0.5
+     * @param dst      Book to refill; must not be {@code src}
+     */
+    public static void aggregate(L30OrderBook src, double tickSize, L30OrderBook dst) {
+        long tick = DepthSide.toTicks(tickSize);
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Tick size must be at least 0.01: " + tickSize);
+        }
+        aggregate(src.bids(), tick, true, dst.bids());
+        aggregate(src.asks(), tick, false, dst.asks());
+    }
+
+    /**
+     * Aggregates one sorted side into buckets of {@code tick} scaled price
+     * units. Levels of one bucket are adjacent, so this is a single pass.
+     */
+    public static void aggregate(DepthSide src, long tick, boolean bid, DepthSide dst) {
+        dst.clear();
+        long bucket = 0;
+        long qty = 0;
+        int orders = 0;
+        for (int i = 0, n = src.size(); i < n; i++) {
+            long price = src.price(i);
+            long b = bid ? Math.floorDiv(price, tick) * tick : -Math.floorDiv(-price, tick) * tick;
+            if (qty > 0 && b != bucket) {
+                dst.add(bucket, qty, orders);
+                qty = 0;
+                orders = 0;
+            }
+            bucket = b;
+            qty += src.qty(i);
+            orders += src.orders(i);
+        }
+        if (qty > 0) {
+            dst.add(bucket, qty, orders);
+        }
+    }
+
+    /**
+     * Order flow imbalance over the top {@code levels} levels:
+     * {@code (bidQty - askQty) / (bidQty + askQty)}, in [-1, 1].
+     *
+     * @return NaN if both sides are empty
+     */
+    public static double imbalance(L30OrderBook book, int levels) {
+        long bidQty = book.bids().totalQty(levels);
+        long askQty = book.asks().totalQty(levels);
+        long total = bidQty + askQty;
+        return total > 0 ? (double) (bidQty - askQty) / total : Double.NaN;
+    }
+
+    /**
+     * Size-weighted mid of the touch: leans towards the side with less
+     * quantity, where the next trade is more likely.
+     *
+     * @return NaN unless both sides have a level with quantity
+     */
+    public static double microprice(L30OrderBook book) {
+        DepthSide bids = book.bids();
+        DepthSide asks = book.asks();
+        if (bids.isEmpty() || asks.isEmpty()) {
+            return Double.NaN;
+        }
+        long bidQty = bids.qty(0);
+        long askQty = asks.qty(0);
+        if (bidQty + askQty <= 0) {
+            return Double.NaN;
+        }
+        double weighted = (double) bids.price(0) * askQty + (double) asks.price(0) * bidQty;
+        return weighted / (bidQty + askQty) / DepthSide.PRICE_SCALE;
+    }
+
+    /**
+     * Compares the top {@code levels} levels of two books.
+     *
+     * @return bit {@code i} set if bid level {@code i} differs, bit
+     *         {@code ASK_SHIFT + i} if ask level {@code i} does; 0 if the
+     *         depth is unchanged
+     */
+    public static long diff(L30OrderBook previous, L30OrderBook current, int levels) {
+        int n = Math.min(levels, DepthSide.MAX_DEPTH);
+        return (diff(previous.bids(), current.bids(), n) & 0xFFFFFFFFL)
+                | ((long) diff(previous.asks(), current.asks(), n) << ASK_SHIFT);
+    }
+
+    private static int diff(DepthSide previous, DepthSide current, int levels) {
+        int mask = 0;
+        for (int i = 0; i < levels; i++) {
+            boolean inPrevious = i < previous.size();
+            boolean inCurrent = i < current.size();
+            if (inPrevious != inCurrent
+                    || inCurrent && (previous.price(i) != current.price(i) || previous.qty(i) != current.qty(i)
+                            || previous.orders(i) != current.orders(i))) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return the bid-level bits of a {@link #diff} mask
+     */
+    public static int bidMask(long diff) {
+        return (int) diff;
+    }
+
+    /**
+     * @return the ask-level bits of a {@link #diff} mask
+     */
+    public static int askMask(long diff) {
+        return (int) (diff >>> ASK_SHIFT);
     }
 }
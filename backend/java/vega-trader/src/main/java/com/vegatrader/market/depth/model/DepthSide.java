@@ -0,0 +1,134 @@
+package com.vegatrader.market.depth.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One side of a depth book held in parallel primitive arrays, best level
+ * first.
+ *
+ * <p>
+ * Prices are fixed-point: {@link #PRICE_SCALE} units per rupee (paise), the
+ * same scale as the canonical journal, so comparisons and aggregation are
+ * exact. The arrays are allocated once at {@link #MAX_DEPTH} and refilled in
+ * place on every update.
+ *
+ * @since 5.0.0
+ */
+public final class DepthSide {
+
+    public static final int MAX_DEPTH = 30;
+    public static final long PRICE_SCALE = 100;
+
+    private final long[] price = new long[MAX_DEPTH];
+    private final long[] qty = new long[MAX_DEPTH];
+    private final int[] orders = new int[MAX_DEPTH];
+    private int size;
+
+    public static long toTicks(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+
+    public static double toPrice(long scaledPrice) {
+        return (double) scaledPrice / PRICE_SCALE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Scaled price of level {@code i}. */
+    public long price(int i) {
+        return price[i];
+    }
+
+    public double priceAsDouble(int i) {
+        return toPrice(price[i]);
+    }
+
+    public long qty(int i) {
+        return qty[i];
+    }
+
+    public int orders(int i) {
+        return orders[i];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a level below the current ones.
+     *
+     * @return false if the side already holds {@link #MAX_DEPTH} levels
+     */
+    public boolean add(long scaledPrice, long quantity, int orderCount) {
+        if (size == MAX_DEPTH) {
+            return false;
+        }
+        price[size] = scaledPrice;
+        qty[size] = quantity;
+        orders[size] = orderCount;
+        size++;
+        return true;
+    }
+
+    public void copyFrom(DepthSide other) {
+        System.arraycopy(other.price, 0, price, 0, other.size);
+        System.arraycopy(other.qty, 0, qty, 0, other.size);
+        System.arraycopy(other.orders, 0, orders, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * @return quantity summed over the top {@code levels} levels
+     */
+    public long totalQty(int levels) {
+        long total = 0;
+        for (int i = 0, n = Math.min(levels, size); i < n; i++) {
+            total += qty[i];
+        }
+        return total;
+    }
+
+    /**
+     * Replaces the levels with {@code levels}; any beyond {@link #MAX_DEPTH}
+     * are dropped.
+     */
+    public void setLevels(List<BookLevel> levels) {
+        size = 0;
+        if (levels != null) {
+            for (int i = 0, n = Math.min(levels.size(), MAX_DEPTH); i < n; i++) {
+                BookLevel level = levels.get(i);
+                add(toTicks(level.getPrice()), level.getQuantity(), level.getOrders());
+            }
+        }
+    }
+
+    /**
+     * Copies the levels out as objects, for callers off the hot path.
+     */
+    public List<BookLevel> toLevels() {
+        List<BookLevel> levels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            levels.add(new BookLevel(toPrice(price[i]), qty[i], orders[i]));
+        }
+        return levels;
+    }
+
+    /**
+     * @return true if both sides hold the same levels
+     */
+    public boolean sameLevels(DepthSide other) {
+        return size == other.size
+                && Arrays.equals(price, 0, size, other.price, 0, size)
+                && Arrays.equals(qty, 0, size, other.qty, 0, size)
+                && Arrays.equals(orders, 0, size, other.orders, 0, size);
+    }
+}
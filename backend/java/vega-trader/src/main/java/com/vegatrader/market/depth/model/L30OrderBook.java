@@ -2,10 +2,19 @@ package com.vegatrader.market.depth.model;
 
 import java.util.List;
 
+/**
+ * Full-depth (30 level) book for one instrument.
+ *
+ * <p>
+ * Depth is held in two {@link DepthSide}s of primitive arrays that are
+ * refilled in place, so a book can be reused across updates without
+ * allocating. {@link #getBids()} and {@link #getAsks()} copy the levels out
+ * as {@link BookLevel} lists for callers off the hot path.
+ */
 public class L30OrderBook {
     private String instrumentKey;
-    private List<BookLevel> bids;
-    private List<BookLevel> asks;
+    private final DepthSide bids = new DepthSide();
+    private final DepthSide asks = new DepthSide();
     private double ltp; // Last Traded Price
     private double cp; // Close Price
     private double atp; // Average Traded Price
@@ -24,11 +33,33 @@ public class L30OrderBook {
         return instrumentKey;
     }
 
+    /**
+     * @return a copy of the bid levels
+     */
     public List<BookLevel> getBids() {
-        return bids;
+        return bids.toLevels();
     }
 
+    /**
+     * @return a copy of the ask levels
+     */
     public List<BookLevel> getAsks() {
+        return asks.toLevels();
+    }
+
+    /**
+     * @return the live bid side, refilled in place on update
+     * @since 5.0.0
+     */
+    public DepthSide bids() {
+        return bids;
+    }
+
+    /**
+     * @return the live ask side, refilled in place on update
+     * @since 5.0.0
+     */
+    public DepthSide asks() {
         return asks;
     }
 
@@ -74,11 +105,11 @@ public class L30OrderBook {
     }
 
     public void setBids(List<BookLevel> bids) {
-        this.bids = bids;
+        this.bids.setLevels(bids);
     }
 
     public void setAsks(List<BookLevel> asks) {
-        this.asks = asks;
+        this.asks.setLevels(asks);
     }
 
     public void setLtp(double ltp) {
@@ -120,16 +151,37 @@ public class L30OrderBook {
     // For compatibility if needed
     public void setBids(Object bids) {
         if (bids instanceof List) {
-            this.bids = (List<BookLevel>) bids;
+            setBids((List<BookLevel>) bids);
         }
     }
 
     public void setAsks(Object asks) {
         if (asks instanceof List) {
-            this.asks = (List<BookLevel>) asks;
+            setAsks((List<BookLevel>) asks);
         }
     }
 
+    /**
+     * Makes this book a copy of {@code other}, reusing its arrays. Greeks
+     * are shared, not copied.
+     *
+     * @since 5.0.0
+     */
+    public void copyFrom(L30OrderBook other) {
+        instrumentKey = other.instrumentKey;
+        bids.copyFrom(other.bids);
+        asks.copyFrom(other.asks);
+        ltp = other.ltp;
+        cp = other.cp;
+        atp = other.atp;
+        oi = other.oi;
+        tbq = other.tbq;
+        tsq = other.tsq;
+        lastTradeTs = other.lastTradeTs;
+        exchangeTs = other.exchangeTs;
+        greeks = other.greeks;
+    }
+
     // Builder
     public static L30OrderBookBuilder builder() {
         return new L30OrderBookBuilder();
@@ -7,10 +7,12 @@ public class LiveMarketSnapshot {
     private double high;
     private double low;
     private double close;
+    private double previousClose; // LTPC cp: fixed for the session, unlike the OHLC close
     private long volume;
     private long oi; // Open Interest
     private long exchangeTimestamp;
     private long receiveTimestamp;
+    private boolean stale; // last known value, feed not yet resynced
 
     public LiveMarketSnapshot() {
     }
@@ -40,6 +42,10 @@ public class LiveMarketSnapshot {
         return close;
     }
 
+    public double getPreviousClose() {
+        return previousClose;
+    }
+
     public long getVolume() {
         return volume;
     }
@@ -56,6 +62,10 @@ public class LiveMarketSnapshot {
         return receiveTimestamp;
     }
 
+    public boolean isStale() {
+        return stale;
+    }
+
     // Computed Getters
     public double getChange() {
         return ltp - close;
@@ -90,6 +100,10 @@ public class LiveMarketSnapshot {
         this.close = close;
     }
 
+    public void setPreviousClose(double previousClose) {
+        this.previousClose = previousClose;
+    }
+
     public void setVolume(long volume) {
         this.volume = volume;
     }
@@ -106,6 +120,31 @@ public class LiveMarketSnapshot {
         this.receiveTimestamp = receiveTimestamp;
     }
 
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * Copy with the stale flag set; the cached instance is shared with other
+     * readers and is never changed in place.
+     */
+    public LiveMarketSnapshot withStale(boolean stale) {
+        LiveMarketSnapshot copy = new LiveMarketSnapshot();
+        copy.instrumentKey = instrumentKey;
+        copy.ltp = ltp;
+        copy.open = open;
+        copy.high = high;
+        copy.low = low;
+        copy.close = close;
+        copy.previousClose = previousClose;
+        copy.volume = volume;
+        copy.oi = oi;
+        copy.exchangeTimestamp = exchangeTimestamp;
+        copy.receiveTimestamp = receiveTimestamp;
+        copy.stale = stale;
+        return copy;
+    }
+
     // Builder
     public static LiveMarketSnapshotBuilder builder() {
         return new LiveMarketSnapshotBuilder();
@@ -144,6 +183,11 @@ public class LiveMarketSnapshot {
             return this;
         }
 
+        public LiveMarketSnapshotBuilder previousClose(double previousClose) {
+            snapshot.setPreviousClose(previousClose);
+            return this;
+        }
+
         public LiveMarketSnapshotBuilder volume(long volume) {
             snapshot.setVolume(volume);
             return this;
@@ -164,6 +208,11 @@ public class LiveMarketSnapshot {
             return this;
         }
 
+        public LiveMarketSnapshotBuilder stale(boolean stale) {
+            snapshot.setStale(stale);
+            return this;
+        }
+
         public LiveMarketSnapshot build() {
             return snapshot;
         }
@@ -7,6 +7,7 @@ public class OrderBookSnapshot {
     private long timestamp;
     private List<DepthLevel> bids;
     private List<DepthLevel> asks;
+    private boolean stale; // last known book, feed not yet resynced
 
     public OrderBookSnapshot() {
     }
@@ -28,6 +29,10 @@ public class OrderBookSnapshot {
         return asks;
     }
 
+    public boolean isStale() {
+        return stale;
+    }
+
     // Setters
     public void setInstrumentKey(String key) {
         this.instrumentKey = key;
@@ -45,6 +50,23 @@ public class OrderBookSnapshot {
         this.asks = asks;
     }
 
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * Copy with the stale flag set; the level lists are shared, not copied.
+     */
+    public OrderBookSnapshot withStale(boolean stale) {
+        OrderBookSnapshot copy = new OrderBookSnapshot();
+        copy.instrumentKey = instrumentKey;
+        copy.timestamp = timestamp;
+        copy.bids = bids;
+        copy.asks = asks;
+        copy.stale = stale;
+        return copy;
+    }
+
     // Builder
     public static OrderBookSnapshotBuilder builder() {
         return new OrderBookSnapshotBuilder();
@@ -73,6 +95,11 @@ public class OrderBookSnapshot {
             return this;
         }
 
+        public OrderBookSnapshotBuilder stale(boolean stale) {
+            snapshot.setStale(stale);
+            return this;
+        }
+
         public OrderBookSnapshot build() {
             return snapshot;
         }
@@ -0,0 +1,310 @@
+package com.vegatrader.market.feed;
+
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.upstox.api.websocket.buffer.MpscRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Conflating hand-off between a market feed and a slow downstream listener.
+ *
+ * <p>
+ * Each instrument has a latest-value slot for its tick and its depth. The
+ * feed thread overwrites the slot and, if the instrument was clean, puts it
+ * on its worker's dirty queue; workers drain dirty instruments and deliver
+ * whatever is in the slot at that moment. A downstream that keeps up sees
+ * every update; one that lags sees only the most recent state per
+ * instrument, so its latency stays bounded by one pass over the dirty set
+ * instead of growing with the backlog.
+ *
+ * <p>
+ * Instruments are pinned to a worker by key hash, so per-instrument delivery
+ * stays ordered. Each dirty queue holds an instrument at most once, so it can
+ * never hold more entries than there are instruments. The feed's tail update
+ * and parked-flag read and the worker's flag write and emptiness check are
+ * all volatile, so a wake-up cannot be lost and an idle worker parks until
+ * an update or {@link #close} unparks it.
+ *
+ * <p>
+ * {@link #onRawTick}/{@link #onRawDepth} and the connection callbacks are
+ * forwarded inline on the feed thread: consumers that must see every tick
+ * (see {@code Strategy#requiresEveryTick}) opt out of conflation there.
+ *
+ * @since 5.0.0
+ */
+public final class ConflatingFeedDispatcher implements MarketFeedListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingFeedDispatcher.class);
+
+    /** Max dirty instruments per worker */
+    private static final int QUEUE_CAPACITY = 1 << 16;
+
+    private final MarketFeedListener downstream;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Worker[] workers;
+
+    private final LongAdder ticksIn = new LongAdder();
+    private final LongAdder depthsIn = new LongAdder();
+    private final LongAdder ticksOut = new LongAdder();
+    private final LongAdder depthsOut = new LongAdder();
+    private final LongAdder conflatedTicks = new LongAdder();
+    private final LongAdder conflatedDepths = new LongAdder();
+    private final LongAdder lagNanos = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * @param downstream listener to deliver conflated updates to
+     * @param workers    delivery threads
+     * @param name       thread name prefix
+     */
+    public ConflatingFeedDispatcher(MarketFeedListener downstream, int workers, String name) {
+        if (downstream == null) {
+            throw new NullPointerException("downstream must not be null");
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.downstream = downstream;
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker(name + "-conflator-" + i);
+            this.workers[i].thread.start();
+        }
+        logger.info("Conflating dispatcher '{}' started with {} worker(s)", name, workers);
+    }
+
+    @Override
+    public void onTick(LiveMarketSnapshot tick) {
+        if (tick == null) {
+            return;
+        }
+        ticksIn.increment();
+        Slot slot = slot(tick.getInstrumentKey());
+        if (slot.tick.getAndSet(tick) != null) {
+            conflatedTicks.increment();
+            slot.conflated.incrementAndGet();
+        }
+        markDirty(slot);
+    }
+
+    @Override
+    public void onDepth(OrderBookSnapshot depth) {
+        if (depth == null) {
+            return;
+        }
+        depthsIn.increment();
+        Slot slot = slot(depth.getInstrumentKey());
+        if (slot.depth.getAndSet(depth) != null) {
+            conflatedDepths.increment();
+            slot.conflated.incrementAndGet();
+        }
+        markDirty(slot);
+    }
+
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        downstream.onRawTick(tick);
+    }
+
+    @Override
+    public void onRawDepth(OrderBookSnapshot depth) {
+        downstream.onRawDepth(depth);
+    }
+
+    @Override
+    public void onConnected() {
+        downstream.onConnected();
+    }
+
+    @Override
+    public void onDisconnected() {
+        downstream.onDisconnected();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        downstream.onError(error);
+    }
+
+    private Slot slot(String key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(key,
+                    k -> new Slot(k, workers[Math.floorMod(k.hashCode(), workers.length)]));
+        }
+        return slot;
+    }
+
+    private void markDirty(Slot slot) {
+        if (slot.dirty.compareAndSet(false, true)) {
+            slot.dirtySince = System.nanoTime();
+            slot.worker.enqueue(slot);
+        }
+    }
+
+    /**
+     * Updates overwritten before delivery for one instrument.
+     */
+    public long getConflatedCount(String instrumentKey) {
+        Slot slot = slots.get(instrumentKey);
+        return slot != null ? slot.conflated.get() : 0;
+    }
+
+    public Statistics getStatistics() {
+        long pending = 0;
+        for (Worker worker : workers) {
+            pending += worker.queue.size();
+        }
+        long delivered = passes.sum();
+        return new Statistics(
+                slots.size(),
+                ticksIn.sum(),
+                depthsIn.sum(),
+                ticksOut.sum(),
+                depthsOut.sum(),
+                conflatedTicks.sum(),
+                conflatedDepths.sum(),
+                pending,
+                delivered == 0 ? 0 : lagNanos.sum() / delivered / 1_000.0,
+                maxLagNanos.get() / 1_000.0);
+    }
+
+    @Override
+    public void close() {
+        for (Worker worker : workers) {
+            worker.running = false;
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Latest-value slot for one instrument.
+     */
+    private static final class Slot {
+        final String key;
+        final Worker worker;
+        final AtomicReference<LiveMarketSnapshot> tick = new AtomicReference<>();
+        final AtomicReference<OrderBookSnapshot> depth = new AtomicReference<>();
+        final AtomicBoolean dirty = new AtomicBoolean();
+        final AtomicLong conflated = new AtomicLong();
+        volatile long dirtySince;
+
+        Slot(String key, Worker worker) {
+            this.key = key;
+            this.worker = worker;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private static final int SPIN_TRIES = 200;
+
+        final MpscRing<Slot> queue = new MpscRing<>(QUEUE_CAPACITY);
+        final Thread thread;
+        volatile boolean running = true;
+        volatile boolean parked;
+
+        Worker(String name) {
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void enqueue(Slot slot) {
+            // A slot is queued at most once, so this only spins past QUEUE_CAPACITY instruments
+            while (!queue.offer(slot)) {
+                Thread.onSpinWait();
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Slot slot = queue.poll();
+                if (slot != null) {
+                    drain(slot);
+                    idle = 0;
+                    continue;
+                }
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                parked = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+
+        private void drain(Slot slot) {
+            long since = slot.dirtySince;
+            // Clear before taking values: a later overwrite re-queues the slot
+            slot.dirty.set(false);
+            LiveMarketSnapshot tick = slot.tick.getAndSet(null);
+            OrderBookSnapshot depth = slot.depth.getAndSet(null);
+            try {
+                if (tick != null) {
+                    downstream.onTick(tick);
+                    ticksOut.increment();
+                }
+                if (depth != null) {
+                    downstream.onDepth(depth);
+                    depthsOut.increment();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Conflated delivery failed for {}: {}", slot.key, e.getMessage(), e);
+            }
+            long lag = System.nanoTime() - since;
+            passes.increment();
+            lagNanos.add(lag);
+            if (lag > maxLagNanos.get()) {
+                maxLagNanos.accumulateAndGet(lag, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Conflation metrics snapshot.
+     *
+     * @param instruments     instruments seen
+     * @param ticksIn         ticks received from the feed
+     * @param depthsIn        depth updates received from the feed
+     * @param ticksOut        ticks delivered downstream
+     * @param depthsOut       depth updates delivered downstream
+     * @param conflatedTicks  ticks overwritten before delivery
+     * @param conflatedDepths depth updates overwritten before delivery
+     * @param pending         instruments waiting for delivery
+     * @param avgLagMicros    mean time from first dirty update to delivery
+     * @param maxLagMicros    worst time from first dirty update to delivery
+     */
+    public record Statistics(int instruments, long ticksIn, long depthsIn, long ticksOut, long depthsOut,
+            long conflatedTicks, long conflatedDepths, long pending, double avgLagMicros, double maxLagMicros) {
+
+        /** Share of received updates that were conflated away, 0-100 */
+        public double conflationPercent() {
+            long in = ticksIn + depthsIn;
+            return in == 0 ? 0 : (conflatedTicks + conflatedDepths) * 100.0 / in;
+        }
+    }
+}
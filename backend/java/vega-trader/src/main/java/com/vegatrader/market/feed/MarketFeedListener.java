@@ -10,7 +10,8 @@ import com.vegatrader.market.dto.OrderBookSnapshot;
 public interface MarketFeedListener {
 
     /**
-     * Called on each tick update.
+     * Called on each tick update. Feeds may conflate: a slow listener receives
+     * the latest snapshot per instrument rather than every tick.
      * 
      * @param tick Latest market snapshot
      */
@@ -23,6 +24,25 @@ public interface MarketFeedListener {
      */
     void onDepth(OrderBookSnapshot depth);
 
+    /**
+     * Called for every tick on the feed thread, before any conflation. Only
+     * consumers that must not miss intermediate ticks should do work here;
+     * keep it cheap, it delays the feed.
+     *
+     * @param tick Market snapshot, unconflated
+     */
+    default void onRawTick(LiveMarketSnapshot tick) {
+    }
+
+    /**
+     * Called for every depth update on the feed thread, before any
+     * conflation.
+     *
+     * @param depth Order book snapshot, unconflated
+     */
+    default void onRawDepth(OrderBookSnapshot depth) {
+    }
+
     /**
      * Called on connection established.
      */
@@ -0,0 +1,120 @@
+package com.vegatrader.market.journal;
+
+import com.vegatrader.market.depth.model.DepthSide;
+import com.vegatrader.market.depth.model.L30OrderBook;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Decodes canonical L2 snapshot records written by
+ * {@link CanonicalSnapshotWriter}.
+ *
+ * <p>
+ * The writer stores fields in native byte order via Unsafe, so the reader
+ * uses {@link ByteOrder#nativeOrder()}. Prices are stored as price * 100.
+ */
+public final class CanonicalSnapshotReader {
+
+    public static final int RECORD_SIZE = EventHeader.BYTES + L2SnapshotPayload.BYTES;
+
+    private CanonicalSnapshotReader() {
+    }
+
+    /**
+     * Reads the last complete record of a journal file.
+     *
+     * @return decoded book, or null if the file holds no complete record
+     */
+    public static L30OrderBook readLast(Path file, String instrumentKey) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long records = channel.size() / RECORD_SIZE;
+            if (records == 0) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            long position = (records - 1) * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            return decode(buffer, instrumentKey);
+        }
+    }
+
+    /**
+     * Decodes every complete record of a journal file, in order.
+     *
+     * @return number of books passed to the consumer
+     */
+    public static long forEach(Path file, String instrumentKey, Consumer<L30OrderBook> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long records = channel.size() / RECORD_SIZE;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            long count = 0;
+            for (long i = 0; i < records; i++) {
+                buffer.clear();
+                long position = i * RECORD_SIZE;
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        return count;
+                    }
+                }
+                buffer.flip();
+                L30OrderBook book = decode(buffer, instrumentKey);
+                if (book != null) {
+                    consumer.accept(book);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Decodes one record (header + payload), e.g. a DB snapshot blob.
+     *
+     * @return decoded book, or null if the bytes are not a canonical L2 record
+     */
+    public static L30OrderBook decode(byte[] record, String instrumentKey) {
+        if (record == null || record.length != RECORD_SIZE) {
+            return null;
+        }
+        return decode(ByteBuffer.wrap(record), instrumentKey);
+    }
+
+    private static L30OrderBook decode(ByteBuffer record, String instrumentKey) {
+        ByteBuffer buf = record.order(ByteOrder.nativeOrder());
+        int base = buf.position();
+        if (buf.getShort(base + EventHeader.TYPE_OFFSET) != EventHeader.EVT_L2_SNAPSHOT) {
+            return null;
+        }
+        int payload = base + EventHeader.BYTES;
+        L30OrderBook book = L30OrderBook.builder()
+                .instrumentKey(instrumentKey)
+                .exchangeTs(buf.getLong(base + EventHeader.EX_TS_OFFSET))
+                .build();
+        readSide(buf, payload + L2SnapshotPayload.OFF_BIDS, book.bids());
+        readSide(buf, payload + L2SnapshotPayload.OFF_ASKS, book.asks());
+        return book;
+    }
+
+    private static void readSide(ByteBuffer buf, int start, DepthSide side) {
+        side.clear();
+        for (int i = 0; i < L2SnapshotPayload.DEPTH; i++) {
+            int level = start + i * L2SnapshotPayload.LEVEL_BYTES;
+            long qty = buf.getLong(level + L2SnapshotPayload.LEVEL_OFF_QTY);
+            if (qty <= 0) {
+                break; // zero-filled tail
+            }
+            side.add(buf.getLong(level + L2SnapshotPayload.LEVEL_OFF_PRICE), qty, 0);
+        }
+    }
+}
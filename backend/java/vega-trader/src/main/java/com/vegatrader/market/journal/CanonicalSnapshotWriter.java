@@ -1,6 +1,6 @@
 package com.vegatrader.market.journal;
 
-import com.vegatrader.market.depth.model.BookLevel;
+import com.vegatrader.market.depth.model.DepthSide;
 import com.vegatrader.market.depth.model.L30OrderBook;
 import sun.misc.Unsafe;
 
@@ -91,33 +91,26 @@ public final class CanonicalSnapshotWriter implements AutoCloseable {
         U.putByte(payloadAddr + L2SnapshotPayload.OFF_DEPTH, (byte) 30);
 
         // Bids
-        writeSide(payloadAddr + L2SnapshotPayload.OFF_BIDS, book.getBids());
+        writeSide(payloadAddr + L2SnapshotPayload.OFF_BIDS, book.bids());
 
         // Asks
-        writeSide(payloadAddr + L2SnapshotPayload.OFF_ASKS, book.getAsks());
+        writeSide(payloadAddr + L2SnapshotPayload.OFF_ASKS, book.asks());
 
         // 3. FLUSH
         directBuffer.clear();
         channel.write(directBuffer);
     }
 
-    private void writeSide(long startAddr, java.util.List<BookLevel> levels) {
-        int size = levels != null ? Math.min(levels.size(), L2SnapshotPayload.DEPTH) : 0;
+    private void writeSide(long startAddr, DepthSide levels) {
+        int size = Math.min(levels.size(), L2SnapshotPayload.DEPTH);
 
         for (int i = 0; i < L2SnapshotPayload.DEPTH; i++) {
             long levelAddr = startAddr + (i * L2SnapshotPayload.LEVEL_BYTES);
 
             if (i < size) {
-                BookLevel level = levels.get(i);
-                // Assumption: Price and Qty are safe to convert to long (scaled)
-                // In BookLevel, price is double, qty is long.
-                // We multiply price by 100 for scaling as per spec (or 10000)
-                // suggestion2.md says "price * 100", lets use that.
-                long scaledPrice = (long) (level.getPrice() * 100);
-                long qty = level.getQuantity();
-
-                U.putLong(levelAddr + L2SnapshotPayload.LEVEL_OFF_PRICE, scaledPrice);
-                U.putLong(levelAddr + L2SnapshotPayload.LEVEL_OFF_QTY, qty);
+                // Prices are already scaled by DepthSide.PRICE_SCALE (x100)
+                U.putLong(levelAddr + L2SnapshotPayload.LEVEL_OFF_PRICE, levels.price(i));
+                U.putLong(levelAddr + L2SnapshotPayload.LEVEL_OFF_QTY, levels.qty(i));
             } else {
                 // Zero fill empty levels
                 U.putLong(levelAddr + L2SnapshotPayload.LEVEL_OFF_PRICE, 0);
@@ -14,8 +14,11 @@ import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Manages Canonical Snapshot Writers per instrument.
@@ -35,6 +38,16 @@ public class JournalManager implements AutoCloseable {
     // Map: InstrumentKey -> Writer
     private final Map<String, CanonicalSnapshotWriter> writers = new ConcurrentHashMap<>();
 
+    private final Path baseDir;
+
+    public JournalManager() {
+        this(Paths.get(BASE_DIR));
+    }
+
+    public JournalManager(Path baseDir) {
+        this.baseDir = baseDir;
+    }
+
     // Cache current hour to detect rotation need (simplification for now)
     // Real implementation checks per write or uses a scheduled task to rotate.
     // For low latency, we check sparingly or assume single writer thread.
@@ -71,7 +84,7 @@ public class JournalManager implements AutoCloseable {
             String dateStr = now.format(DATE_FORMAT);
             String hourStr = now.format(HOUR_FORMAT);
 
-            Path dir = Paths.get(BASE_DIR, segment, token);
+            Path dir = instrumentDir(segment, token);
             Files.createDirectories(dir);
 
             String filename = String.format("%s_%s.bin", dateStr, hourStr);
@@ -92,6 +105,33 @@ public class JournalManager implements AutoCloseable {
         }
     }
 
+    /**
+     * Reads the most recent canonical snapshot journaled for an instrument.
+     *
+     * @return last book from the newest hourly file, or null if none
+     */
+    public L30OrderBook readLatest(String instrumentKey) {
+        String[] parts = instrumentKey.split("\\|");
+        Path dir = instrumentDir(parts.length > 0 ? parts[0] : "UNKNOWN", parts.length > 1 ? parts[1] : "UNKNOWN");
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        // yyyy-MM-dd_HH.bin sorts chronologically by name
+        try (Stream<Path> files = Files.list(dir)) {
+            Optional<Path> newest = files
+                    .filter(p -> p.getFileName().toString().endsWith(".bin"))
+                    .max(Comparator.comparing(p -> p.getFileName().toString()));
+            return newest.isPresent() ? CanonicalSnapshotReader.readLast(newest.get(), instrumentKey) : null;
+        } catch (IOException e) {
+            logger.warn("Failed to read journal for {}: {}", instrumentKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path instrumentDir(String segment, String token) {
+        return baseDir.resolve(segment).resolve(token);
+    }
+
     // Naive parsing - in real app use Instrument Cache
     private int parseInstrumentId(String key) {
         try {
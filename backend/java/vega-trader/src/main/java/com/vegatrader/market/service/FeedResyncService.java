@@ -0,0 +1,312 @@
+package com.vegatrader.market.service;
+
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.depth.model.DepthSide;
+import com.vegatrader.market.depth.model.L30OrderBook;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.journal.CanonicalSnapshotReader;
+import com.vegatrader.market.journal.JournalManager;
+import com.vegatrader.market.subscription.SubscriptionRegistry;
+import com.vegatrader.market.websocket.MarketBroadcaster;
+import com.vegatrader.upstox.api.websocket.persistence.DBSnapshotHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detects feed gaps and keeps consumers on the last known state until the
+ * feed catches up.
+ *
+ * <p>
+ * Gap sources:
+ * <ul>
+ * <li>socket drop ({@link #onDisconnected()})</li>
+ * <li>stalled feed: no tick for {@code market.resync.stall-ms} while
+ * subscribed</li>
+ * <li>per-instrument exchange-timestamp regression on the live feed</li>
+ * </ul>
+ *
+ * <p>
+ * Affected instruments are flagged stale: stale-flagged copies of the cached
+ * tick/depth replace them in the cache and are pushed to the UI straight
+ * away (the cached objects themselves are shared and never changed), so local
+ * consumers keep a usable picture instead of waiting a full snapshot round
+ * trip. Instruments with nothing cached are warmed from the canonical journal
+ * ({@link JournalManager}) or, failing that, the DB snapshot store. The first
+ * tick after a reconnect (the {@code initial_feed} snapshot) is authoritative
+ * and clears the flag; a regression only clears once the feed is back at or
+ * past the last accepted exchange timestamp.
+ *
+ * @since 4.9.0
+ */
+@Service
+public class FeedResyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedResyncService.class);
+
+    /** Why an instrument is stale. */
+    public enum StaleReason {
+        DISCONNECT,
+        STALL,
+        REGRESSION,
+        /** Served from a canonical snapshot, no live tick yet */
+        SNAPSHOT
+    }
+
+    private final MarketCacheService cache;
+    private final SubscriptionRegistry registry;
+    private final JournalManager journalManager;
+    private final DBSnapshotHandler dbSnapshotHandler;
+    private final MarketBroadcaster broadcaster;
+    private final long stallMillis;
+
+    private final Map<String, StaleReason> stale = new ConcurrentHashMap<>();
+    private volatile long lastTickAt;
+    private volatile boolean connected;
+    private volatile boolean stalled;
+
+    private final AtomicLong gaps = new AtomicLong();
+    private final AtomicLong regressions = new AtomicLong();
+    private final AtomicLong resynced = new AtomicLong();
+    private final AtomicLong warmedFromJournal = new AtomicLong();
+    private final AtomicLong warmedFromDb = new AtomicLong();
+
+    @Autowired
+    public FeedResyncService(MarketCacheService cache, SubscriptionRegistry registry,
+            JournalManager journalManager,
+            DBSnapshotHandler dbSnapshotHandler,
+            MarketBroadcaster broadcaster,
+            @Value("${market.resync.stall-ms:10000}") long stallMillis) {
+        this.cache = cache;
+        this.registry = registry;
+        this.journalManager = journalManager;
+        this.dbSnapshotHandler = dbSnapshotHandler;
+        this.broadcaster = broadcaster;
+        this.stallMillis = stallMillis;
+    }
+
+    // ---------------------------------------------------------------
+    // Feed events
+    // ---------------------------------------------------------------
+
+    /**
+     * Vets a tick before it reaches caches and consumers.
+     *
+     * @return false if the tick must be dropped (timestamp regression)
+     */
+    public boolean acceptTick(LiveMarketSnapshot tick) {
+        lastTickAt = System.currentTimeMillis();
+        stalled = false;
+
+        String key = tick.getInstrumentKey();
+        StaleReason reason = stale.get(key);
+        long ts = tick.getExchangeTimestamp();
+        LiveMarketSnapshot previous = cache.getTick(key);
+        long last = previous != null ? previous.getExchangeTimestamp() : 0;
+
+        if (ts > 0 && ts < last && (reason == null || reason == StaleReason.REGRESSION)) {
+            // Live feed went backwards; after a reconnect the snapshot wins instead
+            if (reason == null) {
+                regressions.incrementAndGet();
+                markStale(List.of(key), StaleReason.REGRESSION);
+                logger.warn("Exchange timestamp regression on {}: {} < {}", key, ts, last);
+            }
+            return false;
+        }
+
+        if (reason != null && stale.remove(key) != null) {
+            resynced.incrementAndGet();
+        }
+        tick.setStale(false);
+        return true;
+    }
+
+    /**
+     * Vets a depth update; drops it while a regression is unresolved.
+     */
+    public boolean acceptDepth(OrderBookSnapshot depth) {
+        String key = depth.getInstrumentKey();
+        if (stale.get(key) == StaleReason.REGRESSION) {
+            LiveMarketSnapshot tick = cache.getTick(key);
+            if (tick != null && depth.getTimestamp() > 0 && depth.getTimestamp() < tick.getExchangeTimestamp()) {
+                return false;
+            }
+        }
+        depth.setStale(false);
+        return true;
+    }
+
+    /**
+     * Socket dropped: everything subscribed is stale until resynced.
+     */
+    public void onDisconnected() {
+        connected = false;
+        Set<String> active = registry.getActiveSubscriptions();
+        if (!active.isEmpty()) {
+            gaps.incrementAndGet();
+            markStale(active, StaleReason.DISCONNECT);
+        }
+    }
+
+    /**
+     * Feed (re)connected: warm what is missing so consumers have a state
+     * before the initial feed arrives.
+     */
+    public void onConnected() {
+        connected = true;
+        lastTickAt = System.currentTimeMillis();
+        stalled = false;
+        Set<String> active = registry.getActiveSubscriptions();
+        warm(active);
+        markStale(active, StaleReason.DISCONNECT);
+    }
+
+    /**
+     * Warms caches for instruments with nothing cached from the newest
+     * canonical snapshot. Warmed entries are flagged stale.
+     *
+     * @return number of instruments warmed
+     */
+    public int warm(Collection<String> instrumentKeys) {
+        int warmed = 0;
+        for (String key : instrumentKeys) {
+            if (cache.getDepth(key) != null) {
+                continue;
+            }
+            OrderBookSnapshot depth = loadSnapshot(key);
+            if (depth == null) {
+                continue;
+            }
+            depth.setStale(true);
+            cache.updateDepth(depth);
+            stale.putIfAbsent(key, StaleReason.SNAPSHOT);
+            if (broadcaster != null) {
+                broadcaster.broadcastDepth(depth);
+            }
+            warmed++;
+        }
+        if (warmed > 0) {
+            logger.info("Warmed {} instruments from canonical snapshots", warmed);
+        }
+        return warmed;
+    }
+
+    /**
+     * Stall watchdog: a connected feed with subscriptions but no ticks.
+     */
+    @Scheduled(fixedDelayString = "${market.resync.check-ms:1000}")
+    public void checkStall() {
+        if (!connected || stalled || lastTickAt == 0) {
+            return;
+        }
+        long silentFor = System.currentTimeMillis() - lastTickAt;
+        if (silentFor <= stallMillis) {
+            return;
+        }
+        Set<String> active = registry.getActiveSubscriptions();
+        if (active.isEmpty()) {
+            return;
+        }
+        stalled = true;
+        gaps.incrementAndGet();
+        logger.warn("Market feed stalled: no ticks for {} ms, marking {} instruments stale", silentFor,
+                active.size());
+        markStale(active, StaleReason.STALL);
+    }
+
+    // ---------------------------------------------------------------
+    // Staleness
+    // ---------------------------------------------------------------
+
+    public boolean isStale(String instrumentKey) {
+        return stale.containsKey(instrumentKey);
+    }
+
+    /**
+     * Stale instruments and why.
+     */
+    public Map<String, StaleReason> getStaleInstruments() {
+        return Map.copyOf(stale);
+    }
+
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+                "gaps", gaps.get(),
+                "regressions", regressions.get(),
+                "resynced", resynced.get(),
+                "stale", (long) stale.size(),
+                "warmedFromJournal", warmedFromJournal.get(),
+                "warmedFromDb", warmedFromDb.get());
+    }
+
+    /**
+     * Flags instruments stale and republishes their cached state with the flag
+     * set, so the UI sees the change without waiting for the feed.
+     */
+    private void markStale(Collection<String> instrumentKeys, StaleReason reason) {
+        for (String key : instrumentKeys) {
+            if (stale.putIfAbsent(key, reason) != null) {
+                continue;
+            }
+            // A live update that races in wins; it clears the flag anyway
+            LiveMarketSnapshot tick = cache.getTick(key);
+            if (tick != null) {
+                LiveMarketSnapshot flagged = tick.withStale(true);
+                if (cache.replaceTick(tick, flagged) && broadcaster != null) {
+                    broadcaster.broadcastTick(flagged);
+                }
+            }
+            OrderBookSnapshot depth = cache.getDepth(key);
+            if (depth != null) {
+                OrderBookSnapshot flagged = depth.withStale(true);
+                if (cache.replaceDepth(depth, flagged) && broadcaster != null) {
+                    broadcaster.broadcastDepth(flagged);
+                }
+            }
+        }
+    }
+
+    private OrderBookSnapshot loadSnapshot(String key) {
+        if (journalManager != null) {
+            L30OrderBook book = journalManager.readLatest(key);
+            if (book != null) {
+                warmedFromJournal.incrementAndGet();
+                return toDepth(book);
+            }
+        }
+        if (dbSnapshotHandler != null) {
+            L30OrderBook book = CanonicalSnapshotReader.decode(dbSnapshotHandler.getLatestSnapshot(key), key);
+            if (book != null) {
+                warmedFromDb.incrementAndGet();
+                return toDepth(book);
+            }
+        }
+        return null;
+    }
+
+    private static OrderBookSnapshot toDepth(L30OrderBook book) {
+        return OrderBookSnapshot.builder()
+                .instrumentKey(book.getInstrumentKey())
+                .timestamp(book.getExchangeTs())
+                .bids(toLevels(book.bids()))
+                .asks(toLevels(book.asks()))
+                .build();
+    }
+
+    private static List<DepthLevel> toLevels(DepthSide side) {
+        List<DepthLevel> out = new ArrayList<>(side.size());
+        for (int i = 0; i < side.size(); i++) {
+            out.add(new DepthLevel(side.priceAsDouble(i), side.qty(i), side.orders(i)));
+        }
+        return out;
+    }
+}
@@ -1,15 +1,19 @@
 package com.vegatrader.market.service;
 
+import com.vegatrader.market.bar.BarEngine;
 import com.vegatrader.market.cache.MarketCacheService;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.dto.OrderBookSnapshot;
 import com.vegatrader.market.feed.FeedMode;
 import com.vegatrader.market.feed.MarketFeed;
 import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.market.subscription.SubscriptionReconciler;
 import com.vegatrader.market.subscription.SubscriptionRegistry;
 import com.vegatrader.market.websocket.MarketBroadcaster;
 import com.vegatrader.alert.AlertEngine;
+import com.vegatrader.indicator.IndicatorEngine;
 import com.vegatrader.strategy.StrategyEngine;
+import com.vegatrader.execution.paper.PaperExchange;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +39,12 @@ public class MarketSubscriptionManager implements MarketFeedListener {
     @Autowired
     private SubscriptionRegistry registry;
 
+    @Autowired
+    private SubscriptionReconciler reconciler;
+
+    @Autowired
+    private FeedResyncService resyncService;
+
     @Autowired
     private MarketCacheService cache;
 
@@ -44,10 +54,19 @@ public class MarketSubscriptionManager implements MarketFeedListener {
     @Autowired
     private AlertEngine alertEngine;
 
+    @Autowired
+    private BarEngine barEngine;
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
     @Autowired
     @Lazy // Circular dependency protection
     private StrategyEngine strategyEngine;
 
+    @Autowired(required = false)
+    private PaperExchange paperExchange;
+
     @PostConstruct
     public void init() {
         logger.info("Initializing Market Subscription Manager");
@@ -57,15 +76,15 @@ public class MarketSubscriptionManager implements MarketFeedListener {
 
     /**
      * Subscribe client to instruments.
+     *
+     * <p>
+     * The feed is updated asynchronously by the {@link SubscriptionReconciler};
+     * every requested instrument is marked so mode upgrades also reach it.
      */
     public Set<String> subscribe(String clientId, Set<String> instruments, FeedMode mode) {
         Set<String> newSubs = registry.subscribe(clientId, instruments, mode);
-
-        if (!newSubs.isEmpty()) {
-            logger.info("Subscribing to {} new instruments on feed", newSubs.size());
-            marketFeed.subscribe(newSubs, mode);
-        }
-
+        reconciler.markDirty(instruments);
+        resyncService.warm(newSubs);
         return newSubs;
     }
 
@@ -74,20 +93,17 @@ public class MarketSubscriptionManager implements MarketFeedListener {
      */
     public Set<String> unsubscribe(String clientId, Set<String> instruments) {
         Set<String> removed = registry.unsubscribe(clientId, instruments);
-
-        if (!removed.isEmpty()) {
-            logger.info("Unsubscribing from {} instruments on feed", removed.size());
-            marketFeed.unsubscribe(removed);
-        }
-
+        reconciler.markDirty(removed);
         return removed;
     }
 
     // MarketFeedListener Implementation
+    // onTick/onDepth may arrive conflated (latest state per instrument) from
+    // the feed's dispatcher; onRawTick/onRawDepth carry every update.
 
     @Override
     public void onTick(LiveMarketSnapshot tick) {
-        if (tick == null)
+        if (tick == null || !resyncService.acceptTick(tick))
             return;
 
         // Update Cache
@@ -105,9 +121,42 @@ public class MarketSubscriptionManager implements MarketFeedListener {
         broadcaster.broadcastTick(tick);
     }
 
+    /**
+     * Every tick, on the feed thread: aggregated into bars, fed to tick-mode
+     * indicators and queued to strategies that opted out of conflation.
+     * They may run ahead of the cache.
+     */
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        if (tick == null) {
+            return;
+        }
+        if (paperExchange != null) {
+            paperExchange.onRawTick(tick);
+        }
+        barEngine.onRawTick(tick);
+        indicatorEngine.onRawTick(tick);
+        if (strategyEngine != null) {
+            strategyEngine.onRawTick(tick);
+        }
+    }
+
+    @Override
+    public void onRawDepth(OrderBookSnapshot depth) {
+        if (depth == null) {
+            return;
+        }
+        if (paperExchange != null) {
+            paperExchange.onRawDepth(depth);
+        }
+        if (strategyEngine != null) {
+            strategyEngine.onRawDepth(depth);
+        }
+    }
+
     @Override
     public void onDepth(OrderBookSnapshot depth) {
-        if (depth == null)
+        if (depth == null || !resyncService.acceptDepth(depth))
             return;
 
         // Update Cache
@@ -130,11 +179,14 @@ public class MarketSubscriptionManager implements MarketFeedListener {
         logger.info("Market Feed Connected");
         broadcaster.broadcastAll("SYSTEM", "Market Feed Connected");
 
-        // Resubscribe if we had active subscriptions (recovery logic)
+        // Serve last known state (flagged stale) until the initial feed lands
+        resyncService.onConnected();
+
+        // Resubscribe if we had active subscriptions (recovery logic), each in its own mode
         Set<String> active = registry.getActiveSubscriptions();
         if (!active.isEmpty()) {
             logger.info("Resubscribing to {} instruments after reconnect", active.size());
-            marketFeed.subscribe(active, FeedMode.FULL);
+            reconciler.resync();
         }
     }
 
@@ -142,6 +194,7 @@ public class MarketSubscriptionManager implements MarketFeedListener {
     public void onDisconnected() {
         logger.warn("Market Feed Disconnected");
         broadcaster.broadcastAll("SYSTEM", "Market Feed Disconnected");
+        resyncService.onDisconnected();
     }
 
     @Override
@@ -0,0 +1,220 @@
+package com.vegatrader.market.subscription;
+
+import com.vegatrader.market.feed.FeedMode;
+import com.vegatrader.market.feed.MarketFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces client subscription changes into batched upstream requests.
+ *
+ * <p>
+ * Callers mark instruments dirty after updating the {@link SubscriptionRegistry}.
+ * The first mark in a quiet period arms a timer; when it fires (default 50 ms)
+ * the reconciler compares the registry's desired state for every dirty
+ * instrument with what was last sent upstream and issues at most one
+ * unsubscribe plus one subscribe per mode. Mode upgrades go out as a subscribe
+ * in the new mode. A burst of sessions at market open therefore costs a
+ * handful of frames instead of one per client.
+ *
+ * <p>
+ * {@link #resync()} forgets the upstream state and re-sends the full set,
+ * grouped by each instrument's own mode, after a reconnect.
+ *
+ * <p>
+ * Instruments in a request that fails stay dirty and are retried with
+ * exponential backoff ({@value #RETRY_MIN_MS} ms doubling up to
+ * {@value #RETRY_MAX_MS} ms) until a flush succeeds.
+ *
+ * @since 4.9.0
+ */
+@Component
+public class SubscriptionReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionReconciler.class);
+
+    static final long RETRY_MIN_MS = 250;
+    static final long RETRY_MAX_MS = 30_000;
+
+    private final MarketFeed marketFeed;
+    private final SubscriptionRegistry registry;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+
+    /** Instruments changed since the last flush */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean armed = new AtomicBoolean();
+
+    /** Upstream state as last sent; guarded by this */
+    private final Map<String, FeedMode> upstream = new HashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong requestsSent = new AtomicLong();
+    private final AtomicLong changesCoalesced = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+
+    /** Flushes in a row with a failed request; guarded by this */
+    private int consecutiveFailures;
+
+    @Autowired
+    public SubscriptionReconciler(MarketFeed marketFeed, SubscriptionRegistry registry,
+            @Value("${market.subscription.coalesce-ms:50}") long windowMillis) {
+        this.marketFeed = marketFeed;
+        this.registry = registry;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "market-sub-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Records instruments whose desired state may have changed and arms the
+     * flush timer if it is not already running.
+     */
+    public void markDirty(Collection<String> instrumentKeys) {
+        if (instrumentKeys == null || instrumentKeys.isEmpty()) {
+            return;
+        }
+        dirty.addAll(instrumentKeys);
+        changesCoalesced.addAndGet(instrumentKeys.size());
+        if (armed.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushQuietly, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Re-sends every active subscription, e.g. after the feed reconnects.
+     */
+    public void resync() {
+        synchronized (this) {
+            upstream.clear();
+        }
+        markDirty(registry.getActiveSubscriptions());
+    }
+
+    /**
+     * Sends the net diff for all dirty instruments now. Instruments of a
+     * failed request are put back as dirty and a retry is scheduled.
+     *
+     * @return number of upstream requests sent
+     */
+    public synchronized int flush() {
+        armed.set(false);
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+
+        List<String> batch = new ArrayList<>(dirty);
+        dirty.removeAll(batch);
+
+        Set<String> toUnsubscribe = new HashSet<>();
+        Map<FeedMode, Set<String>> toSubscribe = new EnumMap<>(FeedMode.class);
+        for (String key : batch) {
+            FeedMode desired = registry.hasSubscribers(key) ? registry.getModeForInstrument(key) : null;
+            FeedMode current = upstream.get(key);
+            if (desired == current) {
+                continue;
+            }
+            if (desired == null) {
+                toUnsubscribe.add(key);
+            } else {
+                toSubscribe.computeIfAbsent(desired, m -> new HashSet<>()).add(key);
+            }
+        }
+
+        int requests = 0;
+        List<String> failed = new ArrayList<>();
+        if (!toUnsubscribe.isEmpty()) {
+            try {
+                marketFeed.unsubscribe(toUnsubscribe);
+                toUnsubscribe.forEach(upstream::remove);
+                requests++;
+            } catch (RuntimeException e) {
+                logger.error("Batched unsubscribe of {} instruments failed: {}", toUnsubscribe.size(), e.getMessage());
+                failedRequests.incrementAndGet();
+                failed.addAll(toUnsubscribe);
+            }
+        }
+        for (Map.Entry<FeedMode, Set<String>> entry : toSubscribe.entrySet()) {
+            try {
+                marketFeed.subscribe(entry.getValue(), entry.getKey());
+                for (String key : entry.getValue()) {
+                    upstream.put(key, entry.getKey());
+                }
+                requests++;
+            } catch (RuntimeException e) {
+                logger.error("Batched subscribe of {} instruments ({}) failed: {}",
+                        entry.getValue().size(), entry.getKey(), e.getMessage());
+                failedRequests.incrementAndGet();
+                failed.addAll(entry.getValue());
+            }
+        }
+
+        if (failed.isEmpty()) {
+            consecutiveFailures = 0;
+        } else {
+            dirty.addAll(failed);
+            scheduleRetry(failed.size());
+        }
+
+        flushes.incrementAndGet();
+        requestsSent.addAndGet(requests);
+        if (requests > 0) {
+            logger.info("Subscription flush: {} dirty -> unsubscribe {}, subscribe {} in {} request(s)",
+                    batch.size(), toUnsubscribe.size(),
+                    toSubscribe.values().stream().mapToInt(Set::size).sum(), requests);
+        }
+        return requests;
+    }
+
+    private void scheduleRetry(int instruments) {
+        long delay = Math.min(RETRY_MAX_MS, RETRY_MIN_MS << Math.min(consecutiveFailures, 7));
+        consecutiveFailures++;
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        armed.set(true);
+        scheduler.schedule(this::flushQuietly, delay, TimeUnit.MILLISECONDS);
+        logger.warn("Retrying {} instrument(s) in {} ms (attempt {})", instruments, delay, consecutiveFailures);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Subscription flush failed", e);
+        }
+    }
+
+    /**
+     * Instruments currently subscribed upstream, by mode.
+     */
+    public synchronized Map<String, FeedMode> getUpstreamState() {
+        return Map.copyOf(upstream);
+    }
+
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+                "flushes", flushes.get(),
+                "requestsSent", requestsSent.get(),
+                "changesCoalesced", changesCoalesced.get(),
+                "failedRequests", failedRequests.get(),
+                "pending", (long) dirty.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.vegatrader.market.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.alert.dto.AlertEvent;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.dto.OrderBookSnapshot;
 import com.vegatrader.market.subscription.SubscriptionRegistry;
@@ -31,6 +32,8 @@ public class MarketBroadcaster {
     /** Broadcast statistics */
     private final AtomicLong ticksBroadcast = new AtomicLong(0);
     private final AtomicLong depthsBroadcast = new AtomicLong(0);
+    private final AtomicLong alertsPushed = new AtomicLong(0);
+    private final AtomicLong alertsUndelivered = new AtomicLong(0);
     private final AtomicLong errors = new AtomicLong(0);
 
     public MarketBroadcaster(
@@ -108,6 +111,45 @@ public class MarketBroadcaster {
         }
     }
 
+    /**
+     * Push a triggered alert to the sessions of the rule's client.
+     * Sessions register with {@code SUBSCRIBE_ALERTS}; a client ID that is
+     * itself a session ID reaches that session directly.
+     *
+     * @param event Alert event
+     */
+    public void pushAlert(AlertEvent event) {
+        if (event == null || event.getClientId() == null)
+            return;
+
+        Set<String> sessionIds = webSocketHandler.getAlertSessions(event.getClientId());
+        if (sessionIds.isEmpty() && webSocketHandler.getSession(event.getClientId()) != null) {
+            sessionIds = Set.of(event.getClientId());
+        }
+        if (sessionIds.isEmpty()) {
+            alertsUndelivered.incrementAndGet();
+            logger.debug("No session for alert {} of client {}", event.getRuleId(), event.getClientId());
+            return;
+        }
+
+        try {
+            String json = objectMapper.writeValueAsString(Map.of(
+                    "type", "ALERT",
+                    "data", event));
+            TextMessage message = new TextMessage(json);
+
+            for (String sessionId : sessionIds) {
+                sendToClient(sessionId, message);
+            }
+
+            alertsPushed.incrementAndGet();
+
+        } catch (Exception e) {
+            logger.error("Error pushing alert {}", event.getRuleId(), e);
+            errors.incrementAndGet();
+        }
+    }
+
     /**
      * Broadcast to all connected clients (admin messages).
      * 
@@ -154,6 +196,8 @@ public class MarketBroadcaster {
         return Map.of(
                 "ticksBroadcast", ticksBroadcast.get(),
                 "depthsBroadcast", depthsBroadcast.get(),
+                "alertsPushed", alertsPushed.get(),
+                "alertsUndelivered", alertsUndelivered.get(),
                 "errors", errors.get(),
                 "connectedClients", (long) webSocketHandler.getSessionCount());
     }
@@ -1,6 +1,7 @@
 package com.vegatrader.market.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.market.subscription.SubscriptionReconciler;
 import com.vegatrader.market.subscription.SubscriptionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,11 +28,17 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
     /** Session ID -> WebSocketSession */
     private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
 
+    /** Alert client ID -> session IDs receiving that client's alerts */
+    private final Map<String, Set<String>> alertSessions = new ConcurrentHashMap<>();
+
     private final SubscriptionRegistry subscriptionRegistry;
+    private final SubscriptionReconciler reconciler;
     private final ObjectMapper objectMapper;
 
-    public MarketWebSocketHandler(SubscriptionRegistry subscriptionRegistry, ObjectMapper objectMapper) {
+    public MarketWebSocketHandler(SubscriptionRegistry subscriptionRegistry, SubscriptionReconciler reconciler,
+            ObjectMapper objectMapper) {
         this.subscriptionRegistry = subscriptionRegistry;
+        this.reconciler = reconciler;
         this.objectMapper = objectMapper;
     }
 
@@ -56,9 +63,11 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         String sessionId = session.getId();
         sessions.remove(sessionId);
+        removeAlertSession(sessionId);
 
         // Cleanup subscriptions for this client
         Set<String> removed = subscriptionRegistry.removeClient(sessionId);
+        reconciler.markDirty(removed);
 
         logger.info("WebSocket disconnected: {} (removed {} subs, remaining: {})",
                 sessionId, removed.size(), sessions.size());
@@ -80,6 +89,10 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
                 handleSubscribe(session, msg);
             } else if ("UNSUBSCRIBE".equals(type)) {
                 handleUnsubscribe(session, msg);
+            } else if ("SUBSCRIBE_ALERTS".equals(type)) {
+                handleSubscribeAlerts(session, msg);
+            } else if ("UNSUBSCRIBE_ALERTS".equals(type)) {
+                removeAlertSession(session.getId());
             } else if ("PING".equals(type)) {
                 session.sendMessage(new TextMessage("{\"type\":\"PONG\"}"));
             }
@@ -96,6 +109,7 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
             Set<String> instSet = new java.util.HashSet<>(instruments);
             subscriptionRegistry.subscribe(session.getId(), instSet,
                     com.vegatrader.market.feed.FeedMode.FULL);
+            reconciler.markDirty(instSet);
 
             session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
                     "type", "SUBSCRIBED",
@@ -107,13 +121,37 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
         @SuppressWarnings("unchecked")
         java.util.List<String> instruments = (java.util.List<String>) msg.get("instruments");
         Set<String> instSet = instruments != null ? new java.util.HashSet<>(instruments) : null;
-        subscriptionRegistry.unsubscribe(session.getId(), instSet);
+        reconciler.markDirty(subscriptionRegistry.unsubscribe(session.getId(), instSet));
 
         session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
                 "type", "UNSUBSCRIBED",
                 "instruments", instruments != null ? instruments : "all"))));
     }
 
+    private void handleSubscribeAlerts(WebSocketSession session, Map<String, Object> msg) throws IOException {
+        Object clientId = msg.get("clientId");
+        if (clientId == null) {
+            return;
+        }
+        alertSessions.compute(clientId.toString(), (k, ids) -> {
+            Set<String> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            updated.add(session.getId());
+            return updated;
+        });
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
+                "type", "ALERTS_SUBSCRIBED",
+                "clientId", clientId))));
+    }
+
+    private void removeAlertSession(String sessionId) {
+        for (String clientId : alertSessions.keySet()) {
+            alertSessions.computeIfPresent(clientId, (k, ids) -> {
+                ids.remove(sessionId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) {
         logger.error("WebSocket error for {}: {}", session.getId(), exception.getMessage());
@@ -133,6 +171,14 @@ public class MarketWebSocketHandler extends TextWebSocketHandler {
         return sessions.get(sessionId);
     }
 
+    /**
+     * Get sessions that asked for a client's alerts.
+     */
+    public Set<String> getAlertSessions(String clientId) {
+        Set<String> ids = alertSessions.get(clientId);
+        return ids != null ? ids : Set.of();
+    }
+
     /**
      * Get connected session count.
      */
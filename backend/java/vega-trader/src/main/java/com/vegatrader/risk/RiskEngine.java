@@ -1,10 +1,14 @@
 package com.vegatrader.risk;
 
+import com.vegatrader.domain.enums.OrderType;
 import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.upstox.api.instrument.index.IndexedInstrument;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
 import com.vegatrader.util.format.TextFormatter;
 import com.vegatrader.util.time.TimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -12,6 +16,8 @@ import org.springframework.stereotype.Component;
  * 
  * <p>
  * Uses TimeProvider and TextFormatter for deterministic, auditable execution.
+ * With an {@link InstrumentIndex} it also checks orders against the contract:
+ * lot size, freeze quantity and tick size.
  */
 @Component
 public class RiskEngine {
@@ -21,11 +27,18 @@ public class RiskEngine {
     private final TimeProvider timeProvider;
     private final TextFormatter formatter;
 
+    private InstrumentIndex instrumentIndex;
+
     public RiskEngine(TimeProvider timeProvider, TextFormatter formatter) {
         this.timeProvider = timeProvider;
         this.formatter = formatter;
     }
 
+    @Autowired(required = false)
+    public void setInstrumentIndex(InstrumentIndex instrumentIndex) {
+        this.instrumentIndex = instrumentIndex;
+    }
+
     /**
      * Validate an order request against current risk rules.
      * 
@@ -39,9 +52,31 @@ public class RiskEngine {
         // position limit check
 
         if (request.getQuantity() <= 0) {
-            log.warn("[{}] Risk validation failed: Quantity must be positive",
-                    formatter.formatInstant(timeProvider.now()));
-            throw new RiskException("Quantity must be positive");
+            reject("Quantity must be positive");
+        }
+        OrderType type = request.getOrderType();
+        if ((type == OrderType.LIMIT || type == OrderType.SL) && request.getPrice() <= 0) {
+            reject("Limit price must be positive");
+        }
+        if ((type == OrderType.SL || type == OrderType.SLM) && request.getTriggerPrice() <= 0) {
+            reject("Trigger price must be positive");
+        }
+
+        IndexedInstrument instrument = instrumentIndex != null ? instrumentIndex.get(request.getInstrumentKey())
+                : null;
+        if (instrument != null) {
+            if (request.getQuantity() % instrument.lotSize() != 0) {
+                reject("Quantity " + request.getQuantity() + " is not a multiple of lot size "
+                        + instrument.lotSize());
+            }
+            if (instrument.freezeQuantity() > 0 && request.getQuantity() > instrument.freezeQuantity()) {
+                reject("Quantity " + request.getQuantity() + " exceeds freeze quantity "
+                        + instrument.freezeQuantity());
+            }
+            if (!onTick(request.getPrice(), instrument.tickSize())
+                    || !onTick(request.getTriggerPrice(), instrument.tickSize())) {
+                reject("Price is not a multiple of tick size " + instrument.tickSize());
+            }
         }
 
         log.debug("[{}] Risk validation passed for order qty={}",
@@ -49,6 +84,19 @@ public class RiskEngine {
                 formatter.formatQuantity(request.getQuantity()));
     }
 
+    private void reject(String reason) {
+        log.warn("[{}] Risk validation failed: {}", formatter.formatInstant(timeProvider.now()), reason);
+        throw new RiskException(reason);
+    }
+
+    private static boolean onTick(double price, double tickSize) {
+        if (price <= 0 || tickSize <= 0) {
+            return true;
+        }
+        double ticks = price / tickSize;
+        return Math.abs(ticks - Math.rint(ticks)) < 1e-6;
+    }
+
     /**
      * Calculate current risk snapshot for a client.
      */
@@ -4,6 +4,9 @@ package com.vegatrader.service;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -16,9 +19,15 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * Uses SHA-256 hash of the access token as the lease key to support
  * token rotation and rolling upgrades.
+ *
+ * <p>
+ * One instance is shared by every feed (market data sessions and the
+ * portfolio stream), so a token can only back one connection at a time and
+ * a rotated token moves its lease instead of leaving a stale one behind.
  * 
  * @since 3.1.0
  */
+@Component
 public class TokenLeaseManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenLeaseManager.class);
@@ -32,6 +41,15 @@ public class TokenLeaseManager {
         this(tokenStorage, DEFAULT_LEASE_TIMEOUT_MS);
     }
 
+    /**
+     * Spring constructor; feed sessions hold their token for the trading day
+     * by default.
+     */
+    @Autowired
+    public TokenLeaseManager(@Value("${upstox.token.lease-timeout-ms:86400000}") long leaseTimeoutMs) {
+        this(null, leaseTimeoutMs);
+    }
+
     public TokenLeaseManager(TokenStorageService tokenStorage, long leaseTimeoutMs) {
         this.leaseTimeoutMs = leaseTimeoutMs;
         this.activeLeases = new ConcurrentHashMap<>();
@@ -69,11 +87,29 @@ public class TokenLeaseManager {
         return lease;
     }
 
+    /**
+     * Re-leases for the holder's current token: called on every (re)connect
+     * so a rotated token replaces the old lease and an unchanged one gets a
+     * fresh expiry.
+     *
+     * @param lease       the holder's current lease, or null
+     * @param apiName     the logical API name (for logging)
+     * @param accessToken the token the holder is about to connect with
+     * @return the new lease, or null if another holder has that token
+     */
+    public synchronized TokenLease renewLease(TokenLease lease, String apiName, String accessToken) {
+        if (lease != null) {
+            activeLeases.remove(lease.getTokenHash(), lease);
+        }
+        return acquireLease(apiName, accessToken);
+    }
+
     public synchronized void releaseLease(TokenLease lease) {
         if (lease == null)
             return;
-        activeLeases.remove(lease.getTokenHash());
-        logger.info("✓ Released lease for {}", lease.getApiName());
+        if (activeLeases.remove(lease.getTokenHash(), lease)) {
+            logger.info("✓ Released lease for {}", lease.getApiName());
+        }
     }
 
     private TokenLease findExpiredLease(long now) {
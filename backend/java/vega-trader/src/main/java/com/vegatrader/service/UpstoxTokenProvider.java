@@ -9,6 +9,9 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Database-backed Upstox access token provider.
  * 
@@ -132,6 +135,50 @@ public class UpstoxTokenProvider {
         throw new RuntimeException("No active WEBSOCKET token available. Please refresh tokens.");
     }
 
+    /**
+     * Lists WEBSOCKET* API names that currently hold an active token fresh enough
+     * for a handshake, preferred name first.
+     *
+     * <p>
+     * Used by the feed connection pool to open one session per token.
+     *
+     * @return usable API names, possibly empty
+     */
+    public List<String> getUsableWebSocketApiNames() {
+        List<String> names = new ArrayList<>(3);
+        if (preferredApiName.startsWith("WEBSOCKET")) {
+            names.add(preferredApiName);
+        }
+        for (int i = 1; i <= 3; i++) {
+            String wsName = "WEBSOCKET" + i;
+            if (!names.contains(wsName)) {
+                names.add(wsName);
+            }
+        }
+        names.removeIf(name -> {
+            UpstoxTokenEntity token = tokenStorageService.getToken(name).orElse(null);
+            return token == null || !token.isActive()
+                    || !isFreshEnough(token, com.vegatrader.upstox.auth.TokenCapability.MARKET_DATA_WS);
+        });
+        return names;
+    }
+
+    /**
+     * Gets the WebSocket token stored under a specific API name (no fallback).
+     *
+     * @param apiName e.g. "WEBSOCKET2"
+     * @return access token
+     * @throws RuntimeException if that token is missing, inactive or too old
+     */
+    public String getWebSocketToken(String apiName) {
+        UpstoxTokenEntity token = tokenStorageService.getToken(apiName).orElse(null);
+        if (token != null && token.isActive()
+                && isFreshEnough(token, com.vegatrader.upstox.auth.TokenCapability.MARKET_DATA_WS)) {
+            return token.getAccessToken();
+        }
+        throw new RuntimeException("No active " + apiName + " token available. Please refresh tokens.");
+    }
+
     private String getOptionChainToken() {
         // Try OPTIONCHAIN1, OPTIONCHAIN2
         for (int i = 1; i <= 2; i++) {
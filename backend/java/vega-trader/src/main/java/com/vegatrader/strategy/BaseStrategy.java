@@ -1,7 +1,14 @@
 package com.vegatrader.strategy;
 
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
 import com.vegatrader.execution.ExecutionGateway;
 import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.indicator.IndicatorListener;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.dto.OrderBookSnapshot;
 import org.slf4j.Logger;
@@ -52,16 +59,52 @@ public abstract class BaseStrategy implements Strategy {
             context.subscribe(instrumentKey);
     }
 
+    /**
+     * Subscribe to an indicator, e.g. {@code indicator(key, "RSI(14,5m)", ...)};
+     * updates arrive on the strategy thread.
+     *
+     * @return subscription, or null before initialisation
+     */
+    protected IndicatorEngine.Subscription indicator(String instrumentKey, String spec,
+            IndicatorListener listener) {
+        return context != null ? context.subscribeIndicator(instrumentKey, spec, listener) : null;
+    }
+
     protected void signal(String type, Object payload) {
         if (context != null)
             context.emitSignal(type, payload);
     }
 
-    protected void buy(String instrument, int qty, double price) {
-        // execution.placeOrder(...) wrapper
+    /**
+     * Intraday buy: limit at {@code price}, or market if {@code price <= 0}.
+     *
+     * @return broker response, or null before initialisation
+     */
+    protected OrderResponse buy(String instrument, int qty, double price) {
+        return place(instrument, qty, price, TransactionType.BUY);
+    }
+
+    /**
+     * Intraday sell: limit at {@code price}, or market if {@code price <= 0}.
+     *
+     * @return broker response, or null before initialisation
+     */
+    protected OrderResponse sell(String instrument, int qty, double price) {
+        return place(instrument, qty, price, TransactionType.SELL);
     }
 
-    protected void sell(String instrument, int qty, double price) {
-        // execution.placeOrder(...) wrapper
+    private OrderResponse place(String instrument, int qty, double price, TransactionType side) {
+        if (execution == null)
+            return null;
+        return execution.placeOrder(OrderRequest.builder()
+                .instrumentKey(instrument)
+                .quantity(qty)
+                .price(Math.max(price, 0))
+                .orderType(price > 0 ? OrderType.LIMIT : OrderType.MARKET)
+                .transactionType(side)
+                .productType(ProductType.INTRA)
+                .validity(ValidityType.DAY)
+                .tag(getId())
+                .build());
     }
 }
@@ -0,0 +1,32 @@
+package com.vegatrader.strategy;
+
+/**
+ * What a strategy's mailbox does when the strategy falls behind the feed.
+ *
+ * <p>
+ * The feed thread never waits for a strategy: every policy resolves an
+ * overflow on the producer side in O(1).
+ *
+ * @since 5.0.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Keep only the latest tick and depth per instrument. A strategy that
+     * keeps up sees every update; one that lags sees current state. A full
+     * mailbox (more pending instruments than capacity) drops the oldest.
+     */
+    CONFLATE,
+
+    /**
+     * Keep every update in order; a full mailbox evicts the oldest update.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Keep every update in order until the mailbox fills, then stop
+     * delivering: updates are discarded until the strategy has worked its
+     * backlog down to half the capacity. The gap is counted, order is kept.
+     */
+    PAUSE
+}
@@ -38,6 +38,25 @@ public interface Strategy {
      */
     void onDepth(OrderBookSnapshot depth);
 
+    /**
+     * Whether this strategy must see every tick. By default strategies run
+     * with the rest of the pipeline and, under load, receive the latest
+     * snapshot per instrument; returning true opts out of conflation and
+     * queues every tick and depth update to the strategy.
+     */
+    default boolean requiresEveryTick() {
+        return false;
+    }
+
+    /**
+     * How the strategy's mailbox sheds load when the strategy falls behind.
+     * Strategies that must see every tick pause rather than silently lose
+     * updates in the middle of a sequence.
+     */
+    default OverflowPolicy overflowPolicy() {
+        return requiresEveryTick() ? OverflowPolicy.PAUSE : OverflowPolicy.CONFLATE;
+    }
+
     /**
      * Called when strategy is stopped.
      */
@@ -0,0 +1,22 @@
+package com.vegatrader.strategy;
+
+/**
+ * Resource budget for one strategy. A strategy that exceeds any limit is
+ * quarantined: it stays registered but receives no updates until released.
+ *
+ * @param maxCpuPercent CPU time of the strategy's thread per window, as a
+ *                      share of one core (0-100)
+ * @param maxLagMillis  longest an update may wait in the mailbox, or a single
+ *                      callback may run
+ * @param maxErrors     callback exceptions tolerated per window
+ * @param windowMillis  accounting window for CPU and errors
+ * @since 5.0.0
+ */
+public record StrategyBudget(double maxCpuPercent, long maxLagMillis, int maxErrors, long windowMillis) {
+
+    public StrategyBudget {
+        if (maxCpuPercent <= 0 || maxLagMillis <= 0 || maxErrors < 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Invalid strategy budget");
+        }
+    }
+}
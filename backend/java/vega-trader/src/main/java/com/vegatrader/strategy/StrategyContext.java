@@ -1,6 +1,10 @@
 package com.vegatrader.strategy;
 
 import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.indicator.IndicatorListener;
+import com.vegatrader.util.time.SystemTimeProvider;
+import com.vegatrader.util.time.TimeProvider;
 import org.slf4j.Logger;
 
 /**
@@ -19,11 +23,33 @@ public interface StrategyContext {
      */
     Logger getLogger();
 
+    /**
+     * Clock to use instead of the system time: the wall clock live, event
+     * time in a backtest.
+     */
+    default TimeProvider getTimeProvider() {
+        return new SystemTimeProvider();
+    }
+
     /**
      * Subscribe to an instrument for this strategy.
      */
     void subscribe(String instrumentKey);
 
+    /**
+     * Subscribe to a shared indicator of an instrument's bars, e.g.
+     * {@code EMA(20,1m)}; the instrument is subscribed as well. Updates
+     * arrive on the strategy's own thread and stop when the strategy is
+     * unregistered.
+     *
+     * @param spec {@link com.vegatrader.indicator.IndicatorSpec} text
+     * @return handle to cancel the subscription earlier
+     */
+    default IndicatorEngine.Subscription subscribeIndicator(String instrumentKey, String spec,
+            IndicatorListener listener) {
+        throw new UnsupportedOperationException("Indicators are not available in this context");
+    }
+
     /**
      * Broadcast a signal/event to UI.
      */
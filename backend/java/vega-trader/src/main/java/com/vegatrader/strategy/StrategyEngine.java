@@ -1,29 +1,56 @@
 package com.vegatrader.strategy;
 
 import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.indicator.IndicatorListener;
+import com.vegatrader.indicator.IndicatorSpec;
 import com.vegatrader.market.dto.LiveMarketSnapshot;
 import com.vegatrader.market.dto.OrderBookSnapshot;
 import com.vegatrader.market.feed.FeedMode;
 import com.vegatrader.market.service.MarketSubscriptionManager;
 import com.vegatrader.market.websocket.MarketBroadcaster;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Engine to manage and run trading strategies.
+ *
+ * <p>
+ * Each strategy runs isolated in a {@link StrategyHost}: its own thread
+ * behind a bounded mailbox with the strategy's {@link OverflowPolicy}. The
+ * feed thread only enqueues, so a slow or throwing strategy delays neither
+ * the other strategies nor the broadcast. A watchdog checks each strategy's
+ * {@link StrategyBudget} and quarantines offenders.
+ *
+ * <p>
+ * Strategies can be registered, replaced and unregistered while the feed
+ * runs; subscriber tables are copy-on-write, so dispatch never waits on a
+ * deployment.
  */
 @Service
 public class StrategyEngine {
 
     private static final Logger logger = LoggerFactory.getLogger(StrategyEngine.class);
 
+    private static final String FEED_CLIENT_ID = "STRATEGY_ENGINE";
+    private static final long STOP_TIMEOUT_MS = 5_000;
+
     @Autowired
     private MarketSubscriptionManager subscriptionManager;
 
@@ -33,77 +60,213 @@ public class StrategyEngine {
     @Autowired
     private MarketBroadcaster broadcaster;
 
-    private final Map<String, Strategy> strategies = new ConcurrentHashMap<>();
-    private final Map<String, Set<Strategy>> instrumentSubscribers = new ConcurrentHashMap<>();
+    @Autowired(required = false)
+    private IndicatorEngine indicatorEngine;
+
+    private final Map<String, StrategyHost> strategies = new ConcurrentHashMap<>();
+    private final Map<String, Set<StrategyHost>> instrumentSubscribers = new ConcurrentHashMap<>();
+    private final Map<StrategyHost, List<IndicatorEngine.Subscription>> indicatorSubscriptions =
+            new ConcurrentHashMap<>();
+
+    private final int mailboxCapacity;
+    private final StrategyBudget defaultBudget;
+    private final ScheduledExecutorService watchdog;
+
+    public StrategyEngine(
+            @Value("${strategy.mailbox.capacity:1024}") int mailboxCapacity,
+            @Value("${strategy.budget.max-cpu-percent:80}") double maxCpuPercent,
+            @Value("${strategy.budget.max-lag-ms:2000}") long maxLagMillis,
+            @Value("${strategy.budget.max-errors:20}") int maxErrors,
+            @Value("${strategy.budget.window-ms:10000}") long windowMillis,
+            @Value("${strategy.budget.check-interval-ms:100}") long checkIntervalMillis) {
+        this.mailboxCapacity = mailboxCapacity;
+        this.defaultBudget = new StrategyBudget(maxCpuPercent, maxLagMillis, maxErrors, windowMillis);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "strategy-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.watchdog.scheduleWithFixedDelay(this::checkBudgets, checkIntervalMillis, checkIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
 
     /**
-     * Register and start a strategy.
+     * Register and start a strategy with the default budget.
      */
     public void registerStrategy(Strategy strategy) {
-        if (strategies.containsKey(strategy.getId())) {
+        registerStrategy(strategy, defaultBudget);
+    }
+
+    /**
+     * Register and start a strategy. {@code onInit} runs on the calling
+     * thread; every later callback runs on the strategy's own thread.
+     */
+    public void registerStrategy(Strategy strategy, StrategyBudget budget) {
+        StrategyHost host = new StrategyHost(strategy, budget, mailboxCapacity);
+        if (strategies.putIfAbsent(strategy.getId(), host) != null) {
             throw new IllegalArgumentException("Strategy ID already exists: " + strategy.getId());
         }
 
-        StrategyContext context = new StrategyContextImpl(strategy);
         try {
-            strategy.onInit(context);
-            strategies.put(strategy.getId(), strategy);
-            logger.info("Strategy registered: {} ({})", strategy.getName(), strategy.getId());
+            strategy.onInit(new StrategyContextImpl(host));
         } catch (Exception e) {
+            strategies.remove(strategy.getId(), host);
+            removeSubscriptions(host);
             logger.error("Failed to initialize strategy " + strategy.getName(), e);
+            return;
         }
+        host.start();
+        logger.info("Strategy registered: {} ({}, {})", strategy.getName(), strategy.getId(),
+                strategy.overflowPolicy());
     }
 
     /**
-     * Stop and unregister a strategy.
+     * Stop and unregister a strategy. It stops receiving updates at once;
+     * {@code onDestroy} runs on its thread after the callback in progress.
      */
     public void unregisterStrategy(String strategyId) {
-        Strategy strategy = strategies.remove(strategyId);
-        if (strategy != null) {
-            try {
-                strategy.onDestroy();
-                // Remove from subscribers
-                instrumentSubscribers.values().forEach(set -> set.remove(strategy));
-                logger.info("Strategy stopped: {}", strategy.getName());
-            } catch (Exception e) {
-                logger.error("Error stopping strategy " + strategy.getName(), e);
-            }
+        StrategyHost host = strategies.remove(strategyId);
+        if (host == null) {
+            return;
         }
+        removeSubscriptions(host);
+        if (host.stop(STOP_TIMEOUT_MS)) {
+            logger.info("Strategy stopped: {}", host.getStrategy().getName());
+        } else {
+            logger.warn("Strategy {} did not stop within {} ms; its thread ends when the callback returns",
+                    host.getStrategy().getName(), STOP_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * Replace a running strategy with a new instance under the same ID, or
+     * register it if none is running.
+     */
+    public void redeployStrategy(Strategy strategy) {
+        unregisterStrategy(strategy.getId());
+        registerStrategy(strategy);
     }
 
+    /**
+     * Lift a quarantine.
+     *
+     * @return false if no such strategy
+     */
+    public boolean releaseStrategy(String strategyId) {
+        StrategyHost host = strategies.get(strategyId);
+        if (host == null) {
+            return false;
+        }
+        host.release();
+        return true;
+    }
+
+    public StrategyHost.State getState(String strategyId) {
+        StrategyHost host = strategies.get(strategyId);
+        return host != null ? host.getState() : null;
+    }
+
+    public List<StrategyHost.Statistics> getStatistics() {
+        List<StrategyHost.Statistics> stats = new ArrayList<>(strategies.size());
+        for (StrategyHost host : strategies.values()) {
+            stats.add(host.getStatistics());
+        }
+        return stats;
+    }
+
+    /**
+     * Conflated tick path: strategies that tolerate conflation.
+     */
     public void onTick(LiveMarketSnapshot tick) {
-        Set<Strategy> subscribers = instrumentSubscribers.get(tick.getInstrumentKey());
+        dispatchTick(tick, false);
+    }
+
+    /**
+     * Unconflated tick path: strategies that {@link Strategy#requiresEveryTick()}.
+     */
+    public void onRawTick(LiveMarketSnapshot tick) {
+        dispatchTick(tick, true);
+    }
+
+    public void onDepth(OrderBookSnapshot depth) {
+        dispatchDepth(depth, false);
+    }
+
+    public void onRawDepth(OrderBookSnapshot depth) {
+        dispatchDepth(depth, true);
+    }
+
+    private void dispatchTick(LiveMarketSnapshot tick, boolean everyTick) {
+        Set<StrategyHost> subscribers = instrumentSubscribers.get(tick.getInstrumentKey());
         if (subscribers != null) {
-            subscribers.forEach(s -> {
-                try {
-                    s.onTick(tick);
-                } catch (Exception e) {
-                    logger.error("Strategy execution error (Tick) in " + s.getName(), e);
+            for (StrategyHost host : subscribers) {
+                if (host.requiresEveryTick() == everyTick) {
+                    host.offerTick(tick);
                 }
-            });
+            }
         }
     }
 
-    public void onDepth(OrderBookSnapshot depth) {
-        Set<Strategy> subscribers = instrumentSubscribers.get(depth.getInstrumentKey());
+    private void dispatchDepth(OrderBookSnapshot depth, boolean everyTick) {
+        Set<StrategyHost> subscribers = instrumentSubscribers.get(depth.getInstrumentKey());
         if (subscribers != null) {
-            subscribers.forEach(s -> {
-                try {
-                    s.onDepth(depth);
-                } catch (Exception e) {
-                    logger.error("Strategy execution error (Depth) in " + s.getName(), e);
+            for (StrategyHost host : subscribers) {
+                if (host.requiresEveryTick() == everyTick) {
+                    host.offerDepth(depth);
                 }
-            });
+            }
+        }
+    }
+
+    void checkBudgets() {
+        long now = System.nanoTime();
+        for (StrategyHost host : strategies.values()) {
+            try {
+                host.checkBudget(now);
+            } catch (RuntimeException e) {
+                logger.error("Budget check failed for {}", host.getStrategy().getId(), e);
+            }
         }
     }
 
+    private void removeSubscriptions(StrategyHost host) {
+        List<IndicatorEngine.Subscription> indicators = indicatorSubscriptions.remove(host);
+        if (indicators != null) {
+            indicators.forEach(IndicatorEngine.Subscription::close);
+        }
+        Set<String> released = new HashSet<>();
+        instrumentSubscribers.forEach((instrumentKey, hosts) -> {
+            if (hosts.remove(host) && hosts.isEmpty()) {
+                released.add(instrumentKey);
+            }
+        });
+        for (String instrumentKey : released) {
+            // Drop the feed subscription only if nobody re-subscribed meanwhile
+            instrumentSubscribers.computeIfPresent(instrumentKey, (k, hosts) -> hosts.isEmpty() ? null : hosts);
+        }
+        released.removeIf(instrumentSubscribers::containsKey);
+        if (!released.isEmpty() && subscriptionManager != null) {
+            subscriptionManager.unsubscribe(FEED_CLIENT_ID, released);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (String strategyId : new ArrayList<>(strategies.keySet())) {
+            unregisterStrategy(strategyId);
+        }
+        watchdog.shutdownNow();
+    }
+
     // Inner class implementation of Context
     private class StrategyContextImpl implements StrategyContext {
+        private final StrategyHost host;
         private final Strategy strategy;
         private final Logger strategyLogger;
 
-        public StrategyContextImpl(Strategy strategy) {
-            this.strategy = strategy;
+        public StrategyContextImpl(StrategyHost host) {
+            this.host = host;
+            this.strategy = host.getStrategy();
             this.strategyLogger = LoggerFactory.getLogger("STRATEGY." + strategy.getName());
         }
 
@@ -119,12 +282,36 @@ public class StrategyEngine {
 
         @Override
         public void subscribe(String instrumentKey) {
-            instrumentSubscribers.computeIfAbsent(instrumentKey, k -> new CopyOnWriteArraySet<>())
-                    .add(strategy);
+            if (strategies.get(strategy.getId()) != host) {
+                return; // unregistered or replaced
+            }
+            instrumentSubscribers.compute(instrumentKey, (k, hosts) -> {
+                Set<StrategyHost> updated = hosts != null ? hosts : new CopyOnWriteArraySet<>();
+                updated.add(host);
+                return updated;
+            });
 
             // Ensure system is subscribed to data feed
-            subscriptionManager.subscribe("STRATEGY_ENGINE", Set.of(instrumentKey), FeedMode.FULL);
-            // Using "STRATEGY_ENGINE" as special client ID
+            if (subscriptionManager != null) {
+                subscriptionManager.subscribe(FEED_CLIENT_ID, Set.of(instrumentKey), FeedMode.FULL);
+            }
+        }
+
+        @Override
+        public IndicatorEngine.Subscription subscribeIndicator(String instrumentKey, String spec,
+                IndicatorListener listener) {
+            if (indicatorEngine == null) {
+                throw new UnsupportedOperationException("Indicator engine not available");
+            }
+            IndicatorSpec parsed = IndicatorSpec.parse(spec);
+            subscribe(instrumentKey);
+            IndicatorEngine.Subscription subscription = indicatorEngine.subscribe(instrumentKey, parsed,
+                    host.indicatorListener(listener));
+            indicatorSubscriptions.computeIfAbsent(host, h -> new CopyOnWriteArrayList<>()).add(subscription);
+            if (strategies.get(strategy.getId()) != host) {
+                subscription.close(); // unregistered meanwhile
+            }
+            return subscription;
         }
 
         @Override
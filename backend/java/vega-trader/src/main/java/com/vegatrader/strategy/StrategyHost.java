@@ -0,0 +1,373 @@
+package com.vegatrader.strategy;
+
+import com.vegatrader.indicator.IndicatorListener;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one strategy on its own thread behind a bounded mailbox.
+ *
+ * <p>
+ * All callbacks of a strategy ({@code onTick}, {@code onDepth}, indicator
+ * updates, {@code onDestroy}) run on its pinned thread, one at a time, so a strategy
+ * never needs to synchronise with itself and a slow or failing strategy only
+ * delays its own mailbox. Because the thread belongs to the strategy alone,
+ * the thread's CPU time is the strategy's CPU time. An idle thread parks
+ * until the feed, a posted task or {@link #stop} unparks it: the mailbox
+ * monitor and the volatile parked flag order the feed's offer before its
+ * flag check, so a wake-up cannot be lost.
+ *
+ * <p>
+ * {@link #checkBudget} is called periodically from a watchdog thread and
+ * quarantines the strategy when it breaks its {@link StrategyBudget}: queue
+ * lag or a single callback over the lag limit, CPU share or errors over
+ * the limit for a window. A quarantined strategy receives nothing until
+ * {@link #release()}d.
+ *
+ * @since 5.0.0
+ */
+public final class StrategyHost implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StrategyHost.class);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = initCpuTime();
+
+    private static final int SPIN_TRIES = 200;
+
+    /** Lifecycle of a hosted strategy */
+    public enum State {
+        RUNNING, PAUSED, QUARANTINED, STOPPED
+    }
+
+    private final Strategy strategy;
+    private final StrategyMailbox mailbox;
+    private final StrategyBudget budget;
+    private final boolean everyTick;
+    private final Thread thread;
+    private final Queue<Runnable> control = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile boolean quarantined;
+    private volatile String quarantineReason;
+    /** Start of the callback in progress, 0 when idle */
+    private volatile long busySince;
+
+    private final AtomicLong nextIndicatorKey = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong lagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    // Budget window, watchdog thread only
+    private long windowStart;
+    private long windowCpuStart;
+    private long windowErrorsStart;
+    private volatile double lastCpuPercent;
+
+    StrategyHost(Strategy strategy, StrategyBudget budget, int mailboxCapacity) {
+        this.strategy = strategy;
+        this.budget = budget;
+        this.everyTick = strategy.requiresEveryTick();
+        OverflowPolicy policy = strategy.overflowPolicy();
+        this.mailbox = new StrategyMailbox(policy != null ? policy : OverflowPolicy.CONFLATE, mailboxCapacity);
+        this.thread = new Thread(this, "strategy-" + strategy.getId());
+        this.thread.setDaemon(true);
+    }
+
+    private static boolean initCpuTime() {
+        try {
+            if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+                THREADS.setThreadCpuTimeEnabled(true);
+            }
+            return THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    void start() {
+        windowStart = System.nanoTime();
+        thread.start();
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    boolean requiresEveryTick() {
+        return everyTick;
+    }
+
+    public State getState() {
+        if (!running) {
+            return State.STOPPED;
+        }
+        if (quarantined) {
+            return State.QUARANTINED;
+        }
+        return mailbox.isPaused() ? State.PAUSED : State.RUNNING;
+    }
+
+    // ----- feed side -----
+
+    void offerTick(LiveMarketSnapshot tick) {
+        if (!quarantined && running && mailbox.offerTick(tick, System.nanoTime())) {
+            wake();
+        }
+    }
+
+    void offerDepth(OrderBookSnapshot depth) {
+        if (!quarantined && running && mailbox.offerDepth(depth, System.nanoTime())) {
+            wake();
+        }
+    }
+
+    /**
+     * Wraps an indicator listener of the strategy so its updates go through
+     * the mailbox: in order with market data, under the same capacity and
+     * overflow policy, conflated per subscription under
+     * {@link OverflowPolicy#CONFLATE}.
+     */
+    IndicatorListener indicatorListener(IndicatorListener listener) {
+        String key = Long.toString(nextIndicatorKey.incrementAndGet());
+        return (instrumentKey, spec, barTime, value) -> {
+            if (!quarantined && running && mailbox.offerIndicator(key,
+                    new StrategyMailbox.IndicatorUpdate(listener, instrumentKey, spec, barTime, value),
+                    System.nanoTime())) {
+                wake();
+            }
+        };
+    }
+
+    private void wake() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // ----- lifecycle -----
+
+    /**
+     * Runs {@code onDestroy} on the strategy thread after the callback in
+     * progress, then ends the thread. Pending updates are discarded.
+     *
+     * @return true if the thread ended within the timeout
+     */
+    boolean stop(long timeoutMillis) {
+        mailbox.clear();
+        control.add(() -> {
+            try {
+                strategy.onDestroy();
+            } catch (Exception e) {
+                logger.error("Error stopping strategy " + strategy.getName(), e);
+            }
+            running = false;
+        });
+        LockSupport.unpark(thread);
+        try {
+            return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void quarantine(String reason) {
+        if (quarantined) {
+            return;
+        }
+        quarantineReason = reason;
+        quarantined = true;
+        int discarded = mailbox.clear();
+        logger.warn("Strategy {} quarantined: {} ({} pending updates discarded)",
+                strategy.getId(), reason, discarded);
+    }
+
+    /**
+     * Lifts a quarantine; the budget window restarts.
+     */
+    public void release() {
+        if (!quarantined) {
+            return;
+        }
+        synchronized (this) {
+            resetWindow(System.nanoTime());
+        }
+        quarantineReason = null;
+        quarantined = false;
+        logger.info("Strategy {} released from quarantine", strategy.getId());
+    }
+
+    // ----- strategy thread -----
+
+    @Override
+    public void run() {
+        int idle = 0;
+        try {
+            while (running) {
+                Runnable task = control.poll();
+                if (task != null) {
+                    task.run();
+                    continue;
+                }
+                StrategyMailbox.Envelope envelope = mailbox.poll();
+                if (envelope != null) {
+                    if (!quarantined) {
+                        deliver(envelope);
+                    }
+                    idle = 0;
+                    continue;
+                }
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                parked = true;
+                if (mailbox.size() == 0 && control.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        } finally {
+            running = false;
+            stopped.countDown();
+        }
+    }
+
+    private void deliver(StrategyMailbox.Envelope envelope) {
+        long start = System.nanoTime();
+        long lag = start - envelope.enqueuedAt;
+        lagNanos.addAndGet(lag);
+        if (lag > maxLagNanos.get()) {
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+        }
+        busySince = start;
+        try {
+            if (envelope.payload instanceof LiveMarketSnapshot tick) {
+                strategy.onTick(tick);
+            } else if (envelope.payload instanceof OrderBookSnapshot depth) {
+                strategy.onDepth(depth);
+            } else if (envelope.payload instanceof StrategyMailbox.IndicatorUpdate update) {
+                update.listener().onUpdate(update.instrumentKey(), update.spec(), update.barTime(), update.value());
+            }
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            logger.error("Strategy execution error in " + strategy.getName(), e);
+        } finally {
+            busySince = 0;
+            delivered.incrementAndGet();
+        }
+    }
+
+    // ----- watchdog -----
+
+    /**
+     * Checks the budget and quarantines on a breach. Watchdog thread only.
+     *
+     * @return true if this check quarantined the strategy
+     */
+    synchronized boolean checkBudget(long now) {
+        if (!running || quarantined) {
+            return false;
+        }
+        long maxLag = TimeUnit.MILLISECONDS.toNanos(budget.maxLagMillis());
+        long busy = busySince;
+        if (busy != 0 && now - busy > maxLag) {
+            quarantine("callback running for " + TimeUnit.NANOSECONDS.toMillis(now - busy) + " ms");
+            return true;
+        }
+        long oldest = mailbox.oldestEnqueuedAt();
+        if (oldest != 0 && now - oldest > maxLag) {
+            quarantine("queue lag " + TimeUnit.NANOSECONDS.toMillis(now - oldest) + " ms");
+            return true;
+        }
+
+        long elapsed = now - windowStart;
+        long errorsInWindow = errors.get() - windowErrorsStart;
+        if (errorsInWindow > budget.maxErrors()) {
+            quarantine(errorsInWindow + " errors within " + budget.windowMillis() + " ms");
+            return true;
+        }
+        if (elapsed < TimeUnit.MILLISECONDS.toNanos(budget.windowMillis())) {
+            return false;
+        }
+        long cpu = cpuTime();
+        if (cpu >= 0 && windowCpuStart >= 0) {
+            lastCpuPercent = (cpu - windowCpuStart) * 100.0 / elapsed;
+            if (lastCpuPercent > budget.maxCpuPercent()) {
+                quarantine(String.format("CPU %.1f%% over %d ms", lastCpuPercent, budget.windowMillis()));
+                return true;
+            }
+        }
+        resetWindow(now);
+        return false;
+    }
+
+    private void resetWindow(long now) {
+        windowStart = now;
+        windowCpuStart = cpuTime();
+        windowErrorsStart = errors.get();
+    }
+
+    private long cpuTime() {
+        if (!CPU_TIME || !thread.isAlive()) {
+            return -1;
+        }
+        try {
+            return THREADS.getThreadCpuTime(thread.getId());
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    public Statistics getStatistics() {
+        long count = delivered.get();
+        return new Statistics(
+                strategy.getId(),
+                strategy.getName(),
+                getState().name(),
+                mailbox.policy().name(),
+                mailbox.size(),
+                mailbox.offered(),
+                count,
+                mailbox.dropped(),
+                mailbox.conflated(),
+                errors.get(),
+                count == 0 ? 0 : lagNanos.get() / count / 1_000.0,
+                maxLagNanos.get() / 1_000.0,
+                lastCpuPercent,
+                quarantineReason);
+    }
+
+    /**
+     * Runtime metrics of one strategy.
+     *
+     * @param queued           updates waiting in the mailbox
+     * @param offered          updates offered by the feed
+     * @param delivered        callbacks completed
+     * @param dropped          updates discarded by overflow, pause or quarantine
+     * @param conflated        updates replaced by a newer one before delivery
+     * @param avgLagMicros     mean wait in the mailbox
+     * @param maxLagMicros     worst wait in the mailbox
+     * @param cpuPercent       CPU share of one core in the last complete window
+     * @param quarantineReason why the strategy is quarantined, else null
+     */
+    public record Statistics(String id, String name, String state, String policy, int queued, long offered,
+            long delivered, long dropped, long conflated, long errors, double avgLagMicros, double maxLagMicros,
+            double cpuPercent, String quarantineReason) {
+    }
+}
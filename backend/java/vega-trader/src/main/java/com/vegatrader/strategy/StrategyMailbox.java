@@ -0,0 +1,178 @@
+package com.vegatrader.strategy;
+
+import com.vegatrader.indicator.IndicatorListener;
+import com.vegatrader.indicator.IndicatorSpec;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded mailbox between the feed and one strategy thread.
+ *
+ * <p>
+ * Any thread may offer; only the strategy's thread polls. Offers never
+ * block: an overflow is resolved according to the {@link OverflowPolicy}.
+ * The monitor is held for a few field writes, so the feed thread sees at
+ * most brief, uncontended locking.
+ *
+ * @since 5.0.0
+ */
+final class StrategyMailbox {
+
+    /**
+     * A pending update. Under {@link OverflowPolicy#CONFLATE} the payload is
+     * replaced in place; {@code enqueuedAt} keeps the first arrival so lag
+     * covers the whole wait.
+     */
+    static final class Envelope {
+        final String key;
+        final long enqueuedAt;
+        Object payload;
+
+        Envelope(String key, Object payload, long enqueuedAt) {
+            this.key = key;
+            this.payload = payload;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * An indicator value for a strategy's listener, queued like market data.
+     */
+    record IndicatorUpdate(IndicatorListener listener, String instrumentKey, IndicatorSpec spec, long barTime,
+            double value) {
+    }
+
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final ArrayDeque<Envelope> queue;
+    /** Pending envelope per instrument and kind or indicator subscription, CONFLATE only */
+    private final Map<String, Envelope> pending;
+    private boolean paused;
+
+    private long offered;
+    private long dropped;
+    private long conflated;
+
+    StrategyMailbox(OverflowPolicy policy, int capacity) {
+        if (capacity <= 1) {
+            throw new IllegalArgumentException("capacity must be greater than 1");
+        }
+        this.policy = policy;
+        this.capacity = capacity;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1_024));
+        this.pending = policy == OverflowPolicy.CONFLATE ? new HashMap<>() : null;
+    }
+
+    boolean offerTick(LiveMarketSnapshot tick, long now) {
+        return offer(pending != null ? "T" + tick.getInstrumentKey() : null, tick, now);
+    }
+
+    boolean offerDepth(OrderBookSnapshot depth, long now) {
+        return offer(pending != null ? "D" + depth.getInstrumentKey() : null, depth, now);
+    }
+
+    /**
+     * @param key conflation key of the indicator subscription
+     */
+    boolean offerIndicator(String key, IndicatorUpdate update, long now) {
+        return offer(pending != null ? "I" + key : null, update, now);
+    }
+
+    /**
+     * @return true if the update was queued or conflated, false if dropped
+     */
+    private synchronized boolean offer(String key, Object payload, long now) {
+        offered++;
+        switch (policy) {
+            case CONFLATE -> {
+                Envelope existing = pending.get(key);
+                if (existing != null) {
+                    existing.payload = payload;
+                    conflated++;
+                    return true;
+                }
+                if (queue.size() >= capacity) {
+                    pending.remove(queue.pollFirst().key);
+                    dropped++;
+                }
+                Envelope envelope = new Envelope(key, payload, now);
+                pending.put(key, envelope);
+                queue.addLast(envelope);
+            }
+            case DROP_OLDEST -> {
+                if (queue.size() >= capacity) {
+                    queue.pollFirst();
+                    dropped++;
+                }
+                queue.addLast(new Envelope(null, payload, now));
+            }
+            case PAUSE -> {
+                if (paused || queue.size() >= capacity) {
+                    paused = true;
+                    dropped++;
+                    return false;
+                }
+                queue.addLast(new Envelope(null, payload, now));
+            }
+        }
+        return true;
+    }
+
+    synchronized Envelope poll() {
+        Envelope envelope = queue.pollFirst();
+        if (envelope != null && pending != null) {
+            pending.remove(envelope.key);
+        }
+        if (paused && queue.size() <= capacity / 2) {
+            paused = false;
+        }
+        return envelope;
+    }
+
+    /**
+     * Arrival time of the oldest pending update, or 0 if empty.
+     */
+    synchronized long oldestEnqueuedAt() {
+        Envelope head = queue.peekFirst();
+        return head != null ? head.enqueuedAt : 0;
+    }
+
+    synchronized int clear() {
+        int cleared = queue.size();
+        queue.clear();
+        if (pending != null) {
+            pending.clear();
+        }
+        paused = false;
+        dropped += cleared;
+        return cleared;
+    }
+
+    OverflowPolicy policy() {
+        return policy;
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    synchronized long offered() {
+        return offered;
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    synchronized long conflated() {
+        return conflated;
+    }
+}
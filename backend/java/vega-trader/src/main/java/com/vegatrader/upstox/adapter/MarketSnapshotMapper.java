@@ -0,0 +1,126 @@
+package com.vegatrader.upstox.adapter;
+
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.api.response.websocket.BidAskQuote;
+import com.vegatrader.upstox.api.response.websocket.FeedData;
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps decoded Upstox V3 updates to the generic market DTOs.
+ *
+ * <p>
+ * Shared by the live {@link UpstoxMarketFeed} and journal replay so both
+ * drive {@link MarketFeedListener} with identical snapshots. The receive
+ * timestamp is supplied by the caller (wall clock live, replay clock in
+ * replay).
+ */
+public final class MarketSnapshotMapper {
+
+    private MarketSnapshotMapper() {
+    }
+
+    /**
+     * Emits one tick per instrument, plus depth where the feed carries it.
+     * Each snapshot goes to the raw callback first, then the (possibly
+     * conflated) regular one.
+     *
+     * @return number of snapshots emitted
+     */
+    public static int dispatch(MarketUpdateV3 update, long receiveTimestamp, MarketFeedListener listener) {
+        if (update.getFeeds() == null) {
+            return 0;
+        }
+        int[] count = new int[1];
+        update.getFeeds().forEach((key, feedData) -> {
+            LiveMarketSnapshot tick = toSnapshot(key, feedData, update.getTimestamp(), receiveTimestamp);
+            if (tick != null) {
+                listener.onRawTick(tick);
+                listener.onTick(tick);
+                count[0]++;
+            }
+
+            if (feedData != null && feedData.getMarketLevel() != null) {
+                OrderBookSnapshot depth = toDepth(key, feedData, update.getTimestamp());
+                if (depth != null) {
+                    listener.onRawDepth(depth);
+                    listener.onDepth(depth);
+                    count[0]++;
+                }
+            }
+        });
+        return count[0];
+    }
+
+    public static LiveMarketSnapshot toSnapshot(String key, FeedData data, long timestamp, long receiveTimestamp) {
+        if (data == null)
+            return null;
+
+        LiveMarketSnapshot.LiveMarketSnapshotBuilder builder = LiveMarketSnapshot.builder()
+                .instrumentKey(key)
+                .receiveTimestamp(receiveTimestamp)
+                .exchangeTimestamp(timestamp);
+
+        boolean hasData = false;
+
+        if (data.getLtpc() != null) {
+            double cp = data.getLtpc().getCp() != null ? data.getLtpc().getCp() : 0.0;
+            builder.ltp(data.getLtpc().getLtp() != null ? data.getLtpc().getLtp() : 0.0)
+                    .close(cp)
+                    .previousClose(cp);
+
+            if (data.getLtpc().getLttAsLong() != null) {
+                builder.exchangeTimestamp(data.getLtpc().getLttAsLong());
+            }
+            hasData = true;
+        }
+
+        if (data.getMarketOhlc() != null) {
+            builder.open(data.getMarketOhlc().getOpen() != null ? data.getMarketOhlc().getOpen() : 0.0)
+                    .high(data.getMarketOhlc().getHigh() != null ? data.getMarketOhlc().getHigh() : 0.0)
+                    .low(data.getMarketOhlc().getLow() != null ? data.getMarketOhlc().getLow() : 0.0)
+                    .volume(data.getMarketOhlc().getVolume() != null ? data.getMarketOhlc().getVolume() : 0L)
+                    .oi(data.getMarketOhlc().getOi() != null ? data.getMarketOhlc().getOi() : 0L);
+
+            if (data.getMarketOhlc().getClose() != null) {
+                builder.close(data.getMarketOhlc().getClose());
+            }
+            hasData = true;
+        }
+
+        return hasData ? builder.build() : null;
+    }
+
+    public static OrderBookSnapshot toDepth(String key, FeedData data, long timestamp) {
+        if (data == null || data.getMarketLevel() == null)
+            return null;
+
+        List<BidAskQuote> quotes = data.getMarketLevel().getBidAskQuotes();
+        if (quotes == null)
+            return null;
+
+        List<DepthLevel> bids = new ArrayList<>();
+        List<DepthLevel> asks = new ArrayList<>();
+
+        for (BidAskQuote q : quotes) {
+            if (q.getBq() != null && q.getBq() > 0) {
+                bids.add(new DepthLevel(q.getBp(), q.getBq(), q.getBno() != null ? q.getBno() : 0));
+            }
+            if (q.getAq() != null && q.getAq() > 0) {
+                asks.add(new DepthLevel(q.getAp(), q.getAq(), q.getAno() != null ? q.getAno() : 0));
+            }
+        }
+
+        return OrderBookSnapshot.builder()
+                .instrumentKey(key)
+                .timestamp(timestamp)
+                .bids(bids)
+                .asks(asks)
+                .build();
+    }
+}
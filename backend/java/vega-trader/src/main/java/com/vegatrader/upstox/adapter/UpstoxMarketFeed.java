@@ -1,31 +1,43 @@
 package com.vegatrader.upstox.adapter;
 
-import com.vegatrader.market.dto.DepthLevel;
-import com.vegatrader.market.dto.LiveMarketSnapshot;
-import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.ConflatingFeedDispatcher;
 import com.vegatrader.market.feed.FeedMode;
 import com.vegatrader.market.feed.MarketFeed;
 import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.service.TokenLeaseManager;
 import com.vegatrader.service.UpstoxTokenProvider;
 import com.vegatrader.upstox.api.instrument.provider.InstrumentKeyProvider;
-import com.vegatrader.upstox.api.response.websocket.FeedData;
-import com.vegatrader.upstox.api.response.websocket.BidAskQuote;
 import com.vegatrader.upstox.api.websocket.MarketDataStreamerV3;
 import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+import com.vegatrader.upstox.api.websocket.manager.FeedConnectionPool;
 import com.vegatrader.upstox.api.websocket.settings.MarketDataStreamerSettings;
+import com.vegatrader.upstox.api.websocket.settings.SubscriptionTier;
 import com.vegatrader.upstox.api.websocket.Mode;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Upstox implementation of the generic MarketFeed.
  * Adapts MarketDataStreamerV3 to the standardized MarketFeed interface.
+ *
+ * <p>
+ * Subscriptions are spread over a {@link FeedConnectionPool} of up to
+ * {@code upstox.feed.max-connections} sessions, one per WEBSOCKET* token.
+ *
+ * <p>
+ * With {@code upstox.feed.conflation.enabled} (default) the listener's
+ * {@code onTick}/{@code onDepth} run on a {@link ConflatingFeedDispatcher}:
+ * an overloaded downstream receives the latest state per instrument instead
+ * of a growing backlog. {@code onRawTick}/{@code onRawDepth} still see every
+ * update inline.
  */
 @Component
 public class UpstoxMarketFeed implements MarketFeed {
@@ -35,6 +47,10 @@ public class UpstoxMarketFeed implements MarketFeed {
     @Autowired
     private UpstoxTokenProvider tokenProvider;
 
+    /** Shared with the portfolio stream, so a token backs one connection */
+    @Autowired
+    private TokenLeaseManager leaseManager;
+
     @Autowired(required = false)
     private InstrumentKeyProvider instrumentKeyProvider;
 
@@ -46,94 +62,191 @@ public class UpstoxMarketFeed implements MarketFeed {
     @Autowired(required = false)
     private com.vegatrader.journal.JournalWriter journalWriter;
 
-    private MarketDataStreamerV3 streamer;
-    private MarketFeedListener listener;
-    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+    @Autowired(required = false)
+    private OkHttpClient sharedHttpClient;
+
+    @Value("${upstox.feed.max-connections:3}")
+    private int maxConnections;
+
+    @Value("${upstox.feed.conflation.enabled:true}")
+    private boolean conflationEnabled = true;
+
+    @Value("${upstox.feed.conflation.workers:2}")
+    private int conflationWorkers = 2;
+
+    private volatile ConflatingFeedDispatcher conflator;
+
+    private FeedConnectionPool pool;
+    private volatile MarketFeedListener listener;
+    /** Lease per session API name, renewed on every (re)connect */
+    private final Map<String, TokenLeaseManager.TokenLease> leases = new ConcurrentHashMap<>();
 
     private static final String DEFAULT_WS_URL = "wss://api-v2.upstox.com/feed/market-data-feed/v3";
     private static final String DEFAULT_AUTH_URL = "https://api-v2.upstox.com/feed/market-data-feed/auth/authorize";
 
-    @PostConstruct
-    public void init() {
-        MarketDataStreamerSettings settings = new MarketDataStreamerSettings();
-        settings.setWsUrl(DEFAULT_WS_URL);
-        settings.setAuthorizeUrl(DEFAULT_AUTH_URL);
-        settings.setUseAuthorizeEndpoint(true);
-        settings.setAutoReconnectEnabled(true);
-        settings.setEnableLogging(true);
-        settings.setLogMarketUpdates(false);
+    /**
+     * Builds the session pool: one streamer per leased WEBSOCKET* token, capped
+     * by the tier's connection limit. Falls back to a single streamer on the
+     * provider's default token chain when no named token can be leased.
+     */
+    private synchronized FeedConnectionPool pool() {
+        if (pool != null) {
+            return pool;
+        }
 
-        if (instrumentKeyProvider != null) {
-            streamer = new MarketDataStreamerV3(tokenProvider, instrumentKeyProvider, settings);
-        } else {
-            streamer = new MarketDataStreamerV3(tokenProvider, settings);
+        SubscriptionTier tier = new MarketDataStreamerSettings().getTier();
+        int limit = Math.max(1, Math.min(maxConnections, tier.getMaxConnections()));
+        List<FeedConnectionPool.Session> sessions = new ArrayList<>();
+
+        for (String apiName : tokenProvider.getUsableWebSocketApiNames()) {
+            if (sessions.size() >= limit) {
+                break;
+            }
+            TokenLeaseManager.TokenLease lease;
+            try {
+                lease = leaseManager.acquireLease(apiName, tokenProvider.getWebSocketToken(apiName));
+            } catch (RuntimeException e) {
+                logger.warn("Skipping {} for market feed: {}", apiName, e.getMessage());
+                continue;
+            }
+            if (lease == null) {
+                continue;
+            }
+            leases.put(apiName, lease);
+            MarketDataStreamerV3 streamer = newStreamer();
+            streamer.setTokenSupplier(() -> leasedToken(apiName));
+            sessions.add(FeedConnectionPool.Session.of(apiName, streamer));
         }
-        streamer.setJournalWriter(journalWriter);
 
-        streamer.setOnMarketUpdateListener(this::handleMarketUpdate);
-        streamer.setOnOpenListener(() -> {
+        if (sessions.isEmpty()) {
+            logger.warn("No WEBSOCKET token could be leased; using a single session on the default token chain");
+            sessions.add(FeedConnectionPool.Session.of("DEFAULT", newStreamer()));
+        }
+
+        pool = new FeedConnectionPool(sessions, tier, this::handleMarketUpdate);
+        pool.setOnOpenListener(() -> {
             logger.info("Upstox Feed Connected");
             if (listener != null)
                 listener.onConnected();
         });
-        streamer.setOnCloseListener((code, reason) -> {
+        pool.setOnCloseListener((code, reason) -> {
             logger.info("Upstox Feed Disconnected: {} - {}", code, reason);
             if (listener != null)
                 listener.onDisconnected();
         });
+        logger.info("Upstox market feed using {} session(s)", sessions.size());
+        return pool;
+    }
+
+    /**
+     * Current token for a session; moves the session's lease if the token
+     * rotated since it was taken.
+     */
+    private String leasedToken(String apiName) {
+        String token = tokenProvider.getWebSocketToken(apiName);
+        leases.computeIfPresent(apiName, (name, lease) -> leaseManager.renewLease(lease, name, token));
+        return token;
+    }
+
+    private MarketDataStreamerV3 newStreamer() {
+        MarketDataStreamerSettings settings = new MarketDataStreamerSettings();
+        settings.setWsUrl(DEFAULT_WS_URL);
+        settings.setAuthorizeUrl(DEFAULT_AUTH_URL);
+        settings.setUseAuthorizeEndpoint(true);
+        settings.setAutoReconnectEnabled(true);
+        settings.setEnableLogging(true);
+        settings.setLogMarketUpdates(false);
+
+        MarketDataStreamerV3 streamer = instrumentKeyProvider != null
+                ? new MarketDataStreamerV3(tokenProvider, instrumentKeyProvider, settings)
+                : new MarketDataStreamerV3(tokenProvider, settings);
+        streamer.setJournalWriter(journalWriter);
+        streamer.setSharedHttpClient(sharedHttpClient);
         streamer.setOnErrorListener(error -> {
             logger.error("Upstox Feed Error", error);
             if (listener != null)
                 listener.onError(error instanceof Exception ? (Exception) error : new Exception(error));
         });
+        return streamer;
     }
 
     @Override
     public void connect() {
-        if (streamer != null) {
-            streamer.connect();
-        }
+        pool().connect();
     }
 
     @Override
     public void disconnect() {
-        if (streamer != null) {
-            streamer.disconnect();
+        if (pool != null) {
+            pool.disconnect();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        disconnect();
+        leases.values().forEach(leaseManager::releaseLease);
+        leases.clear();
+        if (conflator != null) {
+            conflator.close();
+            conflator = null;
         }
     }
 
     @Override
     public boolean isConnected() {
-        return true;
+        return pool != null && pool.isConnected();
     }
 
     @Override
     public void subscribe(Set<String> instrumentKeys, FeedMode mode) {
-        if (streamer == null || instrumentKeys.isEmpty())
+        if (instrumentKeys.isEmpty())
             return;
 
         Mode upstoxMode = Mode.valueOf(mode.name());
-        streamer.subscribe(instrumentKeys, upstoxMode);
-        subscriptions.addAll(instrumentKeys);
+        pool().subscribe(instrumentKeys, upstoxMode);
     }
 
     @Override
     public void unsubscribe(Set<String> instrumentKeys) {
-        if (streamer == null || instrumentKeys.isEmpty())
+        if (pool == null || instrumentKeys.isEmpty())
             return;
 
-        streamer.unsubscribe(instrumentKeys);
-        subscriptions.removeAll(instrumentKeys);
+        pool.unsubscribe(instrumentKeys);
+    }
+
+    /**
+     * Per-session throughput and lag.
+     */
+    public List<FeedConnectionPool.ConnectionStats> getConnectionStats() {
+        return pool != null ? pool.getConnectionStats() : List.of();
     }
 
     @Override
-    public void setListener(MarketFeedListener listener) {
-        this.listener = listener;
+    public synchronized void setListener(MarketFeedListener listener) {
+        if (conflator != null) {
+            conflator.close();
+            conflator = null;
+        }
+        if (listener != null && conflationEnabled) {
+            conflator = new ConflatingFeedDispatcher(listener, conflationWorkers, "upstox-feed");
+            this.listener = conflator;
+        } else {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Conflation metrics, or null when conflation is disabled.
+     */
+    public ConflatingFeedDispatcher.Statistics getConflationStats() {
+        ConflatingFeedDispatcher c = conflator;
+        return c != null ? c.getStatistics() : null;
     }
 
     @Override
     public Set<String> getSubscriptions() {
-        return Collections.unmodifiableSet(subscriptions);
+        return pool != null ? pool.getSubscriptions() : Set.of();
     }
 
     @Override
@@ -145,85 +258,6 @@ public class UpstoxMarketFeed implements MarketFeed {
         if (listener == null)
             return;
 
-        if (update.getFeeds() != null) {
-            update.getFeeds().forEach((key, feedData) -> {
-                LiveMarketSnapshot tick = mapToSnapshot(key, feedData, update.getTimestamp());
-                if (tick != null) {
-                    listener.onTick(tick);
-                }
-
-                if (feedData.getMarketLevel() != null) {
-                    OrderBookSnapshot depth = mapToDepth(key, feedData, update.getTimestamp());
-                    if (depth != null) {
-                        listener.onDepth(depth);
-                    }
-                }
-            });
-        }
-    }
-
-    private LiveMarketSnapshot mapToSnapshot(String key, FeedData data, long timestamp) {
-        if (data == null)
-            return null;
-
-        LiveMarketSnapshot.LiveMarketSnapshotBuilder builder = LiveMarketSnapshot.builder()
-                .instrumentKey(key)
-                .receiveTimestamp(System.currentTimeMillis())
-                .exchangeTimestamp(timestamp);
-
-        boolean hasData = false;
-
-        if (data.getLtpc() != null) {
-            builder.ltp(data.getLtpc().getLtp() != null ? data.getLtpc().getLtp() : 0.0)
-                    .close(data.getLtpc().getCp() != null ? data.getLtpc().getCp() : 0.0);
-
-            if (data.getLtpc().getLttAsLong() != null) {
-                builder.exchangeTimestamp(data.getLtpc().getLttAsLong());
-            }
-            hasData = true;
-        }
-
-        if (data.getMarketOhlc() != null) {
-            builder.open(data.getMarketOhlc().getOpen() != null ? data.getMarketOhlc().getOpen() : 0.0)
-                    .high(data.getMarketOhlc().getHigh() != null ? data.getMarketOhlc().getHigh() : 0.0)
-                    .low(data.getMarketOhlc().getLow() != null ? data.getMarketOhlc().getLow() : 0.0)
-                    .volume(data.getMarketOhlc().getVolume() != null ? data.getMarketOhlc().getVolume() : 0L)
-                    .oi(data.getMarketOhlc().getOi() != null ? data.getMarketOhlc().getOi() : 0L);
-
-            if (data.getMarketOhlc().getClose() != null) {
-                builder.close(data.getMarketOhlc().getClose());
-            }
-            hasData = true;
-        }
-
-        return hasData ? builder.build() : null;
-    }
-
-    private OrderBookSnapshot mapToDepth(String key, FeedData data, long timestamp) {
-        if (data == null || data.getMarketLevel() == null)
-            return null;
-
-        List<BidAskQuote> quotes = data.getMarketLevel().getBidAskQuotes();
-        if (quotes == null)
-            return null;
-
-        List<DepthLevel> bids = new ArrayList<>();
-        List<DepthLevel> asks = new ArrayList<>();
-
-        for (BidAskQuote q : quotes) {
-            if (q.getBq() != null && q.getBq() > 0) {
-                bids.add(new DepthLevel(q.getBp(), q.getBq(), q.getBno() != null ? q.getBno() : 0));
-            }
-            if (q.getAq() != null && q.getAq() > 0) {
-                asks.add(new DepthLevel(q.getAp(), q.getAq(), q.getAno() != null ? q.getAno() : 0));
-            }
-        }
-
-        return OrderBookSnapshot.builder()
-                .instrumentKey(key)
-                .timestamp(timestamp)
-                .bids(bids)
-                .asks(asks)
-                .build();
+        MarketSnapshotMapper.dispatch(update, System.currentTimeMillis(), listener);
     }
 }
@@ -2,11 +2,21 @@ package com.vegatrader.upstox.api.admin.controller;
 
 import com.vegatrader.upstox.api.admin.model.*;
 import com.vegatrader.upstox.api.admin.service.AdminActionService;
+import com.vegatrader.upstox.api.order.audit.AuditExportService;
+import com.vegatrader.upstox.api.order.audit.AuditExportService.ExportRequest;
+import com.vegatrader.upstox.api.rms.eligibility.EligibilityCache;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceDataService;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -22,9 +32,18 @@ public class AdminController {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
     private final AdminActionService adminService;
-
-    public AdminController(AdminActionService adminService) {
+    private final RmsReferenceDataService rmsReferenceData;
+    private final EligibilityCache eligibilityCache;
+    private final AuditExportService auditExportService;
+
+    public AdminController(AdminActionService adminService,
+            RmsReferenceDataService rmsReferenceData,
+            EligibilityCache eligibilityCache,
+            AuditExportService auditExportService) {
         this.adminService = adminService;
+        this.rmsReferenceData = rmsReferenceData;
+        this.eligibilityCache = eligibilityCache;
+        this.auditExportService = auditExportService;
     }
 
     /**
@@ -103,6 +122,25 @@ public class AdminController {
                 "version", request.contractVersion()));
     }
 
+    /**
+     * POST /admin/rms/reference/rebuild
+     * Rebuild the RMS reference snapshot after reference table changes.
+     */
+    @PostMapping("/rms/reference/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRmsReference(
+            @RequestHeader("X-Admin-User") String adminUser) {
+
+        logger.info("RMS reference rebuild by {}", adminUser);
+
+        RmsReferenceSnapshot snapshot = rmsReferenceData.rebuild();
+        eligibilityCache.invalidateAll();
+
+        return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "tradingDate", snapshot.getTradingDate().toString(),
+                "instruments", snapshot.size()));
+    }
+
     /**
      * GET /admin/audit
      * Get recent admin actions.
@@ -113,4 +151,45 @@ public class AdminController {
 
         return ResponseEntity.ok(adminService.getRecentActions(limit));
     }
+
+    /**
+     * GET /admin/audit/export
+     * Stream a user's order audit trail as CSV or a regulator pack ZIP.
+     * Rows are written to the response as they are read; no temp file.
+     */
+    @GetMapping("/audit/export")
+    public ResponseEntity<StreamingResponseBody> exportAudit(
+            @RequestParam("userId") String userId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "format", defaultValue = "CSV") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            @RequestHeader("X-Admin-User") String adminUser) {
+
+        logger.info("Audit export request: user={}, {} to {}, format={}, gzip={} by {}",
+                userId, from, to, format, gzip, adminUser);
+
+        ExportRequest request = new ExportRequest(userId, from, to, format.toUpperCase());
+        boolean pack = "REGULATOR_PACK".equals(request.format());
+
+        String filename = pack
+                ? auditExportService.packFilename(request)
+                : auditExportService.csvFilename(request, gzip);
+        MediaType contentType = pack || gzip
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : new MediaType("text", "csv");
+
+        StreamingResponseBody body = out -> {
+            var summary = pack
+                    ? auditExportService.streamRegulatorPack(request, out, gzip)
+                    : auditExportService.streamCsv(request, out, gzip);
+            logger.info("Audit export streamed: {} records, {} bytes, sha256={}",
+                    summary.recordCount(), summary.bytesWritten(), summary.checksum());
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
 }
@@ -3,8 +3,8 @@ package com.vegatrader.upstox.api.broker.service;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.auth.config.AuthConstants;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -23,11 +23,11 @@ import java.util.List;
 public class UpstoxOptionContractService {
 
     private static final Logger logger = LoggerFactory.getLogger(UpstoxOptionContractService.class);
-    private final OkHttpClient client;
+    private final UpstoxHttpClient client;
     private final ObjectMapper mapper;
 
-    public UpstoxOptionContractService(ObjectMapper mapper) {
-        this.client = new OkHttpClient();
+    public UpstoxOptionContractService(ObjectMapper mapper, UpstoxHttpClient client) {
+        this.client = client;
         this.mapper = mapper;
     }
 
@@ -47,7 +47,7 @@ public class UpstoxOptionContractService {
                 .header("Accept", "application/json")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = client.executeHedged(request)) {
             if (!response.isSuccessful()) {
                 logger.error("Upstox /option/contract failed: POST {} - Code: {}", url, response.code());
                 return Collections.emptyList();
@@ -3,9 +3,9 @@ package com.vegatrader.upstox.api.expired.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vegatrader.upstox.api.expired.model.*;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.auth.entity.UpstoxTokenEntity;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -39,12 +39,12 @@ public class ExpiredInstrumentServiceImpl implements ExpiredInstrumentService {
     private final Map<String, CachedExpiries> expiryCache = new ConcurrentHashMap<>();
 
     private final TokenStorageService tokenStorageService;
-    private final OkHttpClient httpClient;
+    private final UpstoxHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public ExpiredInstrumentServiceImpl(TokenStorageService tokenStorageService,
-            OkHttpClient httpClient,
+            UpstoxHttpClient httpClient,
             ObjectMapper objectMapper) {
         this.tokenStorageService = tokenStorageService;
         this.httpClient = httpClient;
@@ -83,7 +83,7 @@ public class ExpiredInstrumentServiceImpl implements ExpiredInstrumentService {
                     .get()
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = httpClient.executeHedged(request)) {
                 if (response.isSuccessful() && response.body() != null) {
                     JsonNode root = objectMapper.readTree(response.body().string());
                     List<LocalDate> expiries = new ArrayList<>();
@@ -122,7 +122,7 @@ public class ExpiredInstrumentServiceImpl implements ExpiredInstrumentService {
                     .get()
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = httpClient.executeHedged(request)) {
                 if (response.isSuccessful() && response.body() != null) {
                     // TODO: Parse into ExpiredOptionContract list properly
                     // For now returning empty list as placeholders can't be guessed without model
@@ -152,7 +152,7 @@ public class ExpiredInstrumentServiceImpl implements ExpiredInstrumentService {
                     .get()
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = httpClient.executeHedged(request)) {
                 if (response.isSuccessful() && response.body() != null) {
                     // TODO: Parse into ExpiredFutureContract list
                     return new ArrayList<>();
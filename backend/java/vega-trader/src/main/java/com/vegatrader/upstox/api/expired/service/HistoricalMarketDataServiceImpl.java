@@ -3,9 +3,9 @@ package com.vegatrader.upstox.api.expired.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vegatrader.upstox.api.expired.model.Candle;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.auth.entity.UpstoxTokenEntity;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -40,12 +40,12 @@ public class HistoricalMarketDataServiceImpl implements HistoricalMarketDataServ
     private static final String BASE_URL = "https://api.upstox.com/v2/expired-instruments/historical-candle";
 
     private final TokenStorageService tokenStorageService;
-    private final OkHttpClient httpClient;
+    private final UpstoxHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public HistoricalMarketDataServiceImpl(TokenStorageService tokenStorageService,
-            OkHttpClient httpClient,
+            UpstoxHttpClient httpClient,
             ObjectMapper objectMapper) {
         this.tokenStorageService = tokenStorageService;
         this.httpClient = httpClient;
@@ -112,7 +112,7 @@ public class HistoricalMarketDataServiceImpl implements HistoricalMarketDataServ
                     .get()
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = httpClient.executeHedged(request)) {
                 if (response.isSuccessful() && response.body() != null) {
                     JsonNode root = objectMapper.readTree(response.body().string());
                     List<Candle> candles = new ArrayList<>();
@@ -0,0 +1,505 @@
+package com.vegatrader.upstox.api.http;
+
+import com.vegatrader.upstox.api.ratelimit.RateLimitManager;
+import com.vegatrader.upstox.api.ratelimit.RateLimitStatus;
+import com.vegatrader.upstox.api.ratelimit.RateLimiter;
+import com.vegatrader.upstox.api.websocket.ratelimiter.RateLimitExceededException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared execution layer for Upstox REST calls.
+ *
+ * <p>
+ * Wraps the process-wide {@link OkHttpClient} (see
+ * {@code HttpClientConfig}) and adds what every caller otherwise
+ * re-implements or goes without:
+ * <ul>
+ * <li>{@link #execute} / {@link #enqueue}: blocking and
+ * {@link CompletableFuture} calls, both gated by the Upstox
+ * {@link RateLimitManager} limiter for the request path</li>
+ * <li>{@link #enqueueHedged} / {@link #executeHedged}: for idempotent GETs, a
+ * second attempt is sent if the first has not answered within the endpoint's
+ * tail latency; the first response wins and the loser is cancelled</li>
+ * <li>per-endpoint latency histograms ({@link #getEndpointStatistics})</li>
+ * <li>{@link #warmUp}: opens TLS/HTTP/2 connections ahead of market open so
+ * the first orders at 09:15 do not pay for handshakes</li>
+ * </ul>
+ *
+ * <p>
+ * Callers own the returned {@link Response} and must close it.
+ *
+ * @since 5.0.0
+ */
+@Component
+public class UpstoxHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstoxHttpClient.class);
+
+    public static final String DEFAULT_WARMUP_URL = "https://api.upstox.com/v2/";
+
+    /** Samples an endpoint needs before its own percentile drives hedging */
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    /** Hedge delay until an endpoint has enough samples */
+    private static final long HEDGE_DEFAULT_DELAY_MS = 250;
+    private static final int RATE_LIMIT_RETRIES = 3;
+    private static final long RATE_LIMIT_BACKOFF_MS = 100;
+    private static final int WARMUP_CONNECTIONS = 2;
+    private static final long WARMUP_TIMEOUT_MS = 5_000;
+
+    private final OkHttpClient client;
+    private final long hedgeMinDelayMs;
+    private final double hedgePercentile;
+    private final String warmupUrl;
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "upstox-http-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile RateLimitManager rateLimits;
+    private volatile Thread startupWarmUp;
+
+    @Autowired
+    public UpstoxHttpClient(OkHttpClient client,
+            @Value("${upstox.http.hedge.min-delay-ms:50}") long hedgeMinDelayMs,
+            @Value("${upstox.http.hedge.percentile:95}") double hedgePercentile,
+            @Value("${upstox.http.warmup-url:" + DEFAULT_WARMUP_URL + "}") String warmupUrl) {
+        if (client == null) {
+            throw new NullPointerException("client must not be null");
+        }
+        this.client = client;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+        this.hedgePercentile = hedgePercentile;
+        this.warmupUrl = warmupUrl;
+    }
+
+    public UpstoxHttpClient(OkHttpClient client) {
+        this(client, 50, 95, DEFAULT_WARMUP_URL);
+    }
+
+    @Autowired(required = false)
+    public void setRateLimitManager(RateLimitManager rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    /**
+     * The shared client, for callers that need a derived client
+     * ({@code newBuilder()} keeps the pool and dispatcher) or a WebSocket.
+     */
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    // ==================== Calls ====================
+
+    /**
+     * Blocking call; waits out a rate limit (bounded retries) before sending.
+     *
+     * @throws RateLimitExceededException if the limiter never admits the call
+     */
+    public Response execute(Request request) throws IOException {
+        awaitPermit(request);
+        EndpointMetrics metrics = metrics(request);
+        long start = System.nanoTime();
+        try {
+            Response response = client.newCall(request).execute();
+            metrics.record(response, System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            metrics.errors.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous call on the OkHttp dispatcher. A rate-limited call is
+     * retried from a timer rather than blocking the caller. Cancelling the
+     * future cancels the call.
+     */
+    public CompletableFuture<Response> enqueue(Request request) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        Call call = client.newCall(request);
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        whenPermitted(request, 0, result, () -> send(call, metrics(request), result, null));
+        return result;
+    }
+
+    /**
+     * Asynchronous idempotent GET with hedging: if no response arrives within
+     * the endpoint's configured percentile (at least the minimum delay), a
+     * second identical request is sent and the first response wins. The hedge
+     * is only sent if the rate limiter has room; it never waits for it.
+     *
+     * @throws IllegalArgumentException for non-GET requests
+     */
+    public CompletableFuture<Response> enqueueHedged(Request request) {
+        if (!"GET".equals(request.method())) {
+            throw new IllegalArgumentException("Only idempotent GETs can be hedged, got " + request.method());
+        }
+        EndpointMetrics metrics = metrics(request);
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        Hedge hedge = new Hedge();
+        hedge.calls.set(0, client.newCall(request));
+
+        result.whenComplete((r, e) -> {
+            ScheduledFuture<?> backup = hedge.timer;
+            if (backup != null) {
+                backup.cancel(false);
+            }
+            if (result.isCancelled()) {
+                hedge.cancelAllExcept(-1);
+            }
+        });
+
+        whenPermitted(request, 0, result, () -> {
+            hedge.timer = timer.schedule(() -> {
+                if (result.isDone() || !tryPermit(request)) {
+                    return;
+                }
+                Call second = client.newCall(request);
+                hedge.calls.set(1, second);
+                hedge.outstanding.incrementAndGet();
+                metrics.hedged.increment();
+                send(second, metrics, result, hedge);
+            }, hedgeDelayMillis(metrics), TimeUnit.MILLISECONDS);
+            send(hedge.calls.get(0), metrics, result, hedge);
+        });
+        return result;
+    }
+
+    /**
+     * Blocking form of {@link #enqueueHedged}.
+     */
+    public Response executeHedged(Request request) throws IOException {
+        return await(enqueueHedged(request));
+    }
+
+    /**
+     * Current hedge delay for a request's endpoint.
+     */
+    public long hedgeDelayMillis(Request request) {
+        return hedgeDelayMillis(metrics(request));
+    }
+
+    private long hedgeDelayMillis(EndpointMetrics metrics) {
+        if (metrics.histogram.count() < HEDGE_MIN_SAMPLES) {
+            return Math.max(hedgeMinDelayMs, HEDGE_DEFAULT_DELAY_MS);
+        }
+        return Math.max(hedgeMinDelayMs, metrics.histogram.percentileMicros(hedgePercentile) / 1_000L);
+    }
+
+    private void send(Call call, EndpointMetrics metrics, CompletableFuture<Response> result, Hedge hedge) {
+        long start = System.nanoTime();
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call c, Response response) {
+                metrics.record(response, System.nanoTime() - start);
+                if (hedge != null) {
+                    if (!hedge.answered.compareAndSet(false, true)) {
+                        response.close(); // lost the race
+                        return;
+                    }
+                    // Settle bookkeeping before the caller can observe the result
+                    int winner = hedge.calls.get(1) == c ? 1 : 0;
+                    if (winner == 1) {
+                        metrics.hedgeWins.increment();
+                    }
+                    hedge.cancelAllExcept(winner);
+                }
+                if (!result.complete(response)) {
+                    response.close(); // caller cancelled
+                }
+            }
+
+            @Override
+            public void onFailure(Call c, IOException e) {
+                if (c.isCanceled() && result.isDone()) {
+                    return; // cancelled loser
+                }
+                metrics.errors.increment();
+                if (hedge == null || hedge.outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private static Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // ==================== Rate limiting ====================
+
+    private RateLimiter limiterFor(Request request) {
+        RateLimitManager manager = rateLimits;
+        return manager != null ? manager.getLimiterForPath(request.url().encodedPath()) : null;
+    }
+
+    private boolean tryPermit(Request request) {
+        RateLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            return true;
+        }
+        if (limiter.checkLimit() != RateLimitStatus.OK) {
+            return false;
+        }
+        limiter.recordRequest();
+        return true;
+    }
+
+    private void awaitPermit(Request request) {
+        RateLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            return;
+        }
+        if (limiter.checkLimit() != RateLimitStatus.OK && !limiter.waitAndRetry(RATE_LIMIT_RETRIES)) {
+            metrics(request).rateLimited.increment();
+            throw new RateLimitExceededException("Upstox rate limit exceeded for " + endpointOf(request));
+        }
+        limiter.recordRequest();
+    }
+
+    private void whenPermitted(Request request, int attempt, CompletableFuture<Response> result, Runnable send) {
+        if (result.isDone()) {
+            return;
+        }
+        if (tryPermit(request)) {
+            send.run();
+        } else if (attempt >= RATE_LIMIT_RETRIES) {
+            metrics(request).rateLimited.increment();
+            result.completeExceptionally(
+                    new RateLimitExceededException("Upstox rate limit exceeded for " + endpointOf(request)));
+        } else {
+            timer.schedule(() -> whenPermitted(request, attempt + 1, result, send),
+                    RATE_LIMIT_BACKOFF_MS << attempt, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ==================== Warm-up ====================
+
+    /**
+     * Opens connections to the Upstox API host ahead of the session. Bypasses
+     * rate limiting and endpoint metrics.
+     *
+     * @return requests that got a response
+     */
+    public int warmUp() {
+        long start = System.nanoTime();
+        List<CompletableFuture<Response>> calls = new ArrayList<>();
+        for (int i = 0; i < WARMUP_CONNECTIONS; i++) {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            client.newCall(new Request.Builder().url(warmupUrl).head().build()).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) {
+                    future.complete(response);
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            calls.add(future);
+        }
+
+        int ok = 0;
+        Protocol protocol = null;
+        for (CompletableFuture<Response> call : calls) {
+            try (Response response = call.get(WARMUP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                protocol = response.protocol();
+                ok++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("HTTP warm-up to {} failed: {}", warmupUrl, String.valueOf(e.getMessage()));
+            }
+        }
+        logger.info("HTTP warm-up: {}/{} ok over {} in {} ms, pool {} connection(s)", ok, WARMUP_CONNECTIONS,
+                protocol, (System.nanoTime() - start) / 1_000_000L, client.connectionPool().connectionCount());
+        return ok;
+    }
+
+    /**
+     * Warms up on its own daemon thread: {@link #warmUp} blocks for up to
+     * {@code WARMUP_TIMEOUT_MS} per connection, which must not hold up
+     * hedges and rate-limit retries on the timer thread.
+     */
+    @PostConstruct
+    void warmUpOnStartup() {
+        Thread thread = new Thread(this::warmUp, "upstox-http-warmup");
+        thread.setDaemon(true);
+        startupWarmUp = thread;
+        thread.start();
+    }
+
+    /**
+     * Pre-open warm-up; repeated so the pool's keep-alive never lapses before
+     * 09:15.
+     */
+    @Scheduled(cron = "${upstox.http.warmup-cron:0 0,5,10,14 9 * * MON-FRI}", zone = "Asia/Kolkata")
+    public void scheduledWarmUp() {
+        warmUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        Thread warming = startupWarmUp;
+        if (warming != null) {
+            warming.interrupt();
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    private EndpointMetrics metrics(Request request) {
+        String endpoint = endpointOf(request);
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        return metrics != null ? metrics : endpoints.computeIfAbsent(endpoint, k -> new EndpointMetrics());
+    }
+
+    /** {@code METHOD /path}, without query string */
+    static String endpointOf(Request request) {
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    public List<EndpointStatistics> getEndpointStatistics() {
+        List<EndpointStatistics> stats = new ArrayList<>(endpoints.size());
+        endpoints.forEach((endpoint, m) -> stats.add(m.snapshot(endpoint)));
+        stats.sort(Comparator.comparing(EndpointStatistics::endpoint));
+        return stats;
+    }
+
+    public PoolStatistics getPoolStatistics() {
+        return new PoolStatistics(
+                client.connectionPool().connectionCount(),
+                client.connectionPool().idleConnectionCount(),
+                client.dispatcher().runningCallsCount(),
+                client.dispatcher().queuedCallsCount());
+    }
+
+    private static final class EndpointMetrics {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder http2 = new LongAdder();
+        final LongAdder hedged = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+
+        void record(Response response, long nanos) {
+            histogram.record(nanos);
+            if (response.protocol() == Protocol.HTTP_2) {
+                http2.increment();
+            }
+            if (response.code() >= 500) {
+                errors.increment();
+            }
+        }
+
+        EndpointStatistics snapshot(String endpoint) {
+            return new EndpointStatistics(endpoint, histogram.count(), errors.sum(), http2.sum(), hedged.sum(),
+                    hedgeWins.sum(), rateLimited.sum(), histogram.meanMicros(), histogram.percentileMicros(50),
+                    histogram.percentileMicros(95), histogram.percentileMicros(99), histogram.maxMicros());
+        }
+    }
+
+    /**
+     * Calls of one hedged request: [0] primary, [1] hedge.
+     */
+    private static final class Hedge {
+        final AtomicReferenceArray<Call> calls = new AtomicReferenceArray<>(2);
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final AtomicBoolean answered = new AtomicBoolean();
+        volatile ScheduledFuture<?> timer;
+
+        void cancelAllExcept(int winner) {
+            for (int i = 0; i < 2; i++) {
+                Call call = calls.get(i);
+                if (i != winner && call != null) {
+                    call.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-endpoint round-trip metrics. Latencies cover every attempt that got
+     * a response, hedges included.
+     *
+     * @param endpoint    {@code METHOD /path}
+     * @param responses   attempts that got a response
+     * @param errors      transport failures and 5xx responses
+     * @param http2       responses served over HTTP/2
+     * @param hedged      hedge requests sent
+     * @param hedgeWins   hedges that answered first
+     * @param rateLimited calls rejected by the rate limiter
+     * @param meanMicros  mean round trip
+     * @param p50Micros   median round trip
+     * @param p95Micros   95th percentile round trip
+     * @param p99Micros   99th percentile round trip
+     * @param maxMicros   worst round trip
+     */
+    public record EndpointStatistics(String endpoint, long responses, long errors, long http2, long hedged,
+            long hedgeWins, long rateLimited, double meanMicros, long p50Micros, long p95Micros, long p99Micros,
+            long maxMicros) {
+    }
+
+    /**
+     * Shared pool and dispatcher state.
+     */
+    public record PoolStatistics(int connections, int idleConnections, int runningCalls, int queuedCalls) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.vegatrader.upstox.api.instrument.index;
+
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+
+import java.time.LocalDate;
+
+/**
+ * Contract details of one instrument, as held by the {@link InstrumentIndex}.
+ *
+ * @param instrumentKey    Upstox instrument key
+ * @param segment          e.g. NSE_EQ, NSE_FO
+ * @param tradingSymbol    exchange trading symbol
+ * @param name             instrument name
+ * @param underlyingSymbol underlying of a derivative, else {@code null}
+ * @param underlyingKey    instrument key of the underlying, else {@code null}
+ * @param instrumentType   e.g. EQ, INDEX, FUT, CE, PE
+ * @param expiry           expiry of a derivative, else {@code null}
+ * @param strike           strike of an option, else 0
+ * @param lotSize          contract lot size, at least 1
+ * @param freezeQuantity   largest quantity per order, 0 if unlimited
+ * @param tickSize         price step in rupees, 0 if unknown
+ * @since 5.0.0
+ */
+public record IndexedInstrument(String instrumentKey, String segment, String tradingSymbol, String name,
+        String underlyingSymbol, String underlyingKey, String instrumentType, LocalDate expiry, double strike,
+        int lotSize, int freezeQuantity, double tickSize) {
+
+    /**
+     * The BOD file publishes tick sizes in paise.
+     */
+    private static final double PAISE = 100.0;
+
+    static IndexedInstrument of(InstrumentMasterEntity entity) {
+        return new IndexedInstrument(
+                entity.getInstrumentKey(),
+                entity.getSegment(),
+                entity.getTradingSymbol(),
+                entity.getName(),
+                entity.getUnderlyingSymbol(),
+                entity.getUnderlyingKey(),
+                entity.getInstrumentType(),
+                entity.getExpiry(),
+                entity.getStrikePrice() != null ? entity.getStrikePrice() : 0,
+                entity.getLotSize() != null && entity.getLotSize() > 0 ? entity.getLotSize() : 1,
+                entity.getFreezeQuantity() != null ? entity.getFreezeQuantity() : 0,
+                entity.getTickSize() != null ? entity.getTickSize() / PAISE : 0);
+    }
+
+    public boolean isDerivative() {
+        return expiry != null;
+    }
+
+    public boolean isOption() {
+        return "CE".equals(instrumentType) || "PE".equals(instrumentType);
+    }
+
+    public boolean isFuture() {
+        return isDerivative() && !isOption();
+    }
+}
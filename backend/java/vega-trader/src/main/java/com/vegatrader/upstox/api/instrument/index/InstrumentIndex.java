@@ -0,0 +1,598 @@
+package com.vegatrader.upstox.api.instrument.index;
+
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.instrument.repository.InstrumentMasterRepository;
+import com.vegatrader.util.locale.LocaleConstants;
+import com.vegatrader.util.time.TimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of the instrument master for symbol resolution on the
+ * order path.
+ *
+ * <p>
+ * Resolves instrument keys, trading symbols and derivative shorthand
+ * (underlying, strike, option type, expiry) with hash and binary-search
+ * lookups, and suggests near matches for mistyped symbols, so the command
+ * line never waits on the database. The index is rebuilt from
+ * {@link InstrumentMasterRepository} at startup and after each daily
+ * instrument refresh; readers see either the old or the new snapshot.
+ *
+ * <p>
+ * Symbols match case-insensitively with spaces removed, so {@code nifty50}
+ * finds "Nifty 50". Where a symbol is listed on several segments, NSE wins
+ * over BSE and cash over derivatives. The underlying of a derivative also
+ * resolves to its own instrument, e.g. NIFTY to the Nifty 50 index.
+ *
+ * <p>
+ * Expiries are selected by code: {@code W1}, {@code W2}... for the nearest,
+ * next... expiry, {@code M1}, {@code M2}... for the nearest, next... monthly
+ * (last of its month) expiry, {@code 24DEC} for a day, {@code DEC} for the
+ * monthly expiry of a month, or an ISO date. Expiries before today (IST)
+ * are never selected.
+ *
+ * @since 5.0.0
+ */
+@Service
+public class InstrumentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentIndex.class);
+
+    private static final List<String> SEGMENT_PREFERENCE = List.of(
+            "NSE_EQ", "NSE_INDEX", "BSE_EQ", "BSE_INDEX", "NSE_FO", "BSE_FO", "MCX_FO", "NCD_FO", "BCD_FO");
+
+    private static final String[] MONTHS = {
+            "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+
+    private final InstrumentMasterRepository repository;
+    private final TimeProvider clock;
+    private volatile Snapshot snapshot = build(List.of());
+
+    public InstrumentIndex(InstrumentMasterRepository repository, TimeProvider clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Instrument index not loaded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the index from the active instruments of the master table.
+     *
+     * @return number of instruments indexed
+     */
+    public int refresh() {
+        List<InstrumentMasterEntity> active = new ArrayList<>();
+        for (InstrumentMasterEntity entity : repository.findAll()) {
+            if (!Boolean.FALSE.equals(entity.getIsActive())) {
+                active.add(entity);
+            }
+        }
+        load(active);
+        return size();
+    }
+
+    /**
+     * Replaces the index with {@code entities}.
+     */
+    public void load(Collection<InstrumentMasterEntity> entities) {
+        long start = System.nanoTime();
+        Snapshot next = build(entities);
+        snapshot = next;
+        logger.info("Instrument index built: {} instruments, {} symbols, {} underlyings in {}ms",
+                next.byKey.size(), next.bySymbol.size(), next.chains.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public int size() {
+        return snapshot.byKey.size();
+    }
+
+    /**
+     * @return the instrument, or {@code null} if it is not indexed
+     */
+    public IndexedInstrument get(String instrumentKey) {
+        return instrumentKey != null ? snapshot.byKey.get(instrumentKey) : null;
+    }
+
+    /**
+     * Exact lookup by instrument key, trading symbol or underlying symbol.
+     *
+     * @return the instrument, or {@code null} if nothing matches exactly
+     */
+    public IndexedInstrument resolve(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        Snapshot s = snapshot;
+        if (symbol.indexOf('|') >= 0) {
+            IndexedInstrument byKey = s.byKey.get(symbol.trim());
+            if (byKey != null) {
+                return byKey;
+            }
+        }
+        return s.bySymbol.get(normalize(symbol));
+    }
+
+    /**
+     * @param expiry expiry code, {@code null} for the nearest expiry
+     * @return the option contract, or {@code null} if it is not listed
+     * @throws IllegalArgumentException if {@code expiry} is not an expiry
+     *                                  code
+     */
+    public IndexedInstrument option(String underlying, double strike, boolean call, String expiry) {
+        Series series = series(underlying, expiry);
+        return series != null ? series.option(strike, call) : null;
+    }
+
+    /**
+     * @param expiry expiry code, {@code null} for the nearest expiry
+     * @return the futures contract, or {@code null} if it is not listed
+     * @throws IllegalArgumentException if {@code expiry} is not an expiry
+     *                                  code
+     */
+    public IndexedInstrument future(String underlying, String expiry) {
+        Series series = series(underlying, expiry);
+        return series != null ? series.future : null;
+    }
+
+    /**
+     * @return the expiry {@code code} selects for the underlying, or
+     *         {@code null} if there is none
+     * @throws IllegalArgumentException if {@code code} is not an expiry code
+     */
+    public LocalDate expiry(String underlying, String code) {
+        Chain chain = underlying != null ? snapshot.chains.get(normalize(underlying)) : null;
+        if (chain == null) {
+            return null;
+        }
+        int i = chain.select(code, today());
+        return i >= 0 ? chain.expiries[i] : null;
+    }
+
+    /**
+     * Symbols close to {@code query}: an exact match first, then symbols it
+     * is a prefix of, then symbols within a small edit distance, nearest
+     * first. Derivative trading symbols are matched exactly only.
+     *
+     * @return up to {@code limit} normalized symbols
+     */
+    public List<String> suggest(String query, int limit) {
+        String q = query != null ? normalize(query) : "";
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot s = snapshot;
+        Set<String> hits = new LinkedHashSet<>();
+        if (s.bySymbol.containsKey(q)) {
+            hits.add(q);
+        }
+        int i = Arrays.binarySearch(s.sorted, q);
+        for (i = i < 0 ? -i - 1 : i; i < s.sorted.length && hits.size() < limit && s.sorted[i].startsWith(q); i++) {
+            hits.add(s.sorted[i]);
+        }
+        if (hits.size() < limit) {
+            for (String near : s.near(q)) {
+                if (hits.size() >= limit) {
+                    break;
+                }
+                hits.add(near);
+            }
+        }
+        return new ArrayList<>(hits);
+    }
+
+    /**
+     * @return whether {@code token} has the form of an expiry code
+     */
+    public static boolean isExpiryCode(String token) {
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+        String c = token.toUpperCase(Locale.ROOT);
+        return seriesNumber(c) > 0 || isoDate(c) != null || dayMonth(c) > 0 || month(c) > 0;
+    }
+
+    private Series series(String underlying, String expiry) {
+        Chain chain = underlying != null ? snapshot.chains.get(normalize(underlying)) : null;
+        if (chain == null) {
+            return null;
+        }
+        int i = chain.select(expiry, today());
+        return i >= 0 ? chain.series[i] : null;
+    }
+
+    private LocalDate today() {
+        return clock.today(LocaleConstants.IST_ZONE);
+    }
+
+    // ----- building -----
+
+    private static Snapshot build(Collection<InstrumentMasterEntity> entities) {
+        Map<String, IndexedInstrument> byKey = new HashMap<>(Math.max(16, entities.size() * 4 / 3));
+        Map<String, IndexedInstrument> bySymbol = new HashMap<>();
+        Map<String, ChainBuilder> builders = new HashMap<>();
+        for (InstrumentMasterEntity entity : entities) {
+            if (entity.getInstrumentKey() == null || entity.getTradingSymbol() == null) {
+                continue;
+            }
+            IndexedInstrument instrument = IndexedInstrument.of(entity);
+            byKey.put(instrument.instrumentKey(), instrument);
+            bySymbol.merge(normalize(instrument.tradingSymbol()), instrument, InstrumentIndex::preferred);
+            if (instrument.isDerivative() && instrument.underlyingSymbol() != null) {
+                builders.computeIfAbsent(normalize(instrument.underlyingSymbol()), ChainBuilder::new).add(instrument);
+            }
+        }
+
+        Set<String> base = new HashSet<>();
+        bySymbol.forEach((symbol, instrument) -> {
+            if (!instrument.isDerivative()) {
+                base.add(symbol);
+            }
+        });
+        Map<String, Chain> chains = new HashMap<>(Math.max(16, builders.size() * 4 / 3));
+        for (ChainBuilder builder : builders.values()) {
+            chains.put(builder.underlying, builder.build());
+            base.add(builder.underlying);
+            IndexedInstrument underlying = builder.underlyingKey != null ? byKey.get(builder.underlyingKey) : null;
+            if (underlying != null) {
+                bySymbol.putIfAbsent(builder.underlying, underlying);
+            }
+        }
+        return new Snapshot(byKey, bySymbol, chains, base);
+    }
+
+    private static IndexedInstrument preferred(IndexedInstrument a, IndexedInstrument b) {
+        return rank(b) < rank(a) ? b : a;
+    }
+
+    private static int rank(IndexedInstrument instrument) {
+        int segment = SEGMENT_PREFERENCE.indexOf(instrument.segment());
+        int rank = (segment >= 0 ? segment : SEGMENT_PREFERENCE.size()) * 2;
+        return instrument.isDerivative() || "EQ".equals(instrument.instrumentType())
+                || "INDEX".equals(instrument.instrumentType()) ? rank : rank + 1;
+    }
+
+    static String normalize(String symbol) {
+        StringBuilder sb = new StringBuilder(symbol.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c >= 'a' && c <= 'z' ? (char) (c - 32) : Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    // ----- expiry codes -----
+
+    /** @return n of {@code Wn}/{@code Mn}, else 0 */
+    private static int seriesNumber(String c) {
+        if (c.length() < 2 || c.length() > 3 || (c.charAt(0) != 'W' && c.charAt(0) != 'M')) {
+            return 0;
+        }
+        int n = 0;
+        for (int i = 1; i < c.length(); i++) {
+            char d = c.charAt(i);
+            if (d < '0' || d > '9') {
+                return 0;
+            }
+            n = n * 10 + d - '0';
+        }
+        return n;
+    }
+
+    private static LocalDate isoDate(String c) {
+        if (c.length() != 10 || c.charAt(4) != '-') {
+            return null;
+        }
+        try {
+            return LocalDate.parse(c);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** @return {@code day * 100 + month} of {@code 24DEC}, else 0 */
+    private static int dayMonth(String c) {
+        int digits = 0;
+        while (digits < c.length() && Character.isDigit(c.charAt(digits))) {
+            digits++;
+        }
+        if (digits < 1 || digits > 2) {
+            return 0;
+        }
+        int day = Integer.parseInt(c.substring(0, digits));
+        int month = month(c.substring(digits));
+        return day >= 1 && day <= 31 && month > 0 ? day * 100 + month : 0;
+    }
+
+    /** @return 1-12 for a month abbreviation, else 0 */
+    private static int month(String c) {
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].equals(c)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    // ----- structures -----
+
+    private static final class Snapshot {
+        final Map<String, IndexedInstrument> byKey;
+        final Map<String, IndexedInstrument> bySymbol;
+        final Map<String, Chain> chains;
+        /** Non-derivative symbols and underlyings, sorted, for prefix search */
+        final String[] sorted;
+        /** The same by length, for edit-distance search */
+        final char[][] byLength;
+        /** Letters and digits present in each of {@link #byLength} */
+        final int[] masks;
+        /** Index of the first symbol at least as long as the index */
+        final int[] lengthStart;
+
+        Snapshot(Map<String, IndexedInstrument> byKey, Map<String, IndexedInstrument> bySymbol,
+                Map<String, Chain> chains, Set<String> base) {
+            this.byKey = byKey;
+            this.bySymbol = bySymbol;
+            this.chains = chains;
+            this.sorted = base.toArray(new String[0]);
+            Arrays.sort(sorted);
+            String[] lengthOrder = sorted.clone();
+            Arrays.sort(lengthOrder, Comparator.comparingInt(String::length)); // stable: alphabetical per length
+            int longest = lengthOrder.length > 0 ? lengthOrder[lengthOrder.length - 1].length() : 0;
+            this.byLength = new char[lengthOrder.length][];
+            this.masks = new int[lengthOrder.length];
+            this.lengthStart = new int[longest + 2];
+            int next = 0;
+            for (int i = 0; i < lengthOrder.length; i++) {
+                byLength[i] = lengthOrder[i].toCharArray();
+                masks[i] = mask(byLength[i]);
+                while (next <= byLength[i].length) {
+                    lengthStart[next++] = i;
+                }
+            }
+            while (next < lengthStart.length) {
+                lengthStart[next++] = lengthOrder.length;
+            }
+        }
+
+        /**
+         * Symbols within one edit (two for queries longer than four
+         * characters) of {@code q}, nearest first.
+         */
+        List<String> near(String q) {
+            int max = q.length() <= 4 ? 1 : 2;
+            char[] query = q.toCharArray();
+            int queryMask = mask(query);
+            int from = lengthStart[Math.min(Math.max(query.length - max, 0), lengthStart.length - 1)];
+            int to = lengthStart[Math.min(query.length + max + 1, lengthStart.length - 1)];
+            int[][] rows = new int[3][lengthStart.length];
+            List<long[]> found = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                // one edit changes the presence of at most two characters
+                if (Integer.bitCount(masks[i] ^ queryMask) > 2 * max) {
+                    continue;
+                }
+                int d = distance(query, byLength[i], max, rows);
+                if (d <= max) {
+                    found.add(new long[] { d, i });
+                }
+            }
+            found.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                    : Arrays.compare(byLength[(int) a[1]], byLength[(int) b[1]]));
+            List<String> out = new ArrayList<>(found.size());
+            for (long[] hit : found) {
+                out.add(new String(byLength[(int) hit[1]]));
+            }
+            return out;
+        }
+
+        private static int mask(char[] symbol) {
+            int mask = 0;
+            for (char c : symbol) {
+                if (c >= 'A' && c <= 'Z') {
+                    mask |= 1 << (c - 'A');
+                } else if (c >= '0' && c <= '9') {
+                    mask |= 1 << (26 + (c - '0') % 6);
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * Edit distance counting a swap of adjacent characters as one edit
+         * (optimal string alignment), abandoned once it must exceed
+         * {@code max}.
+         */
+        private static int distance(char[] a, char[] b, int max, int[][] rows) {
+            int[] before = rows[0];
+            int[] prev = rows[1];
+            int[] cur = rows[2];
+            for (int j = 0; j <= b.length; j++) {
+                prev[j] = j;
+            }
+            for (int i = 1; i <= a.length; i++) {
+                cur[0] = i;
+                int rowMin = i;
+                for (int j = 1; j <= b.length; j++) {
+                    int d = Math.min(Math.min(prev[j], cur[j - 1]) + 1, prev[j - 1] + (a[i - 1] == b[j - 1] ? 0 : 1));
+                    if (i > 1 && j > 1 && a[i - 1] == b[j - 2] && a[i - 2] == b[j - 1]) {
+                        d = Math.min(d, before[j - 2] + 1);
+                    }
+                    cur[j] = d;
+                    rowMin = Math.min(rowMin, d);
+                }
+                if (rowMin > max) {
+                    return max + 1;
+                }
+                int[] swap = before;
+                before = prev;
+                prev = cur;
+                cur = swap;
+            }
+            return prev[b.length];
+        }
+    }
+
+    /** Listed expiries of one underlying, ascending */
+    private static final class Chain {
+        final LocalDate[] expiries;
+        /** Whether each expiry is the last of its month */
+        final boolean[] monthly;
+        final Series[] series;
+
+        Chain(LocalDate[] expiries, Series[] series) {
+            this.expiries = expiries;
+            this.series = series;
+            this.monthly = new boolean[expiries.length];
+            for (int i = 0; i < expiries.length; i++) {
+                monthly[i] = i == expiries.length - 1
+                        || expiries[i + 1].getMonthValue() != expiries[i].getMonthValue()
+                        || expiries[i + 1].getYear() != expiries[i].getYear();
+            }
+        }
+
+        /**
+         * @return index of the expiry {@code code} selects, or -1
+         */
+        int select(String code, LocalDate today) {
+            int first = Arrays.binarySearch(expiries, today);
+            first = first < 0 ? -first - 1 : first;
+            if (code == null || code.isEmpty()) {
+                return first < expiries.length ? first : -1;
+            }
+            String c = code.toUpperCase(Locale.ROOT);
+            int n = seriesNumber(c);
+            if (n > 0) {
+                boolean monthlyOnly = c.charAt(0) == 'M';
+                for (int i = first; i < expiries.length; i++) {
+                    if ((!monthlyOnly || monthly[i]) && --n == 0) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            LocalDate date = isoDate(c);
+            if (date != null) {
+                int i = Arrays.binarySearch(expiries, date);
+                return i >= first ? i : -1;
+            }
+            int dayMonth = dayMonth(c);
+            int month = dayMonth > 0 ? dayMonth % 100 : month(c);
+            if (month == 0) {
+                throw new IllegalArgumentException("Invalid expiry: " + code);
+            }
+            for (int i = first; i < expiries.length; i++) {
+                LocalDate e = expiries[i];
+                if (e.getMonthValue() == month
+                        && (dayMonth > 0 ? e.getDayOfMonth() == dayMonth / 100 : monthly[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Contracts of one expiry */
+    private static final class Series {
+        final IndexedInstrument future;
+        final double[] strikes;
+        final IndexedInstrument[] calls;
+        final IndexedInstrument[] puts;
+
+        Series(IndexedInstrument future, double[] strikes, IndexedInstrument[] calls, IndexedInstrument[] puts) {
+            this.future = future;
+            this.strikes = strikes;
+            this.calls = calls;
+            this.puts = puts;
+        }
+
+        IndexedInstrument option(double strike, boolean call) {
+            int i = Arrays.binarySearch(strikes, strike);
+            return i < 0 ? null : call ? calls[i] : puts[i];
+        }
+    }
+
+    private static final class ChainBuilder {
+        final String underlying;
+        String underlyingKey;
+        final TreeMap<LocalDate, SeriesBuilder> series = new TreeMap<>();
+
+        ChainBuilder(String underlying) {
+            this.underlying = underlying;
+        }
+
+        void add(IndexedInstrument instrument) {
+            if (underlyingKey == null) {
+                underlyingKey = instrument.underlyingKey();
+            }
+            series.computeIfAbsent(instrument.expiry(), e -> new SeriesBuilder()).add(instrument);
+        }
+
+        Chain build() {
+            LocalDate[] expiries = series.keySet().toArray(new LocalDate[0]);
+            Series[] built = new Series[expiries.length];
+            int i = 0;
+            for (SeriesBuilder builder : series.values()) {
+                built[i++] = builder.build();
+            }
+            return new Chain(expiries, built);
+        }
+    }
+
+    private static final class SeriesBuilder {
+        IndexedInstrument future;
+        /** Strike to {call, put} */
+        final TreeMap<Double, IndexedInstrument[]> strikes = new TreeMap<>();
+
+        void add(IndexedInstrument instrument) {
+            if (!instrument.isOption()) {
+                future = future == null ? instrument : preferred(future, instrument);
+                return;
+            }
+            IndexedInstrument[] pair = strikes.computeIfAbsent(instrument.strike(), s -> new IndexedInstrument[2]);
+            int side = "CE".equals(instrument.instrumentType()) ? 0 : 1;
+            pair[side] = pair[side] == null ? instrument : preferred(pair[side], instrument);
+        }
+
+        Series build() {
+            double[] values = new double[strikes.size()];
+            IndexedInstrument[] calls = new IndexedInstrument[values.length];
+            IndexedInstrument[] puts = new IndexedInstrument[values.length];
+            int i = 0;
+            for (Map.Entry<Double, IndexedInstrument[]> entry : strikes.entrySet()) {
+                values[i] = entry.getKey();
+                calls[i] = entry.getValue()[0];
+                puts[i] = entry.getValue()[1];
+                i++;
+            }
+            return new Series(future, values, calls, puts);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.vegatrader.upstox.api.instrument.loader;
 
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -19,6 +21,7 @@ import java.time.ZoneId;
  * <li>Load Suspended overlay</li>
  * <li>Load MIS overlay</li>
  * <li>Load MTF overlay</li>
+ * <li>Rebuild the in-memory {@link InstrumentIndex}</li>
  * </ol>
  * 
  * @since 4.0.0
@@ -31,6 +34,9 @@ public class DailyRefreshScheduler {
 
     private final InstrumentLoaderService loaderService;
 
+    @Autowired(required = false)
+    private InstrumentIndex instrumentIndex;
+
     @Value("${instrument.refresh.enabled:true}")
     private boolean refreshEnabled;
 
@@ -69,6 +75,9 @@ public class DailyRefreshScheduler {
 
         try {
             loaderService.performDailyRefresh();
+            if (instrumentIndex != null) {
+                instrumentIndex.refresh();
+            }
 
             lastRefreshSuccess = true;
             lastRefreshTime = LocalDateTime.now(IST);
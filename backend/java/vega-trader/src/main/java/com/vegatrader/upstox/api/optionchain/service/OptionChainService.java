@@ -2,10 +2,10 @@ package com.vegatrader.upstox.api.optionchain.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.api.optionchain.model.*;
 import com.vegatrader.upstox.auth.entity.UpstoxTokenEntity;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -37,12 +37,12 @@ public class OptionChainService {
     private final Map<String, CachedOptionChain> cache = new ConcurrentHashMap<>();
 
     private final TokenStorageService tokenStorageService;
-    private final OkHttpClient httpClient;
+    private final UpstoxHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public OptionChainService(TokenStorageService tokenStorageService,
-            OkHttpClient httpClient,
+            UpstoxHttpClient httpClient,
             ObjectMapper objectMapper) {
         this.tokenStorageService = tokenStorageService;
         this.httpClient = httpClient;
@@ -107,7 +107,7 @@ public class OptionChainService {
                 .get()
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = httpClient.executeHedged(request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected code " + response);
             }
@@ -0,0 +1,24 @@
+package com.vegatrader.upstox.api.order.audit;
+
+import java.time.Instant;
+
+/**
+ * Flat, unmanaged projection of an audit event for export.
+ *
+ * <p>
+ * Selected with a JPQL constructor expression so export pages never enter
+ * the persistence context; memory stays flat however many pages are read.
+ *
+ * @since 4.9.0
+ */
+public record AuditExportRow(
+        Long id,
+        String eventId,
+        String orderId,
+        String userId,
+        String eventType,
+        String previousState,
+        String newState,
+        String source,
+        Instant createdAt) {
+}
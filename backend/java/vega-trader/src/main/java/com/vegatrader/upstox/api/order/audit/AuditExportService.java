@@ -1,16 +1,18 @@
 package com.vegatrader.upstox.api.order.audit;
 
-import com.vegatrader.upstox.api.order.entity.AuditEventEntity;
 import com.vegatrader.upstox.api.order.repository.AuditEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -21,10 +23,17 @@ import java.util.zip.*;
  * Per order-mgmt/b2.md section 6.
  * 
  * Supports:
- * - CSV export
+ * - CSV export (optionally gzip'd)
  * - PDF export (placeholder)
  * - Regulator Pack (ZIP: CSV + checksum)
  * 
+ * <p>
+ * Exports are streamed: rows are read with keyset pagination
+ * ({@code createdAt, id}) as unmanaged projections and written straight to
+ * the output, with SHA-256 computed in the same pass. Memory use does not
+ * depend on the number of rows, and the {@code stream*} methods can write
+ * directly to an HTTP response without a temp file.
+ * 
  * @since 4.9.0
  */
 @Service
@@ -33,6 +42,10 @@ public class AuditExportService {
     private static final Logger logger = LoggerFactory.getLogger(AuditExportService.class);
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String CSV_HEADER =
+            "event_id,order_id,user_id,event_type,previous_state,new_state,source,created_at\n";
+    private static final int PAGE_SIZE = 2_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final AuditEventRepository auditEventRepository;
 
@@ -44,50 +57,49 @@ public class AuditExportService {
      * Export audit events to CSV.
      */
     public ExportResult exportToCSV(ExportRequest request) throws IOException {
+        return exportToCSV(request, false);
+    }
+
+    /**
+     * Export audit events to a CSV file, gzip'd when {@code gzip} is set.
+     */
+    public ExportResult exportToCSV(ExportRequest request, boolean gzip) throws IOException {
         logger.info("Exporting audit events to CSV for user {} from {} to {}",
                 request.userId(), request.startDate(), request.endDate());
 
-        Instant start = request.startDate().atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant end = request.endDate().atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
-
-        Page<AuditEventEntity> events = auditEventRepository.findForExport(
-                request.userId(), start, end, PageRequest.of(0, 10000));
-
-        StringBuilder csv = new StringBuilder();
-
-        // Header
-        csv.append("event_id,order_id,user_id,event_type,previous_state,new_state,source,created_at\n");
+        String filename = csvFilename(request, gzip);
+        Path exportPath = Paths.get(System.getProperty("java.io.tmpdir"), filename);
 
-        // Data rows
-        for (AuditEventEntity event : events) {
-            csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s\n",
-                    event.getEventId(),
-                    event.getOrderId(),
-                    event.getUserId(),
-                    event.getEventType(),
-                    event.getPreviousState() != null ? event.getPreviousState() : "",
-                    event.getNewState() != null ? event.getNewState() : "",
-                    event.getSource(),
-                    TIMESTAMP_FORMAT.format(event.getCreatedAt().atZone(ZoneId.systemDefault()))));
+        ExportSummary summary;
+        try (OutputStream out = Files.newOutputStream(exportPath)) {
+            summary = streamCsv(request, out, gzip);
         }
 
-        String filename = String.format("audit_export_%s_%s_%s.csv",
-                request.userId(),
-                DATE_FORMAT.format(request.startDate()),
-                DATE_FORMAT.format(request.endDate()));
-
-        Path exportPath = Paths.get(System.getProperty("java.io.tmpdir"), filename);
-        Files.writeString(exportPath, csv.toString(), StandardCharsets.UTF_8);
-
-        logger.info("CSV export complete: {} records to {}", events.getTotalElements(), exportPath);
+        logger.info("CSV export complete: {} records to {}", summary.recordCount(), exportPath);
 
         return new ExportResult(
                 filename,
                 exportPath.toString(),
                 "CSV",
-                events.getTotalElements(),
-                Files.size(exportPath),
-                calculateChecksum(csv.toString()));
+                summary.recordCount(),
+                summary.bytesWritten(),
+                summary.checksum());
+    }
+
+    /**
+     * Streams the CSV to {@code out}. The stream is flushed but not closed.
+     *
+     * @return row count, bytes written and SHA-256 of the bytes written
+     */
+    public ExportSummary streamCsv(ExportRequest request, OutputStream out, boolean gzip) throws IOException {
+        DigestingOutputStream digest = new DigestingOutputStream(new NonClosingOutputStream(out));
+        OutputStream sink = gzip ? new GZIPOutputStream(digest, BUFFER_SIZE) : digest;
+
+        long rows;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            rows = writeCsv(request, writer);
+        }
+        return new ExportSummary(rows, digest.getCount(), digest.hex());
     }
 
     /**
@@ -114,29 +126,57 @@ public class AuditExportService {
     public ExportResult exportRegulatorPack(ExportRequest request) throws IOException {
         logger.info("Exporting regulator pack for user {}", request.userId());
 
-        // Generate CSV first
-        ExportResult csvResult = exportToCSV(request);
+        String zipFilename = packFilename(request);
+        Path zipPath = Paths.get(System.getProperty("java.io.tmpdir"), zipFilename);
 
-        // Create ZIP
-        String zipFilename = String.format("regulator_pack_%s_%s_%s.zip",
-                request.userId(),
-                DATE_FORMAT.format(request.startDate()),
-                DATE_FORMAT.format(request.endDate()));
+        ExportSummary summary;
+        try (OutputStream out = Files.newOutputStream(zipPath)) {
+            summary = streamRegulatorPack(request, out, false);
+        }
 
-        Path zipPath = Paths.get(System.getProperty("java.io.tmpdir"), zipFilename);
+        logger.info("Regulator pack export complete: {}", zipPath);
 
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipPath.toFile()))) {
-            // Add CSV file
-            addToZip(zos, csvResult.filePath(), csvResult.filename());
+        return new ExportResult(
+                zipFilename,
+                zipPath.toString(),
+                "REGULATOR_PACK",
+                summary.recordCount(),
+                summary.bytesWritten(),
+                summary.checksum());
+    }
 
-            // Add checksum file
-            String checksumContent = String.format("%s  %s\n", csvResult.checksum(), csvResult.filename());
-            ZipEntry checksumEntry = new ZipEntry("checksum.sha256");
-            zos.putNextEntry(checksumEntry);
+    /**
+     * Streams a regulator pack ZIP to {@code out}: the CSV (gzip'd inside the
+     * archive when {@code gzipCsv} is set), its SHA-256 and a metadata file.
+     * The CSV digest is computed while the entry is written, so the rows are
+     * read exactly once. The stream is flushed but not closed.
+     *
+     * @return row count, bytes written and SHA-256 of the whole archive
+     */
+    public ExportSummary streamRegulatorPack(ExportRequest request, OutputStream out, boolean gzipCsv)
+            throws IOException {
+        DigestingOutputStream packDigest = new DigestingOutputStream(new NonClosingOutputStream(out));
+        String csvFilename = csvFilename(request, gzipCsv);
+        long rows;
+
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(packDigest, BUFFER_SIZE))) {
+            // CSV, hashed as stored in the archive
+            zos.putNextEntry(new ZipEntry(csvFilename));
+            DigestingOutputStream csvDigest = new DigestingOutputStream(new NonClosingOutputStream(zos));
+            OutputStream sink = gzipCsv ? new GZIPOutputStream(csvDigest, BUFFER_SIZE) : csvDigest;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8),
+                    BUFFER_SIZE)) {
+                rows = writeCsv(request, writer);
+            }
+            zos.closeEntry();
+
+            // Checksum file
+            String checksumContent = String.format("%s  %s\n", csvDigest.hex(), csvFilename);
+            zos.putNextEntry(new ZipEntry("checksum.sha256"));
             zos.write(checksumContent.getBytes(StandardCharsets.UTF_8));
             zos.closeEntry();
 
-            // Add metadata file
+            // Metadata file
             String metadata = String.format("""
                     Export Metadata
                     ===============
@@ -150,23 +190,14 @@ public class AuditExportService {
                     request.userId(),
                     request.startDate(),
                     request.endDate(),
-                    csvResult.recordCount(),
+                    rows,
                     Instant.now().toString());
-            ZipEntry metaEntry = new ZipEntry("metadata.txt");
-            zos.putNextEntry(metaEntry);
+            zos.putNextEntry(new ZipEntry("metadata.txt"));
             zos.write(metadata.getBytes(StandardCharsets.UTF_8));
             zos.closeEntry();
         }
 
-        logger.info("Regulator pack export complete: {}", zipPath);
-
-        return new ExportResult(
-                zipFilename,
-                zipPath.toString(),
-                "REGULATOR_PACK",
-                csvResult.recordCount(),
-                Files.size(zipPath),
-                calculateChecksum(Files.readString(zipPath)));
+        return new ExportSummary(rows, packDigest.getCount(), packDigest.hex());
     }
 
     /**
@@ -177,25 +208,147 @@ public class AuditExportService {
         return List.of();
     }
 
-    private void addToZip(ZipOutputStream zos, String filePath, String entryName) throws IOException {
-        Path path = Paths.get(filePath);
-        ZipEntry entry = new ZipEntry(entryName);
-        zos.putNextEntry(entry);
-        Files.copy(path, zos);
-        zos.closeEntry();
+    public String csvFilename(ExportRequest request, boolean gzip) {
+        return String.format("audit_export_%s_%s_%s.csv%s",
+                request.userId(),
+                DATE_FORMAT.format(request.startDate()),
+                DATE_FORMAT.format(request.endDate()),
+                gzip ? ".gz" : "");
     }
 
-    private String calculateChecksum(String content) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(content.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder();
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
+    public String packFilename(ExportRequest request) {
+        return String.format("regulator_pack_%s_%s_%s.zip",
+                request.userId(),
+                DATE_FORMAT.format(request.startDate()),
+                DATE_FORMAT.format(request.endDate()));
+    }
+
+    /**
+     * Writes header and rows page by page. Each page is a keyset seek past
+     * the last (createdAt, id) written, so cost per page is constant and no
+     * OFFSET scan grows with the export. Rows sharing a timestamp across a
+     * page boundary are told apart by id alone.
+     */
+    private long writeCsv(ExportRequest request, Writer writer) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant start = request.startDate().atStartOfDay(zone).toInstant();
+        Instant end = request.endDate().atTime(23, 59, 59).atZone(zone).toInstant();
+        Pageable page = PageRequest.of(0, PAGE_SIZE);
+
+        writer.write(CSV_HEADER);
+
+        // (start, MIN) takes every row at or after start
+        Instant fromTs = start;
+        long afterId = Long.MIN_VALUE;
+        long rows = 0;
+
+        while (true) {
+            List<AuditExportRow> batch = auditEventRepository.findExportPage(
+                    request.userId(), fromTs, afterId, end, page);
+            for (AuditExportRow row : batch) {
+                writeRow(writer, row, zone);
+            }
+            rows += batch.size();
+            if (batch.size() < PAGE_SIZE) {
+                break;
+            }
+            AuditExportRow last = batch.get(batch.size() - 1);
+            fromTs = last.createdAt();
+            afterId = last.id();
+        }
+        return rows;
+    }
+
+    private static void writeRow(Writer writer, AuditExportRow row, ZoneId zone) throws IOException {
+        writeField(writer, row.eventId());
+        writer.write(',');
+        writeField(writer, row.orderId());
+        writer.write(',');
+        writeField(writer, row.userId());
+        writer.write(',');
+        writeField(writer, row.eventType());
+        writer.write(',');
+        writeField(writer, row.previousState());
+        writer.write(',');
+        writeField(writer, row.newState());
+        writer.write(',');
+        writeField(writer, row.source());
+        writer.write(',');
+        if (row.createdAt() != null) {
+            TIMESTAMP_FORMAT.formatTo(row.createdAt().atZone(zone), writer);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * SHA-256 digest stream that also counts bytes.
+     */
+    private static final class DigestingOutputStream extends DigestOutputStream {
+        private long count;
+
+        DigestingOutputStream(OutputStream out) {
+            super(out, sha256());
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        String hex() {
+            return HexFormat.of().formatHex(getMessageDigest().digest());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
             }
-            return hex.toString();
-        } catch (Exception e) {
-            return "ERROR";
+        }
+    }
+
+    /**
+     * Shields the caller's stream (or a ZIP entry) from close; flushes instead.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
         }
     }
 
@@ -222,6 +375,19 @@ public class AuditExportService {
             String checksum) {
     }
 
+    /**
+     * Outcome of a streamed export.
+     *
+     * @param recordCount  rows written
+     * @param bytesWritten bytes written to the target stream
+     * @param checksum     SHA-256 (hex) of the bytes written
+     */
+    public record ExportSummary(
+            long recordCount,
+            long bytesWritten,
+            String checksum) {
+    }
+
     /**
      * Export history record.
      */
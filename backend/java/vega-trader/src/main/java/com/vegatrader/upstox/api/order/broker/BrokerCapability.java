@@ -69,6 +69,22 @@ public record BrokerCapability(
             Set.of("MARKET", "LIMIT", "SL", "SL-M"),
             Set.of("INTRADAY", "CNC", "MARGIN"));
 
+    /**
+     * In-process paper exchange: no rate limit.
+     */
+    public static BrokerCapability PAPER = new BrokerCapability(
+            "PAPER",
+            true, // supportsMultiOrder
+            true, // supportsModify
+            true, // supportsCancelMulti
+            true, // supportsExitAll
+            false, // supportsSlicing
+            25, // maxOrdersPerBatch
+            Integer.MAX_VALUE, // rateLimitPerMinute
+            Set.of("NSE_EQ", "BSE_EQ", "NSE_FO", "BSE_FO", "MCX", "CDS"),
+            Set.of("MARKET", "LIMIT", "SL", "SL-M"),
+            Set.of("I", "D", "MTF"));
+
     /**
      * Check if segment is supported.
      */
@@ -98,6 +114,7 @@ public record BrokerCapability(
             case "UPSTOX" -> UPSTOX;
             case "ZERODHA" -> ZERODHA;
             case "FYERS" -> FYERS;
+            case "PAPER" -> PAPER;
             default -> throw new IllegalArgumentException("Unknown broker: " + brokerName);
         };
     }
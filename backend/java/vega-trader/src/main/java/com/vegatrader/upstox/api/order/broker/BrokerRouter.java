@@ -151,7 +151,7 @@ public class BrokerRouter {
         if (userId == null)
             return null;
         try {
-            UserPrioritySettings settings = settingsResolver.resolveSettings(userId, null);
+            UserPrioritySettings settings = settingsResolver.effective(userId).priority();
             if (settings != null && settings.brokerRoutingPriority() != null
                     && !settings.brokerRoutingPriority().isEmpty()) {
                 return settings.brokerRoutingPriority().get(0);
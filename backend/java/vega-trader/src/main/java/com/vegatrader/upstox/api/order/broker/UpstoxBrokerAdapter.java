@@ -3,6 +3,7 @@ package com.vegatrader.upstox.api.order.broker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.auth.entity.UpstoxTokenEntity;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
 import com.vegatrader.upstox.api.order.broker.BrokerAdapter.*;
@@ -22,7 +23,8 @@ import java.util.stream.Collectors;
  * Upstox Broker Adapter implementation.
  * Per order-mgmt/b4.md.
  * 
- * Integrated with Upstox API via OkHttpClient.
+ * Integrated with Upstox API via the shared {@link UpstoxHttpClient}; read-only
+ * GETs (order book, trades) are hedged.
  * 
  * @since 4.9.0
  */
@@ -34,7 +36,7 @@ public class UpstoxBrokerAdapter implements BrokerAdapter {
 
     private final BrokerCapability capabilities = BrokerCapability.UPSTOX;
     private final TokenStorageService tokenStorageService;
-    private final OkHttpClient httpClient;
+    private final UpstoxHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     // Rate limit tracking
@@ -43,7 +45,7 @@ public class UpstoxBrokerAdapter implements BrokerAdapter {
 
     @Autowired
     public UpstoxBrokerAdapter(TokenStorageService tokenStorageService,
-            OkHttpClient httpClient,
+            UpstoxHttpClient httpClient,
             ObjectMapper objectMapper) {
         this.tokenStorageService = tokenStorageService;
         this.httpClient = httpClient;
@@ -75,7 +77,9 @@ public class UpstoxBrokerAdapter implements BrokerAdapter {
 
     // Helper to execute request
     private JsonNode executeRequest(Request request) throws IOException {
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = "GET".equals(request.method())
+                ? httpClient.executeHedged(request)
+                : httpClient.execute(request)) {
             String body = response.body() != null ? response.body().string() : "{}";
             if (!response.isSuccessful()) {
                 throw new IOException("API Error " + response.code() + ": " + body);
@@ -413,7 +417,7 @@ public class UpstoxBrokerAdapter implements BrokerAdapter {
                     .header("Accept", "application/json")
                     .get()
                     .build();
-            try (Response response = httpClient.newCall(apiRequest).execute()) {
+            try (Response response = httpClient.execute(apiRequest)) {
                 return response.isSuccessful();
             }
         } catch (Exception e) {
@@ -0,0 +1,129 @@
+package com.vegatrader.upstox.api.order.charges;
+
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator.ChargeRequest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Columnar batch of fills for {@link ChargeCalculator#calculateBatch}.
+ *
+ * <p>
+ * Inputs and results live in primitive arrays sized once at construction,
+ * so computing a batch allocates nothing. Results are in paise; use
+ * {@link #breakdown(int)} only where a {@link ChargeBreakdown} is needed.
+ * A batch is reusable after {@link #clear()} and is not thread-safe.
+ *
+ * @since 4.9.0
+ */
+public final class ChargeBatch {
+
+    public static final int BROKERAGE = FixedPointCharges.BROKERAGE;
+    public static final int STT = FixedPointCharges.STT;
+    public static final int EXCHANGE = FixedPointCharges.EXCHANGE;
+    public static final int GST = FixedPointCharges.GST;
+    public static final int SEBI = FixedPointCharges.SEBI;
+    public static final int STAMP = FixedPointCharges.STAMP;
+    public static final int TOTAL = FixedPointCharges.TOTAL;
+    public static final int TURNOVER = FixedPointCharges.TURNOVER;
+
+    private static final int STRIDE = FixedPointCharges.STRIDE;
+
+    final int[] rows;
+    final long[] priceUnits;
+    final int[] quantities;
+    final BigDecimal[] prices; // kept for the BigDecimal fallback
+    final long[] results;
+    private int size;
+
+    public ChargeBatch(int capacity) {
+        this.rows = new int[capacity];
+        this.priceUnits = new long[capacity];
+        this.quantities = new int[capacity];
+        this.prices = new BigDecimal[capacity];
+        this.results = new long[capacity * STRIDE];
+    }
+
+    /**
+     * Adds a fill; returns its index in the batch.
+     */
+    public int add(ChargeRequest request) {
+        return add(ChargeRateTable.rowOf(request.instrument(), request.exchange(), request.segment(),
+                request.side(), request.product()), request.price(), request.quantity());
+    }
+
+    /**
+     * Adds a pre-classified fill (see {@link ChargeRateTable#rowOf}).
+     */
+    public int add(int row, BigDecimal price, int quantity) {
+        if (size == rows.length) {
+            throw new IllegalStateException("Charge batch full: " + rows.length);
+        }
+        int i = size++;
+        rows[i] = row;
+        prices[i] = price;
+        priceUnits[i] = FixedPointCharges.priceUnits(price);
+        quantities[i] = quantity;
+        return i;
+    }
+
+    public void clear() {
+        Arrays.fill(prices, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return rows.length;
+    }
+
+    /**
+     * One charge component in paise (see the component constants).
+     */
+    public long paise(int index, int component) {
+        return results[index * STRIDE + component];
+    }
+
+    public long totalPaise(int index) {
+        return paise(index, TOTAL);
+    }
+
+    /**
+     * Sum of one component across the batch, in paise.
+     */
+    public long sumPaise(int component) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += results[i * STRIDE + component];
+        }
+        return sum;
+    }
+
+    public ChargeBreakdown breakdown(int index) {
+        int off = index * STRIDE;
+        return new ChargeBreakdown(
+                BigDecimal.valueOf(results[off + BROKERAGE], 2),
+                BigDecimal.valueOf(results[off + STT], 2),
+                BigDecimal.valueOf(results[off + EXCHANGE], 2),
+                BigDecimal.valueOf(results[off + GST], 2),
+                BigDecimal.valueOf(results[off + SEBI], 2),
+                BigDecimal.valueOf(results[off + STAMP], 2),
+                BigDecimal.valueOf(results[off + TOTAL], 2),
+                BigDecimal.valueOf(results[off + TURNOVER], 2));
+    }
+
+    void store(int index, ChargeBreakdown breakdown) {
+        int off = index * STRIDE;
+        results[off + BROKERAGE] = breakdown.brokerage().unscaledValue().longValueExact();
+        results[off + STT] = breakdown.stt().unscaledValue().longValueExact();
+        results[off + EXCHANGE] = breakdown.exchangeFees().unscaledValue().longValueExact();
+        results[off + GST] = breakdown.gst().unscaledValue().longValueExact();
+        results[off + SEBI] = breakdown.sebiCharges().unscaledValue().longValueExact();
+        results[off + STAMP] = breakdown.stampDuty().unscaledValue().longValueExact();
+        results[off + TOTAL] = breakdown.totalCharges().unscaledValue().longValueExact();
+        results[off + TURNOVER] = breakdown.turnover().unscaledValue().longValueExact();
+    }
+}
@@ -1,7 +1,10 @@
 package com.vegatrader.upstox.api.order.charges;
 
+import com.vegatrader.upstox.api.settings.service.AdminSettingsService;
+import com.vegatrader.upstox.api.settings.service.SettingsResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -19,6 +22,14 @@ import java.math.RoundingMode;
  * - SEBI charges
  * - Stamp duty
  * 
+ * <p>
+ * Rates come from a {@link ChargeRateTable} loaded from admin settings
+ * ({@code charges.*}) and reloaded whenever one of them changes.
+ * Calculation runs on scaled longs ({@link FixedPointCharges}) and matches
+ * the BigDecimal reference exactly; requests the fixed-point path cannot
+ * represent (price finer than 1e-4, negative inputs, overflow) fall back to
+ * {@link #calculateReference}.
+ * 
  * @since 4.9.0
  */
 @Service
@@ -26,32 +37,46 @@ public class ChargeCalculator {
 
     private static final Logger logger = LoggerFactory.getLogger(ChargeCalculator.class);
 
-    // Brokerage rates (configurable via AdminSettings)
-    private static final BigDecimal BROKERAGE_RATE_EQUITY = new BigDecimal("0.0003"); // 0.03%
-    private static final BigDecimal BROKERAGE_RATE_FO = new BigDecimal("0.0003");
-    private static final BigDecimal MAX_BROKERAGE_PER_ORDER = new BigDecimal("20.00");
+    private final AdminSettingsService settings;
+    private volatile ChargeRateTable rates;
 
-    // STT rates per SEBI
-    private static final BigDecimal STT_EQUITY_DELIVERY_BUY = new BigDecimal("0.001"); // 0.1%
-    private static final BigDecimal STT_EQUITY_DELIVERY_SELL = new BigDecimal("0.001");
-    private static final BigDecimal STT_EQUITY_INTRADAY = new BigDecimal("0.00025"); // Sell only
-    private static final BigDecimal STT_OPTIONS_SELL = new BigDecimal("0.0005"); // 0.05% on premium
-    private static final BigDecimal STT_FUTURES = new BigDecimal("0.0001"); // Sell only
+    /**
+     * Calculator with the built-in default rates.
+     */
+    public ChargeCalculator() {
+        this.settings = null;
+        this.rates = ChargeRateTable.defaults();
+    }
 
-    // Exchange fees
-    private static final BigDecimal NSE_TXN_CHARGE_EQ = new BigDecimal("0.0000325");
-    private static final BigDecimal NSE_TXN_CHARGE_FO = new BigDecimal("0.00002");
-    private static final BigDecimal BSE_TXN_CHARGE_EQ = new BigDecimal("0.000030");
+    @Autowired
+    public ChargeCalculator(AdminSettingsService settings) {
+        this.settings = settings;
+        this.rates = ChargeRateTable.fromSettings(settings::getSettingValue);
+    }
 
-    // GST (18% on brokerage + exchange fees)
-    private static final BigDecimal GST_RATE = new BigDecimal("0.18");
+    @Autowired(required = false)
+    public void setSettingsResolver(SettingsResolver settingsResolver) {
+        settingsResolver.addListener("charges.", change -> reloadRates());
+    }
 
-    // SEBI charges (per crore)
-    private static final BigDecimal SEBI_CHARGE_RATE = new BigDecimal("0.0000001"); // 10 per crore
+    /**
+     * Re-reads {@code charges.*} settings. An invalid setting keeps the
+     * previous table.
+     */
+    public void reloadRates() {
+        if (settings == null) {
+            return;
+        }
+        try {
+            rates = ChargeRateTable.fromSettings(settings::getSettingValue);
+        } catch (IllegalArgumentException e) {
+            logger.error("Charge rate reload rejected, keeping previous table: {}", e.getMessage());
+        }
+    }
 
-    // Stamp duty (varies by state, using Maharashtra rates)
-    private static final BigDecimal STAMP_DUTY_EQ = new BigDecimal("0.00015"); // 0.015%
-    private static final BigDecimal STAMP_DUTY_FO = new BigDecimal("0.00003"); // 0.003%
+    public ChargeRateTable getRates() {
+        return rates;
+    }
 
     /**
      * Calculate charges for an order.
@@ -60,35 +85,87 @@ public class ChargeCalculator {
         logger.debug("Calculating charges for: {} {} {} @ {}",
                 request.side(), request.quantity(), request.instrument(), request.price());
 
-        BigDecimal turnover = request.price().multiply(BigDecimal.valueOf(request.quantity()));
+        ChargeRateTable table = rates;
+        int row = ChargeRateTable.rowOf(request.instrument(), request.exchange(), request.segment(),
+                request.side(), request.product());
+
+        long priceUnits = FixedPointCharges.priceUnits(request.price());
+        long[] out = new long[FixedPointCharges.STRIDE];
+        ChargeBreakdown breakdown;
+        if (priceUnits >= 0 && request.quantity() >= 0
+                && FixedPointCharges.compute(table, row, priceUnits, request.quantity(), out, 0)) {
+            breakdown = new ChargeBreakdown(
+                    BigDecimal.valueOf(out[FixedPointCharges.BROKERAGE], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.STT], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.EXCHANGE], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.GST], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.SEBI], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.STAMP], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.TOTAL], 2),
+                    BigDecimal.valueOf(out[FixedPointCharges.TURNOVER], 2));
+        } else {
+            breakdown = calculateReference(table, row, request.price(), request.quantity());
+        }
+
+        logger.debug("Charges calculated: {}", breakdown);
+        return breakdown;
+    }
+
+    /**
+     * Calculate charges for every fill in the batch, in place.
+     * Allocation-free except for fills that need the BigDecimal fallback.
+     */
+    public void calculateBatch(ChargeBatch batch) {
+        ChargeRateTable table = rates;
+        long[] out = batch.results;
+        for (int i = 0; i < batch.size(); i++) {
+            long priceUnits = batch.priceUnits[i];
+            int quantity = batch.quantities[i];
+            if (priceUnits < 0 || quantity < 0
+                    || !FixedPointCharges.compute(table, batch.rows[i], priceUnits, quantity, out,
+                            i * FixedPointCharges.STRIDE)) {
+                batch.store(i, calculateReference(table, batch.rows[i], batch.prices[i], quantity));
+            }
+        }
+    }
+
+    /**
+     * BigDecimal reference calculation (the original algorithm), used as the
+     * fallback and as the golden source for parity tests.
+     */
+    public ChargeBreakdown calculateReference(ChargeRequest request) {
+        int row = ChargeRateTable.rowOf(request.instrument(), request.exchange(), request.segment(),
+                request.side(), request.product());
+        return calculateReference(rates, row, request.price(), request.quantity());
+    }
+
+    private static ChargeBreakdown calculateReference(ChargeRateTable t, int row, BigDecimal price, int quantity) {
+        BigDecimal turnover = price.multiply(BigDecimal.valueOf(quantity));
 
         // 1. Brokerage
-        BigDecimal brokerage = calculateBrokerage(turnover, request.segment());
+        BigDecimal brokerage = turnover.multiply(t.brokerageRate[row]).min(t.brokerageCap);
 
         // 2. STT
-        BigDecimal stt = calculateSTT(turnover, request);
+        BigDecimal stt = turnover.multiply(t.sttRate[row]);
 
         // 3. Exchange fees
-        BigDecimal exchangeFees = calculateExchangeFees(turnover, request.exchange(), request.segment());
+        BigDecimal exchangeFees = turnover.multiply(t.exchangeRate[row]);
 
         // 4. GST (on brokerage + exchange fees)
         BigDecimal taxableAmount = brokerage.add(exchangeFees);
-        BigDecimal gst = taxableAmount.multiply(GST_RATE).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal gst = taxableAmount.multiply(t.gstRate).setScale(2, RoundingMode.HALF_UP);
 
         // 5. SEBI charges
-        BigDecimal sebiCharges = turnover.multiply(SEBI_CHARGE_RATE).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal sebiCharges = turnover.multiply(t.sebiRate).setScale(2, RoundingMode.HALF_UP);
 
-        // 6. Stamp duty (only on buy)
-        BigDecimal stampDuty = BigDecimal.ZERO;
-        if ("BUY".equalsIgnoreCase(request.side())) {
-            stampDuty = calculateStampDuty(turnover, request.segment());
-        }
+        // 6. Stamp duty (only on buy; zero rate otherwise)
+        BigDecimal stampDuty = turnover.multiply(t.stampRate[row]);
 
         // Total
         BigDecimal totalCharges = brokerage.add(stt).add(exchangeFees)
                 .add(gst).add(sebiCharges).add(stampDuty);
 
-        ChargeBreakdown breakdown = new ChargeBreakdown(
+        return new ChargeBreakdown(
                 brokerage.setScale(2, RoundingMode.HALF_UP),
                 stt.setScale(2, RoundingMode.HALF_UP),
                 exchangeFees.setScale(2, RoundingMode.HALF_UP),
@@ -97,58 +174,6 @@ public class ChargeCalculator {
                 stampDuty.setScale(2, RoundingMode.HALF_UP),
                 totalCharges.setScale(2, RoundingMode.HALF_UP),
                 turnover.setScale(2, RoundingMode.HALF_UP));
-
-        logger.debug("Charges calculated: {}", breakdown);
-        return breakdown;
-    }
-
-    private BigDecimal calculateBrokerage(BigDecimal turnover, String segment) {
-        BigDecimal rate = segment.contains("FO") ? BROKERAGE_RATE_FO : BROKERAGE_RATE_EQUITY;
-        BigDecimal brokerage = turnover.multiply(rate);
-        return brokerage.min(MAX_BROKERAGE_PER_ORDER);
-    }
-
-    private BigDecimal calculateSTT(BigDecimal turnover, ChargeRequest request) {
-        String segment = request.segment();
-        String side = request.side();
-        String product = request.product();
-
-        if (segment.contains("FO")) {
-            // Options
-            if (segment.contains("OPT") || request.instrument().contains("CE") ||
-                    request.instrument().contains("PE")) {
-                return "SELL".equalsIgnoreCase(side) ? turnover.multiply(STT_OPTIONS_SELL) : BigDecimal.ZERO;
-            }
-            // Futures
-            return "SELL".equalsIgnoreCase(side) ? turnover.multiply(STT_FUTURES) : BigDecimal.ZERO;
-        }
-
-        // Equity
-        if ("I".equals(product)) {
-            // Intraday - STT only on sell
-            return "SELL".equalsIgnoreCase(side) ? turnover.multiply(STT_EQUITY_INTRADAY) : BigDecimal.ZERO;
-        } else {
-            // Delivery - STT on both buy and sell
-            return "BUY".equalsIgnoreCase(side) ? turnover.multiply(STT_EQUITY_DELIVERY_BUY)
-                    : turnover.multiply(STT_EQUITY_DELIVERY_SELL);
-        }
-    }
-
-    private BigDecimal calculateExchangeFees(BigDecimal turnover, String exchange, String segment) {
-        BigDecimal rate;
-        if (exchange.startsWith("NSE")) {
-            rate = segment.contains("FO") ? NSE_TXN_CHARGE_FO : NSE_TXN_CHARGE_EQ;
-        } else if (exchange.startsWith("BSE")) {
-            rate = BSE_TXN_CHARGE_EQ;
-        } else {
-            rate = NSE_TXN_CHARGE_EQ; // Default
-        }
-        return turnover.multiply(rate);
-    }
-
-    private BigDecimal calculateStampDuty(BigDecimal turnover, String segment) {
-        BigDecimal rate = segment.contains("FO") ? STAMP_DUTY_FO : STAMP_DUTY_EQ;
-        return turnover.multiply(rate);
     }
 
     /**
@@ -0,0 +1,210 @@
+package com.vegatrader.upstox.api.order.charges;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * Immutable charge rate table, expanded into flat per-row arrays.
+ *
+ * <p>
+ * A row is (instrument class x product x side x exchange); {@link #rowOf}
+ * classifies a request once and every rate for that row is then an array
+ * load. Rates are held both as {@link BigDecimal} (reference path) and as
+ * longs in units of 1e-8 (fixed-point path), so both paths always agree on
+ * the inputs.
+ *
+ * <p>
+ * Settings keys (all DECIMAL, rupee fractions unless noted):
+ * {@code charges.brokerage.eq}, {@code charges.brokerage.fo},
+ * {@code charges.brokerage.maxPerOrder} (rupees),
+ * {@code charges.stt.eqDeliveryBuy}, {@code charges.stt.eqDeliverySell},
+ * {@code charges.stt.eqIntradaySell}, {@code charges.stt.optionsSell},
+ * {@code charges.stt.futuresSell}, {@code charges.txn.nseEq},
+ * {@code charges.txn.nseFo}, {@code charges.txn.bseEq}, {@code charges.gst},
+ * {@code charges.sebi}, {@code charges.stamp.eq}, {@code charges.stamp.fo}.
+ *
+ * @since 4.9.0
+ */
+public final class ChargeRateTable {
+
+    /** Fixed-point scale of rates: 1 unit = 1e-8. */
+    public static final int RATE_SCALE = 8;
+
+    static final int CLS_EQ = 0, CLS_FUT = 1, CLS_OPT = 2;
+    static final int PROD_INTRADAY = 0, PROD_DELIVERY = 1;
+    static final int SIDE_BUY = 0, SIDE_SELL = 1, SIDE_OTHER = 2;
+    static final int EXCH_NSE = 0, EXCH_BSE = 1, EXCH_OTHER = 2;
+    static final int ROWS = 3 * 2 * 3 * 3;
+
+    // Defaults per SEBI / exchange circulars (Maharashtra stamp duty)
+    private static final String[][] DEFAULTS = {
+            { "charges.brokerage.eq", "0.0003" },
+            { "charges.brokerage.fo", "0.0003" },
+            { "charges.brokerage.maxPerOrder", "20.00" },
+            { "charges.stt.eqDeliveryBuy", "0.001" },
+            { "charges.stt.eqDeliverySell", "0.001" },
+            { "charges.stt.eqIntradaySell", "0.00025" },
+            { "charges.stt.optionsSell", "0.0005" },
+            { "charges.stt.futuresSell", "0.0001" },
+            { "charges.txn.nseEq", "0.0000325" },
+            { "charges.txn.nseFo", "0.00002" },
+            { "charges.txn.bseEq", "0.000030" },
+            { "charges.gst", "0.18" },
+            { "charges.sebi", "0.0000001" },
+            { "charges.stamp.eq", "0.00015" },
+            { "charges.stamp.fo", "0.00003" },
+    };
+
+    // Reference (BigDecimal) rates per row
+    final BigDecimal[] brokerageRate = new BigDecimal[ROWS];
+    final BigDecimal[] sttRate = new BigDecimal[ROWS];
+    final BigDecimal[] exchangeRate = new BigDecimal[ROWS];
+    final BigDecimal[] stampRate = new BigDecimal[ROWS];
+    final BigDecimal brokerageCap;
+    final BigDecimal gstRate;
+    final BigDecimal sebiRate;
+
+    // Fixed-point rates per row (1e-8 units)
+    final long[] brokerageRateFx = new long[ROWS];
+    final long[] sttRateFx = new long[ROWS];
+    final long[] exchangeRateFx = new long[ROWS];
+    final long[] stampRateFx = new long[ROWS];
+    final long brokerageCapPaise;
+    final long gstRateFx;
+    final long sebiRateFx;
+
+    private ChargeRateTable(Function<String, String> settings) {
+        BigDecimal brokerageEq = rate(settings, "charges.brokerage.eq");
+        BigDecimal brokerageFo = rate(settings, "charges.brokerage.fo");
+        BigDecimal sttDeliveryBuy = rate(settings, "charges.stt.eqDeliveryBuy");
+        BigDecimal sttDeliverySell = rate(settings, "charges.stt.eqDeliverySell");
+        BigDecimal sttIntradaySell = rate(settings, "charges.stt.eqIntradaySell");
+        BigDecimal sttOptionsSell = rate(settings, "charges.stt.optionsSell");
+        BigDecimal sttFuturesSell = rate(settings, "charges.stt.futuresSell");
+        BigDecimal txnNseEq = rate(settings, "charges.txn.nseEq");
+        BigDecimal txnNseFo = rate(settings, "charges.txn.nseFo");
+        BigDecimal txnBseEq = rate(settings, "charges.txn.bseEq");
+        BigDecimal stampEq = rate(settings, "charges.stamp.eq");
+        BigDecimal stampFo = rate(settings, "charges.stamp.fo");
+
+        this.brokerageCap = value(settings, "charges.brokerage.maxPerOrder");
+        this.gstRate = rate(settings, "charges.gst");
+        this.sebiRate = rate(settings, "charges.sebi");
+        try {
+            this.brokerageCapPaise = brokerageCap.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("charges.brokerage.maxPerOrder must have at most 2 decimals", e);
+        }
+        this.gstRateFx = fixed("charges.gst", gstRate);
+        this.sebiRateFx = fixed("charges.sebi", sebiRate);
+
+        for (int cls = 0; cls < 3; cls++) {
+            boolean fo = cls != CLS_EQ;
+            for (int prod = 0; prod < 2; prod++) {
+                for (int side = 0; side < 3; side++) {
+                    for (int exch = 0; exch < 3; exch++) {
+                        int row = row(cls, prod, side, exch);
+
+                        brokerageRate[row] = fo ? brokerageFo : brokerageEq;
+
+                        BigDecimal stt;
+                        if (cls == CLS_OPT) {
+                            stt = side == SIDE_SELL ? sttOptionsSell : BigDecimal.ZERO;
+                        } else if (cls == CLS_FUT) {
+                            stt = side == SIDE_SELL ? sttFuturesSell : BigDecimal.ZERO;
+                        } else if (prod == PROD_INTRADAY) {
+                            stt = side == SIDE_SELL ? sttIntradaySell : BigDecimal.ZERO;
+                        } else {
+                            stt = side == SIDE_BUY ? sttDeliveryBuy : sttDeliverySell;
+                        }
+                        sttRate[row] = stt;
+
+                        exchangeRate[row] = switch (exch) {
+                            case EXCH_NSE -> fo ? txnNseFo : txnNseEq;
+                            case EXCH_BSE -> txnBseEq;
+                            default -> txnNseEq;
+                        };
+
+                        stampRate[row] = side == SIDE_BUY ? (fo ? stampFo : stampEq) : BigDecimal.ZERO;
+
+                        brokerageRateFx[row] = fixed("brokerage", brokerageRate[row]);
+                        sttRateFx[row] = fixed("stt", sttRate[row]);
+                        exchangeRateFx[row] = fixed("exchange", exchangeRate[row]);
+                        stampRateFx[row] = fixed("stamp", stampRate[row]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Table with the built-in statutory defaults.
+     */
+    public static ChargeRateTable defaults() {
+        return new ChargeRateTable(key -> null);
+    }
+
+    /**
+     * Table from settings; keys that resolve to null or blank use the default.
+     */
+    public static ChargeRateTable fromSettings(Function<String, String> settings) {
+        return new ChargeRateTable(settings);
+    }
+
+    /**
+     * Classifies a request into its table row (same rules as the original
+     * string checks in {@link ChargeCalculator}).
+     */
+    public static int rowOf(String instrument, String exchange, String segment, String side, String product) {
+        boolean fo = segment.contains("FO");
+        int cls = !fo ? CLS_EQ
+                : (segment.contains("OPT") || instrument.contains("CE") || instrument.contains("PE"))
+                        ? CLS_OPT
+                        : CLS_FUT;
+        int prod = "I".equals(product) ? PROD_INTRADAY : PROD_DELIVERY;
+        int s = "BUY".equalsIgnoreCase(side) ? SIDE_BUY : "SELL".equalsIgnoreCase(side) ? SIDE_SELL : SIDE_OTHER;
+        int exch = exchange.startsWith("NSE") ? EXCH_NSE : exchange.startsWith("BSE") ? EXCH_BSE : EXCH_OTHER;
+        return row(cls, prod, s, exch);
+    }
+
+    private static int row(int cls, int prod, int side, int exch) {
+        return ((cls * 2 + prod) * 3 + side) * 3 + exch;
+    }
+
+    private static BigDecimal rate(Function<String, String> settings, String key) {
+        BigDecimal rate = value(settings, key);
+        if (rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) >= 0) {
+            throw new IllegalArgumentException(key + " must be in [0, 1): " + rate);
+        }
+        return rate;
+    }
+
+    private static BigDecimal value(Function<String, String> settings, String key) {
+        String raw = settings.apply(key);
+        if (raw == null || raw.isBlank()) {
+            raw = defaultOf(key);
+        }
+        try {
+            return new BigDecimal(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid charge setting " + key + "=" + raw, e);
+        }
+    }
+
+    private static String defaultOf(String key) {
+        for (String[] entry : DEFAULTS) {
+            if (entry[0].equals(key)) {
+                return entry[1];
+            }
+        }
+        throw new IllegalArgumentException("Unknown charge setting: " + key);
+    }
+
+    private static long fixed(String name, BigDecimal rate) {
+        try {
+            return rate.movePointRight(RATE_SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " rate has more than " + RATE_SCALE + " decimals: " + rate, e);
+        }
+    }
+}
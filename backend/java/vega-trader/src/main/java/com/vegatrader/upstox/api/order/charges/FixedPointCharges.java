@@ -0,0 +1,131 @@
+package com.vegatrader.upstox.api.order.charges;
+
+import java.math.BigDecimal;
+
+/**
+ * Scaled-long charge arithmetic.
+ *
+ * <p>
+ * Price is in units of 1e-4 rupees, rates in 1e-8, so {@code turnover x rate}
+ * is exact in 1e-10 paise. Each intermediate charge is kept as
+ * (whole paise, remainder in 1e-10 paise) and rounded HALF_UP to paise only
+ * where the BigDecimal reference rounds, which makes every component
+ * bit-identical to {@link ChargeCalculator#calculateReference}. The product
+ * is split as {@code turnover = a*1e10 + b} so no step needs 128-bit math.
+ *
+ * @since 4.9.0
+ */
+final class FixedPointCharges {
+
+    /** Price scale: 1 unit = 1e-4 rupees. */
+    static final int PRICE_SCALE = 4;
+
+    static final int BROKERAGE = 0;
+    static final int STT = 1;
+    static final int EXCHANGE = 2;
+    static final int GST = 3;
+    static final int SEBI = 4;
+    static final int STAMP = 5;
+    static final int TOTAL = 6;
+    static final int TURNOVER = 7;
+    static final int STRIDE = 8;
+
+    private static final long SUB = 10_000_000_000L; // 1e-10 paise per paise
+    private static final long HALF_SUB = SUB / 2;
+    private static final long RATE_ONE = 100_000_000L; // 1.0 at rate scale
+    private static final long HALF_RATE = RATE_ONE / 2;
+
+    private FixedPointCharges() {
+    }
+
+    /**
+     * Computes all components in paise into {@code out[off..off+STRIDE)}.
+     *
+     * @return false on overflow (caller falls back to BigDecimal)
+     */
+    static boolean compute(ChargeRateTable t, int row, long priceUnits, long quantity, long[] out, int off) {
+        try {
+            long turnover = Math.multiplyExact(priceUnits, quantity);
+            long a = turnover / SUB;
+            long b = turnover % SUB;
+
+            // Brokerage, capped per order
+            long r = t.brokerageRateFx[row];
+            long bq = whole(a, b, r);
+            long br = frac(b, r);
+            if (bq > t.brokerageCapPaise || (bq == t.brokerageCapPaise && br > 0)) {
+                bq = t.brokerageCapPaise;
+                br = 0;
+            }
+
+            r = t.sttRateFx[row];
+            long sq = whole(a, b, r);
+            long sr = frac(b, r);
+
+            r = t.exchangeRateFx[row];
+            long eq = whole(a, b, r);
+            long er = frac(b, r);
+
+            r = t.stampRateFx[row];
+            long mq = whole(a, b, r);
+            long mr = frac(b, r);
+
+            long sebi = round(whole(a, b, t.sebiRateFx), frac(b, t.sebiRateFx));
+
+            // GST on unrounded (brokerage + exchange fees), rounded once
+            long taxQ = bq + eq;
+            long taxR = br + er;
+            if (taxR >= SUB) {
+                taxQ++;
+                taxR -= SUB;
+            }
+            long g = t.gstRateFx;
+            long gstScaled = Math.addExact(Math.multiplyExact(taxQ, g), (taxR * g) / SUB);
+            long gst = (gstScaled + HALF_RATE) / RATE_ONE;
+
+            // Total on unrounded components plus rounded GST/SEBI
+            long totalQ = Math.addExact(bq + sq + eq + mq, gst + sebi);
+            long totalR = br + sr + er + mr;
+            totalQ += totalR / SUB;
+            long total = round(totalQ, totalR % SUB);
+
+            out[off + BROKERAGE] = round(bq, br);
+            out[off + STT] = round(sq, sr);
+            out[off + EXCHANGE] = round(eq, er);
+            out[off + GST] = gst;
+            out[off + SEBI] = sebi;
+            out[off + STAMP] = round(mq, mr);
+            out[off + TOTAL] = total;
+            out[off + TURNOVER] = (turnover + 50) / 100;
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Price as 1e-4 units, or -1 when it is negative or finer than 1e-4.
+     */
+    static long priceUnits(BigDecimal price) {
+        if (price.signum() < 0) {
+            return -1;
+        }
+        try {
+            return price.movePointRight(PRICE_SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    private static long whole(long a, long b, long rate) {
+        return Math.addExact(Math.multiplyExact(a, rate), (b * rate) / SUB);
+    }
+
+    private static long frac(long b, long rate) {
+        return (b * rate) % SUB;
+    }
+
+    private static long round(long whole, long frac) {
+        return frac >= HALF_SUB ? whole + 1 : whole;
+    }
+}
@@ -26,6 +26,7 @@ import java.util.*;
 public class PnLService {
 
     private static final Logger logger = LoggerFactory.getLogger(PnLService.class);
+    private static final int MONEY_SCALE = 4;
 
     private final TradeRepository tradeRepository;
 
@@ -92,11 +93,95 @@ public class PnLService {
 
     /**
      * Calculate daily P&L for user.
+     *
+     * <p>
+     * Single pass over the day's trades on scaled longs (1e-4 rupees, the
+     * column scale of price and charges). Rounding to paise happens at the
+     * same points as the BigDecimal path, so both give identical summaries;
+     * values that do not fit that scale fall back to BigDecimal.
      */
     public DailyPnLSummary calculateDailyPnL(String userId, LocalDate date) {
         logger.info("Calculating daily PnL for user {} on {}", userId, date);
         List<TradeEntity> trades = tradeRepository.findByUserIdAndTradeDate(userId, date);
 
+        try {
+            return calculateDailyPnLFixed(userId, date, trades);
+        } catch (ArithmeticException e) {
+            logger.debug("Daily PnL for {} outside fixed-point range, using BigDecimal: {}", userId, e.getMessage());
+            return calculateDailyPnLDecimal(userId, date, trades);
+        }
+    }
+
+    DailyPnLSummary calculateDailyPnLFixed(String userId, LocalDate date, List<TradeEntity> trades) {
+        // Per symbol: [buyValue, buyQty, sellValue, sellQty, charges]
+        Map<String, long[]> bySymbol = new HashMap<>();
+        long totalCharges = 0;
+        int tradeCount = 0;
+
+        for (TradeEntity trade : trades) {
+            long[] acc = bySymbol.computeIfAbsent(trade.getTradingSymbol(), k -> new long[5]);
+            tradeCount++;
+
+            long quantity = trade.getQuantity();
+            long tradeValue = Math.multiplyExact(units(trade.getPrice()), quantity);
+            long charges = trade.getTotalCharges() != null ? units(trade.getTotalCharges()) : 0;
+            acc[4] = Math.addExact(acc[4], charges);
+            totalCharges = Math.addExact(totalCharges, charges);
+
+            if ("BUY".equalsIgnoreCase(trade.getTransactionType())) {
+                acc[0] = Math.addExact(acc[0], tradeValue);
+                acc[1] += quantity;
+            } else {
+                acc[2] = Math.addExact(acc[2], tradeValue);
+                acc[3] += quantity;
+            }
+        }
+
+        long totalGrossPnL = 0;
+        int winningTrades = 0;
+        int losingTrades = 0;
+        List<SymbolPnL> symbolPnLs = new ArrayList<>(bySymbol.size());
+        for (Map.Entry<String, long[]> entry : bySymbol.entrySet()) {
+            long[] acc = entry.getValue();
+            long grossPnL = Math.subtractExact(acc[2], acc[0]);
+            long netPnL = roundToPaise(Math.subtractExact(grossPnL, acc[4]));
+            // The total sums the per-symbol figures as reported, like the BigDecimal path
+            totalGrossPnL = Math.addExact(totalGrossPnL, roundToPaise(grossPnL));
+
+            symbolPnLs.add(new SymbolPnL(
+                    entry.getKey(),
+                    Math.toIntExact(acc[1]),
+                    Math.toIntExact(acc[3]),
+                    money(acc[0]),
+                    money(acc[2]),
+                    money(grossPnL),
+                    money(acc[4]),
+                    money(netPnL)));
+
+            if (netPnL > 0) {
+                winningTrades++;
+            } else if (netPnL < 0) {
+                losingTrades++;
+            }
+        }
+
+        long netPnL = Math.subtractExact(totalGrossPnL, totalCharges);
+        double winRate = tradeCount > 0 ? (double) winningTrades / tradeCount * 100 : 0;
+
+        return new DailyPnLSummary(
+                userId,
+                date,
+                money(totalGrossPnL),
+                money(totalCharges),
+                money(netPnL),
+                tradeCount,
+                winningTrades,
+                losingTrades,
+                winRate,
+                symbolPnLs);
+    }
+
+    DailyPnLSummary calculateDailyPnLDecimal(String userId, LocalDate date, List<TradeEntity> trades) {
         BigDecimal totalGrossPnL = BigDecimal.ZERO;
         BigDecimal totalCharges = BigDecimal.ZERO;
         int tradeCount = 0;
@@ -147,9 +232,6 @@ public class PnLService {
      * Calculate P&L for a symbol's trades.
      */
     private SymbolPnL calculateSymbolPnL(String symbol, List<TradeEntity> trades) {
-        // Sort by timestamp
-        trades.sort(Comparator.comparing(TradeEntity::getCreatedAt));
-
         BigDecimal buyValue = BigDecimal.ZERO;
         int buyQty = 0;
         BigDecimal sellValue = BigDecimal.ZERO;
@@ -184,6 +266,32 @@ public class PnLService {
                 netPnL.setScale(2, RoundingMode.HALF_UP));
     }
 
+    /**
+     * Amount as 1e-4 rupee units; throws if it has finer precision or overflows.
+     */
+    private static long units(BigDecimal amount) {
+        return amount.movePointRight(MONEY_SCALE).longValueExact();
+    }
+
+    /**
+     * 1e-4 rupee units rounded to whole paise (HALF_UP), still in 1e-4 units.
+     */
+    private static long roundToPaise(long units) {
+        long paise = units / 100;
+        long remainder = Math.abs(units % 100);
+        if (remainder >= 50) {
+            paise += Long.signum(units);
+        }
+        return Math.multiplyExact(paise, 100);
+    }
+
+    /**
+     * 1e-4 rupee units to rupees at scale 2 (HALF_UP).
+     */
+    private static BigDecimal money(long units) {
+        return BigDecimal.valueOf(units, MONEY_SCALE).setScale(2, RoundingMode.HALF_UP);
+    }
+
     // ==================== Result Records ====================
 
     public record PnLResult(
@@ -2,9 +2,9 @@ package com.vegatrader.upstox.api.order.position;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.upstox.api.http.UpstoxHttpClient;
 import com.vegatrader.upstox.auth.entity.UpstoxTokenEntity;
 import com.vegatrader.upstox.auth.service.TokenStorageService;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -12,9 +12,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -35,12 +38,12 @@ public class PositionAggregationService {
     private final Map<String, Position> positionCache = new ConcurrentHashMap<>();
 
     private final TokenStorageService tokenStorageService;
-    private final OkHttpClient httpClient;
+    private final UpstoxHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public PositionAggregationService(TokenStorageService tokenStorageService,
-            OkHttpClient httpClient,
+            UpstoxHttpClient httpClient,
             ObjectMapper objectMapper) {
         this.tokenStorageService = tokenStorageService;
         this.httpClient = httpClient;
@@ -78,34 +81,62 @@ public class PositionAggregationService {
      */
     public void refreshPositions(String userId) {
         logger.info("Refreshing positions for user: {}", userId);
+        try (Response response = httpClient.executeHedged(positionsRequest())) {
+            applyPositions(userId, response);
+        } catch (Exception e) {
+            logger.error("Failed to refresh positions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh positions from broker without blocking the caller.
+     *
+     * @return number of positions applied
+     */
+    public CompletableFuture<Integer> refreshPositionsAsync(String userId) {
+        Request request;
         try {
-            String token = getActiveToken();
-            Request request = new Request.Builder()
-                    .url(UPSTOX_POSITIONS_URL)
-                    .header("Authorization", "Bearer " + token)
-                    .header("Accept", "application/json")
-                    .get()
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful() && response.body() != null) {
-                    JsonNode root = objectMapper.readTree(response.body().string());
-                    JsonNode data = root.path("data");
-
-                    if (data.isArray()) {
-                        for (JsonNode pos : data) {
-                            Position position = parsePosition(userId, pos);
-                            if (position != null) {
-                                positionCache.put(buildKey(userId, position.instrumentToken()), position);
-                            }
-                        }
-                    }
-                    logger.info("Refreshed {} positions for {}", positionCache.size(), userId);
+            request = positionsRequest();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.enqueueHedged(request).thenApply(response -> {
+            try (response) {
+                return applyPositions(userId, response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private Request positionsRequest() {
+        return new Request.Builder()
+                .url(UPSTOX_POSITIONS_URL)
+                .header("Authorization", "Bearer " + getActiveToken())
+                .header("Accept", "application/json")
+                .get()
+                .build();
+    }
+
+    private int applyPositions(String userId, Response response) throws IOException {
+        if (!response.isSuccessful() || response.body() == null) {
+            return 0;
+        }
+        JsonNode root = objectMapper.readTree(response.body().string());
+        JsonNode data = root.path("data");
+
+        int applied = 0;
+        if (data.isArray()) {
+            for (JsonNode pos : data) {
+                Position position = parsePosition(userId, pos);
+                if (position != null) {
+                    positionCache.put(buildKey(userId, position.instrumentToken()), position);
+                    applied++;
                 }
             }
-        } catch (Exception e) {
-            logger.error("Failed to refresh positions: {}", e.getMessage());
         }
+        logger.info("Refreshed {} positions for {}", positionCache.size(), userId);
+        return applied;
     }
 
     /**
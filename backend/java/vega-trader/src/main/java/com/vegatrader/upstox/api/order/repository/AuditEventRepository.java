@@ -1,5 +1,6 @@
 package com.vegatrader.upstox.api.order.repository;
 
+import com.vegatrader.upstox.api.order.audit.AuditExportRow;
 import com.vegatrader.upstox.api.order.entity.AuditEventEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -56,6 +57,26 @@ public interface AuditEventRepository extends JpaRepository<AuditEventEntity, Lo
             @Param("end") Instant end,
             Pageable pageable);
 
+    /**
+     * Keyset page for streaming export: rows at or after {@code fromTs} up to
+     * {@code end}, oldest first, skipping those at exactly {@code fromTs} with
+     * an id up to {@code afterId}. The timestamp bound is inclusive so it
+     * needs no sub-millisecond offset the database cannot store. Returns
+     * unmanaged projections so pages are not retained by the persistence
+     * context.
+     */
+    @Query("SELECT new com.vegatrader.upstox.api.order.audit.AuditExportRow(" +
+            "e.id, e.eventId, e.orderId, e.userId, e.eventType, e.previousState, e.newState, e.source, e.createdAt) " +
+            "FROM AuditEventEntity e WHERE e.userId = :userId AND e.createdAt <= :end " +
+            "AND e.createdAt >= :fromTs AND (e.createdAt > :fromTs OR e.id > :afterId) " +
+            "ORDER BY e.createdAt ASC, e.id ASC")
+    List<AuditExportRow> findExportPage(
+            @Param("userId") String userId,
+            @Param("fromTs") Instant fromTs,
+            @Param("afterId") long afterId,
+            @Param("end") Instant end,
+            Pageable pageable);
+
     /**
      * Count events for order.
      */
@@ -72,6 +93,11 @@ public interface AuditEventRepository extends JpaRepository<AuditEventEntity, Lo
      */
     List<AuditEventEntity> findByRequestId(String requestId);
 
+    /**
+     * Check whether an event was already written (write-behind recovery).
+     */
+    boolean existsByEventId(String eventId);
+
     /**
      * Get state change history for order.
      */
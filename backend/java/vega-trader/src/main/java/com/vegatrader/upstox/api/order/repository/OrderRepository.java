@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,11 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
      */
     Optional<OrderEntity> findByOrderId(String orderId);
 
+    /**
+     * Find by internal order IDs (batch upsert from the write-behind store).
+     */
+    List<OrderEntity> findByOrderIdIn(Collection<String> orderIds);
+
     /**
      * Find by broker order ID.
      */
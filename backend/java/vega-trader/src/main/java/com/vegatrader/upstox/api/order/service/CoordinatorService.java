@@ -1,5 +1,9 @@
 package com.vegatrader.upstox.api.order.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import com.vegatrader.upstox.api.order.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,8 +11,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-// ... (rest of imports)
+import java.util.function.Supplier;
 
 /**
  * Coordinator Service - Single authoritative orchestration layer.
@@ -38,16 +44,21 @@ public class CoordinatorService {
     private final Map<String, List<Trade>> tradesByOrderId = new ConcurrentHashMap<>();
 
     // Idempotency cache (per b3.md section 10)
-    private final Map<String, Object> idempotencyCache = new ConcurrentHashMap<>();
+    // Single-flight: duplicates wait on the first request's future
     private static final int IDEMPOTENCY_WINDOW_SEC = 300;
+    private static final int IDEMPOTENCY_MAX_KEYS = 200_000;
+    private final Cache<String, CompletableFuture<Object>> idempotencyCache;
 
     // Read cache TTLs (per b2.md section 2)
     private static final int ORDER_BOOK_CACHE_TTL_SEC = 2;
     private static final int ORDER_HISTORY_CACHE_TTL_SEC = 60;
     private static final int TRADE_DAY_CACHE_TTL_SEC = 5;
+    private static final int READ_CACHE_IDLE_SEC = 300;
+    private static final int READ_CACHE_MAX_USERS = 10_000;
 
-    // Cache for read-side
-    private final Map<String, CachedResult<?>> readCache = new ConcurrentHashMap<>();
+    // Refresh-ahead read caches keyed by userId
+    private final LoadingCache<String, OrderBookResponse> orderBookCache;
+    private final LoadingCache<String, TradesResponse> tradesDayCache;
 
     public CoordinatorService(
             OrderPersistenceOrchestrator orderOrchestrator,
@@ -56,6 +67,26 @@ public class CoordinatorService {
         this.orderOrchestrator = orderOrchestrator;
         this.multiOrderService = multiOrderService;
         this.modifyService = modifyService;
+
+        // The scheduler evicts expired keys promptly instead of waiting for
+        // the next cache access
+        this.idempotencyCache = Caffeine.newBuilder()
+                .maximumSize(IDEMPOTENCY_MAX_KEYS)
+                .expireAfterWrite(Duration.ofSeconds(IDEMPOTENCY_WINDOW_SEC))
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+
+        // Stale entries are served while an async reload runs
+        this.orderBookCache = Caffeine.newBuilder()
+                .maximumSize(READ_CACHE_MAX_USERS)
+                .refreshAfterWrite(Duration.ofSeconds(ORDER_BOOK_CACHE_TTL_SEC))
+                .expireAfterAccess(Duration.ofSeconds(READ_CACHE_IDLE_SEC))
+                .build(this::loadOrderBook);
+        this.tradesDayCache = Caffeine.newBuilder()
+                .maximumSize(READ_CACHE_MAX_USERS)
+                .refreshAfterWrite(Duration.ofSeconds(TRADE_DAY_CACHE_TTL_SEC))
+                .expireAfterAccess(Duration.ofSeconds(READ_CACHE_IDLE_SEC))
+                .build(this::loadTradesForDay);
     }
 
     // ==================== WRITE-SIDE (Command Plane) ====================
@@ -69,22 +100,11 @@ public class CoordinatorService {
             String userId,
             String idempotencyKey) {
 
-        // Check idempotency
-        if (idempotencyKey != null && idempotencyCache.containsKey(idempotencyKey)) {
-            logger.info("Returning cached response for idempotency key: {}", idempotencyKey);
-            return (MultiOrderResponse) idempotencyCache.get(idempotencyKey);
-        }
-
-        // Delegate to MultiOrderService
-        var response = multiOrderService.placeMultiOrder(request, userId);
-
-        // Cache for idempotency
-        if (idempotencyKey != null) {
-            idempotencyCache.put(idempotencyKey, response);
-            // Expire after window
-            scheduleIdempotencyExpiry(idempotencyKey);
-        }
+        // Delegate to MultiOrderService once per idempotency key
+        var response = idempotent(idempotencyKey,
+                () -> multiOrderService.placeMultiOrder(request, userId));
 
+        refreshOrderBook(userId);
         return response;
     }
 
@@ -96,18 +116,7 @@ public class CoordinatorService {
             OrderModifyService.ModifyRequest request,
             String idempotencyKey) {
 
-        if (idempotencyKey != null && idempotencyCache.containsKey(idempotencyKey)) {
-            return (OrderModifyService.ModifyResult) idempotencyCache.get(idempotencyKey);
-        }
-
-        var result = modifyService.modifyOrder(request);
-
-        if (idempotencyKey != null) {
-            idempotencyCache.put(idempotencyKey, result);
-            scheduleIdempotencyExpiry(idempotencyKey);
-        }
-
-        return result;
+        return idempotent(idempotencyKey, () -> modifyService.modifyOrder(request));
     }
 
     /**
@@ -119,17 +128,10 @@ public class CoordinatorService {
             String userId,
             String idempotencyKey) {
 
-        if (idempotencyKey != null && idempotencyCache.containsKey(idempotencyKey)) {
-            return (MultiOrderResponse) idempotencyCache.get(idempotencyKey);
-        }
-
-        var response = multiOrderService.cancelMultiOrder(orderIds, userId);
-
-        if (idempotencyKey != null) {
-            idempotencyCache.put(idempotencyKey, response);
-            scheduleIdempotencyExpiry(idempotencyKey);
-        }
+        var response = idempotent(idempotencyKey,
+                () -> multiOrderService.cancelMultiOrder(orderIds, userId));
 
+        refreshOrderBook(userId);
         return response;
     }
 
@@ -138,32 +140,26 @@ public class CoordinatorService {
     /**
      * Get order book for user.
      * Per b1.md and b2.md section 4.2.
-     * Cache TTL: 2 seconds.
+     * Cache TTL: 2 seconds, refreshed ahead; only the first read per user
+     * builds synchronously.
      */
     public OrderBookResponse getOrderBook(String userId) {
-        String cacheKey = "orderBook:" + userId;
-
-        var cached = readCache.get(cacheKey);
-        if (cached != null && !cached.isExpired(ORDER_BOOK_CACHE_TTL_SEC)) {
-            logger.debug("Order book cache hit for user {}", userId);
-            return (OrderBookResponse) cached.data;
-        }
-
-        // Get from orchestrator
-        List<Order> orders = orderOrchestrator.getOrdersByUser(userId);
+        OrderBookResponse cached = orderBookCache.get(userId);
+        return new OrderBookResponse(
+                cached.status(),
+                cached.data(),
+                cached.lastUpdate(),
+                Math.max(0, System.currentTimeMillis() - cached.lastUpdate().toEpochMilli()),
+                "CACHE");
+    }
 
-        // Build response with metadata
-        // Build response with metadata
-        var response = new OrderBookResponse(
+    private OrderBookResponse loadOrderBook(String userId) {
+        return new OrderBookResponse(
                 "success",
-                orders,
+                orderOrchestrator.getOrdersByUser(userId),
                 Instant.now().atZone(IST).toInstant(),
-                System.currentTimeMillis() - (cached != null ? cached.createdAt : System.currentTimeMillis()),
+                0,
                 "CACHE");
-
-        readCache.put(cacheKey, new CachedResult<>(response, System.currentTimeMillis()));
-
-        return response;
     }
 
     /**
@@ -198,23 +194,16 @@ public class CoordinatorService {
      * Per b1.md and b2.md section 4.3.
      */
     public TradesResponse getTradesForDay(String userId) {
-        String cacheKey = "tradesDay:" + userId;
-
-        var cached = readCache.get(cacheKey);
-        if (cached != null && !cached.isExpired(TRADE_DAY_CACHE_TTL_SEC)) {
-            return (TradesResponse) cached.data;
-        }
+        return tradesDayCache.get(userId);
+    }
 
+    private TradesResponse loadTradesForDay(String userId) {
         // Get all trades for user's orders
         List<Trade> trades = new ArrayList<>();
         for (Order order : orderOrchestrator.getOrdersByUser(userId)) {
             trades.addAll(getTradesForOrder(order.orderId()));
         }
-
-        var response = new TradesResponse("success", trades);
-        readCache.put(cacheKey, new CachedResult<>(response, System.currentTimeMillis()));
-
-        return response;
+        return new TradesResponse("success", trades);
     }
 
     /**
@@ -263,20 +252,50 @@ public class CoordinatorService {
 
     // ==================== HELPERS ====================
 
-    private void scheduleIdempotencyExpiry(String key) {
-        // In production, use ScheduledExecutorService
-        // For now, entries remain until restart
-        if (IDEMPOTENCY_WINDOW_SEC > 0) {
-            // Logic to expire
+    private void refreshOrderBook(String userId) {
+        if (userId != null) {
+            orderBookCache.refresh(userId);
         }
     }
 
     /**
-     * Cache result wrapper.
+     * Runs {@code action} at most once per idempotency key within the window.
+     * Concurrent duplicates block on the in-flight future; failures are not
+     * cached so the client may retry.
      */
-    private record CachedResult<T>(T data, long createdAt) {
-        boolean isExpired(int ttlSeconds) {
-            return System.currentTimeMillis() - createdAt > ttlSeconds * 1000L;
+    @SuppressWarnings("unchecked")
+    private <T> T idempotent(String idempotencyKey, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+
+        CompletableFuture<Object> inFlight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = idempotencyCache.asMap().putIfAbsent(idempotencyKey, inFlight);
+        if (existing != null) {
+            logger.info("Returning cached response for idempotency key: {}", idempotencyKey);
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (e.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = action.get();
+            inFlight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Any failure, including Errors and sneaky-thrown checked exceptions,
+            // must release the duplicates waiting on the future
+            idempotencyCache.asMap().remove(idempotencyKey, inFlight);
+            inFlight.completeExceptionally(e);
+            throw e;
         }
     }
 
@@ -1,13 +1,32 @@
 package com.vegatrader.upstox.api.order.service;
 
 import com.vegatrader.upstox.api.order.model.*;
+import com.vegatrader.upstox.api.order.store.OrderEventLog;
+import com.vegatrader.upstox.api.order.store.OrderLogRecord;
+import com.vegatrader.upstox.api.order.store.OrderStoreFlusher;
+import com.vegatrader.upstox.api.order.store.UserOrderIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Order persistence orchestrator.
@@ -15,18 +34,164 @@ import java.util.concurrent.ConcurrentHashMap;
  * 
  * Persistence happens ONLY after broker ACK, not before.
  * 
+ * <p>
+ * Write path: in-memory state + per-user index, then an append to the
+ * {@link OrderEventLog}. A write-behind thread drains appended records in
+ * batches, fsyncs the log once per batch and commits the batch to
+ * {@code OrderRepository}/{@code AuditEventRepository} in a single
+ * transaction. On startup today's log is replayed to rebuild memory. Records
+ * past the DB checkpoints, today's and the previous day's, are re-flushed
+ * by the write-behind thread before any new batch. Startup does not wait for
+ * the database.
+ * 
+ * <p>
+ * The write-behind queue is bounded. Records that do not fit stay in the log
+ * only and are read back from it once the queue has drained. A batch the DB
+ * keeps rejecting for a non-transient reason (constraint violation, bad row)
+ * is quarantined after {@value #MAX_FLUSH_ATTEMPTS} attempts: it is left in
+ * the log for manual repair, quarantine listeners are alerted and flushing
+ * moves on. Transient failures (DB unavailable, disk) are retried until they
+ * clear.
+ * 
+ * <p>
+ * The no-arg constructor gives a purely in-memory store (tests).
+ * 
  * @since 4.8.0
  */
 @Service
 public class OrderPersistenceOrchestrator {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderPersistenceOrchestrator.class);
+    private static final int MAX_BATCH = 512;
+    private static final long FLUSH_INTERVAL_MS = 20;
+    private static final long MAX_RETRY_BACKOFF_MS = 5_000;
+    private static final int MAX_PENDING = 65_536;
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
 
-    // In-memory stores (production would use JPA repositories)
+    // Day working set; the log and DB are the durable copies
     private final Map<String, Order> orderStore = new ConcurrentHashMap<>();
     private final Map<String, OrderCharges> chargesStore = new ConcurrentHashMap<>();
     private final Map<String, LatencyMetrics> latencyStore = new ConcurrentHashMap<>();
-    private final List<AuditEvent> auditLog = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, List<AuditEvent>> auditByOrder = new ConcurrentHashMap<>();
+    private final UserOrderIndex userIndex = new UserOrderIndex();
+
+    // Write-behind (null when running in-memory only)
+    private final OrderEventLog eventLog;
+    private final OrderStoreFlusher flusher;
+    private final BlockingQueue<OrderLogRecord> pending;
+    private final Object writeLock = new Object();
+    // First record (and its segment) left out of a full queue; 0 when none. Guarded by writeLock
+    private long spillFromSeq;
+    private Path spillFile;
+    private final List<QuarantinedBatch> quarantined = new CopyOnWriteArrayList<>();
+    private final List<Consumer<QuarantinedBatch>> quarantineListeners = new CopyOnWriteArrayList<>();
+    // Batches found past the checkpoints on startup, flushed first; null once done
+    private volatile List<List<OrderLogRecord>> recovery;
+    private volatile boolean running;
+    private Thread flushThread;
+
+    /**
+     * In-memory only store, no log and no DB flush.
+     */
+    public OrderPersistenceOrchestrator() {
+        this.eventLog = null;
+        this.flusher = null;
+        this.pending = new LinkedBlockingQueue<>();
+    }
+
+    @Autowired
+    public OrderPersistenceOrchestrator(
+            OrderStoreFlusher flusher,
+            @Value("${order.store.log-dir:data/order-log}") String logDir) {
+        this(flusher, new OrderEventLog(Path.of(logDir)), MAX_PENDING);
+    }
+
+    /**
+     * @param maxPending write-behind queue capacity
+     */
+    public OrderPersistenceOrchestrator(OrderStoreFlusher flusher, OrderEventLog eventLog, int maxPending) {
+        this.eventLog = eventLog;
+        this.flusher = flusher;
+        this.pending = new LinkedBlockingQueue<>(maxPending);
+    }
+
+    /**
+     * Replays today's log and starts the write-behind thread, which first
+     * re-flushes whatever the log holds past the DB checkpoints.
+     */
+    @PostConstruct
+    public void start() {
+        if (eventLog == null || running) {
+            return;
+        }
+
+        List<OrderLogRecord> previousDay = new ArrayList<>();
+        eventLog.replayPreviousTail(previousDay::add);
+        long checkpoint = eventLog.lastCheckpoint();
+        List<OrderLogRecord> unflushed = new ArrayList<>();
+        int replayed = eventLog.replay(record -> {
+            apply(record.order(), record.charges(), record.latency(), record.audit());
+            if (record.seq() > checkpoint) {
+                unflushed.add(record);
+            }
+        });
+        logger.info("Order log replayed: records={}, orders={}, unflushed={}, previousDayUnflushed={}",
+                replayed, orderStore.size(), unflushed.size(), previousDay.size());
+
+        // One segment per batch, so each checkpoint lands in its own segment
+        List<List<OrderLogRecord>> batches = new ArrayList<>();
+        for (List<OrderLogRecord> records : List.of(previousDay, unflushed)) {
+            for (int i = 0; i < records.size(); i += MAX_BATCH) {
+                batches.add(records.subList(i, Math.min(i + MAX_BATCH, records.size())));
+            }
+        }
+        recovery = batches.isEmpty() ? null : batches;
+
+        running = true;
+        flushThread = new Thread(this::flushLoop, "Order-WriteBehind");
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+
+    /**
+     * Drains remaining records and closes the log.
+     */
+    @PreDestroy
+    public void stop() {
+        if (eventLog == null) {
+            return;
+        }
+        running = false;
+        if (flushThread != null) {
+            flushThread.interrupt();
+            try {
+                flushThread.join(MAX_RETRY_BACKOFF_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<OrderLogRecord> rest = new ArrayList<>();
+        pending.drainTo(rest);
+        boolean spilled;
+        synchronized (writeLock) {
+            spilled = spillFromSeq != 0 || recovery != null;
+        }
+        if (spilled) {
+            // Checkpointing the queue would skip the spilled records
+            logger.warn("Order store has records only in the log, leaving {} queued records for log recovery",
+                    rest.size());
+        } else if (!rest.isEmpty()) {
+            try {
+                eventLog.sync();
+                flusher.flush(rest, true);
+                eventLog.checkpoint(maxSeq(rest));
+            } catch (Exception e) {
+                logger.warn("Final order flush failed, {} records left for log recovery: {}",
+                        rest.size(), e.getMessage());
+            }
+        }
+        eventLog.close();
+    }
 
     /**
      * Persist order after broker ACK.
@@ -38,26 +203,14 @@ public class OrderPersistenceOrchestrator {
 
         logger.info("Persisting order: {}", order.orderId());
 
-        // Save order
-        orderStore.put(order.orderId(), order);
-
-        // Save charges
-        if (charges != null) {
-            OrderCharges orderCharges = OrderCharges.from(order.orderId(), charges);
-            chargesStore.put(order.orderId(), orderCharges);
-        }
-
-        // Save latency
-        if (latency != null) {
-            latencyStore.put(order.orderId(), latency);
-        }
-
-        // Audit
-        auditLog.add(new AuditEvent(
+        OrderCharges orderCharges = charges != null ? OrderCharges.from(order.orderId(), charges) : null;
+        AuditEvent audit = new AuditEvent(
                 order.orderId(),
                 "ORDER_PERSISTED",
                 Map.of("status", order.status().name()),
-                Instant.now()));
+                Instant.now());
+
+        write(order, orderCharges, latency, audit);
 
         logger.info("Order persisted: {} (status={})", order.orderId(), order.status());
     }
@@ -70,13 +223,11 @@ public class OrderPersistenceOrchestrator {
     }
 
     /**
-     * Get orders by user.
+     * Get orders by user, newest first.
+     * Served from the per-user index; cost does not depend on other users' orders.
      */
     public List<Order> getOrdersByUser(String userId) {
-        return orderStore.values().stream()
-                .filter(o -> userId.equals(o.userId()))
-                .sorted((a, b) -> b.placedAt().compareTo(a.placedAt()))
-                .toList();
+        return userIndex.getOrders(userId);
     }
 
     /**
@@ -114,9 +265,7 @@ public class OrderPersistenceOrchestrator {
                 Instant.now(),
                 existing.rmsSnapshotId());
 
-        orderStore.put(orderId, updated);
-
-        auditLog.add(new AuditEvent(
+        write(updated, null, null, new AuditEvent(
                 orderId,
                 "STATUS_CHANGED",
                 Map.of("oldStatus", existing.status().name(), "newStatus", newStatus.name()),
@@ -129,20 +278,20 @@ public class OrderPersistenceOrchestrator {
      * Get recent orders (for cache).
      */
     public List<Order> getRecentOrders(String userId, int limit) {
-        return orderStore.values().stream()
-                .filter(o -> userId.equals(o.userId()))
-                .sorted((a, b) -> b.placedAt().compareTo(a.placedAt()))
-                .limit(limit)
-                .toList();
+        return userIndex.getRecent(userId, limit);
     }
 
     /**
      * Get audit log for order.
      */
     public List<AuditEvent> getAuditLog(String orderId) {
-        return auditLog.stream()
-                .filter(e -> orderId.equals(e.orderId()))
-                .toList();
+        List<AuditEvent> events = auditByOrder.get(orderId);
+        if (events == null) {
+            return List.of();
+        }
+        synchronized (events) {
+            return List.copyOf(events);
+        }
     }
 
     /**
@@ -152,6 +301,242 @@ public class OrderPersistenceOrchestrator {
         return new ArrayList<>(orderStore.values());
     }
 
+    /**
+     * Records appended to the log but not yet committed to the DB.
+     */
+    public int getPendingFlushCount() {
+        return pending.size();
+    }
+
+    /**
+     * Batches given up on after repeated non-transient DB failures. Their
+     * records are still in the order log.
+     */
+    public List<QuarantinedBatch> getQuarantinedBatches() {
+        return List.copyOf(quarantined);
+    }
+
+    /**
+     * Alerted on the write-behind thread whenever a batch is quarantined.
+     */
+    public void addQuarantineListener(Consumer<QuarantinedBatch> listener) {
+        quarantineListeners.add(listener);
+    }
+
+    // === Write-behind ===
+
+    private void write(Order order, OrderCharges charges, LatencyMetrics latency, AuditEvent audit) {
+        synchronized (writeLock) {
+            apply(order, charges, latency, audit);
+            if (eventLog != null) {
+                // Append and enqueue under one lock so the queue stays in sequence order
+                OrderLogRecord record = eventLog.append(order, charges, latency, audit);
+                if (spillFromSeq == 0 && !pending.offer(record)) {
+                    spillFromSeq = record.seq();
+                    spillFile = eventLog.getLogFile();
+                    logger.warn("Order write-behind queue full at seq {}, later records re-read from the log",
+                            record.seq());
+                }
+            }
+        }
+    }
+
+    private void apply(Order order, OrderCharges charges, LatencyMetrics latency, AuditEvent audit) {
+        Order previous = orderStore.put(order.orderId(), order);
+        if (previous != null) {
+            userIndex.remove(previous);
+        }
+        userIndex.put(order);
+
+        if (charges != null) {
+            chargesStore.put(order.orderId(), charges);
+        }
+        if (latency != null) {
+            latencyStore.put(order.orderId(), latency);
+        }
+        if (audit != null) {
+            auditByOrder.computeIfAbsent(order.orderId(), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(audit);
+        }
+    }
+
+    private void flushLoop() {
+        if (!flushRecovery()) {
+            return;
+        }
+        List<OrderLogRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !pending.isEmpty()) {
+            try {
+                OrderLogRecord first = pending.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    flushSpilled();
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, MAX_BATCH - 1);
+                flushWithRetry(batch, false);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // stop() drains whatever is left
+                    pending.addAll(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-flushes the records found past the checkpoints on startup, ahead of
+     * any new batch so checkpoints stay in order. A DB outage keeps this
+     * retrying here, not in {@link #start()}.
+     *
+     * @return false if abandoned because the store is stopping
+     */
+    private boolean flushRecovery() {
+        List<List<OrderLogRecord>> batches = recovery;
+        if (batches == null) {
+            return true;
+        }
+        for (List<OrderLogRecord> batch : batches) {
+            if (!flushWithRetry(batch, true)) {
+                return false;
+            }
+        }
+        recovery = null;
+        logger.info("Order log recovery flushed {} batches", batches.size());
+        return true;
+    }
+
+    /**
+     * Flushes the records that did not fit the queue, reading them back from
+     * the log. Runs only while the queue is empty, so log order is kept.
+     */
+    private void flushSpilled() {
+        long from;
+        long to;
+        Path file;
+        synchronized (writeLock) {
+            // The queue may have refilled since the poll timed out; those records come first
+            if (spillFromSeq == 0 || !pending.isEmpty()) {
+                return;
+            }
+            from = spillFromSeq;
+            file = spillFile;
+            to = eventLog.lastSeq();
+            spillFromSeq = 0;
+            spillFile = null;
+        }
+        logger.info("Re-reading order records {}..{} from the log", from, to);
+        List<OrderLogRecord> batch = new ArrayList<>(MAX_BATCH);
+        boolean[] abandoned = { false };
+        Consumer<OrderLogRecord> collect = record -> {
+            if (abandoned[0]) {
+                return;
+            }
+            batch.add(record);
+            if (batch.size() == MAX_BATCH) {
+                abandoned[0] = !flushWithRetry(batch, false);
+                batch.clear();
+            }
+        };
+        eventLog.read(file, from, to, collect);
+        if (!file.equals(eventLog.getLogFile())) {
+            eventLog.read(eventLog.getLogFile(), from, to, collect); // rolled over meanwhile
+        }
+        if (!abandoned[0] && !batch.isEmpty()) {
+            abandoned[0] = !flushWithRetry(batch, false);
+        }
+        if (abandoned[0]) {
+            synchronized (writeLock) {
+                spillFromSeq = from; // stopping; keeps stop() from checkpointing past them
+                spillFile = file;
+            }
+        }
+    }
+
+    /**
+     * @return false if abandoned because the store is stopping
+     */
+    private boolean flushWithRetry(List<OrderLogRecord> batch, boolean recovering) {
+        long backoff = 100;
+        boolean retry = recovering;
+        int failures = 0;
+        while (true) {
+            try {
+                eventLog.sync();
+                flusher.flush(batch, retry);
+                eventLog.checkpoint(maxSeq(batch));
+                return true;
+            } catch (Exception e) {
+                if (!isTransient(e) && ++failures >= MAX_FLUSH_ATTEMPTS) {
+                    quarantine(batch, e);
+                    return true;
+                }
+                logger.warn("Order store flush failed ({} records), retrying in {}ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                retry = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    if (!running) {
+                        // Records stay in the log; recovery re-flushes them
+                        return false;
+                    }
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * DB or disk unavailable, as opposed to a batch the DB will never accept.
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException || t instanceof RecoverableDataAccessException
+                    || t instanceof SQLTransientException || t instanceof SQLRecoverableException
+                    || t instanceof UncheckedIOException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private void quarantine(List<OrderLogRecord> batch, Exception cause) {
+        long first = Long.MAX_VALUE;
+        for (OrderLogRecord record : batch) {
+            first = Math.min(first, record.seq());
+        }
+        QuarantinedBatch entry = new QuarantinedBatch(first, maxSeq(batch), batch.size(),
+                eventLog.getLogFile().toString(), String.valueOf(cause.getMessage()), Instant.now());
+        quarantined.add(entry);
+        logger.error("ALERT: order store batch seq {}..{} ({} records) rejected {} times, quarantined; "
+                + "records remain in {}: {}", entry.fromSeq(), entry.toSeq(), entry.records(),
+                MAX_FLUSH_ATTEMPTS, entry.logFile(), entry.reason());
+        // Move past it; the log keeps the records for repair
+        eventLog.checkpoint(entry.toSeq());
+        for (Consumer<QuarantinedBatch> listener : quarantineListeners) {
+            try {
+                listener.accept(entry);
+            } catch (RuntimeException e) {
+                logger.warn("Quarantine listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long maxSeq(List<OrderLogRecord> batch) {
+        long max = 0;
+        for (OrderLogRecord record : batch) {
+            max = Math.max(max, record.seq());
+        }
+        return max;
+    }
+
     /**
      * Latency metrics.
      */
@@ -174,6 +559,18 @@ public class OrderPersistenceOrchestrator {
         }
     }
 
+    /**
+     * A write-behind batch given up on; its records are in {@code logFile}.
+     */
+    public record QuarantinedBatch(
+            long fromSeq,
+            long toSeq,
+            int records,
+            String logFile,
+            String reason,
+            Instant quarantinedAt) {
+    }
+
     /**
      * Audit event.
      */
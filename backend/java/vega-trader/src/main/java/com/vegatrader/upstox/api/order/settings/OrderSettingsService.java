@@ -1,25 +1,23 @@
 package com.vegatrader.upstox.api.order.settings;
 
-import com.vegatrader.upstox.api.settings.service.AdminSettingsService;
+import com.vegatrader.upstox.api.settings.service.SettingsResolver;
 import com.vegatrader.upstox.api.settings.service.UserSettingsService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 /**
  * Order Settings Service for dynamic configuration.
  * Per order-mgmt/b2.md section 3 and b4.md section 10.
  * 
- * Integrates with AdminSettingsService for configurable behavior.
+ * Reads the global snapshot of the {@link SettingsResolver} (admin values
+ * under any exchange or regulatory limits) and falls back to built-in
+ * defaults for unset keys.
  * 
  * @since 4.9.0
  */
 @Service
 public class OrderSettingsService {
 
-    private static final Logger logger = LoggerFactory.getLogger(OrderSettingsService.class);
-
-    private final AdminSettingsService adminSettingsService;
+    private final SettingsResolver settingsResolver;
     private final UserSettingsService userSettingsService;
 
     // Default values (if AdminSettings not available)
@@ -30,8 +28,8 @@ public class OrderSettingsService {
     private static final int DEFAULT_TRADE_CACHE_TTL_SEC = 5;
     private static final int DEFAULT_RATE_LIMIT_PER_MINUTE = 120;
 
-    public OrderSettingsService(AdminSettingsService adminSettingsService, UserSettingsService userSettingsService) {
-        this.adminSettingsService = adminSettingsService;
+    public OrderSettingsService(SettingsResolver settingsResolver, UserSettingsService userSettingsService) {
+        this.settingsResolver = settingsResolver;
         this.userSettingsService = userSettingsService;
     }
 
@@ -176,39 +174,18 @@ public class OrderSettingsService {
     // ==================== Helpers ====================
 
     private int getIntSetting(String key, int defaultValue) {
-        try {
-            String value = adminSettingsService.getSettingValue(key);
-            return value != null ? Integer.parseInt(value) : defaultValue;
-        } catch (Exception e) {
-            logger.debug("Failed to get setting {}, using default: {}", key, defaultValue);
-            return defaultValue;
-        }
+        return settingsResolver.global().getInt(key, defaultValue);
     }
 
     private long getLongSetting(String key, long defaultValue) {
-        try {
-            String value = adminSettingsService.getSettingValue(key);
-            return value != null ? Long.parseLong(value) : defaultValue;
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return settingsResolver.global().getLong(key, defaultValue);
     }
 
     private boolean getBooleanSetting(String key, boolean defaultValue) {
-        try {
-            String value = adminSettingsService.getSettingValue(key);
-            return value != null ? Boolean.parseBoolean(value) : defaultValue;
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return settingsResolver.global().getBoolean(key, defaultValue);
     }
 
     private String getStringSetting(String key, String defaultValue) {
-        try {
-            String value = adminSettingsService.getSettingValue(key);
-            return value != null ? value : defaultValue;
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return settingsResolver.global().get(key, defaultValue);
     }
 }
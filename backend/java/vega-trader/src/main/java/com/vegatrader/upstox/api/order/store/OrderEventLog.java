@@ -0,0 +1,392 @@
+package com.vegatrader.upstox.api.order.store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vegatrader.upstox.api.order.model.Order;
+import com.vegatrader.upstox.api.order.model.OrderCharges;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.AuditEvent;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.LatencyMetrics;
+import com.vegatrader.util.time.SystemTimeProvider;
+import com.vegatrader.util.time.TimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only order event log for one trading day.
+ *
+ * <p>
+ * Frame layout: {@code [int length][int crc32][json bytes]}. A frame with a
+ * short read or bad CRC marks the torn tail of a crash and is truncated on
+ * open. Appends go to the OS page cache; {@link #sync()} forces them to disk
+ * and is called once per write-behind batch (group commit).
+ *
+ * <p>
+ * A sidecar {@code checkpoint} file records the highest sequence already
+ * committed to the database, so recovery only re-flushes the tail.
+ *
+ * <p>
+ * The first append after midnight IST rolls over to the new day's segment.
+ * Sequence numbers keep counting across the roll, and across restarts via
+ * {@link #replayPreviousTail}. Checkpoints of batches still in flight from
+ * the previous day are written to that day's checkpoint, so on startup
+ * {@link #replayPreviousTail} finds any of them a crash kept from committing.
+ *
+ * @since 4.9.0
+ */
+public class OrderEventLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventLog.class);
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final int FRAME_HEADER = 8;
+    private static final int MAX_FRAME = 1024 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Path baseDir;
+    private final TimeProvider clock;
+    // Current segment; replaced together on roll-over
+    private volatile LocalDate tradingDate;
+    private volatile Path logFile;
+    private volatile Path checkpointFile;
+    private volatile FileChannel channel;
+    private long nextSeq = 1;
+    // Previous segment while it may hold uncommitted records; null once checkpointed through previousLastSeq
+    private volatile long previousLastSeq;
+    private volatile Path previousCheckpointFile;
+
+    /**
+     * Opens (or creates) the log for today under {@code baseDir/yyyy-MM-dd}.
+     */
+    public OrderEventLog(Path baseDir) {
+        this(baseDir, new SystemTimeProvider());
+    }
+
+    public OrderEventLog(Path baseDir, TimeProvider clock) {
+        this.baseDir = baseDir;
+        this.clock = clock;
+        open(clock.today(IST));
+    }
+
+    private void open(LocalDate date) {
+        Path dir = baseDir.resolve(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        Path file = dir.resolve("orders.log");
+        try {
+            Files.createDirectories(dir);
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open order log " + file, e);
+        }
+        this.tradingDate = date;
+        this.logFile = file;
+        this.checkpointFile = dir.resolve("checkpoint");
+        logger.info("Order event log opened: {}", file.toAbsolutePath());
+    }
+
+    private void rollIfNewDay() {
+        LocalDate today = clock.today(IST);
+        if (!today.isAfter(tradingDate)) {
+            return;
+        }
+        FileChannel previous = channel;
+        try {
+            previous.force(false);
+        } catch (IOException e) {
+            logger.warn("Failed to sync order log {} before roll-over: {}", logFile, e.getMessage());
+        }
+        if (nextSeq > 1) {
+            previousLastSeq = nextSeq - 1;
+            previousCheckpointFile = checkpointFile;
+        }
+        open(today);
+        try {
+            previous.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Appends an event and returns the record that was written.
+     */
+    public synchronized OrderLogRecord append(Order order, OrderCharges charges, LatencyMetrics latency,
+            AuditEvent audit) {
+        rollIfNewDay();
+        long seq = nextSeq++;
+        String eventId = "EVT-" + tradingDate.format(DateTimeFormatter.BASIC_ISO_DATE) + "-" + seq;
+        OrderLogRecord record = new OrderLogRecord(seq, eventId, order, charges, latency, audit);
+
+        try {
+            byte[] json = mapper.writeValueAsBytes(record);
+            CRC32 crc = new CRC32();
+            crc.update(json);
+
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + json.length);
+            frame.putInt(json.length).putInt((int) crc.getValue()).put(json).flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame, channel.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order log append failed: seq=" + seq, e);
+        }
+        return record;
+    }
+
+    /**
+     * Forces appended frames to disk.
+     */
+    public void sync() {
+        FileChannel current = channel;
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Rolled over meanwhile; the roll synced the old segment
+            if (channel != current) {
+                sync();
+                return;
+            }
+            throw new UncheckedIOException("Order log sync failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order log sync failed", e);
+        }
+    }
+
+    /**
+     * Replays every intact record in order, truncating a torn tail.
+     * Also positions the sequence counter after the last record.
+     *
+     * @return number of records replayed
+     */
+    public synchronized int replay(Consumer<OrderLogRecord> callback) {
+        int[] records = { 0 };
+        try {
+            long size = channel.size();
+            long position = scan(channel, record -> {
+                nextSeq = Math.max(nextSeq, record.seq() + 1);
+                callback.accept(record);
+                records[0]++;
+            });
+            if (position < size) {
+                logger.warn("Truncating torn order log tail: {} -> {} bytes", size, position);
+                channel.truncate(position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order log replay failed", e);
+        }
+        return records[0];
+    }
+
+    /**
+     * Passes on the records of the most recent earlier segment that are past
+     * its checkpoint: batches in flight at the roll-over that a crash kept
+     * from committing. Sequence numbers then count on from that segment, and
+     * checkpoints up to its last record are written to its checkpoint file.
+     *
+     * @return number of records passed on
+     */
+    public synchronized int replayPreviousTail(Consumer<OrderLogRecord> callback) {
+        Path dir = previousSegmentDir();
+        if (dir == null) {
+            return 0;
+        }
+        Path checkpoint = dir.resolve("checkpoint");
+        long committed = readCheckpoint(checkpoint);
+        long[] last = { 0 };
+        int[] records = { 0 };
+        try (FileChannel reader = FileChannel.open(dir.resolve("orders.log"), StandardOpenOption.READ)) {
+            scan(reader, record -> {
+                last[0] = Math.max(last[0], record.seq());
+                if (record.seq() > committed) {
+                    callback.accept(record);
+                    records[0]++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order log read failed: " + dir, e);
+        }
+        nextSeq = Math.max(nextSeq, last[0] + 1);
+        if (records[0] > 0) {
+            previousLastSeq = last[0];
+            previousCheckpointFile = checkpoint;
+            logger.warn("Previous order log segment {} has {} records past its checkpoint {}",
+                    dir.getFileName(), records[0], committed);
+        }
+        return records[0];
+    }
+
+    /**
+     * @return the latest segment directory before the current day, or null
+     */
+    private Path previousSegmentDir() {
+        Path latest = null;
+        LocalDate latestDate = null;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(baseDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(dir.getFileName().toString());
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                if (date.isBefore(tradingDate) && (latestDate == null || date.isAfter(latestDate))
+                        && Files.exists(dir.resolve("orders.log"))) {
+                    latest = dir;
+                    latestDate = date;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list order log segments in " + baseDir, e);
+        }
+        return latest;
+    }
+
+    /**
+     * Reads the records of sequence {@code fromSeq} to {@code toSeq} back
+     * from a segment without blocking appends, e.g. to re-flush records
+     * that did not fit the write-behind queue.
+     *
+     * @param file a segment, see {@link #getLogFile()}
+     */
+    public void read(Path file, long fromSeq, long toSeq, Consumer<OrderLogRecord> callback) {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(reader, record -> {
+                if (record.seq() >= fromSeq && record.seq() <= toSeq) {
+                    callback.accept(record);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order log read failed: " + file, e);
+        }
+    }
+
+    /**
+     * @return offset just past the last intact frame
+     */
+    private long scan(FileChannel from, Consumer<OrderLogRecord> callback) throws IOException {
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        long size = from.size();
+        while (position + FRAME_HEADER <= size) {
+            header.clear();
+            from.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+
+            if (length <= 0 || length > MAX_FRAME || position + FRAME_HEADER + length > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(length);
+            while (body.hasRemaining()) {
+                if (from.read(body, position + FRAME_HEADER + body.position()) < 0) {
+                    break;
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(body.array());
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            callback.accept(mapper.readValue(body.array(), OrderLogRecord.class));
+            position += FRAME_HEADER + length;
+        }
+        return position;
+    }
+
+    /**
+     * Records that every sequence up to {@code seq} is committed to the DB.
+     * The part that belongs to the previous segment, if it still has
+     * uncommitted records, goes to that segment's checkpoint.
+     */
+    public void checkpoint(long seq) {
+        Path previous = previousCheckpointFile;
+        if (previous != null) {
+            long last = previousLastSeq;
+            writeCheckpoint(previous, Math.min(seq, last));
+            if (seq >= last) {
+                previousCheckpointFile = null;
+            }
+            if (seq <= last) {
+                return;
+            }
+        }
+        writeCheckpoint(checkpointFile, seq);
+    }
+
+    private static void writeCheckpoint(Path file, long seq) {
+        try {
+            Path tmp = file.resolveSibling("checkpoint.tmp");
+            Files.writeString(tmp, Long.toString(seq), StandardCharsets.US_ASCII);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write order log checkpoint {} to {}: {}", seq, file, e.getMessage());
+        }
+    }
+
+    /**
+     * Highest sequence known to be committed to the DB, or 0.
+     */
+    public long lastCheckpoint() {
+        return readCheckpoint(checkpointFile);
+    }
+
+    private static long readCheckpoint(Path file) {
+        try {
+            if (Files.exists(file)) {
+                return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Unreadable order log checkpoint {}, re-flushing whole segment: {}", file, e.getMessage());
+        }
+        return 0;
+    }
+
+    public LocalDate getTradingDate() {
+        return tradingDate;
+    }
+
+    /**
+     * @return the current segment file
+     */
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * @return sequence of the last record appended, or 0
+     */
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
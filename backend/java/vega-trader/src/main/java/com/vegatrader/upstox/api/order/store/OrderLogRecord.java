@@ -0,0 +1,30 @@
+package com.vegatrader.upstox.api.order.store;
+
+import com.vegatrader.upstox.api.order.model.Order;
+import com.vegatrader.upstox.api.order.model.OrderCharges;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.AuditEvent;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.LatencyMetrics;
+
+/**
+ * One entry in the order event log.
+ *
+ * <p>
+ * Each record carries the full order state after the event, so replay is a
+ * plain "last write wins" per order ID and never needs earlier records.
+ *
+ * @param seq     log sequence number, monotonic within a trading day
+ * @param eventId unique audit event ID (date + sequence)
+ * @param order   order state after this event
+ * @param charges charges captured with the event, or null
+ * @param latency latency captured with the event, or null
+ * @param audit   audit event to persist
+ * @since 4.9.0
+ */
+public record OrderLogRecord(
+        long seq,
+        String eventId,
+        Order order,
+        OrderCharges charges,
+        LatencyMetrics latency,
+        AuditEvent audit) {
+}
@@ -0,0 +1,135 @@
+package com.vegatrader.upstox.api.order.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vegatrader.upstox.api.order.entity.AuditEventEntity;
+import com.vegatrader.upstox.api.order.entity.OrderEntity;
+import com.vegatrader.upstox.api.order.model.Order;
+import com.vegatrader.upstox.api.order.repository.AuditEventRepository;
+import com.vegatrader.upstox.api.order.repository.OrderRepository;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes batches of order log records to SQLite in one transaction.
+ *
+ * <p>
+ * Orders are upserted by order ID (last state in the batch wins); audit
+ * events are inserted. During recovery the tail may overlap rows already
+ * committed before the crash, so audit inserts are de-duplicated by event ID.
+ *
+ * @since 4.9.0
+ */
+@Component
+public class OrderStoreFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStoreFlusher.class);
+
+    private final OrderRepository orderRepository;
+    private final AuditEventRepository auditRepository;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public OrderStoreFlusher(OrderRepository orderRepository, AuditEventRepository auditRepository) {
+        this.orderRepository = orderRepository;
+        this.auditRepository = auditRepository;
+    }
+
+    /**
+     * Commits a batch (group commit).
+     *
+     * @param batch      records in log order
+     * @param recovering true when re-flushing a log tail after restart
+     */
+    @Transactional
+    public void flush(List<OrderLogRecord> batch, boolean recovering) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Latest state per order
+        Map<String, Order> latest = new LinkedHashMap<>();
+        for (OrderLogRecord record : batch) {
+            latest.put(record.order().orderId(), record.order());
+        }
+
+        Map<String, OrderEntity> existing = orderRepository.findByOrderIdIn(latest.keySet()).stream()
+                .collect(Collectors.toMap(OrderEntity::getOrderId, Function.identity()));
+
+        List<OrderEntity> orders = new ArrayList<>(latest.size());
+        latest.forEach((orderId, order) -> {
+            OrderEntity entity = existing.getOrDefault(orderId, new OrderEntity());
+            apply(order, entity);
+            orders.add(entity);
+        });
+        orderRepository.saveAll(orders);
+
+        List<AuditEventEntity> audits = new ArrayList<>(batch.size());
+        for (OrderLogRecord record : batch) {
+            if (record.audit() == null) {
+                continue;
+            }
+            if (recovering && auditRepository.existsByEventId(record.eventId())) {
+                continue;
+            }
+            audits.add(toAuditEntity(record));
+        }
+        auditRepository.saveAll(audits);
+
+        logger.debug("Order store flush: records={}, orders={}, audits={}",
+                batch.size(), orders.size(), audits.size());
+    }
+
+    private static void apply(Order order, OrderEntity entity) {
+        entity.setOrderId(order.orderId());
+        entity.setBrokerOrderId(order.brokerOrderId());
+        entity.setUserId(order.userId());
+        if (order.broker() != null) {
+            entity.setBroker(order.broker());
+        }
+        entity.setExchange(order.exchange());
+        entity.setSymbol(order.symbol());
+        entity.setInstrumentKey(order.instrumentKey());
+        entity.setSide(order.side() != null ? OrderEntity.OrderSide.valueOf(order.side().name()) : null);
+        entity.setOrderType(order.orderType() != null
+                ? OrderEntity.OrderType.valueOf(order.orderType().name())
+                : null);
+        entity.setProduct(order.product() != null ? OrderEntity.ProductType.valueOf(order.product().name()) : null);
+        entity.setQuantity(order.quantity());
+        entity.setPrice(order.price());
+        entity.setTriggerPrice(order.triggerPrice());
+        entity.setStatus(OrderEntity.OrderStatus.valueOf(order.status().name()));
+        entity.setFilledQuantity(order.filledQuantity());
+        entity.setAveragePrice(order.averagePrice());
+        entity.setPlacedAt(order.placedAt());
+        entity.setAcknowledgedAt(order.acknowledgedAt());
+        entity.setFinalStatusAt(order.finalStatusAt());
+        entity.setRmsSnapshotId(order.rmsSnapshotId());
+    }
+
+    private AuditEventEntity toAuditEntity(OrderLogRecord record) {
+        AuditEvent audit = record.audit();
+        AuditEventEntity entity = AuditEventEntity.create(audit.orderId(), audit.eventType(), toJson(audit.payload()));
+        entity.setEventId(record.eventId());
+        entity.setUserId(record.order().userId());
+        if (audit.payload() != null) {
+            entity.setPreviousState(audit.payload().get("oldStatus"));
+            entity.setNewState(audit.payload().getOrDefault("newStatus", audit.payload().get("status")));
+        }
+        return entity;
+    }
+
+    private String toJson(Map<String, String> payload) {
+        try {
+            return payload == null ? null : mapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(payload);
+        }
+    }
+}
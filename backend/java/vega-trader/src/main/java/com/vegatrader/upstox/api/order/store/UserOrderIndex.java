@@ -0,0 +1,99 @@
+package com.vegatrader.upstox.api.order.store;
+
+import com.vegatrader.upstox.api.order.model.Order;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Per-user, newest-first order index.
+ *
+ * <p>
+ * Each user has a skip list keyed by (placedAt desc, orderId), so an order
+ * book read costs O(log n + k) in that user's orders and never touches other
+ * users. {@code placedAt} never changes after placement, which keeps the key
+ * stable across status updates.
+ *
+ * @since 4.9.0
+ */
+public class UserOrderIndex {
+
+    private static final Comparator<Key> NEWEST_FIRST = Comparator
+            .comparing(Key::placedAt, Comparator.reverseOrder())
+            .thenComparing(Key::orderId);
+
+    private final Map<String, ConcurrentNavigableMap<Key, Order>> byUser = new ConcurrentHashMap<>();
+
+    /**
+     * Inserts or replaces an order.
+     */
+    public void put(Order order) {
+        if (order.userId() == null || order.orderId() == null || order.placedAt() == null) {
+            return;
+        }
+        byUser.computeIfAbsent(order.userId(), u -> new ConcurrentSkipListMap<>(NEWEST_FIRST))
+                .put(new Key(order.placedAt(), order.orderId()), order);
+    }
+
+    /**
+     * Removes an order previously indexed under its old user/placedAt.
+     */
+    public void remove(Order order) {
+        if (order.userId() == null || order.orderId() == null || order.placedAt() == null) {
+            return;
+        }
+        ConcurrentNavigableMap<Key, Order> orders = byUser.get(order.userId());
+        if (orders != null) {
+            orders.remove(new Key(order.placedAt(), order.orderId()));
+        }
+    }
+
+    /**
+     * All orders for a user, newest first.
+     */
+    public List<Order> getOrders(String userId) {
+        ConcurrentNavigableMap<Key, Order> orders = byUser.get(userId);
+        return orders == null ? List.of() : List.copyOf(orders.values());
+    }
+
+    /**
+     * Newest {@code limit} orders for a user.
+     */
+    public List<Order> getRecent(String userId, int limit) {
+        ConcurrentNavigableMap<Key, Order> orders = byUser.get(userId);
+        if (orders == null || limit <= 0) {
+            return List.of();
+        }
+        List<Order> result = new ArrayList<>(Math.min(limit, 64));
+        for (Order order : orders.values()) {
+            result.add(order);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Orders placed at or after {@code since}, newest first.
+     */
+    public List<Order> getSince(String userId, Instant since) {
+        ConcurrentNavigableMap<Key, Order> orders = byUser.get(userId);
+        if (orders == null) {
+            return List.of();
+        }
+        // Keys sort newest first, so everything up to (since, max orderId) is newer
+        return List.copyOf(orders.headMap(new Key(since, "\uffff"), true).values());
+    }
+
+    public int size(String userId) {
+        ConcurrentNavigableMap<Key, Order> orders = byUser.get(userId);
+        return orders == null ? 0 : orders.size();
+    }
+
+    private record Key(Instant placedAt, String orderId) {
+    }
+}
@@ -137,9 +137,20 @@ public class RateLimitManager {
      * @return the appropriate RateLimiter
      */
     private RateLimiter getLimiterForEndpoint(UpstoxEndpoint endpoint) {
-        // Determine which limiter to use based on endpoint path
-        String path = endpoint.getPath();
+        return getLimiterForPath(endpoint.getPath());
+    }
 
+    /**
+     * Selects the appropriate rate limiter for a request path.
+     * <p>
+     * Used by the shared HTTP layer, which sees URLs rather than
+     * {@link UpstoxEndpoint} constants.
+     * </p>
+     *
+     * @param path the request path (e.g. {@code /v2/order/multi/place})
+     * @return the appropriate RateLimiter
+     */
+    public RateLimiter getLimiterForPath(String path) {
         // Multi-order endpoints
         if (path.contains("/multi/") || path.contains("/positions/exit")) {
             logger.debug("Using multi-order limiter for endpoint: {}", path);
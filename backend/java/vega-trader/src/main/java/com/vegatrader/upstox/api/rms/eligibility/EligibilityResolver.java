@@ -3,12 +3,13 @@ package com.vegatrader.upstox.api.rms.eligibility;
 import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
 import com.vegatrader.upstox.api.instrument.repository.InstrumentMasterRepository;
 import com.vegatrader.upstox.api.rms.entity.*;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceDataService;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceSnapshot;
 import com.vegatrader.upstox.api.rms.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.Optional;
 
 /**
@@ -37,24 +38,45 @@ public class EligibilityResolver {
     private final ExchangeSeriesRepository seriesRepo;
     private final IpoCalendarRepository ipoRepo;
     private final IntradayMarginRepository marginRepo;
+    private final RmsReferenceDataService referenceData;
 
     public EligibilityResolver(
             InstrumentMasterRepository instrumentRepo,
             RegulatoryWatchlistRepository watchlistRepo,
             ExchangeSeriesRepository seriesRepo,
             IpoCalendarRepository ipoRepo,
-            IntradayMarginRepository marginRepo) {
+            IntradayMarginRepository marginRepo,
+            RmsReferenceDataService referenceData) {
         this.instrumentRepo = instrumentRepo;
         this.watchlistRepo = watchlistRepo;
         this.seriesRepo = seriesRepo;
         this.ipoRepo = ipoRepo;
         this.marginRepo = marginRepo;
+        this.referenceData = referenceData;
     }
 
     /**
      * Resolves eligibility for an instrument key.
+     * 
+     * <p>
+     * Served from the BOD reference snapshot when one is loaded for today;
+     * falls back to repository lookups otherwise.
      */
     public ProductEligibility resolve(String instrumentKey) {
+        RmsReferenceSnapshot snapshot = referenceData.current();
+        if (snapshot.isCurrent()) {
+            int id = snapshot.idOf(instrumentKey);
+            if (id >= 0) {
+                return snapshot.eligibility(id);
+            }
+        }
+        return resolveFromDb(instrumentKey);
+    }
+
+    /**
+     * Resolves eligibility with direct repository lookups.
+     */
+    public ProductEligibility resolveFromDb(String instrumentKey) {
         logger.debug("Resolving eligibility for: {}", instrumentKey);
 
         // 1. Check instrument exists
@@ -67,23 +89,43 @@ public class EligibilityResolver {
         String symbol = instrument.getTradingSymbol();
         String exchange = instrument.getExchange();
         String series = instrument.getExchangeSeries();
-        String securityType = instrument.getEquitySecurityType();
+
+        return decide(
+                instrument,
+                watchlistRepo.isPcaSymbol(symbol),
+                watchlistRepo.isSurveillanceSymbol(symbol),
+                seriesRepo.findByExchangeAndSeriesCode(exchange, series).orElse(null),
+                ipoRepo.isListingDay(symbol, exchange),
+                marginRepo.findByExchangeAndSeriesCode(exchange, series).orElse(null));
+    }
+
+    /**
+     * Applies the eligibility decision flow to already-loaded reference data.
+     * Shared by the DB path and the BOD snapshot builder so both agree.
+     *
+     * @param seriesEntity exchange series row, or null if none
+     * @param marginEntity intraday margin row, or null if none
+     */
+    public static ProductEligibility decide(
+            InstrumentMasterEntity instrument,
+            boolean pca,
+            boolean surveillance,
+            ExchangeSeriesEntity seriesEntity,
+            boolean ipoListingDay,
+            IntradayMarginEntity marginEntity) {
 
         // 2. Check regulatory watchlist (PCA)
-        if (watchlistRepo.isPcaSymbol(symbol)) {
+        if (pca) {
             return ProductEligibility.cncOnly("PCA");
         }
 
         // 3. Check surveillance
-        if (watchlistRepo.isSurveillanceSymbol(symbol)) {
+        if (surveillance) {
             return ProductEligibility.cncOnly("SURVEILLANCE");
         }
 
         // 4. Check exchange series (T2T)
-        Optional<ExchangeSeriesEntity> seriesOpt = seriesRepo.findByExchangeAndSeriesCode(exchange, series);
-        if (seriesOpt.isPresent()) {
-            ExchangeSeriesEntity seriesEntity = seriesOpt.get();
-
+        if (seriesEntity != null) {
             if (Boolean.TRUE.equals(seriesEntity.getTradeForTrade())) {
                 return ProductEligibility.cncOnly("T2T");
             }
@@ -94,12 +136,12 @@ public class EligibilityResolver {
         }
 
         // 5. Check IPO Day-0
-        if (ipoRepo.isListingDay(symbol, exchange)) {
+        if (ipoListingDay) {
             return ProductEligibility.cncOnly("IPO_DAY0");
         }
 
         // 6. Check equity security type
-        EquitySecurityType type = EquitySecurityType.fromCode(securityType);
+        EquitySecurityType type = EquitySecurityType.fromCode(instrument.getEquitySecurityType());
         if (!type.isMisAllowed() || !type.isMtfAllowed()) {
             return ProductEligibility.withMargin(
                     type.isMisAllowed(),
@@ -113,15 +155,14 @@ public class EligibilityResolver {
         // 7. Get margin from series
         double marginPct = 20.0;
         double leverage = 5.0;
-        Optional<IntradayMarginEntity> marginOpt = marginRepo.findByExchangeAndSeriesCode(exchange, series);
-        if (marginOpt.isPresent()) {
-            marginPct = marginOpt.get().getIntradayMarginPct();
-            leverage = marginOpt.get().getIntradayLeverage();
+        if (marginEntity != null) {
+            marginPct = marginEntity.getIntradayMarginPct();
+            leverage = marginEntity.getIntradayLeverage();
         }
 
         // Normal eligibility
-        boolean misAllowed = seriesOpt.map(s -> Boolean.TRUE.equals(s.getMisAllowed())).orElse(true);
-        boolean mtfAllowed = seriesOpt.map(s -> Boolean.TRUE.equals(s.getMtfAllowed())).orElse(true);
+        boolean misAllowed = seriesEntity == null || Boolean.TRUE.equals(seriesEntity.getMisAllowed());
+        boolean mtfAllowed = seriesEntity == null || Boolean.TRUE.equals(seriesEntity.getMtfAllowed());
 
         return ProductEligibility.withMargin(misAllowed, mtfAllowed, true, "NORMAL", marginPct, leverage);
     }
@@ -0,0 +1,212 @@
+package com.vegatrader.upstox.api.rms.reference;
+
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.instrument.repository.InstrumentMasterRepository;
+import com.vegatrader.upstox.api.rms.entity.*;
+import com.vegatrader.upstox.api.rms.repository.*;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the BOD RMS reference snapshot.
+ *
+ * <p>
+ * Build sequence:
+ * <ol>
+ * <li>Load instrument master and every rms.repository table concurrently</li>
+ * <li>Resolve per-instrument eligibility, bands, caps in parallel</li>
+ * <li>Publish with a single volatile write</li>
+ * </ol>
+ *
+ * <p>
+ * Rebuilds run at BOD (after the 6 AM instrument refresh), on startup, and
+ * on demand after admin changes. A failed rebuild keeps serving the previous
+ * snapshot; readers fall back to the repositories when no snapshot for today
+ * is loaded.
+ *
+ * @since 4.1.0
+ */
+@Service
+public class RmsReferenceDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RmsReferenceDataService.class);
+
+    private final InstrumentMasterRepository instrumentRepo;
+    private final RegulatoryWatchlistRepository watchlistRepo;
+    private final ExchangeSeriesRepository seriesRepo;
+    private final IpoCalendarRepository ipoRepo;
+    private final IntradayMarginRepository marginRepo;
+    private final PriceBandRepository priceBandRepo;
+    private final QuantityCapRepository quantityCapRepo;
+    private final FoContractLifecycleRepository foRepo;
+    private final ExecutorService loaderPool;
+
+    private volatile RmsReferenceSnapshot current = RmsReferenceSnapshot.empty();
+    private final Object rebuildLock = new Object();
+
+    public RmsReferenceDataService(
+            InstrumentMasterRepository instrumentRepo,
+            RegulatoryWatchlistRepository watchlistRepo,
+            ExchangeSeriesRepository seriesRepo,
+            IpoCalendarRepository ipoRepo,
+            IntradayMarginRepository marginRepo,
+            PriceBandRepository priceBandRepo,
+            QuantityCapRepository quantityCapRepo,
+            FoContractLifecycleRepository foRepo) {
+        this.instrumentRepo = instrumentRepo;
+        this.watchlistRepo = watchlistRepo;
+        this.seriesRepo = seriesRepo;
+        this.ipoRepo = ipoRepo;
+        this.marginRepo = marginRepo;
+        this.priceBandRepo = priceBandRepo;
+        this.quantityCapRepo = quantityCapRepo;
+        this.foRepo = foRepo;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.loaderPool = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r);
+            t.setName("RMS-RefLoader-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Gets the currently published snapshot. Never null.
+     */
+    public RmsReferenceSnapshot current() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuildQuietly("startup");
+    }
+
+    /**
+     * BOD rebuild at 6:15 AM IST, after DailyRefreshScheduler has reloaded
+     * the instrument master.
+     */
+    @Scheduled(cron = "0 15 6 * * *", zone = "Asia/Kolkata")
+    public void scheduledBodRebuild() {
+        rebuildQuietly("BOD");
+    }
+
+    /**
+     * Rebuilds and publishes a fresh snapshot. Call after admin changes to
+     * any RMS reference table. Concurrent callers are serialized.
+     *
+     * @return the newly published snapshot
+     */
+    public RmsReferenceSnapshot rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+
+            CompletableFuture<List<InstrumentMasterEntity>> instruments = load(instrumentRepo::findAll);
+            CompletableFuture<Set<String>> pca = load(() -> symbols(watchlistRepo.findAllActivePca(today)));
+            CompletableFuture<Set<String>> surveillance = load(
+                    () -> symbols(watchlistRepo.findAllActiveSurveillance(today)));
+            CompletableFuture<Map<String, ExchangeSeriesEntity>> series = load(() -> seriesRepo.findAll().stream()
+                    .collect(Collectors.toMap(
+                            s -> RmsReferenceTables.seriesKey(s.getExchange(), s.getSeriesCode()),
+                            s -> s, (a, b) -> a)));
+            CompletableFuture<Set<String>> ipo = load(() -> ipoRepo.findByListingDate(today).stream()
+                    .map(i -> RmsReferenceTables.ipoKey(i.getSymbol(), i.getExchange()))
+                    .collect(Collectors.toSet()));
+            CompletableFuture<Map<String, IntradayMarginEntity>> margins = load(() -> marginRepo.findAll().stream()
+                    .collect(Collectors.toMap(
+                            m -> RmsReferenceTables.seriesKey(m.getExchange(), m.getSeriesCode()),
+                            m -> m, (a, b) -> a)));
+            CompletableFuture<Map<String, PriceBandEntity>> bands = load(() -> priceBands(today));
+            CompletableFuture<Map<String, QuantityCapEntity>> caps = load(
+                    () -> quantityCapRepo.findAllActiveOnDate(today).stream()
+                            .collect(Collectors.toMap(QuantityCapEntity::getInstrumentKey, q -> q, (a, b) -> a)));
+            CompletableFuture<Set<String>> foActive = load(() -> foRepo.findAll().stream()
+                    .filter(f -> Boolean.TRUE.equals(f.getIsActive()))
+                    .filter(f -> f.getExpiryDate() != null && !f.getExpiryDate().isBefore(today))
+                    .map(FoContractLifecycleEntity::getInstrumentKey)
+                    .collect(Collectors.toSet()));
+
+            CompletableFuture.allOf(instruments, pca, surveillance, series, ipo, margins, bands, caps, foActive)
+                    .join();
+            long loaded = System.currentTimeMillis();
+
+            RmsReferenceTables tables = new RmsReferenceTables(
+                    pca.join(), surveillance.join(), series.join(), ipo.join(),
+                    margins.join(), bands.join(), caps.join(), foActive.join());
+            RmsReferenceSnapshot snapshot = RmsReferenceSnapshot.build(today, instruments.join(), tables);
+
+            current = snapshot;
+
+            logger.info("RMS reference snapshot published: date={}, instruments={}, load={}ms, build={}ms",
+                    today, snapshot.size(), loaded - start, System.currentTimeMillis() - loaded);
+            return snapshot;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loaderPool.shutdownNow();
+    }
+
+    // === Private Helpers ===
+
+    private void rebuildQuietly(String trigger) {
+        try {
+            logger.info("Rebuilding RMS reference snapshot ({})", trigger);
+            rebuild();
+        } catch (Exception e) {
+            logger.error("RMS reference snapshot rebuild failed ({}), keeping date={}: {}",
+                    trigger, current.getTradingDate(), e.getMessage(), e);
+        }
+    }
+
+    private <T> CompletableFuture<T> load(Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(loader, loaderPool);
+    }
+
+    private static Set<String> symbols(List<RegulatoryWatchlistEntity> rows) {
+        return rows.stream().map(RegulatoryWatchlistEntity::getSymbol).collect(Collectors.toSet());
+    }
+
+    /**
+     * Today's band if present, otherwise the latest band on record.
+     */
+    private Map<String, PriceBandEntity> priceBands(LocalDate today) {
+        Map<String, PriceBandEntity> bands = new HashMap<>();
+        for (PriceBandEntity band : priceBandRepo.findAll()) {
+            PriceBandEntity existing = bands.get(band.getInstrumentKey());
+            if (existing == null || isPreferred(band, existing, today)) {
+                bands.put(band.getInstrumentKey(), band);
+            }
+        }
+        return bands;
+    }
+
+    private static boolean isPreferred(PriceBandEntity candidate, PriceBandEntity existing, LocalDate today) {
+        if (today.equals(existing.getEffectiveDate())) {
+            return false;
+        }
+        if (today.equals(candidate.getEffectiveDate())) {
+            return true;
+        }
+        return candidate.getEffectiveDate() != null
+                && (existing.getEffectiveDate() == null
+                        || candidate.getEffectiveDate().isAfter(existing.getEffectiveDate()));
+    }
+}
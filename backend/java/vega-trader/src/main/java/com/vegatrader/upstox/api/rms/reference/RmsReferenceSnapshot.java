@@ -0,0 +1,212 @@
+package com.vegatrader.upstox.api.rms.reference;
+
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.rms.eligibility.EligibilityResolver;
+import com.vegatrader.upstox.api.rms.eligibility.ProductEligibility;
+import com.vegatrader.upstox.api.rms.entity.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable RMS reference data for one trading day.
+ *
+ * <p>
+ * Every instrument in the master gets a dense int ID; per-instrument data
+ * lives in parallel primitive arrays indexed by that ID. Instances are never
+ * mutated after construction and are published by
+ * {@link RmsReferenceDataService} with a single volatile swap, so readers
+ * need no locking and do no DB I/O.
+ *
+ * <p>
+ * Absent values are encoded as {@code NaN} (price band, value cap) and
+ * {@code -1} (quantity cap).
+ *
+ * @since 4.1.0
+ */
+public final class RmsReferenceSnapshot {
+
+    private static final RmsReferenceSnapshot EMPTY = new RmsReferenceSnapshot(
+            LocalDate.MIN, 0L, Map.of(), new ProductEligibility[0], new boolean[0],
+            new double[0], new double[0], new int[0], new double[0], Set.of());
+
+    private final LocalDate tradingDate;
+    private final long builtAtMillis;
+    private final Map<String, Integer> ids;
+    private final ProductEligibility[] eligibility;
+    private final boolean[] foActive;
+    private final double[] bandLower;
+    private final double[] bandUpper;
+    private final int[] maxQty;
+    private final double[] maxValue;
+    private final Set<String> t2tSeries;
+
+    private RmsReferenceSnapshot(
+            LocalDate tradingDate,
+            long builtAtMillis,
+            Map<String, Integer> ids,
+            ProductEligibility[] eligibility,
+            boolean[] foActive,
+            double[] bandLower,
+            double[] bandUpper,
+            int[] maxQty,
+            double[] maxValue,
+            Set<String> t2tSeries) {
+        this.tradingDate = tradingDate;
+        this.builtAtMillis = builtAtMillis;
+        this.ids = ids;
+        this.eligibility = eligibility;
+        this.foActive = foActive;
+        this.bandLower = bandLower;
+        this.bandUpper = bandUpper;
+        this.maxQty = maxQty;
+        this.maxValue = maxValue;
+        this.t2tSeries = t2tSeries;
+    }
+
+    /**
+     * Placeholder published before the first BOD build completes.
+     */
+    public static RmsReferenceSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a snapshot from already-loaded reference tables.
+     * Per-instrument resolution runs in parallel across the common pool.
+     */
+    public static RmsReferenceSnapshot build(LocalDate tradingDate, List<InstrumentMasterEntity> instruments,
+            RmsReferenceTables tables) {
+        int n = instruments.size();
+        Map<String, Integer> ids = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+            ids.put(instruments.get(i).getInstrumentKey(), i);
+        }
+
+        ProductEligibility[] eligibility = new ProductEligibility[n];
+        boolean[] foActive = new boolean[n];
+        double[] bandLower = new double[n];
+        double[] bandUpper = new double[n];
+        int[] maxQty = new int[n];
+        double[] maxValue = new double[n];
+
+        // Most instruments share one of a handful of outcomes; intern them
+        Map<ProductEligibility, ProductEligibility> canonical = new ConcurrentHashMap<>();
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            InstrumentMasterEntity instrument = instruments.get(i);
+            String key = instrument.getInstrumentKey();
+            String symbol = instrument.getTradingSymbol();
+            String exchange = instrument.getExchange();
+            String seriesKey = RmsReferenceTables.seriesKey(exchange, instrument.getExchangeSeries());
+
+            ProductEligibility resolved = EligibilityResolver.decide(
+                    instrument,
+                    tables.pcaSymbols().contains(symbol),
+                    tables.surveillanceSymbols().contains(symbol),
+                    tables.series().get(seriesKey),
+                    tables.ipoListings().contains(RmsReferenceTables.ipoKey(symbol, exchange)),
+                    tables.margins().get(seriesKey));
+            eligibility[i] = canonical.computeIfAbsent(resolved, e -> e);
+
+            foActive[i] = tables.activeFoContracts().contains(key);
+
+            PriceBandEntity band = tables.priceBands().get(key);
+            bandLower[i] = band != null && band.getLowerPrice() != null ? band.getLowerPrice() : Double.NaN;
+            bandUpper[i] = band != null && band.getUpperPrice() != null ? band.getUpperPrice() : Double.NaN;
+
+            QuantityCapEntity cap = tables.quantityCaps().get(key);
+            maxQty[i] = cap != null && cap.getMaxQty() != null ? cap.getMaxQty() : -1;
+            maxValue[i] = cap != null && cap.getMaxValue() != null && cap.getMaxValue() > 0
+                    ? cap.getMaxValue()
+                    : Double.NaN;
+        });
+
+        Set<String> t2tSeries = new HashSet<>();
+        tables.series().forEach((k, s) -> {
+            if (Boolean.TRUE.equals(s.getTradeForTrade())) {
+                t2tSeries.add(k);
+            }
+        });
+
+        return new RmsReferenceSnapshot(tradingDate, System.currentTimeMillis(), Collections.unmodifiableMap(ids),
+                eligibility, foActive, bandLower, bandUpper, maxQty, maxValue, Set.copyOf(t2tSeries));
+    }
+
+    // --- Lookups ---
+
+    /**
+     * Gets the dense instrument ID, or -1 if the instrument is not in the snapshot.
+     */
+    public int idOf(String instrumentKey) {
+        Integer id = ids.get(instrumentKey);
+        return id != null ? id : -1;
+    }
+
+    public ProductEligibility eligibility(int id) {
+        return eligibility[id];
+    }
+
+    public boolean isFoContractActive(int id) {
+        return foActive[id];
+    }
+
+    public boolean hasPriceBand(int id) {
+        return !Double.isNaN(bandLower[id]) && !Double.isNaN(bandUpper[id]);
+    }
+
+    public double bandLower(int id) {
+        return bandLower[id];
+    }
+
+    public double bandUpper(int id) {
+        return bandUpper[id];
+    }
+
+    public boolean isOutsideBand(int id, double price) {
+        return hasPriceBand(id) && (price < bandLower[id] || price > bandUpper[id]);
+    }
+
+    public boolean hasQuantityCap(int id) {
+        return maxQty[id] >= 0;
+    }
+
+    public int maxQty(int id) {
+        return maxQty[id];
+    }
+
+    /**
+     * Gets the value cap, or NaN if none applies.
+     */
+    public double maxValue(int id) {
+        return maxValue[id];
+    }
+
+    public boolean isT2TSeries(String exchange, String series) {
+        return t2tSeries.contains(RmsReferenceTables.seriesKey(exchange, series));
+    }
+
+    // --- Metadata ---
+
+    public LocalDate getTradingDate() {
+        return tradingDate;
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    public int size() {
+        return eligibility.length;
+    }
+
+    /**
+     * Whether this snapshot was built for today and can be trusted for
+     * date-sensitive rules (price bands, IPO day-0, contract expiry).
+     */
+    public boolean isCurrent() {
+        return tradingDate.equals(LocalDate.now());
+    }
+}
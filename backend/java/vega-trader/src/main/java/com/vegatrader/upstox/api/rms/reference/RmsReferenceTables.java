@@ -0,0 +1,39 @@
+package com.vegatrader.upstox.api.rms.reference;
+
+import com.vegatrader.upstox.api.rms.entity.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RMS reference tables loaded at BOD, keyed for O(1) lookup while
+ * building a {@link RmsReferenceSnapshot}.
+ *
+ * @param pcaSymbols          symbols on an active PCA watchlist
+ * @param surveillanceSymbols symbols under active SURVEILLANCE/ASM/GSM
+ * @param series              exchange series keyed by {@link #seriesKey}
+ * @param ipoListings         today's listings keyed by {@link #ipoKey}
+ * @param margins             intraday margin keyed by {@link #seriesKey}
+ * @param priceBands          effective price band per instrument key
+ * @param quantityCaps        active quantity cap per instrument key
+ * @param activeFoContracts   instrument keys of active, unexpired F&O contracts
+ * @since 4.1.0
+ */
+public record RmsReferenceTables(
+        Set<String> pcaSymbols,
+        Set<String> surveillanceSymbols,
+        Map<String, ExchangeSeriesEntity> series,
+        Set<String> ipoListings,
+        Map<String, IntradayMarginEntity> margins,
+        Map<String, PriceBandEntity> priceBands,
+        Map<String, QuantityCapEntity> quantityCaps,
+        Set<String> activeFoContracts) {
+
+    public static String seriesKey(String exchange, String seriesCode) {
+        return exchange + "|" + seriesCode;
+    }
+
+    public static String ipoKey(String symbol, String exchange) {
+        return symbol + "|" + exchange;
+    }
+}
@@ -4,6 +4,8 @@ import com.vegatrader.upstox.api.instrument.risk.ProductType;
 import com.vegatrader.upstox.api.rms.eligibility.EligibilityCache;
 import com.vegatrader.upstox.api.rms.eligibility.ProductEligibility;
 import com.vegatrader.upstox.api.rms.entity.*;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceDataService;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceSnapshot;
 import com.vegatrader.upstox.api.rms.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +26,10 @@ import java.util.Optional;
  * <li>F&O contract status</li>
  * </ul>
  * 
+ * <p>
+ * Reads come from the BOD {@link RmsReferenceSnapshot} when it covers the
+ * instrument; repositories are only consulted as a fallback.
+ * 
  * @since 4.1.0
  */
 @Service
@@ -36,18 +42,21 @@ public class RmsValidationService {
     private final QuantityCapRepository quantityCapRepo;
     private final ExchangeSeriesRepository seriesRepo;
     private final FoContractLifecycleRepository foRepo;
+    private final RmsReferenceDataService referenceData;
 
     public RmsValidationService(
             EligibilityCache eligibilityCache,
             PriceBandRepository priceBandRepo,
             QuantityCapRepository quantityCapRepo,
             ExchangeSeriesRepository seriesRepo,
-            FoContractLifecycleRepository foRepo) {
+            FoContractLifecycleRepository foRepo,
+            RmsReferenceDataService referenceData) {
         this.eligibilityCache = eligibilityCache;
         this.priceBandRepo = priceBandRepo;
         this.quantityCapRepo = quantityCapRepo;
         this.seriesRepo = seriesRepo;
         this.foRepo = foRepo;
+        this.referenceData = referenceData;
     }
 
     /**
@@ -62,22 +71,41 @@ public class RmsValidationService {
     public RmsValidationResult validate(String instrumentKey, ProductType product, int qty, double price) {
         logger.debug("Validating order: {} {} qty={} price={}", instrumentKey, product, qty, price);
 
+        RmsReferenceSnapshot snapshot = referenceData.current();
+        int id = snapshot.isCurrent() ? snapshot.idOf(instrumentKey) : -1;
+
         try {
-            // 1. Get eligibility from cache
-            ProductEligibility eligibility = eligibilityCache.getEligibility(instrumentKey);
+            // 1. Get eligibility from snapshot (or cache)
+            ProductEligibility eligibility = id >= 0
+                    ? snapshot.eligibility(id)
+                    : eligibilityCache.getEligibility(instrumentKey);
 
             // 2. Validate product
             validateProduct(instrumentKey, product, eligibility);
 
             // 3. Validate price band
-            validatePriceBand(instrumentKey, price);
+            if (id >= 0) {
+                validatePriceBand(snapshot, id, price);
+            } else {
+                validatePriceBand(instrumentKey, price);
+            }
 
             // 4. Validate quantity cap
-            validateQuantityCap(instrumentKey, qty, price);
+            if (id >= 0) {
+                validateQuantityCap(snapshot, id, qty, price);
+            } else {
+                validateQuantityCap(instrumentKey, qty, price);
+            }
 
             // 5. Check F&O contract status
             if (instrumentKey.contains("_FO|")) {
-                validateFoContract(instrumentKey);
+                if (id >= 0) {
+                    if (!snapshot.isFoContractActive(id)) {
+                        throw RmsException.contractExpired(instrumentKey);
+                    }
+                } else {
+                    validateFoContract(instrumentKey);
+                }
             }
 
             // 6. Calculate margin
@@ -127,6 +155,28 @@ public class RmsValidationService {
         }
     }
 
+    private void validatePriceBand(RmsReferenceSnapshot snapshot, int id, double price) {
+        if (snapshot.isOutsideBand(id, price)) {
+            throw RmsException.priceBandViolation(price, snapshot.bandLower(id), snapshot.bandUpper(id));
+        }
+    }
+
+    private void validateQuantityCap(RmsReferenceSnapshot snapshot, int id, int qty, double price) {
+        if (!snapshot.hasQuantityCap(id)) {
+            return;
+        }
+
+        if (qty > snapshot.maxQty(id)) {
+            throw RmsException.quantityCapExceeded(qty, snapshot.maxQty(id));
+        }
+
+        double maxValue = snapshot.maxValue(id);
+        double value = qty * price;
+        if (!Double.isNaN(maxValue) && value > maxValue) {
+            throw RmsException.valueCapExceeded(value, maxValue);
+        }
+    }
+
     private void validateQuantityCap(String instrumentKey, int qty, double price) {
         Optional<QuantityCapEntity> capOpt = quantityCapRepo.findActiveCapForKey(instrumentKey);
 
@@ -162,6 +212,10 @@ public class RmsValidationService {
      * Checks if T2T netting is blocked for an instrument.
      */
     public boolean isT2TNettingBlocked(String instrumentKey, String exchange, String series) {
+        RmsReferenceSnapshot snapshot = referenceData.current();
+        if (snapshot.isCurrent()) {
+            return snapshot.isT2TSeries(exchange, series);
+        }
         return seriesRepo.findByExchangeAndSeriesCode(exchange, series)
                 .map(s -> Boolean.TRUE.equals(s.getTradeForTrade()))
                 .orElse(false);
@@ -0,0 +1,171 @@
+package com.vegatrader.upstox.api.settings.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the settings in force for one user (or, for the global
+ * snapshot, for every user before user preferences), resolved across
+ * {@link SettingsLayer}s.
+ *
+ * <p>
+ * Snapshots are built once per change by the
+ * {@link com.vegatrader.upstox.api.settings.service.SettingsResolver} and
+ * shared by every reader; lookups are plain map reads and the
+ * {@link UserPrioritySettings} are decoded up front.
+ *
+ * @since 5.0.0
+ */
+public final class EffectiveSettings {
+
+    /** Later layers override earlier ones. */
+    private static final SettingsLayer[] LOWEST_FIRST = {
+            SettingsLayer.SYSTEM, SettingsLayer.USER, SettingsLayer.SESSION,
+            SettingsLayer.EXCHANGE, SettingsLayer.REGULATORY };
+
+    private final String userId;
+    private final long version;
+    private final Map<SettingsLayer, Map<String, String>> layers;
+    private final Map<String, String> values;
+    private final Map<String, SettingsLayer> sources;
+    private final UserPrioritySettings priority;
+
+    private EffectiveSettings(String userId, long version, Map<SettingsLayer, Map<String, String>> layers) {
+        EnumMap<SettingsLayer, Map<String, String>> copy = new EnumMap<>(SettingsLayer.class);
+        Map<String, String> resolved = new HashMap<>();
+        Map<String, SettingsLayer> from = new HashMap<>();
+        for (SettingsLayer layer : LOWEST_FIRST) {
+            Map<String, String> layerValues = layers.get(layer);
+            if (layerValues == null || layerValues.isEmpty()) {
+                continue;
+            }
+            layerValues = Map.copyOf(layerValues);
+            copy.put(layer, layerValues);
+            resolved.putAll(layerValues);
+            for (String key : layerValues.keySet()) {
+                from.put(key, layer);
+            }
+        }
+        this.userId = userId;
+        this.version = version;
+        this.layers = Collections.unmodifiableMap(copy);
+        this.values = Map.copyOf(resolved);
+        this.sources = Map.copyOf(from);
+        this.priority = UserPrioritySettings.fromSettings(values::get);
+    }
+
+    /**
+     * @param userId  {@code null} for the global snapshot
+     * @param version snapshot version, increasing with every change
+     * @param layers  values per layer; absent layers are empty
+     */
+    public static EffectiveSettings of(String userId, long version, Map<SettingsLayer, Map<String, String>> layers) {
+        return new EffectiveSettings(userId, version, layers);
+    }
+
+    /**
+     * These settings with {@code session} as the session layer. Binding
+     * layers still win.
+     */
+    public EffectiveSettings withSession(Map<String, String> session) {
+        EnumMap<SettingsLayer, Map<String, String>> withSession = new EnumMap<>(SettingsLayer.class);
+        withSession.putAll(layers);
+        withSession.put(SettingsLayer.SESSION, session);
+        return new EffectiveSettings(userId, version, withSession);
+    }
+
+    public String userId() {
+        return userId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public UserPrioritySettings priority() {
+        return priority;
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        try {
+            return value != null ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        try {
+            return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value != null ? "true".equalsIgnoreCase(value.trim()) : defaultValue;
+    }
+
+    public List<String> getList(String key) {
+        return UserPrioritySettings.parseList(values.get(key));
+    }
+
+    /**
+     * @return the layer the effective value of {@code key} comes from, or
+     *         {@code null} if it is not set
+     */
+    public SettingsLayer source(String key) {
+        return sources.get(key);
+    }
+
+    /**
+     * @return the binding layer that fixes {@code key}, or {@code null} if
+     *         users may change it
+     */
+    public SettingsLayer pinnedBy(String key) {
+        SettingsLayer layer = sources.get(key);
+        return layer != null && layer.isBinding() ? layer : null;
+    }
+
+    /**
+     * Values set in one layer.
+     */
+    public Map<String, String> layer(SettingsLayer layer) {
+        return layers.getOrDefault(layer, Map.of());
+    }
+
+    /**
+     * All effective values.
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "EffectiveSettings[user=" + userId + ", version=" + version + ", " + values.size() + " values]";
+    }
+}
@@ -0,0 +1,27 @@
+package com.vegatrader.upstox.api.settings.model;
+
+/**
+ * One setting changed in one layer.
+ *
+ * @param userId    user whose setting changed, {@code null} for a global
+ *                  layer
+ * @param oldValue  value in the layer before the change, {@code null} if
+ *                  unset
+ * @param newValue  value in the layer after the change, {@code null} if
+ *                  reset
+ * @param version   version of the snapshot that first reflects the change
+ * @since 5.0.0
+ */
+public record SettingsChange(
+        String userId,
+        SettingsLayer layer,
+        String key,
+        String oldValue,
+        String newValue,
+        String changedBy,
+        long version) {
+
+    public boolean isGlobal() {
+        return userId == null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.vegatrader.upstox.api.settings.model;
+
+/**
+ * Settings layers per final-settings.md Annexure C, in order of authority:
+ * Regulatory > Exchange > System > User > Session.
+ *
+ * <p>
+ * Regulatory and exchange values are binding: they override every other
+ * layer and cannot be changed by a user or session. Below them the layers
+ * are preferences, and the most specific one set wins (session over user
+ * over system defaults).
+ *
+ * @since 5.0.0
+ */
+public enum SettingsLayer {
+
+    REGULATORY(true),
+    EXCHANGE(true),
+    SYSTEM(false),
+    USER(false),
+    SESSION(false);
+
+    private final boolean binding;
+
+    SettingsLayer(boolean binding) {
+        this.binding = binding;
+    }
+
+    /**
+     * Whether values in this layer override all preference layers.
+     */
+    public boolean isBinding() {
+        return binding;
+    }
+
+    /**
+     * Whether the layer holds one set of values for every user.
+     */
+    public boolean isGlobal() {
+        return this != USER && this != SESSION;
+    }
+}
@@ -1,6 +1,9 @@
 package com.vegatrader.upstox.api.settings.model;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * User Priority Settings per final-settings.md.
@@ -17,6 +20,16 @@ public record UserPrioritySettings(
         String defaultExchange, // NSE, BSE
         boolean confirmBeforePlace) {
 
+    /** Prefix of the setting keys these fields are stored under. */
+    public static final String KEY_PREFIX = "priority.";
+    public static final String INSTRUMENT_LOAD_PRIORITY = "priority.instrument_load";
+    public static final String PREFERRED_SECTORS = "priority.preferred_sectors";
+    public static final String VALIDATION_PRIORITY = "priority.validation";
+    public static final String BROKER_ROUTING_PRIORITY = "priority.broker_routing";
+    public static final String DEFAULT_PRODUCT_TYPE = "priority.default_product";
+    public static final String DEFAULT_EXCHANGE = "priority.default_exchange";
+    public static final String CONFIRM_BEFORE_PLACE = "priority.confirm_before_place";
+
     /**
      * SEBI-safe default settings.
      */
@@ -78,4 +91,65 @@ public record UserPrioritySettings(
 
         return true;
     }
+
+    /**
+     * Encode as setting values, lists comma-separated. Fields that
+     * {@link #mergeWithDefaults()} would replace are left out.
+     */
+    public Map<String, String> toSettings() {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (instrumentLoadPriority != null && !instrumentLoadPriority.isEmpty()) {
+            settings.put(INSTRUMENT_LOAD_PRIORITY, String.join(",", instrumentLoadPriority));
+        }
+        if (preferredSectors != null) {
+            settings.put(PREFERRED_SECTORS, String.join(",", preferredSectors));
+        }
+        if (validationPriority != null && !validationPriority.isEmpty()) {
+            settings.put(VALIDATION_PRIORITY, String.join(",", validationPriority));
+        }
+        if (brokerRoutingPriority != null && !brokerRoutingPriority.isEmpty()) {
+            settings.put(BROKER_ROUTING_PRIORITY, String.join(",", brokerRoutingPriority));
+        }
+        if (defaultProductType != null) {
+            settings.put(DEFAULT_PRODUCT_TYPE, defaultProductType);
+        }
+        if (defaultExchange != null) {
+            settings.put(DEFAULT_EXCHANGE, defaultExchange);
+        }
+        settings.put(CONFIRM_BEFORE_PLACE, Boolean.toString(confirmBeforePlace));
+        return settings;
+    }
+
+    /**
+     * Decode from setting values; missing values take the defaults.
+     */
+    public static UserPrioritySettings fromSettings(Function<String, String> settings) {
+        String confirm = settings.apply(CONFIRM_BEFORE_PLACE);
+        return new UserPrioritySettings(
+                parseList(settings.apply(INSTRUMENT_LOAD_PRIORITY)),
+                parseList(settings.apply(PREFERRED_SECTORS)),
+                parseList(settings.apply(VALIDATION_PRIORITY)),
+                parseList(settings.apply(BROKER_ROUTING_PRIORITY)),
+                settings.apply(DEFAULT_PRODUCT_TYPE),
+                settings.apply(DEFAULT_EXCHANGE),
+                confirm != null ? Boolean.parseBoolean(confirm) : defaults().confirmBeforePlace())
+                .mergeWithDefaults();
+    }
+
+    /**
+     * @return the comma-separated values, {@code null} for {@code null}
+     */
+    public static List<String> parseList(String csv) {
+        if (csv == null) {
+            return null;
+        }
+        if (csv.isBlank()) {
+            return List.of();
+        }
+        String[] parts = csv.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return List.of(parts);
+    }
 }
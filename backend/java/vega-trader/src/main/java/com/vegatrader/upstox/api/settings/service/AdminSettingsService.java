@@ -3,6 +3,7 @@ package com.vegatrader.upstox.api.settings.service;
 import com.vegatrader.upstox.api.settings.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -13,6 +14,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * Admin settings service with validation and auditing.
  * Per IMPLEMENTATION_ROADMAP.md section 3.1.
  * 
+ * <p>
+ * Effective admin values form the system layer of the
+ * {@link SettingsResolver} when one is present; updates are pushed to it,
+ * which audits them and notifies its listeners.
+ * 
  * @since 4.8.0
  */
 @Service
@@ -25,10 +31,25 @@ public class AdminSettingsService {
     private final Map<String, AdminSetting> adminSettings = new ConcurrentHashMap<>();
     private final List<SettingsAuditEntry> auditLog = Collections.synchronizedList(new ArrayList<>());
 
+    private SettingsResolver settingsResolver;
+
     public AdminSettingsService() {
         initializeDefaults();
     }
 
+    @Autowired(required = false)
+    public void setSettingsResolver(SettingsResolver settingsResolver) {
+        this.settingsResolver = settingsResolver;
+        Map<String, String> values = new HashMap<>();
+        for (String key : definitions.keySet()) {
+            String value = getSettingValue(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        settingsResolver.seedLayer(SettingsLayer.SYSTEM, values);
+    }
+
     /**
      * Get all admin settings.
      */
@@ -130,6 +151,10 @@ public class AdminSettingsService {
 
         logger.info("Admin setting updated: {} = {} (by {})", key, newValue, updatedBy);
 
+        if (settingsResolver != null) {
+            settingsResolver.updateLayer(SettingsLayer.SYSTEM, key, newValue, updatedBy, "ADMIN");
+        }
+
         return SettingsUpdateResult.success(oldValue, newValue);
     }
 
@@ -219,6 +244,38 @@ public class AdminSettingsService {
         addDefinition("ws.binaryEncoding", SettingDefinition.SettingScope.ADMIN,
                 SettingDefinition.DataType.BOOLEAN, "true", null, null, "WEBSOCKET", "Binary encoding");
 
+        // Charges (read by ChargeCalculator's rate table)
+        addDefinition("charges.brokerage.eq", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0003", 0.0, 0.01, "CHARGES", "Equity brokerage rate");
+        addDefinition("charges.brokerage.fo", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0003", 0.0, 0.01, "CHARGES", "F&O brokerage rate");
+        addDefinition("charges.brokerage.maxPerOrder", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "20.00", 0.0, 1000.0, "CHARGES", "Brokerage cap per order (INR)");
+        addDefinition("charges.stt.eqDeliveryBuy", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.001", 0.0, 0.01, "CHARGES", "STT equity delivery buy");
+        addDefinition("charges.stt.eqDeliverySell", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.001", 0.0, 0.01, "CHARGES", "STT equity delivery sell");
+        addDefinition("charges.stt.eqIntradaySell", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.00025", 0.0, 0.01, "CHARGES", "STT equity intraday sell");
+        addDefinition("charges.stt.optionsSell", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0005", 0.0, 0.01, "CHARGES", "STT options sell (premium)");
+        addDefinition("charges.stt.futuresSell", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0001", 0.0, 0.01, "CHARGES", "STT futures sell");
+        addDefinition("charges.txn.nseEq", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0000325", 0.0, 0.01, "CHARGES", "NSE equity txn charge");
+        addDefinition("charges.txn.nseFo", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.00002", 0.0, 0.01, "CHARGES", "NSE F&O txn charge");
+        addDefinition("charges.txn.bseEq", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.000030", 0.0, 0.01, "CHARGES", "BSE txn charge");
+        addDefinition("charges.gst", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.18", 0.0, 0.5, "CHARGES", "GST on brokerage + txn charges");
+        addDefinition("charges.sebi", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.0000001", 0.0, 0.01, "CHARGES", "SEBI turnover fee");
+        addDefinition("charges.stamp.eq", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.00015", 0.0, 0.01, "CHARGES", "Stamp duty equity (buy)");
+        addDefinition("charges.stamp.fo", SettingDefinition.SettingScope.ADMIN,
+                SettingDefinition.DataType.DECIMAL, "0.00003", 0.0, 0.01, "CHARGES", "Stamp duty F&O (buy)");
+
         // Initialize admin settings with defaults
         for (SettingDefinition def : definitions.values()) {
             if (def.scope() == SettingDefinition.SettingScope.ADMIN) {
@@ -0,0 +1,15 @@
+package com.vegatrader.upstox.api.settings.service;
+
+import com.vegatrader.upstox.api.settings.model.SettingsChange;
+
+/**
+ * Notified by the {@link SettingsResolver} after a setting changes, once the
+ * new snapshot is readable. Called on the writing thread.
+ *
+ * @since 5.0.0
+ */
+@FunctionalInterface
+public interface SettingsListener {
+
+    void onSettingsChanged(SettingsChange change);
+}
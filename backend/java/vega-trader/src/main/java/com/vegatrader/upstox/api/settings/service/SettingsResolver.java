@@ -1,17 +1,58 @@
 package com.vegatrader.upstox.api.settings.service;
 
+import com.vegatrader.upstox.api.settings.entity.SettingsAuditLogEntity;
+import com.vegatrader.upstox.api.settings.entity.SettingsMetadataEntity;
+import com.vegatrader.upstox.api.settings.entity.UserSettingEntity;
+import com.vegatrader.upstox.api.settings.model.EffectiveSettings;
+import com.vegatrader.upstox.api.settings.model.SettingsChange;
+import com.vegatrader.upstox.api.settings.model.SettingsLayer;
 import com.vegatrader.upstox.api.settings.model.UserPrioritySettings;
+import com.vegatrader.upstox.api.settings.repository.SettingsAuditLogRepository;
+import com.vegatrader.upstox.api.settings.repository.SettingsMetadataRepository;
+import com.vegatrader.upstox.api.settings.repository.UserSettingRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Settings Resolver per final-settings.md Annexure C.
  * Resolves settings in hierarchy: Regulatory > Exchange > System > User >
- * Session.
- * 
+ * Session (see {@link SettingsLayer}).
+ *
+ * <p>
+ * Each user's settings are resolved ahead of time into an immutable
+ * {@link EffectiveSettings} snapshot, rebuilt only when a layer it depends
+ * on changes, so {@link #effective} is a map lookup and a volatile read.
+ * The global layers (regulatory, exchange, system) are held in memory and
+ * pushed in by their owners, e.g. {@link AdminSettingsService}; user values
+ * are loaded from {@link UserSettingRepository} on first use and written
+ * through on change. Every change is recorded in the settings audit log
+ * and then passed to registered {@link SettingsListener}s.
+ *
+ * <p>
+ * Writes made inside a transaction reach the snapshots and listeners only
+ * once it commits; a rolled-back write leaves no trace in memory. The
+ * system layer starts from the settings metadata defaults, loaded as soon
+ * as the metadata repository is injected, before any other bean can read.
+ *
+ * <p>
+ * Created without repositories the resolver keeps user settings in memory
+ * only.
+ *
  * @since 4.6.0
  */
 @Service
@@ -19,47 +60,123 @@ public class SettingsResolver {
 
     private static final Logger logger = LoggerFactory.getLogger(SettingsResolver.class);
 
-    // In-memory cache for user settings (would use DB in production)
-    private final ConcurrentHashMap<String, UserPrioritySettings> userSettingsCache = new ConcurrentHashMap<>();
+    private static final String DEFAULT_CHANGED_BY = "SYSTEM";
+    private static final String DEFAULT_INTERFACE = "API";
+
+    private final UserSettingRepository settingRepo;
+    private final SettingsAuditLogRepository auditRepo;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<String, UserState> users = new ConcurrentHashMap<>();
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+    /** Guards writes to the global layers. */
+    private final Object globalLock = new Object();
+    private volatile Map<SettingsLayer, Map<String, String>> globalLayers;
+    private volatile EffectiveSettings global;
 
     /**
-     * Resolve final settings for a user.
-     * Hierarchy: Regulatory > Exchange > System Defaults > User Preferences >
-     * Session
+     * In-memory resolver; nothing is persisted or audited.
      */
-    public UserPrioritySettings resolveSettings(String userId, UserPrioritySettings sessionOverride) {
-        logger.debug("Resolving settings for user: {}", userId);
+    public SettingsResolver() {
+        this(null, null);
+    }
 
-        // 1. Start with system defaults
-        UserPrioritySettings resolved = UserPrioritySettings.defaults();
+    @Autowired
+    public SettingsResolver(UserSettingRepository settingRepo, SettingsAuditLogRepository auditRepo) {
+        this.settingRepo = settingRepo;
+        this.auditRepo = auditRepo;
+        EnumMap<SettingsLayer, Map<String, String>> layers = new EnumMap<>(SettingsLayer.class);
+        layers.put(SettingsLayer.SYSTEM, Map.copyOf(UserPrioritySettings.defaults().toSettings()));
+        this.globalLayers = Collections.unmodifiableMap(layers);
+        this.global = EffectiveSettings.of(null, versions.incrementAndGet(), globalLayers);
+    }
 
-        // 2. Apply user preferences (from DB/cache)
-        UserPrioritySettings userPrefs = getUserSettings(userId);
-        if (userPrefs != null) {
-            resolved = mergeSettings(resolved, userPrefs);
+    /**
+     * Seed the system layer with the metadata defaults.
+     */
+    @Autowired(required = false)
+    public void setMetadataRepository(SettingsMetadataRepository metadataRepo) {
+        Map<String, String> defaults = new HashMap<>();
+        for (SettingsMetadataEntity meta : metadataRepo.findAll()) {
+            if (meta.getDefaultValue() != null) {
+                defaults.put(meta.getSettingKey(), meta.getDefaultValue());
+            }
         }
+        seedLayer(SettingsLayer.SYSTEM, defaults);
+    }
 
-        // 3. Apply session overrides (if enabled)
-        if (sessionOverride != null && sessionOverride.isValid()) {
-            resolved = mergeSettings(resolved, sessionOverride);
+    // ==================== Reads ====================
+
+    /**
+     * Settings in force for a user. The first call for a user loads their
+     * stored values; later calls return the current snapshot.
+     *
+     * @param userId user, {@code null} for the global settings
+     */
+    public EffectiveSettings effective(String userId) {
+        if (userId == null) {
+            return global;
         }
+        UserState state = users.get(userId);
+        if (state == null) {
+            state = users.computeIfAbsent(userId, this::load);
+            synchronized (state) {
+                // a global change may have raced the load
+                if (state.builtFrom != globalLayers) {
+                    rebuild(state);
+                }
+            }
+        }
+        return state.snapshot;
+    }
 
-        // 4. Regulatory/Exchange rules are NOT overridable - enforced in RMS
+    /**
+     * Settings in force before any user or session values.
+     */
+    public EffectiveSettings global() {
+        return global;
+    }
 
-        logger.debug("Resolved settings for {}: {}", userId, resolved);
-        return resolved;
+    /**
+     * Resolve final settings for a user.
+     * Hierarchy: Regulatory > Exchange > System Defaults > User Preferences >
+     * Session. Without a session override this is the precomputed snapshot.
+     */
+    public UserPrioritySettings resolveSettings(String userId, UserPrioritySettings sessionOverride) {
+        EffectiveSettings settings = effective(userId);
+        if (sessionOverride == null || !sessionOverride.isValid()) {
+            return settings.priority();
+        }
+        return settings.withSession(sessionOverride.toSettings()).priority();
     }
 
     /**
-     * Get user's stored settings.
+     * Get user's stored settings, {@code null} if they have saved none.
      */
     public UserPrioritySettings getUserSettings(String userId) {
-        return userSettingsCache.get(userId);
+        Map<String, String> stored = effective(userId).layer(SettingsLayer.USER);
+        for (String key : stored.keySet()) {
+            if (key.startsWith(UserPrioritySettings.KEY_PREFIX)) {
+                return UserPrioritySettings.fromSettings(stored::get);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get system defaults.
+     */
+    public UserPrioritySettings getSystemDefaults() {
+        return global.priority();
     }
 
+    // ==================== User writes ====================
+
     /**
      * Save user settings with validation.
      */
+    @Transactional
     public void saveUserSettings(String userId, UserPrioritySettings settings) {
         if (settings == null) {
             throw new IllegalArgumentException("Settings cannot be null");
@@ -70,45 +187,329 @@ public class SettingsResolver {
         }
 
         // Merge with defaults to ensure all fields populated
-        UserPrioritySettings merged = settings.mergeWithDefaults();
-
-        userSettingsCache.put(userId, merged);
+        Map<String, String> values = settings.mergeWithDefaults().toSettings();
+        writeUser(userId, values, userId, DEFAULT_INTERFACE, null);
         logger.info("Saved settings for user: {}", userId);
+    }
 
-        // TODO: Persist to database
-        // TODO: Log to audit table
+    /**
+     * Set one user setting, persisting and auditing it.
+     *
+     * @param value new value, {@code null} to fall back to the layers below
+     * @return the change, {@code null} if the value was already set; inside
+     *         a transaction its version is 0, as the snapshot is rebuilt on
+     *         commit
+     * @throws IllegalArgumentException if a binding layer fixes the setting
+     */
+    @Transactional
+    public SettingsChange updateUserSetting(String userId, String key, String value, String changedBy,
+            String interfaceType) {
+        return updateUserSetting(userId, key, value, changedBy, interfaceType, null);
     }
 
     /**
-     * Get system defaults.
+     * @param meta metadata for a newly stored setting, may be {@code null}
      */
-    public UserPrioritySettings getSystemDefaults() {
-        return UserPrioritySettings.defaults();
-    }
-
-    /**
-     * Merge base settings with overrides (override takes precedence).
-     */
-    private UserPrioritySettings mergeSettings(UserPrioritySettings base, UserPrioritySettings override) {
-        return new UserPrioritySettings(
-                override.instrumentLoadPriority() != null && !override.instrumentLoadPriority().isEmpty()
-                        ? override.instrumentLoadPriority()
-                        : base.instrumentLoadPriority(),
-                override.preferredSectors() != null
-                        ? override.preferredSectors()
-                        : base.preferredSectors(),
-                override.validationPriority() != null && !override.validationPriority().isEmpty()
-                        ? override.validationPriority()
-                        : base.validationPriority(),
-                override.brokerRoutingPriority() != null && !override.brokerRoutingPriority().isEmpty()
-                        ? override.brokerRoutingPriority()
-                        : base.brokerRoutingPriority(),
-                override.defaultProductType() != null
-                        ? override.defaultProductType()
-                        : base.defaultProductType(),
-                override.defaultExchange() != null
-                        ? override.defaultExchange()
-                        : base.defaultExchange(),
-                override.confirmBeforePlace());
+    SettingsChange updateUserSetting(String userId, String key, String value, String changedBy,
+            String interfaceType, SettingsMetadataEntity meta) {
+        Map<String, String> values = new HashMap<>();
+        values.put(key, value);
+        List<SettingsChange> changes = writeUser(userId, values, changedBy, interfaceType, meta);
+        return changes.isEmpty() ? null : changes.get(0);
+    }
+
+    /**
+     * Remove a user's value so the system default applies again.
+     */
+    @Transactional
+    public SettingsChange resetUserSetting(String userId, String key, String changedBy, String interfaceType) {
+        return updateUserSetting(userId, key, null, changedBy, interfaceType, null);
+    }
+
+    private List<SettingsChange> writeUser(String userId, Map<String, String> values, String changedBy,
+            String interfaceType, SettingsMetadataEntity meta) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User id cannot be null");
+        }
+        UserState state = users.computeIfAbsent(userId, this::load);
+        List<SettingsChange> changes = new ArrayList<>();
+        synchronized (state) {
+            EffectiveSettings before = state.snapshot;
+            for (String key : values.keySet()) {
+                SettingsLayer pinned = before.pinnedBy(key);
+                if (pinned != null) {
+                    throw new IllegalArgumentException("Setting " + key + " is fixed by the " + pinned + " layer");
+                }
+            }
+            Map<String, String> updated = new HashMap<>(state.values);
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                String key = entry.getKey();
+                String oldValue = state.values.get(key);
+                String newValue = entry.getValue();
+                if (newValue == null ? oldValue == null : newValue.equals(oldValue)) {
+                    continue;
+                }
+                persist(userId, key, newValue, meta);
+                audit(userId, key, before.get(key), newValue, changedBy, interfaceType);
+                changes.add(new SettingsChange(userId, SettingsLayer.USER, key, oldValue, newValue,
+                        changedBy, 0));
+            }
+        }
+        if (changes.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return applyUser(state, changes);
+        }
+        afterCommit(() -> applyUser(state, changes));
+        return changes;
+    }
+
+    /**
+     * Rebuild the user's snapshot with committed changes and publish them.
+     *
+     * @return the changes, versioned
+     */
+    private List<SettingsChange> applyUser(UserState state, List<SettingsChange> changes) {
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        List<SettingsChange> applied = new ArrayList<>(changes.size());
+        synchronized (state) {
+            Map<String, String> updated = new HashMap<>(state.values);
+            for (SettingsChange change : changes) {
+                if (change.newValue() == null) {
+                    updated.remove(change.key());
+                } else {
+                    updated.put(change.key(), change.newValue());
+                }
+            }
+            state.values = Map.copyOf(updated);
+            rebuild(state);
+            long version = state.snapshot.version();
+            for (SettingsChange c : changes) {
+                applied.add(new SettingsChange(c.userId(), c.layer(), c.key(), c.oldValue(), c.newValue(),
+                        c.changedBy(), version));
+            }
+        }
+        publish(applied);
+        return applied;
+    }
+
+    private void persist(String userId, String key, String value, SettingsMetadataEntity meta) {
+        if (settingRepo == null) {
+            return;
+        }
+        if (value == null) {
+            settingRepo.deleteByUserIdAndKey(userId, key);
+            return;
+        }
+        UserSettingEntity entity = settingRepo.findByUserIdAndSettingKey(userId, key)
+                .orElseGet(() -> {
+                    UserSettingEntity e = new UserSettingEntity(userId, key, value);
+                    if (meta != null) {
+                        e.setScope(meta.getScope());
+                        e.setRoleMin(meta.getMinRole());
+                        e.setEditable(meta.getEditable());
+                    }
+                    return e;
+                });
+        entity.setSettingValue(value);
+        settingRepo.save(entity);
+    }
+
+    // ==================== Global layers ====================
+
+    /**
+     * Set one value in a global layer and rebuild every loaded snapshot.
+     * The change is audited under the layer name.
+     *
+     * @param value new value, {@code null} to remove it from the layer
+     * @return the change, {@code null} if the value was already set; inside
+     *         a transaction its version is 0, as the snapshots are rebuilt on
+     *         commit
+     */
+    @Transactional
+    public SettingsChange updateLayer(SettingsLayer layer, String key, String value, String changedBy,
+            String interfaceType) {
+        requireGlobal(layer);
+        SettingsChange change;
+        synchronized (globalLock) {
+            String oldValue = globalLayers.getOrDefault(layer, Map.of()).get(key);
+            if (value == null ? oldValue == null : value.equals(oldValue)) {
+                return null;
+            }
+            audit(layer.name(), key, oldValue, value, changedBy, interfaceType);
+            change = new SettingsChange(null, layer, key, oldValue, value, changedBy, 0);
+        }
+        logger.info("{} setting {} = {} (by {})", layer, key, value, changedBy);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return applyLayer(change);
+        }
+        SettingsChange pending = change;
+        afterCommit(() -> applyLayer(pending));
+        return change;
+    }
+
+    /**
+     * Apply a committed global change to every snapshot and publish it.
+     *
+     * @return the change, versioned
+     */
+    private SettingsChange applyLayer(SettingsChange change) {
+        SettingsChange applied;
+        synchronized (globalLock) {
+            Map<String, String> updated = new HashMap<>(globalLayers.getOrDefault(change.layer(), Map.of()));
+            if (change.newValue() == null) {
+                updated.remove(change.key());
+            } else {
+                updated.put(change.key(), change.newValue());
+            }
+            long version = replaceGlobal(change.layer(), updated);
+            applied = new SettingsChange(null, change.layer(), change.key(), change.oldValue(), change.newValue(),
+                    change.changedBy(), version);
+        }
+        publish(List.of(applied));
+        return applied;
+    }
+
+    /**
+     * Load values into a global layer at startup, without auditing or
+     * notifying. Existing values for other keys are kept.
+     */
+    public void seedLayer(SettingsLayer layer, Map<String, String> values) {
+        requireGlobal(layer);
+        synchronized (globalLock) {
+            Map<String, String> updated = new HashMap<>(globalLayers.getOrDefault(layer, Map.of()));
+            values.forEach((key, value) -> {
+                if (value != null) {
+                    updated.put(key, value);
+                }
+            });
+            replaceGlobal(layer, updated);
+        }
+        logger.info("Seeded {} {} settings", values.size(), layer);
+    }
+
+    /** Caller holds {@link #globalLock}. */
+    private long replaceGlobal(SettingsLayer layer, Map<String, String> values) {
+        EnumMap<SettingsLayer, Map<String, String>> layers = new EnumMap<>(SettingsLayer.class);
+        layers.putAll(globalLayers);
+        layers.put(layer, Map.copyOf(values));
+        globalLayers = Collections.unmodifiableMap(layers);
+        EffectiveSettings snapshot = EffectiveSettings.of(null, versions.incrementAndGet(), globalLayers);
+        global = snapshot;
+        for (UserState state : users.values()) {
+            synchronized (state) {
+                rebuild(state);
+            }
+        }
+        return snapshot.version();
+    }
+
+    /**
+     * Run {@code action} once the current transaction commits; never if it
+     * rolls back.
+     */
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void requireGlobal(SettingsLayer layer) {
+        if (!layer.isGlobal()) {
+            throw new IllegalArgumentException(layer + " is not a global settings layer");
+        }
+    }
+
+    // ==================== Listeners ====================
+
+    /**
+     * Notify {@code listener} of changes to keys starting with
+     * {@code keyPrefix} ({@code ""} for every key).
+     */
+    public void addListener(String keyPrefix, SettingsListener listener) {
+        listeners.add(new Subscription(keyPrefix, listener));
+    }
+
+    public void removeListener(SettingsListener listener) {
+        listeners.removeIf(s -> s.listener() == listener);
+    }
+
+    private void publish(List<SettingsChange> changes) {
+        for (SettingsChange change : changes) {
+            for (Subscription subscription : listeners) {
+                if (!change.key().startsWith(subscription.keyPrefix())) {
+                    continue;
+                }
+                try {
+                    subscription.listener().onSettingsChanged(change);
+                } catch (RuntimeException e) {
+                    logger.error("Settings listener failed for {}: {}", change.key(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    // ==================== Snapshots ====================
+
+    private UserState load(String userId) {
+        Map<String, String> stored = new HashMap<>();
+        if (settingRepo != null) {
+            for (UserSettingEntity entity : settingRepo.findByUserId(userId)) {
+                if (entity.getSettingValue() != null) {
+                    stored.put(entity.getSettingKey(), entity.getSettingValue());
+                }
+            }
+        }
+        UserState state = new UserState(userId, Map.copyOf(stored));
+        rebuild(state);
+        logger.debug("Loaded {} settings for user {}", stored.size(), userId);
+        return state;
+    }
+
+    /** Caller holds the state's monitor, or is its only reference. */
+    private void rebuild(UserState state) {
+        Map<SettingsLayer, Map<String, String>> globals = globalLayers;
+        EnumMap<SettingsLayer, Map<String, String>> layers = new EnumMap<>(SettingsLayer.class);
+        layers.putAll(globals);
+        layers.put(SettingsLayer.USER, state.values);
+        state.snapshot = EffectiveSettings.of(state.userId, versions.incrementAndGet(), layers);
+        state.builtFrom = globals;
+    }
+
+    private void audit(String userId, String key, String oldValue, String newValue, String changedBy,
+            String interfaceType) {
+        if (auditRepo == null) {
+            return;
+        }
+        SettingsAuditLogEntity audit = new SettingsAuditLogEntity();
+        audit.setUserId(userId);
+        audit.setSettingKey(key);
+        audit.setOldValue(oldValue);
+        audit.setNewValue(newValue);
+        audit.setChangedBy(changedBy != null ? changedBy : DEFAULT_CHANGED_BY);
+        audit.setInterfaceType(interfaceType != null ? interfaceType : DEFAULT_INTERFACE);
+        auditRepo.save(audit);
+    }
+
+    /**
+     * One user's stored values and current snapshot. Values are replaced,
+     * never mutated, under the state's monitor.
+     */
+    private static final class UserState {
+        final String userId;
+        Map<String, String> values;
+        Map<SettingsLayer, Map<String, String>> builtFrom;
+        volatile EffectiveSettings snapshot;
+
+        UserState(String userId, Map<String, String> values) {
+            this.userId = userId;
+            this.values = values;
+        }
+    }
+
+    private record Subscription(String keyPrefix, SettingsListener listener) {
     }
 }
@@ -1,6 +1,7 @@
 package com.vegatrader.upstox.api.settings.service;
 
 import com.vegatrader.upstox.api.settings.entity.*;
+import com.vegatrader.upstox.api.settings.model.EffectiveSettings;
 import com.vegatrader.upstox.api.settings.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,11 +9,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * User settings service with validation and auditing.
  * 
+ * <p>
+ * Reads come from the {@link SettingsResolver}'s per-user snapshot, whose
+ * system layer holds the metadata defaults; writes are
+ * validated against the metadata here and persisted and audited by the
+ * resolver.
+ * 
  * @since 4.3.0
  */
 @Service
@@ -20,65 +26,42 @@ public class UserSettingsService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserSettingsService.class);
 
-    private final UserSettingRepository settingRepo;
     private final SettingsMetadataRepository metadataRepo;
-    private final SettingsAuditLogRepository auditRepo;
+    private final SettingsResolver settingsResolver;
 
     public UserSettingsService(
-            UserSettingRepository settingRepo,
             SettingsMetadataRepository metadataRepo,
-            SettingsAuditLogRepository auditRepo) {
-        this.settingRepo = settingRepo;
+            SettingsResolver settingsResolver) {
         this.metadataRepo = metadataRepo;
-        this.auditRepo = auditRepo;
+        this.settingsResolver = settingsResolver;
     }
 
     // === Read Operations ===
 
     public Map<String, String> getAllSettings(String userId) {
-        // Get user settings
-        Map<String, String> userSettings = settingRepo.findByUserId(userId).stream()
-                .collect(Collectors.toMap(
-                        UserSettingEntity::getSettingKey,
-                        UserSettingEntity::getSettingValue));
-
-        // Merge with defaults
+        EffectiveSettings settings = settingsResolver.effective(userId);
         Map<String, String> result = new HashMap<>();
         for (SettingsMetadataEntity meta : metadataRepo.findAll()) {
-            String value = userSettings.getOrDefault(meta.getSettingKey(), meta.getDefaultValue());
-            result.put(meta.getSettingKey(), value);
+            result.put(meta.getSettingKey(), settings.get(meta.getSettingKey(), meta.getDefaultValue()));
         }
 
         return result;
     }
 
     public String getSetting(String userId, String settingKey) {
-        return settingRepo.findByUserIdAndSettingKey(userId, settingKey)
-                .map(UserSettingEntity::getSettingValue)
-                .orElseGet(() -> getDefaultValue(settingKey));
+        return settingsResolver.effective(userId).get(settingKey);
     }
 
     public boolean getBoolean(String userId, String settingKey, boolean defaultValue) {
-        String value = getSetting(userId, settingKey);
-        return value != null ? "true".equalsIgnoreCase(value) : defaultValue;
+        return settingsResolver.effective(userId).getBoolean(settingKey, defaultValue);
     }
 
     public int getInt(String userId, String settingKey, int defaultValue) {
-        String value = getSetting(userId, settingKey);
-        try {
-            return value != null ? Integer.parseInt(value) : defaultValue;
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return settingsResolver.effective(userId).getInt(settingKey, defaultValue);
     }
 
     public double getDouble(String userId, String settingKey, double defaultValue) {
-        String value = getSetting(userId, settingKey);
-        try {
-            return value != null ? Double.parseDouble(value) : defaultValue;
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return settingsResolver.effective(userId).getDouble(settingKey, defaultValue);
     }
 
     // === Write Operations ===
@@ -97,37 +80,15 @@ public class UserSettingsService {
         // Validate value
         validateValue(meta, value);
 
-        // Get old value for audit
-        String oldValue = getSetting(userId, settingKey);
-
-        // Upsert setting
-        UserSettingEntity entity = settingRepo.findByUserIdAndSettingKey(userId, settingKey)
-                .orElseGet(() -> {
-                    UserSettingEntity e = new UserSettingEntity(userId, settingKey, value);
-                    e.setScope(meta.getScope());
-                    e.setRoleMin(meta.getMinRole());
-                    e.setEditable(meta.getEditable());
-                    return e;
-                });
-        entity.setSettingValue(value);
-        settingRepo.save(entity);
-
-        // Audit log
-        SettingsAuditLogEntity audit = new SettingsAuditLogEntity();
-        audit.setUserId(userId);
-        audit.setSettingKey(settingKey);
-        audit.setOldValue(oldValue);
-        audit.setNewValue(value);
-        audit.setChangedBy(changedBy);
-        audit.setInterfaceType(interfaceType);
-        auditRepo.save(audit);
+        // Persist, audit and publish
+        settingsResolver.updateUserSetting(userId, settingKey, value, changedBy, interfaceType, meta);
 
         logger.info("Setting updated: user={}, key={}, value={}", userId, settingKey, value);
     }
 
     @Transactional
     public void resetToDefault(String userId, String settingKey) {
-        settingRepo.deleteByUserIdAndKey(userId, settingKey);
+        settingsResolver.resetUserSetting(userId, settingKey, userId, "API");
         logger.info("Setting reset to default: user={}, key={}", userId, settingKey);
     }
 
@@ -174,12 +135,6 @@ public class UserSettingsService {
         }
     }
 
-    private String getDefaultValue(String settingKey) {
-        return metadataRepo.findById(settingKey)
-                .map(SettingsMetadataEntity::getDefaultValue)
-                .orElse(null);
-    }
-
     // === Metadata Queries ===
 
     public List<SettingsMetadataEntity> getSettingsMetadata() {
@@ -29,6 +29,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Enhanced WebSocket client for Upstox Market Data Feed V3.
@@ -66,15 +67,16 @@ public class MarketDataStreamerV3 {
     private final MarketDataStreamerSettings settings;
     private final MarketDataStreamerV3Logger logger;
     private final MarketDataCache cache;
-    private final OkHttpClient httpClient;
+    private OkHttpClient httpClient;
     private final Gson gson;
     private final Set<String> subscribedInstruments;
     private final Map<String, Mode> instrumentModes;
     private String currentToken;
+    private Supplier<String> tokenSupplier;
 
     // Enterprise upgrade components
     private final EventBus eventBus;
-    private final MarketDataBuffer buffer;
+    private final ShardedMarketDataBuffer buffer;
     private final UpstoxMessageParser messageParser;
     private final ExecutorService workerPool;
     private final MarketStateTracker marketStateTracker;
@@ -101,15 +103,44 @@ public class MarketDataStreamerV3 {
     private com.vegatrader.journal.JournalWriter journalWriter;
     private JournalManager journalManager;
     private FullD30Mapper fullD30Mapper;
+    /** Journal books per instrument, refilled in place on every full feed */
+    private final Map<String, L30OrderBook> journalBooks = new ConcurrentHashMap<>();
 
     public void setJournalWriter(com.vegatrader.journal.JournalWriter journalWriter) {
         this.journalWriter = journalWriter;
     }
 
+    /**
+     * Derives this streamer's client from the application's shared client, so
+     * the authorize call and WebSocket upgrade reuse its warm connection pool.
+     * Call before {@link #connect()}.
+     */
+    public void setSharedHttpClient(OkHttpClient shared) {
+        if (shared != null) {
+            this.httpClient = shared.newBuilder()
+                    .readTimeout(settings.getReadTimeout(), TimeUnit.MILLISECONDS)
+                    .writeTimeout(settings.getWriteTimeout(), TimeUnit.MILLISECONDS)
+                    .connectTimeout(settings.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                    .pingInterval(settings.getPingInterval(), TimeUnit.SECONDS)
+                    .build();
+        }
+    }
+
     public void setJournalManager(JournalManager journalManager) {
         this.journalManager = journalManager;
     }
 
+    /**
+     * Pins this streamer to a specific token source instead of the provider's
+     * WEBSOCKET* fallback chain. Called on every (re)connect.
+     *
+     * @param tokenSupplier supplies the handshake token, or null for the default
+     * @since 4.9.0
+     */
+    public void setTokenSupplier(Supplier<String> tokenSupplier) {
+        this.tokenSupplier = tokenSupplier;
+    }
+
     public void setFullD30Mapper(FullD30Mapper fullD30Mapper) {
         this.fullD30Mapper = fullD30Mapper;
     }
@@ -157,12 +188,12 @@ public class MarketDataStreamerV3 {
 
         // Initialize enterprise components
         this.eventBus = new InMemoryEventBus();
-        this.buffer = new MarketDataBuffer(settings.getBufferCapacity());
         this.messageParser = new UpstoxMessageParser();
         this.marketStateTracker = new MarketStateTracker();
 
-        // Initialize worker pool
+        // Initialize worker pool: one worker per shard (instrument affinity)
         int workerCount = settings.getWorkerThreads();
+        this.buffer = new ShardedMarketDataBuffer(workerCount, settings.getBufferCapacity());
         this.workerPool = Executors.newFixedThreadPool(workerCount, r -> {
             Thread t = new Thread(r);
             t.setName("MarketData-Worker-" + t.getId());
@@ -170,9 +201,9 @@ public class MarketDataStreamerV3 {
             return t;
         });
 
-        // Start buffer consumers
+        // Start shard consumers
         for (int i = 0; i < workerCount; i++) {
-            workerPool.submit(new BufferConsumer(buffer, eventBus, "worker-" + i));
+            workerPool.submit(buffer.consumer(i, eventBus));
         }
 
         // Set up event subscribers
@@ -225,12 +256,12 @@ public class MarketDataStreamerV3 {
 
         // Initialize enterprise components
         this.eventBus = new InMemoryEventBus();
-        this.buffer = new MarketDataBuffer(settings.getBufferCapacity());
         this.messageParser = new UpstoxMessageParser();
         this.marketStateTracker = new MarketStateTracker();
 
-        // Initialize worker pool
+        // Initialize worker pool: one worker per shard (instrument affinity)
         int workerCount = settings.getWorkerThreads();
+        this.buffer = new ShardedMarketDataBuffer(workerCount, settings.getBufferCapacity());
         this.workerPool = Executors.newFixedThreadPool(workerCount, r -> {
             Thread t = new Thread(r);
             t.setName("MarketData-Worker-" + t.getId());
@@ -238,9 +269,9 @@ public class MarketDataStreamerV3 {
             return t;
         });
 
-        // Start buffer consumers
+        // Start shard consumers
         for (int i = 0; i < workerCount; i++) {
-            workerPool.submit(new BufferConsumer(buffer, eventBus, "worker-" + i));
+            workerPool.submit(buffer.consumer(i, eventBus));
         }
 
         // Set up event subscribers
@@ -292,7 +323,9 @@ public class MarketDataStreamerV3 {
             if (settings.getConnectionSettings().canAddConnection()) {
                 settings.getConnectionSettings().incrementConnections();
             }
-            this.currentToken = tokenProvider.getAccessToken(TokenCapability.MARKET_DATA_WS);
+            this.currentToken = tokenSupplier != null
+                    ? tokenSupplier.get()
+                    : tokenProvider.getAccessToken(TokenCapability.MARKET_DATA_WS);
             String wsUrl = getWebSocketUrl(currentToken);
 
             Request request = new Request.Builder()
@@ -369,7 +402,8 @@ public class MarketDataStreamerV3 {
                 .header("Accept", "application/json")
                 .build();
 
-        OkHttpClient authClient = new OkHttpClient.Builder()
+        // Derived client: same pool, so reconnects skip the TLS handshake
+        OkHttpClient authClient = httpClient.newBuilder()
                 .followRedirects(false)
                 .build();
 
@@ -509,21 +543,32 @@ public class MarketDataStreamerV3 {
             throw new IllegalArgumentException("Instrument keys cannot be empty");
         }
 
-        // Get the mode from existing subscriptions
-        Mode mode = instrumentModes.values().stream().findFirst().orElse(Mode.LTPC);
+        // Group by each instrument's tracked mode so limit accounting stays exact
+        Map<Mode, Set<String>> byMode = new EnumMap<>(Mode.class);
+        for (String key : instrumentKeys) {
+            Mode mode = instrumentModes.get(key);
+            byMode.computeIfAbsent(mode != null ? mode : Mode.LTPC, m -> new HashSet<>()).add(key);
+        }
 
-        logger.logSubscription("unsubscribe", mode.toString(), instrumentKeys.size());
+        for (Map.Entry<Mode, Set<String>> entry : byMode.entrySet()) {
+            Mode mode = entry.getKey();
+            Set<String> keys = entry.getValue();
+            logger.logSubscription("unsubscribe", mode.toString(), keys.size());
 
-        MarketDataFeedV3Request request = MarketDataRequestHelper.buildUnsubscribeRequest(instrumentKeys,
-                mode.toString());
-        sendBinaryRequest(request);
+            MarketDataFeedV3Request request = MarketDataRequestHelper.buildUnsubscribeRequest(keys,
+                    mode.toString());
+            sendBinaryRequest(request);
 
-        // Remove from tracking
-        settings.getConnectionSettings().removeSubscriptions(mode, instrumentKeys.size());
-        subscribedInstruments.removeAll(instrumentKeys);
-        for (String key : instrumentKeys) {
-            instrumentModes.remove(key);
+            // Remove from tracking
+            int tracked = 0;
+            for (String key : keys) {
+                if (instrumentModes.remove(key) != null) {
+                    tracked++;
+                }
+            }
+            settings.getConnectionSettings().removeSubscriptions(mode, tracked);
         }
+        subscribedInstruments.removeAll(instrumentKeys);
 
         logger.logSubscriptionSuccess("unsubscribe", instrumentKeys.size());
     }
@@ -827,8 +872,8 @@ public class MarketDataStreamerV3 {
                         if (feed.getFeedUnionCase() == MarketDataFeedV3.Feed.FeedUnionCase.FULLFEED) {
                             MarketDataFeedV3.FullFeed fullFeed = feed.getFullFeed();
                             if (fullFeed.hasMarketFF()) {
-                                L30OrderBook book = fullD30Mapper.map(fullFeed.getMarketFF(), key);
-                                journalManager.writePromise(book);
+                                L30OrderBook book = journalBooks.computeIfAbsent(key, k -> new L30OrderBook());
+                                journalManager.writePromise(fullD30Mapper.mapInto(fullFeed.getMarketFF(), key, book));
                             }
                         }
                     });
@@ -956,6 +1001,15 @@ public class MarketDataStreamerV3 {
         return buffer.getStatistics();
     }
 
+    /**
+     * Gets per-shard queue depth and processing-time statistics.
+     * 
+     * @return one entry per shard
+     */
+    public List<ShardedMarketDataBuffer.ShardStatistics> getShardStatistics() {
+        return buffer.getShardStatistics();
+    }
+
     /**
      * Shuts down the worker pool.
      */
@@ -3,6 +3,8 @@ package com.vegatrader.upstox.api.websocket;
 import com.vegatrader.upstox.api.response.websocket.*;
 import com.vegatrader.upstox.api.websocket.event.MarketUpdateEvent;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -113,6 +115,29 @@ public class MarketUpdateV3 implements MarketUpdateEvent {
         return response.getFeedCount();
     }
 
+    /**
+     * Splits a multi-instrument update into one update per instrument,
+     * preserving type and timestamp. Single-instrument and non-feed updates
+     * are returned as-is.
+     * 
+     * @return per-instrument updates in feed map order
+     */
+    public List<MarketUpdateV3> splitByInstrument() {
+        Map<String, FeedData> feeds = getFeeds();
+        if (feeds == null || feeds.size() <= 1) {
+            return List.of(this);
+        }
+        List<MarketUpdateV3> parts = new ArrayList<>(feeds.size());
+        for (Map.Entry<String, FeedData> entry : feeds.entrySet()) {
+            MarketDataFeedV3Response part = new MarketDataFeedV3Response();
+            part.setType(response.getType());
+            part.setCurrentTs(response.getCurrentTs());
+            part.setFeeds(Map.of(entry.getKey(), entry.getValue()));
+            parts.add(new MarketUpdateV3(part));
+        }
+        return parts;
+    }
+
     /**
      * Checks if a specific market segment is open (from market_info).
      * 
@@ -2,6 +2,7 @@ package com.vegatrader.upstox.api.websocket;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.vegatrader.service.TokenLeaseManager;
 import com.vegatrader.upstox.api.response.websocket.*;
 import com.vegatrader.upstox.api.websocket.buffer.PortfolioBufferConsumer;
 import com.vegatrader.upstox.api.websocket.buffer.PortfolioDataBuffer;
@@ -21,7 +22,9 @@ import okhttp3.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * Enterprise-grade Portfolio WebSocket streamer V2.
@@ -32,10 +35,10 @@ import java.util.concurrent.*;
  * <pre>
  * WebSocket Thread → handleMessage()
  *                        ↓
- *               PortfolioMessageParser.parse()
+ *               PortfolioMessageParser.parse() [single-pass streaming]
  *                        ↓
- *               PortfolioDataBuffer.offerWithTimeout() [bounded blocking]
- *                        ↓ (if timeout)
+ *               PortfolioDataBuffer.offer() [SPSC ring, never blocks]
+ *                        ↓ (if full)
  *               triggerControlledReconnect()
  *                        ↓
  *            SINGLE Consumer Thread (PortfolioBufferConsumer)
@@ -53,6 +56,8 @@ import java.util.concurrent.*;
  * <li>✅ TIMESTAMP VALIDATION: Last-write-wins cache semantics</li>
  * <li>✅ STATE TRACKING: Feed health monitoring</li>
  * <li>✅ SUBSCRIBER ISOLATION: Failures don't cascade</li>
+ * <li>✅ SINGLE WRITER: only the current socket's thread produces into the
+ * buffer; callbacks from a socket being replaced are ignored</li>
  * </ul>
  * 
  * @since 2.0.0
@@ -73,8 +78,22 @@ public class PortfolioDataStreamerV2 {
     // WebSocket
     private OkHttpClient client;
     private WebSocket webSocket;
+    /** Bumped per connection; callbacks from an older socket are ignored */
+    private volatile long socketGeneration;
+    /**
+     * Held for the stale check plus the buffer hand-off, and for every
+     * generation bump, so the old socket's thread cannot still be inside
+     * {@code offer} once a new socket is live: the buffer has one producer.
+     */
+    private final Object producerLock = new Object();
     private String accessToken;
 
+    // Shared token lease; when set, every connect re-reads and re-leases the token
+    private TokenLeaseManager leaseManager;
+    private String leaseApiName;
+    private Supplier<String> tokenSupplier;
+    private TokenLeaseManager.TokenLease lease;
+
     // Threading
     private ExecutorService consumerExecutor;
     private ScheduledExecutorService reconnectExecutor;
@@ -133,6 +152,9 @@ public class PortfolioDataStreamerV2 {
                 settings.isLogPortfolioUpdates());
         this.parser = new PortfolioMessageParser();
 
+        // Warm start from the last snapshot, if configured
+        restoreCacheSnapshot();
+
         // Setup event subscribers with isolation
         setupEventSubscribers();
 
@@ -166,6 +188,8 @@ public class PortfolioDataStreamerV2 {
             return;
         }
 
+        refreshLease();
+
         try {
             connectionSettings.incrementConnections();
             stateTracker.transitionTo(PortfolioFeedState.CONNECTING, "connect() called");
@@ -185,7 +209,7 @@ public class PortfolioDataStreamerV2 {
                     .build();
 
             // Connect
-            webSocket = client.newWebSocket(request, new PortfolioWebSocketListener());
+            webSocket = client.newWebSocket(request, new PortfolioWebSocketListener(nextGeneration()));
             logger.logConnectionAttempt(1);
 
         } catch (Exception e) {
@@ -196,6 +220,31 @@ public class PortfolioDataStreamerV2 {
         }
     }
 
+    /**
+     * Takes the access token from the shared {@link TokenLeaseManager} used by
+     * the market feed instead of the constructor token: each connect reads the
+     * current token from {@code tokenSupplier} and renews the lease, so token
+     * rotation is handled in one place and no other feed can connect on it.
+     */
+    public synchronized void setTokenLease(TokenLeaseManager leaseManager, String apiName,
+            Supplier<String> tokenSupplier) {
+        this.leaseManager = leaseManager;
+        this.leaseApiName = apiName;
+        this.tokenSupplier = tokenSupplier;
+    }
+
+    private void refreshLease() {
+        if (leaseManager == null) {
+            return;
+        }
+        String token = tokenSupplier.get();
+        lease = leaseManager.renewLease(lease, leaseApiName, token);
+        if (lease == null) {
+            throw new IllegalStateException("Token for " + leaseApiName + " is leased by another feed");
+        }
+        accessToken = token;
+    }
+
     /**
      * Disconnects from WebSocket feed.
      */
@@ -227,9 +276,14 @@ public class PortfolioDataStreamerV2 {
         logger.logControlledReconnect(reason);
         metrics.incrementReconnectAttempts();
 
-        // Disconnect
+        // Disconnect; detach first so late frames from the old socket are ignored
+        nextGeneration();
+        connected = false;
+        stateTracker.transitionTo(PortfolioFeedState.DISCONNECTED, "Controlled reconnect");
         if (webSocket != null) {
             webSocket.close(1001, "Controlled reconnect: " + reason);
+            webSocket = null;
+            connectionSettings.decrementConnections();
         }
 
         // Clear buffer to prevent further saturation
@@ -242,24 +296,33 @@ public class PortfolioDataStreamerV2 {
     }
 
     /**
-     * Forces full resync - clears all state and reconnects.
+     * Forces full resync - clears buffered state and reconnects.
+     *
+     * <p>
+     * No pause is needed between the two: the old socket is detached before it
+     * closes, the consumer is stopped before state is cleared, and every
+     * connect obtains a fresh single-use URL.
+     *
+     * <p>
+     * The cache is kept: re-sent updates are applied by timestamp and version,
+     * so a reconnect does not force a rebuild. Use {@link #clearCache()} to
+     * drop it explicitly.
      */
     public synchronized void forceResync() {
         logger.logForceResync("Manual resync requested");
+        boolean reconnect = autoReconnectEnabled;
+
+        // Stop producer and consumer before touching state
+        disconnect();
+        stopConsumer();
 
-        // Clear all state
+        // Clear transient state
         buffer.clear();
-        cache.clear();
         metrics.reset();
 
         // Reconnect
-        disconnect();
-        try {
-            Thread.sleep(1000); // Brief pause
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
         connect();
+        autoReconnectEnabled = reconnect;
     }
 
     /**
@@ -332,6 +395,21 @@ public class PortfolioDataStreamerV2 {
         return cache.getStatistics();
     }
 
+    /**
+     * Portfolio changes after {@code sinceSequence}, for incremental readers
+     * (REST, UI).
+     */
+    public PortfolioDataCache.ChangeSet getChangesSince(long sinceSequence) {
+        return cache.changesSince(sinceSequence);
+    }
+
+    /**
+     * Drops all cached portfolio state; change-feed readers resync in full.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
     /**
      * Shuts down streamer and releases resources.
      */
@@ -339,6 +417,11 @@ public class PortfolioDataStreamerV2 {
         logger.info("Shutting down PortfolioDataStreamerV2");
         disconnect();
         stopConsumer();
+        if (leaseManager != null) {
+            leaseManager.releaseLease(lease);
+            lease = null;
+        }
+        saveCacheSnapshot();
         cache.shutdown();
         logger.close();
 
@@ -453,6 +536,29 @@ public class PortfolioDataStreamerV2 {
         return query.isEmpty() ? baseUrl : baseUrl + "?" + query;
     }
 
+    private void restoreCacheSnapshot() {
+        if (settings.getCacheSnapshotPath() == null) {
+            return;
+        }
+        try {
+            cache.restoreFrom(Path.of(settings.getCacheSnapshotPath()));
+        } catch (Exception e) {
+            // Cold start is always safe: the feed re-sends current state
+            logger.warn("Portfolio cache snapshot not restored: {}", e.getMessage());
+        }
+    }
+
+    private void saveCacheSnapshot() {
+        if (settings.getCacheSnapshotPath() == null || !settings.isEnableCaching()) {
+            return;
+        }
+        try {
+            cache.snapshotTo(Path.of(settings.getCacheSnapshotPath()));
+        } catch (Exception e) {
+            logger.error("Portfolio cache snapshot failed", e);
+        }
+    }
+
     private void startConsumer() {
         if (consumerExecutor == null || consumerExecutor.isShutdown()) {
             consumerExecutor = Executors.newSingleThreadExecutor(r -> {
@@ -508,6 +614,16 @@ public class PortfolioDataStreamerV2 {
         }, delay, TimeUnit.SECONDS);
     }
 
+    /**
+     * Retires the current socket's listener; returns once it is no longer
+     * handing a frame to the buffer.
+     */
+    private long nextGeneration() {
+        synchronized (producerLock) {
+            return ++socketGeneration;
+        }
+    }
+
     private void setupEventSubscribers() {
         // Subscribe to portfolio updates with isolation
         eventBus.subscribe(PortfolioUpdateEvent.class, event -> {
@@ -571,8 +687,25 @@ public class PortfolioDataStreamerV2 {
 
     private class PortfolioWebSocketListener extends WebSocketListener {
 
+        private final long generation;
+
+        PortfolioWebSocketListener(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * True for callbacks from a socket that has been replaced (controlled
+         * reconnect or a newer connect).
+         */
+        private boolean isStale() {
+            return generation != socketGeneration;
+        }
+
         @Override
         public void onOpen(@NotNull WebSocket webSocket, @NotNull Response response) {
+            if (isStale()) {
+                return;
+            }
             connected = true;
             reconnectAttempts = 0;
             stateTracker.transitionTo(PortfolioFeedState.SYNCING, "WebSocket opened");
@@ -585,22 +718,33 @@ public class PortfolioDataStreamerV2 {
 
         @Override
         public void onMessage(@NotNull WebSocket webSocket, @NotNull String text) {
+            if (isStale()) {
+                return; // socket being replaced; its frames must not reach the buffer
+            }
             try {
                 metrics.incrementUpdatesReceived();
 
-                // Parse message
+                // Parse message (single pass)
                 PortfolioUpdateEvent event = parser.parse(text);
+                if (!(event instanceof PortfolioUpdate)) {
+                    // Error or unknown type; already logged by the parser
+                    metrics.incrementParseErrors();
+                    return;
+                }
 
                 // Transition to LIVE after first message
                 if (stateTracker.getState() == PortfolioFeedState.SYNCING) {
                     stateTracker.transitionTo(PortfolioFeedState.LIVE, "Received first update");
                 }
 
-                // Offer to buffer with timeout
-                boolean accepted = buffer.offerWithTimeout(
-                        (PortfolioUpdate) event,
-                        settings.getBufferOfferTimeoutMs(),
-                        TimeUnit.MILLISECONDS);
+                // Non-blocking hand-off; the socket thread never waits on the consumer
+                boolean accepted;
+                synchronized (producerLock) {
+                    if (isStale()) {
+                        return;
+                    }
+                    accepted = buffer.offer((PortfolioUpdate) event);
+                }
 
                 if (!accepted) {
                     // ⚠️ CRITICAL: Buffer saturated - trigger controlled reconnect
@@ -623,6 +767,10 @@ public class PortfolioDataStreamerV2 {
 
         @Override
         public void onClosed(@NotNull WebSocket webSocket, int code, @NotNull String reason) {
+            if (isStale()) {
+                logger.logConnectionClosed(code, reason);
+                return;
+            }
             connected = false;
             stateTracker.transitionTo(PortfolioFeedState.DISCONNECTED, "WebSocket closed");
             logger.logConnectionClosed(code, reason);
@@ -638,6 +786,9 @@ public class PortfolioDataStreamerV2 {
 
         @Override
         public void onFailure(@NotNull WebSocket webSocket, @NotNull Throwable t, Response response) {
+            if (isStale()) {
+                return;
+            }
             connected = false;
 
             // Check for 401 Unauthorized
@@ -0,0 +1,115 @@
+package com.vegatrader.upstox.api.websocket.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring.
+ *
+ * <p>
+ * Each slot carries a sequence number (Vyukov's bounded queue): producers
+ * claim a slot with one CAS on {@code tail}, write the element and publish it
+ * by advancing the slot's sequence; the consumer reads slots in order without
+ * CAS. A full ring fails the offer instead of waiting, so producers are never
+ * blocked by a slow consumer.
+ *
+ * <p>
+ * Contract: {@link #offer} from any number of threads, {@link #poll} from
+ * exactly one thread. {@link #size} is approximate.
+ *
+ * @param <E> element type
+ * @see SpscRing
+ * @since 3.1.0
+ */
+public final class MpscRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new PaddedAtomicLong();
+    private final AtomicLong head = new PaddedAtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public MpscRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element (any thread).
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long t = tail.get();
+            int index = (int) t & mask;
+            long seq = sequences.get(index);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, t + 1); // publish
+                    return true;
+                }
+            } else if (seq < t) {
+                return false; // slot still holds an element from the previous lap
+            }
+            // else another producer claimed this slot; retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element (consumer thread only).
+     *
+     * @return the element, or null if empty (or the next slot is claimed but
+     *         not yet published)
+     */
+    public E poll() {
+        long h = head.get();
+        int index = (int) h & mask;
+        if (sequences.get(index) != h + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.lazySet(index, h + mask + 1); // free for the next lap
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Approximate number of queued elements.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1L));
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong extends AtomicLong {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -16,7 +16,7 @@ import org.slf4j.LoggerFactory;
  * Architecture:
  * 
  * <pre>
- * WebSocket Thread → PortfolioDataBuffer.offerWithTimeout() [bounded blocking]
+ * WebSocket Thread → PortfolioDataBuffer.offer() [SPSC ring, non-blocking]
  *                          ↓
  *                   SINGLE Consumer Thread (this class)
  *                          ↓
@@ -93,7 +93,7 @@ public class PortfolioBufferConsumer implements Runnable {
         try {
             while (!Thread.currentThread().isInterrupted()) {
                 try {
-                    // Blocking call - waits for next update
+                    // Waits (spin, then park) for the next update
                     // This ensures sequential processing
                     PortfolioUpdate update = buffer.take();
 
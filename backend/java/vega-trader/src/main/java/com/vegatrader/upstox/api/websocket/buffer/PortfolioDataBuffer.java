@@ -4,37 +4,46 @@ import com.vegatrader.upstox.api.websocket.PortfolioUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * NO-DROP bounded buffer for portfolio updates with timeout-based backpressure.
- * 
+ * NO-DROP bounded buffer for portfolio updates.
+ *
  * <p>
  * ⚠️ CRITICAL DIFFERENCE FROM MARKET DATA: Portfolio events are NEVER dropped
  * silently.
- * 
+ *
  * <p>
  * Key characteristics:
  * <ul>
  * <li>Bounded capacity (default 16,384)</li>
- * <li>Bounded blocking offer with timeout (NOT non-blocking like
- * MarketDataBuffer)</li>
+ * <li>Lock-free {@link SpscRing}: one producer (socket thread), one consumer
+ * (PortfolioBufferConsumer)</li>
+ * <li>Non-blocking {@link #offer}: the socket thread never waits</li>
  * <li>Saturation tracking (NOT drop tracking)</li>
- * <li>Triggers controlled reconnect on timeout</li>
- * <li>Thread-safe</li>
+ * <li>Triggers controlled reconnect on saturation</li>
  * </ul>
- * 
+ *
  * <p>
  * Backpressure policy:
  * <ul>
- * <li>Buffer full → bounded blocking with 50ms timeout</li>
- * <li>Timeout → trigger controlled reconnect (NEVER drop)</li>
+ * <li>Buffer full → {@link #offer} returns false immediately</li>
+ * <li>Caller triggers controlled reconnect (NEVER drop)</li>
  * <li>Track saturation events for monitoring</li>
  * </ul>
- * 
+ *
+ * <p>
+ * {@link #clear()} may be called from any thread: it does not touch the ring
+ * but marks everything published so far as discarded, and the consumer skips
+ * those entries. The consumer spins briefly, then parks until woken; the
+ * producer unparks a parked consumer after an offer. A full fence between
+ * publishing and reading the parked flag (mirrored by the consumer's volatile
+ * flag write before it re-checks the ring) means a wake-up cannot be lost,
+ * so the park needs no timeout.
+ *
  * @since 2.0.0
  */
 public class PortfolioDataBuffer {
@@ -46,11 +55,24 @@ public class PortfolioDataBuffer {
      */
     public static final int DEFAULT_CAPACITY = 1 << 14; // 16,384
 
-    private final BlockingQueue<PortfolioUpdate> queue;
+    private static final int SPIN_TRIES = 200;
+
+    private final SpscRing<PortfolioUpdate> ring;
+    private final int capacity;
+
+    // Sequence numbers (never reset): producer-written / consumer-written
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dequeued = new AtomicLong();
+    /** Entries with sequence below this were cleared */
+    private volatile long discardBefore;
+
+    private volatile Thread consumer;
+    private volatile boolean parked;
+
+    // Statistics (reset by clear)
     private final AtomicLong saturationCount = new AtomicLong(0);
     private final AtomicLong offeredCount = new AtomicLong(0);
     private final AtomicLong consumedCount = new AtomicLong(0);
-    private final int capacity;
 
     /**
      * Creates a buffer with default capacity (16,384).
@@ -61,40 +83,58 @@ public class PortfolioDataBuffer {
 
     /**
      * Creates a buffer with specified capacity.
-     * 
-     * @param capacity the maximum number of updates to buffer
+     *
+     * @param capacity the maximum number of updates to buffer (rounded up to a
+     *                 power of two)
      * @throws IllegalArgumentException if capacity <= 0
      */
     public PortfolioDataBuffer(int capacity) {
         if (capacity <= 0) {
             throw new IllegalArgumentException("capacity must be positive");
         }
-        this.capacity = capacity;
-        this.queue = new ArrayBlockingQueue<>(capacity);
-        logger.info("PortfolioDataBuffer initialized with capacity: {}", capacity);
+        this.ring = new SpscRing<>(capacity);
+        this.capacity = ring.capacity();
+        logger.info("PortfolioDataBuffer initialized with capacity: {}", this.capacity);
     }
 
     /**
-     * Attempts to add an update to the buffer with timeout.
-     * 
-     * <p>
-     * ⚠️ CRITICAL: This method uses BOUNDED BLOCKING, not silent drops.
-     * If the buffer is full:
-     * <ol>
-     * <li>Waits up to timeout for space to become available</li>
-     * <li>If timeout expires, returns false (saturation event)</li>
-     * <li>Caller must trigger controlled reconnect</li>
-     * </ol>
-     * 
+     * Adds an update without blocking (producer thread only).
+     *
      * <p>
-     * This is the correct behavior for portfolio feeds because:
+     * ⚠️ CRITICAL: A false return is a saturation event, not a drop. The caller
+     * must trigger a controlled reconnect so state is resynced from the
+     * authoritative source:
      * <ul>
      * <li>Dropping order updates → incorrect state, wrong PnL, regulatory
      * issues</li>
      * <li>Controlled reconnect → resync from authoritative source</li>
      * <li>Metrics allow monitoring of saturation conditions</li>
      * </ul>
-     * 
+     *
+     * @param update the portfolio update to buffer
+     * @return true if added, false if the buffer is full (saturation)
+     * @throws NullPointerException if update is null
+     */
+    public boolean offer(PortfolioUpdate update) {
+        if (update == null) {
+            throw new NullPointerException("update must not be null");
+        }
+        offeredCount.incrementAndGet();
+        if (tryOffer(update)) {
+            return true;
+        }
+        recordSaturation();
+        return false;
+    }
+
+    /**
+     * Adds an update, retrying for up to {@code timeout} while the buffer is
+     * full (producer thread only).
+     *
+     * <p>
+     * The streamer uses {@link #offer}; this remains for callers that can
+     * afford to wait.
+     *
      * @param update  the portfolio update to buffer
      * @param timeout the maximum time to wait
      * @param unit    the time unit of the timeout
@@ -107,67 +147,130 @@ public class PortfolioDataBuffer {
         if (update == null) {
             throw new NullPointerException("update must not be null");
         }
-
         offeredCount.incrementAndGet();
-        boolean accepted = queue.offer(update, timeout, unit);
-
-        if (!accepted) {
-            long saturations = saturationCount.incrementAndGet();
-
-            // Log saturation events at intervals
-            if (saturations % 100 == 0) {
-                logger.warn("Buffer saturation: {} total events (buffer full at {})",
-                        saturations, capacity);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!tryOffer(update)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                recordSaturation();
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(remaining, 50_000L));
         }
+        return true;
+    }
 
-        return accepted;
+    private boolean tryOffer(PortfolioUpdate update) {
+        if (!ring.offer(update)) {
+            return false;
+        }
+        published.lazySet(published.get() + 1);
+        VarHandle.fullFence(); // order the publish before the parked read
+        if (parked) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private void recordSaturation() {
+        long saturations = saturationCount.incrementAndGet();
+
+        // Log saturation events at intervals
+        if (saturations % 100 == 0) {
+            logger.warn("Buffer saturation: {} total events (buffer full at {})",
+                    saturations, capacity);
+        }
     }
 
     /**
      * Retrieves and removes the next update, waiting if necessary.
-     * 
+     *
      * <p>
-     * This method blocks until an element is available.
      * Should only be called from the single consumer thread.
-     * 
+     *
      * @return the next portfolio update
      * @throws InterruptedException if interrupted while waiting
      */
     public PortfolioUpdate take() throws InterruptedException {
-        PortfolioUpdate update = queue.take();
-        consumedCount.incrementAndGet();
-        return update;
+        return await(Long.MAX_VALUE);
     }
 
     /**
      * Retrieves and removes the next update, waiting up to the specified time.
-     * 
+     *
      * @param timeout how long to wait before giving up
      * @param unit    the time unit of the timeout
      * @return the next update, or null if timeout elapsed
      * @throws InterruptedException if interrupted while waiting
      */
     public PortfolioUpdate poll(long timeout, TimeUnit unit) throws InterruptedException {
-        PortfolioUpdate update = queue.poll(timeout, unit);
-        if (update != null) {
-            consumedCount.incrementAndGet();
+        return await(unit.toNanos(timeout));
+    }
+
+    private PortfolioUpdate await(long timeoutNanos) throws InterruptedException {
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        consumer = Thread.currentThread();
+        int idle = 0;
+        while (true) {
+            PortfolioUpdate update = next();
+            if (update != null) {
+                return update;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long remaining = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            if (++idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            parked = true;
+            if (ring.isEmpty()) {
+                if (remaining == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+            parked = false;
+        }
+    }
+
+    /**
+     * Polls the ring, skipping entries discarded by {@link #clear()}.
+     */
+    private PortfolioUpdate next() {
+        PortfolioUpdate update;
+        while ((update = ring.poll()) != null) {
+            long seq = dequeued.get();
+            dequeued.lazySet(seq + 1);
+            if (seq >= discardBefore) {
+                consumedCount.incrementAndGet();
+                return update;
+            }
         }
-        return update;
+        return null;
     }
 
     /**
      * Gets the current number of updates in the buffer.
-     * 
+     *
      * @return the buffer size (0 to capacity)
      */
     public int size() {
-        return queue.size();
+        long head = Math.max(dequeued.get(), discardBefore);
+        return (int) Math.max(0, Math.min(published.get() - head, capacity));
     }
 
     /**
      * Gets the buffer capacity.
-     * 
+     *
      * @return the maximum buffer size
      */
     public int getCapacity() {
@@ -176,7 +279,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Gets the current buffer utilization as a percentage.
-     * 
+     *
      * @return 0.0 to 100.0 representing buffer fill percentage
      */
     public double getUtilizationPercent() {
@@ -185,7 +288,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Checks if buffer utilization is high (>70%).
-     * 
+     *
      * @return true if buffer is >70% full
      */
     public boolean isHighUtilization() {
@@ -194,7 +297,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Checks if buffer utilization is critical (>90%).
-     * 
+     *
      * @return true if buffer is >90% full
      */
     public boolean isCriticalUtilization() {
@@ -203,16 +306,16 @@ public class PortfolioDataBuffer {
 
     /**
      * Checks if buffer is saturated (full).
-     * 
+     *
      * @return true if no space available
      */
     public boolean isSaturated() {
-        return size() >= capacity;
+        return ring.size() >= capacity;
     }
 
     /**
      * Gets the total number of updates offered to the buffer.
-     * 
+     *
      * @return total offered count
      */
     public long getOfferedCount() {
@@ -221,7 +324,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Gets the total number of updates consumed from the buffer.
-     * 
+     *
      * @return total consumed count
      */
     public long getConsumedCount() {
@@ -230,11 +333,12 @@ public class PortfolioDataBuffer {
 
     /**
      * Gets the total number of saturation events.
-     * 
+     *
      * <p>
      * ⚠️ This is NOT a drop count. Portfolio events are never dropped.
-     * Saturation events indicate timeout occurred, triggering controlled reconnect.
-     * 
+     * Saturation events indicate the buffer was full, triggering controlled
+     * reconnect.
+     *
      * @return total saturation event count
      */
     public long getSaturationCount() {
@@ -243,7 +347,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Gets the saturation rate as a percentage of offered updates.
-     * 
+     *
      * @return 0.0 to 100.0 representing saturation percentage
      */
     public double getSaturationRatePercent() {
@@ -255,11 +359,11 @@ public class PortfolioDataBuffer {
     }
 
     /**
-     * Clears all pending updates and resets metrics.
-     * For testing and recovery purposes.
+     * Discards all pending updates and resets metrics.
+     * For testing and recovery purposes; safe from any thread.
      */
     public void clear() {
-        queue.clear();
+        discardBefore = published.get();
         saturationCount.set(0);
         offeredCount.set(0);
         consumedCount.set(0);
@@ -268,7 +372,7 @@ public class PortfolioDataBuffer {
 
     /**
      * Gets buffer statistics for monitoring.
-     * 
+     *
      * @return statistics object
      */
     public BufferStatistics getStatistics() {
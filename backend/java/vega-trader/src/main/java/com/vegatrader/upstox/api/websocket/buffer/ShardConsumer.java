@@ -0,0 +1,78 @@
+package com.vegatrader.upstox.api.websocket.buffer;
+
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+import com.vegatrader.upstox.api.websocket.bus.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Worker that owns one shard of a {@link ShardedMarketDataBuffer} and
+ * publishes its updates to the event bus in arrival order.
+ * 
+ * <p>
+ * Idle strategy: spin briefly, then park. The producer unparks a parked
+ * consumer after an offer; the park is also bounded, so a wake-up lost to
+ * a race costs at most {@code PARK_NANOS} of latency.
+ * 
+ * @since 3.1.0
+ */
+public class ShardConsumer implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardConsumer.class);
+
+    private static final int SPIN_TRIES = 200;
+    private static final long PARK_NANOS = 100_000L; // 100 us
+
+    private final ShardedMarketDataBuffer.Shard shard;
+    private final EventBus eventBus;
+
+    ShardConsumer(ShardedMarketDataBuffer.Shard shard, EventBus eventBus) {
+        if (eventBus == null) {
+            throw new NullPointerException("eventBus must not be null");
+        }
+        this.shard = shard;
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public void run() {
+        shard.consumer = Thread.currentThread();
+        logger.info("ShardConsumer [shard-{}] started", shard.index);
+
+        SpscRing<MarketUpdateV3> ring = shard.ring;
+        int idle = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                MarketUpdateV3 update = ring.poll();
+                if (update != null) {
+                    idle = 0;
+                    long start = System.nanoTime();
+                    try {
+                        eventBus.publish(update);
+                    } catch (RuntimeException e) {
+                        // One bad tick must not stop the shard
+                        logger.error("ShardConsumer [shard-{}] publish failed: {}", shard.index, e.getMessage(), e);
+                    }
+                    shard.recordProcessed(System.nanoTime() - start);
+                    continue;
+                }
+
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                shard.parked = true;
+                if (ring.isEmpty()) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                shard.parked = false;
+            }
+        } finally {
+            shard.consumer = null;
+            logger.info("ShardConsumer [shard-{}] stopped", shard.index);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.vegatrader.upstox.api.websocket.buffer;
+
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+import com.vegatrader.upstox.api.websocket.bus.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Instrument-affinity sharded buffer for market data updates.
+ * 
+ * <p>
+ * Each instrument key hashes to exactly one shard, and each shard is a
+ * {@link SpscRing} drained by exactly one {@link ShardConsumer}. All updates
+ * for an instrument therefore pass through one FIFO and one thread, so
+ * subscribers never see a newer tick for an instrument before an older one,
+ * while different instruments are processed in parallel without a shared
+ * queue lock.
+ * 
+ * <p>
+ * Same backpressure policy as {@link MarketDataBuffer}: {@link #offer} never
+ * blocks; a full shard drops the tick and counts it.
+ * 
+ * <p>
+ * Threading: {@link #offer} must be called from a single producer thread
+ * (the WebSocket reader).
+ * 
+ * @since 3.1.0
+ */
+public class ShardedMarketDataBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedMarketDataBuffer.class);
+
+    private final Shard[] shards;
+    private final int capacity;
+
+    /**
+     * Creates a buffer with {@code shardCount} shards sharing
+     * {@code totalCapacity} (each shard rounded up to a power of two).
+     */
+    public ShardedMarketDataBuffer(int shardCount, int totalCapacity) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        if (totalCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int perShard = Math.max(1, (totalCapacity + shardCount - 1) / shardCount);
+        this.shards = new Shard[shardCount];
+        int total = 0;
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, perShard);
+            total += shards[i].ring.capacity();
+        }
+        this.capacity = total;
+        logger.info("ShardedMarketDataBuffer initialized: {} shards x {} slots", shardCount,
+                shards[0].ring.capacity());
+    }
+
+    /**
+     * Routes an update to its instrument's shard (non-blocking). Updates
+     * carrying several instruments are split first, so each instrument's
+     * feed lands in its own shard.
+     * 
+     * @return true if every part was added, false if any was dropped
+     */
+    public boolean offer(MarketUpdateV3 update) {
+        if (update == null) {
+            throw new NullPointerException("update must not be null");
+        }
+        if (update.getFeedCount() <= 1) {
+            return offer(shards[shardOf(update.getInstrumentKey())], update);
+        }
+        boolean accepted = true;
+        for (MarketUpdateV3 part : update.splitByInstrument()) {
+            accepted &= offer(shards[shardOf(part.getInstrumentKey())], part);
+        }
+        return accepted;
+    }
+
+    private boolean offer(Shard shard, MarketUpdateV3 update) {
+        shard.offered.lazySet(shard.offered.get() + 1);
+
+        if (!shard.ring.offer(update)) {
+            long dropped = shard.dropped.get() + 1;
+            shard.dropped.lazySet(dropped);
+            if (dropped % 1000 == 0) {
+                logger.warn("Backpressure: shard {} dropped {} ticks (capacity {})",
+                        shard.index, dropped, shard.ring.capacity());
+            }
+            return false;
+        }
+
+        if (shard.parked) {
+            LockSupport.unpark(shard.consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Shard index for an instrument key.
+     */
+    public int shardOf(String instrumentKey) {
+        if (instrumentKey == null) {
+            return 0;
+        }
+        int h = instrumentKey.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * Consumer for shard {@code index}; submit exactly one per shard.
+     */
+    public ShardConsumer consumer(int index, EventBus eventBus) {
+        return new ShardConsumer(shards[index], eventBus);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.ring.size();
+        }
+        return size;
+    }
+
+    /**
+     * Aggregate statistics across shards.
+     */
+    public MarketDataBuffer.BufferStatistics getStatistics() {
+        long offered = 0, consumed = 0, dropped = 0;
+        for (Shard shard : shards) {
+            offered += shard.offered.get();
+            consumed += shard.consumed.get();
+            dropped += shard.dropped.get();
+        }
+        int size = size();
+        return new MarketDataBuffer.BufferStatistics(
+                capacity,
+                size,
+                offered,
+                consumed,
+                dropped,
+                (size * 100.0) / capacity,
+                offered == 0 ? 0.0 : (dropped * 100.0) / offered);
+    }
+
+    /**
+     * Per-shard queue depth and processing-time statistics.
+     */
+    public List<ShardStatistics> getShardStatistics() {
+        List<ShardStatistics> stats = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            long processed = shard.consumed.get();
+            stats.add(new ShardStatistics(
+                    shard.index,
+                    shard.ring.size(),
+                    shard.ring.capacity(),
+                    shard.offered.get(),
+                    processed,
+                    shard.dropped.get(),
+                    processed == 0 ? 0.0 : shard.processingNanos.get() / 1000.0 / processed,
+                    shard.maxProcessingNanos.get() / 1000.0));
+        }
+        return stats;
+    }
+
+    /**
+     * One shard: ring plus single-writer counters.
+     */
+    static final class Shard {
+        final int index;
+        final SpscRing<MarketUpdateV3> ring;
+
+        // Producer-written
+        final AtomicLong offered = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+
+        // Consumer-written
+        final AtomicLong consumed = new AtomicLong();
+        final AtomicLong processingNanos = new AtomicLong();
+        final AtomicLong maxProcessingNanos = new AtomicLong();
+
+        volatile Thread consumer;
+        volatile boolean parked;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.ring = new SpscRing<>(capacity);
+        }
+
+        void recordProcessed(long nanos) {
+            consumed.lazySet(consumed.get() + 1);
+            processingNanos.lazySet(processingNanos.get() + nanos);
+            if (nanos > maxProcessingNanos.get()) {
+                maxProcessingNanos.lazySet(nanos);
+            }
+        }
+    }
+
+    /**
+     * Shard statistics snapshot.
+     */
+    public record ShardStatistics(
+            int shard,
+            int depth,
+            int capacity,
+            long offered,
+            long consumed,
+            long dropped,
+            double avgProcessingMicros,
+            double maxProcessingMicros) {
+    }
+}
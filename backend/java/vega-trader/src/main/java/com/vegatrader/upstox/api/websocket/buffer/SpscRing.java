@@ -0,0 +1,110 @@
+package com.vegatrader.upstox.api.websocket.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded single-producer / single-consumer ring.
+ * 
+ * <p>
+ * Lock-free: the producer owns {@code tail}, the consumer owns {@code head},
+ * and each publishes its index with a release store. Each side caches the
+ * other's index and only re-reads it when the cached value says the ring is
+ * full (producer) or empty (consumer), so the common path touches no shared
+ * cache line.
+ * 
+ * <p>
+ * Contract: {@link #offer} from exactly one thread, {@link #poll} from
+ * exactly one (other) thread. {@link #size} may be called from anywhere and
+ * is approximate.
+ * 
+ * @param <E> element type
+ * @since 3.1.0
+ */
+public final class SpscRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+
+    // Padded so head and tail do not share a cache line
+    private final AtomicLong tail = new PaddedAtomicLong();
+    private final AtomicLong head = new PaddedAtomicLong();
+
+    // Producer-local / consumer-local caches of the other side's index
+    private long headCache;
+    private long tailCache;
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public SpscRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element (producer thread only).
+     * 
+     * @return false if the ring is full
+     */
+    public boolean offer(E element) {
+        long t = tail.get();
+        if (t - headCache > mask) {
+            headCache = head.get();
+            if (t - headCache > mask) {
+                return false;
+            }
+        }
+        slots.lazySet((int) t & mask, element);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element (consumer thread only).
+     * 
+     * @return the element, or null if empty
+     */
+    public E poll() {
+        long h = head.get();
+        if (h >= tailCache) {
+            tailCache = tail.get();
+            if (h >= tailCache) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Approximate number of queued elements.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1L));
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong extends AtomicLong {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -21,11 +21,13 @@ package com.vegatrader.upstox.api.websocket.bus;
 public interface EventBus {
 
     /**
-     * Publishes an event to all subscribers of its type.
+     * Publishes an event to all subscribers of its type or any of its
+     * supertypes.
      * 
      * <p>
-     * This operation should be non-blocking and fail-fast. Subscribers
-     * are notified synchronously on the calling thread.
+     * This operation should be non-blocking and fail-fast. Synchronous
+     * subscribers are notified on the calling thread; async subscribers
+     * receive the event through their own lane.
      * 
      * @param <T>   the event type
      * @param event the event to publish (must not be null)
@@ -50,4 +52,49 @@ public interface EventBus {
      * @throws NullPointerException if eventType or subscriber is null
      */
     <T> void subscribe(Class<T> eventType, EventSubscriber<T> subscriber);
+
+    /**
+     * Publishes a batch of events in iteration order (e.g. replay). Null
+     * elements are skipped, so one bad entry does not abort the batch.
+     * 
+     * @param events the events to publish
+     * @throws NullPointerException if events is null
+     */
+    default void publishAll(Iterable<?> events) {
+        for (Object event : events) {
+            if (event != null) {
+                publish(event);
+            }
+        }
+    }
+
+    /**
+     * Subscribes with a dedicated async lane: events are queued in a bounded
+     * ring and handled on the lane's own thread, so a slow subscriber never
+     * blocks the publisher. When the lane is full the event is dropped for
+     * that subscriber only.
+     * 
+     * <p>
+     * Implementations without lanes fall back to {@link #subscribe}.
+     * 
+     * @param <T>        the event type
+     * @param name       lane name, used for the thread and metrics
+     * @param eventType  the class of events to subscribe to
+     * @param capacity   lane capacity
+     * @param subscriber the subscriber callback
+     */
+    default <T> void subscribeAsync(String name, Class<T> eventType, int capacity,
+            EventSubscriber<T> subscriber) {
+        subscribe(eventType, subscriber);
+    }
+
+    /**
+     * Removes every registration of the subscriber.
+     * 
+     * @param subscriber the subscriber callback
+     * @return true if it was registered
+     */
+    default boolean unsubscribe(EventSubscriber<?> subscriber) {
+        return false;
+    }
 }
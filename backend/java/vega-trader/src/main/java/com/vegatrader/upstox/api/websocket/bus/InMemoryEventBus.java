@@ -1,42 +1,55 @@
 package com.vegatrader.upstox.api.websocket.bus;
 
+import com.vegatrader.upstox.api.websocket.buffer.MpscRing;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 import org.springframework.stereotype.Component;
 
 /**
  * Thread-safe in-memory event bus implementation.
- * 
+ *
  * <p>
  * Features:
  * <ul>
  * <li>Thread-safe for concurrent publish and subscribe</li>
- * <li>Type-safe event routing</li>
- * <li>Zero external dependencies</li>
- * <li>O(1) lookup for event types</li>
+ * <li>Type-hierarchy routing: a subscriber to {@code T} receives every event
+ * assignable to {@code T} (superclasses and interfaces)</li>
+ * <li>Optional async lanes so slow subscribers never backpressure the
+ * publisher</li>
+ * <li>Per-subscriber delivery, error, latency and drop metrics</li>
  * </ul>
- * 
+ *
  * <p>
- * Thread-safety implementation:
+ * Dispatch implementation:
  * <ul>
- * <li>ConcurrentHashMap for event type → subscriber list mapping</li>
- * <li>CopyOnWriteArrayList for subscriber lists (optimized for reads)</li>
+ * <li>Registrations live in a CopyOnWriteArrayList (registration order)</li>
+ * <li>Per concrete event class, the matching registrations are resolved once
+ * into an array and cached; publish is one map lookup and an indexed loop
+ * with no allocation</li>
+ * <li>Subscribe/unsubscribe swap in an empty cache so tables are rebuilt
+ * lazily</li>
  * </ul>
- * 
+ *
  * <p>
- * Performance characteristics:
- * <ul>
- * <li>Publish: O(n) where n = number of subscribers for event type</li>
- * <li>Subscribe: O(1) amortized</li>
- * <li>Memory: Bounded by number of event types × subscribers</li>
- * </ul>
- * 
+ * Async lanes: each lane is a bounded {@link MpscRing} drained by its own
+ * daemon thread (spin, then park). A full lane drops the event for that
+ * subscriber and counts it; other subscribers and the publisher are not
+ * affected. Events from one publisher thread reach a lane in publish order.
+ * The publisher's tail update and parked-flag read and the lane's flag write
+ * and emptiness check are all volatile, so a wake-up cannot be lost and an
+ * idle lane parks until an event or {@code stop} unparks it.
+ *
  * @since 3.1.0
  */
 @Component
@@ -44,19 +57,28 @@ public class InMemoryEventBus implements EventBus {
 
     private static final Logger logger = LoggerFactory.getLogger(InMemoryEventBus.class);
 
-    /**
-     * Map of event type -> list of subscribers.
-     * ConcurrentHashMap allows concurrent reads/writes to the map itself.
-     * CopyOnWriteArrayList allows concurrent iteration during publish.
-     */
-    private final Map<Class<?>, List<EventSubscriber<?>>> subscribers = new ConcurrentHashMap<>();
+    private static final Registration[] NONE = new Registration[0];
+
+    /** Default async lane capacity */
+    public static final int DEFAULT_LANE_CAPACITY = 1 << 14;
+
+    /** Log the first failure of a subscriber, then every Nth */
+    private static final long ERROR_LOG_INTERVAL = 1000;
+
+    /** All registrations in subscription order */
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    /** Concrete event class -> matching registrations; replaced on change */
+    private volatile Map<Class<?>, Registration[]> dispatch = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong();
 
     /**
      * Subscribes to events of a specific type.
-     * 
+     *
      * <p>
      * Thread-safe: Can be called concurrently with publish operations.
-     * 
+     *
      * @param <T>        the event type
      * @param eventType  the class of events to subscribe to
      * @param subscriber the subscriber callback
@@ -64,85 +86,381 @@ public class InMemoryEventBus implements EventBus {
      */
     @Override
     public <T> void subscribe(Class<T> eventType, EventSubscriber<T> subscriber) {
+        subscribe(null, eventType, subscriber);
+    }
+
+    /**
+     * Subscribes synchronously under a name used in metrics.
+     *
+     * @param name       metrics name (defaults to the event type and an id)
+     * @param eventType  the class of events to subscribe to
+     * @param subscriber the subscriber callback
+     */
+    public <T> void subscribe(String name, Class<T> eventType, EventSubscriber<T> subscriber) {
+        register(name, eventType, subscriber, 0);
+    }
+
+    /**
+     * Subscribes with a dedicated async lane.
+     *
+     * @param name       lane name, used for the thread and metrics
+     * @param eventType  the class of events to subscribe to
+     * @param capacity   lane capacity (rounded up to a power of two)
+     * @param subscriber the subscriber callback
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    @Override
+    public <T> void subscribeAsync(String name, Class<T> eventType, int capacity,
+            EventSubscriber<T> subscriber) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        register(name, eventType, subscriber, capacity);
+    }
+
+    private void register(String name, Class<?> eventType, EventSubscriber<?> subscriber, int laneCapacity) {
         if (eventType == null) {
             throw new NullPointerException("eventType must not be null");
         }
         if (subscriber == null) {
             throw new NullPointerException("subscriber must not be null");
         }
+        long id = nextId.incrementAndGet();
+        if (name == null) {
+            name = eventType.getSimpleName() + "#" + id;
+        }
+        Registration registration = new Registration(name, eventType, subscriber);
+        if (laneCapacity > 0) {
+            registration.lane = new Lane(registration, laneCapacity);
+            registration.lane.start();
+        }
+        registrations.add(registration);
+        invalidate();
+
+        logger.debug("Subscriber '{}' registered for event type: {}{}", name, eventType.getSimpleName(),
+                laneCapacity > 0 ? " (async, capacity " + registration.lane.ring.capacity() + ")" : "");
+    }
 
-        subscribers
-                .computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>())
-                .add(subscriber);
+    /**
+     * Removes every registration of the subscriber and stops its lanes.
+     *
+     * @param subscriber the subscriber callback
+     * @return true if it was registered
+     */
+    @Override
+    public boolean unsubscribe(EventSubscriber<?> subscriber) {
+        List<Registration> removed = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (registration.subscriber == subscriber) {
+                removed.add(registration);
+            }
+        }
+        if (removed.isEmpty()) {
+            return false;
+        }
+        registrations.removeAll(removed);
+        invalidate();
+        for (Registration registration : removed) {
+            if (registration.lane != null) {
+                registration.lane.stop();
+            }
+        }
+        return true;
+    }
 
-        logger.debug("Subscriber registered for event type: {}", eventType.getSimpleName());
+    private void invalidate() {
+        dispatch = new ConcurrentHashMap<>();
     }
 
     /**
-     * Publishes an event to all subscribers of its type.
-     * 
+     * Publishes an event to all subscribers of its type or its supertypes.
+     *
      * <p>
      * Thread-safe: Can be called concurrently from multiple threads.
-     * 
+     *
      * <p>
-     * Subscribers are notified synchronously on the calling thread.
-     * If a subscriber throws an exception, it is logged and other subscribers
-     * continue to receive the event.
-     * 
+     * Synchronous subscribers are notified on the calling thread in
+     * registration order. If a subscriber throws an exception, it is counted
+     * and logged and other subscribers continue to receive the event.
+     *
      * @param <T>   the event type
      * @param event the event to publish
      * @throws NullPointerException if event is null
      */
     @Override
-    @SuppressWarnings("unchecked")
     public <T> void publish(T event) {
         if (event == null) {
             throw new NullPointerException("event must not be null");
         }
+        deliver(targetsFor(event.getClass()), event);
+    }
+
+    /**
+     * Publishes a batch in iteration order, reusing the dispatch table while
+     * consecutive events share a class. Null elements are skipped and logged,
+     * so one bad entry does not abort the rest of a replay.
+     *
+     * @param events the events to publish
+     * @throws NullPointerException if events is null
+     */
+    @Override
+    public void publishAll(Iterable<?> events) {
+        Class<?> lastType = null;
+        Registration[] targets = NONE;
+        int skipped = 0;
+        for (Object event : events) {
+            if (event == null) {
+                skipped++;
+                continue;
+            }
+            if (event.getClass() != lastType) {
+                lastType = event.getClass();
+                targets = targetsFor(lastType);
+            }
+            deliver(targets, event);
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} null event(s) in a published batch", skipped);
+        }
+    }
 
-        Class<?> eventType = event.getClass();
-        List<EventSubscriber<?>> subs = subscribers.get(eventType);
+    private Registration[] targetsFor(Class<?> type) {
+        Map<Class<?>, Registration[]> table = dispatch;
+        Registration[] targets = table.get(type);
+        if (targets == null) {
+            targets = table.computeIfAbsent(type, this::resolve);
+        }
+        return targets;
+    }
 
-        if (subs != null && !subs.isEmpty()) {
-            for (EventSubscriber<?> sub : subs) {
-                try {
-                    ((EventSubscriber<T>) sub).handle(event);
-                } catch (Exception e) {
-                    logger.error("Subscriber failed to handle event of type {}: {}",
-                            eventType.getSimpleName(), e.getMessage(), e);
-                    // Continue notifying other subscribers
-                }
+    private Registration[] resolve(Class<?> type) {
+        List<Registration> matches = new ArrayList<>();
+        for (Registration registration : registrations) {
+            if (registration.eventType.isAssignableFrom(type)) {
+                matches.add(registration);
+            }
+        }
+        if (matches.isEmpty()) {
+            logger.trace("No subscribers for event type: {}", type.getSimpleName());
+            return NONE;
+        }
+        return matches.toArray(NONE);
+    }
+
+    private static void deliver(Registration[] targets, Object event) {
+        for (Registration registration : targets) {
+            Lane lane = registration.lane;
+            if (lane == null) {
+                registration.invoke(event);
+            } else {
+                lane.offer(event);
             }
-        } else {
-            logger.trace("No subscribers for event type: {}", eventType.getSimpleName());
         }
     }
 
     /**
-     * Gets the number of subscribers for a specific event type.
-     * 
+     * Gets the number of subscribers an event of this class is delivered to,
+     * including subscribers of its supertypes.
+     *
      * @param eventType the event type
      * @return the number of subscribers, or 0 if no subscribers
      */
     public int getSubscriberCount(Class<?> eventType) {
-        List<EventSubscriber<?>> subs = subscribers.get(eventType);
-        return subs != null ? subs.size() : 0;
+        return targetsFor(eventType).length;
     }
 
     /**
      * Gets the total number of distinct event types with subscribers.
-     * 
+     *
      * @return the number of registered event types
      */
     public int getEventTypeCount() {
-        return subscribers.size();
+        return (int) registrations.stream().map(r -> r.eventType).distinct().count();
     }
 
     /**
-     * Clears all subscribers (for testing purposes).
+     * Gets per-subscriber metrics in registration order.
+     *
+     * @return one snapshot per registration
+     */
+    public List<SubscriberStatistics> getSubscriberStatistics() {
+        List<SubscriberStatistics> stats = new ArrayList<>(registrations.size());
+        for (Registration registration : registrations) {
+            stats.add(registration.snapshot());
+        }
+        return stats;
+    }
+
+    /**
+     * Clears all subscribers and stops their lanes (for testing purposes).
      */
     public void clear() {
-        subscribers.clear();
+        List<Registration> removed = new ArrayList<>(registrations);
+        registrations.clear();
+        invalidate();
+        stopLanes(removed);
         logger.debug("All subscribers cleared");
     }
+
+    /**
+     * Stops all async lanes; pending lane events are discarded.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopLanes(registrations);
+    }
+
+    private static void stopLanes(List<Registration> list) {
+        for (Registration registration : list) {
+            if (registration.lane != null) {
+                registration.lane.stop();
+            }
+        }
+    }
+
+    /**
+     * A subscriber with its metrics and optional lane.
+     */
+    private static final class Registration {
+        final String name;
+        final Class<?> eventType;
+        final EventSubscriber<?> subscriber;
+        Lane lane;
+
+        final LongAdder delivered = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Registration(String name, Class<?> eventType, EventSubscriber<?> subscriber) {
+            this.name = name;
+            this.eventType = eventType;
+            this.subscriber = subscriber;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        void invoke(Object event) {
+            long start = System.nanoTime();
+            try {
+                ((EventSubscriber) subscriber).handle(event);
+            } catch (Exception e) {
+                errors.increment();
+                long count = errors.sum();
+                if (count == 1 || count % ERROR_LOG_INTERVAL == 0) {
+                    logger.error("Subscriber '{}' failed to handle event of type {} ({} failures): {}",
+                            name, event.getClass().getSimpleName(), count, e.getMessage(), e);
+                }
+                // Continue notifying other subscribers
+            }
+            long elapsed = System.nanoTime() - start;
+            delivered.increment();
+            totalNanos.add(elapsed);
+            if (elapsed > maxNanos.get()) {
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        }
+
+        SubscriberStatistics snapshot() {
+            long count = delivered.sum();
+            return new SubscriberStatistics(
+                    name,
+                    eventType.getSimpleName(),
+                    lane != null,
+                    count,
+                    errors.sum(),
+                    lane != null ? lane.dropped.sum() : 0,
+                    lane != null ? lane.ring.size() : 0,
+                    count == 0 ? 0 : totalNanos.sum() / count / 1_000.0,
+                    maxNanos.get() / 1_000.0);
+        }
+    }
+
+    /**
+     * Bounded async lane with its own consumer thread.
+     */
+    private static final class Lane implements Runnable {
+        private static final int SPIN_TRIES = 200;
+
+        final MpscRing<Object> ring;
+        final LongAdder dropped = new LongAdder();
+        private final Registration registration;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean parked;
+
+        Lane(Registration registration, int capacity) {
+            this.registration = registration;
+            this.ring = new MpscRing<>(capacity);
+            this.thread = new Thread(this, "event-lane-" + registration.name);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void offer(Object event) {
+            if (!running || !ring.offer(event)) {
+                dropped.increment();
+                long drops = dropped.sum();
+                if (drops == 1 || drops % ERROR_LOG_INTERVAL == 0) {
+                    logger.warn("Event lane '{}' full, {} events dropped", registration.name, drops);
+                }
+                return;
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                Object event = ring.poll();
+                if (event != null) {
+                    registration.invoke(event);
+                    idle = 0;
+                    continue;
+                }
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                parked = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Immutable per-subscriber metrics snapshot.
+     *
+     * @param name      registration name
+     * @param eventType subscribed event type
+     * @param async     whether the subscriber has its own lane
+     * @param delivered events handled (including failures)
+     * @param errors    events whose handler threw
+     * @param dropped   events dropped because the lane was full
+     * @param queued    events waiting in the lane
+     * @param avgMicros mean handler latency
+     * @param maxMicros worst handler latency
+     */
+    public record SubscriberStatistics(String name, String eventType, boolean async,
+            long delivered, long errors, long dropped, int queued,
+            double avgMicros, double maxMicros) {
+    }
 }
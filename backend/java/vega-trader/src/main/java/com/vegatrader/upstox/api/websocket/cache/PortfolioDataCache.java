@@ -1,10 +1,19 @@
 package com.vegatrader.upstox.api.websocket.cache;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.vegatrader.upstox.api.response.websocket.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -12,41 +21,107 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Timestamp-aware cache for portfolio data with last-write-wins semantics.
- * 
+ * Versioned, event-sourced store for portfolio state.
+ *
  * <p>
- * ⚠️ CRITICAL: This cache uses timestamp-based correctness, NOT TTL-based.
- * 
+ * ⚠️ CRITICAL: Correctness is timestamp/version based, NOT TTL based.
+ *
  * <p>
  * Key characteristics:
  * <ul>
- * <li>Separate caches for orders, holdings, positions, GTT</li>
- * <li>Last-write-wins based on timestamp comparison</li>
- * <li>Out-of-order updates are rejected and logged</li>
- * <li>TTL is for cleanup only, not correctness</li>
- * <li>Thread-safe</li>
+ * <li>Separate segments for orders, holdings, positions, GTT</li>
+ * <li>Every accepted change gets a store-wide sequence number and a per-key
+ * version (1, 2, 3, ...); both only ever increase</li>
+ * <li>Feed updates are applied atomically per key; out-of-order updates
+ * (older timestamp) are rejected</li>
+ * <li>{@link #compareAndSet} for callers that must not overwrite a change
+ * they have not seen</li>
+ * <li>LRU/TTL eviction in O(1) per entry: each segment keeps entries in
+ * last-write order, so the eldest entry is always at the head and no scan
+ * is needed</li>
+ * <li>Change feed: {@link #changesSince(long)} returns the deltas after a
+ * sequence, or a full snapshot if the reader has fallen out of the
+ * retained window</li>
+ * <li>{@link #snapshotTo(Path)} / {@link #restoreFrom(Path)} for a warm
+ * start without waiting for the feed to replay</li>
  * </ul>
- * 
+ *
+ * <p>
+ * Reads are lock-free; writes lock one segment and, briefly, the change log.
+ * LRU/TTL evictions are memory management only and are not published to the
+ * change feed.
+ *
  * @since 2.0.0
  */
 public class PortfolioDataCache {
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioDataCache.class);
 
-    private final Map<String, TimestampedValue<OrderUpdate>> orders;
-    private final Map<String, TimestampedValue<HoldingUpdate>> holdings;
-    private final Map<String, TimestampedValue<PositionUpdate>> positions;
-    private final Map<String, TimestampedValue<GttUpdate>> gtt;
+    /** Changes kept for incremental readers */
+    public static final int DEFAULT_FEED_CAPACITY = 4096;
+
+    /** Expired entries removed inline per write; the timer handles the rest */
+    private static final int INLINE_EXPIRY_BUDGET = 8;
+
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    /** Portfolio entity kinds. */
+    public enum Kind {
+        ORDER(OrderUpdate.class),
+        HOLDING(HoldingUpdate.class),
+        POSITION(PositionUpdate.class),
+        GTT(GttUpdate.class);
+
+        private final Class<?> type;
+
+        Kind(Class<?> type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * One accepted change.
+     *
+     * @param sequence  store-wide sequence
+     * @param kind      entity kind
+     * @param key       entity key (order id, instrument key, instrument:product,
+     *                  GTT id)
+     * @param version   per-key version after this change
+     * @param timestamp update timestamp
+     * @param value     the update DTO
+     */
+    public record Change(long sequence, Kind kind, String key, long version, long timestamp, Object value) {
+    }
+
+    /**
+     * Result of {@link #changesSince(long)}.
+     *
+     * @param fromSequence sequence the reader asked from
+     * @param toSequence   sequence to ask from next time
+     * @param full         true if {@code changes} is a full snapshot (reader was
+     *                     too far behind or the store was cleared); replace
+     *                     local state instead of merging
+     * @param changes      changes in sequence order
+     */
+    public record ChangeSet(long fromSequence, long toSequence, boolean full, List<Change> changes) {
+    }
+
+    private final EnumMap<Kind, Segment> segments = new EnumMap<>(Kind.class);
+    private final ChangeLog changeLog;
 
     private final int ttlSeconds;
     private final int maxSize;
     private final boolean enabled;
     private final ScheduledExecutorService cleanupExecutor;
+    private final Gson gson = new Gson();
 
     // Metrics
     private final AtomicLong hitCount = new AtomicLong(0);
     private final AtomicLong missCount = new AtomicLong(0);
     private final AtomicLong outOfOrderRejections = new AtomicLong(0);
+    private final AtomicLong casFailures = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong expirations = new AtomicLong(0);
 
     /**
      * Creates cache with default settings (enabled, 3600s TTL, 10000 max size).
@@ -57,23 +132,35 @@ public class PortfolioDataCache {
 
     /**
      * Creates cache with specified settings.
-     * 
+     *
      * @param ttlSeconds time-to-live for cleanup (NOT correctness)
      * @param maxSize    maximum entries per cache type
      * @param enabled    whether caching is enabled
      */
     public PortfolioDataCache(int ttlSeconds, int maxSize, boolean enabled) {
+        this(ttlSeconds, maxSize, enabled, DEFAULT_FEED_CAPACITY);
+    }
+
+    /**
+     * Creates cache with specified settings and change-feed window.
+     *
+     * @param feedCapacity number of recent changes kept for
+     *                     {@link #changesSince(long)}
+     */
+    public PortfolioDataCache(int ttlSeconds, int maxSize, boolean enabled, int feedCapacity) {
+        if (feedCapacity <= 0) {
+            throw new IllegalArgumentException("feedCapacity must be positive");
+        }
         this.ttlSeconds = ttlSeconds;
         this.maxSize = maxSize;
         this.enabled = enabled;
-
-        this.orders = new ConcurrentHashMap<>();
-        this.holdings = new ConcurrentHashMap<>();
-        this.positions = new ConcurrentHashMap<>();
-        this.gtt = new ConcurrentHashMap<>();
+        this.changeLog = new ChangeLog(feedCapacity);
+        for (Kind kind : Kind.values()) {
+            segments.put(kind, new Segment());
+        }
 
         if (enabled) {
-            // Start cleanup thread - runs every TTL/2 seconds
+            // Expiry timer - runs every TTL/2 seconds, touches only expired entries
             this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
                 Thread t = new Thread(r);
                 t.setName("PortfolioCache-Cleanup");
@@ -81,13 +168,11 @@ public class PortfolioDataCache {
                 return t;
             });
 
-            cleanupExecutor.scheduleAtFixedRate(
-                    this::cleanupExpired,
-                    ttlSeconds / 2,
-                    ttlSeconds / 2,
-                    TimeUnit.SECONDS);
+            long period = Math.max(1, ttlSeconds / 2);
+            cleanupExecutor.scheduleAtFixedRate(this::cleanupExpired, period, period, TimeUnit.SECONDS);
 
-            logger.info("PortfolioDataCache initialized: ttl={}s, maxSize={}", ttlSeconds, maxSize);
+            logger.info("PortfolioDataCache initialized: ttl={}s, maxSize={}, feed={}", ttlSeconds, maxSize,
+                    feedCapacity);
         } else {
             this.cleanupExecutor = null;
             logger.info("PortfolioDataCache disabled");
@@ -97,231 +182,194 @@ public class PortfolioDataCache {
     // Order cache methods
 
     /**
-     * Puts an order update in cache with timestamp validation.
-     * 
+     * Applies an order update with timestamp validation.
+     *
      * <p>
      * ⚠️ CRITICAL: Rejects out-of-order updates based on timestamp.
-     * 
+     *
      * @param update the order update
      */
     public void putOrder(OrderUpdate update) {
-        if (!enabled || update == null || update.getOrderId() == null) {
-            return;
-        }
-
-        String key = update.getOrderId();
-        long timestamp = update.getTimestamp() != null ? update.getTimestamp() : System.currentTimeMillis();
-
-        TimestampedValue<OrderUpdate> cached = orders.get(key);
-
-        // Reject out-of-order updates
-        if (cached != null && timestamp < cached.timestamp) {
-            long rejections = outOfOrderRejections.incrementAndGet();
-            if (rejections % 100 == 0) {
-                logger.warn(
-                        "Rejecting out-of-order order update: orderId={}, incoming={}, cached={} (total rejections: {})",
-                        key, timestamp, cached.timestamp, rejections);
-            }
-            return; // IGNORE
+        if (update != null) {
+            apply(Kind.ORDER, update.getOrderId(), update, update.getTimestamp());
         }
-
-        // Last-write-wins based on timestamp
-        orders.put(key, new TimestampedValue<>(update, timestamp));
-        enforceSizeLimit(orders, maxSize);
     }
 
     /**
      * Gets an order update from cache.
-     * 
+     *
      * @param orderId the order ID
      * @return the order update, or null if not found
      */
     public OrderUpdate getOrder(String orderId) {
-        if (!enabled || orderId == null) {
-            return null;
-        }
-
-        TimestampedValue<OrderUpdate> cached = orders.get(orderId);
-        if (cached != null) {
-            hitCount.incrementAndGet();
-            return cached.value;
-        }
-
-        missCount.incrementAndGet();
-        return null;
+        return get(Kind.ORDER, orderId, OrderUpdate.class);
     }
 
     // Holding cache methods
 
     /**
-     * Puts a holding update in cache with timestamp validation.
-     * 
+     * Applies a holding update with timestamp validation.
+     *
      * @param update the holding update
      */
     public void putHolding(HoldingUpdate update) {
-        if (!enabled || update == null || update.getInstrumentKey() == null) {
-            return;
+        if (update != null) {
+            apply(Kind.HOLDING, update.getInstrumentKey(), update, update.getTimestamp());
         }
-
-        String key = update.getInstrumentKey();
-        long timestamp = update.getTimestamp() != null ? update.getTimestamp() : System.currentTimeMillis();
-
-        TimestampedValue<HoldingUpdate> cached = holdings.get(key);
-
-        if (cached != null && timestamp < cached.timestamp) {
-            outOfOrderRejections.incrementAndGet();
-            return; // IGNORE
-        }
-
-        holdings.put(key, new TimestampedValue<>(update, timestamp));
-        enforceSizeLimit(holdings, maxSize);
     }
 
     /**
      * Gets a holding update from cache.
-     * 
+     *
      * @param instrumentKey the instrument key
      * @return the holding update, or null if not found
      */
     public HoldingUpdate getHolding(String instrumentKey) {
-        if (!enabled || instrumentKey == null) {
-            return null;
-        }
-
-        TimestampedValue<HoldingUpdate> cached = holdings.get(instrumentKey);
-        if (cached != null) {
-            hitCount.incrementAndGet();
-            return cached.value;
-        }
-
-        missCount.incrementAndGet();
-        return null;
+        return get(Kind.HOLDING, instrumentKey, HoldingUpdate.class);
     }
 
     // Position cache methods
 
     /**
-     * Puts a position update in cache with timestamp validation.
-     * 
+     * Applies a position update with timestamp validation.
+     *
      * @param update the position update
      */
     public void putPosition(PositionUpdate update) {
-        if (!enabled || update == null || update.getInstrumentKey() == null) {
-            return;
+        if (update != null && update.getInstrumentKey() != null) {
+            apply(Kind.POSITION, positionKey(update.getInstrumentKey(), update.getProduct()), update,
+                    update.getTimestamp());
         }
-
-        // Key: instrumentKey + product
-        String key = update.getInstrumentKey() + ":" + update.getProduct();
-        long timestamp = update.getTimestamp() != null ? update.getTimestamp() : System.currentTimeMillis();
-
-        TimestampedValue<PositionUpdate> cached = positions.get(key);
-
-        if (cached != null && timestamp < cached.timestamp) {
-            outOfOrderRejections.incrementAndGet();
-            return; // IGNORE
-        }
-
-        positions.put(key, new TimestampedValue<>(update, timestamp));
-        enforceSizeLimit(positions, maxSize);
     }
 
     /**
      * Gets a position update from cache.
-     * 
+     *
      * @param instrumentKey the instrument key
      * @param product       the product type
      * @return the position update, or null if not found
      */
     public PositionUpdate getPosition(String instrumentKey, String product) {
-        if (!enabled || instrumentKey == null || product == null) {
+        if (instrumentKey == null || product == null) {
             return null;
         }
-
-        String key = instrumentKey + ":" + product;
-        TimestampedValue<PositionUpdate> cached = positions.get(key);
-        if (cached != null) {
-            hitCount.incrementAndGet();
-            return cached.value;
-        }
-
-        missCount.incrementAndGet();
-        return null;
+        return get(Kind.POSITION, positionKey(instrumentKey, product), PositionUpdate.class);
     }
 
     // GTT cache methods
 
     /**
-     * Puts a GTT update in cache with timestamp validation.
-     * 
+     * Applies a GTT update with timestamp validation.
+     *
      * @param update the GTT update
      */
     public void putGtt(GttUpdate update) {
-        if (!enabled || update == null || update.getGttId() == null) {
-            return;
+        if (update != null) {
+            apply(Kind.GTT, update.getGttId(), update, update.getTimestamp());
         }
-
-        String key = update.getGttId();
-        long timestamp = update.getTimestamp() != null ? update.getTimestamp() : System.currentTimeMillis();
-
-        TimestampedValue<GttUpdate> cached = gtt.get(key);
-
-        if (cached != null && timestamp < cached.timestamp) {
-            outOfOrderRejections.incrementAndGet();
-            return; // IGNORE
-        }
-
-        gtt.put(key, new TimestampedValue<>(update, timestamp));
-        enforceSizeLimit(gtt, maxSize);
     }
 
     /**
      * Gets a GTT update from cache.
-     * 
+     *
      * @param gttId the GTT ID
      * @return the GTT update, or null if not found
      */
     public GttUpdate getGtt(String gttId) {
-        if (!enabled || gttId == null) {
-            return null;
-        }
+        return get(Kind.GTT, gttId, GttUpdate.class);
+    }
 
-        TimestampedValue<GttUpdate> cached = gtt.get(gttId);
-        if (cached != null) {
-            hitCount.incrementAndGet();
-            return cached.value;
+    // Versioned access
+
+    /**
+     * Current version of a key, or 0 if absent.
+     */
+    public long getVersion(Kind kind, String key) {
+        Entry entry = key != null ? segments.get(kind).entries.get(key) : null;
+        return entry != null ? entry.version : 0;
+    }
+
+    /**
+     * Highest sequence assigned so far.
+     */
+    public long getSequence() {
+        return changeLog.sequence();
+    }
+
+    /**
+     * Installs {@code value} only if the key is still at
+     * {@code expectedVersion} (0 = absent). Skips the timestamp check: the
+     * version proves the caller saw the current state.
+     *
+     * @return true if applied
+     */
+    public boolean compareAndSet(Kind kind, String key, long expectedVersion, Object value) {
+        if (!enabled || key == null || value == null) {
+            return false;
+        }
+        if (!kind.type.isInstance(value)) {
+            throw new IllegalArgumentException(kind + " expects " + kind.type.getSimpleName());
         }
+        Segment segment = segments.get(kind);
+        synchronized (segment) {
+            Entry current = segment.entries.get(key);
+            long version = current != null ? current.version : 0;
+            if (version != expectedVersion) {
+                casFailures.incrementAndGet();
+                return false;
+            }
+            install(kind, segment, key, current, value, timestampOf(value));
+            return true;
+        }
+    }
 
-        missCount.incrementAndGet();
-        return null;
+    /**
+     * Changes after {@code sinceSequence}.
+     *
+     * <p>
+     * Readers start with 0, then pass back {@link ChangeSet#toSequence()}
+     * each time. A {@code full} result replaces the reader's state.
+     */
+    public ChangeSet changesSince(long sinceSequence) {
+        return changeLog.since(sinceSequence);
     }
 
     // Utility methods
 
     /**
-     * Clears all caches (for resync).
+     * Clears all caches. Sequence numbers keep increasing, so change-feed
+     * readers get a full (empty) snapshot next time.
      */
     public void clear() {
-        orders.clear();
-        holdings.clear();
-        positions.clear();
-        gtt.clear();
+        // Lock order matches install(): segment, then change log
+        for (Segment segment : segments.values()) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.order.clear();
+            }
+        }
+        changeLog.reset();
         logger.info("Portfolio cache cleared");
     }
 
     /**
      * Gets cache statistics.
-     * 
+     *
      * @return statistics object
      */
     public CacheStatistics getStatistics() {
         return new CacheStatistics(
-                orders.size(),
-                holdings.size(),
-                positions.size(),
-                gtt.size(),
+                segments.get(Kind.ORDER).entries.size(),
+                segments.get(Kind.HOLDING).entries.size(),
+                segments.get(Kind.POSITION).entries.size(),
+                segments.get(Kind.GTT).entries.size(),
                 hitCount.get(),
                 missCount.get(),
-                outOfOrderRejections.get());
+                outOfOrderRejections.get(),
+                casFailures.get(),
+                evictions.get(),
+                expirations.get(),
+                changeLog.sequence());
     }
 
     /**
@@ -334,37 +382,184 @@ public class PortfolioDataCache {
         }
     }
 
+    // Snapshot / restore
+
+    /**
+     * Writes the current state to {@code file} (JSON lines, atomic replace).
+     *
+     * @return number of entries written
+     */
+    public int snapshotTo(Path file) throws IOException {
+        ChangeSet state = changeLog.since(-1);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            JsonObject header = new JsonObject();
+            header.addProperty("format", SNAPSHOT_FORMAT);
+            header.addProperty("sequence", state.toSequence());
+            header.addProperty("savedAt", System.currentTimeMillis());
+            writer.write(header.toString());
+            writer.newLine();
+            for (Change change : state.changes()) {
+                JsonObject line = new JsonObject();
+                line.addProperty("kind", change.kind().name());
+                line.addProperty("key", change.key());
+                line.addProperty("version", change.version());
+                line.addProperty("timestamp", change.timestamp());
+                line.add("value", gson.toJsonTree(change.value()));
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Portfolio cache snapshot: {} entries at sequence {} -> {}", state.changes().size(),
+                state.toSequence(), file);
+        return state.changes().size();
+    }
+
+    /**
+     * Loads a snapshot written by {@link #snapshotTo(Path)}. Entries already
+     * held with a newer timestamp are kept; restored entries keep their
+     * versions. Change-feed readers get a full snapshot next time.
+     *
+     * @return number of entries restored, 0 if the file does not exist
+     */
+    public int restoreFrom(Path file) throws IOException {
+        if (!enabled || !Files.exists(file)) {
+            return 0;
+        }
+        int restored = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) {
+                return 0;
+            }
+            JsonObject header = gson.fromJson(line, JsonObject.class);
+            if (header.get("format").getAsInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Unsupported portfolio snapshot format: " + header.get("format"));
+            }
+            changeLog.advanceTo(header.get("sequence").getAsLong());
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonObject json = gson.fromJson(line, JsonObject.class);
+                Kind kind = Kind.valueOf(json.get("kind").getAsString());
+                String key = json.get("key").getAsString();
+                long version = json.get("version").getAsLong();
+                long timestamp = json.get("timestamp").getAsLong();
+                Object value = gson.fromJson(json.get("value"), kind.type);
+                if (restore(kind, key, value, version, timestamp)) {
+                    restored++;
+                }
+            }
+            changeLog.reset();
+        }
+        logger.info("Portfolio cache restored {} entries from {}", restored, file);
+        return restored;
+    }
+
     // Private helper methods
 
-    private <T> void enforceSizeLimit(Map<String, TimestampedValue<T>> map, int limit) {
-        if (map.size() > limit) {
-            // Remove oldest entry (simple LRU approximation)
-            String oldestKey = null;
-            long oldestTime = Long.MAX_VALUE;
+    private static String positionKey(String instrumentKey, String product) {
+        return instrumentKey + ":" + product;
+    }
 
-            for (Map.Entry<String, TimestampedValue<T>> entry : map.entrySet()) {
-                if (entry.getValue().timestamp < oldestTime) {
-                    oldestTime = entry.getValue().timestamp;
-                    oldestKey = entry.getKey();
+    private <T> T get(Kind kind, String key, Class<T> type) {
+        if (!enabled || key == null) {
+            return null;
+        }
+        Entry entry = segments.get(kind).entries.get(key);
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            return type.cast(entry.value);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Timestamp-validated apply; atomic per key.
+     */
+    private boolean apply(Kind kind, String key, Object value, Long updateTimestamp) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        long timestamp = updateTimestamp != null ? updateTimestamp : System.currentTimeMillis();
+        Segment segment = segments.get(kind);
+        synchronized (segment) {
+            Entry current = segment.entries.get(key);
+
+            // Reject out-of-order updates
+            if (current != null && timestamp < current.timestamp) {
+                long rejections = outOfOrderRejections.incrementAndGet();
+                if (rejections % 100 == 0) {
+                    logger.warn(
+                            "Rejecting out-of-order {} update: key={}, incoming={}, cached={} (total rejections: {})",
+                            kind, key, timestamp, current.timestamp, rejections);
                 }
+                return false; // IGNORE
             }
 
-            if (oldestKey != null) {
-                map.remove(oldestKey);
+            install(kind, segment, key, current, value, timestamp);
+            return true;
+        }
+    }
+
+    /**
+     * Caller holds the segment lock.
+     */
+    private void install(Kind kind, Segment segment, String key, Entry current, Object value, long timestamp) {
+        long version = current != null ? current.version + 1 : 1;
+        long now = System.currentTimeMillis();
+        synchronized (changeLog) {
+            long sequence = changeLog.nextSequence();
+            Entry entry = new Entry(value, timestamp, version, sequence, now);
+            segment.put(key, entry);
+            changeLog.append(new Change(sequence, kind, key, version, timestamp, value));
+        }
+        evict(segment, now);
+    }
+
+    private boolean restore(Kind kind, String key, Object value, long version, long timestamp) {
+        Segment segment = segments.get(kind);
+        synchronized (segment) {
+            Entry current = segment.entries.get(key);
+            if (current != null && current.timestamp >= timestamp) {
+                return false;
             }
+            long now = System.currentTimeMillis();
+            long restoredVersion = Math.max(version, current != null ? current.version + 1 : 0);
+            segment.put(key, new Entry(value, timestamp, restoredVersion, changeLog.nextSequence(), now));
+            evict(segment, now);
+            return true;
         }
     }
 
+    /**
+     * Caller holds the segment lock. Removes from the head of the write
+     * order: over-capacity entries, then a bounded number of expired ones.
+     */
+    private void evict(Segment segment, long now) {
+        while (segment.order.size() > maxSize) {
+            segment.removeEldest();
+            evictions.incrementAndGet();
+        }
+        expirations.addAndGet(segment.expire(now - ttlSeconds * 1000L, INLINE_EXPIRY_BUDGET));
+    }
+
     private void cleanupExpired() {
         try {
-            long now = System.currentTimeMillis();
-            long ttlMs = ttlSeconds * 1000L;
-
+            long cutoff = System.currentTimeMillis() - ttlSeconds * 1000L;
             int removed = 0;
-            removed += cleanupMap(orders, now, ttlMs);
-            removed += cleanupMap(holdings, now, ttlMs);
-            removed += cleanupMap(positions, now, ttlMs);
-            removed += cleanupMap(gtt, now, ttlMs);
+            for (Segment segment : segments.values()) {
+                synchronized (segment) {
+                    removed += segment.expire(cutoff, Integer.MAX_VALUE);
+                }
+            }
+            expirations.addAndGet(removed);
 
             if (removed > 0) {
                 logger.debug("Cleaned up {} expired cache entries", removed);
@@ -374,26 +569,143 @@ public class PortfolioDataCache {
         }
     }
 
-    private <T> int cleanupMap(Map<String, TimestampedValue<T>> map, long now, long ttlMs) {
-        java.util.concurrent.atomic.AtomicInteger removed = new java.util.concurrent.atomic.AtomicInteger(0);
-        map.entrySet().removeIf(entry -> {
-            boolean expired = (now - entry.getValue().timestamp) > ttlMs;
-            if (expired)
-                removed.incrementAndGet();
-            return expired;
-        });
-        return removed.get();
+    private static long timestampOf(Object value) {
+        Long timestamp = null;
+        if (value instanceof OrderUpdate order) {
+            timestamp = order.getTimestamp();
+        } else if (value instanceof HoldingUpdate holding) {
+            timestamp = holding.getTimestamp();
+        } else if (value instanceof PositionUpdate position) {
+            timestamp = position.getTimestamp();
+        } else if (value instanceof GttUpdate gttUpdate) {
+            timestamp = gttUpdate.getTimestamp();
+        }
+        return timestamp != null ? timestamp : System.currentTimeMillis();
     }
 
     // Inner classes
 
-    private static class TimestampedValue<T> {
-        final T value;
+    private static final class Entry {
+        final Object value;
         final long timestamp;
+        final long version;
+        final long sequence;
+        /** Local wall-clock time of the write; drives LRU/TTL */
+        final long writtenAt;
 
-        TimestampedValue(T value, long timestamp) {
+        Entry(Object value, long timestamp, long version, long sequence, long writtenAt) {
             this.value = value;
             this.timestamp = timestamp;
+            this.version = version;
+            this.sequence = sequence;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * One entity kind: lock-free read map plus write-ordered index. Mutated
+     * only under its own monitor.
+     */
+    private static final class Segment {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        /** Insertion order = last-write order; head is the eldest */
+        final LinkedHashMap<String, Entry> order = new LinkedHashMap<>();
+
+        void put(String key, Entry entry) {
+            entries.put(key, entry);
+            order.remove(key); // O(1); re-insert moves the key to the tail
+            order.put(key, entry);
+        }
+
+        void removeEldest() {
+            Iterator<Map.Entry<String, Entry>> it = order.entrySet().iterator();
+            String key = it.next().getKey();
+            it.remove();
+            entries.remove(key);
+        }
+
+        int expire(long cutoff, int budget) {
+            int removed = 0;
+            Iterator<Map.Entry<String, Entry>> it = order.entrySet().iterator();
+            while (removed < budget && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                if (eldest.getValue().writtenAt >= cutoff) {
+                    break; // everything after is younger
+                }
+                it.remove();
+                entries.remove(eldest.getKey());
+                removed++;
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Bounded ring of recent changes. Sequence assignment and append happen
+     * under this monitor, so the ring is always in sequence order.
+     */
+    private final class ChangeLog {
+        private final Change[] ring;
+        private long sequence;
+        /** Lowest sequence a reader can resume after without a full snapshot */
+        private long floor;
+
+        ChangeLog(int capacity) {
+            this.ring = new Change[capacity];
+        }
+
+        synchronized long sequence() {
+            return sequence;
+        }
+
+        synchronized long nextSequence() {
+            return ++sequence;
+        }
+
+        synchronized void append(Change change) {
+            ring[(int) (change.sequence() % ring.length)] = change;
+            floor = Math.max(floor, change.sequence() - ring.length);
+        }
+
+        /**
+         * Forget history. The reset takes a sequence of its own, so every
+         * reader positioned before it resyncs with a full snapshot.
+         */
+        synchronized void reset() {
+            Arrays.fill(ring, null);
+            floor = ++sequence;
+        }
+
+        synchronized void advanceTo(long restoredSequence) {
+            sequence = Math.max(sequence, restoredSequence);
+        }
+
+        synchronized ChangeSet since(long since) {
+            if (since >= floor && since <= sequence) {
+                List<Change> changes = new ArrayList<>((int) (sequence - since));
+                for (long s = since + 1; s <= sequence; s++) {
+                    Change change = ring[(int) (s % ring.length)];
+                    if (change != null && change.sequence() == s) {
+                        changes.add(change);
+                    }
+                }
+                return new ChangeSet(since, sequence, false, changes);
+            }
+            return new ChangeSet(since, sequence, true, fullState());
+        }
+
+        /** Caller holds this monitor, so no install can interleave */
+        private List<Change> fullState() {
+            List<Change> state = new ArrayList<>();
+            for (Map.Entry<Kind, Segment> segment : segments.entrySet()) {
+                for (Map.Entry<String, Entry> e : segment.getValue().entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    state.add(new Change(entry.sequence, segment.getKey(), e.getKey(), entry.version,
+                            entry.timestamp, entry.value));
+                }
+            }
+            state.sort(Comparator.comparingLong(Change::sequence));
+            return state;
         }
     }
 
@@ -405,9 +717,14 @@ public class PortfolioDataCache {
         public final long hitCount;
         public final long missCount;
         public final long outOfOrderRejections;
+        public final long casFailures;
+        public final long evictions;
+        public final long expirations;
+        public final long sequence;
 
         CacheStatistics(int orderCount, int holdingCount, int positionCount, int gttCount,
-                long hitCount, long missCount, long outOfOrderRejections) {
+                long hitCount, long missCount, long outOfOrderRejections,
+                long casFailures, long evictions, long expirations, long sequence) {
             this.orderCount = orderCount;
             this.holdingCount = holdingCount;
             this.positionCount = positionCount;
@@ -415,6 +732,10 @@ public class PortfolioDataCache {
             this.hitCount = hitCount;
             this.missCount = missCount;
             this.outOfOrderRejections = outOfOrderRejections;
+            this.casFailures = casFailures;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.sequence = sequence;
         }
 
         public double getHitRate() {
@@ -425,9 +746,10 @@ public class PortfolioDataCache {
         @Override
         public String toString() {
             return String.format(
-                    "CacheStats{orders=%d, holdings=%d, positions=%d, gtt=%d, hits=%d, misses=%d, outOfOrder=%d, hitRate=%.1f%%}",
+                    "CacheStats{orders=%d, holdings=%d, positions=%d, gtt=%d, hits=%d, misses=%d, outOfOrder=%d, "
+                            + "casFailures=%d, evictions=%d, expirations=%d, seq=%d, hitRate=%.1f%%}",
                     orderCount, holdingCount, positionCount, gttCount, hitCount, missCount, outOfOrderRejections,
-                    getHitRate());
+                    casFailures, evictions, expirations, sequence, getHitRate());
         }
     }
 }
@@ -0,0 +1,641 @@
+package com.vegatrader.upstox.api.websocket.manager;
+
+import com.vegatrader.upstox.api.response.websocket.FeedData;
+import com.vegatrader.upstox.api.websocket.MarketDataStreamerV3;
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+import com.vegatrader.upstox.api.websocket.Mode;
+import com.vegatrader.upstox.api.websocket.listener.OnCloseListener;
+import com.vegatrader.upstox.api.websocket.listener.OnMarketUpdateV3Listener;
+import com.vegatrader.upstox.api.websocket.listener.OnOpenListener;
+import com.vegatrader.upstox.api.websocket.settings.ConnectionSettings;
+import com.vegatrader.upstox.api.websocket.settings.SubscriptionTier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads market-data subscriptions across several WebSocket sessions.
+ *
+ * <p>
+ * Each session normally runs on its own WEBSOCKET* token, so the per-connection
+ * subscription limits of the tier apply per session rather than to the whole
+ * book. The pool:
+ * <ul>
+ * <li>assigns each instrument to the least-loaded live session with room for
+ * its mode</li>
+ * <li>rebalances after subscription changes and when a session comes back</li>
+ * <li>fails a dropped session's instruments over to the survivors</li>
+ * <li>merges every session into one downstream listener, dropping ticks from a
+ * session that no longer owns the instrument (brief overlap during moves)</li>
+ * <li>tracks per-session throughput and exchange-to-receive lag</li>
+ * </ul>
+ *
+ * <p>
+ * All assignment changes run under the pool monitor; the tick path only reads
+ * the owner map and bumps counters.
+ *
+ * @since 4.9.0
+ */
+public class FeedConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedConnectionPool.class);
+
+    /** Imbalance (in instruments) tolerated before moving anything. */
+    private static final int MIN_REBALANCE_GAP = 2;
+
+    private final List<Slot> slots;
+    private final SubscriptionTier tier;
+    private final OnMarketUpdateV3Listener downstream;
+    private final Map<String, Slot> owners = new ConcurrentHashMap<>();
+    private final Map<String, Mode> modes = new HashMap<>();
+    private final AtomicInteger liveSessions = new AtomicInteger();
+
+    private volatile Slot primary;
+    private volatile boolean stopping;
+    private OnOpenListener onOpenListener;
+    private OnCloseListener onCloseListener;
+
+    /**
+     * @param sessions   sessions to pool, in preference order
+     * @param tier       subscription tier (per-connection limits)
+     * @param downstream merged update listener
+     */
+    public FeedConnectionPool(List<Session> sessions, SubscriptionTier tier, OnMarketUpdateV3Listener downstream) {
+        if (sessions == null || sessions.isEmpty()) {
+            throw new IllegalArgumentException("At least one session is required");
+        }
+        this.tier = tier;
+        this.downstream = downstream;
+        List<Slot> list = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            Slot slot = new Slot(session);
+            session.setListeners(() -> onSessionOpen(slot), (code, reason) -> onSessionClose(slot, code, reason),
+                    update -> onSessionUpdate(slot, update));
+            list.add(slot);
+        }
+        this.slots = List.copyOf(list);
+        logger.info("Feed connection pool created: sessions={}, tier={}", slots.size(), tier);
+    }
+
+    /** Fired when the first session comes up. */
+    public void setOnOpenListener(OnOpenListener listener) {
+        this.onOpenListener = listener;
+    }
+
+    /** Fired when the last live session goes down. */
+    public void setOnCloseListener(OnCloseListener listener) {
+        this.onCloseListener = listener;
+    }
+
+    public void connect() {
+        stopping = false;
+        for (Slot slot : slots) {
+            slot.session.connect();
+        }
+    }
+
+    public void disconnect() {
+        stopping = true;
+        for (Slot slot : slots) {
+            slot.session.disconnect();
+        }
+    }
+
+    public boolean isConnected() {
+        return liveSessions.get() > 0;
+    }
+
+    public int getSessionCount() {
+        return slots.size();
+    }
+
+    /**
+     * Subscribes instruments in a mode. Instruments already held in another
+     * mode move to the new one; instruments already held in this mode are
+     * left alone.
+     *
+     * @throws ConnectionSettings.SubscriptionLimitExceededException if the
+     *                                                               pool as a
+     *                                                               whole has
+     *                                                               no room
+     */
+    public synchronized void subscribe(Set<String> instrumentKeys, Mode mode) {
+        if (instrumentKeys == null || instrumentKeys.isEmpty()) {
+            throw new IllegalArgumentException("Instrument keys cannot be empty");
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode cannot be null");
+        }
+        if (!tier.supports(mode)) {
+            throw new ConnectionSettings.SubscriptionLimitExceededException(
+                    String.format("Mode %s requires Upstox Plus subscription", mode));
+        }
+
+        Set<String> fresh = new LinkedHashSet<>();
+        Set<String> switching = new LinkedHashSet<>();
+        for (String key : instrumentKeys) {
+            Mode current = modes.get(key);
+            if (current == null) {
+                fresh.add(key);
+            } else if (current != mode) {
+                switching.add(key);
+            }
+        }
+
+        // Mode switches leave their session first so capacity is counted once
+        if (!switching.isEmpty()) {
+            release(switching);
+            fresh.addAll(switching);
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        Map<Slot, Set<String>> plan = place(fresh, mode, candidates());
+        int placed = plan.values().stream().mapToInt(Set::size).sum();
+        if (placed < fresh.size()) {
+            throw new ConnectionSettings.SubscriptionLimitExceededException(String.format(
+                    "Subscription limit exceeded for mode %s across %d sessions: %d of %d instruments fit",
+                    mode, slots.size(), placed, fresh.size()));
+        }
+        plan.forEach((slot, keys) -> assign(slot, keys, mode));
+        rebalance();
+    }
+
+    /**
+     * Unsubscribes instruments from whichever session holds them.
+     */
+    public synchronized void unsubscribe(Set<String> instrumentKeys) {
+        if (instrumentKeys == null || instrumentKeys.isEmpty()) {
+            throw new IllegalArgumentException("Instrument keys cannot be empty");
+        }
+        release(instrumentKeys);
+        rebalance();
+    }
+
+    public Set<String> getSubscriptions() {
+        return Collections.unmodifiableSet(owners.keySet());
+    }
+
+    /**
+     * Name of the session currently carrying an instrument, or null.
+     */
+    public String getOwner(String instrumentKey) {
+        Slot slot = owners.get(instrumentKey);
+        return slot != null ? slot.session.getName() : null;
+    }
+
+    /**
+     * Per-session statistics. Rates and lag averages cover the interval since
+     * the previous call.
+     */
+    public synchronized List<ConnectionStats> getConnectionStats() {
+        List<ConnectionStats> stats = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            stats.add(slot.sample());
+        }
+        return stats;
+    }
+
+    // ---------------------------------------------------------------
+    // Session callbacks
+    // ---------------------------------------------------------------
+
+    private synchronized void onSessionOpen(Slot slot) {
+        if (slot.live) {
+            return;
+        }
+        slot.live = true;
+        boolean first = liveSessions.getAndIncrement() == 0;
+        if (primary == null) {
+            primary = slot;
+        }
+        logger.info("Feed session {} up ({} of {} live)", slot.session.getName(), liveSessions.get(), slots.size());
+
+        // Instruments that could not fail over while this session was down
+        slot.byMode.forEach((mode, keys) -> {
+            if (!keys.isEmpty()) {
+                slot.session.subscribe(Set.copyOf(keys), mode);
+            }
+        });
+        rebalance();
+
+        if (first && onOpenListener != null) {
+            onOpenListener.onOpen();
+        }
+    }
+
+    private synchronized void onSessionClose(Slot slot, int code, String reason) {
+        if (!slot.live) {
+            return;
+        }
+        slot.live = false;
+        boolean last = liveSessions.decrementAndGet() == 0;
+        if (primary == slot) {
+            primary = slots.stream().filter(s -> s.live).findFirst().orElse(null);
+        }
+        if (stopping) {
+            if (last && onCloseListener != null) {
+                onCloseListener.onClose(code, reason);
+            }
+            return;
+        }
+        slot.failovers.incrementAndGet();
+
+        int moved = 0;
+        int stranded = 0;
+        List<Slot> survivors = new ArrayList<>();
+        for (Slot other : slots) {
+            if (other.live) {
+                survivors.add(other);
+            }
+        }
+        for (Mode mode : List.copyOf(slot.byMode.keySet())) {
+            Set<String> keys = Set.copyOf(slot.byMode.get(mode));
+            if (keys.isEmpty()) {
+                continue;
+            }
+            // Clear the dead session's own tracking; it resubscribes on reopen
+            slot.session.unsubscribe(keys);
+            Map<Slot, Set<String>> plan = place(keys, mode, survivors);
+            for (Map.Entry<Slot, Set<String>> entry : plan.entrySet()) {
+                slot.keys(mode).removeAll(entry.getValue());
+                assign(entry.getKey(), entry.getValue(), mode);
+                moved += entry.getValue().size();
+            }
+            stranded += slot.keys(mode).size();
+        }
+        logger.warn("Feed session {} down ({} {}): failed over {} instruments, {} waiting for reconnect",
+                slot.session.getName(), code, reason, moved, stranded);
+
+        if (last && onCloseListener != null) {
+            onCloseListener.onClose(code, reason);
+        }
+    }
+
+    private void onSessionUpdate(Slot slot, MarketUpdateV3 update) {
+        slot.messages.increment();
+        long ts = update.getTimestamp();
+        long now = System.currentTimeMillis();
+        slot.lastMessageAt = now;
+        if (ts > 0) {
+            long lag = Math.max(0, now - ts);
+            slot.lagTotal.add(lag);
+            slot.lagSamples.increment();
+            slot.maxLag.accumulateAndGet(lag, Math::max);
+        }
+
+        Map<String, FeedData> feeds = update.getFeeds();
+        if (feeds == null || feeds.isEmpty()) {
+            // market_info and friends arrive on every session; pass one copy on
+            if (slot == primary) {
+                downstream.onUpdate(update);
+            }
+            return;
+        }
+        slot.feeds.add(feeds.size());
+
+        boolean allOwned = true;
+        for (String key : feeds.keySet()) {
+            if (owners.get(key) != slot) {
+                allOwned = false;
+                break;
+            }
+        }
+        if (allOwned) {
+            downstream.onUpdate(update);
+            return;
+        }
+        for (MarketUpdateV3 part : update.splitByInstrument()) {
+            if (owners.get(part.getInstrumentKey()) == slot) {
+                downstream.onUpdate(part);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Assignment
+    // ---------------------------------------------------------------
+
+    /** Live sessions, or every session when none is live yet. */
+    private List<Slot> candidates() {
+        List<Slot> live = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            if (slot.live) {
+                live.add(slot);
+            }
+        }
+        return live.isEmpty() ? slots : live;
+    }
+
+    /**
+     * Greedy least-loaded placement. Returns only what fits.
+     */
+    private Map<Slot, Set<String>> place(Collection<String> keys, Mode mode, List<Slot> targets) {
+        Map<Slot, Set<String>> plan = new LinkedHashMap<>();
+        Map<Slot, Integer> added = new HashMap<>();
+        for (String key : keys) {
+            Slot best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Slot slot : targets) {
+                int pending = added.getOrDefault(slot, 0);
+                if (remaining(slot, mode) - pending <= 0) {
+                    continue;
+                }
+                int load = slot.total() + pending;
+                if (load < bestLoad) {
+                    best = slot;
+                    bestLoad = load;
+                }
+            }
+            if (best == null) {
+                continue;
+            }
+            plan.computeIfAbsent(best, s -> new LinkedHashSet<>()).add(key);
+            added.merge(best, 1, Integer::sum);
+        }
+        return plan;
+    }
+
+    /**
+     * Room left on a session for one more mode group, honouring the combined
+     * limits once a session carries more than one mode.
+     */
+    private int remaining(Slot slot, Mode mode) {
+        boolean combined = false;
+        for (Map.Entry<Mode, Set<String>> entry : slot.byMode.entrySet()) {
+            if (entry.getKey() != mode && !entry.getValue().isEmpty()) {
+                combined = true;
+                break;
+            }
+        }
+        if (!combined) {
+            return tier.getIndividualLimit(mode) - slot.count(mode);
+        }
+        int room = tier.getCombinedLimit(mode) - slot.count(mode);
+        // Adding a new mode group also tightens the limits of the existing groups
+        for (Map.Entry<Mode, Set<String>> entry : slot.byMode.entrySet()) {
+            if (entry.getKey() != mode && entry.getValue().size() > tier.getCombinedLimit(entry.getKey())) {
+                return 0;
+            }
+        }
+        return room;
+    }
+
+    private void assign(Slot slot, Set<String> keys, Mode mode) {
+        slot.keys(mode).addAll(keys);
+        for (String key : keys) {
+            owners.put(key, slot);
+            modes.put(key, mode);
+        }
+        if (slot.live) {
+            slot.session.subscribe(keys, mode);
+        }
+    }
+
+    private void release(Collection<String> keys) {
+        Map<Slot, Set<String>> bySlot = new HashMap<>();
+        for (String key : keys) {
+            Slot slot = owners.remove(key);
+            Mode mode = modes.remove(key);
+            if (slot == null) {
+                continue;
+            }
+            slot.keys(mode).remove(key);
+            bySlot.computeIfAbsent(slot, s -> new HashSet<>()).add(key);
+        }
+        bySlot.forEach((slot, slotKeys) -> {
+            if (slot.live) {
+                slot.session.unsubscribe(slotKeys);
+            }
+        });
+    }
+
+    /**
+     * Moves instruments from the busiest live session to the idlest until the
+     * gap is small. New owner subscribes before the old one unsubscribes; the
+     * owner map filters the overlap.
+     */
+    private void rebalance() {
+        List<Slot> live = new ArrayList<>();
+        for (Slot slot : slots) {
+            if (slot.live) {
+                live.add(slot);
+            }
+        }
+        if (live.size() < 2) {
+            return;
+        }
+
+        int moves = 0;
+        for (int round = 0; round < live.size() * 2; round++) {
+            Slot busiest = Collections.max(live, Comparator.comparingInt(Slot::total));
+            Slot idlest = Collections.min(live, Comparator.comparingInt(Slot::total));
+            int gap = busiest.total() - idlest.total();
+            if (gap <= Math.max(MIN_REBALANCE_GAP, busiest.total() / 20)) {
+                break;
+            }
+
+            int toMove = gap / 2;
+            int movedThisRound = 0;
+            for (Mode mode : List.copyOf(busiest.byMode.keySet())) {
+                if (toMove == 0) {
+                    break;
+                }
+                int room = remaining(idlest, mode);
+                int take = Math.min(toMove, Math.min(room, busiest.count(mode)));
+                if (take <= 0) {
+                    continue;
+                }
+                Set<String> batch = new LinkedHashSet<>(take);
+                for (String key : busiest.keys(mode)) {
+                    batch.add(key);
+                    if (batch.size() == take) {
+                        break;
+                    }
+                }
+                assign(idlest, batch, mode);
+                busiest.keys(mode).removeAll(batch);
+                busiest.session.unsubscribe(batch);
+                toMove -= batch.size();
+                movedThisRound += batch.size();
+            }
+            if (movedThisRound == 0) {
+                break;
+            }
+            moves += movedThisRound;
+        }
+        if (moves > 0) {
+            logger.info("Feed pool rebalanced: moved {} instruments across {} sessions", moves, live.size());
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Types
+    // ---------------------------------------------------------------
+
+    /**
+     * One pooled WebSocket session.
+     */
+    public interface Session {
+
+        String getName();
+
+        void setListeners(OnOpenListener onOpen, OnCloseListener onClose, OnMarketUpdateV3Listener onUpdate);
+
+        void connect();
+
+        void disconnect();
+
+        void subscribe(Set<String> instrumentKeys, Mode mode);
+
+        void unsubscribe(Set<String> instrumentKeys);
+
+        /**
+         * Adapts a streamer. The streamer's error listener is left to the
+         * caller.
+         */
+        static Session of(String name, MarketDataStreamerV3 streamer) {
+            return new Session() {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public void setListeners(OnOpenListener onOpen, OnCloseListener onClose,
+                        OnMarketUpdateV3Listener onUpdate) {
+                    streamer.setOnOpenListener(onOpen);
+                    streamer.setOnCloseListener(onClose);
+                    streamer.setOnMarketUpdateListener(onUpdate);
+                }
+
+                @Override
+                public void connect() {
+                    streamer.connect();
+                }
+
+                @Override
+                public void disconnect() {
+                    streamer.disconnect();
+                }
+
+                @Override
+                public void subscribe(Set<String> instrumentKeys, Mode mode) {
+                    streamer.subscribe(instrumentKeys, mode);
+                }
+
+                @Override
+                public void unsubscribe(Set<String> instrumentKeys) {
+                    streamer.unsubscribe(instrumentKeys);
+                }
+            };
+        }
+    }
+
+    /**
+     * Point-in-time statistics for one session.
+     *
+     * @param name                 session name (token API name)
+     * @param connected            whether the session is live
+     * @param instruments          instruments currently assigned
+     * @param messages             updates received since start
+     * @param messagesPerSecond    update rate since the previous sample
+     * @param feedsPerSecond       instrument feeds per second since the previous
+     *                             sample
+     * @param avgLagMillis         mean exchange-to-receive lag since the previous
+     *                             sample, -1 if no samples
+     * @param maxLagMillis         worst lag since the previous sample
+     * @param lastMessageAgeMillis time since the last update, -1 if none yet
+     * @param failovers            times this session dropped and handed off its
+     *                             instruments
+     */
+    public record ConnectionStats(
+            String name,
+            boolean connected,
+            int instruments,
+            long messages,
+            double messagesPerSecond,
+            double feedsPerSecond,
+            double avgLagMillis,
+            long maxLagMillis,
+            long lastMessageAgeMillis,
+            int failovers) {
+    }
+
+    private static final class Slot {
+        final Session session;
+        final Map<Mode, Set<String>> byMode = new EnumMap<>(Mode.class);
+        volatile boolean live;
+
+        final LongAdder messages = new LongAdder();
+        final LongAdder feeds = new LongAdder();
+        final LongAdder lagTotal = new LongAdder();
+        final LongAdder lagSamples = new LongAdder();
+        final AtomicLong maxLag = new AtomicLong();
+        final AtomicInteger failovers = new AtomicInteger();
+        volatile long lastMessageAt;
+
+        // Previous sample, guarded by the pool monitor
+        long sampledAt = System.nanoTime();
+        long sampledMessages;
+        long sampledFeeds;
+        long sampledLagTotal;
+        long sampledLagSamples;
+
+        Slot(Session session) {
+            this.session = session;
+        }
+
+        Set<String> keys(Mode mode) {
+            return byMode.computeIfAbsent(mode, m -> new LinkedHashSet<>());
+        }
+
+        int count(Mode mode) {
+            Set<String> keys = byMode.get(mode);
+            return keys == null ? 0 : keys.size();
+        }
+
+        int total() {
+            int total = 0;
+            for (Set<String> keys : byMode.values()) {
+                total += keys.size();
+            }
+            return total;
+        }
+
+        ConnectionStats sample() {
+            long now = System.nanoTime();
+            double seconds = Math.max(1e-9, (now - sampledAt) / 1e9);
+            long msgs = messages.sum();
+            long fds = feeds.sum();
+            long lagSum = lagTotal.sum();
+            long lagCount = lagSamples.sum();
+            long windowLagCount = lagCount - sampledLagSamples;
+
+            ConnectionStats stats = new ConnectionStats(
+                    session.getName(),
+                    live,
+                    total(),
+                    msgs,
+                    (msgs - sampledMessages) / seconds,
+                    (fds - sampledFeeds) / seconds,
+                    windowLagCount > 0 ? (double) (lagSum - sampledLagTotal) / windowLagCount : -1,
+                    maxLag.getAndSet(0),
+                    lastMessageAt > 0 ? System.currentTimeMillis() - lastMessageAt : -1,
+                    failovers.get());
+
+            sampledAt = now;
+            sampledMessages = msgs;
+            sampledFeeds = fds;
+            sampledLagTotal = lagSum;
+            sampledLagSamples = lagCount;
+            return stats;
+        }
+    }
+}
@@ -34,6 +34,11 @@ public class MarketDataProtoMapper {
         // Map type
         dto.setType(mapType(proto.getType()));
 
+        // Feed timestamp (epoch millis); replay uses it as event time
+        if (proto.getCurrentTs() != 0) {
+            dto.setCurrentTs(String.valueOf(proto.getCurrentTs()));
+        }
+
         // Map feeds
         Map<String, FeedData> feeds = new HashMap<>();
         proto.getFeedsMap().forEach((key, feed) -> {
@@ -1,20 +1,23 @@
 package com.vegatrader.upstox.api.websocket.protocol;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.vegatrader.upstox.api.response.websocket.*;
 import com.vegatrader.upstox.api.websocket.PortfolioUpdate;
 import com.vegatrader.upstox.api.websocket.event.PortfolioUpdateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 /**
  * Defensive parser for portfolio WebSocket messages.
- * 
+ *
  * <p>
  * ⚠️ CRITICAL: Extracts and validates timestamps for cache semantics.
- * 
+ *
  * <p>
  * Features:
  * <ul>
@@ -23,136 +26,324 @@ import org.slf4j.LoggerFactory;
  * <li>Schema drift detection</li>
  * <li>Type-based routing</li>
  * </ul>
- * 
+ *
+ * <p>
+ * Single pass: a streaming Jackson parser walks the message once, dispatches
+ * on the {@code update_type} token (legacy {@code type} is also accepted) and
+ * binds each field straight into the typed update. Fields that arrive before
+ * the type token are held in a {@link TokenBuffer} and replayed once the
+ * target is known, so field order never forces a second parse.
+ *
+ * <p>
+ * Holds no per-message state, so one instance can be shared.
+ *
  * @since 2.0.0
  */
 public class PortfolioMessageParser {
 
     private static final Logger logger = LoggerFactory.getLogger(PortfolioMessageParser.class);
 
-    private final ObjectMapper objectMapper;
-    private final Gson gson;
+    private final JsonFactory jsonFactory;
 
     public PortfolioMessageParser() {
-        this.objectMapper = new ObjectMapper();
-        this.gson = new Gson();
+        this.jsonFactory = new JsonFactory();
     }
 
     /**
      * Parses JSON message to PortfolioUpdateEvent.
-     * 
+     *
      * <p>
      * ⚠️ CRITICAL: Extracts timestamp for cache validation.
-     * 
+     *
      * @param json the raw JSON message
      * @return PortfolioUpdateEvent or error event if parsing fails
      */
     public PortfolioUpdateEvent parse(String json) {
-        try {
-            JsonNode root = objectMapper.readTree(json);
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return createErrorEvent("Not a JSON object");
+            }
+
+            Target target = null;
+            TokenBuffer pending = null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                if (target == null && ("update_type".equals(field) || "type".equals(field))) {
+                    p.nextToken();
+                    String type = p.getValueAsString();
+                    if (type == null || type.isEmpty()) {
+                        continue;
+                    }
+                    target = Target.of(type);
+                    if (target == null) {
+                        logger.warn("Unknown portfolio update type: {}", type);
+                        return createUnknownEvent(type, json);
+                    }
+                    if (pending != null) {
+                        pending.writeEndObject();
+                        replay(pending, target);
+                        pending = null;
+                    }
+                    continue;
+                }
+
+                if (target == null) {
+                    // Type not seen yet: hold the field for replay
+                    if (pending == null) {
+                        pending = new TokenBuffer(p, null);
+                        pending.writeStartObject();
+                    }
+                    pending.copyCurrentStructure(p);
+                    continue;
+                }
+
+                p.nextToken();
+                target.bind(field, p);
+            }
 
-            // Extract type
-            String type = root.path("type").asText(null);
-            if (type == null || type.isEmpty()) {
-                logger.warn("Missing 'type' field in portfolio message");
+            if (target == null) {
+                logger.warn("Missing 'update_type' field in portfolio message");
                 return createErrorEvent("Missing type field");
             }
+            return target.toUpdate();
+
+        } catch (Exception e) {
+            logger.error("Failed to parse portfolio message: {}", e.getMessage());
+            return createErrorEvent(e.getMessage());
+        }
+    }
 
-            // CRITICAL: Extract timestamp
-            long timestamp = root.path("timestamp").asLong(0);
-            if (timestamp == 0) {
-                logger.warn("Missing timestamp in portfolio update, using current time");
-                timestamp = System.currentTimeMillis();
+    private static void replay(TokenBuffer pending, Target target) throws IOException {
+        try (JsonParser replay = pending.asParser()) {
+            replay.nextToken(); // START_OBJECT
+            while (replay.nextToken() == JsonToken.FIELD_NAME) {
+                String field = replay.currentName();
+                replay.nextToken();
+                target.bind(field, replay);
             }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Typed binding
+    // ---------------------------------------------------------------
 
-            // Route based on type
+    /**
+     * Binds fields of one update type; mirrors the DTOs' JSON names.
+     */
+    private abstract static class Target {
+
+        static Target of(String type) {
             switch (type.toLowerCase()) {
                 case "order":
-                    return parseOrderUpdate(json, timestamp);
-
+                    return new OrderTarget();
                 case "holding":
-                    return parseHoldingUpdate(json, timestamp);
-
+                    return new HoldingTarget();
                 case "position":
-                    return parsePositionUpdate(json, timestamp);
-
+                    return new PositionTarget();
                 case "gtt":
-                    return parseGttUpdate(json, timestamp);
-
+                case "gtt_order":
+                    return new GttTarget();
                 default:
-                    logger.warn("Unknown portfolio update type: {}", type);
-                    return createUnknownEvent(type, json);
+                    return null;
             }
-
-        } catch (Exception e) {
-            logger.error("Failed to parse portfolio message: {}", e.getMessage());
-            return createErrorEvent(e.getMessage());
         }
+
+        /** Parser is positioned on the field's value. */
+        abstract void bind(String field, JsonParser p) throws IOException;
+
+        abstract PortfolioUpdate toUpdate();
     }
 
-    private PortfolioUpdateEvent parseOrderUpdate(String json, long timestamp) {
-        try {
-            OrderUpdate order = gson.fromJson(json, OrderUpdate.class);
+    private static final class OrderTarget extends Target {
+        private final OrderUpdate order = new OrderUpdate();
 
-            // Ensure timestamp is set
-            if (order.getTimestamp() == null) {
-                order.setTimestamp(timestamp);
+        @Override
+        void bind(String field, JsonParser p) throws IOException {
+            switch (field) {
+                case "order_id" -> order.setOrderId(text(p));
+                case "instrument_key" -> order.setInstrumentKey(text(p));
+                case "status" -> order.setStatus(text(p));
+                case "order_type" -> order.setOrderType(text(p));
+                case "transaction_type" -> order.setTransactionType(text(p));
+                case "quantity" -> order.setQuantity(intValue(p));
+                case "filled_quantity" -> order.setFilledQuantity(intValue(p));
+                case "pending_quantity" -> order.setPendingQuantity(intValue(p));
+                case "price" -> order.setPrice(doubleValue(p));
+                case "trigger_price" -> order.setTriggerPrice(doubleValue(p));
+                case "average_price" -> order.setAveragePrice(doubleValue(p));
+                case "exchange" -> order.setExchange(text(p));
+                case "product" -> order.setProduct(text(p));
+                case "validity" -> order.setValidity(text(p));
+                case "disclosed_quantity" -> order.setDisclosedQuantity(intValue(p));
+                case "timestamp" -> order.setTimestamp(longValue(p));
+                case "exchange_order_id" -> order.setExchangeOrderId(text(p));
+                case "rejection_reason" -> order.setRejectionReason(text(p));
+                default -> p.skipChildren();
             }
+        }
 
+        @Override
+        PortfolioUpdate toUpdate() {
+            if (order.getTimestamp() == null) {
+                order.setTimestamp(missingTimestamp());
+            }
             return new PortfolioUpdate(order);
-
-        } catch (Exception e) {
-            logger.error("Failed to parse order update: {}", e.getMessage());
-            return createErrorEvent("Order parse error: " + e.getMessage());
         }
     }
 
-    private PortfolioUpdateEvent parseHoldingUpdate(String json, long timestamp) {
-        try {
-            HoldingUpdate holding = gson.fromJson(json, HoldingUpdate.class);
+    private static final class HoldingTarget extends Target {
+        private final HoldingUpdate holding = new HoldingUpdate();
 
-            if (holding.getTimestamp() == null) {
-                holding.setTimestamp(timestamp);
+        @Override
+        void bind(String field, JsonParser p) throws IOException {
+            switch (field) {
+                case "instrument_key" -> holding.setInstrumentKey(text(p));
+                case "quantity" -> holding.setQuantity(intValue(p));
+                case "average_price" -> holding.setAveragePrice(doubleValue(p));
+                case "last_price" -> holding.setLastPrice(doubleValue(p));
+                case "pnl" -> holding.setPnl(doubleValue(p));
+                case "day_change" -> holding.setDayChange(doubleValue(p));
+                case "day_change_percent" -> holding.setDayChangePercent(doubleValue(p));
+                case "timestamp" -> holding.setTimestamp(longValue(p));
+                case "exchange" -> holding.setExchange(text(p));
+                case "product" -> holding.setProduct(text(p));
+                default -> p.skipChildren();
             }
+        }
 
+        @Override
+        PortfolioUpdate toUpdate() {
+            if (holding.getTimestamp() == null) {
+                holding.setTimestamp(missingTimestamp());
+            }
             return new PortfolioUpdate(holding);
-
-        } catch (Exception e) {
-            logger.error("Failed to parse holding update: {}", e.getMessage());
-            return createErrorEvent("Holding parse error: " + e.getMessage());
         }
     }
 
-    private PortfolioUpdateEvent parsePositionUpdate(String json, long timestamp) {
-        try {
-            PositionUpdate position = gson.fromJson(json, PositionUpdate.class);
+    private static final class PositionTarget extends Target {
+        private final PositionUpdate position = new PositionUpdate();
 
-            if (position.getTimestamp() == null) {
-                position.setTimestamp(timestamp);
+        @Override
+        void bind(String field, JsonParser p) throws IOException {
+            switch (field) {
+                case "instrument_key" -> position.setInstrumentKey(text(p));
+                case "product" -> position.setProduct(text(p));
+                case "buy_quantity" -> position.setBuyQuantity(intValue(p));
+                case "sell_quantity" -> position.setSellQuantity(intValue(p));
+                case "net_quantity" -> position.setNetQuantity(intValue(p));
+                case "buy_average" -> position.setBuyAverage(doubleValue(p));
+                case "sell_average" -> position.setSellAverage(doubleValue(p));
+                case "realized_pnl" -> position.setRealizedPnl(doubleValue(p));
+                case "unrealized_pnl" -> position.setUnrealizedPnl(doubleValue(p));
+                case "last_price" -> position.setLastPrice(doubleValue(p));
+                case "timestamp" -> position.setTimestamp(longValue(p));
+                case "exchange" -> position.setExchange(text(p));
+                case "day_buy_quantity" -> position.setDayBuyQuantity(intValue(p));
+                case "day_sell_quantity" -> position.setDaySellQuantity(intValue(p));
+                default -> p.skipChildren();
             }
+        }
 
+        @Override
+        PortfolioUpdate toUpdate() {
+            if (position.getTimestamp() == null) {
+                position.setTimestamp(missingTimestamp());
+            }
             return new PortfolioUpdate(position);
-
-        } catch (Exception e) {
-            logger.error("Failed to parse position update: {}", e.getMessage());
-            return createErrorEvent("Position parse error: " + e.getMessage());
         }
     }
 
-    private PortfolioUpdateEvent parseGttUpdate(String json, long timestamp) {
-        try {
-            GttUpdate gtt = gson.fromJson(json, GttUpdate.class);
+    private static final class GttTarget extends Target {
+        private final GttUpdate gtt = new GttUpdate();
 
-            if (gtt.getTimestamp() == null) {
-                gtt.setTimestamp(timestamp);
+        @Override
+        void bind(String field, JsonParser p) throws IOException {
+            switch (field) {
+                case "gtt_id" -> gtt.setGttId(text(p));
+                case "instrument_key" -> gtt.setInstrumentKey(text(p));
+                case "condition" -> gtt.setCondition(text(p));
+                case "order_type" -> gtt.setOrderType(text(p));
+                case "transaction_type" -> gtt.setTransactionType(text(p));
+                case "quantity" -> gtt.setQuantity(intValue(p));
+                case "price" -> gtt.setPrice(doubleValue(p));
+                case "trigger_price" -> gtt.setTriggerPrice(doubleValue(p));
+                case "status" -> gtt.setStatus(text(p));
+                case "timestamp" -> gtt.setTimestamp(longValue(p));
+                case "created_at" -> gtt.setCreatedAt(longValue(p));
+                case "expires_at" -> gtt.setExpiresAt(longValue(p));
+                case "exchange" -> gtt.setExchange(text(p));
+                case "product" -> gtt.setProduct(text(p));
+                default -> p.skipChildren();
             }
+        }
 
+        @Override
+        PortfolioUpdate toUpdate() {
+            if (gtt.getTimestamp() == null) {
+                gtt.setTimestamp(missingTimestamp());
+            }
             return new PortfolioUpdate(gtt);
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to parse GTT update: {}", e.getMessage());
-            return createErrorEvent("GTT parse error: " + e.getMessage());
+    // ---------------------------------------------------------------
+    // Scalar readers (null-preserving; numbers may arrive as strings)
+    // ---------------------------------------------------------------
+
+    private static String text(JsonParser p) throws IOException {
+        if (!p.currentToken().isScalarValue()) {
+            p.skipChildren();
+            return null;
+        }
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+    }
+
+    private static Integer intValue(JsonParser p) throws IOException {
+        return isNumeric(p) ? p.getValueAsInt() : null;
+    }
+
+    private static Double doubleValue(JsonParser p) throws IOException {
+        return isNumeric(p) ? p.getValueAsDouble() : null;
+    }
+
+    private static Long longValue(JsonParser p) throws IOException {
+        if (!isNumeric(p)) {
+            return null;
         }
+        long value = p.getValueAsLong();
+        return value != 0 ? value : null;
+    }
+
+    private static boolean isNumeric(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return true;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            return !text.isEmpty() && isNumber(text);
+        }
+        p.skipChildren();
+        return false;
+    }
+
+    private static boolean isNumber(String text) {
+        // Cheap pre-check; ISO date strings must not throw per message
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != 'e' && c != 'E' && c != '+') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long missingTimestamp() {
+        // Per-message warn would flood the log during order bursts
+        logger.debug("Missing timestamp in portfolio update, using current time");
+        return System.currentTimeMillis();
     }
 
     private PortfolioUpdateEvent createErrorEvent(String message) {
@@ -0,0 +1,335 @@
+package com.vegatrader.upstox.api.websocket.replay;
+
+import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeedV3;
+import com.vegatrader.journal.MappedJournalCursor;
+import com.vegatrader.journal.WireFrameHeader;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.adapter.MarketSnapshotMapper;
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
+import com.vegatrader.upstox.api.websocket.protocol.MarketDataProtoMapper;
+import com.vegatrader.util.time.ReplayTimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Single-threaded replay of raw wire journals into the live pipeline.
+ *
+ * <p>
+ * Frames are read through {@link MappedJournalCursor} (mmap, zero-copy) and
+ * decoded only when they fall inside the requested window: the first frame of
+ * each file is decoded to anchor the writer's monotonic receive clock to the
+ * feed's epoch timestamp, and every later frame's event time is estimated from
+ * that anchor, so frames outside the window are skipped without protobuf work.
+ *
+ * <p>
+ * For each decoded update the {@link ReplayTimeProvider} is advanced to the
+ * update's timestamp, then the update is handed to the optional bus sink and
+ * mapped to ticks/depth for the {@link MarketFeedListener} (cache → alerts →
+ * strategies). Pacing follows {@link ReplaySpeed}: no waiting at
+ * {@code MAX}; otherwise the original inter-arrival gaps (divided by the
+ * factor) measured on the writer's receive clock.
+ *
+ * <p>
+ * One instance replays one sequence of files on the calling thread; use
+ * separate instances (and clocks/listeners) for parallel days.
+ *
+ * @since 5.0.0
+ */
+public final class JournalReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayer.class);
+
+    /** Estimated event times within this distance of the window are decoded */
+    private static final long WINDOW_SLACK_NANOS = 1_000_000_000L;
+    private static final long SPIN_THRESHOLD_NANOS = 100_000L;
+
+    /**
+     * Decodes one wire payload.
+     */
+    @FunctionalInterface
+    public interface FrameDecoder {
+        MarketUpdateV3 decode(ByteBuffer payload) throws IOException;
+    }
+
+    /** Upstox V3 protobuf payloads, the format {@code JournalWriter} records */
+    public static final FrameDecoder PROTOBUF = payload -> new MarketUpdateV3(
+            MarketDataProtoMapper.mapResponse(MarketDataFeedV3.FeedResponse.parseFrom(payload)));
+
+    private final ReplaySpeed speed;
+    private final ReplayTimeProvider clock;
+    private final MarketFeedListener listener;
+    private final Consumer<MarketUpdateV3> updateSink;
+    private final FrameDecoder decoder;
+
+    private volatile boolean cancelled;
+
+    // Pacing anchors (first paced event)
+    private long wallStart = Long.MIN_VALUE;
+    private long eventStart;
+
+    /**
+     * @param speed      pacing
+     * @param clock      advanced to each update's timestamp (may be null)
+     * @param listener   pipeline entry point (may be null)
+     * @param updateSink raw updates, e.g. {@code eventBus::publish} (may be
+     *                   null)
+     * @param decoder    payload decoder, usually {@link #PROTOBUF}
+     */
+    public JournalReplayer(ReplaySpeed speed, ReplayTimeProvider clock, MarketFeedListener listener,
+            Consumer<MarketUpdateV3> updateSink, FrameDecoder decoder) {
+        if (speed == null || decoder == null) {
+            throw new NullPointerException("speed and decoder must not be null");
+        }
+        this.speed = speed;
+        this.clock = clock;
+        this.listener = listener;
+        this.updateSink = updateSink;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Replays the files in order, keeping updates whose timestamp lies in
+     * {@code [fromMillis, toMillis]}.
+     */
+    public Result replay(List<Path> files, long fromMillis, long toMillis) {
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        for (Path file : files) {
+            if (cancelled) {
+                break;
+            }
+            try {
+                replayFile(file, fromMillis, toMillis, stats);
+            } catch (IOException e) {
+                logger.error("Replay of {} failed: {}", file, e.getMessage());
+                stats.failedFiles++;
+            }
+            stats.files++;
+        }
+        return stats.toResult(System.nanoTime() - start, cancelled);
+    }
+
+    /**
+     * Replays everything in the files.
+     */
+    public Result replay(List<Path> files) {
+        return replay(files, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stops after the current update; safe from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void replayFile(Path file, long fromMillis, long toMillis, Stats stats) throws IOException {
+        long lowNanos = fromMillis == Long.MIN_VALUE ? Long.MIN_VALUE
+                : fromMillis * 1_000_000L - WINDOW_SLACK_NANOS;
+        long highNanos = toMillis == Long.MAX_VALUE ? Long.MAX_VALUE
+                : toMillis * 1_000_000L + WINDOW_SLACK_NANOS;
+        long anchorRecv = 0;
+        long anchorEpochNanos = Long.MIN_VALUE;
+
+        try (MappedJournalCursor cursor = MappedJournalCursor.open(file)) {
+            while (!cancelled && cursor.next()) {
+                stats.frames++;
+                long estimated = anchorEpochNanos == Long.MIN_VALUE ? Long.MIN_VALUE
+                        : anchorEpochNanos + (cursor.recvTsNanos() - anchorRecv);
+
+                if (estimated != Long.MIN_VALUE) {
+                    if (estimated < lowNanos) {
+                        stats.skipped++;
+                        continue;
+                    }
+                    if (estimated > highNanos) {
+                        stats.skipped++;
+                        break; // the rest of this file is later still
+                    }
+                }
+
+                MarketUpdateV3 update;
+                try {
+                    update = decoder.decode(payloadOf(cursor));
+                } catch (IOException | RuntimeException e) {
+                    stats.decodeErrors++;
+                    continue;
+                }
+                stats.decoded++;
+
+                long ts = update.getTimestamp();
+                if (anchorEpochNanos == Long.MIN_VALUE && ts > 0) {
+                    anchorRecv = cursor.recvTsNanos();
+                    anchorEpochNanos = ts * 1_000_000L;
+                    estimated = anchorEpochNanos;
+                }
+                if (ts > 0 && (ts < fromMillis || ts > toMillis)) {
+                    stats.skipped++;
+                    continue;
+                }
+
+                if (speed.isPaced() && estimated != Long.MIN_VALUE) {
+                    pace(estimated);
+                }
+                deliver(update, ts, stats);
+            }
+            if (cursor.isTruncated()) {
+                logger.warn("Journal {} ends with a partial frame after {} frames", file, cursor.frames());
+                stats.truncatedFiles++;
+            }
+        }
+    }
+
+    private static ByteBuffer payloadOf(MappedJournalCursor cursor) throws IOException {
+        ByteBuffer payload = cursor.payload();
+        if (cursor.compression() != WireFrameHeader.COMPRESSION_GZIP) {
+            return payload;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteBufferInputStream(payload))) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    private void deliver(MarketUpdateV3 update, long ts, Stats stats) {
+        if (ts > 0) {
+            if (clock != null) {
+                clock.setTime(Instant.ofEpochMilli(ts));
+            }
+            if (stats.firstEventMillis == 0) {
+                stats.firstEventMillis = ts;
+            }
+            stats.lastEventMillis = ts;
+        }
+        if (updateSink != null) {
+            updateSink.accept(update);
+        }
+        if (listener != null) {
+            stats.callbacks += MarketSnapshotMapper.dispatch(update, ts > 0 ? ts : System.currentTimeMillis(),
+                    listener);
+        }
+        stats.delivered++;
+    }
+
+    /**
+     * Waits until the wall clock catches up with the scaled event time.
+     */
+    private void pace(long eventNanos) {
+        if (wallStart == Long.MIN_VALUE) {
+            wallStart = System.nanoTime();
+            eventStart = eventNanos;
+            return;
+        }
+        long offset = (long) ((eventNanos - eventStart) / speed.factor());
+        long target = wallStart + offset;
+        while (!cancelled) {
+            long remaining = target - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(this, remaining - SPIN_THRESHOLD_NANOS / 2);
+                if (Thread.interrupted()) {
+                    cancelled = true;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Replay counters for one run.
+     *
+     * @param files            files opened
+     * @param frames           frames read from disk
+     * @param decoded          frames decoded
+     * @param skipped          frames outside the time window
+     * @param delivered        updates handed to the pipeline
+     * @param callbacks        listener tick/depth callbacks
+     * @param decodeErrors     frames that failed to decode
+     * @param truncatedFiles   files ending in a partial frame
+     * @param failedFiles      files that could not be read
+     * @param firstEventMillis first delivered event time (0 if none)
+     * @param lastEventMillis  last delivered event time (0 if none)
+     * @param wallNanos        elapsed wall time
+     * @param cancelled        whether the run was cancelled
+     */
+    public record Result(int files, long frames, long decoded, long skipped, long delivered, long callbacks,
+            long decodeErrors, int truncatedFiles, int failedFiles, long firstEventMillis, long lastEventMillis,
+            long wallNanos, boolean cancelled) {
+
+        /** Delivered updates per wall-clock second */
+        public double updatesPerSecond() {
+            return wallNanos == 0 ? 0 : delivered * 1e9 / wallNanos;
+        }
+
+        /** Session time covered divided by wall time */
+        public double speedup() {
+            return wallNanos == 0 ? 0 : (lastEventMillis - firstEventMillis) * 1e6 / wallNanos;
+        }
+
+        Result merge(Result other) {
+            return new Result(files + other.files, frames + other.frames, decoded + other.decoded,
+                    skipped + other.skipped, delivered + other.delivered, callbacks + other.callbacks,
+                    decodeErrors + other.decodeErrors, truncatedFiles + other.truncatedFiles,
+                    failedFiles + other.failedFiles,
+                    firstEventMillis == 0 ? other.firstEventMillis
+                            : other.firstEventMillis == 0 ? firstEventMillis
+                                    : Math.min(firstEventMillis, other.firstEventMillis),
+                    Math.max(lastEventMillis, other.lastEventMillis),
+                    Math.max(wallNanos, other.wallNanos), cancelled || other.cancelled);
+        }
+    }
+
+    private static final class Stats {
+        int files;
+        long frames;
+        long decoded;
+        long skipped;
+        long delivered;
+        long callbacks;
+        long decodeErrors;
+        int truncatedFiles;
+        int failedFiles;
+        long firstEventMillis;
+        long lastEventMillis;
+
+        Result toResult(long wallNanos, boolean cancelled) {
+            return new Result(files, frames, decoded, skipped, delivered, callbacks, decodeErrors,
+                    truncatedFiles, failedFiles, firstEventMillis, lastEventMillis, wallNanos, cancelled);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
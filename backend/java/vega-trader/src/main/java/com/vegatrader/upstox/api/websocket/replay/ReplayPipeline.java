@@ -0,0 +1,91 @@
+package com.vegatrader.upstox.api.websocket.replay;
+
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Private market pipeline for journal replay: its own cache, bars and
+ * indicators, fed by a {@link JournalReplayer} instead of the live
+ * {@code MarketSubscriptionManager}.
+ *
+ * <p>
+ * Nothing here reaches live state: no feed resync bookkeeping, alerts,
+ * strategies, paper fills or client broadcast. Each replay run gets a new
+ * instance, so no state carries over between runs.
+ *
+ * @since 5.0.0
+ */
+public class ReplayPipeline implements MarketFeedListener {
+
+    private final MarketCacheService cache = new MarketCacheService();
+    private final BarEngine barEngine;
+    private final IndicatorEngine indicatorEngine;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder depths = new LongAdder();
+
+    /**
+     * @param barCapacity bars kept per instrument and timeframe
+     */
+    public ReplayPipeline(int barCapacity) {
+        this.barEngine = new BarEngine(barCapacity);
+        this.indicatorEngine = new IndicatorEngine(barEngine);
+    }
+
+    @Override
+    public void onTick(LiveMarketSnapshot tick) {
+        if (tick == null) {
+            return;
+        }
+        cache.updateTick(tick);
+        ticks.increment();
+    }
+
+    @Override
+    public void onRawTick(LiveMarketSnapshot tick) {
+        if (tick == null) {
+            return;
+        }
+        barEngine.onRawTick(tick);
+        indicatorEngine.onRawTick(tick);
+    }
+
+    @Override
+    public void onDepth(OrderBookSnapshot depth) {
+        if (depth == null) {
+            return;
+        }
+        cache.updateDepth(depth);
+        depths.increment();
+    }
+
+    public MarketCacheService getCache() {
+        return cache;
+    }
+
+    public BarEngine getBarEngine() {
+        return barEngine;
+    }
+
+    public IndicatorEngine getIndicatorEngine() {
+        return indicatorEngine;
+    }
+
+    public Stats getStats() {
+        return new Stats(ticks.sum(), depths.sum(), cache.size());
+    }
+
+    /**
+     * @param ticks       ticks applied to the replay cache
+     * @param depths      depth updates applied to the replay cache
+     * @param instruments instruments in the replay cache
+     */
+    public record Stats(long ticks, long depths, int instruments) {
+    }
+}
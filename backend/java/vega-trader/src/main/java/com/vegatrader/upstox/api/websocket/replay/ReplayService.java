@@ -1,15 +1,40 @@
 package com.vegatrader.upstox.api.websocket.replay;
 
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.api.websocket.MarketUpdateV3;
 import com.vegatrader.upstox.api.websocket.bus.EventBus;
 import com.vegatrader.upstox.api.websocket.event.MarketDataEvent;
 import com.vegatrader.upstox.api.websocket.event.PortfolioUpdateEvent;
+import com.vegatrader.util.time.ReplayTimeProvider;
+import com.vegatrader.util.time.TimeProvider;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Replay service for deterministic playback of historical market and portfolio
@@ -20,8 +45,17 @@ import java.util.function.Consumer;
  * <ul>
  * <li>Supports both MarketDataEvent and PortfolioUpdateEvent replay</li>
  * <li>Maintains original event ordering</li>
- * <li>Integrates with EventBus for downstream processing</li>
+ * <li>Integrates with EventBus for downstream processing; batches go through
+ * {@link EventBus#publishAll} so subscribers of supertypes and async lanes
+ * see replayed events exactly as they see the live feed</li>
  * <li>Supports dry-run mode for testing</li>
+ * <li>Streams raw wire journals ({@code marketdata/journal/<date>/*.bin})
+ * through {@link JournalReplayer} at {@link ReplaySpeed max, real-time or
+ * N×}, advancing the replay clock and driving the
+ * {@link MarketFeedListener} pipeline, or only a private
+ * {@link ReplayPipeline}</li>
+ * <li>Replays independent days in parallel, one thread, clock and listener
+ * per day</li>
  * </ul>
  * 
  * <p>
@@ -39,12 +73,39 @@ public class ReplayService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReplayService.class);
 
+    private static final String DEFAULT_JOURNAL_DIR = "marketdata/journal";
+
     private final EventBus eventBus;
 
+    private Path journalBaseDir = Paths.get(DEFAULT_JOURNAL_DIR);
+    private ReplayTimeProvider replayClock;
+
+    private final AtomicReference<JournalReplayer> activeJournalReplay = new AtomicReference<>();
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-replay");
+        t.setDaemon(true);
+        return t;
+    });
+
     public ReplayService(EventBus eventBus) {
         this.eventBus = eventBus;
     }
 
+    /**
+     * Uses the application's replay clock when the {@code replay} profile
+     * provides one; otherwise each journal replay gets its own clock.
+     */
+    @Autowired(required = false)
+    public void setTimeProvider(TimeProvider timeProvider) {
+        if (timeProvider instanceof ReplayTimeProvider replay) {
+            this.replayClock = replay;
+        }
+    }
+
+    public void setJournalBaseDir(Path journalBaseDir) {
+        this.journalBaseDir = journalBaseDir;
+    }
+
     /**
      * Replays market data events through the event bus.
      *
@@ -54,12 +115,10 @@ public class ReplayService {
         logger.info("Starting market data replay: {} events", events.size());
         long startTime = System.currentTimeMillis();
 
-        for (MarketDataEvent event : events) {
-            try {
-                eventBus.publish(event);
-            } catch (Exception e) {
-                logger.error("Error replaying market data event: {}", e.getMessage());
-            }
+        try {
+            eventBus.publishAll(events);
+        } catch (Exception e) {
+            logger.error("Error replaying market data events: {}", e.getMessage());
         }
 
         long duration = System.currentTimeMillis() - startTime;
@@ -75,12 +134,10 @@ public class ReplayService {
         logger.info("Starting portfolio replay: {} events", events.size());
         long startTime = System.currentTimeMillis();
 
-        for (PortfolioUpdateEvent event : events) {
-            try {
-                eventBus.publish(event);
-            } catch (Exception e) {
-                logger.error("Error replaying portfolio event: {}", e.getMessage());
-            }
+        try {
+            eventBus.publishAll(events);
+        } catch (Exception e) {
+            logger.error("Error replaying portfolio events: {}", e.getMessage());
         }
 
         long duration = System.currentTimeMillis() - startTime;
@@ -88,17 +145,231 @@ public class ReplayService {
     }
 
     /**
-     * Replays events within a time range.
+     * Replays journaled market updates within a time range, as fast as
+     * possible. Frames outside the range are skipped without decoding.
      *
      * @param from     Start timestamp (inclusive)
      * @param to       End timestamp (inclusive)
-     * @param consumer Consumer to receive events
+     * @param consumer Consumer to receive events ({@link MarketUpdateV3})
      * @param <T>      Event type
      */
+    @SuppressWarnings("unchecked")
     public <T> void replay(Instant from, Instant to, Consumer<T> consumer) {
         logger.info("Starting time-based replay from {} to {}", from, to);
-        // Implementation would query persisted events from database
-        // and stream them to the consumer in order
+        ZoneId zone = ZoneId.systemDefault(); // JournalWriter names day folders in local time
+        List<Path> files = new ArrayList<>();
+        for (Path day : journalDays(LocalDate.ofInstant(from, zone), LocalDate.ofInstant(to, zone))) {
+            files.addAll(journalFiles(day));
+        }
+        JournalReplayer replayer = new JournalReplayer(ReplaySpeed.AS_FAST_AS_POSSIBLE, null, null,
+                update -> consumer.accept((T) update), JournalReplayer.PROTOBUF);
+        JournalReplayer.Result result = replayer.replay(files, from.toEpochMilli(), to.toEpochMilli());
+        logger.info("Time-based replay complete: {}", result);
+    }
+
+    /**
+     * Replays raw wire journals on the calling thread.
+     *
+     * <p>
+     * Each update advances the replay clock, is published on the event bus
+     * and is mapped to ticks/depth for {@code listener} (typically the market
+     * subscription manager: cache → alerts → strategies).
+     *
+     * @param files    journal files in replay order
+     * @param speed    pacing
+     * @param listener pipeline entry point (may be null for bus-only replay)
+     * @return replay counters
+     */
+    public JournalReplayer.Result replayJournal(List<Path> files, ReplaySpeed speed, MarketFeedListener listener) {
+        JournalReplayer replayer = newSharedReplayer(speed, listener);
+        if (!activeJournalReplay.compareAndSet(null, replayer)) {
+            throw new IllegalStateException("A journal replay is already running");
+        }
+        try {
+            return runJournalReplay(replayer, files, speed);
+        } finally {
+            activeJournalReplay.compareAndSet(replayer, null);
+        }
+    }
+
+    /**
+     * Starts {@link #replayJournal} on the replay thread. This feeds the
+     * shared event bus and {@code listener}; use
+     * {@link #startIsolatedJournalReplay} while the live feed is running.
+     *
+     * @throws IllegalStateException if a journal replay is already running
+     */
+    public CompletableFuture<JournalReplayer.Result> startJournalReplay(List<Path> files, ReplaySpeed speed,
+            MarketFeedListener listener) {
+        return startOnReplayThread(newSharedReplayer(speed, listener), files, speed);
+    }
+
+    private CompletableFuture<JournalReplayer.Result> startOnReplayThread(JournalReplayer replayer,
+            List<Path> files, ReplaySpeed speed) {
+        if (!activeJournalReplay.compareAndSet(null, replayer)) {
+            throw new IllegalStateException("A journal replay is already running");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> runJournalReplay(replayer, files, speed), journalExecutor)
+                    .whenComplete((result, error) -> activeJournalReplay.compareAndSet(replayer, null));
+        } catch (RuntimeException e) {
+            activeJournalReplay.compareAndSet(replayer, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a journal replay into {@code pipeline} only: no event bus
+     * publish and a private clock, so live subscribers, strategies and the
+     * live feed's resync state never see replayed data.
+     *
+     * @throws IllegalStateException if a journal replay is already running
+     */
+    public CompletableFuture<JournalReplayer.Result> startIsolatedJournalReplay(List<Path> files,
+            ReplaySpeed speed, ReplayPipeline pipeline) {
+        JournalReplayer replayer = new JournalReplayer(speed, new ReplayTimeProvider(List.of()), pipeline, null,
+                JournalReplayer.PROTOBUF);
+        return startOnReplayThread(replayer, files, speed);
+    }
+
+    /**
+     * Resolves a journal file named relative to the journal base directory.
+     *
+     * @throws IllegalArgumentException for absolute paths or anything that
+     *                                  normalizes outside the base directory
+     */
+    public Path journalFile(String relativePath) {
+        Path relative = Paths.get(relativePath);
+        if (relative.isAbsolute()) {
+            throw new IllegalArgumentException("Journal path must be relative: " + relativePath);
+        }
+        Path base = journalBaseDir.toAbsolutePath().normalize();
+        Path file = base.resolve(relative).normalize();
+        if (!file.startsWith(base)) {
+            throw new IllegalArgumentException("Journal path outside the journal directory: " + relativePath);
+        }
+        return file;
+    }
+
+    /**
+     * Cancels the running journal replay, if any.
+     *
+     * @return true if a replay was running
+     */
+    public boolean cancelJournalReplay() {
+        JournalReplayer replayer = activeJournalReplay.get();
+        if (replayer == null) {
+            return false;
+        }
+        replayer.cancel();
+        return true;
+    }
+
+    public boolean isJournalReplayRunning() {
+        return activeJournalReplay.get() != null;
+    }
+
+    private JournalReplayer newSharedReplayer(ReplaySpeed speed, MarketFeedListener listener) {
+        ReplayTimeProvider clock = replayClock != null ? replayClock : new ReplayTimeProvider(List.of());
+        return new JournalReplayer(speed, clock, listener, eventBus::publish, JournalReplayer.PROTOBUF);
+    }
+
+    private JournalReplayer.Result runJournalReplay(JournalReplayer replayer, List<Path> files, ReplaySpeed speed) {
+        logger.info("Starting journal replay: {} file(s) at {}", files.size(), speed);
+        JournalReplayer.Result result = replayer.replay(files);
+        logger.info("Journal replay complete: {} updates in {}ms ({}x session speed){}", result.delivered(),
+                result.wallNanos() / 1_000_000, String.format("%.1f", result.speedup()),
+                result.cancelled() ? " [cancelled]" : "");
+        return result;
+    }
+
+    /**
+     * Replays independent days concurrently.
+     *
+     * <p>
+     * Days share no state: each gets its own thread, {@link ReplayTimeProvider}
+     * and listener from {@code listenerFactory} (keyed by day folder name), and
+     * nothing is published on the shared event bus, so days cannot interleave.
+     *
+     * @param dayDirs         day folders (e.g. {@code marketdata/journal/2026-01-05})
+     * @param speed           pacing, applied per day
+     * @param listenerFactory listener per day (may return null)
+     * @param parallelism     max concurrent days (&lt;= 0 for one per core)
+     * @return results keyed by day, in input order; failed days are omitted
+     */
+    public Map<String, JournalReplayer.Result> replayDays(List<Path> dayDirs, ReplaySpeed speed,
+            Function<String, MarketFeedListener> listenerFactory, int parallelism) {
+        if (dayDirs.isEmpty()) {
+            return Map.of();
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        threads = Math.min(threads, dayDirs.size());
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "journal-replay-day-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Starting parallel replay of {} day(s) on {} thread(s) at {}", dayDirs.size(), threads, speed);
+        long start = System.nanoTime();
+
+        Map<String, Future<JournalReplayer.Result>> pending = new LinkedHashMap<>();
+        try {
+            for (Path dayDir : dayDirs) {
+                String day = dayDir.getFileName().toString();
+                pending.put(day, pool.submit(() -> new JournalReplayer(speed, new ReplayTimeProvider(List.of()),
+                        listenerFactory.apply(day), null, JournalReplayer.PROTOBUF).replay(journalFiles(dayDir))));
+            }
+            Map<String, JournalReplayer.Result> results = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<JournalReplayer.Result>> entry : pending.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    logger.error("Replay of day {} failed: {}", entry.getKey(), e.getCause().getMessage());
+                }
+            }
+            logger.info("Parallel replay complete: {} day(s) in {}ms", results.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.values().forEach(f -> f.cancel(true));
+            return Map.of();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Journal files of one day, oldest first.
+     */
+    public List<Path> journalFiles(Path dayDir) {
+        if (!Files.isDirectory(dayDir)) {
+            return List.of();
+        }
+        // market-v3-{epochMillis}.bin: same digit count, so names sort chronologically
+        try (Stream<Path> files = Files.list(dayDir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".bin"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.warn("Cannot list journal folder {}: {}", dayDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Day folders under the journal base directory within {@code [from, to]}.
+     */
+    public List<Path> journalDays(LocalDate from, LocalDate to) {
+        List<Path> days = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            Path dir = journalBaseDir.resolve(d.toString());
+            if (Files.isDirectory(dir)) {
+                days.add(dir);
+            }
+        }
+        return days;
     }
 
     /**
@@ -153,4 +424,10 @@ public class ReplayService {
 
         logger.info("Throttled replay complete");
     }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelJournalReplay();
+        journalExecutor.shutdownNow();
+    }
 }
@@ -0,0 +1,87 @@
+package com.vegatrader.upstox.api.websocket.replay;
+
+import java.util.Locale;
+
+/**
+ * Replay pacing.
+ *
+ * <ul>
+ * <li>{@link Mode#MAX}: as fast as possible, no waiting</li>
+ * <li>{@link Mode#REAL_TIME}: original inter-arrival gaps</li>
+ * <li>{@link Mode#SCALED}: gaps divided by {@code factor} (N× clock)</li>
+ * </ul>
+ *
+ * @param mode   pacing mode
+ * @param factor clock multiplier (1 for real time, ignored for MAX)
+ * @since 5.0.0
+ */
+public record ReplaySpeed(Mode mode, double factor) {
+
+    public enum Mode {
+        MAX, REAL_TIME, SCALED
+    }
+
+    public static final ReplaySpeed AS_FAST_AS_POSSIBLE = new ReplaySpeed(Mode.MAX, Double.POSITIVE_INFINITY);
+    public static final ReplaySpeed REAL_TIME = new ReplaySpeed(Mode.REAL_TIME, 1.0);
+
+    public ReplaySpeed {
+        if (mode == null) {
+            throw new NullPointerException("mode must not be null");
+        }
+        if (mode != Mode.MAX && !(factor > 0 && Double.isFinite(factor))) {
+            throw new IllegalArgumentException("factor must be positive: " + factor);
+        }
+    }
+
+    /**
+     * N× clock.
+     */
+    public static ReplaySpeed times(double factor) {
+        return factor == 1.0 ? REAL_TIME : new ReplaySpeed(Mode.SCALED, factor);
+    }
+
+    /**
+     * Parses {@code max}/{@code afap}, {@code realtime}/{@code 1x}, or
+     * {@code <N>x}.
+     *
+     * @throws IllegalArgumentException for anything else
+     */
+    public static ReplaySpeed parse(String value) {
+        if (value == null || value.isBlank()) {
+            return AS_FAST_AS_POSSIBLE;
+        }
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        switch (v) {
+            case "max", "afap", "fast" -> {
+                return AS_FAST_AS_POSSIBLE;
+            }
+            case "realtime", "real_time", "real-time" -> {
+                return REAL_TIME;
+            }
+            default -> {
+                String n = v.endsWith("x") ? v.substring(0, v.length() - 1) : v;
+                try {
+                    return times(Double.parseDouble(n));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Unknown replay speed: " + value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if replay waits between events
+     */
+    public boolean isPaced() {
+        return mode != Mode.MAX;
+    }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case MAX -> "max";
+            case REAL_TIME -> "realtime";
+            case SCALED -> factor + "x";
+        };
+    }
+}
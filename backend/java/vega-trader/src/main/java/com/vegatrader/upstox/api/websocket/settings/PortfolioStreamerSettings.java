@@ -42,6 +42,7 @@ public class PortfolioStreamerSettings {
     private boolean enableCaching = true;
     private int cacheTTL = 3600; // seconds (1 hour)
     private int maxCacheSize = 10000;
+    private String cacheSnapshotPath; // null = no warm start / snapshot on shutdown
 
     // Performance settings
     private int bufferCapacity = 16384; // Lower than market data (portfolio is low volume)
@@ -245,6 +246,14 @@ public class PortfolioStreamerSettings {
         this.maxCacheSize = maxCacheSize;
     }
 
+    public String getCacheSnapshotPath() {
+        return cacheSnapshotPath;
+    }
+
+    public void setCacheSnapshotPath(String cacheSnapshotPath) {
+        this.cacheSnapshotPath = cacheSnapshotPath;
+    }
+
     public int getBufferCapacity() {
         return bufferCapacity;
     }
@@ -6,6 +6,7 @@ import com.vegatrader.execution.dto.OrderResponse;
 import com.vegatrader.execution.dto.OrderStatus;
 import com.vegatrader.upstox.api.order.controller.OrderController;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
@@ -15,9 +16,11 @@ import java.util.List;
 /**
  * Upstox implementation of ExecutionGateway.
  * Bridges the generic Execution Model to Upstox Order APIs.
+ * Replaced by the paper exchange when {@code paper.enabled=true}.
  */
 @Service
 @Primary
+@ConditionalOnProperty(name = "paper.enabled", havingValue = "false", matchIfMissing = true)
 public class UpstoxExecutionGateway implements ExecutionGateway {
 
     @Autowired
@@ -1,14 +1,11 @@
 package com.vegatrader.upstox.mapper;
 
 import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeedV3;
-import com.vegatrader.market.depth.model.BookLevel;
+import com.vegatrader.market.depth.model.DepthSide;
 import com.vegatrader.market.depth.model.Greeks;
 import com.vegatrader.market.depth.model.L30OrderBook;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Maps Upstox Full Depth (30 level) Protobuf messages to internal L30OrderBook
  * DTO.
@@ -26,8 +23,20 @@ public class FullD30Mapper {
     public L30OrderBook map(MarketDataFeedV3.MarketFullFeed ff, String instrumentKey) {
         if (ff == null)
             return null;
+        return mapInto(ff, instrumentKey, new L30OrderBook());
+    }
 
-        L30OrderBook book = new L30OrderBook();
+    /**
+     * Map Protobuf MarketFullFeed into an existing book, refilling its depth
+     * in place. LTPC fields absent from the feed keep their previous values.
+     * Allocates nothing once the book has Greeks, so a book kept per
+     * instrument can be reused for every update.
+     *
+     * @param book Book to refill
+     * @return {@code book}
+     * @since 5.0.0
+     */
+    public L30OrderBook mapInto(MarketDataFeedV3.MarketFullFeed ff, String instrumentKey, L30OrderBook book) {
         book.setInstrumentKey(instrumentKey);
 
         // LTPC
@@ -39,41 +48,41 @@ public class FullD30Mapper {
             book.setExchangeTs(ltpc.getLtt());
         }
 
-        // Depth
+        // Depth, indexed to avoid an iterator per side
+        DepthSide bids = book.bids();
+        DepthSide asks = book.asks();
+        bids.clear();
+        asks.clear();
         if (ff.hasMarketLevel()) {
             MarketDataFeedV3.MarketLevel level = ff.getMarketLevel();
-
-            List<BookLevel> bids = new ArrayList<>();
-            List<BookLevel> asks = new ArrayList<>();
-
-            for (MarketDataFeedV3.Quote q : level.getBidAskQuoteList()) {
-                bids.add(new BookLevel(q.getBidP(), q.getBidQ(), 0));
-                asks.add(new BookLevel(q.getAskP(), q.getAskQ(), 0));
+            for (int i = 0, n = level.getBidAskQuoteCount(); i < n; i++) {
+                MarketDataFeedV3.Quote q = level.getBidAskQuote(i);
+                bids.add(DepthSide.toTicks(q.getBidP()), q.getBidQ(), 0);
+                asks.add(DepthSide.toTicks(q.getAskP()), q.getAskQ(), 0);
             }
-
-            book.setBids(bids);
-            book.setAsks(asks);
-        } else {
-            book.setBids(List.of());
-            book.setAsks(List.of());
         }
 
         // Greeks
         if (ff.hasOptionGreeks()) {
             MarketDataFeedV3.OptionGreeks og = ff.getOptionGreeks();
-            book.setGreeks(Greeks.builder()
-                    .delta(og.getDelta())
-                    .gamma(og.getGamma())
-                    .theta(og.getTheta())
-                    .vega(og.getVega())
-                    .rho(og.getRho())
-                    // Fixed: getIv not standardized, using getIv if available, or 0
-                    // Assuming og.getIv() works for now based on lint feedback "undefined",
-                    // but if undefined it might be getImpVol().
-                    // Since I can't check Proto, I will comment it out to be safe for now
-                    // and avoid compilation errors until verified.
-                    // .iv(og.getIv())
-                    .build());
+            Greeks greeks = book.getGreeks();
+            if (greeks == null) {
+                greeks = new Greeks();
+                book.setGreeks(greeks);
+            }
+            greeks.setDelta(og.getDelta());
+            greeks.setGamma(og.getGamma());
+            greeks.setTheta(og.getTheta());
+            greeks.setVega(og.getVega());
+            greeks.setRho(og.getRho());
+            // Fixed: getIv not standardized, using getIv if available, or 0
+            // Assuming og.getIv() works for now based on lint feedback "undefined",
+            // but if undefined it might be getImpVol().
+            // Since I can't check Proto, I will comment it out to be safe for now
+            // and avoid compilation errors until verified.
+            // greeks.setIv(og.getIv());
+        } else {
+            book.setGreeks(null);
         }
 
         // Extended market info - Fixed casting double to long
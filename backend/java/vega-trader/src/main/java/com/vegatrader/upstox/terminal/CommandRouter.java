@@ -6,6 +6,7 @@ import com.vegatrader.util.time.TimeProvider;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -16,7 +17,10 @@ import java.util.Map;
  * 
  * <p>
  * Uses TimeProvider and TextFormatter for deterministic, locale-independent
- * execution.
+ * execution. Anything that is not an administrative command goes to the
+ * trading {@link com.vegatrader.command.CommandRouter}, so the terminal
+ * accepts the same order, quote and position commands as
+ * {@code /api/command}.
  */
 @Component("upstoxCommandRouter")
 public class CommandRouter {
@@ -28,6 +32,9 @@ public class CommandRouter {
     private final TextFormatter formatter;
     private final Map<String, Runnable> commands = new HashMap<>();
 
+    @Autowired(required = false)
+    private com.vegatrader.command.CommandRouter tradingRouter;
+
     public CommandRouter(OperatorControlState operatorControlState,
             TimeProvider timeProvider,
             TextFormatter formatter) {
@@ -62,6 +69,15 @@ public class CommandRouter {
                 .findFirst()
                 .ifPresentOrElse(
                         e -> e.getValue().run(),
-                        () -> log.warn("[{}] Unknown command: {}", formatter.formatInstant(timeProvider.now()), input));
+                        () -> route(input));
+    }
+
+    private void route(String input) {
+        if (tradingRouter == null) {
+            log.warn("[{}] Unknown command: {}", formatter.formatInstant(timeProvider.now()), input);
+            return;
+        }
+        Map<String, Object> result = tradingRouter.execute(input);
+        log.info("[{}] {} -> {}", formatter.formatInstant(timeProvider.now()), input, result);
     }
 }
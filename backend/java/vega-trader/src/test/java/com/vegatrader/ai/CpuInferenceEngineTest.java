@@ -0,0 +1,232 @@
+package com.vegatrader.ai;
+
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CPU inference engine: model math, live features, hot swap
+ * and shadow scoring.
+ */
+class CpuInferenceEngineTest {
+
+    private static final double EPS = 1e-12;
+
+    @TempDir
+    Path dir;
+
+    private final MarketCacheService cache = new MarketCacheService();
+    private final IndicatorEngine indicators = new IndicatorEngine(new BarEngine(64));
+    private final CpuInferenceEngine engine = new CpuInferenceEngine(cache, indicators);
+
+    private String write(String name, String json) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, json);
+        return file.toString();
+    }
+
+    private static String linear(String version, List<String> features, double w0, double w1, String link) {
+        return "{ \"type\": \"linear\", \"version\": \"" + version + "\", \"features\": [\"" + features.get(0)
+                + "\", \"" + features.get(1) + "\"], \"link\": \"" + link + "\", \"weights\": [[" + w0 + ", " + w1
+                + "]], \"bias\": [0.1] }";
+    }
+
+    private static double sigmoid(double z) {
+        return 1 / (1 + Math.exp(-z));
+    }
+
+    @Test
+    @DisplayName("Linear, tree and MLP models score flat batches")
+    void scoresBatches() throws IOException {
+        engine.loadModel("lin", write("lin.json", linear("v1", List.of("ltp", "volume"), 0.5, -0.25, "sigmoid")));
+        double[] out = new double[2];
+        engine.score("lin", new double[] { 1, 2, -3, 0.5 }, 2, out);
+        assertEquals(sigmoid(0.5 - 0.5 + 0.1), out[0], EPS);
+        assertEquals(sigmoid(-1.5 - 0.125 + 0.1), out[1], EPS);
+
+        engine.loadModel("gbt", write("gbt.json", """
+                { "type": "trees", "version": "t1", "features": ["ltp", "volume"], "base": [0.5],
+                  "trees": [
+                    { "feature": [0, -1, 1, -1, -1], "threshold": [1.5, 0, 10, 0, 0],
+                      "left": [1, -1, 3, -1, -1], "right": [2, -1, 4, -1, -1],
+                      "default_left": [true, false, false, false, false],
+                      "value": [0, -1, 0, 2, 3] },
+                    { "feature": [1, -1, -1], "threshold": [5, 0, 0], "left": [1, -1, -1],
+                      "right": [2, -1, -1], "value": [0, 0.25, 0.75] } ] }
+                """));
+        double[] rows = { 1, 20, 2, 4, 2, 50, Double.NaN, 1 };
+        double[] scores = new double[4];
+        engine.score("gbt", rows, 4, scores);
+        assertEquals(0.5 - 1 + 0.75, scores[0], EPS);
+        assertEquals(0.5 + 2 + 0.25, scores[1], EPS);
+        assertEquals(0.5 + 3 + 0.75, scores[2], EPS);
+        assertEquals(0.5 - 1 + 0.25, scores[3], EPS, "missing value follows the default branch");
+
+        engine.loadModel("mlp", write("mlp.json", """
+                { "type": "mlp", "version": "m1", "features": ["ltp", "volume"],
+                  "layers": [ { "weights": [[1, 1], [1, -1]], "bias": [0, 0], "activation": "relu" },
+                              { "weights": [[2, 3]], "bias": [1] } ] }
+                """));
+        double[] mlp = new double[2];
+        engine.score("mlp", new double[] { 1, 2, 3, 1 }, 2, mlp);
+        assertEquals(2 * 3 + 3 * 0 + 1, mlp[0], EPS);
+        assertEquals(2 * 4 + 3 * 2 + 1, mlp[1], EPS);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.score("mlp", new double[3], 2, mlp));
+        assertThrows(IllegalArgumentException.class, () -> engine.score("none", new double[2], 1, mlp));
+        assertEquals(2, engine.inputSize("gbt"));
+        assertEquals(1, engine.getStats("gbt").batches());
+        assertEquals(4, engine.getStats("gbt").rows());
+    }
+
+    @Test
+    @DisplayName("Instrument rows come from the live cache and indicators")
+    void scoresLiveInstruments() throws IOException {
+        cache.updateTick(LiveMarketSnapshot.builder().instrumentKey("A").ltp(100).volume(10).build());
+        cache.updateDepth(OrderBookSnapshot.builder().instrumentKey("A")
+                .bids(List.of(new DepthLevel(99, 300))).asks(List.of(new DepthLevel(101, 100))).build());
+        engine.loadModel("live", write("live.json", """
+                { "type": "linear", "version": "v1",
+                  "features": ["ltp", "spread_pct", "imbalance", "SMA(3,1m)"],
+                  "weights": [[1, 10, 100, 1000]], "bias": [0] }
+                """));
+        assertEquals(List.of("ltp", "spread_pct", "imbalance", "SMA(3,1m)"), engine.getFeatures("live"));
+
+        double[] out = new double[2];
+        engine.scoreInstruments("live", new String[] { "A", "B" }, 2, out);
+        assertTrue(Double.isNaN(out[0]), "indicator still warming up");
+        assertTrue(Double.isNaN(out[1]), "no market data");
+
+        engine.loadModel("quotes", write("quotes.json",
+                linear("v1", List.of("spread_pct", "imbalance"), 1, 10, "identity")));
+        engine.scoreInstruments("quotes", new String[] { "A" }, 1, out);
+        assertEquals(2.0 + 10 * 0.5 + 0.1, out[0], 1e-9);
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.loadModel("bad", write("bad.json", linear("v1", List.of("ltp", "nope"), 1, 1, "none"))));
+    }
+
+    @Test
+    @DisplayName("Hot swap replaces a model; a bad file keeps the old one")
+    void hotSwaps() throws IOException {
+        String v1 = write("m.json", linear("v1", List.of("ltp", "volume"), 1, 0, "identity"));
+        engine.loadModel("m", v1);
+        double[] out = new double[1];
+        engine.score("m", new double[] { 2, 3 }, 1, out);
+        assertEquals(2.1, out[0], EPS);
+
+        engine.loadModel("m", write("m2.json", linear("v2", List.of("ltp", "volume"), 0, 1, "identity")));
+        engine.score("m", new double[] { 2, 3 }, 1, out);
+        assertEquals(3.1, out[0], EPS);
+        assertEquals("v2", engine.getStats("m").version());
+        assertEquals(1, engine.getStats("m").batches(), "fresh counters per version");
+
+        String broken = write("broken.json", "{ \"type\": \"linear\", \"features\": [\"ltp\"], \"weights\": [[1, 2]] }");
+        assertThrows(IllegalArgumentException.class, () -> engine.loadModel("m", broken));
+        assertThrows(RuntimeException.class, () -> engine.loadModel("m", dir.resolve("missing.json").toString()));
+        assertEquals("v2", engine.getStats("m").version());
+    }
+
+    @Test
+    @DisplayName("Shadow models score the same rows without touching live results")
+    void shadowScoring() throws IOException {
+        engine.loadModel("m", write("m.json", linear("v1", List.of("ltp", "volume"), 1, 0, "identity")));
+        engine.loadShadow("m", write("s.json", linear("v2", List.of("ltp", "volume"), 1, 0.5, "identity")));
+
+        double[] out = new double[2];
+        engine.score("m", new double[] { 1, 2, 3, 4 }, 2, out);
+        assertEquals(1.1, out[0], EPS);
+        assertEquals(3.1, out[1], EPS);
+        CpuInferenceEngine.ShadowStats shadow = engine.getStats("m").shadow();
+        assertEquals("v2", shadow.version());
+        assertEquals(2, shadow.rows());
+        assertEquals(1.5, shadow.meanAbsDiff(), EPS);
+        assertEquals(2.0, shadow.maxAbsDiff(), EPS);
+
+        cache.updateTick(LiveMarketSnapshot.builder().instrumentKey("A").ltp(100).volume(10).build());
+        engine.loadShadow("m", write("s3.json", linear("v3", List.of("ltp", "oi"), 1, 0, "identity")));
+        engine.scoreInstruments("m", new String[] { "A" }, 1, out);
+        assertEquals(100.1, out[0], EPS);
+        assertEquals(0.0, engine.getStats("m").shadow().maxAbsDiff(), EPS, "own features assembled");
+
+        engine.loadModel("m", write("m4.json", linear("v4", List.of("ltp", "volume"), 2, 0, "identity")));
+        assertEquals("v3", engine.getStats("m").shadow().version(), "shadow survives a live swap");
+        engine.promoteShadow("m");
+        assertEquals("v3", engine.getStats("m").version());
+        assertNull(engine.getStats("m").shadow());
+        assertThrows(IllegalArgumentException.class, () -> engine.promoteShadow("m"));
+
+        engine.loadModel("two", write("two.json", """
+                { "type": "linear", "features": ["ltp"], "weights": [[1], [2]], "bias": [0, 0] }
+                """));
+        String one = write("one.json", linear("v1", List.of("ltp", "volume"), 1, 0, "identity"));
+        assertThrows(IllegalArgumentException.class, () -> engine.loadShadow("two", one));
+    }
+
+    @Test
+    @DisplayName("Model files resolve only inside the model directory")
+    void confinesModelFiles() throws IOException {
+        Path models = Files.createDirectory(dir.resolve("models"));
+        Files.writeString(models.resolve("m.json"), linear("v1", List.of("ltp", "volume"), 1, 0, "identity"));
+        write("outside.json", linear("v9", List.of("ltp", "volume"), 1, 0, "identity"));
+        CpuInferenceEngine confined = new CpuInferenceEngine(cache, indicators, models.toString());
+
+        confined.loadModel("m", confined.modelFile("m.json").toString());
+        assertEquals("v1", confined.getStats("m").version());
+        for (String bad : new String[] { "../outside.json", "sub/../../outside.json", "sub/../m.json",
+                dir.resolve("outside.json").toString(), "." }) {
+            assertThrows(IllegalArgumentException.class, () -> confined.modelFile(bad), bad);
+        }
+        assertThrows(IllegalArgumentException.class, () -> engine.modelFile("m.json"), "no model directory");
+    }
+
+    @Test
+    @DisplayName("Closing an assembler mid-batch leaks no indicator subscriptions")
+    void closeRacesAssemble() throws InterruptedException {
+        List<String> features = List.of("ltp", "SMA(3,1m)");
+        double[] out = new double[2];
+        for (int round = 0; round < 200; round++) {
+            FeatureAssembler assembler = new FeatureAssembler(features, cache, indicators);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                String prefix = round + "-" + t + "-";
+                threads[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 20; i++) {
+                        assembler.assemble(new String[] { prefix + i }, 1, new double[2]);
+                    }
+                });
+                threads[t].start();
+            }
+            start.countDown();
+            assembler.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, indicators.getStats().subscriptions(), "round " + round);
+        }
+        FeatureAssembler closed = new FeatureAssembler(features, cache, indicators);
+        closed.close();
+        closed.assemble(new String[] { "A" }, 1, out);
+        assertTrue(Double.isNaN(out[1]));
+        assertEquals(0, indicators.getStats().subscriptions());
+    }
+}
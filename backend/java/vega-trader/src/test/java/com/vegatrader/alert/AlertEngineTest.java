@@ -0,0 +1,230 @@
+package com.vegatrader.alert;
+
+import com.vegatrader.alert.dto.AlertEvent;
+import com.vegatrader.alert.entity.AlertRule;
+import com.vegatrader.alert.entity.AlertRule.AlertType;
+import com.vegatrader.indicator.IndicatorEngine;
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the price-indexed alert book and its engine.
+ */
+class AlertEngineTest {
+
+    private static final String KEY = "NSE_FO|43885";
+
+    private static AlertRule rule(String id, AlertType type, double threshold, boolean oneShot) {
+        return AlertRule.builder().id(id).clientId("c1").instrumentKey(KEY).type(type).threshold(threshold)
+                .oneShot(oneShot).message(id).build();
+    }
+
+    private static List<String> ids(List<AlertIndex.Trigger> triggers) {
+        return triggers.stream().map(t -> t.rule().getId()).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("A tick fires only the thresholds crossed since the previous price, gaps included")
+    void crossingsOnly() {
+        AlertIndex index = new AlertIndex();
+        index.add(rule("a100", AlertType.PRICE_ABOVE, 100, true));
+        index.add(rule("a105", AlertType.PRICE_ABOVE, 105, true));
+        index.add(rule("a120", AlertType.PRICE_ABOVE, 120, true));
+        index.add(rule("b90", AlertType.PRICE_BELOW, 90, true));
+
+        assertEquals(List.of(), ids(index.onTick(KEY, 95, 0, -1)));
+        assertEquals(List.of(), ids(index.onTick(KEY, 100, 0, -1)), "strictly above");
+        assertEquals(List.of("a100", "a105"), ids(index.onTick(KEY, 110, 0, -1)), "gap over two thresholds");
+        assertEquals(List.of(), ids(index.onTick(KEY, 99, 0, -1)));
+        assertEquals(List.of(), ids(index.onTick(KEY, 111, 0, -1)), "one-shot rules are gone");
+        assertEquals(List.of("b90"), ids(index.onTick(KEY, 80, 0, -1)));
+        assertEquals(1, index.size());
+
+        // Added while already satisfied: fires on the next tick
+        index.add(rule("a50", AlertType.PRICE_ABOVE, 50, true));
+        assertEquals(List.of("a50"), ids(index.onTick(KEY, 80.5, 0, -1)));
+    }
+
+    @Test
+    @DisplayName("Rearming rules fire again only after retreating past the rearm distance")
+    void rearm() {
+        AlertIndex index = new AlertIndex();
+        AlertRule r = rule("r", AlertType.PRICE_ABOVE, 100, false);
+        r.setRearmDistance(2);
+        index.add(r);
+
+        index.onTick(KEY, 99, 0, -1);
+        assertEquals(1, index.onTick(KEY, 101, 0, -1).size());
+        assertEquals(0, index.onTick(KEY, 99, 0, -1).size());
+        assertEquals(0, index.onTick(KEY, 101, 0, -1).size(), "not rearmed: only 1 below");
+        assertEquals(0, index.onTick(KEY, 97, 0, -1).size());
+        assertEquals(1, index.onTick(KEY, 100.5, 0, -1).size(), "rearmed below 98");
+        assertEquals(1, index.size());
+
+        r.setActive(false);
+        index.onTick(KEY, 90, 0, -1);
+        assertEquals(0, index.onTick(KEY, 105, 0, -1).size(), "paused rule stays silent");
+    }
+
+    @Test
+    @DisplayName("Percent rules compile against the close and recompile when it changes")
+    void percentAndVolume() {
+        AlertIndex index = new AlertIndex();
+        index.add(rule("up2", AlertType.CHANGE_PERCENT_GREATER, 2.0, false));
+        index.add(rule("dn3", AlertType.CHANGE_PERCENT_LESS, -3.0, true));
+        index.add(rule("vol", AlertType.VOLUME_GREATER, 1_000, false));
+
+        assertEquals(List.of(), ids(index.onTick(KEY, 103, 0, 500)), "no close yet");
+        assertEquals(List.of("up2"), ids(index.onTick(KEY, 103, 100, 500)), "102 band, already above");
+        assertEquals(List.of("vol"), ids(index.onTick(KEY, 101, 100, 1_500)));
+        assertEquals(List.of(), ids(index.onTick(KEY, 101, 100, 3_000)), "volume rule waits for next session");
+        assertEquals(List.of("dn3"), ids(index.onTick(KEY, 96.9, 100, 3_100)));
+
+        // Next session: close 200 -> up2 band at 204; volume rule rearmed
+        assertEquals(List.of(), ids(index.onTick(KEY, 203, 200, 100)));
+        assertEquals(List.of("up2", "vol"), ids(index.onTick(KEY, 204.5, 200, 1_001)));
+    }
+
+    @Test
+    @DisplayName("An intraday drift of the running day close does not rearm the book")
+    void closeDriftsIntraday() {
+        AlertEngine engine = new AlertEngine();
+        List<AlertEvent> pushed = new ArrayList<>();
+        engine.addListener(pushed::add);
+        AlertRule pct = rule("up2", AlertType.CHANGE_PERCENT_GREATER, 2.0, false);
+        pct.setRearmDistance(1.0);
+        engine.addRule(pct);
+        engine.addRule(rule("vol", AlertType.VOLUME_GREATER, 1_000, false));
+
+        // Full-mode ticks: the OHLC close follows the price, cp stays at 100
+        double[] prices = { 101, 102.5, 102.2, 102.8, 102.1, 102.6, 100.5, 102.3 };
+        for (int i = 0; i < prices.length; i++) {
+            engine.onTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(prices[i]).close(prices[i])
+                    .previousClose(100).volume(900 + 100L * i).build());
+        }
+        assertEquals(List.of("up2", "vol", "up2"),
+                pushed.stream().map(AlertEvent::getRuleId).collect(Collectors.toList()),
+                "fires once, rearms only below 101, volume once per session");
+    }
+
+    @Test
+    @DisplayName("Index agrees with brute-force evaluation under random walks, adds and removals")
+    void matchesBruteForce() {
+        Random random = new Random(7);
+        AlertIndex index = new AlertIndex();
+        List<AlertRule> oneShots = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            AlertType type = random.nextBoolean() ? AlertType.PRICE_ABOVE : AlertType.PRICE_BELOW;
+            AlertRule r = rule("r" + i, type, 900 + random.nextInt(200) + random.nextInt(4) * 0.25, true);
+            index.add(r);
+            oneShots.add(r);
+        }
+        // Enough removals to trigger compaction
+        for (int i = 0; i < 1_600; i++) {
+            if (i % 4 != 0) {
+                assertSame(oneShots.get(i), index.remove("r" + i));
+                oneShots.get(i).setActive(false);
+            }
+        }
+        assertNull(index.remove("r1"));
+
+        double price = 1_000;
+        double prev = Double.NaN;
+        for (int step = 0; step < 5_000; step++) {
+            price += (random.nextInt(21) - 10) * 0.25;
+            List<String> expected = new ArrayList<>();
+            for (AlertRule r : oneShots) {
+                if (!r.isActive()) {
+                    continue;
+                }
+                boolean above = r.getType() == AlertType.PRICE_ABOVE;
+                boolean now = above ? price > r.getThreshold() : price < r.getThreshold();
+                boolean before = !Double.isNaN(prev)
+                        && (above ? prev > r.getThreshold() : prev < r.getThreshold());
+                if (now && !before) {
+                    expected.add(r.getId());
+                }
+            }
+            List<String> actual = ids(index.onTick(KEY, price, 0, -1));
+            expected.sort(null);
+            assertEquals(expected, actual, "step " + step);
+            prev = price;
+        }
+        assertEquals(oneShots.stream().filter(AlertRule::isActive).count(), (long) index.size());
+    }
+
+    @Test
+    @DisplayName("Engine pushes triggered alerts to listeners and counts them")
+    void engineDelivers() {
+        AlertEngine engine = new AlertEngine();
+        List<AlertEvent> pushed = new ArrayList<>();
+        engine.addListener(pushed::add);
+        engine.addListener(e -> {
+            throw new IllegalStateException("broken listener");
+        });
+        engine.addRule(rule("a", AlertType.PRICE_ABOVE, 100, true));
+
+        engine.onTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(99).build());
+        engine.onTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(101).build());
+        assertEquals(1, pushed.size());
+        assertEquals("a", pushed.get(0).getRuleId());
+        assertEquals("c1", pushed.get(0).getClientId());
+        assertEquals(101.0, pushed.get(0).getTriggerValue(), 1e-9);
+        assertEquals(0, engine.getRuleCount());
+        assertEquals(1L, engine.getStats().get("deliveryErrors"));
+
+        engine.addRule(rule("b", AlertType.PRICE_BELOW, 50, true));
+        engine.removeRule("b");
+        engine.onTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(10).build());
+        assertEquals(1, pushed.size());
+    }
+
+    @Test
+    @DisplayName("Indicator rules fire on crossings and share one indicator feed")
+    void indicatorCrossing() {
+        long t0 = 1_767_588_300_000L; // 10:15 IST
+        BarEngine bars = new BarEngine(64);
+        IndicatorEngine indicators = new IndicatorEngine(bars);
+        AlertEngine engine = new AlertEngine();
+        engine.setIndicatorEngine(indicators);
+        List<AlertEvent> pushed = new ArrayList<>();
+        engine.addListener(pushed::add);
+
+        AlertRule above = AlertRule.builder().id("sma-up").clientId("c1").instrumentKey(KEY)
+                .type(AlertType.INDICATOR_ABOVE).indicator("sma(2, 1m)").threshold(105).oneShot(true).build();
+        AlertRule below = AlertRule.builder().id("sma-down").clientId("c1").instrumentKey(KEY)
+                .type(AlertType.INDICATOR_BELOW).indicator("SMA(2,1m)").threshold(95).oneShot(false).build();
+        engine.addRule(above);
+        engine.addRule(below);
+        assertEquals("SMA(2,1m)", above.getIndicator());
+        assertEquals(1L, engine.getStats().get("indicatorFeeds"));
+        assertEquals(1, indicators.getStats().indicators());
+
+        double[] closes = { 100, 102, 110, 112, 90, 80 };
+        for (int i = 0; i < closes.length; i++) {
+            bars.onRawTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(closes[i])
+                    .exchangeTimestamp(t0 + i * 60_000L).build());
+        }
+        // SMA(2) over closed bars: 101, 106, 111, 101; the 80 bar is still forming
+        assertEquals(List.of("sma-up"), pushed.stream().map(AlertEvent::getRuleId).collect(Collectors.toList()));
+        assertEquals(106.0, pushed.get(0).getTriggerValue(), 1e-9);
+
+        engine.removeRule("sma-down");
+        assertEquals(0L, engine.getStats().get("indicatorFeeds"));
+        assertEquals(0, indicators.getStats().indicators());
+
+        AlertRule bad = AlertRule.builder().id("bad").instrumentKey(KEY).type(AlertType.INDICATOR_ABOVE)
+                .indicator("EMA(1m)").build();
+        assertThrows(IllegalArgumentException.class, () -> engine.addRule(bad));
+        assertThrows(IllegalStateException.class, () -> new AlertEngine().addRule(above));
+    }
+}
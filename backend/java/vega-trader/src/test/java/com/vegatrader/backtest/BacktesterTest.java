@@ -0,0 +1,307 @@
+package com.vegatrader.backtest;
+
+import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeedV3;
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.journal.WireFrameHeader;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.strategy.BaseStrategy;
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator;
+import com.vegatrader.util.time.ReplayTimeProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the simulated exchange and the backtest harness.
+ */
+class BacktesterTest {
+
+    private static final long T0 = 1_767_590_100_000L; // 2026-01-05T05:15:00Z
+    private static final String KEY = "NSE_FO|43885";
+
+    @TempDir
+    Path dir;
+
+    private static byte[] frame(long ts, double ltp, long volume) {
+        return MarketDataFeedV3.FeedResponse.newBuilder()
+                .setType(MarketDataFeedV3.Type.live_feed)
+                .setCurrentTs(ts)
+                .putFeeds(KEY, MarketDataFeedV3.Feed.newBuilder()
+                        .setFullFeed(MarketDataFeedV3.FullFeed.newBuilder()
+                                .setMarketFF(MarketDataFeedV3.MarketFullFeed.newBuilder()
+                                        .setLtpc(MarketDataFeedV3.LTPC.newBuilder().setLtp(ltp).setLtt(ts)
+                                                .setCp(100.0))
+                                        .setMarketLevel(MarketDataFeedV3.MarketLevel.newBuilder()
+                                                .addBidAskQuote(MarketDataFeedV3.Quote.newBuilder()
+                                                        .setBidP(ltp - 0.5).setBidQ(100)
+                                                        .setAskP(ltp + 0.5).setAskQ(100)))
+                                        .setMarketOHLC(MarketDataFeedV3.MarketOHLC.newBuilder()
+                                                .addOhlc(MarketDataFeedV3.OHLC.newBuilder().setInterval("1d")
+                                                        .setVol(volume)))))
+                        .build())
+                .build()
+                .toByteArray();
+    }
+
+    /** One frame a second following {@code prices} */
+    private static Path journal(Path file, double[] prices) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < prices.length; i++) {
+                byte[] payload = frame(T0 + i * 1_000L, prices[i], 10_000L + i * 50L);
+                ByteBuffer header = ByteBuffer.allocate(WireFrameHeader.SIZE_BYTES);
+                WireFrameHeader.write(header, 5_000_000_000L + i * 1_000_000_000L, 1, payload.length,
+                        WireFrameHeader.PROTO_WS, WireFrameHeader.COMPRESSION_NONE);
+                header.flip();
+                channel.write(header);
+                channel.write(ByteBuffer.wrap(payload));
+            }
+        }
+        return file;
+    }
+
+    /** Buys at market on the first book, sells at market once the bid reaches the target */
+    private static final class Breakout extends BaseStrategy {
+        private final double target;
+        private int state;
+
+        Breakout(double target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getId() {
+            return "breakout-" + target;
+        }
+
+        @Override
+        public String getName() {
+            return "Breakout";
+        }
+
+        @Override
+        protected void onStart() {
+            subscribe(KEY);
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        public void onTick(LiveMarketSnapshot tick) {
+        }
+
+        @Override
+        public void onDepth(OrderBookSnapshot depth) {
+            if (state == 0) {
+                buy(KEY, 10, 0);
+                state = 1;
+            } else if (state == 1 && depth.getBids().get(0).getPrice() >= target) {
+                sell(KEY, 10, 0);
+                state = 2;
+            }
+        }
+    }
+
+    private static OrderBookSnapshot book(double bid, long bidQty, double ask, long askQty) {
+        return OrderBookSnapshot.builder().instrumentKey(KEY)
+                .bids(List.of(new DepthLevel(bid, bidQty, 1)))
+                .asks(List.of(new DepthLevel(ask, askQty, 1), new DepthLevel(ask + 0.5, 20, 1)))
+                .build();
+    }
+
+    private static LiveMarketSnapshot tick(double ltp, long volume) {
+        return LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(ltp).volume(volume).build();
+    }
+
+    private static OrderRequest order(TransactionType side, int qty, double price) {
+        return OrderRequest.builder().instrumentKey(KEY).quantity(qty).price(price)
+                .orderType(price > 0 ? OrderType.LIMIT : OrderType.MARKET).transactionType(side)
+                .productType(ProductType.INTRA).validity(ValidityType.DAY).build();
+    }
+
+    @Test
+    @DisplayName("Market orders walk the book; limit orders wait behind the displayed queue")
+    void matching() {
+        ReplayTimeProvider clock = new ReplayTimeProvider(List.of());
+        clock.setTime(Instant.ofEpochMilli(T0));
+        List<Fill> fills = new ArrayList<>();
+        SimulatedExchange exchange = new SimulatedExchange(LatencyModel.none(), QueueModel.PESSIMISTIC, null,
+                new SplittableRandom(1), clock, fills::add);
+
+        exchange.onDepth(book(99.5, 100, 100, 50));
+        exchange.onTick(tick(99.75, 1_000));
+        exchange.placeOrder(order(TransactionType.BUY, 60, 0));
+        exchange.advance(T0);
+        assertEquals(2, fills.size());
+        assertEquals(50, fills.get(0).quantity());
+        assertEquals(100.0, fills.get(0).price(), 1e-9);
+        assertEquals(10, fills.get(1).quantity());
+        assertEquals(100.5, fills.get(1).price(), 1e-9);
+
+        // Rests behind 100 lots at 99.5
+        OrderResponse bid = exchange.placeOrder(order(TransactionType.BUY, 10, 99.5));
+        exchange.advance(T0);
+        assertEquals(OrderStatus.OPEN, exchange.getOrderStatus(bid.getOrderId()));
+        exchange.onTick(tick(99.5, 1_060));
+        assertEquals(2, fills.size(), "60 of 100 ahead traded");
+        exchange.onTick(tick(99.5, 1_105));
+        assertEquals(3, fills.size());
+        assertEquals(5, fills.get(2).quantity(), "45 traded: 40 ahead, then 5 of ours");
+        assertTrue(fills.get(2).passive());
+        exchange.onTick(tick(99.0, 1_110));
+        assertEquals(5, fills.get(3).quantity(), "traded through");
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(bid.getOrderId()));
+
+        // Optimistic queue: cancellations ahead move us up
+        SimulatedExchange optimistic = new SimulatedExchange(LatencyModel.none(), QueueModel.OPTIMISTIC, null,
+                new SplittableRandom(1), clock, fills::add);
+        fills.clear();
+        optimistic.onDepth(book(99.5, 100, 100, 50));
+        optimistic.onTick(tick(99.75, 1_000));
+        optimistic.placeOrder(order(TransactionType.BUY, 10, 99.5));
+        optimistic.advance(T0);
+        optimistic.onDepth(book(99.5, 30, 100, 50));
+        optimistic.onTick(tick(99.5, 1_035));
+        assertEquals(1, fills.size());
+        assertEquals(5, fills.get(0).quantity());
+
+        assertEquals(OrderStatus.REJECTED, exchange.placeOrder(
+                OrderRequest.builder().instrumentKey(KEY).quantity(1).price(99).orderType(OrderType.SL)
+                        .transactionType(TransactionType.SELL).build()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Latency delays arrival to the book current at event time plus latency")
+    void latency() {
+        ReplayTimeProvider clock = new ReplayTimeProvider(List.of());
+        clock.setTime(Instant.ofEpochMilli(T0));
+        List<Fill> fills = new ArrayList<>();
+        SimulatedExchange exchange = new SimulatedExchange(LatencyModel.fixed(100), QueueModel.PESSIMISTIC, null,
+                new SplittableRandom(1), clock, fills::add);
+        exchange.onDepth(book(99.5, 100, 100, 50));
+        exchange.placeOrder(order(TransactionType.BUY, 10, 0));
+        exchange.advance(T0 + 99);
+        assertTrue(fills.isEmpty());
+        exchange.onDepth(book(100.5, 100, 101, 50));
+        exchange.advance(T0 + 100);
+        assertEquals(101.0, fills.get(0).price(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Option fills are charged at option rates, not futures rates")
+    void optionCharges() {
+        InstrumentMasterEntity option = new InstrumentMasterEntity();
+        option.setInstrumentKey(KEY);
+        option.setSegment("NSE_FO");
+        option.setInstrumentType("CE");
+        option.setTradingSymbol("NIFTY 24500 CE 08 JAN 26");
+        option.setExpiry(LocalDate.of(2026, 1, 8));
+        option.setStrikePrice(24_500.0);
+        option.setLotSize(75);
+        InstrumentIndex index = new InstrumentIndex(null, () -> Instant.ofEpochMilli(T0));
+        index.load(List.of(option));
+
+        ReplayTimeProvider clock = new ReplayTimeProvider(List.of());
+        clock.setTime(Instant.ofEpochMilli(T0));
+        ChargeCalculator charges = new ChargeCalculator();
+        List<Fill> fills = new ArrayList<>();
+        SimulatedExchange exchange = new SimulatedExchange(LatencyModel.none(), QueueModel.PESSIMISTIC, charges,
+                index, new SplittableRandom(1), clock, fills::add);
+        exchange.onDepth(book(99.5, 100, 100, 100));
+        exchange.placeOrder(order(TransactionType.SELL, 75, 0));
+        exchange.advance(T0);
+
+        double asOption = charges.calculate(new ChargeCalculator.ChargeRequest("CE", "NSE", "NSE_FO", "SELL", "I",
+                75, BigDecimal.valueOf(99.5))).totalCharges().doubleValue();
+        double asFuture = charges.calculate(new ChargeCalculator.ChargeRequest("FUT", "NSE", "NSE_FO", "SELL", "I",
+                75, BigDecimal.valueOf(99.5))).totalCharges().doubleValue();
+        assertEquals(1, fills.size());
+        assertEquals(asOption, fills.get(0).charges(), 1e-9);
+        assertTrue(asOption != asFuture, "option and futures rates differ");
+    }
+
+    @Test
+    @DisplayName("Report carries PnL, charges and turnover of a round trip")
+    void roundTrip() throws Exception {
+        Path file = journal(dir.resolve("day1.bin"), new double[] { 100, 99, 98, 101, 103, 105.5, 104 });
+        BacktestConfig config = BacktestConfig.builder()
+                .strategy(() -> new Breakout(105))
+                .session(BacktestSession.wire("day1", List.of(file)))
+                .initialCapital(100_000)
+                .build();
+
+        BacktestReport free = new Backtester(null).run(config);
+        assertEquals(14, free.events(), "tick and depth per frame");
+        assertEquals(2, free.fills());
+        assertEquals(10 * (105 - 100.5), free.realizedPnl(), 1e-9, "bought at the ask, sold at the bid");
+        assertEquals(free.realizedPnl(), free.netPnl(), 1e-9);
+        assertEquals(10 * 100.5 + 10 * 105, free.turnover(), 1e-9);
+        assertEquals(0, free.charges(), 1e-9);
+        assertTrue(free.maxDrawdown() >= 10 * (100.5 - 98.0) - 1e-9, "marked down to 98");
+        assertEquals(free.netPnl() * 100 / 100_000, free.returnPercent(), 1e-9);
+        assertTrue(free.positions().isEmpty());
+
+        BacktestReport charged = new Backtester(new ChargeCalculator()).run(config);
+        assertTrue(charged.charges() > 0);
+        assertEquals(charged.realizedPnl() - charged.charges(), charged.netPnl(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Runs are reproducible and a parallel sweep equals sequential runs")
+    void deterministicSweep() throws Exception {
+        Path day1 = journal(dir.resolve("day1.bin"), new double[] { 100, 99, 98, 101, 103, 105.5, 104 });
+        Path day2 = journal(dir.resolve("day2.bin"), new double[] { 104, 103.5, 106, 107, 102 });
+        BacktestConfig base = BacktestConfig.builder()
+                .strategy(() -> new Breakout(103))
+                .session(BacktestSession.wire("day1", List.of(day1)))
+                .session(BacktestSession.wire("day2", List.of(day2)))
+                .latency(LatencyModel.uniform(0, 1_500))
+                .seed(7)
+                .build();
+        Backtester backtester = new Backtester();
+
+        BacktestReport first = backtester.run(base);
+        BacktestReport second = backtester.run(base);
+        assertEquals(first, second);
+        assertEquals(2, first.sessions().size());
+        assertTrue(first.positions().isEmpty(), "squared off at session end");
+
+        List<Double> targets = List.of(100.0, 103.0, 105.0, 200.0);
+        List<BacktestReport> swept = backtester.sweep(base, targets, Breakout::new);
+        assertEquals(targets.size(), swept.size());
+        for (int i = 0; i < targets.size(); i++) {
+            double target = targets.get(i);
+            BacktestReport sequential = backtester.run(base.toBuilder().label(String.valueOf(target))
+                    .strategy(() -> new Breakout(target)).build());
+            assertEquals(sequential, swept.get(i));
+            assertEquals(sequential.fingerprint(), swept.get(i).fingerprint());
+        }
+        assertNotEquals(swept.get(1).fingerprint(), swept.get(3).fingerprint());
+    }
+}
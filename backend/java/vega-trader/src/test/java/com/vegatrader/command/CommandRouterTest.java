@@ -0,0 +1,254 @@
+package com.vegatrader.command;
+
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.execution.ExecutionGateway;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.risk.RiskEngine;
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.instrument.index.InstrumentIndex;
+import com.vegatrader.util.format.DefaultTextFormatter;
+import com.vegatrader.util.time.TimeProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for command parsing, indexed symbol resolution and order routing.
+ */
+class CommandRouterTest {
+
+    /** Monday 2026-01-05, 10:15 IST */
+    private static final TimeProvider CLOCK = () -> Instant.ofEpochMilli(1_767_588_300_000L);
+    private static final LocalDate W1 = LocalDate.of(2026, 1, 6);
+    private static final LocalDate W2 = LocalDate.of(2026, 1, 13);
+    private static final LocalDate MONTHLY = LocalDate.of(2026, 1, 27);
+
+    private final InstrumentIndex index = new InstrumentIndex(null, CLOCK);
+    private final List<OrderRequest> placed = new ArrayList<>();
+    private final List<OrderRequest> modified = new ArrayList<>();
+    private final MarketCacheService cache = new MarketCacheService();
+    private final CommandRouter router;
+
+    CommandRouterTest() {
+        List<InstrumentMasterEntity> entities = new ArrayList<>();
+        entities.add(entity("NSE_EQ|INE002A01018", "NSE_EQ", "EQ", "RELIANCE", null, null, 0, 1));
+        entities.add(entity("BSE_EQ|INE002A01018", "BSE_EQ", "EQ", "RELIANCE", null, null, 0, 1));
+        entities.add(entity("NSE_EQ|INE467B01029", "NSE_EQ", "EQ", "TCS", null, null, 0, 1));
+        entities.add(entity("NSE_EQ|INE009A01021", "NSE_EQ", "EQ", "INFY", null, null, 0, 1));
+        entities.add(entity("NSE_INDEX|Nifty 50", "NSE_INDEX", "INDEX", "Nifty 50", null, null, 0, 1));
+        int token = 40_000;
+        for (LocalDate expiry : new LocalDate[] { LocalDate.of(2025, 12, 30), W1, W2, MONTHLY,
+                LocalDate.of(2026, 2, 24) }) {
+            entities.add(entity("NSE_FO|" + token++, "NSE_FO", "FUT", "NIFTY FUT " + expiry, "NIFTY", expiry, 0, 75));
+            for (int strike = 24_000; strike <= 25_000; strike += 100) {
+                for (String type : new String[] { "CE", "PE" }) {
+                    entities.add(entity("NSE_FO|" + token++, "NSE_FO", type, "NIFTY " + strike + " " + type + " "
+                            + expiry, "NIFTY", expiry, strike, 75));
+                }
+            }
+        }
+        index.load(entities);
+        RiskEngine risk = new RiskEngine(CLOCK, new DefaultTextFormatter());
+        risk.setInstrumentIndex(index);
+        router = new CommandRouter(new RecordingGateway(), index, risk, cache);
+    }
+
+    private static InstrumentMasterEntity entity(String key, String segment, String type, String symbol,
+            String underlying, LocalDate expiry, double strike, int lotSize) {
+        InstrumentMasterEntity entity = new InstrumentMasterEntity();
+        entity.setInstrumentKey(key);
+        entity.setSegment(segment);
+        entity.setInstrumentType(type);
+        entity.setTradingSymbol(symbol);
+        entity.setUnderlyingSymbol(underlying);
+        entity.setUnderlyingKey(underlying != null ? "NSE_INDEX|Nifty 50" : null);
+        entity.setExpiry(expiry);
+        entity.setStrikePrice(expiry != null ? strike : null);
+        entity.setLotSize(lotSize);
+        entity.setFreezeQuantity(underlying != null ? 1_800 : null);
+        entity.setTickSize(5.0); // paise
+        return entity;
+    }
+
+    @Test
+    @DisplayName("One grammar covers orders, baskets, modify, cancel, positions and quotes")
+    void parses() {
+        Command.Order order = (Command.Order) CommandParser.parse("sell nifty 24500 ce w1 2L @ 120.5 sl 118 nrml ioc");
+        assertEquals(TransactionType.SELL, order.side());
+        assertEquals(new Command.Instrument("NIFTY", 24_500, "CE", "W1"), order.instrument());
+        assertEquals(2, order.quantity());
+        assertTrue(order.lots());
+        assertEquals(OrderType.SL, order.orderType());
+        assertEquals(120.5, order.price());
+        assertEquals(118, order.triggerPrice());
+        assertEquals(ProductType.MARGIN, order.product());
+
+        Command.Order plain = (Command.Order) CommandParser.parse("B RELIANCE 10 2500");
+        assertEquals(Command.Instrument.of("RELIANCE"), plain.instrument());
+        assertEquals(OrderType.LIMIT, plain.orderType());
+        assertEquals(ProductType.INTRA, plain.product());
+        assertEquals(OrderType.SLM, ((Command.Order) CommandParser.parse("SELL INFY 5 SL 1500")).orderType());
+        assertEquals("NIFTY 24500 PE 27JAN",
+                ((Command.Order) CommandParser.parse("BUY NIFTY 24500PE 27JAN 1 LOT")).instrument().toString());
+
+        Command.Basket basket = (Command.Basket) CommandParser.parse("BASKET BUY NIFTY FUT M1 1L; SELL TCS 3;");
+        assertEquals(2, basket.orders().size());
+        assertEquals("FUT", basket.orders().get(0).instrument().contract());
+        assertEquals(new Command.Modify("ORD-7", 20, 101.5, 0), CommandParser.parse("MODIFY ORD-7 20 @101.5"));
+        assertEquals(new Command.Cancel(null), CommandParser.parse("cancel all"));
+        assertInstanceOf(Command.Positions.class, CommandParser.parse("POS"));
+        assertEquals(3, ((Command.Quote) CommandParser.parse("Q RELIANCE, NIFTY 25000 CE TCS")).instruments().size());
+
+        for (String bad : new String[] { "", "HOLD RELIANCE 1", "BUY RELIANCE", "BUY RELIANCE 0", "BUY RELIANCE X",
+                "BUY RELIANCE 5 @", "BUY RELIANCE 5 SL -3", "SELL TCS 5 GTC", "BASKET", "MODIFY ORD-7" }) {
+            assertThrows(IllegalArgumentException.class, () -> CommandParser.parse(bad), bad);
+        }
+    }
+
+    @Test
+    @DisplayName("Symbols, keys and option shorthand resolve from the index")
+    void resolves() {
+        assertEquals("NSE_EQ|INE002A01018", index.resolve("reliance").instrumentKey(), "NSE preferred");
+        assertEquals("NSE_INDEX|Nifty 50", index.resolve("NIFTY").instrumentKey(), "underlying alias");
+        assertEquals("NSE_INDEX|Nifty 50", index.resolve("nifty50").instrumentKey());
+        assertEquals("BSE_EQ|INE002A01018", index.resolve("BSE_EQ|INE002A01018").instrumentKey());
+
+        assertEquals(W1, index.option("NIFTY", 24_500, true, null).expiry(), "expired series skipped");
+        assertEquals(W2, index.option("NIFTY", 24_500, false, "W2").expiry());
+        assertEquals(MONTHLY, index.future("NIFTY", "M1").expiry());
+        assertEquals(LocalDate.of(2026, 2, 24), index.future("NIFTY", "FEB").expiry());
+        assertEquals(W2, index.future("NIFTY", "13jan").expiry());
+        assertEquals(MONTHLY, index.future("NIFTY", "2026-01-27").expiry());
+        assertEquals("PE", index.option("NIFTY", 24_500, false, "W1").instrumentType());
+        assertNull(index.option("NIFTY", 24_550, true, "W1"));
+        assertNull(index.future("NIFTY", "W9"));
+        assertThrows(IllegalArgumentException.class, () -> index.future("NIFTY", "SOON"));
+
+        assertEquals(List.of("RELIANCE"), index.suggest("RELAINCE", 3), "transposition");
+        assertEquals(List.of("INFY"), index.suggest("INF", 3), "prefix");
+        assertEquals("TCS", index.suggest("TSC", 3).get(0));
+        assertTrue(index.suggest("ZZZZZZ", 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Orders are resolved, risk-checked and routed")
+    void routesOrders() {
+        Map<String, Object> result = router.execute("BUY NIFTY 24500 CE W1 2L @120.05");
+        assertEquals(OrderStatus.OPEN, result.get("status"), String.valueOf(result.get("message")));
+        OrderRequest request = placed.get(0);
+        assertEquals(index.option("NIFTY", 24_500, true, "W1").instrumentKey(), request.getInstrumentKey());
+        assertEquals(150, request.getQuantity());
+        assertEquals(OrderType.LIMIT, request.getOrderType());
+        assertEquals("CMD_LINE", request.getTag());
+
+        assertError("BUY NIFTY 24500 CE W1 100", "lot size");
+        assertError("BUY NIFTY 24500 CE W1 25L", "freeze quantity");
+        assertError("BUY RELIANCE 1 @2500.03", "tick size");
+        assertError("BUY RELAINCE 1", "did you mean RELIANCE");
+        assertError("BUY NIFTY 24550 CE W1 1L", "No contract NIFTY 24550 CE W1 (expiry 2026-01-06)");
+        assertError("BUY NIFTY 24500 CE W9 1L", "No NIFTY expiry matches W9");
+        assertEquals(1, placed.size(), "nothing else reached the gateway");
+
+        assertError("BASKET BUY RELIANCE 1; SELL NIFTY FUT M1 10", "Leg 2");
+        assertEquals(1, placed.size(), "a failing leg stops the whole basket");
+        result = router.execute("BASKET BUY RELIANCE 1; SELL NIFTY FUT M1 1L");
+        assertEquals("OK", result.get("status"));
+        assertEquals(3, placed.size());
+        assertEquals(75, placed.get(2).getQuantity());
+
+        assertError("BUY NSE_EQ|X 5", "Unknown symbol NSE_EQ|X");
+        assertEquals(3, placed.size(), "unindexed keys are not ordered");
+    }
+
+    @Test
+    @DisplayName("Modifications are checked merged with the open order")
+    void modifiesOrders() {
+        router.execute("BUY NIFTY 24500 CE W1 2L @120.05");
+        assertError("MODIFY ORD-1 100", "lot size");
+        assertError("MODIFY ORD-1 150 @120.03", "tick size");
+        assertError("MODIFY ORD-9 75", "No open order ORD-9");
+        assertTrue(modified.isEmpty());
+
+        assertEquals(OrderStatus.OPEN, router.execute("MODIFY ORD-1 225").get("status"));
+        OrderRequest request = modified.get(0);
+        assertEquals(placed.get(0).getInstrumentKey(), request.getInstrumentKey());
+        assertEquals(OrderType.LIMIT, request.getOrderType());
+        assertEquals(225, request.getQuantity());
+        assertEquals(120.05, request.getPrice(), "price kept");
+    }
+
+    @Test
+    @DisplayName("Quotes come from the market cache")
+    void quotes() {
+        cache.updateTick(LiveMarketSnapshot.builder().instrumentKey("NSE_EQ|INE467B01029").ltp(3_912.4).build());
+        Map<String, Object> result = router.execute("QUOTE TCS INFY");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> quotes = (List<Map<String, Object>>) result.get("quotes");
+        assertEquals(3_912.4, quotes.get(0).get("ltp"));
+        assertNull(quotes.get(1).get("ltp"));
+
+        result = router.execute("QUOTE NSE_EQ|X");
+        assertEquals("OK", result.get("status"), "quotes accept unindexed keys");
+    }
+
+    private void assertError(String command, String message) {
+        Map<String, Object> result = router.execute(command);
+        assertEquals("ERROR", result.get("status"), command);
+        assertTrue(String.valueOf(result.get("message")).contains(message), result.get("message") + " for " + command);
+    }
+
+    private class RecordingGateway implements ExecutionGateway {
+
+        @Override
+        public OrderResponse placeOrder(OrderRequest request) {
+            placed.add(request);
+            return OrderResponse.builder().orderId("ORD-" + placed.size()).instrumentKey(request.getInstrumentKey())
+                    .status(OrderStatus.OPEN).build();
+        }
+
+        @Override
+        public OrderResponse modifyOrder(String orderId, OrderRequest request) {
+            modified.add(request);
+            return OrderResponse.builder().orderId(orderId).status(OrderStatus.OPEN).build();
+        }
+
+        @Override
+        public OrderResponse cancelOrder(String orderId) {
+            return OrderResponse.builder().orderId(orderId).status(OrderStatus.CANCELLED).build();
+        }
+
+        @Override
+        public OrderStatus getOrderStatus(String orderId) {
+            return OrderStatus.UNKNOWN;
+        }
+
+        @Override
+        public List<OrderResponse> getOpenOrders() {
+            return List.of();
+        }
+
+        @Override
+        public OrderRequest getOpenOrder(String orderId) {
+            int n = orderId.startsWith("ORD-") ? Integer.parseInt(orderId.substring(4)) : 0;
+            return n >= 1 && n <= placed.size() ? placed.get(n - 1) : null;
+        }
+
+        @Override
+        public String getProviderName() {
+            return "TEST";
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.vegatrader.execution.paper;
+
+import com.vegatrader.backtest.LatencyModel;
+import com.vegatrader.domain.enums.OrderType;
+import com.vegatrader.domain.enums.ProductType;
+import com.vegatrader.domain.enums.TransactionType;
+import com.vegatrader.domain.enums.ValidityType;
+import com.vegatrader.execution.dto.OrderRequest;
+import com.vegatrader.execution.dto.OrderResponse;
+import com.vegatrader.execution.dto.OrderStatus;
+import com.vegatrader.market.dto.DepthLevel;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.upstox.api.order.broker.BrokerAdapter;
+import com.vegatrader.upstox.api.response.websocket.OrderUpdate;
+import com.vegatrader.upstox.api.response.websocket.PositionUpdate;
+import com.vegatrader.util.time.SystemTimeProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the paper-trading exchange.
+ */
+class PaperExchangeTest {
+
+    private static final String KEY = "NSE_FO|43885";
+
+    private final PaperExchange exchange = new PaperExchange(LatencyModel.none(), new SystemTimeProvider(), 1);
+    private final List<OrderUpdate> orderUpdates = Collections.synchronizedList(new ArrayList<>());
+    private final List<PositionUpdate> positionUpdates = Collections.synchronizedList(new ArrayList<>());
+
+    PaperExchangeTest() {
+        exchange.addOrderUpdateListener(u -> orderUpdates.add(u.getOrderUpdate()));
+        exchange.addPositionUpdateListener(u -> positionUpdates.add(u.getPositionUpdate()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exchange.shutdown();
+    }
+
+    private void depth(double bid, long bidQty, double ask, long askQty) throws InterruptedException {
+        exchange.onRawDepth(OrderBookSnapshot.builder().instrumentKey(KEY)
+                .bids(List.of(new DepthLevel(bid, bidQty, 1), new DepthLevel(bid - 0.5, 20, 1)))
+                .asks(List.of(new DepthLevel(ask, askQty, 1), new DepthLevel(ask + 0.5, 20, 1)))
+                .build());
+        sync();
+    }
+
+    private void trade(double ltp) throws InterruptedException {
+        exchange.onRawTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(ltp).build());
+        sync();
+    }
+
+    private void sync() throws InterruptedException {
+        assertTrue(exchange.awaitIdle(5_000));
+    }
+
+    private String place(TransactionType side, OrderType type, int qty, double price, double trigger)
+            throws InterruptedException {
+        OrderResponse response = exchange.placeOrder(OrderRequest.builder().instrumentKey(KEY).quantity(qty)
+                .price(price).triggerPrice(trigger).orderType(type).transactionType(side)
+                .productType(ProductType.INTRA).validity(ValidityType.DAY).build());
+        sync();
+        return response.getOrderId();
+    }
+
+    @Test
+    @DisplayName("Orders match price first, then displayed liquidity, then paper orders in time order")
+    void priceTimePriority() throws Exception {
+        depth(99.5, 100, 100, 50);
+        String first = place(TransactionType.SELL, OrderType.LIMIT, 10, 101, 0);
+        String second = place(TransactionType.SELL, OrderType.LIMIT, 10, 101, 0);
+        assertEquals(OrderStatus.OPEN, exchange.getOrderStatus(first));
+
+        String buy = place(TransactionType.BUY, OrderType.LIMIT, 85, 101, 0);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(buy));
+        assertEquals((50 * 100 + 20 * 100.5 + 15 * 101) / 85.0, exchange.getOrder(buy).getAvgPrice(), 1e-9);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(first));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, exchange.getOrderStatus(second));
+        assertEquals(5, exchange.getOrder(second).getFilledQuantity());
+
+        // Market sell walks the bids and cancels what it cannot fill
+        String sell = place(TransactionType.SELL, OrderType.MARKET, 130, 0, 0);
+        assertEquals(OrderStatus.CANCELLED, exchange.getOrderStatus(sell));
+        assertEquals(120, exchange.getOrder(sell).getFilledQuantity());
+
+        OrderUpdate last = orderUpdates.get(orderUpdates.size() - 1);
+        assertEquals(sell, last.getOrderId());
+        assertEquals("cancelled", last.getStatus());
+        assertEquals(120, last.getFilledQuantity().intValue());
+        assertTrue(orderUpdates.stream().anyMatch(u -> u.getOrderId().equals(first) && u.isExecuted()));
+    }
+
+    @Test
+    @DisplayName("Resting orders fill at their price when the market reaches them")
+    void passiveFills() throws Exception {
+        depth(99.5, 100, 100, 50);
+        String bid = place(TransactionType.BUY, OrderType.LIMIT, 10, 99, 0);
+        String ask = place(TransactionType.SELL, OrderType.LIMIT, 10, 102, 0);
+        depth(98, 100, 99, 5);
+        assertEquals(5, exchange.getOrder(bid).getFilledQuantity(), "only 5 offered through our bid");
+        assertEquals(99.0, exchange.getOrder(bid).getAvgPrice(), 1e-9);
+        trade(98.5);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(bid), "traded through");
+
+        trade(102);
+        assertEquals(OrderStatus.OPEN, exchange.getOrderStatus(ask), "a print at our price is not a fill");
+        trade(102.5);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(ask));
+    }
+
+    @Test
+    @DisplayName("Stop orders wait for their trigger, then execute as market or limit")
+    void stops() throws Exception {
+        depth(99.5, 100, 100, 50);
+        trade(99.75);
+        String slm = place(TransactionType.SELL, OrderType.SLM, 10, 0, 99);
+        String sl = place(TransactionType.BUY, OrderType.SL, 10, 101.5, 101);
+        assertEquals(OrderStatus.TRIGGER_PENDING, exchange.getOrderStatus(slm));
+        assertEquals("trigger pending", orderUpdates.get(0).getStatus());
+        assertEquals(OrderStatus.REJECTED, exchange.getOrderStatus(
+                place(TransactionType.BUY, OrderType.SL, 10, 101, 0)), "SL needs a trigger");
+
+        depth(98.5, 100, 99, 50);
+        trade(98.75);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(slm));
+        assertEquals(98.5, exchange.getOrder(slm).getAvgPrice(), 1e-9);
+
+        depth(101, 100, 101.5, 5);
+        trade(101.25);
+        assertEquals(OrderStatus.PARTIALLY_FILLED, exchange.getOrderStatus(sl), "limit 101.5 after trigger");
+        assertEquals(5, exchange.getOrder(sl).getFilledQuantity());
+    }
+
+    @Test
+    @DisplayName("Repricing loses time priority, reducing size keeps it; cancel removes from the book")
+    void modifyAndCancel() throws Exception {
+        depth(99.5, 100, 100, 50);
+        String a = place(TransactionType.BUY, OrderType.LIMIT, 10, 99, 0);
+        String b = place(TransactionType.BUY, OrderType.LIMIT, 10, 99, 0);
+        exchange.modifyOrder(a, OrderRequest.builder().quantity(10).price(98.5).build());
+        exchange.modifyOrder(a, OrderRequest.builder().quantity(10).price(99).build());
+        exchange.modifyOrder(b, OrderRequest.builder().quantity(6).price(99).build());
+        sync();
+        assertEquals(6, exchange.getOpenOrder(b).getQuantity());
+        assertEquals(OrderType.LIMIT, exchange.getOpenOrder(b).getOrderType());
+
+        place(TransactionType.SELL, OrderType.LIMIT, 120 + 6 + 4, 99, 0);
+        assertEquals(OrderStatus.COMPLETE, exchange.getOrderStatus(b), "b is now first at 99");
+        assertEquals(4, exchange.getOrder(a).getFilledQuantity());
+
+        exchange.cancelOrder(a);
+        sync();
+        assertEquals(OrderStatus.CANCELLED, exchange.getOrderStatus(a));
+        assertEquals(OrderStatus.REJECTED, exchange.cancelOrder(a).getStatus());
+        assertNull(exchange.getOpenOrder(a));
+        assertTrue(exchange.getOpenOrders().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Positions track averages and PnL; exit-all squares them off")
+    void positions() throws Exception {
+        depth(99.5, 100, 100, 50);
+        place(TransactionType.BUY, OrderType.MARKET, 10, 0, 0);
+        depth(100.5, 100, 101, 50);
+        place(TransactionType.SELL, OrderType.MARKET, 4, 0, 0);
+        trade(101);
+
+        PositionUpdate position = exchange.getPositions().get(0);
+        assertEquals(6, position.getNetQuantity().intValue());
+        assertEquals(100.0, position.getBuyAverage(), 1e-9);
+        assertEquals(4 * 0.5, position.getRealizedPnl(), 1e-9);
+        assertEquals(6 * 1.0, position.getUnrealizedPnl(), 1e-9);
+        assertEquals("I", position.getProduct());
+        assertEquals(2, positionUpdates.size(), "one per fill");
+
+        assertEquals(1, exchange.exitAllPositions("NSE_FO").size());
+        sync();
+        assertEquals(0, exchange.getPositions().get(0).getNetQuantity().intValue());
+        assertTrue(exchange.exitAllPositions(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Broker adapter maps the broker contract onto the exchange")
+    void brokerAdapter() throws Exception {
+        PaperBrokerAdapter adapter = new PaperBrokerAdapter(exchange);
+        depth(99.5, 100, 100, 50);
+        BrokerAdapter.MultiOrderResult batch = adapter.placeMultiOrder(List.of(
+                new BrokerAdapter.OrderRequest("c1", KEY, "SELL", "LIMIT", "I", 5, BigDecimal.valueOf(102), null,
+                        "DAY", 0, "t", false, false),
+                new BrokerAdapter.OrderRequest("c2", KEY, "BUY", "MARKET", "I", 5, null, null, "DAY", 0, "t",
+                        false, false),
+                new BrokerAdapter.OrderRequest("c3", KEY, "BUY", "SL-M", "I", 5, null, null, "DAY", 0, "t",
+                        false, false)));
+        sync();
+        assertEquals("partial_success", batch.status());
+        assertEquals("c2", batch.results().get(0).correlationId(), "BUY first");
+        assertFalse(batch.results().get(1).success(), "SL-M without trigger");
+
+        String sellId = batch.results().get(2).orderId();
+        assertEquals("OPEN", adapter.getOrderStatus(sellId).status());
+        assertTrue(adapter.modifyOrder(new BrokerAdapter.ModifyRequest(sellId, "c1", null,
+                BigDecimal.valueOf(99.5), null, null, null, null)).success());
+        sync();
+        assertEquals("COMPLETE", adapter.getOrderStatus(sellId).status());
+        assertEquals(2, adapter.getTradesForDay().size());
+        assertEquals(1, adapter.getOrderTrades(sellId).size());
+        assertEquals(3, adapter.getOrderBook().size());
+    }
+
+    @Test
+    @DisplayName("Thousands of crossing orders stay consistent: every fill has a counterparty")
+    void sustainedFlow() throws Exception {
+        PaperExchange fast = new PaperExchange(LatencyModel.uniform(0, 2), new SystemTimeProvider(), 3);
+        List<PaperExchange.Trade> streamed = Collections.synchronizedList(new ArrayList<>());
+        fast.addTradeListener(streamed::add);
+        try {
+            Random random = new Random(11);
+            int orders = 20_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                fast.placeOrder(OrderRequest.builder().instrumentKey(KEY).quantity(1 + random.nextInt(5))
+                        .price(100 + (random.nextInt(11) - 5) * 0.05).orderType(OrderType.LIMIT)
+                        .transactionType(random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL)
+                        .productType(ProductType.INTRA).validity(ValidityType.DAY).build());
+            }
+            assertTrue(fast.awaitIdle(20_000));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long bought = 0;
+            long sold = 0;
+            for (PaperExchange.Trade trade : streamed) {
+                if (trade.side() == TransactionType.BUY) {
+                    bought += trade.quantity();
+                } else {
+                    sold += trade.quantity();
+                }
+            }
+            assertTrue(bought > 0);
+            assertEquals(bought, sold);
+            assertEquals(orders, fast.getStatistics().orders());
+            assertTrue(orders / seconds > 1_000, "orders/s: " + orders / seconds);
+            assertTrue(fast.getTrades().size() <= PaperExchange.DEFAULT_RETAINED);
+            assertEquals(fast.getStatistics().openOrders(), fast.getOpenOrders().size(), "only open orders kept");
+        } finally {
+            fast.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Pending actions, closed orders and trades stay within their bounds")
+    void bounded() throws Exception {
+        PaperExchange small = new PaperExchange(LatencyModel.fixed(200), new SystemTimeProvider(), 5, 4, 2, 3);
+        try {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                ids.add(small.placeOrder(OrderRequest.builder().instrumentKey(KEY).quantity(1).price(100)
+                        .orderType(OrderType.LIMIT).transactionType(i % 2 == 0 ? TransactionType.BUY
+                                : TransactionType.SELL)
+                        .productType(ProductType.INTRA).validity(ValidityType.DAY).build()).getOrderId());
+            }
+            assertEquals(OrderStatus.REJECTED, small.getOrderStatus(ids.get(4)), "over max pending");
+            assertEquals("Paper exchange overloaded", small.getOrder(ids.get(5)).getMessage());
+            small.onRawTick(LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(100).build());
+            assertEquals(1, small.getStatistics().droppedMarketData());
+            assertEquals(OrderStatus.REJECTED, small.cancelOrder(ids.get(0)).getStatus());
+
+            assertTrue(small.awaitIdle(5_000));
+            assertEquals(0, small.getStatistics().openOrders(), "two crossing pairs filled");
+            assertEquals(OrderStatus.UNKNOWN, small.getOrderStatus(ids.get(0)), "evicted from retention");
+            assertEquals(OrderStatus.COMPLETE, small.getOrderStatus(ids.get(3)));
+            assertEquals(3, small.getTrades().size(), "4 fills, 3 retained");
+            assertEquals(4, small.getStatistics().fills());
+        } finally {
+            small.shutdown();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.vegatrader.indicator;
+
+import com.vegatrader.market.bar.BarEngine;
+import com.vegatrader.market.bar.Timeframe;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.upstox.api.expired.model.Candle;
+import com.vegatrader.util.locale.LocaleConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming indicators and the shared indicator engine.
+ */
+class IndicatorEngineTest {
+
+    /** 2026-01-05 10:15 IST */
+    private static final long T0 = 1_767_588_300_000L;
+    private static final String KEY = "NSE_FO|43885";
+    private static final double EPS = 1e-9;
+
+    private static LiveMarketSnapshot tick(long ts, double ltp, long volume) {
+        return LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(ltp).volume(volume)
+                .exchangeTimestamp(ts).build();
+    }
+
+    /** Random walk bars: {high, low, close} */
+    private static double[][] bars(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] bars = new double[n][];
+        double price = 20_000;
+        for (int i = 0; i < n; i++) {
+            double close = price + random.nextDouble(-40, 40);
+            double high = Math.max(price, close) + random.nextDouble(0, 10);
+            double low = Math.min(price, close) - random.nextDouble(0, 10);
+            bars[i] = new double[] { high, low, close };
+            price = close;
+        }
+        return bars;
+    }
+
+    private static double mean(double[][] bars, int end, int period) {
+        double sum = 0;
+        for (int i = end - period + 1; i <= end; i++) {
+            sum += bars[i][2];
+        }
+        return sum / period;
+    }
+
+    private static double stdDev(double[][] bars, int end, int period) {
+        double m = mean(bars, end, period);
+        double sq = 0;
+        for (int i = end - period + 1; i <= end; i++) {
+            sq += (bars[i][2] - m) * (bars[i][2] - m);
+        }
+        return Math.sqrt(sq / period);
+    }
+
+    @Test
+    @DisplayName("Streaming indicators match a full recomputation")
+    void matchesReference() {
+        int period = 14;
+        double[][] bars = bars(2_000, 7);
+        Sma sma = new Sma(period);
+        Ema ema = new Ema(period);
+        Rsi rsi = new Rsi(period);
+        Atr atr = new Atr(period);
+        BollingerBands bb = new BollingerBands(period, 2);
+        ZScore z = new ZScore(period);
+        Indicator[] all = { sma, ema, rsi, atr, bb, z };
+
+        double refEma = 0;
+        double gain = 0;
+        double loss = 0;
+        double refAtr = 0;
+        for (int i = 0; i < bars.length; i++) {
+            double high = bars[i][0];
+            double low = bars[i][1];
+            double close = bars[i][2];
+            for (Indicator indicator : all) {
+                indicator.update(T0 + i * 60_000L, close, high, low, close, 10);
+            }
+
+            double tr = i == 0 ? high - low
+                    : Math.max(high - low, Math.max(Math.abs(high - bars[i - 1][2]),
+                            Math.abs(low - bars[i - 1][2])));
+            if (i < period) {
+                refAtr += tr / period;
+            } else {
+                refAtr = (refAtr * (period - 1) + tr) / period;
+            }
+            if (i > 0) {
+                double change = close - bars[i - 1][2];
+                if (i <= period) {
+                    gain += Math.max(change, 0) / period;
+                    loss += Math.max(-change, 0) / period;
+                } else {
+                    gain = (gain * (period - 1) + Math.max(change, 0)) / period;
+                    loss = (loss * (period - 1) + Math.max(-change, 0)) / period;
+                }
+            }
+            if (i == period - 1) {
+                refEma = mean(bars, i, period);
+            } else if (i >= period) {
+                refEma += 2.0 / (period + 1) * (close - refEma);
+            }
+
+            if (i < period - 1) {
+                assertFalse(sma.isReady());
+                assertTrue(Double.isNaN(ema.value()));
+                continue;
+            }
+            double m = mean(bars, i, period);
+            double sd = stdDev(bars, i, period);
+            assertEquals(m, sma.value(), EPS * m);
+            assertEquals(refEma, ema.value(), EPS * m);
+            assertEquals(refAtr, atr.value(), 1e-6);
+            assertEquals(m + 2 * sd, bb.value(IndicatorSpec.Band.UPPER), 1e-6);
+            assertEquals(m - 2 * sd, bb.value(IndicatorSpec.Band.LOWER), 1e-6);
+            assertEquals((close - m) / sd, z.value(), 1e-6);
+            if (i >= period) {
+                assertEquals(100 - 100 / (1 + gain / loss), rsi.value(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("VWAP weights typical price by volume and restarts each IST day")
+    void vwap() {
+        Vwap vwap = new Vwap();
+        assertFalse(vwap.isReady());
+        vwap.update(T0, 0, 12, 9, 9, 100); // typical 10
+        vwap.update(T0 + 60_000, 0, 22, 19, 19, 300); // typical 20
+        assertEquals(17.5, vwap.value(), EPS);
+        vwap.update(T0 + 86_400_000L, 0, 31, 29, 30, 10);
+        assertEquals(30, vwap.value(), EPS);
+    }
+
+    @Test
+    @DisplayName("Specs parse, print canonically and reject nonsense")
+    void specs() {
+        IndicatorSpec bb = IndicatorSpec.parse(" bollinger(20, 2.5, 5m).Upper ");
+        assertEquals(IndicatorSpec.Kind.BB, bb.kind());
+        assertEquals(IndicatorSpec.Band.UPPER, bb.band());
+        assertEquals("BB(20,2.5,5m).upper", bb.toString());
+        assertEquals("BB(20,2,1h)", IndicatorSpec.parse("BB(20,1h)").toString());
+        assertEquals("VWAP(1m)", IndicatorSpec.parse("vwap(1minute)").toString());
+        assertTrue(IndicatorSpec.parse("EMA(9,tick)").isTick());
+        for (String bad : new String[] { "EMA(1m)", "RSI(14,2m)", "FOO(3,1m)", "SMA(0,1m)", "EMA(9,1m).upper",
+                "VWAP(5,1m)", "EMA 9 1m" }) {
+            assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse(bad), bad);
+        }
+    }
+
+    @Test
+    @DisplayName("Subscribers share one indicator, warmed up from held bars")
+    void sharedSubscriptions() {
+        BarEngine bars = new BarEngine(64);
+        IndicatorEngine engine = new IndicatorEngine(bars);
+
+        List<Candle> history = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            history.add(new Candle(ZonedDateTime.ofInstant(Instant.ofEpochMilli(T0 + i * 60_000L),
+                    LocaleConstants.IST_ZONE), 100 + i, 100 + i, 100 + i, 100 + i, 10, 0));
+        }
+        bars.backfill(KEY, Timeframe.M1, history);
+        bars.onRawTick(tick(T0 + 5 * 60_000L, 105, 1_000)); // bar 5 forming
+
+        List<Double> a = new ArrayList<>();
+        List<Double> b = new ArrayList<>();
+        List<Double> upper = new ArrayList<>();
+        IndicatorSpec sma = IndicatorSpec.parse("SMA(3,1m)");
+        IndicatorEngine.Subscription s1 = engine.subscribe(KEY, sma, (k, s, t, v) -> a.add(v));
+        engine.subscribe(KEY, IndicatorSpec.parse("sma(3, 1m)"), (k, s, t, v) -> b.add(v));
+        engine.subscribe(KEY, IndicatorSpec.parse("BB(3,1m).upper"), (k, s, t, v) -> upper.add(v));
+        engine.subscribe(KEY, IndicatorSpec.parse("BB(3,1m).lower"), (k, s, t, v) -> {
+        });
+        assertEquals(2, engine.getStats().indicators());
+        assertEquals(4, engine.getStats().subscriptions());
+        assertEquals(103, s1.value(), EPS, "warmed up from closed bars 102..104");
+
+        bars.onRawTick(tick(T0 + 6 * 60_000L, 106, 1_010)); // closes bar 5 at 105
+        assertEquals(List.of(104.0), a);
+        assertEquals(List.of(104.0), b);
+        assertEquals(1, upper.size());
+        assertTrue(upper.get(0) > 104);
+        assertEquals(104, engine.getValue(KEY, sma), EPS);
+        assertEquals(2, engine.getStats().updates(), "one update per shared indicator");
+
+        s1.close();
+        s1.close();
+        bars.onRawTick(tick(T0 + 7 * 60_000L, 107, 1_020));
+        assertEquals(1, a.size(), "closed subscription hears nothing");
+        assertEquals(List.of(104.0, 105.0), b);
+        assertEquals(3, engine.getStats().subscriptions());
+    }
+
+    @Test
+    @DisplayName("Tick-mode indicators follow every trade")
+    void tickMode() {
+        BarEngine bars = new BarEngine(64);
+        IndicatorEngine engine = new IndicatorEngine(bars);
+        List<Double> values = new ArrayList<>();
+        engine.subscribe(KEY, IndicatorSpec.parse("SMA(2,tick)"), (k, s, t, v) -> values.add(v));
+        engine.subscribe(KEY, IndicatorSpec.parse("VWAP(tick)"), (k, s, t, v) -> {
+        });
+
+        engine.onRawTick(tick(T0, 100, 1_000));
+        engine.onRawTick(tick(T0 + 10, 102, 1_100));
+        engine.onRawTick(tick(T0 + 5, 90, 1_050)); // late, ignored
+        engine.onRawTick(tick(T0 + 20, 104, 1_400));
+        assertEquals(List.of(101.0, 103.0), values);
+        assertEquals((102 * 100 + 104 * 300) / 400.0, engine.getValue(KEY, IndicatorSpec.parse("VWAP(tick)")),
+                EPS);
+    }
+}
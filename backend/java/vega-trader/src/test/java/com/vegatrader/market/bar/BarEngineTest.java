@@ -0,0 +1,270 @@
+package com.vegatrader.market.bar;
+
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.upstox.api.expired.model.Candle;
+import com.vegatrader.util.locale.LocaleConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for tick-to-bar aggregation.
+ */
+class BarEngineTest {
+
+    /** 2026-01-05 10:15 IST, an hourly bar boundary */
+    private static final long T0 = 1_767_588_300_000L;
+    private static final String KEY = "NSE_FO|43885";
+
+    private static LiveMarketSnapshot tick(long ts, double ltp, long volume) {
+        return LiveMarketSnapshot.builder()
+                .instrumentKey(KEY)
+                .ltp(ltp)
+                .volume(volume)
+                .oi(500)
+                .exchangeTimestamp(ts)
+                .receiveTimestamp(ts + 86_400_000L) // wall clock must not matter
+                .build();
+    }
+
+    /** Engine building every timeframe of {@link #KEY} */
+    private static BarEngine subscribed(int capacity) {
+        BarEngine engine = new BarEngine(capacity);
+        for (Timeframe tf : Timeframe.values()) {
+            engine.subscribe(KEY, tf);
+        }
+        return engine;
+    }
+
+    private static Candle candle(long ts, double o, double h, double l, double c, long v) {
+        return new Candle(ZonedDateTime.ofInstant(Instant.ofEpochMilli(ts), LocaleConstants.IST_ZONE),
+                o, h, l, c, v, 0);
+    }
+
+    @Test
+    @DisplayName("Bars align to the session open")
+    void alignment() {
+        long t = T0 + 65 * 60_000L + 12_345;
+        assertEquals(T0 + 60 * 60_000L, Timeframe.H1.bucket(t));
+        assertEquals(T0 + 65 * 60_000L, Timeframe.M5.bucket(t));
+        assertEquals(T0 + 65 * 60_000L + 12_000, Timeframe.S1.bucket(t));
+        assertEquals(Timeframe.M15, Timeframe.fromCode("15minute"));
+        assertTrue(Timeframe.H1.isMultipleOf(Timeframe.M15));
+        assertFalse(Timeframe.M1.isMultipleOf(Timeframe.M5));
+    }
+
+    @Test
+    @DisplayName("Bars roll on exchange time and close on the next bar's first tick")
+    void rolls() {
+        BarEngine engine = subscribed(64);
+        List<String> closed = new ArrayList<>();
+        engine.addListener((series, index) -> closed.add(series.getTimeframe().getCode() + "@"
+                + (series.time(index) - T0) / 1000));
+
+        engine.onRawTick(tick(T0, 100, 1_000));
+        engine.onRawTick(tick(T0 + 10_000, 101, 1_100));
+        engine.onRawTick(tick(T0 + 30_000, 99, 1_150));
+        engine.onRawTick(tick(T0 + 61_000, 102, 1_200));
+
+        BarSeries m1 = engine.getSeries(KEY, Timeframe.M1);
+        assertEquals(2, m1.size());
+        assertEquals(T0, m1.time(0));
+        assertEquals(100, m1.open(0));
+        assertEquals(101, m1.high(0));
+        assertEquals(99, m1.low(0));
+        assertEquals(99, m1.close(0));
+        assertEquals(150, m1.volume(0), "first tick is the volume baseline");
+        assertEquals(500, m1.openInterest(0));
+        assertEquals(102, m1.open(1));
+        assertEquals(50, m1.volume(1));
+
+        BarSeries h1 = engine.getSeries(KEY, Timeframe.H1);
+        assertEquals(1, h1.size());
+        assertEquals(200, h1.volume(0));
+
+        assertEquals(4, engine.getSeries(KEY, Timeframe.S1).size());
+        assertEquals(List.of("1s@0", "1s@10", "1s@30", "1m@0"), closed);
+        assertEquals(4, engine.getStats().barsClosed());
+
+        engine.onRawTick(tick(T0 + 62_000, 103, 1_210));
+        LiveMarketSnapshot stale = tick(T0 + 63_000, 1, 9_999);
+        stale.setStale(true);
+        engine.onRawTick(stale);
+        engine.onRawTick(tick(0, 1, 9_999));
+        assertEquals(103, m1.close(1));
+        assertEquals(60, m1.volume(1));
+        assertEquals(2, engine.getStats().dropped());
+    }
+
+    @Test
+    @DisplayName("Series are allocated per timeframe on first subscription")
+    void lazySeries() {
+        BarEngine engine = new BarEngine(64);
+        engine.onRawTick(tick(T0, 100, 1_000));
+        assertNull(engine.getSeries(KEY, Timeframe.M1), "no subscriber, no bars");
+        assertEquals(0, engine.getStats().instruments());
+        assertEquals(1, engine.getStats().ticks());
+
+        BarSeries m5 = engine.subscribe(KEY, Timeframe.M5);
+        assertSame(m5, engine.subscribe(KEY, Timeframe.M5));
+        assertEquals(0, m5.size());
+        engine.onRawTick(tick(T0 + 1_000, 101, 1_010));
+        assertEquals(1, m5.size());
+        for (Timeframe tf : Timeframe.values()) {
+            assertEquals(tf == Timeframe.M5, engine.getSeries(KEY, tf) != null, tf.getCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Late ticks correct earlier bars and move their volume back")
+    void lateTicks() {
+        BarEngine engine = subscribed(4);
+        List<Long> corrected = new ArrayList<>();
+        engine.addListener(new BarListener() {
+            @Override
+            public void onBarClose(BarSeries series, int index) {
+            }
+
+            @Override
+            public void onBarCorrected(BarSeries series, int index) {
+                if (series.getTimeframe() == Timeframe.S1) {
+                    corrected.add(series.time(index) - T0);
+                }
+            }
+        });
+
+        engine.onRawTick(tick(T0, 100, 1_000));
+        engine.onRawTick(tick(T0 + 20_000, 100, 1_010));
+        engine.onRawTick(tick(T0 + 61_000, 105, 1_100));
+        engine.onRawTick(tick(T0 + 50_000, 90, 1_080)); // late
+
+        BarSeries m1 = engine.getSeries(KEY, Timeframe.M1);
+        assertEquals(2, m1.size());
+        assertEquals(90, m1.low(0));
+        assertEquals(90, m1.close(0), "latest tick of the bar sets the close");
+        assertEquals(80, m1.volume(0));
+        assertEquals(20, m1.volume(1));
+        assertEquals(105, m1.close(1), "forming bar keeps its close");
+
+        BarSeries s1 = engine.getSeries(KEY, Timeframe.S1);
+        assertEquals(4, s1.size());
+        assertEquals(List.of(0L, 20_000L, 50_000L, 61_000L),
+                List.of(s1.time(0) - T0, s1.time(1) - T0, s1.time(2) - T0, s1.time(3) - T0));
+        assertEquals(70, s1.volume(2));
+        assertEquals(20, s1.volume(3));
+        assertEquals(List.of(50_000L), corrected);
+
+        // the ring is full: a bar before the oldest cannot be held
+        engine.onRawTick(tick(T0 - 5_000, 95, 1_090));
+        assertEquals(4, s1.size());
+        assertEquals(T0, s1.time(0));
+        assertTrue(engine.getStats().dropped() > 0);
+
+        // inserting into a full ring evicts the oldest bar
+        engine.onRawTick(tick(T0 + 40_000, 97, 1_095));
+        assertEquals(List.of(20_000L, 40_000L, 50_000L, 61_000L),
+                List.of(s1.time(0) - T0, s1.time(1) - T0, s1.time(2) - T0, s1.time(3) - T0));
+        assertEquals(97, s1.close(1));
+    }
+
+    @Test
+    @DisplayName("Backfill rolls candles up and merges them under the live bars")
+    void backfill() {
+        BarEngine engine = subscribed(64);
+        engine.onRawTick(tick(T0 + 9 * 60_000L + 30_000, 110, 5_000));
+        engine.onRawTick(tick(T0 + 9 * 60_000L + 40_000, 111, 5_010));
+
+        List<Candle> history = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) { // out of order on purpose
+            double p = 100 + i;
+            history.add(candle(T0 + i * 60_000L, p, p + 2, p - 1, p + 1, 100));
+        }
+        engine.backfill(KEY, Timeframe.M1, history);
+
+        BarSeries m1 = engine.getSeries(KEY, Timeframe.M1);
+        assertEquals(10, m1.size());
+        assertEquals(T0, m1.time(0));
+        assertEquals(100, m1.open(0));
+        assertEquals(109, m1.open(9), "forming bar takes the historical open");
+        assertEquals(111, m1.close(9), "and keeps the live close");
+        assertEquals(111, m1.high(9));
+        assertEquals(100, m1.volume(9));
+
+        BarSeries m5 = engine.getSeries(KEY, Timeframe.M5);
+        assertEquals(2, m5.size());
+        assertEquals(100, m5.open(0));
+        assertEquals(106, m5.high(0));
+        assertEquals(99, m5.low(0));
+        assertEquals(105, m5.close(0));
+        assertEquals(500, m5.volume(0));
+        assertEquals(105, m5.open(1));
+        assertEquals(111, m5.close(1));
+
+        assertEquals(1, engine.getSeries(KEY, Timeframe.H1).size());
+        assertEquals(2, engine.getSeries(KEY, Timeframe.S1).size(), "1s is finer than the candles");
+
+        engine.onRawTick(tick(T0 + 10 * 60_000L, 112, 5_050));
+        assertEquals(11, m1.size());
+        assertEquals(40, m1.volume(10));
+
+        List<Candle> copy = m1.toCandles(3);
+        assertEquals(3, copy.size());
+        assertEquals(T0 + 10 * 60_000L, copy.get(2).timestamp().toInstant().toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Optimistic reads never see a torn series")
+    void concurrentReads() throws Exception {
+        BarEngine engine = subscribed(32);
+        engine.onRawTick(tick(T0, 100, 0));
+        BarSeries s1 = engine.getSeries(KEY, Timeframe.S1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                long stamp;
+                boolean ordered;
+                boolean ranged;
+                do {
+                    stamp = s1.beginRead();
+                    ordered = true;
+                    ranged = true;
+                    int n = s1.size();
+                    for (int i = 1; i < n; i++) {
+                        ordered &= s1.time(i) > s1.time(i - 1);
+                    }
+                    for (int i = 0; i < n; i++) {
+                        ranged &= s1.low(i) <= s1.close(i) && s1.close(i) <= s1.high(i);
+                    }
+                } while (!s1.validate(stamp));
+                if (!ordered || !ranged) {
+                    failure.set("torn read at version " + stamp);
+                }
+            }
+        });
+        reader.start();
+        long volume = 0;
+        for (int i = 1; i < 200_000; i++) {
+            long ts = T0 + i * 250L;
+            if (i % 7 == 0) {
+                ts -= 1_500; // late
+            }
+            engine.onRawTick(tick(ts, 100 + (i % 13), volume += 3));
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(32, s1.size());
+        assertTrue(engine.getStats().corrections() > 0);
+    }
+}
@@ -0,0 +1,139 @@
+package com.vegatrader.market.depth;
+
+import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeedV3;
+import com.vegatrader.market.depth.model.BookLevel;
+import com.vegatrader.market.depth.model.DepthSide;
+import com.vegatrader.market.depth.model.L30OrderBook;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.upstox.mapper.FullD30Mapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the primitive depth model and the loop-based book operations.
+ */
+class OrderBookCompressorTest {
+
+    private static final String KEY = "NSE_FO|43885";
+    private static final double EPS = 1e-9;
+
+    /** Full feed with {@code depth} levels around 100.00, 0.05 apart */
+    private static MarketDataFeedV3.MarketFullFeed feed(int depth, long qtyOffset) {
+        MarketDataFeedV3.MarketLevel.Builder level = MarketDataFeedV3.MarketLevel.newBuilder();
+        for (int i = 0; i < depth; i++) {
+            level.addBidAskQuote(MarketDataFeedV3.Quote.newBuilder()
+                    .setBidP(100.00 - 0.05 * i).setBidQ(100 + i + qtyOffset)
+                    .setAskP(100.05 + 0.05 * i).setAskQ(200 + i));
+        }
+        return MarketDataFeedV3.MarketFullFeed.newBuilder()
+                .setLtpc(MarketDataFeedV3.LTPC.newBuilder().setLtp(100.05).setCp(99).setLtt(1_767_590_100_000L))
+                .setMarketLevel(level)
+                .build();
+    }
+
+    private static L30OrderBook book(List<BookLevel> bids, List<BookLevel> asks) {
+        return L30OrderBook.builder().instrumentKey(KEY).bids(bids).asks(asks).build();
+    }
+
+    @Test
+    @DisplayName("Full feeds map into reused primitive arrays at exact prices")
+    void mapsInPlace() {
+        FullD30Mapper mapper = new FullD30Mapper();
+        L30OrderBook book = new L30OrderBook();
+        assertSame(book, mapper.mapInto(feed(30, 0), KEY, book));
+        assertEquals(30, book.bids().size());
+        assertEquals(10_000, book.bids().price(0));
+        assertEquals(9_855, book.bids().price(29), "0.05 steps without floating-point drift");
+        assertEquals(10_150, book.asks().price(29));
+        assertEquals(129, book.bids().qty(29));
+        assertEquals(100.05, book.getLtp(), EPS);
+
+        List<BookLevel> copy = book.getBids();
+        mapper.mapInto(feed(3, 50), KEY, book);
+        assertEquals(3, book.bids().size());
+        assertEquals(150, book.bids().qty(0));
+        assertEquals(30, copy.size(), "list views are copies");
+        assertEquals(100, copy.get(0).getQuantity());
+
+        L30OrderBook mapped = mapper.map(feed(3, 50), KEY);
+        assertEquals(0, OrderBookCompressor.diff(book, mapped, DepthSide.MAX_DEPTH));
+        OrderBookSnapshot top = new OrderBookCompressor().compress(mapped, OrderBookCompressor.LEVELS_5);
+        assertEquals(3, top.getBids().size());
+        assertEquals(99.95, top.getBids().get(1).getPrice(), EPS);
+    }
+
+    @Test
+    @DisplayName("Aggregation, imbalance, microprice and diff masks")
+    void bookOperations() {
+        L30OrderBook book = book(
+                List.of(new BookLevel(100.00, 10, 1), new BookLevel(99.75, 20, 2), new BookLevel(99.50, 30, 3),
+                        new BookLevel(99.45, 5, 1)),
+                List.of(new BookLevel(100.05, 40, 4), new BookLevel(100.50, 10, 1), new BookLevel(100.55, 10, 1)));
+
+        L30OrderBook coarse = new L30OrderBook();
+        OrderBookCompressor.aggregate(book, 0.5, coarse);
+        assertEquals(3, coarse.bids().size());
+        assertEquals(10_000, coarse.bids().price(0));
+        assertEquals(9_950, coarse.bids().price(1), "99.75 and 99.50 round down into 99.50");
+        assertEquals(50, coarse.bids().qty(1));
+        assertEquals(5, coarse.bids().orders(1));
+        assertEquals(9_900, coarse.bids().price(2));
+        assertEquals(2, coarse.asks().size());
+        assertEquals(10_050, coarse.asks().price(0), "asks round up");
+        assertEquals(50, coarse.asks().qty(0));
+        assertEquals(10_100, coarse.asks().price(1));
+        assertThrows(IllegalArgumentException.class, () -> OrderBookCompressor.aggregate(book, 0.001, coarse));
+
+        assertEquals((10 - 40) / 50.0, OrderBookCompressor.imbalance(book, 1), EPS);
+        assertEquals((65 - 60) / 125.0, OrderBookCompressor.imbalance(book, 30), EPS);
+        assertEquals((100.00 * 40 + 100.05 * 10) / 50, OrderBookCompressor.microprice(book), EPS);
+        L30OrderBook empty = new L30OrderBook();
+        assertTrue(Double.isNaN(OrderBookCompressor.imbalance(empty, 5)));
+        assertTrue(Double.isNaN(OrderBookCompressor.microprice(empty)));
+
+        L30OrderBook next = new L30OrderBook();
+        next.copyFrom(book);
+        assertEquals(0, OrderBookCompressor.diff(book, next, 30));
+        next.setBids(List.of(new BookLevel(100.00, 10, 1), new BookLevel(99.75, 25, 2)));
+        long mask = OrderBookCompressor.diff(book, next, 30);
+        assertEquals(0b1110, OrderBookCompressor.bidMask(mask), "qty change plus two removed levels");
+        assertEquals(0, OrderBookCompressor.askMask(mask));
+        next.asks().copyFrom(coarse.asks());
+        mask = OrderBookCompressor.diff(book, next, 2);
+        assertEquals(0b10, OrderBookCompressor.bidMask(mask), "limited to the top levels");
+        assertEquals(0b11, OrderBookCompressor.askMask(mask));
+    }
+
+    @Test
+    @DisplayName("Mapping and analysing a depth update allocates nothing")
+    void allocationFree() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        FullD30Mapper mapper = new FullD30Mapper();
+        MarketDataFeedV3.MarketFullFeed[] feeds = { feed(30, 0), feed(30, 7) };
+        L30OrderBook book = new L30OrderBook();
+        L30OrderBook previous = new L30OrderBook();
+        L30OrderBook coarse = new L30OrderBook();
+        double sink = 0;
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 20_000; i++) {
+                previous.copyFrom(book);
+                mapper.mapInto(feeds[i & 1], KEY, book);
+                OrderBookCompressor.aggregate(book.bids(), 50, true, coarse.bids());
+                sink += OrderBookCompressor.imbalance(book, 10) + OrderBookCompressor.microprice(book)
+                        + OrderBookCompressor.diff(previous, book, 30);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            if (round == 1) {
+                assertTrue(allocated < 20_000, allocated + " bytes for 20000 updates");
+            }
+        }
+        assertTrue(sink != 0);
+    }
+}
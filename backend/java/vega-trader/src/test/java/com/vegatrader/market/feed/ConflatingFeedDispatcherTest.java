@@ -0,0 +1,141 @@
+package com.vegatrader.market.feed;
+
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the per-instrument conflating hand-off.
+ */
+class ConflatingFeedDispatcherTest {
+
+    private static LiveMarketSnapshot tick(String key, long ts) {
+        return LiveMarketSnapshot.builder().instrumentKey(key).ltp(ts).exchangeTimestamp(ts).build();
+    }
+
+    /**
+     * Records delivered exchange timestamps per instrument and raw ticks;
+     * optionally blocks on the first conflated tick.
+     */
+    private static final class Downstream implements MarketFeedListener {
+        final Map<String, List<Long>> ticks = new ConcurrentHashMap<>();
+        final List<Long> raw = new CopyOnWriteArrayList<>();
+        final AtomicInteger depths = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release;
+        volatile Thread rawThread;
+
+        Downstream(boolean block) {
+            this.release = new CountDownLatch(block ? 1 : 0);
+        }
+
+        @Override
+        public void onTick(LiveMarketSnapshot tick) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ticks.computeIfAbsent(tick.getInstrumentKey(), k -> new CopyOnWriteArrayList<>())
+                    .add(tick.getExchangeTimestamp());
+        }
+
+        @Override
+        public void onDepth(OrderBookSnapshot depth) {
+            depths.incrementAndGet();
+        }
+
+        @Override
+        public void onRawTick(LiveMarketSnapshot tick) {
+            rawThread = Thread.currentThread();
+            raw.add(tick.getExchangeTimestamp());
+        }
+
+        List<Long> of(String key) {
+            return ticks.getOrDefault(key, List.of());
+        }
+    }
+
+    private static void awaitLast(Downstream downstream, String key, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<Long> seen = downstream.of(key);
+            if (!seen.isEmpty() && seen.get(seen.size() - 1) == expected) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        fail("last tick for " + key + " never delivered: " + downstream.of(key));
+    }
+
+    @Test
+    @DisplayName("Per-instrument order is kept and every tick is either delivered or counted as conflated")
+    void orderedAndAccounted() throws Exception {
+        Downstream downstream = new Downstream(false);
+        try (ConflatingFeedDispatcher dispatcher = new ConflatingFeedDispatcher(downstream, 2, "test")) {
+            int n = 50_000;
+            for (int i = 1; i <= n; i++) {
+                dispatcher.onTick(tick("A", i));
+                dispatcher.onTick(tick("B", i));
+            }
+            awaitLast(downstream, "A", n);
+            awaitLast(downstream, "B", n);
+
+            for (String key : List.of("A", "B")) {
+                List<Long> seen = downstream.of(key);
+                for (int i = 1; i < seen.size(); i++) {
+                    assertTrue(seen.get(i) > seen.get(i - 1), key + " out of order at " + i);
+                }
+            }
+            ConflatingFeedDispatcher.Statistics stats = dispatcher.getStatistics();
+            assertEquals(2L * n, stats.ticksIn());
+            assertEquals(stats.ticksIn(), stats.ticksOut() + stats.conflatedTicks());
+            assertEquals(2, stats.instruments());
+            assertEquals(n - downstream.of("A").size(), dispatcher.getConflatedCount("A"));
+        }
+    }
+
+    @Test
+    @DisplayName("A stalled consumer gets only the latest state; raw callbacks still see every tick inline")
+    void stalledConsumerIsConflated() throws Exception {
+        Downstream downstream = new Downstream(true);
+        try (ConflatingFeedDispatcher dispatcher = new ConflatingFeedDispatcher(downstream, 1, "test")) {
+            dispatcher.onTick(tick("A", 0));
+            assertTrue(downstream.started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i <= 1000; i++) {
+                LiveMarketSnapshot t = tick("A", i);
+                dispatcher.onRawTick(t);
+                dispatcher.onTick(t);
+                dispatcher.onTick(tick("B", i));
+            }
+            dispatcher.onDepth(OrderBookSnapshot.builder().instrumentKey("B").timestamp(1).build());
+            assertEquals(1000, downstream.raw.size());
+            assertSame(Thread.currentThread(), downstream.rawThread);
+
+            ConflatingFeedDispatcher.Statistics stalled = dispatcher.getStatistics();
+            assertEquals(2, stalled.pending());
+            assertEquals(999 + 999, stalled.conflatedTicks());
+
+            downstream.release.countDown();
+            awaitLast(downstream, "A", 1000);
+            awaitLast(downstream, "B", 1000);
+            assertEquals(List.of(0L, 1000L), downstream.of("A"));
+            assertEquals(List.of(1000L), downstream.of("B"));
+            assertEquals(1, downstream.depths.get());
+            assertTrue(dispatcher.getStatistics().conflationPercent() > 99.0);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.vegatrader.market.service;
+
+import com.vegatrader.market.cache.MarketCacheService;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.FeedMode;
+import com.vegatrader.market.journal.CanonicalSnapshotReader;
+import com.vegatrader.market.journal.EventHeader;
+import com.vegatrader.market.journal.JournalManager;
+import com.vegatrader.market.journal.L2SnapshotPayload;
+import com.vegatrader.market.service.FeedResyncService.StaleReason;
+import com.vegatrader.market.subscription.SubscriptionRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for feed gap detection, stale flagging and snapshot warm-up.
+ */
+class FeedResyncServiceTest {
+
+    private static final String KEY = "NSE_FO|12345";
+
+    @TempDir
+    Path journalDir;
+
+    private final MarketCacheService cache = new MarketCacheService();
+    private final SubscriptionRegistry registry = new SubscriptionRegistry();
+
+    private FeedResyncService service(long stallMillis) {
+        return new FeedResyncService(cache, registry, new JournalManager(journalDir), null, null, stallMillis);
+    }
+
+    private static LiveMarketSnapshot tick(double ltp, long exchangeTs) {
+        return LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(ltp).exchangeTimestamp(exchangeTs).build();
+    }
+
+    /** Feeds a tick the way MarketSubscriptionManager does. */
+    private static boolean apply(FeedResyncService service, MarketCacheService cache, LiveMarketSnapshot tick) {
+        if (!service.acceptTick(tick)) {
+            return false;
+        }
+        cache.updateTick(tick);
+        return true;
+    }
+
+    @Test
+    @DisplayName("Disconnect flags cached state stale; first tick after reconnect clears it")
+    void disconnectThenResync() {
+        FeedResyncService service = service(10_000);
+        registry.subscribe("c1", Set.of(KEY), FeedMode.FULL);
+        service.onConnected();
+        assertTrue(apply(service, cache, tick(100.0, 1_000)));
+        assertFalse(service.isStale(KEY));
+
+        LiveMarketSnapshot held = cache.getTick(KEY);
+
+        service.onDisconnected();
+        assertEquals(StaleReason.DISCONNECT, service.getStaleInstruments().get(KEY));
+        assertFalse(held.isStale(), "the shared cached object is never changed in place");
+        assertTrue(cache.getTick(KEY).isStale(), "consumers see the flag on the cached tick");
+        assertEquals(100.0, cache.getTick(KEY).getLtp());
+
+        service.onConnected();
+        // initial_feed snapshot is authoritative even if older than the cached tick
+        assertTrue(apply(service, cache, tick(99.5, 900)));
+        assertFalse(service.isStale(KEY));
+        assertFalse(cache.getTick(KEY).isStale());
+    }
+
+    @Test
+    @DisplayName("Live timestamp regression drops ticks until the feed catches up")
+    void regression() {
+        FeedResyncService service = service(10_000);
+        registry.subscribe("c1", Set.of(KEY), FeedMode.FULL);
+        service.onConnected();
+        assertTrue(apply(service, cache, tick(100.0, 2_000)));
+
+        assertFalse(apply(service, cache, tick(90.0, 1_500)));
+        assertEquals(StaleReason.REGRESSION, service.getStaleInstruments().get(KEY));
+        assertFalse(apply(service, cache, tick(91.0, 1_600)));
+        assertEquals(100.0, cache.getTick(KEY).getLtp());
+
+        assertTrue(apply(service, cache, tick(101.0, 2_000)));
+        assertFalse(service.isStale(KEY));
+        assertEquals(1L, service.getStatistics().get("regressions").longValue());
+    }
+
+    @Test
+    @DisplayName("Empty cache is warmed from the newest journal record")
+    void warmsFromJournal() throws Exception {
+        Path dir = Files.createDirectories(journalDir.resolve("NSE_FO").resolve("12345"));
+        Files.write(dir.resolve("2025-01-01_09.bin"), record(1, 10_000L, 250.05, 75));
+        Files.write(dir.resolve("2025-01-01_10.bin"), concat(record(2, 20_000L, 250.10, 150),
+                record(3, 30_000L, 250.15, 300)));
+
+        FeedResyncService service = service(10_000);
+        assertEquals(1, service.warm(Set.of(KEY)));
+
+        OrderBookSnapshot depth = cache.getDepth(KEY);
+        assertNotNull(depth);
+        assertTrue(depth.isStale());
+        assertEquals(30_000L, depth.getTimestamp());
+        assertEquals(250.15, depth.getBids().get(0).getPrice(), 1e-9);
+        assertEquals(300L, depth.getBids().get(0).getQuantity());
+        assertEquals(1, depth.getBids().size());
+        assertEquals(StaleReason.SNAPSHOT, service.getStaleInstruments().get(KEY));
+
+        assertEquals(0, service.warm(Set.of(KEY)), "already cached");
+        assertNull(CanonicalSnapshotReader.decode(new byte[10], KEY));
+    }
+
+    @Test
+    @DisplayName("Silent feed is reported as a stall")
+    void stall() throws Exception {
+        FeedResyncService service = service(0);
+        registry.subscribe("c1", Set.of(KEY), FeedMode.FULL);
+        service.onConnected();
+        apply(service, cache, tick(100.0, 1_000));
+
+        Thread.sleep(5);
+        service.checkStall();
+        assertEquals(StaleReason.STALL, service.getStaleInstruments().get(KEY));
+        assertTrue(apply(service, cache, tick(100.5, 1_100)));
+        assertFalse(service.isStale(KEY));
+    }
+
+    private static byte[] record(long seq, long exchangeTs, double bestBid, long qty) {
+        ByteBuffer buf = ByteBuffer.allocate(CanonicalSnapshotReader.RECORD_SIZE).order(ByteOrder.nativeOrder());
+        buf.putLong(EventHeader.SEQ_OFFSET, seq);
+        buf.putLong(EventHeader.EX_TS_OFFSET, exchangeTs);
+        buf.putShort(EventHeader.TYPE_OFFSET, EventHeader.EVT_L2_SNAPSHOT);
+        buf.putShort(EventHeader.SIZE_OFFSET, (short) L2SnapshotPayload.BYTES);
+        int bids = EventHeader.BYTES + L2SnapshotPayload.OFF_BIDS;
+        buf.putLong(bids + L2SnapshotPayload.LEVEL_OFF_PRICE, Math.round(bestBid * 100));
+        buf.putLong(bids + L2SnapshotPayload.LEVEL_OFF_QTY, qty);
+        return buf.array();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = new byte[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
@@ -0,0 +1,169 @@
+package com.vegatrader.market.subscription;
+
+import com.vegatrader.market.feed.FeedMode;
+import com.vegatrader.market.feed.MarketFeed;
+import com.vegatrader.market.feed.MarketFeedListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for coalesced, per-mode subscription reconciliation.
+ */
+class SubscriptionReconcilerTest {
+
+    /** Records upstream requests as "SUB:MODE:n" / "UNSUB:n". */
+    private static final class RecordingFeed implements MarketFeed {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        final Map<String, FeedMode> upstream = new HashMap<>();
+        /** Mode whose subscribe requests fail, if any */
+        volatile FeedMode failing;
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public synchronized void subscribe(Set<String> instrumentKeys, FeedMode mode) {
+            if (mode == failing) {
+                throw new IllegalStateException("feed down");
+            }
+            requests.add("SUB:" + mode + ":" + instrumentKeys.size());
+            instrumentKeys.forEach(k -> upstream.put(k, mode));
+        }
+
+        @Override
+        public synchronized void unsubscribe(Set<String> instrumentKeys) {
+            requests.add("UNSUB:" + instrumentKeys.size());
+            instrumentKeys.forEach(upstream::remove);
+        }
+
+        @Override
+        public void setListener(MarketFeedListener listener) {
+        }
+
+        @Override
+        public Set<String> getSubscriptions() {
+            return upstream.keySet();
+        }
+
+        @Override
+        public String getSourceName() {
+            return "TEST";
+        }
+    }
+
+    private final SubscriptionRegistry registry = new SubscriptionRegistry();
+    private final RecordingFeed feed = new RecordingFeed();
+
+    private void subscribe(SubscriptionReconciler reconciler, String client, FeedMode mode, String... keys) {
+        Set<String> set = Set.of(keys);
+        registry.subscribe(client, set, mode);
+        reconciler.markDirty(set);
+    }
+
+    @Test
+    @DisplayName("Burst of client subscriptions becomes one request per mode")
+    void coalescesBurst() {
+        SubscriptionReconciler reconciler = new SubscriptionReconciler(feed, registry, 60_000);
+        for (int client = 0; client < 300; client++) {
+            subscribe(reconciler, "c" + client, FeedMode.LTPC, "NSE_EQ|A", "NSE_EQ|B", "NSE_EQ|" + client);
+        }
+        subscribe(reconciler, "depth", FeedMode.FULL_D30, "NSE_FO|X");
+
+        assertEquals(2, reconciler.flush());
+        assertEquals(List.of("SUB:LTPC:302", "SUB:FULL_D30:1"), feed.requests);
+        assertEquals(0, reconciler.flush(), "nothing left to send");
+        reconciler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Net diff: subscribe then unsubscribe in one window sends nothing")
+    void netDiffCancelsOut() {
+        SubscriptionReconciler reconciler = new SubscriptionReconciler(feed, registry, 60_000);
+        subscribe(reconciler, "c1", FeedMode.FULL, "NSE_EQ|A");
+        reconciler.markDirty(registry.unsubscribe("c1", Set.of("NSE_EQ|A")));
+
+        assertEquals(0, reconciler.flush());
+        assertTrue(feed.requests.isEmpty());
+        reconciler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Mode upgrades and removals are sent; reconnect resends per mode")
+    void upgradesRemovalsAndResync() {
+        SubscriptionReconciler reconciler = new SubscriptionReconciler(feed, registry, 60_000);
+        subscribe(reconciler, "c1", FeedMode.LTPC, "NSE_EQ|A", "NSE_EQ|B");
+        reconciler.flush();
+
+        subscribe(reconciler, "c2", FeedMode.FULL, "NSE_EQ|A");
+        reconciler.markDirty(registry.unsubscribe("c1", Set.of("NSE_EQ|B")));
+        reconciler.flush();
+        assertEquals(List.of("SUB:LTPC:2", "UNSUB:1", "SUB:FULL:1"), feed.requests);
+        assertEquals(Map.of("NSE_EQ|A", FeedMode.FULL), reconciler.getUpstreamState());
+
+        feed.requests.clear();
+        subscribe(reconciler, "c3", FeedMode.LTPC, "NSE_EQ|C");
+        reconciler.flush();
+        feed.requests.clear();
+
+        reconciler.resync();
+        reconciler.flush();
+        List<String> sorted = new ArrayList<>(feed.requests);
+        Collections.sort(sorted);
+        assertEquals(List.of("SUB:FULL:1", "SUB:LTPC:1"), sorted);
+        reconciler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Timer flushes after the window")
+    void timerFlushes() throws Exception {
+        SubscriptionReconciler reconciler = new SubscriptionReconciler(feed, registry, 20);
+        subscribe(reconciler, "c1", FeedMode.LTPC, "NSE_EQ|A");
+        subscribe(reconciler, "c2", FeedMode.LTPC, "NSE_EQ|B");
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (feed.requests.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of("SUB:LTPC:2"), feed.requests);
+        reconciler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Failed requests stay dirty and are retried with backoff")
+    void retriesFailures() throws Exception {
+        SubscriptionReconciler reconciler = new SubscriptionReconciler(feed, registry, 60_000);
+        subscribe(reconciler, "c1", FeedMode.LTPC, "NSE_EQ|A", "NSE_EQ|B");
+        subscribe(reconciler, "c2", FeedMode.FULL, "NSE_EQ|C");
+        feed.failing = FeedMode.FULL;
+
+        assertEquals(1, reconciler.flush());
+        assertEquals(List.of("SUB:LTPC:2"), feed.requests);
+        assertEquals(1, (long) reconciler.getStatistics().get("pending"), "only the failed instrument is kept");
+        assertEquals(1, (long) reconciler.getStatistics().get("failedRequests"));
+        assertFalse(reconciler.getUpstreamState().containsKey("NSE_EQ|C"));
+
+        feed.failing = null;
+        long deadline = System.currentTimeMillis() + SubscriptionReconciler.RETRY_MIN_MS + 2000;
+        while (feed.requests.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of("SUB:LTPC:2", "SUB:FULL:1"), feed.requests, "retried without a new change");
+        assertEquals(FeedMode.FULL, reconciler.getUpstreamState().get("NSE_EQ|C"));
+        assertEquals(0, (long) reconciler.getStatistics().get("pending"));
+        reconciler.shutdown();
+    }
+}
@@ -0,0 +1,35 @@
+package com.vegatrader.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared token lease: one connection per token, rotation moves
+ * the lease.
+ */
+class TokenLeaseManagerTest {
+
+    private final TokenLeaseManager leases = new TokenLeaseManager(60_000);
+
+    @Test
+    @DisplayName("A rotated token moves the lease; a stale release keeps the new one")
+    void renewsOnRotation() {
+        TokenLeaseManager.TokenLease portfolio = leases.acquireLease("PRIMARY", "token-a");
+        assertNotNull(portfolio);
+        assertNull(leases.acquireLease("WEBSOCKET1", "token-a"), "market feed cannot reuse the token");
+
+        TokenLeaseManager.TokenLease rotated = leases.renewLease(portfolio, "PRIMARY", "token-b");
+        assertNotNull(rotated);
+        TokenLeaseManager.TokenLease market = leases.acquireLease("WEBSOCKET1", "token-a");
+        assertNotNull(market, "old token is free after rotation");
+
+        leases.releaseLease(portfolio);
+        assertNull(leases.acquireLease("OTHER", "token-b"), "releasing the old lease keeps the rotated one");
+        assertNull(leases.renewLease(rotated, "PRIMARY", "token-a"), "token held by the market feed");
+
+        leases.releaseLease(market);
+        assertNotNull(leases.acquireLease("PRIMARY", "token-a"));
+    }
+}
@@ -0,0 +1,271 @@
+package com.vegatrader.strategy;
+
+import com.vegatrader.indicator.IndicatorListener;
+import com.vegatrader.indicator.IndicatorSpec;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the isolated strategy runtime.
+ */
+class StrategyEngineTest {
+
+    private static final String KEY = "NSE_EQ|RELIANCE";
+
+    // Watchdog effectively off: tests run budget checks by hand
+    private final StrategyEngine engine = new StrategyEngine(64, 80, 100, 3, 60_000, 3_600_000);
+
+    @AfterEach
+    void stop() {
+        engine.shutdown();
+    }
+
+    private static LiveMarketSnapshot tick(double ltp) {
+        return LiveMarketSnapshot.builder().instrumentKey(KEY).ltp(ltp).build();
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /** Records ticks; behaviour per tick is pluggable */
+    static class Recorder extends BaseStrategy {
+        final String id;
+        final boolean everyTick;
+        final List<Double> seen = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        volatile Consumer<LiveMarketSnapshot> behaviour = t -> {
+        };
+        volatile boolean destroyed;
+
+        Recorder(String id, boolean everyTick) {
+            this.id = id;
+            this.everyTick = everyTick;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return id;
+        }
+
+        @Override
+        public boolean requiresEveryTick() {
+            return everyTick;
+        }
+
+        @Override
+        protected void onStart() {
+            subscribe(KEY);
+        }
+
+        @Override
+        protected void onStop() {
+            threads.add(Thread.currentThread().getName());
+            destroyed = true;
+        }
+
+        @Override
+        public void onTick(LiveMarketSnapshot tick) {
+            threads.add(Thread.currentThread().getName());
+            behaviour.accept(tick);
+            seen.add(tick.getLtp());
+        }
+    }
+
+    @Test
+    @DisplayName("Mailbox policies: conflate per instrument, drop oldest, pause until half drained")
+    void mailboxPolicies() {
+        StrategyMailbox conflate = new StrategyMailbox(OverflowPolicy.CONFLATE, 4);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(conflate.offerTick(tick(i), i));
+        }
+        assertEquals(1, conflate.size());
+        StrategyMailbox.Envelope latest = conflate.poll();
+        assertEquals(5.0, ((LiveMarketSnapshot) latest.payload).getLtp());
+        assertEquals(1, latest.enqueuedAt, "lag counts from the first pending update");
+        assertEquals(4, conflate.conflated());
+
+        StrategyMailbox dropOldest = new StrategyMailbox(OverflowPolicy.DROP_OLDEST, 4);
+        for (int i = 1; i <= 6; i++) {
+            dropOldest.offerTick(tick(i), i);
+        }
+        assertEquals(2, dropOldest.dropped());
+        assertEquals(3.0, ((LiveMarketSnapshot) dropOldest.poll().payload).getLtp());
+
+        StrategyMailbox pause = new StrategyMailbox(OverflowPolicy.PAUSE, 4);
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(pause.offerTick(tick(i), i));
+        }
+        assertFalse(pause.offerTick(tick(5), 5));
+        assertTrue(pause.isPaused());
+        pause.poll();
+        assertFalse(pause.offerTick(tick(6), 6), "still paused above half capacity");
+        pause.poll();
+        assertFalse(pause.isPaused());
+        assertTrue(pause.offerTick(tick(7), 7));
+        assertEquals(2, pause.dropped());
+        assertEquals(3.0, ((LiveMarketSnapshot) pause.poll().payload).getLtp(), "order kept");
+    }
+
+    @Test
+    @DisplayName("Indicator updates queue with ticks, conflate per subscription and respect capacity")
+    void indicatorUpdates() throws Exception {
+        Recorder recorder = new Recorder("ind", false);
+        StrategyHost host = new StrategyHost(recorder, new StrategyBudget(80, 100, 3, 60_000), 4);
+        IndicatorSpec spec = IndicatorSpec.parse("EMA(3,1m)");
+        IndicatorListener ema = host.indicatorListener((key, s, barTime, value) -> recorder.seen.add(1000 + value));
+        IndicatorListener rsi = host.indicatorListener((key, s, barTime, value) -> recorder.seen.add(2000 + value));
+        host.offerTick(tick(1));
+        ema.onUpdate(KEY, spec, 1, 1);
+        ema.onUpdate(KEY, spec, 2, 2);
+        rsi.onUpdate(KEY, spec, 2, 5);
+        host.offerTick(tick(2));
+
+        host.start();
+        await(() -> recorder.seen.size() == 3);
+        assertEquals(List.of(2.0, 1002.0, 2005.0), recorder.seen, "latest value per subscription, in order");
+        assertTrue(host.stop(5_000));
+
+        StrategyMailbox bounded = new StrategyMailbox(OverflowPolicy.DROP_OLDEST, 4);
+        for (int i = 1; i <= 6; i++) {
+            bounded.offerIndicator("k" + i,
+                    new StrategyMailbox.IndicatorUpdate((key, s, barTime, value) -> {
+                    }, KEY, spec, i, i), i);
+        }
+        assertEquals(4, bounded.size());
+        assertEquals(2, bounded.dropped());
+    }
+
+    @Test
+    @DisplayName("A slow strategy neither blocks the feed nor delays other strategies")
+    void isolation() throws Exception {
+        Recorder slow = new Recorder("slow", false);
+        slow.behaviour = t -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Recorder fast = new Recorder("fast", true);
+        engine.registerStrategy(slow);
+        engine.registerStrategy(fast);
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= 50; i++) {
+            engine.onTick(tick(i));
+            engine.onRawTick(tick(i));
+        }
+        long feedMillis = (System.nanoTime() - start) / 1_000_000L;
+        assertTrue(feedMillis < 200, "feed thread took " + feedMillis + " ms");
+
+        await(() -> fast.seen.size() == 50);
+        await(() -> !slow.seen.isEmpty() && slow.seen.get(slow.seen.size() - 1) == 50.0);
+        assertTrue(slow.seen.size() < 50, "slow strategy sees conflated state");
+        assertTrue(fast.threads.stream().allMatch("strategy-fast"::equals));
+        assertTrue(slow.threads.stream().allMatch("strategy-slow"::equals));
+
+        StrategyHost.Statistics stats = engine.getStatistics().stream()
+                .filter(s -> s.id().equals("slow")).findFirst().orElseThrow();
+        assertEquals("CONFLATE", stats.policy());
+        assertTrue(stats.conflated() > 0);
+    }
+
+    @Test
+    @DisplayName("A strategy over its error budget is quarantined until released")
+    void errorBudget() throws Exception {
+        Recorder failing = new Recorder("failing", true);
+        failing.behaviour = t -> {
+            throw new IllegalStateException("boom");
+        };
+        engine.registerStrategy(failing);
+        for (int i = 0; i < 4; i++) {
+            engine.onRawTick(tick(i));
+        }
+        await(() -> engine.getStatistics().get(0).errors() == 4);
+        engine.checkBudgets();
+        assertEquals(StrategyHost.State.QUARANTINED, engine.getState("failing"));
+        assertNotNull(engine.getStatistics().get(0).quarantineReason());
+
+        failing.behaviour = t -> {
+        };
+        engine.onRawTick(tick(10));
+        Thread.sleep(50);
+        assertTrue(failing.seen.isEmpty(), "quarantined strategy receives nothing");
+
+        assertTrue(engine.releaseStrategy("failing"));
+        assertEquals(StrategyHost.State.RUNNING, engine.getState("failing"));
+        engine.onRawTick(tick(11));
+        await(() -> failing.seen.contains(11.0));
+    }
+
+    @Test
+    @DisplayName("A callback stuck beyond the lag budget is quarantined while the feed keeps going")
+    void stuckCallback() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        Recorder stuck = new Recorder("stuck", false);
+        stuck.behaviour = t -> {
+            entered.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        engine.registerStrategy(stuck);
+        engine.onTick(tick(1));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        Thread.sleep(150);
+        engine.checkBudgets();
+        assertEquals(StrategyHost.State.QUARANTINED, engine.getState("stuck"));
+        assertTrue(engine.getStatistics().get(0).quarantineReason().startsWith("callback running"));
+
+        engine.onTick(tick(2));
+        assertEquals(0, engine.getStatistics().get(0).queued());
+        unblock.countDown();
+    }
+
+    @Test
+    @DisplayName("Strategies deploy, redeploy and undeploy while ticks flow")
+    void hotDeploy() throws Exception {
+        Recorder first = new Recorder("hot", false);
+        engine.registerStrategy(first);
+        assertThrows(IllegalArgumentException.class, () -> engine.registerStrategy(new Recorder("hot", false)));
+        engine.onTick(tick(1));
+        await(() -> first.seen.contains(1.0));
+
+        Recorder second = new Recorder("hot", false);
+        engine.redeployStrategy(second);
+        assertTrue(first.destroyed);
+        assertEquals("strategy-hot", first.threads.get(first.threads.size() - 1), "onDestroy on its own thread");
+        engine.onTick(tick(2));
+        await(() -> second.seen.contains(2.0));
+        assertFalse(first.seen.contains(2.0));
+
+        engine.unregisterStrategy("hot");
+        assertTrue(second.destroyed);
+        assertNull(engine.getState("hot"));
+        engine.onTick(tick(3));
+        assertTrue(engine.getStatistics().isEmpty());
+    }
+}
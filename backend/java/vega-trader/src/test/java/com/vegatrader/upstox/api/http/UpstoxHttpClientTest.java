@@ -0,0 +1,198 @@
+package com.vegatrader.upstox.api.http;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vegatrader.upstox.api.ratelimit.MultiOrderAPIRateLimiter;
+import com.vegatrader.upstox.api.ratelimit.RateLimitConfig;
+import com.vegatrader.upstox.api.ratelimit.RateLimitManager;
+import com.vegatrader.upstox.api.ratelimit.StandardAPIRateLimiter;
+import com.vegatrader.upstox.api.websocket.ratelimiter.RateLimitExceededException;
+import com.vegatrader.util.time.SystemTimeProvider;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared Upstox HTTP layer against a local HTTP server.
+ */
+class UpstoxHttpClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger slowHits = new AtomicInteger();
+    private UpstoxHttpClient http;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/v2/fast", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // First call stalls, later calls answer at once
+        server.createContext("/v2/slow-first", exchange -> {
+            String reply = "fast";
+            if (slowHits.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(3_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reply = "slow";
+            }
+            byte[] body = reply.getBytes(StandardCharsets.UTF_8);
+            try {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (java.io.IOException ignored) {
+                // client cancelled the losing attempt
+            }
+            exchange.close();
+        });
+        server.createContext("/v2/stall", exchange -> {
+            try {
+                Thread.sleep(3_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        http = new UpstoxHttpClient(new OkHttpClient());
+    }
+
+    @AfterEach
+    void stop() {
+        http.shutdown();
+        http.getClient().dispatcher().executorService().shutdownNow();
+        http.getClient().connectionPool().evictAll();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private Request get(String path) {
+        return new Request.Builder()
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + path)
+                .get()
+                .build();
+    }
+
+    @Test
+    @DisplayName("Histogram percentiles stay within one sub-bucket of the true value")
+    void histogramAccuracy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000L);
+        }
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000, histogram.maxMicros());
+        assertEquals(5_000.5, histogram.meanMicros(), 1e-9);
+        long p50 = histogram.percentileMicros(50);
+        long p99 = histogram.percentileMicros(99);
+        assertTrue(p50 >= 5_000 && p50 <= 5_000 * 1.25, "p50 " + p50);
+        assertTrue(p99 >= 9_900 && p99 <= 10_000, "p99 " + p99);
+        for (long v : new long[] { 0, 1, 3, 4, 7, 8, 9, 1_000, 123_456_789 }) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(LatencyHistogram.upperBound(index) >= v, "bucket for " + v);
+            assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < v, "bucket for " + v);
+        }
+    }
+
+    @Test
+    @DisplayName("Async calls complete on the dispatcher and are recorded per endpoint")
+    void asyncAndHistograms() throws Exception {
+        List<CompletableFuture<Response>> calls = List.of(
+                http.enqueue(get("/v2/fast?a=1")), http.enqueue(get("/v2/fast?a=2")), http.enqueue(get("/v2/fast")));
+        for (CompletableFuture<Response> call : calls) {
+            try (Response response = call.get(5, TimeUnit.SECONDS)) {
+                assertEquals("ok", response.body().string());
+            }
+        }
+        try (Response response = http.execute(get("/v2/fast"))) {
+            assertEquals(200, response.code());
+        }
+
+        UpstoxHttpClient.EndpointStatistics stats = http.getEndpointStatistics().get(0);
+        assertEquals("GET /v2/fast", stats.endpoint());
+        assertEquals(4, stats.responses());
+        assertEquals(0, stats.errors());
+        assertTrue(stats.p99Micros() > 0 && stats.p99Micros() <= stats.maxMicros());
+        assertTrue(http.getPoolStatistics().connections() >= 1);
+    }
+
+    @Test
+    @DisplayName("A stalled GET is hedged; the hedge wins and the loser is cancelled")
+    void hedgedGet() throws Exception {
+        long start = System.nanoTime();
+        try (Response response = http.executeHedged(get("/v2/slow-first"))) {
+            assertEquals("fast", response.body().string());
+        }
+        long tookMs = (System.nanoTime() - start) / 1_000_000L;
+        assertTrue(tookMs < 2_000, "hedge should answer long before the stalled call, took " + tookMs);
+
+        UpstoxHttpClient.EndpointStatistics stats = http.getEndpointStatistics().get(0);
+        assertEquals(1, stats.hedged());
+        assertEquals(1, stats.hedgeWins());
+        assertEquals(2, slowHits.get());
+
+        Request post = new Request.Builder().url(get("/v2/fast").url())
+                .post(okhttp3.RequestBody.create(new byte[0])).build();
+        assertThrows(IllegalArgumentException.class, () -> http.enqueueHedged(post));
+    }
+
+    @Test
+    @DisplayName("Calls beyond the limiter's budget fail instead of reaching the API")
+    void rateLimited() throws Exception {
+        SystemTimeProvider clock = new SystemTimeProvider();
+        http.setRateLimitManager(new RateLimitManager(
+                new StandardAPIRateLimiter(new RateLimitConfig(2, 100, 100, "TEST"), clock),
+                new MultiOrderAPIRateLimiter(clock)));
+
+        CompletableFuture<Response> first = http.enqueue(get("/v2/fast"));
+        CompletableFuture<Response> second = http.enqueue(get("/v2/fast"));
+        CompletableFuture<Response> third = http.enqueue(get("/v2/fast"));
+        first.get(5, TimeUnit.SECONDS).close();
+        second.get(5, TimeUnit.SECONDS).close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimitExceededException.class, e.getCause());
+        assertEquals(1, http.getEndpointStatistics().get(0).rateLimited());
+        assertEquals(2, http.getEndpointStatistics().get(0).responses());
+    }
+
+    @Test
+    @DisplayName("A slow startup warm-up does not delay hedges on the timer thread")
+    void warmUpOffTimer() throws Exception {
+        http.shutdown();
+        http = new UpstoxHttpClient(new OkHttpClient(), 50, 95,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v2/stall");
+        http.warmUpOnStartup();
+
+        long start = System.nanoTime();
+        try (Response response = http.executeHedged(get("/v2/slow-first"))) {
+            assertEquals("fast", response.body().string());
+        }
+        long tookMs = (System.nanoTime() - start) / 1_000_000L;
+        assertTrue(tookMs < 2_000, "hedge waited for the warm-up, took " + tookMs);
+    }
+}
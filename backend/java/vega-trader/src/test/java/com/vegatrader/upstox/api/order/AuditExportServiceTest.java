@@ -0,0 +1,143 @@
+package com.vegatrader.upstox.api.order;
+
+import com.vegatrader.upstox.api.order.audit.AuditExportRow;
+import com.vegatrader.upstox.api.order.audit.AuditExportService;
+import com.vegatrader.upstox.api.order.audit.AuditExportService.ExportRequest;
+import com.vegatrader.upstox.api.order.audit.AuditExportService.ExportSummary;
+import com.vegatrader.upstox.api.order.repository.AuditEventRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the streaming audit exporter.
+ */
+class AuditExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 10);
+    private static final ExportRequest REQUEST = new ExportRequest("U1", DAY, DAY, "CSV");
+
+    private static final Instant START = DAY.atStartOfDay(ZoneId.systemDefault()).toInstant();
+
+    /**
+     * Repository stub serving {@code total} rows through keyset pages.
+     */
+    private static AuditEventRepository repository(int total) {
+        return repository(total, i -> START.plusMillis(i / 3));
+    }
+
+    /**
+     * Repository stub serving rows 1..{@code total} stamped by
+     * {@code createdAt}, with timestamps kept at millisecond precision like
+     * SQLite.
+     */
+    private static AuditEventRepository repository(int total, IntFunction<Instant> createdAt) {
+        List<AuditExportRow> all = new ArrayList<>(total);
+        for (int i = 1; i <= total; i++) {
+            all.add(new AuditExportRow((long) i, "EVT-" + i, "ORD-" + i, "U1", "STATE_CHANGE",
+                    "OPEN", i == 1 ? "has,comma" : i == 2 ? "bare\rCR" : "FILLED", "SYSTEM", createdAt.apply(i)));
+        }
+
+        AuditEventRepository repo = mock(AuditEventRepository.class);
+        when(repo.findExportPage(anyString(), any(), anyLong(), any(), any())).thenAnswer(inv -> {
+            Instant fromTs = inv.getArgument(1);
+            long afterId = inv.getArgument(2);
+            int size = ((Pageable) inv.getArgument(4)).getPageSize();
+            assertEquals(fromTs, fromTs.truncatedTo(ChronoUnit.MILLIS), "seek bound finer than the DB keeps");
+            return all.stream()
+                    .filter(r -> !r.createdAt().isBefore(fromTs)
+                            && (r.createdAt().isAfter(fromTs) || r.id() > afterId))
+                    .limit(size)
+                    .toList();
+        });
+        return repo;
+    }
+
+    @Test
+    @DisplayName("CSV: all rows across pages, escaped, checksum of bytes written")
+    void streamCsvAcrossPages() throws Exception {
+        AuditEventRepository repo = repository(4_500);
+        AuditExportService service = new AuditExportService(repo);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportSummary summary = service.streamCsv(REQUEST, out, false);
+
+        byte[] bytes = out.toByteArray();
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+        assertEquals(4_500, summary.recordCount());
+        assertEquals(4_501, lines.length);
+        assertTrue(lines[1].startsWith("EVT-1,ORD-1,U1,STATE_CHANGE,OPEN,\"has,comma\",SYSTEM,"));
+        assertTrue(lines[2].startsWith("EVT-2,ORD-2,U1,STATE_CHANGE,OPEN,\"bare\rCR\",SYSTEM,"));
+        assertTrue(lines[4_500].startsWith("EVT-4500,"));
+        assertEquals(bytes.length, summary.bytesWritten());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)),
+                summary.checksum());
+        verify(repo, times(3)).findExportPage(anyString(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("CSV: rows sharing a timestamp across a page boundary are neither lost nor repeated")
+    void sameTimestampAcrossPages() throws Exception {
+        // 1..1500 at exactly the day start, 1501..2500 one millisecond later; the page ends at 2000
+        AuditEventRepository repo = repository(2_500, i -> i <= 1_500 ? START : START.plusMillis(1));
+        AuditExportService service = new AuditExportService(repo);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportSummary summary = service.streamCsv(REQUEST, out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2_500, summary.recordCount());
+        assertEquals(2_501, lines.length);
+        for (int i = 1; i <= 2_500; i++) {
+            assertTrue(lines[i].startsWith("EVT-" + i + ","), lines[i]);
+        }
+        verify(repo, times(2)).findExportPage(anyString(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Regulator pack: checksum entry matches the CSV entry")
+    void regulatorPackChecksum() throws Exception {
+        AuditExportService service = new AuditExportService(repository(10));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportSummary summary = service.streamRegulatorPack(REQUEST, out, false);
+        assertEquals(10, summary.recordCount());
+
+        byte[] csv = null;
+        String checksumFile = null;
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (entry.getName().endsWith(".csv")) {
+                    csv = zis.readAllBytes();
+                } else if (entry.getName().equals("checksum.sha256")) {
+                    checksumFile = new String(zis.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        assertNotNull(csv);
+        assertNotNull(checksumFile);
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(csv));
+        assertTrue(checksumFile.startsWith(expected + "  audit_export_U1_"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.vegatrader.upstox.api.order;
+
+import com.vegatrader.upstox.api.order.charges.ChargeBatch;
+import com.vegatrader.upstox.api.order.charges.ChargeBreakdown;
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator;
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator.ChargeRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden tests: charges must equal figures computed by the original
+ * BigDecimal calculator, and the fixed-point path must equal the reference.
+ */
+class ChargeCalculatorTest {
+
+    private static final String[] SEGMENTS = { "NSE_EQ", "BSE_EQ", "NSE_FO", "NSE_FO_OPT", "BSE_FO", "MCX_FO" };
+    private static final String[] EXCHANGES = { "NSE", "BSE", "MCX", "NSE_FO" };
+    private static final String[] SIDES = { "BUY", "SELL", "sell", "OTHER" };
+    private static final String[] PRODUCTS = { "I", "D" };
+    private static final String[] INSTRUMENTS = { "INFY", "NIFTY24JAN22000CE", "BANKNIFTY FUT", "RELIANCE" };
+
+    /**
+     * instrument, exchange, segment, side, product, quantity, price, then
+     * turnover, brokerage, STT, exchange fees, GST, SEBI, stamp duty, total as
+     * produced by the BigDecimal calculator before the fixed-point engine.
+     */
+    private static final String[] GOLDEN = {
+            "INFY,NSE,NSE_EQ,BUY,I,100,1500.50,150050.00,20.00,0.00,4.88,4.48,0.02,22.51,51.88",
+            "INFY,NSE,NSE_EQ,SELL,I,100,1500.50,150050.00,20.00,37.51,4.88,4.48,0.02,0.00,66.89",
+            "INFY,NSE,NSE_EQ,BUY,D,37,1499.95,55498.15,16.65,55.50,1.80,3.32,0.01,8.32,85.61",
+            "INFY,NSE,NSE_EQ,SELL,D,37,1512.35,55956.95,16.79,55.96,1.82,3.35,0.01,0.00,77.92",
+            "RELIANCE,BSE,BSE_EQ,BUY,I,5,2875.40,14377.00,4.31,0.00,0.43,0.85,0.00,2.16,7.75",
+            "RELIANCE,BSE,BSE_EQ,SELL,D,2500,2875.40,7188500.00,20.00,7188.50,215.66,42.42,0.72,0.00,7467.30",
+            "RELIANCE,NSE,NSE_EQ,sell,I,1,0.05,0.05,0.00,0.00,0.00,0.00,0.00,0.00,0.00",
+            "RELIANCE,MCX,NSE_EQ,BUY,D,13,101.1234,1314.60,0.39,1.31,0.04,0.08,0.00,0.20,2.03",
+            "NIFTY24JAN22000CE,NSE_FO,NSE_FO,BUY,I,50,102.35,5117.50,1.54,0.00,0.10,0.29,0.00,0.15,2.08",
+            "NIFTY24JAN22000CE,NSE_FO,NSE_FO,SELL,I,50,102.35,5117.50,1.54,2.56,0.10,0.29,0.00,0.00,4.49",
+            "NIFTY24JAN22000PE,NSE,NSE_FO,SELL,D,1800,0.05,90.00,0.03,0.05,0.00,0.01,0.00,0.00,0.08",
+            "NIFTY,NSE,NSE_FO_OPT,SELL,I,75,245.60,18420.00,5.53,9.21,0.37,1.06,0.00,0.00,16.16",
+            "BANKNIFTY FUT,NSE_FO,NSE_FO,BUY,I,15,48215.55,723233.25,20.00,0.00,14.46,6.20,0.07,21.70,62.43",
+            "BANKNIFTY FUT,NSE_FO,NSE_FO,SELL,I,15,48215.55,723233.25,20.00,72.32,14.46,6.20,0.07,0.00,113.06",
+            "BANKNIFTY FUT,BSE,BSE_FO,SELL,D,900,48215.55,43393995.00,20.00,4339.40,1301.82,237.93,4.34,0.00,5903.49",
+            "CRUDEOIL FUT,MCX,MCX_FO,BUY,I,100,6523.00,652300.00,20.00,0.00,21.20,7.42,0.07,19.57,68.26",
+            "CRUDEOIL FUT,MCX,MCX_FO,OTHER,I,100,6523.00,652300.00,20.00,0.00,21.20,7.42,0.07,0.00,48.69",
+            "INFY,NSE,NSE_EQ,BUY,D,4999999,19999.95,99999730000.05,20.00,99999730.00,3249991.23,585002.02,9999.97,14999959.50,118844702.72",
+            "INFY,NSE,NSE_EQ,SELL,I,3,33.3333,100.00,0.03,0.02,0.00,0.01,0.00,0.00,0.07"
+    };
+
+    private final ChargeCalculator calculator = new ChargeCalculator();
+
+    private static ChargeRequest randomRequest(Random random) {
+        int kind = random.nextInt(10);
+        BigDecimal price;
+        if (kind < 6) {
+            price = BigDecimal.valueOf(random.nextInt(2_000_000) * 5L, 2); // tick 0.05
+        } else if (kind < 9) {
+            price = BigDecimal.valueOf(random.nextInt(1_000_000_000), 4);
+        } else {
+            price = new BigDecimal("123.456789"); // finer than 1e-4: reference fallback
+        }
+        int quantity = random.nextInt(10) == 0 ? random.nextInt(5_000_000) : 1 + random.nextInt(5_000);
+        return new ChargeRequest(
+                INSTRUMENTS[random.nextInt(INSTRUMENTS.length)],
+                EXCHANGES[random.nextInt(EXCHANGES.length)],
+                SEGMENTS[random.nextInt(SEGMENTS.length)],
+                SIDES[random.nextInt(SIDES.length)],
+                PRODUCTS[random.nextInt(PRODUCTS.length)],
+                quantity,
+                price);
+    }
+
+    @Test
+    @DisplayName("Known order: equity intraday buy on NSE")
+    void knownOrder() {
+        ChargeBreakdown b = calculator.calculate(
+                new ChargeRequest("INFY", "NSE", "NSE_EQ", "BUY", "I", 100, new BigDecimal("1500.50")));
+
+        assertEquals(new BigDecimal("150050.00"), b.turnover());
+        assertEquals(new BigDecimal("20.00"), b.brokerage()); // capped
+        assertEquals(new BigDecimal("0.00"), b.stt());
+        assertEquals(new BigDecimal("4.88"), b.exchangeFees());
+        assertEquals(new BigDecimal("22.51"), b.stampDuty());
+        assertEquals(new BigDecimal("4.48"), b.gst());
+        assertEquals(new BigDecimal("51.88"), b.totalCharges());
+    }
+
+    @Test
+    @DisplayName("Golden: fixed figures from the original calculator")
+    void pinnedFigures() {
+        for (String row : GOLDEN) {
+            String[] f = row.split(",");
+            ChargeRequest request = new ChargeRequest(f[0], f[1], f[2], f[3], f[4], Integer.parseInt(f[5]),
+                    new BigDecimal(f[6]));
+            ChargeBreakdown expected = new ChargeBreakdown(new BigDecimal(f[8]), new BigDecimal(f[9]),
+                    new BigDecimal(f[10]), new BigDecimal(f[11]), new BigDecimal(f[12]), new BigDecimal(f[13]),
+                    new BigDecimal(f[14]), new BigDecimal(f[7]));
+            assertEquals(expected, calculator.calculate(request), row);
+            assertEquals(expected, calculator.calculateReference(request), row);
+        }
+    }
+
+    @Test
+    @DisplayName("Parity: 200k random requests match the BigDecimal reference")
+    void goldenParity() {
+        Random random = new Random(20250110L);
+        for (int i = 0; i < 200_000; i++) {
+            ChargeRequest request = randomRequest(random);
+            assertEquals(calculator.calculateReference(request), calculator.calculate(request),
+                    () -> "Mismatch for " + request);
+        }
+    }
+
+    @Test
+    @DisplayName("Batch: results match single calculation, batch is reusable")
+    void batchParity() {
+        Random random = new Random(42L);
+        ChargeBatch batch = new ChargeBatch(5_000);
+        ChargeRequest[] requests = new ChargeRequest[batch.capacity()];
+
+        for (int round = 0; round < 3; round++) {
+            batch.clear();
+            while (batch.size() < batch.capacity()) {
+                ChargeRequest request = randomRequest(random);
+                requests[batch.add(request)] = request;
+            }
+            calculator.calculateBatch(batch);
+
+            long total = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                ChargeBreakdown expected = calculator.calculateReference(requests[i]);
+                assertEquals(expected, batch.breakdown(i), "Mismatch for " + requests[i]);
+                total += expected.totalCharges().unscaledValue().longValueExact();
+            }
+            assertEquals(total, batch.sumPaise(ChargeBatch.TOTAL));
+        }
+        assertThrows(IllegalStateException.class,
+                () -> batch.add(new ChargeRequest("INFY", "NSE", "NSE_EQ", "BUY", "I", 1, BigDecimal.ONE)));
+    }
+}
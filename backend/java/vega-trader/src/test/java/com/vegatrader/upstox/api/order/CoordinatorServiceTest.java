@@ -9,6 +9,11 @@ import org.junit.jupiter.api.BeforeEach;
 import java.math.BigDecimal;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +86,72 @@ class CoordinatorServiceTest {
         assertEquals(orderId, response2.data().get(0).orderId()); // Same order ID
     }
 
+    @Test
+    @DisplayName("Coordinator: concurrent duplicates share one in-flight placement")
+    void coordinatorSingleFlightPlace() throws Exception {
+        var request = new MultiOrderRequest(List.of(
+                new MultiOrderRequest.OrderLine("C1", 5, "I", "DAY", BigDecimal.ZERO,
+                        "MARKET", "BUY", "NSE_EQ|INFY", null, 0, BigDecimal.ZERO, false, false)));
+
+        String idempotencyKey = "IDEM-SF-" + UUID.randomUUID();
+        var pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MultiOrderResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> coordinatorService.placeMultiOrder(request, "USER-SF", idempotencyKey)));
+            }
+
+            Set<String> orderIds = new HashSet<>();
+            for (var future : futures) {
+                orderIds.add(future.get().data().get(0).orderId());
+            }
+            assertEquals(1, orderIds.size());
+            assertEquals(1, orchestrator.getOrdersByUser("USER-SF").size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Coordinator: an Error in the action releases concurrent duplicates")
+    void coordinatorErrorReleasesDuplicates() throws Exception {
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var failing = new CoordinatorService(orchestrator, multiOrderService, new OrderModifyService(orchestrator) {
+            @Override
+            public ModifyResult modifyOrder(ModifyRequest request) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new StackOverflowError("boom");
+            }
+        });
+        var modifyRequest = new OrderModifyService.ModifyRequest(
+                "ORD-ERR", null, 10, "DAY", BigDecimal.ONE, null, 0, null);
+        String idempotencyKey = "IDEM-ERR-" + UUID.randomUUID();
+
+        var pool = Executors.newFixedThreadPool(2);
+        try {
+            var first = pool.submit(() -> failing.modifyOrder(modifyRequest, idempotencyKey));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            var duplicate = pool.submit(() -> failing.modifyOrder(modifyRequest, idempotencyKey));
+            Thread.sleep(50);
+            release.countDown();
+
+            var e1 = assertThrows(ExecutionException.class,
+                    () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, e1.getCause());
+            var e2 = assertThrows(ExecutionException.class,
+                    () -> duplicate.get(5, TimeUnit.SECONDS), "duplicate must not hang");
+            assertInstanceOf(StackOverflowError.class, e2.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     @Test
     @DisplayName("Coordinator: idempotent modify order")
     void coordinatorIdempotentModify() {
@@ -0,0 +1,296 @@
+package com.vegatrader.upstox.api.order;
+
+import com.vegatrader.upstox.api.order.model.Order;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator;
+import com.vegatrader.upstox.api.order.service.OrderPersistenceOrchestrator.AuditEvent;
+import com.vegatrader.upstox.api.order.store.OrderEventLog;
+import com.vegatrader.upstox.api.order.store.OrderLogRecord;
+import com.vegatrader.upstox.api.order.store.OrderStoreFlusher;
+import com.vegatrader.upstox.api.order.store.UserOrderIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the write-behind order store (event log + per-user index).
+ */
+class OrderStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Order order(String orderId, String userId, Instant placedAt) {
+        return Order.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .status(Order.OrderStatus.ACKNOWLEDGED)
+                .placedAt(placedAt)
+                .build();
+    }
+
+    private static AuditEvent audit(String orderId) {
+        return new AuditEvent(orderId, "ORDER_PERSISTED", Map.of("status", "ACKNOWLEDGED"), Instant.now());
+    }
+
+    @Test
+    @DisplayName("Index: newest first per user, limit honoured")
+    void indexNewestFirst() {
+        UserOrderIndex index = new UserOrderIndex();
+        Instant t0 = Instant.parse("2025-01-10T04:00:00Z");
+
+        index.put(order("A", "U1", t0));
+        index.put(order("B", "U1", t0.plusSeconds(5)));
+        index.put(order("C", "U1", t0.plusSeconds(10)));
+        index.put(order("X", "U2", t0.plusSeconds(20)));
+
+        assertEquals(List.of("C", "B", "A"), index.getOrders("U1").stream().map(Order::orderId).toList());
+        assertEquals(List.of("C", "B"), index.getRecent("U1", 2).stream().map(Order::orderId).toList());
+        assertEquals(List.of("C", "B"),
+                index.getSince("U1", t0.plusSeconds(5)).stream().map(Order::orderId).toList());
+        assertEquals(1, index.size("U2"));
+        assertTrue(index.getOrders("NOBODY").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Log: replay returns appended records in order")
+    void logReplay() {
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            log.append(order("A", "U1", Instant.now()), null, null, audit("A"));
+            log.append(order("B", "U1", Instant.now()), null, null, audit("B"));
+        }
+
+        List<OrderLogRecord> replayed = new ArrayList<>();
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            assertEquals(2, log.replay(replayed::add));
+            OrderLogRecord next = log.append(order("C", "U1", Instant.now()), null, null, audit("C"));
+            assertEquals(3, next.seq());
+        }
+
+        assertEquals("A", replayed.get(0).order().orderId());
+        assertEquals("B", replayed.get(1).order().orderId());
+        assertNotEquals(replayed.get(0).eventId(), replayed.get(1).eventId());
+    }
+
+    @Test
+    @DisplayName("Log: torn tail is truncated on replay")
+    void logTornTail() throws Exception {
+        Path logFile;
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            log.append(order("A", "U1", Instant.now()), null, null, audit("A"));
+            log.append(order("B", "U1", Instant.now()), null, null, audit("B"));
+        }
+        try (var files = Files.walk(tempDir)) {
+            logFile = files.filter(p -> p.getFileName().toString().equals("orders.log")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(logFile.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        List<OrderLogRecord> replayed = new ArrayList<>();
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            assertEquals(1, log.replay(replayed::add));
+        }
+        assertEquals("A", replayed.get(0).order().orderId());
+    }
+
+    @Test
+    @DisplayName("Log: checkpoint round trip")
+    void logCheckpoint() {
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            assertEquals(0, log.lastCheckpoint());
+            log.checkpoint(42);
+            assertEquals(42, log.lastCheckpoint());
+        }
+    }
+
+    @Test
+    @DisplayName("Log: rolls over to the new day's segment on append")
+    void logRollsOver() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-10T18:00:00Z")); // 23:30 IST
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            log.append(order("A", "U1", Instant.now()), null, null, audit("A"));
+            now.set(Instant.parse("2025-01-10T18:31:00Z")); // 00:01 IST
+            OrderLogRecord next = log.append(order("B", "U1", Instant.now()), null, null, audit("B"));
+            assertEquals(2, next.seq(), "sequence continues across the roll");
+            assertTrue(next.eventId().contains("20250111"));
+            assertEquals("2025-01-11", log.getTradingDate().toString());
+            assertTrue(log.getLogFile().startsWith(tempDir.resolve("2025-01-11")));
+        }
+        List<OrderLogRecord> day1 = new ArrayList<>();
+        try (OrderEventLog log = new OrderEventLog(tempDir, () -> Instant.parse("2025-01-10T10:00:00Z"))) {
+            log.replay(day1::add);
+        }
+        assertEquals(List.of("A"), day1.stream().map(r -> r.order().orderId()).toList());
+    }
+
+    @Test
+    @DisplayName("Log: uncommitted records of the previous day are found on restart")
+    void logPreviousDayTail() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-10T18:00:00Z")); // 23:30 IST
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            log.append(order("A", "U1", Instant.now()), null, null, audit("A"));
+            log.append(order("B", "U1", Instant.now()), null, null, audit("B"));
+            log.append(order("C", "U1", Instant.now()), null, null, audit("C"));
+            log.checkpoint(1);
+            now.set(Instant.parse("2025-01-10T18:31:00Z")); // 00:01 IST
+            log.append(order("D", "U1", Instant.now()), null, null, audit("D"));
+            // crash: the batch holding B and C never commits
+        }
+
+        List<OrderLogRecord> tail = new ArrayList<>();
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            assertEquals(2, log.replayPreviousTail(tail::add));
+            assertEquals(1, log.replay(r -> {
+            }));
+            log.checkpoint(3);
+            assertEquals(0, log.lastCheckpoint(), "previous day's records checkpoint their own segment");
+            log.checkpoint(4);
+            assertEquals(4, log.lastCheckpoint());
+        }
+        assertEquals(List.of("B", "C"), tail.stream().map(r -> r.order().orderId()).toList());
+
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            assertEquals(0, log.replayPreviousTail(r -> fail("already committed")));
+            assertEquals(1, log.replay(r -> {
+            }));
+            assertEquals(5, log.append(order("E", "U1", Instant.now()), null, null, audit("E")).seq());
+        }
+    }
+
+    /** Records flushed batches; fails batches holding a rejected order. */
+    private static final class RecordingFlusher extends OrderStoreFlusher {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        volatile String rejected;
+        int attempts;
+
+        RecordingFlusher(CountDownLatch release) {
+            super(null, null);
+            this.release = release;
+        }
+
+        @Override
+        public void flush(List<OrderLogRecord> batch, boolean recovering) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<String> ids = batch.stream().map(r -> r.order().orderId()).toList();
+            if (ids.contains(rejected)) {
+                attempts++;
+                throw new DataIntegrityViolationException("UNIQUE constraint failed");
+            }
+            batches.add(ids);
+        }
+
+        List<String> flushed() {
+            return batches.stream().flatMap(List::stream).toList();
+        }
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: a batch the DB always rejects is quarantined, later batches flow")
+    void quarantinesPoisonBatch() throws Exception {
+        RecordingFlusher flusher = new RecordingFlusher(new CountDownLatch(0));
+        flusher.rejected = "BAD";
+        OrderPersistenceOrchestrator store = new OrderPersistenceOrchestrator(flusher,
+                new OrderEventLog(tempDir), 1024);
+        List<OrderPersistenceOrchestrator.QuarantinedBatch> alerts = new CopyOnWriteArrayList<>();
+        store.addQuarantineListener(alerts::add);
+        store.start();
+        try {
+            store.persist(order("BAD", "U1", Instant.now()), null, null);
+            await(() -> !alerts.isEmpty());
+            store.persist(order("GOOD", "U1", Instant.now()), null, null);
+            await(() -> flusher.flushed().contains("GOOD"));
+        } finally {
+            store.stop();
+        }
+        assertEquals(5, flusher.attempts);
+        assertEquals(1, store.getQuarantinedBatches().size());
+        assertEquals(1, alerts.get(0).fromSeq());
+        assertEquals(List.of("GOOD"), flusher.flushed());
+        try (OrderEventLog log = new OrderEventLog(tempDir)) {
+            assertEquals(2, log.lastCheckpoint());
+            assertEquals(2, log.replay(r -> {
+            }), "quarantined records stay in the log");
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: startup does not wait for the DB; recovery flushes before new records")
+    void recoversOffStartupPath() throws Exception {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-10T18:00:00Z")); // 23:30 IST
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            log.append(order("A", "U1", Instant.now()), null, null, audit("A"));
+            now.set(Instant.parse("2025-01-10T18:31:00Z")); // 00:01 IST
+            log.append(order("B", "U1", Instant.now()), null, null, audit("B"));
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingFlusher flusher = new RecordingFlusher(release);
+        OrderPersistenceOrchestrator store = new OrderPersistenceOrchestrator(flusher,
+                new OrderEventLog(tempDir, now::get), 1024);
+        store.start(); // returns while the DB is still blocked
+        try {
+            store.persist(order("C", "U1", Instant.now()), null, null);
+            release.countDown();
+            await(() -> flusher.flushed().size() == 3);
+        } finally {
+            store.stop();
+        }
+        assertEquals(List.of("A", "B", "C"), flusher.flushed());
+        assertEquals("1", Files.readString(tempDir.resolve("2025-01-10").resolve("checkpoint")));
+        try (OrderEventLog log = new OrderEventLog(tempDir, now::get)) {
+            assertEquals(3, log.lastCheckpoint());
+        }
+    }
+
+    @Test
+    @DisplayName("Write-behind: records beyond the queue bound are re-read from the log in order")
+    void boundedQueueSpillsToLog() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingFlusher flusher = new RecordingFlusher(release);
+        OrderPersistenceOrchestrator store = new OrderPersistenceOrchestrator(flusher,
+                new OrderEventLog(tempDir), 2);
+        store.start();
+        List<String> expected = new ArrayList<>();
+        try {
+            for (int i = 0; i < 10; i++) {
+                store.persist(order("O" + i, "U1", Instant.now()), null, null);
+                expected.add("O" + i);
+                assertTrue(store.getPendingFlushCount() <= 2);
+            }
+            release.countDown();
+            await(() -> flusher.flushed().size() == 10);
+        } finally {
+            store.stop();
+        }
+        assertEquals(expected, flusher.flushed());
+        assertEquals(10, store.getOrdersByUser("U1").size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.vegatrader.upstox.api.order.pnl;
+
+import com.vegatrader.upstox.api.order.entity.TradeEntity;
+import com.vegatrader.upstox.api.order.pnl.PnLService.DailyPnLSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Equivalence tests: the fixed-point daily P&L must equal the BigDecimal path.
+ */
+class PnLServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 9);
+
+    private final PnLService service = new PnLService(null);
+
+    private static TradeEntity trade(String symbol, String side, int quantity, String price, String charges) {
+        TradeEntity trade = new TradeEntity();
+        trade.setTradingSymbol(symbol);
+        trade.setTransactionType(side);
+        trade.setQuantity(quantity);
+        trade.setPrice(new BigDecimal(price));
+        trade.setTotalCharges(charges != null ? new BigDecimal(charges) : null);
+        return trade;
+    }
+
+    /** Symbol order follows HashMap iteration, so compare sorted */
+    private static DailyPnLSummary sorted(DailyPnLSummary s) {
+        List<PnLService.SymbolPnL> symbols = new ArrayList<>(s.bySymbol());
+        symbols.sort(Comparator.comparing(PnLService.SymbolPnL::symbol));
+        return new DailyPnLSummary(s.userId(), s.date(), s.totalGrossPnL(), s.totalCharges(), s.totalNetPnL(),
+                s.tradeCount(), s.winningTrades(), s.losingTrades(), s.winRate(), symbols);
+    }
+
+    private static void assertSameSummary(DailyPnLSummary expected, DailyPnLSummary actual) {
+        assertEquals(sorted(expected), sorted(actual));
+    }
+
+    @Test
+    @DisplayName("Sub-paise symbol results round before totals and win/loss counts")
+    void roundsPerSymbol() {
+        List<TradeEntity> trades = List.of(
+                trade("A", "BUY", 1, "100.0000", null),
+                trade("A", "SELL", 1, "100.0049", null),
+                trade("B", "BUY", 1, "50.0000", "0.0050"),
+                trade("B", "SELL", 1, "50.0100", null),
+                trade("C", "BUY", 1, "10.0000", null),
+                trade("C", "SELL", 1, "10.0050", null),
+                trade("D", "BUY", 2, "5.0000", null),
+                trade("D", "SELL", 2, "5.0025", null));
+
+        DailyPnLSummary fixed = service.calculateDailyPnLFixed("u1", DATE, trades);
+        assertSameSummary(service.calculateDailyPnLDecimal("u1", DATE, trades), fixed);
+        assertEquals(new BigDecimal("0.03"), fixed.totalGrossPnL(), "0.00 + 0.01 + 0.01 + 0.01, not 0.0249");
+        assertEquals(new BigDecimal("0.01"), fixed.totalCharges());
+        assertEquals(new BigDecimal("0.03"), fixed.totalNetPnL());
+        assertEquals(3, fixed.winningTrades(), "A nets 0.0049, which reports as 0.00");
+        assertEquals(0, fixed.losingTrades());
+    }
+
+    @Test
+    @DisplayName("Random trade days give identical summaries on both paths")
+    void randomDays() {
+        Random random = new Random(20260109L);
+        String[] symbols = { "INFY", "RELIANCE", "NIFTY24JAN22000CE", "BANKNIFTY FUT", "TCS" };
+        for (int day = 0; day < 2_000; day++) {
+            List<TradeEntity> trades = new ArrayList<>();
+            for (int i = 0, n = random.nextInt(40); i < n; i++) {
+                String price = BigDecimal.valueOf(1 + random.nextInt(50_000_000), 4).toPlainString();
+                String charges = random.nextInt(5) == 0 ? null
+                        : BigDecimal.valueOf(random.nextInt(2_000_000), 4).toPlainString();
+                trades.add(trade(symbols[random.nextInt(symbols.length)], random.nextBoolean() ? "BUY" : "SELL",
+                        1 + random.nextInt(2_000), price, charges));
+            }
+            assertSameSummary(service.calculateDailyPnLDecimal("u1", DATE, trades),
+                    service.calculateDailyPnLFixed("u1", DATE, trades));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.vegatrader.upstox.api.rms;
+
+import com.vegatrader.upstox.api.instrument.entity.InstrumentMasterEntity;
+import com.vegatrader.upstox.api.rms.eligibility.ProductEligibility;
+import com.vegatrader.upstox.api.rms.entity.*;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceSnapshot;
+import com.vegatrader.upstox.api.rms.reference.RmsReferenceTables;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BOD RMS reference snapshot.
+ */
+class RmsReferenceSnapshotTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static InstrumentMasterEntity instrument(String key, String symbol, String series, String type) {
+        InstrumentMasterEntity e = new InstrumentMasterEntity();
+        e.setInstrumentKey(key);
+        e.setTradingSymbol(symbol);
+        e.setExchange("NSE");
+        e.setExchangeSeries(series);
+        e.setEquitySecurityType(type);
+        return e;
+    }
+
+    private static RmsReferenceTables emptyTables() {
+        return new RmsReferenceTables(Set.of(), Set.of(), Map.of(), Set.of(), Map.of(), Map.of(), Map.of(), Set.of());
+    }
+
+    @Test
+    @DisplayName("Snapshot: resolves eligibility per instrument like EligibilityResolver")
+    void resolvesEligibility() {
+        ExchangeSeriesEntity be = new ExchangeSeriesEntity();
+        be.setExchange("NSE");
+        be.setSeriesCode("BE");
+        be.setTradeForTrade(true);
+
+        RmsReferenceTables tables = new RmsReferenceTables(
+                Set.of("PCASTOCK"), Set.of(),
+                Map.of(RmsReferenceTables.seriesKey("NSE", "BE"), be),
+                Set.of(), Map.of(), Map.of(), Map.of(), Set.of());
+
+        RmsReferenceSnapshot snapshot = RmsReferenceSnapshot.build(TODAY, List.of(
+                instrument("NSE_EQ|A", "RELIANCE", "EQ", "NORMAL"),
+                instrument("NSE_EQ|B", "PCASTOCK", "EQ", "NORMAL"),
+                instrument("NSE_EQ|C", "T2TSTOCK", "BE", "NORMAL"),
+                instrument("NSE_EQ|D", "SMESTOCK", "EQ", "SME")), tables);
+
+        assertEquals(4, snapshot.size());
+        assertEquals(ProductEligibility.withMargin(true, true, true, "NORMAL", 20.0, 5.0),
+                snapshot.eligibility(snapshot.idOf("NSE_EQ|A")));
+        assertEquals("PCA", snapshot.eligibility(snapshot.idOf("NSE_EQ|B")).reason());
+        assertEquals("T2T", snapshot.eligibility(snapshot.idOf("NSE_EQ|C")).reason());
+        assertFalse(snapshot.eligibility(snapshot.idOf("NSE_EQ|D")).misAllowed());
+        assertTrue(snapshot.isT2TSeries("NSE", "BE"));
+        assertFalse(snapshot.isT2TSeries("NSE", "EQ"));
+    }
+
+    @Test
+    @DisplayName("Snapshot: shares identical eligibility instances")
+    void internsEligibility() {
+        List<InstrumentMasterEntity> instruments = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            instruments.add(instrument("NSE_EQ|" + i, "SYM" + i, "EQ", "NORMAL"));
+        }
+
+        RmsReferenceSnapshot snapshot = RmsReferenceSnapshot.build(TODAY, instruments, emptyTables());
+
+        assertSame(snapshot.eligibility(0), snapshot.eligibility(999));
+    }
+
+    @Test
+    @DisplayName("Snapshot: price band and quantity cap lookups")
+    void bandsAndCaps() {
+        PriceBandEntity band = new PriceBandEntity();
+        band.setInstrumentKey("NSE_EQ|A");
+        band.setLowerPrice(90.0);
+        band.setUpperPrice(110.0);
+        band.setEffectiveDate(TODAY);
+
+        QuantityCapEntity cap = new QuantityCapEntity();
+        cap.setInstrumentKey("NSE_EQ|A");
+        cap.setMaxQty(500);
+        cap.setMaxValue(0.0);
+
+        RmsReferenceTables tables = new RmsReferenceTables(Set.of(), Set.of(), Map.of(), Set.of(), Map.of(),
+                Map.of("NSE_EQ|A", band), Map.of("NSE_EQ|A", cap), Set.of());
+
+        RmsReferenceSnapshot snapshot = RmsReferenceSnapshot.build(TODAY, List.of(
+                instrument("NSE_EQ|A", "A", "EQ", "NORMAL"),
+                instrument("NSE_EQ|B", "B", "EQ", "NORMAL")), tables);
+
+        int a = snapshot.idOf("NSE_EQ|A");
+        int b = snapshot.idOf("NSE_EQ|B");
+
+        assertTrue(snapshot.isOutsideBand(a, 111.0));
+        assertFalse(snapshot.isOutsideBand(a, 100.0));
+        assertFalse(snapshot.hasPriceBand(b));
+        assertFalse(snapshot.isOutsideBand(b, 1_000_000.0));
+
+        assertEquals(500, snapshot.maxQty(a));
+        assertTrue(Double.isNaN(snapshot.maxValue(a)));
+        assertFalse(snapshot.hasQuantityCap(b));
+    }
+
+    @Test
+    @DisplayName("Snapshot: unknown instruments and staleness")
+    void unknownAndStale() {
+        RmsReferenceSnapshot snapshot = RmsReferenceSnapshot.build(TODAY.minusDays(1),
+                List.of(instrument("NSE_EQ|A", "A", "EQ", "NORMAL")), emptyTables());
+
+        assertEquals(-1, snapshot.idOf("NSE_EQ|MISSING"));
+        assertFalse(snapshot.isCurrent());
+        assertFalse(RmsReferenceSnapshot.empty().isCurrent());
+        assertEquals(0, RmsReferenceSnapshot.empty().size());
+    }
+}
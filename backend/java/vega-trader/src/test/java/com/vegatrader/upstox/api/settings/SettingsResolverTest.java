@@ -0,0 +1,211 @@
+package com.vegatrader.upstox.api.settings;
+
+import com.vegatrader.upstox.api.order.charges.ChargeCalculator;
+import com.vegatrader.upstox.api.order.charges.ChargeRateTable;
+import com.vegatrader.upstox.api.settings.entity.SettingsAuditLogEntity;
+import com.vegatrader.upstox.api.settings.entity.SettingsMetadataEntity;
+import com.vegatrader.upstox.api.settings.entity.UserSettingEntity;
+import com.vegatrader.upstox.api.settings.model.EffectiveSettings;
+import com.vegatrader.upstox.api.settings.model.SettingsChange;
+import com.vegatrader.upstox.api.settings.model.SettingsLayer;
+import com.vegatrader.upstox.api.settings.model.UserPrioritySettings;
+import com.vegatrader.upstox.api.settings.repository.SettingsAuditLogRepository;
+import com.vegatrader.upstox.api.settings.repository.SettingsMetadataRepository;
+import com.vegatrader.upstox.api.settings.repository.UserSettingRepository;
+import com.vegatrader.upstox.api.settings.service.AdminSettingsService;
+import com.vegatrader.upstox.api.settings.service.SettingsResolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for layered, precomputed settings snapshots.
+ */
+class SettingsResolverTest {
+
+    private static final String MAX_QTY = "order.max.qty.per.symbol";
+
+    private final SettingsResolver resolver = new SettingsResolver();
+
+    @Test
+    @DisplayName("Snapshots are shared until something changes")
+    void snapshotsRebuiltOnlyOnChange() {
+        EffectiveSettings first = resolver.effective("u1");
+        assertSame(first, resolver.effective("u1"));
+        assertEquals(UserPrioritySettings.defaults(), first.priority());
+        assertSame(first.priority(), resolver.resolveSettings("u1", null));
+        EffectiveSettings other = resolver.effective("u2");
+
+        SettingsChange change = resolver.updateUserSetting("u1", UserPrioritySettings.BROKER_ROUTING_PRIORITY,
+                "ZERODHA,UPSTOX", "u1", "UI");
+        EffectiveSettings second = resolver.effective("u1");
+        assertNotSame(first, second);
+        assertEquals(second.version(), change.version());
+        assertTrue(second.version() > first.version());
+        assertEquals(List.of("ZERODHA", "UPSTOX"), second.priority().brokerRoutingPriority());
+        assertEquals(SettingsLayer.USER, second.source(UserPrioritySettings.BROKER_ROUTING_PRIORITY));
+        assertSame(other, resolver.effective("u2"), "other users untouched");
+
+        assertNull(resolver.updateUserSetting("u1", UserPrioritySettings.BROKER_ROUTING_PRIORITY,
+                "ZERODHA,UPSTOX", "u1", "UI"), "unchanged value");
+        assertSame(second, resolver.effective("u1"));
+
+        resolver.resetUserSetting("u1", UserPrioritySettings.BROKER_ROUTING_PRIORITY, "u1", "UI");
+        assertEquals(List.of("PRIMARY"), resolver.effective("u1").priority().brokerRoutingPriority());
+        assertNull(resolver.getUserSettings("u1"));
+    }
+
+    @Test
+    @DisplayName("Regulatory > Exchange > System > User > Session")
+    void layersResolveInOrder() {
+        resolver.seedLayer(SettingsLayer.SYSTEM, Map.of(MAX_QTY, "1000"));
+        resolver.updateUserSetting("u1", MAX_QTY, "500", "u1", "UI");
+        assertEquals(500, resolver.effective("u1").getInt(MAX_QTY, 0));
+        assertEquals(1000, resolver.effective("u2").getInt(MAX_QTY, 0));
+
+        resolver.updateLayer(SettingsLayer.EXCHANGE, MAX_QTY, "1800", "NSE", "BOD");
+        EffectiveSettings pinned = resolver.effective("u1");
+        assertEquals(1800, pinned.getInt(MAX_QTY, 0), "loaded snapshots rebuilt eagerly");
+        assertEquals(SettingsLayer.EXCHANGE, pinned.pinnedBy(MAX_QTY));
+        assertEquals("500", pinned.layer(SettingsLayer.USER).get(MAX_QTY));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> resolver.updateUserSetting("u1", MAX_QTY, "100", "u1", "UI"));
+        assertTrue(e.getMessage().contains("EXCHANGE"));
+
+        resolver.updateLayer(SettingsLayer.REGULATORY, MAX_QTY, "900", "SEBI", "CIRCULAR");
+        assertEquals(900, resolver.effective("u1").getInt(MAX_QTY, 0));
+        assertEquals(900, resolver.global().getInt(MAX_QTY, 0));
+        resolver.updateLayer(SettingsLayer.REGULATORY, MAX_QTY, null, "SEBI", "CIRCULAR");
+        resolver.updateLayer(SettingsLayer.EXCHANGE, MAX_QTY, null, "NSE", "BOD");
+        assertEquals(500, resolver.effective("u1").getInt(MAX_QTY, 0), "user value survives");
+
+        UserPrioritySettings session = new UserPrioritySettings(null, null, null, List.of("FYERS"), null, "BSE",
+                false);
+        resolver.updateLayer(SettingsLayer.EXCHANGE, UserPrioritySettings.DEFAULT_EXCHANGE, "NSE", "NSE", "BOD");
+        UserPrioritySettings resolved = resolver.resolveSettings("u1", session);
+        assertEquals(List.of("FYERS"), resolved.brokerRoutingPriority());
+        assertEquals("NSE", resolved.defaultExchange(), "session cannot override the exchange layer");
+        assertFalse(resolved.confirmBeforePlace());
+        assertThrows(IllegalArgumentException.class,
+                () -> resolver.updateLayer(SettingsLayer.USER, MAX_QTY, "1", "u1", "UI"));
+    }
+
+    @Test
+    @DisplayName("Listeners hear about matching changes; admin charge updates reload rates")
+    void notifiesListeners() {
+        List<SettingsChange> heard = new ArrayList<>();
+        resolver.addListener("order.", heard::add);
+        resolver.addListener("", change -> {
+            throw new IllegalStateException("listener failures are contained");
+        });
+        resolver.updateUserSetting("u1", MAX_QTY, "250", "u1", "UI");
+        long version = resolver.effective("u1").version();
+        resolver.updateUserSetting("u1", "ui.theme", "dark", "u1", "UI");
+        assertEquals(List.of(new SettingsChange("u1", SettingsLayer.USER, MAX_QTY, null, "250", "u1", version)),
+                heard);
+
+        AdminSettingsService admin = new AdminSettingsService();
+        ChargeCalculator calculator = new ChargeCalculator(admin);
+        admin.setSettingsResolver(resolver);
+        calculator.setSettingsResolver(resolver);
+        assertEquals("0.18", resolver.global().get("charges.gst"));
+        ChargeRateTable before = calculator.getRates();
+        assertTrue(admin.updateSetting("charges.gst", "0.2", "admin", "RATE_CHANGE", "GST revision").success());
+        assertEquals("0.2", resolver.effective("u1").get("charges.gst"));
+        assertNotSame(before, calculator.getRates(), "reloaded without waiting for a poll");
+    }
+
+    @Test
+    @DisplayName("Writes in a transaction reach snapshots and listeners only on commit")
+    void appliesOnCommit() {
+        List<SettingsChange> heard = new ArrayList<>();
+        resolver.addListener("", heard::add);
+        EffectiveSettings before = resolver.effective("u1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(0, resolver.updateUserSetting("u1", MAX_QTY, "500", "u1", "UI").version());
+            resolver.updateLayer(SettingsLayer.EXCHANGE, UserPrioritySettings.DEFAULT_EXCHANGE, "BSE", "BSE", "BOD");
+            assertSame(before, resolver.effective("u1"), "nothing visible before commit");
+            assertTrue(heard.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        EffectiveSettings after = resolver.effective("u1");
+        assertEquals(500, after.getInt(MAX_QTY, 0));
+        assertEquals("BSE", after.get(UserPrioritySettings.DEFAULT_EXCHANGE));
+        assertEquals(2, heard.size());
+        assertTrue(heard.get(0).version() > before.version());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resolver.updateUserSetting("u1", MAX_QTY, "100", "u1", "UI");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertSame(after, resolver.effective("u1"), "rolled back");
+        assertEquals(2, heard.size());
+    }
+
+    @Test
+    @DisplayName("Metadata defaults are in place once the repository is injected; no user means global")
+    void seedsMetadataDefaults() {
+        SettingsMetadataEntity meta = new SettingsMetadataEntity();
+        meta.setSettingKey(MAX_QTY);
+        meta.setDefaultValue("750");
+        SettingsMetadataRepository metadataRepo = mock(SettingsMetadataRepository.class);
+        when(metadataRepo.findAll()).thenReturn(List.of(meta));
+        resolver.setMetadataRepository(metadataRepo);
+
+        assertEquals(750, resolver.effective("u1").getInt(MAX_QTY, 0));
+        assertSame(resolver.global(), resolver.effective(null));
+        assertEquals(UserPrioritySettings.defaults(), resolver.resolveSettings(null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> resolver.updateUserSetting(null, MAX_QTY, "1", null, "UI"));
+    }
+
+    @Test
+    @DisplayName("User values load from and write through to the repository, with audit")
+    void persistsAndAudits() {
+        UserSettingRepository settingRepo = mock(UserSettingRepository.class);
+        SettingsAuditLogRepository auditRepo = mock(SettingsAuditLogRepository.class);
+        UserSettingEntity stored = new UserSettingEntity("u1", UserPrioritySettings.DEFAULT_EXCHANGE, "BSE");
+        when(settingRepo.findByUserId("u1")).thenReturn(List.of(stored));
+        when(settingRepo.findByUserIdAndSettingKey("u1", UserPrioritySettings.DEFAULT_EXCHANGE))
+                .thenReturn(Optional.of(stored));
+        SettingsResolver persistent = new SettingsResolver(settingRepo, auditRepo);
+
+        assertEquals("BSE", persistent.resolveSettings("u1", null).defaultExchange());
+        persistent.effective("u1");
+        verify(settingRepo, times(1)).findByUserId("u1");
+
+        persistent.updateUserSetting("u1", UserPrioritySettings.DEFAULT_EXCHANGE, "NSE", "u1", "CLI");
+        assertEquals("NSE", stored.getSettingValue());
+        verify(settingRepo).save(stored);
+        ArgumentCaptor<SettingsAuditLogEntity> audit = ArgumentCaptor.forClass(SettingsAuditLogEntity.class);
+        verify(auditRepo).save(audit.capture());
+        assertEquals("u1", audit.getValue().getUserId());
+        assertEquals("BSE", audit.getValue().getOldValue());
+        assertEquals("NSE", audit.getValue().getNewValue());
+        assertEquals("CLI", audit.getValue().getInterfaceType());
+
+        persistent.resetUserSetting("u1", UserPrioritySettings.DEFAULT_EXCHANGE, "u1", "CLI");
+        verify(settingRepo).deleteByUserIdAndKey("u1", UserPrioritySettings.DEFAULT_EXCHANGE);
+        verify(auditRepo, times(2)).save(any());
+        assertEquals("NSE", persistent.effective("u1").priority().defaultExchange());
+    }
+}
@@ -0,0 +1,158 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.vegatrader.upstox.api.websocket.bus.InMemoryEventBus;
+import com.vegatrader.upstox.api.websocket.bus.InMemoryEventBus.SubscriberStatistics;
+import com.vegatrader.upstox.api.websocket.event.HeartbeatEvent;
+import com.vegatrader.upstox.api.websocket.event.MarketUpdateEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for hierarchy dispatch, async lanes, metrics and batch publish on the
+ * in-memory event bus.
+ */
+class EventBusTest {
+
+    private final InMemoryEventBus bus = new InMemoryEventBus();
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    @DisplayName("Subscribers of supertypes and interfaces receive concrete events in registration order")
+    void hierarchyDispatch() {
+        List<String> seen = new ArrayList<>();
+        bus.subscribe(MarketUpdateEvent.class, e -> seen.add("iface"));
+        bus.subscribe(HeartbeatEvent.class, e -> seen.add("exact"));
+        bus.subscribe(Object.class, e -> seen.add("object"));
+        bus.subscribe(String.class, e -> seen.add("string"));
+
+        bus.publish(new HeartbeatEvent(1));
+        assertEquals(List.of("iface", "exact", "object"), seen);
+        assertEquals(3, bus.getSubscriberCount(HeartbeatEvent.class));
+
+        // A late subscription is picked up by the cached dispatch table
+        bus.subscribe(HeartbeatEvent.class, e -> seen.add("late"));
+        seen.clear();
+        bus.publish(new HeartbeatEvent(2));
+        assertEquals(List.of("iface", "exact", "object", "late"), seen);
+        assertEquals(4, bus.getEventTypeCount());
+        assertThrows(NullPointerException.class, () -> bus.publish(null));
+    }
+
+    @Test
+    @DisplayName("A failing subscriber is counted and does not stop the others")
+    void errorsAndMetrics() {
+        AtomicInteger ok = new AtomicInteger();
+        bus.subscribe("failing", HeartbeatEvent.class, e -> {
+            throw new IllegalStateException("boom");
+        });
+        bus.subscribe("counting", MarketUpdateEvent.class, e -> ok.incrementAndGet());
+
+        bus.publishAll(Arrays.asList(new HeartbeatEvent(1), null, new HeartbeatEvent(2), "ignored"));
+        assertEquals(2, ok.get(), "a null element is skipped, not fatal to the batch");
+
+        List<SubscriberStatistics> stats = bus.getSubscriberStatistics();
+        assertEquals("failing", stats.get(0).name());
+        assertEquals(2, stats.get(0).delivered());
+        assertEquals(2, stats.get(0).errors());
+        assertEquals(0, stats.get(1).errors());
+        assertFalse(stats.get(1).async());
+        assertTrue(stats.get(1).maxMicros() >= stats.get(1).avgMicros());
+    }
+
+    @Test
+    @DisplayName("A blocked async subscriber drops on its own lane without stalling the publisher")
+    void asyncLaneIsolation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger slow = new AtomicInteger();
+        AtomicInteger fast = new AtomicInteger();
+        bus.subscribeAsync("analytics", HeartbeatEvent.class, 4, e -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            slow.incrementAndGet();
+        });
+        bus.subscribe("ingest", HeartbeatEvent.class, e -> fast.incrementAndGet());
+
+        bus.publish(new HeartbeatEvent(0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= 100; i++) {
+            bus.publish(new HeartbeatEvent(i));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "publisher was blocked");
+        assertEquals(101, fast.get());
+
+        SubscriberStatistics lane = bus.getSubscriberStatistics().get(0);
+        assertTrue(lane.async());
+        assertEquals(4, lane.queued());
+        assertEquals(96, lane.dropped());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slow.get() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(5, slow.get());
+    }
+
+    @Test
+    @DisplayName("Async lane preserves order across concurrent publishers per thread")
+    void asyncLaneOrdering() throws Exception {
+        int perThread = 20_000;
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2 * perThread);
+        bus.subscribeAsync("recorder", HeartbeatEvent.class, 1 << 16, e -> {
+            received.add(e.getTimestamp());
+            done.countDown();
+        });
+
+        Thread a = new Thread(() -> {
+            for (int i = 0; i < perThread; i++) {
+                bus.publish(new HeartbeatEvent(i));
+            }
+        });
+        Thread b = new Thread(() -> {
+            for (int i = 0; i < perThread; i++) {
+                bus.publish(new HeartbeatEvent(1_000_000L + i));
+            }
+        });
+        a.start();
+        b.start();
+        a.join();
+        b.join();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        long lastA = -1;
+        long lastB = 999_999;
+        for (long ts : received) {
+            if (ts < 1_000_000L) {
+                assertTrue(ts > lastA);
+                lastA = ts;
+            } else {
+                assertTrue(ts > lastB);
+                lastB = ts;
+            }
+        }
+        assertEquals(0, bus.getSubscriberStatistics().get(0).dropped());
+    }
+}
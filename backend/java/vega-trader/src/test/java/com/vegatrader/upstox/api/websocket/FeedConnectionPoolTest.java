@@ -0,0 +1,194 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.vegatrader.upstox.api.response.websocket.FeedData;
+import com.vegatrader.upstox.api.response.websocket.MarketDataFeedV3Response;
+import com.vegatrader.upstox.api.websocket.listener.OnCloseListener;
+import com.vegatrader.upstox.api.websocket.listener.OnMarketUpdateV3Listener;
+import com.vegatrader.upstox.api.websocket.listener.OnOpenListener;
+import com.vegatrader.upstox.api.websocket.manager.FeedConnectionPool;
+import com.vegatrader.upstox.api.websocket.settings.ConnectionSettings;
+import com.vegatrader.upstox.api.websocket.settings.SubscriptionTier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for multi-session feed pooling: placement, failover, limits and merge.
+ */
+class FeedConnectionPoolTest {
+
+    private static final class FakeSession implements FeedConnectionPool.Session {
+        final String name;
+        final Map<String, Mode> subscribed = new HashMap<>();
+        OnOpenListener onOpen;
+        OnCloseListener onClose;
+        OnMarketUpdateV3Listener onUpdate;
+        boolean up;
+
+        FakeSession(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void setListeners(OnOpenListener onOpen, OnCloseListener onClose, OnMarketUpdateV3Listener onUpdate) {
+            this.onOpen = onOpen;
+            this.onClose = onClose;
+            this.onUpdate = onUpdate;
+        }
+
+        @Override
+        public void connect() {
+            up = true;
+            onOpen.onOpen();
+        }
+
+        @Override
+        public void disconnect() {
+            up = false;
+            onClose.onClose(1000, "Client disconnect");
+        }
+
+        void drop() {
+            up = false;
+            subscribed.clear();
+            onClose.onClose(1006, "abnormal");
+        }
+
+        @Override
+        public void subscribe(Set<String> instrumentKeys, Mode mode) {
+            assertTrue(up, name + " subscribed while down");
+            instrumentKeys.forEach(k -> subscribed.put(k, mode));
+        }
+
+        @Override
+        public void unsubscribe(Set<String> instrumentKeys) {
+            instrumentKeys.forEach(subscribed::remove);
+        }
+    }
+
+    private static Set<String> keys(int n) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) {
+            keys.add("NSE_EQ|INE" + i);
+        }
+        return keys;
+    }
+
+    private static MarketUpdateV3 update(String... instrumentKeys) {
+        Map<String, FeedData> feeds = new LinkedHashMap<>();
+        for (String key : instrumentKeys) {
+            feeds.put(key, new FeedData());
+        }
+        MarketDataFeedV3Response response = new MarketDataFeedV3Response();
+        response.setType("live_feed");
+        response.setCurrentTs(Long.toString(System.currentTimeMillis()));
+        response.setFeeds(feeds);
+        return new MarketUpdateV3(response);
+    }
+
+    private static void assertDisjointAndComplete(Set<String> expected, FakeSession... sessions) {
+        Set<String> seen = new HashSet<>();
+        for (FakeSession session : sessions) {
+            for (String key : session.subscribed.keySet()) {
+                assertTrue(seen.add(key), key + " held by two sessions");
+            }
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Instruments are spread evenly across live sessions")
+    void spreadsEvenly() {
+        FakeSession a = new FakeSession("WEBSOCKET1");
+        FakeSession b = new FakeSession("WEBSOCKET2");
+        FeedConnectionPool pool = new FeedConnectionPool(List.of(a, b), SubscriptionTier.NORMAL, u -> {
+        });
+        pool.connect();
+
+        Set<String> keys = keys(100);
+        pool.subscribe(keys, Mode.LTPC);
+
+        assertEquals(50, a.subscribed.size());
+        assertEquals(50, b.subscribed.size());
+        assertDisjointAndComplete(keys, a, b);
+
+        pool.unsubscribe(new HashSet<>(new ArrayList<>(a.subscribed.keySet()).subList(0, 40)));
+        assertTrue(Math.abs(a.subscribed.size() - b.subscribed.size()) <= 2, "rebalanced after unsubscribe");
+        assertEquals(60, pool.getSubscriptions().size());
+    }
+
+    @Test
+    @DisplayName("Dropped session fails over, then gets load back on reconnect")
+    void failsOverAndRebalances() {
+        FakeSession a = new FakeSession("WEBSOCKET1");
+        FakeSession b = new FakeSession("WEBSOCKET2");
+        FeedConnectionPool pool = new FeedConnectionPool(List.of(a, b), SubscriptionTier.NORMAL, u -> {
+        });
+        pool.connect();
+        Set<String> keys = keys(200);
+        pool.subscribe(keys, Mode.FULL);
+
+        a.drop();
+        assertTrue(pool.isConnected());
+        assertEquals(200, b.subscribed.size());
+        assertTrue(keys.stream().allMatch(k -> "WEBSOCKET2".equals(pool.getOwner(k))));
+
+        a.connect();
+        assertEquals(100, a.subscribed.size());
+        assertEquals(100, b.subscribed.size());
+        assertDisjointAndComplete(keys, a, b);
+        assertEquals(1, pool.getConnectionStats().get(0).failovers());
+    }
+
+    @Test
+    @DisplayName("Per-session limits add up across the pool")
+    void limitsArePerSession() {
+        FakeSession a = new FakeSession("WEBSOCKET1");
+        FakeSession b = new FakeSession("WEBSOCKET2");
+        FeedConnectionPool pool = new FeedConnectionPool(List.of(a, b), SubscriptionTier.NORMAL, u -> {
+        });
+        pool.connect();
+
+        pool.subscribe(keys(4000), Mode.FULL); // 2 x 2000 individual FULL limit
+        assertEquals(2000, a.subscribed.size());
+
+        Set<String> extra = Set.of("NSE_EQ|EXTRA");
+        assertThrows(ConnectionSettings.SubscriptionLimitExceededException.class,
+                () -> pool.subscribe(extra, Mode.FULL));
+        assertNull(pool.getOwner("NSE_EQ|EXTRA"));
+    }
+
+    @Test
+    @DisplayName("Merged stream only carries ticks from the owning session")
+    void mergesAndFiltersByOwner() {
+        FakeSession a = new FakeSession("WEBSOCKET1");
+        FakeSession b = new FakeSession("WEBSOCKET2");
+        List<String> received = new ArrayList<>();
+        FeedConnectionPool pool = new FeedConnectionPool(List.of(a, b), SubscriptionTier.NORMAL,
+                u -> received.addAll(u.getFeeds().keySet()));
+        pool.connect();
+        pool.subscribe(keys(4), Mode.LTPC);
+
+        String onA = a.subscribed.keySet().iterator().next();
+        String onB = b.subscribed.keySet().iterator().next();
+
+        a.onUpdate.onUpdate(update(onA));
+        a.onUpdate.onUpdate(update(onA, onB)); // stale tick for onB from a moved session
+        b.onUpdate.onUpdate(update(onB));
+
+        assertEquals(List.of(onA, onA, onB), received);
+
+        FeedConnectionPool.ConnectionStats stats = pool.getConnectionStats().get(0);
+        assertEquals("WEBSOCKET1", stats.name());
+        assertEquals(2, stats.messages());
+        assertTrue(stats.avgLagMillis() >= 0);
+    }
+}
@@ -0,0 +1,215 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.upstox.marketdatafeederv3udapi.rpc.proto.MarketDataFeedV3;
+import com.vegatrader.journal.MappedJournalCursor;
+import com.vegatrader.journal.WireFrameHeader;
+import com.vegatrader.market.dto.LiveMarketSnapshot;
+import com.vegatrader.market.dto.OrderBookSnapshot;
+import com.vegatrader.market.feed.MarketFeedListener;
+import com.vegatrader.upstox.api.websocket.bus.InMemoryEventBus;
+import com.vegatrader.upstox.api.websocket.replay.JournalReplayer;
+import com.vegatrader.upstox.api.websocket.replay.ReplayPipeline;
+import com.vegatrader.upstox.api.websocket.replay.ReplayService;
+import com.vegatrader.upstox.api.websocket.replay.ReplaySpeed;
+import com.vegatrader.util.time.ReplayTimeProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the mmap journal cursor and journal-driven replay.
+ */
+class JournalReplayTest {
+
+    private static final long T0 = 1_767_590_100_000L; // 2026-01-05T05:15:00Z
+    private static final String KEY = "NSE_FO|43885";
+
+    @TempDir
+    Path dir;
+
+    private static byte[] frame(long ts, double ltp) {
+        return MarketDataFeedV3.FeedResponse.newBuilder()
+                .setType(MarketDataFeedV3.Type.live_feed)
+                .setCurrentTs(ts)
+                .putFeeds(KEY, MarketDataFeedV3.Feed.newBuilder()
+                        .setLtpc(MarketDataFeedV3.LTPC.newBuilder().setLtp(ltp).setLtt(ts).setCp(100.0))
+                        .build())
+                .build()
+                .toByteArray();
+    }
+
+    /**
+     * Writes frames the way JournalWriter does; receive times mirror the feed
+     * times (offset by an arbitrary nanoTime origin).
+     */
+    private static Path journal(Path file, long[] timestamps) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < timestamps.length; i++) {
+                byte[] payload = frame(timestamps[i], 100.0 + i);
+                ByteBuffer header = ByteBuffer.allocate(WireFrameHeader.SIZE_BYTES);
+                WireFrameHeader.write(header, 5_000_000_000L + (timestamps[i] - timestamps[0]) * 1_000_000L, 1,
+                        payload.length, WireFrameHeader.PROTO_WS, WireFrameHeader.COMPRESSION_NONE);
+                header.flip();
+                channel.write(header);
+                channel.write(ByteBuffer.wrap(payload));
+            }
+        }
+        return file;
+    }
+
+    private static final class RecordingListener implements MarketFeedListener {
+        final List<LiveMarketSnapshot> ticks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onTick(LiveMarketSnapshot tick) {
+            ticks.add(tick);
+        }
+
+        @Override
+        public void onDepth(OrderBookSnapshot depth) {
+        }
+    }
+
+    @Test
+    @DisplayName("Cursor reads frames across remapped windows and flags a torn tail")
+    void cursorWindows() throws Exception {
+        Path file = journal(dir.resolve("a.bin"), new long[] { T0, T0 + 10, T0 + 20 });
+        Files.write(file, new byte[] { 0, 0, 0 }, StandardOpenOption.APPEND);
+
+        try (MappedJournalCursor cursor = MappedJournalCursor.open(file, 32)) {
+            List<Long> seen = new ArrayList<>();
+            while (cursor.next()) {
+                assertEquals(1, cursor.connectionId());
+                seen.add(MarketDataFeedV3.FeedResponse.parseFrom(cursor.payload()).getCurrentTs());
+            }
+            assertEquals(List.of(T0, T0 + 10, T0 + 20), seen);
+            assertTrue(cursor.isTruncated());
+            assertEquals(3, cursor.frames());
+        }
+    }
+
+    @Test
+    @DisplayName("Max-speed replay drives listener, clock and bus; window skips frames without decoding")
+    void replayIntoPipeline() throws Exception {
+        long[] ts = new long[50];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = T0 + i * 60_000L; // one frame a minute: 49 minutes of session
+        }
+        Path file = journal(dir.resolve("b.bin"), ts);
+
+        RecordingListener listener = new RecordingListener();
+        ReplayTimeProvider clock = new ReplayTimeProvider(List.of());
+        List<MarketUpdateV3> published = new ArrayList<>();
+        AtomicInteger decodes = new AtomicInteger();
+        JournalReplayer.FrameDecoder counting = payload -> {
+            decodes.incrementAndGet();
+            return JournalReplayer.PROTOBUF.decode(payload);
+        };
+
+        JournalReplayer.Result all = new JournalReplayer(ReplaySpeed.AS_FAST_AS_POSSIBLE, clock, listener,
+                published::add, counting).replay(List.of(file));
+        assertEquals(50, all.delivered());
+        assertEquals(50, listener.ticks.size());
+        assertEquals(50, published.size());
+        assertEquals(101.0, listener.ticks.get(1).getLtp(), 1e-9);
+        assertEquals(T0 + 60_000L, listener.ticks.get(1).getExchangeTimestamp());
+        assertEquals(Instant.ofEpochMilli(ts[49]), clock.now());
+        assertTrue(all.speedup() > 100, "49 minutes should replay far faster than real time");
+
+        decodes.set(0);
+        listener.ticks.clear();
+        JournalReplayer.Result window = new JournalReplayer(ReplaySpeed.AS_FAST_AS_POSSIBLE, null, listener,
+                null, counting).replay(List.of(file), ts[10], ts[19]);
+        assertEquals(10, window.delivered());
+        assertEquals(ts[10], window.firstEventMillis());
+        assertEquals(ts[19], window.lastEventMillis());
+        assertEquals(11, decodes.get(), "anchor frame plus the window only");
+    }
+
+    @Test
+    @DisplayName("Scaled clock keeps the original gaps divided by the factor")
+    void pacedReplay() throws Exception {
+        Path file = journal(dir.resolve("c.bin"), new long[] { T0, T0 + 200, T0 + 400 });
+
+        JournalReplayer.Result fast = new JournalReplayer(ReplaySpeed.parse("10x"), null, null, null,
+                JournalReplayer.PROTOBUF).replay(List.of(file));
+        assertEquals(3, fast.delivered());
+        assertTrue(fast.wallNanos() >= 35_000_000L, "40ms expected, was " + fast.wallNanos());
+        assertTrue(fast.wallNanos() < 300_000_000L, "40ms expected, was " + fast.wallNanos());
+
+        assertEquals(ReplaySpeed.REAL_TIME, ReplaySpeed.parse("1x"));
+        assertFalse(ReplaySpeed.parse("max").isPaced());
+        assertThrows(IllegalArgumentException.class, () -> ReplaySpeed.parse("-2x"));
+    }
+
+    @Test
+    @DisplayName("Independent days replay in parallel with their own listeners")
+    void parallelDays() throws Exception {
+        journal(dir.resolve("2026-01-05").resolve("market-v3-1767590000000.bin"), new long[] { T0, T0 + 1 });
+        journal(dir.resolve("2026-01-05").resolve("market-v3-1767590000001.bin"), new long[] { T0 + 2 });
+        journal(dir.resolve("2026-01-06").resolve("market-v3-1767680000000.bin"),
+                new long[] { T0 + 86_400_000L, T0 + 86_400_001L, T0 + 86_400_002L, T0 + 86_400_003L });
+
+        ReplayService service = new ReplayService(new InMemoryEventBus());
+        service.setJournalBaseDir(dir);
+        List<Path> days = service.journalDays(LocalDate.of(2026, 1, 4), LocalDate.of(2026, 1, 6));
+        assertEquals(2, days.size());
+
+        Map<String, RecordingListener> listeners = new ConcurrentHashMap<>();
+        Map<String, JournalReplayer.Result> results = service.replayDays(days, ReplaySpeed.AS_FAST_AS_POSSIBLE,
+                day -> listeners.computeIfAbsent(day, d -> new RecordingListener()), 0);
+
+        assertEquals(List.of("2026-01-05", "2026-01-06"), new ArrayList<>(results.keySet()));
+        assertEquals(3, results.get("2026-01-05").delivered());
+        assertEquals(2, results.get("2026-01-05").files());
+        assertEquals(4, listeners.get("2026-01-06").ticks.size());
+        assertEquals(T0 + 2, listeners.get("2026-01-05").ticks.get(2).getExchangeTimestamp());
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Isolated replay fills its own pipeline and publishes nothing on the shared bus")
+    void isolatedReplay() throws Exception {
+        journal(dir.resolve("2026-01-05").resolve("market-v3-1767590000000.bin"), new long[] { T0, T0 + 1, T0 + 2 });
+        InMemoryEventBus bus = new InMemoryEventBus();
+        AtomicInteger published = new AtomicInteger();
+        bus.subscribe(Object.class, e -> published.incrementAndGet());
+        ReplayService service = new ReplayService(bus);
+        service.setJournalBaseDir(dir);
+
+        ReplayPipeline pipeline = new ReplayPipeline(16);
+        List<Path> files = List.of(service.journalFile("2026-01-05/market-v3-1767590000000.bin"));
+        JournalReplayer.Result result = service.startIsolatedJournalReplay(files, ReplaySpeed.AS_FAST_AS_POSSIBLE,
+                pipeline).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, result.delivered());
+        assertEquals(0, published.get());
+        assertEquals(102.0, pipeline.getCache().getTick(KEY).getLtp(), 1e-9);
+        assertEquals(new ReplayPipeline.Stats(3, 0, 1), pipeline.getStats());
+
+        assertThrows(IllegalArgumentException.class, () -> service.journalFile("../outside.bin"));
+        assertThrows(IllegalArgumentException.class, () -> service.journalFile("2026-01-05/../../outside.bin"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.journalFile(dir.resolve("2026-01-05").toAbsolutePath().toString()));
+        service.shutdown();
+    }
+}
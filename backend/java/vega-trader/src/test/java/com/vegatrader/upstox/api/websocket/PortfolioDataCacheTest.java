@@ -0,0 +1,154 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.vegatrader.upstox.api.response.websocket.OrderUpdate;
+import com.vegatrader.upstox.api.response.websocket.PositionUpdate;
+import com.vegatrader.upstox.api.websocket.cache.PortfolioDataCache;
+import com.vegatrader.upstox.api.websocket.cache.PortfolioDataCache.ChangeSet;
+import com.vegatrader.upstox.api.websocket.cache.PortfolioDataCache.Kind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the versioned portfolio store: ordering, CAS, eviction, change
+ * feed and snapshot/restore.
+ */
+class PortfolioDataCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private static OrderUpdate order(String id, String status, long timestamp) {
+        OrderUpdate order = new OrderUpdate();
+        order.setOrderId(id);
+        order.setStatus(status);
+        order.setTimestamp(timestamp);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Versions advance per key; older timestamps are rejected")
+    void versionsAndOrdering() {
+        PortfolioDataCache cache = new PortfolioDataCache(3600, 100, true);
+        cache.putOrder(order("A", "open", 100));
+        cache.putOrder(order("A", "complete", 200));
+        cache.putOrder(order("A", "open", 150)); // late
+        cache.putOrder(order("B", "open", 120));
+
+        assertEquals("complete", cache.getOrder("A").getStatus());
+        assertEquals(2, cache.getVersion(Kind.ORDER, "A"));
+        assertEquals(1, cache.getVersion(Kind.ORDER, "B"));
+        assertEquals(0, cache.getVersion(Kind.ORDER, "C"));
+        assertEquals(3, cache.getSequence());
+        assertEquals(1, cache.getStatistics().outOfOrderRejections);
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("compareAndSet applies only at the expected version")
+    void compareAndSet() {
+        PortfolioDataCache cache = new PortfolioDataCache(3600, 100, true);
+        assertTrue(cache.compareAndSet(Kind.ORDER, "A", 0, order("A", "open", 100)));
+        assertFalse(cache.compareAndSet(Kind.ORDER, "A", 0, order("A", "open", 100)));
+        assertTrue(cache.compareAndSet(Kind.ORDER, "A", 1, order("A", "cancelled", 90)));
+        assertEquals("cancelled", cache.getOrder("A").getStatus());
+        assertEquals(1, cache.getStatistics().casFailures);
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.compareAndSet(Kind.POSITION, "X", 0, order("X", "open", 1)));
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Over capacity evicts the least recently written key")
+    void lruEviction() {
+        PortfolioDataCache cache = new PortfolioDataCache(3600, 3, true);
+        cache.putOrder(order("A", "open", 1));
+        cache.putOrder(order("B", "open", 2));
+        cache.putOrder(order("C", "open", 3));
+        cache.putOrder(order("A", "complete", 4)); // A is now the youngest
+        cache.putOrder(order("D", "open", 5));
+
+        assertNull(cache.getOrder("B"));
+        assertNotNull(cache.getOrder("A"));
+        assertNotNull(cache.getOrder("C"));
+        assertNotNull(cache.getOrder("D"));
+        assertEquals(1, cache.getStatistics().evictions);
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Change feed returns deltas, and a full snapshot when the reader is too far behind")
+    void changeFeed() {
+        PortfolioDataCache cache = new PortfolioDataCache(3600, 100, true, 4);
+        ChangeSet initial = cache.changesSince(0);
+        assertFalse(initial.full());
+        assertTrue(initial.changes().isEmpty());
+
+        cache.putOrder(order("A", "open", 1));
+        cache.putOrder(order("B", "open", 2));
+        ChangeSet first = cache.changesSince(initial.toSequence());
+        assertEquals(2, first.changes().size());
+        assertEquals("A", first.changes().get(0).key());
+
+        cache.putOrder(order("A", "complete", 3));
+        ChangeSet delta = cache.changesSince(first.toSequence());
+        assertFalse(delta.full());
+        assertEquals(1, delta.changes().size());
+        assertEquals(2, delta.changes().get(0).version());
+
+        for (int i = 0; i < 10; i++) {
+            cache.putOrder(order("C" + i, "open", 10 + i));
+        }
+        ChangeSet lagging = cache.changesSince(delta.toSequence());
+        assertTrue(lagging.full());
+        assertEquals(12, lagging.changes().size());
+        assertEquals(13, lagging.toSequence());
+
+        cache.clear();
+        ChangeSet afterClear = cache.changesSince(lagging.toSequence());
+        assertTrue(afterClear.full());
+        assertTrue(afterClear.changes().isEmpty());
+        cache.putOrder(order("Z", "open", 99));
+        assertEquals(afterClear.toSequence() + 1, cache.getSequence(), "sequence survives clear");
+        assertFalse(cache.changesSince(afterClear.toSequence()).full());
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Snapshot and restore keep values, versions and sequence")
+    void snapshotRestore() throws Exception {
+        PortfolioDataCache cache = new PortfolioDataCache(3600, 100, true);
+        cache.putOrder(order("A", "open", 100));
+        cache.putOrder(order("A", "complete", 200));
+        PositionUpdate position = new PositionUpdate();
+        position.setInstrumentKey("NSE_FO|1");
+        position.setProduct("D");
+        position.setNetQuantity(-75);
+        position.setTimestamp(300L);
+        cache.putPosition(position);
+
+        Path file = dir.resolve("portfolio.snapshot");
+        assertEquals(2, cache.snapshotTo(file));
+        cache.shutdown();
+
+        PortfolioDataCache warm = new PortfolioDataCache(3600, 100, true);
+        assertEquals(2, warm.restoreFrom(file));
+        assertEquals("complete", warm.getOrder("A").getStatus());
+        assertEquals(2, warm.getVersion(Kind.ORDER, "A"));
+        assertEquals(-75, warm.getPosition("NSE_FO|1", "D").getNetQuantity().intValue());
+        assertTrue(warm.getSequence() >= 3);
+
+        ChangeSet changes = warm.changesSince(0);
+        assertTrue(changes.full());
+        assertEquals(2, changes.changes().size());
+
+        warm.putOrder(order("A", "complete", 200)); // re-sent after reconnect
+        assertEquals(3, warm.getVersion(Kind.ORDER, "A"));
+        assertEquals(0, warm.restoreFrom(dir.resolve("missing")));
+        warm.shutdown();
+    }
+}
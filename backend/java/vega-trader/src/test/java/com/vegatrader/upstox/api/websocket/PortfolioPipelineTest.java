@@ -0,0 +1,155 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.vegatrader.upstox.api.response.websocket.OrderUpdate;
+import com.vegatrader.upstox.api.response.websocket.PositionUpdate;
+import com.vegatrader.upstox.api.websocket.buffer.PortfolioDataBuffer;
+import com.vegatrader.upstox.api.websocket.event.PortfolioUpdateEvent;
+import com.vegatrader.upstox.api.websocket.protocol.PortfolioMessageParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the single-pass portfolio parser and the SPSC portfolio buffer.
+ */
+class PortfolioPipelineTest {
+
+    private final PortfolioMessageParser parser = new PortfolioMessageParser();
+
+    @Test
+    @DisplayName("update_type dispatch binds an order in one pass, whatever the field order")
+    void parsesOrder() {
+        String typeFirst = "{\"update_type\":\"order\",\"order_id\":\"250101000123\","
+                + "\"instrument_key\":\"NSE_FO|43885\",\"status\":\"complete\",\"quantity\":75,"
+                + "\"filled_quantity\":\"75\",\"average_price\":24.35,\"timestamp\":1735700000000,"
+                + "\"tags\":[\"a\",{\"b\":1}],\"exchange_order_id\":null}";
+        String typeLast = "{\"order_id\":\"250101000123\",\"instrument_key\":\"NSE_FO|43885\","
+                + "\"meta\":{\"x\":[1,2]},\"quantity\":75,\"timestamp\":1735700000000,\"update_type\":\"ORDER\"}";
+
+        for (String json : List.of(typeFirst, typeLast)) {
+            PortfolioUpdateEvent event = parser.parse(json);
+            assertTrue(event instanceof PortfolioUpdate, event.toString());
+            PortfolioUpdate update = (PortfolioUpdate) event;
+            assertTrue(update.isOrderUpdate());
+            OrderUpdate order = update.getOrderUpdate();
+            assertEquals("250101000123", order.getOrderId());
+            assertEquals("NSE_FO|43885", order.getInstrumentKey());
+            assertEquals(75, order.getQuantity().intValue());
+            assertEquals(1735700000000L, update.getTimestamp());
+        }
+        OrderUpdate order = ((PortfolioUpdate) parser.parse(typeFirst)).getOrderUpdate();
+        assertEquals(75, order.getFilledQuantity().intValue(), "numeric strings are coerced");
+        assertEquals(24.35, order.getAveragePrice(), 1e-9);
+        assertNull(order.getExchangeOrderId());
+    }
+
+    @Test
+    @DisplayName("Positions, legacy type field, missing timestamp, unknown and malformed input")
+    void parsesOtherShapes() {
+        PortfolioUpdate position = (PortfolioUpdate) parser.parse(
+                "{\"type\":\"position\",\"instrument_key\":\"NSE_FO|1\",\"net_quantity\":-50,"
+                        + "\"unrealized_pnl\":-120.5,\"timestamp\":\"2025-01-01T09:15:00\"}");
+        assertTrue(position.isPositionUpdate());
+        PositionUpdate p = position.getPositionUpdate();
+        assertEquals(-50, p.getNetQuantity().intValue());
+        assertEquals(-120.5, p.getUnrealizedPnl(), 1e-9);
+        assertTrue(position.getTimestamp() > 0, "non-numeric timestamp falls back to receive time");
+
+        assertTrue(((PortfolioUpdate) parser.parse("{\"update_type\":\"gtt_order\",\"gtt_id\":\"G1\"}"))
+                .isGttUpdate());
+        assertEquals("unknown", parser.parse("{\"update_type\":\"margin\"}").getEventType());
+        assertEquals("error", parser.parse("{\"order_id\":\"1\"}").getEventType());
+        assertEquals("error", parser.parse("{\"update_type\":\"order\",").getEventType());
+        assertEquals("error", parser.parse("[]").getEventType());
+    }
+
+    private static PortfolioUpdate order(int i) {
+        OrderUpdate order = new OrderUpdate();
+        order.setOrderId(String.valueOf(i));
+        order.setTimestamp((long) i + 1);
+        return new PortfolioUpdate(order);
+    }
+
+    @Test
+    @DisplayName("Full buffer rejects immediately instead of blocking the producer")
+    void saturationDoesNotBlock() throws Exception {
+        PortfolioDataBuffer buffer = new PortfolioDataBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(order(i)));
+        }
+        long start = System.nanoTime();
+        assertFalse(buffer.offer(order(4)));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, buffer.getSaturationCount());
+        assertEquals(4, buffer.size());
+
+        assertEquals("0", buffer.take().getOrderUpdate().getOrderId());
+        assertTrue(buffer.offer(order(5)));
+    }
+
+    @Test
+    @DisplayName("Consumer sees producer order; clear discards what was pending")
+    void orderingAndClear() throws Exception {
+        PortfolioDataBuffer buffer = new PortfolioDataBuffer(64);
+        buffer.offer(order(-1));
+        buffer.offer(order(-2));
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertNull(buffer.poll(5, TimeUnit.MILLISECONDS));
+
+        int count = 20_000;
+        List<String> received = new ArrayList<>(count);
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    received.add(buffer.take().getOrderUpdate().getOrderId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            while (!buffer.offer(order(i))) {
+                Thread.onSpinWait();
+            }
+        }
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive());
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(String.valueOf(i), received.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("A parked consumer is always woken: no lost wake-up without a park timeout")
+    void wakesParkedConsumer() throws Exception {
+        PortfolioDataBuffer buffer = new PortfolioDataBuffer(64);
+        int count = 2_000;
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    buffer.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            // Offer around the moment the consumer gives up spinning and parks
+            LockSupport.parkNanos(i % 50 * 1_000L);
+            assertTrue(buffer.offer(order(i)));
+        }
+        consumer.join(10_000);
+        assertFalse(consumer.isAlive(), "consumer stuck in park");
+        assertEquals(count, buffer.getConsumedCount());
+    }
+}
@@ -0,0 +1,110 @@
+package com.vegatrader.upstox.api.websocket;
+
+import com.vegatrader.upstox.api.response.websocket.FeedData;
+import com.vegatrader.upstox.api.response.websocket.MarketDataFeedV3Response;
+import com.vegatrader.upstox.api.websocket.buffer.ShardedMarketDataBuffer;
+import com.vegatrader.upstox.api.websocket.buffer.SpscRing;
+import com.vegatrader.upstox.api.websocket.bus.InMemoryEventBus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for instrument-affinity sharded market data buffering.
+ */
+class ShardedMarketDataBufferTest {
+
+    private static MarketUpdateV3 update(long seq, String... instrumentKeys) {
+        Map<String, FeedData> feeds = new LinkedHashMap<>();
+        for (String key : instrumentKeys) {
+            feeds.put(key, new FeedData());
+        }
+        MarketDataFeedV3Response response = new MarketDataFeedV3Response();
+        response.setType("live_feed");
+        response.setCurrentTs(Long.toString(seq));
+        response.setFeeds(feeds);
+        return new MarketUpdateV3(response);
+    }
+
+    @Test
+    @DisplayName("SpscRing: FIFO, bounded, reusable after wrap")
+    void spscRing() {
+        SpscRing<Integer> ring = new SpscRing<>(3); // rounds to 4
+        assertEquals(4, ring.capacity());
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.offer(i));
+            }
+            assertFalse(ring.offer(99));
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, ring.poll());
+            }
+            assertNull(ring.poll());
+        }
+    }
+
+    @Test
+    @DisplayName("Multi-instrument updates are split into per-instrument shards")
+    void splitsMultiInstrumentUpdates() {
+        ShardedMarketDataBuffer buffer = new ShardedMarketDataBuffer(4, 64);
+        assertTrue(buffer.offer(update(1, "NSE_EQ|A", "NSE_EQ|B", "NSE_EQ|C")));
+        assertEquals(3, buffer.size());
+        assertEquals(3, buffer.getStatistics().offeredCount);
+    }
+
+    @Test
+    @DisplayName("Per-instrument ordering holds across shard workers")
+    void perInstrumentOrdering() throws Exception {
+        int instruments = 64;
+        int ticksPerInstrument = 5_000;
+        ShardedMarketDataBuffer buffer = new ShardedMarketDataBuffer(4, 1 << 16);
+        InMemoryEventBus bus = new InMemoryEventBus();
+
+        Map<String, AtomicLong> lastSeen = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        bus.subscribe(MarketUpdateV3.class, u -> {
+            long seq = u.getTimestamp();
+            long previous = lastSeen.computeIfAbsent(u.getInstrumentKey(), k -> new AtomicLong(-1)).getAndSet(seq);
+            if (previous >= seq) {
+                outOfOrder.incrementAndGet();
+            }
+            received.incrementAndGet();
+        });
+
+        ExecutorService workers = Executors.newFixedThreadPool(buffer.getShardCount());
+        for (int i = 0; i < buffer.getShardCount(); i++) {
+            workers.submit(buffer.consumer(i, bus));
+        }
+
+        int offered = 0;
+        for (int seq = 0; seq < ticksPerInstrument; seq++) {
+            for (int k = 0; k < instruments; k++) {
+                while (!buffer.offer(update(seq, "NSE_EQ|" + k))) {
+                    Thread.onSpinWait();
+                }
+                offered++;
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (received.get() < offered && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        workers.shutdownNow();
+
+        assertEquals(offered, received.get());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(4, buffer.getShardStatistics().size());
+    }
+}